@@ -0,0 +1,157 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.benchmark.common.cache;
+
+import org.elasticsearch.common.cache.Cache;
+import org.elasticsearch.common.cache.CacheBuilder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the throughput of {@link Cache} for different workloads and levels of concurrency, with and without
+ * frequency-aware admission:
+ * <ul>
+ *     <li>{@code hits}: all keys fit in the cache and all operations are reads</li>
+ *     <li>{@code mixed}: the key space is twice the size of the cache, three out of four operations are reads and the
+ *     remaining operations are loads through {@link Cache#computeIfAbsent}</li>
+ *     <li>{@code evictions}: the key space is eight times the size of the cache and all operations are loads through
+ *     {@link Cache#computeIfAbsent}, so that most of them evict an entry</li>
+ * </ul>
+ * Keys are drawn from a skewed distribution so that a small fraction of the keys receives most of the operations.
+ */
+@Fork(3)
+@Warmup(iterations = 10)
+@Measurement(iterations = 10)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@SuppressWarnings("unused") //invoked by benchmarking framework
+public class CacheBenchmark {
+
+    private static final int MAXIMUM_WEIGHT = 1 << 14;
+    private static final int NUMBER_OF_KEYS = 1 << 12;
+
+    @Param({"hits", "mixed", "evictions"})
+    private String workload;
+
+    @Param({"lru", "tinylfu"})
+    private String policy;
+
+    private Cache<Integer, Integer> cache;
+    private int keySpace;
+    private int readPercentage;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        switch (workload) {
+            case "hits":
+                keySpace = MAXIMUM_WEIGHT;
+                readPercentage = 100;
+                break;
+            case "mixed":
+                keySpace = 2 * MAXIMUM_WEIGHT;
+                readPercentage = 75;
+                break;
+            case "evictions":
+                keySpace = 8 * MAXIMUM_WEIGHT;
+                readPercentage = 0;
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown workload [" + workload + "]");
+        }
+        cache = CacheBuilder.<Integer, Integer>builder()
+            .setMaximumWeight(MAXIMUM_WEIGHT)
+            .setFrequencyAware("tinylfu".equals(policy))
+            .build();
+        for (int i = 0; i < Math.min(keySpace, MAXIMUM_WEIGHT); i++) {
+            cache.put(i, i);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class ThreadState {
+        private final int[] keys = new int[NUMBER_OF_KEYS];
+        private final boolean[] reads = new boolean[NUMBER_OF_KEYS];
+        private int index;
+
+        @Setup(Level.Trial)
+        public void setUp(CacheBenchmark benchmark) {
+            final Random random = new Random(Thread.currentThread().getId());
+            for (int i = 0; i < NUMBER_OF_KEYS; i++) {
+                // a cubic skew sends roughly half of the operations to the hottest eighth of the key space
+                keys[i] = (int) (benchmark.keySpace * Math.pow(random.nextDouble(), 3));
+                reads[i] = random.nextInt(100) < benchmark.readPercentage;
+            }
+        }
+
+        int next() {
+            return index = (index + 1) & (NUMBER_OF_KEYS - 1);
+        }
+    }
+
+    private Integer operation(ThreadState state) throws ExecutionException {
+        final int i = state.next();
+        final Integer key = state.keys[i];
+        if (state.reads[i]) {
+            return cache.get(key);
+        } else {
+            return cache.computeIfAbsent(key, k -> k);
+        }
+    }
+
+    @Benchmark
+    @Threads(1)
+    public Integer cache_01(ThreadState state) throws ExecutionException {
+        return operation(state);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public Integer cache_04(ThreadState state) throws ExecutionException {
+        return operation(state);
+    }
+
+    @Benchmark
+    @Threads(16)
+    public Integer cache_16(ThreadState state) throws ExecutionException {
+        return operation(state);
+    }
+
+    @Benchmark
+    @Threads(64)
+    public Integer cache_64(ThreadState state) throws ExecutionException {
+        return operation(state);
+    }
+}
@@ -0,0 +1,111 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.elasticsearch.benchmark.grok;
+
+import org.elasticsearch.grok.Grok;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures matching common log formats with grok, and rejecting a line that lacks the literal text a pattern requires.
+ */
+@Fork(2)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+@SuppressWarnings("unused") //invoked by benchmarking framework
+public class GrokBenchmark {
+
+    private static final String NGINX_ACCESS_PATTERN = "%{IPORHOST:client} - %{USER:user} \\[%{HTTPDATE:timestamp}\\] " +
+        "\"%{WORD:verb} %{URIPATHPARAM:request} HTTP/%{NUMBER:httpversion}\" %{NUMBER:status:int} %{NUMBER:bytes:long} " +
+        "%{QS:referrer} %{QS:agent}";
+
+    @Param({"apache", "syslog", "nginx"})
+    private String format;
+
+    private Grok grok;
+    private String line;
+    private Grok nginxAccessGrok;
+    private String nonMatchingLine;
+
+    @Setup
+    public void setup() {
+        Map<String, String> patterns = Grok.getBuiltinPatterns();
+        switch (format) {
+            case "apache":
+                grok = new Grok(patterns, "%{COMBINEDAPACHELOG}");
+                line = "83.149.9.216 - - [17/May/2015:10:05:03 +0000] " +
+                    "\"GET /presentations/logstash-monitorama-2013/images/kibana-search.png HTTP/1.1\" 200 203023 " +
+                    "\"http://semicomplete.com/presentations/logstash-monitorama-2013/\" \"Mozilla/5.0 " +
+                    "(Macintosh; Intel Mac OS X 10_9_1) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/32.0.1700.77 Safari/537.36\"";
+                break;
+            case "syslog":
+                grok = new Grok(patterns, "%{SYSLOGLINE}");
+                line = "Mar 16 00:01:25 evita postfix/smtpd[1713]: connect from camomile.cloud9.net[168.100.1.3]";
+                break;
+            case "nginx":
+                grok = new Grok(patterns, NGINX_ACCESS_PATTERN);
+                line = "172.17.0.1 - - [12/Oct/2019:15:30:41 +0000] \"GET /api/v1/status?verbose=true HTTP/1.1\" 200 612 \"-\" " +
+                    "\"curl/7.64.0\"";
+                break;
+            default:
+                throw new IllegalArgumentException("unknown format [" + format + "]");
+        }
+        nginxAccessGrok = new Grok(patterns, NGINX_ACCESS_PATTERN);
+        nonMatchingLine = "2019/10/12 15:30:41 [error] 6#6: *1 open() \"/usr/share/nginx/html/favicon.ico\" failed";
+    }
+
+    @Benchmark
+    public Map<String, Object> captures() {
+        return grok.captures(line);
+    }
+
+    @Benchmark
+    public boolean capturesWithExtracter(Blackhole blackhole) {
+        return grok.captures(line, (name, value) -> blackhole.consume(value));
+    }
+
+    @Benchmark
+    public boolean match() {
+        return grok.match(line);
+    }
+
+    @Benchmark
+    public boolean prefilteredNoMatch() {
+        // the nginx access pattern requires literals that an error log line doesn't contain
+        return nginxAccessGrok.captures(nonMatchingLine, (name, value) -> {});
+    }
+}
@@ -0,0 +1,152 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.elasticsearch.benchmark.index.codec;
+
+import org.apache.lucene.codecs.PostingsFormat;
+import org.apache.lucene.codecs.lucene84.Lucene84Codec;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.NumericDocValuesField;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.FSDirectory;
+import org.apache.lucene.util.BytesRef;
+import org.apache.lucene.util.IOUtils;
+import org.elasticsearch.common.lucene.uid.VersionsAndSeqNoResolver;
+import org.elasticsearch.common.lucene.uid.VersionsAndSeqNoResolver.DocIdAndVersion;
+import org.elasticsearch.index.codec.ES80BloomFilterPostingsFormat;
+import org.elasticsearch.index.mapper.IdFieldMapper;
+import org.elasticsearch.index.mapper.Uid;
+import org.elasticsearch.index.mapper.VersionFieldMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the indexing of documents with an explicit id the way the engine does it once the version map no longer knows about the
+ * id: a lookup of the current version of the id against the last refreshed reader, followed by an add or an update of the document.
+ * Unlike {@link IdFieldLookupBenchmark}, this includes the cost of writing the bloom filter when segments get flushed and merged,
+ * so that it tells whether the faster lookups pay for the slower writes.
+ * <p>
+ * The index is refreshed every {@code refreshInterval} documents and merges run as usual. A share of the documents, given by
+ * {@code updateRatio}, update an id that was indexed before, the others get a new id.
+ */
+@Warmup(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@Fork(3)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+public class IdFieldIndexingBenchmark {
+
+    @Param({"false", "true"})
+    public boolean bloomFilter;
+
+    @Param({"1000", "10000"})
+    public int refreshInterval;
+
+    @Param({"0", "0.1"})
+    public double updateRatio;
+
+    @Param({"100000"})
+    public int initialDocs;
+
+    private Path path;
+    private Directory directory;
+    private IndexWriter writer;
+    private DirectoryReader reader;
+    private long nextId;
+    // ids below this one are visible to the reader, the engine would find more recent ones in its version map
+    private long refreshedIds;
+    private long operations;
+
+    @Setup
+    public void setup() throws IOException {
+        path = Files.createTempDirectory("id-indexing");
+        directory = FSDirectory.open(path);
+        final PostingsFormat idPostingsFormat = new ES80BloomFilterPostingsFormat(PostingsFormat.forName("Lucene84"));
+        final IndexWriterConfig iwc = new IndexWriterConfig();
+        iwc.setCodec(new Lucene84Codec() {
+            @Override
+            public PostingsFormat getPostingsFormatForField(String field) {
+                return bloomFilter && IdFieldMapper.NAME.equals(field) ? idPostingsFormat : super.getPostingsFormatForField(field);
+            }
+        });
+        writer = new IndexWriter(directory, iwc);
+        reader = DirectoryReader.open(writer);
+        for (int i = 0; i < initialDocs; i++) {
+            index();
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        IOUtils.close(reader, writer, directory);
+        IOUtils.rm(path);
+    }
+
+    @Benchmark
+    public Object index() throws IOException {
+        final long id;
+        if (refreshedIds > 0 && (operations % 100) < updateRatio * 100) {
+            // spread the updates over the whole index rather than only the documents of the last segments
+            id = Long.remainderUnsigned(operations * 0x9E3779B97F4A7C15L, refreshedIds);
+        } else {
+            id = nextId++;
+        }
+        final BytesRef uid = Uid.encodeId(Long.toString(id));
+        final Term term = new Term(IdFieldMapper.NAME, uid);
+        final DocIdAndVersion current = VersionsAndSeqNoResolver.loadDocIdAndVersion(reader, term, false);
+        final Document doc = new Document();
+        doc.add(new StringField(IdFieldMapper.NAME, uid, Field.Store.NO));
+        doc.add(new NumericDocValuesField(VersionFieldMapper.NAME, current == null ? 1L : current.version + 1));
+        if (current == null) {
+            writer.addDocument(doc);
+        } else {
+            writer.updateDocument(term, doc);
+        }
+        if (++operations % refreshInterval == 0) {
+            final DirectoryReader newReader = DirectoryReader.openIfChanged(reader, writer);
+            if (newReader != null) {
+                reader.close();
+                reader = newReader;
+            }
+            refreshedIds = nextId;
+        }
+        return current;
+    }
+}
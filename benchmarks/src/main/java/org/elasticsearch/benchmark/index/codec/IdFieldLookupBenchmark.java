@@ -0,0 +1,127 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.benchmark.index.codec;
+
+import org.apache.lucene.codecs.PostingsFormat;
+import org.apache.lucene.codecs.lucene84.Lucene84Codec;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.NumericDocValuesField;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.NoMergePolicy;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.FSDirectory;
+import org.apache.lucene.util.IOUtils;
+import org.elasticsearch.common.lucene.uid.VersionsAndSeqNoResolver;
+import org.elasticsearch.index.codec.ES80BloomFilterPostingsFormat;
+import org.elasticsearch.index.mapper.IdFieldMapper;
+import org.elasticsearch.index.mapper.Uid;
+import org.elasticsearch.index.mapper.VersionFieldMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the lookup of the current version of a document that every index operation with an explicit id performs, against a shard
+ * with many segments. The ids that are looked up are new, like they are when indexing new documents, so every segment is probed.
+ */
+@Warmup(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@Fork(3)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+public class IdFieldLookupBenchmark {
+
+    @Param({"false", "true"})
+    public boolean bloomFilter;
+
+    @Param({"10", "50"})
+    public int numSegments;
+
+    @Param({"10000"})
+    public int docsPerSegment;
+
+    private Path path;
+    private Directory directory;
+    private DirectoryReader reader;
+    private long nextId;
+
+    @Setup
+    public void setup() throws IOException {
+        path = Files.createTempDirectory("id-lookup");
+        directory = FSDirectory.open(path);
+        final PostingsFormat idPostingsFormat = new ES80BloomFilterPostingsFormat(PostingsFormat.forName("Lucene84"));
+        final IndexWriterConfig iwc = new IndexWriterConfig();
+        iwc.setCodec(new Lucene84Codec() {
+            @Override
+            public PostingsFormat getPostingsFormatForField(String field) {
+                return bloomFilter && IdFieldMapper.NAME.equals(field) ? idPostingsFormat : super.getPostingsFormatForField(field);
+            }
+        });
+        iwc.setMergePolicy(NoMergePolicy.INSTANCE);
+        try (IndexWriter writer = new IndexWriter(directory, iwc)) {
+            for (int i = 0; i < numSegments; i++) {
+                for (int j = 0; j < docsPerSegment; j++) {
+                    final Document doc = new Document();
+                    doc.add(new StringField(IdFieldMapper.NAME, Uid.encodeId(Long.toString(nextId++)), Field.Store.NO));
+                    doc.add(new NumericDocValuesField(VersionFieldMapper.NAME, 1L));
+                    writer.addDocument(doc);
+                }
+                writer.flush();
+            }
+            writer.commit();
+        }
+        reader = DirectoryReader.open(directory);
+        if (reader.leaves().size() != numSegments) {
+            throw new IllegalStateException("expected [" + numSegments + "] segments but got [" + reader.leaves().size() + "]");
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        IOUtils.close(reader, directory);
+        IOUtils.rm(path);
+    }
+
+    @Benchmark
+    public Object lookupNewId() throws IOException {
+        final Term term = new Term(IdFieldMapper.NAME, Uid.encodeId(Long.toString(nextId++)));
+        return VersionsAndSeqNoResolver.loadDocIdAndVersion(reader, term, false);
+    }
+}
@@ -0,0 +1,156 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.elasticsearch.benchmark.index.engine;
+
+import org.apache.lucene.util.BytesRef;
+import org.elasticsearch.common.lease.Releasable;
+import org.elasticsearch.common.util.concurrent.ConcurrentCollections;
+import org.elasticsearch.common.util.concurrent.KeyedLock;
+import org.elasticsearch.index.engine.IndexVersionValue;
+import org.elasticsearch.index.engine.LiveVersionMap;
+import org.elasticsearch.index.engine.VersionValue;
+import org.elasticsearch.index.translog.Translog;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the throughput of upserts, ie. a lookup of the current version of a user-supplied id followed by a write of its new
+ * version, against the version map. The {@code paged} implementation goes through {@link LiveVersionMap} and its
+ * paged version tables, while {@code concurrent_hash_map} does the same work against a {@code ConcurrentHashMap} holding
+ * {@link BytesRef} keys and {@link IndexVersionValue} objects, which is how the version map used to store its entries.
+ * Both take a per-id lock around the lookup and the write like the engine does.
+ * <p>
+ * Ids are drawn uniformly from a fixed set of ids, and the map is refreshed every {@code refreshInterval} operations of a thread,
+ * like the engine would do when indexing memory runs high.
+ */
+@Fork(3)
+@Warmup(iterations = 10)
+@Measurement(iterations = 10)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@SuppressWarnings("unused") //invoked by benchmarking framework
+public class LiveVersionMapBenchmark {
+
+    private static final int NUMBER_OF_IDS = 1 << 16;
+
+    @Param({"paged", "concurrent_hash_map"})
+    private String implementation;
+
+    @Param({"1000", "100000"})
+    private int refreshInterval;
+
+    private BytesRef[] ids;
+    private LiveVersionMap versionMap;
+    private volatile Map<BytesRef, VersionValue> map;
+    private final KeyedLock<BytesRef> keyedLock = new KeyedLock<>();
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        final Random random = new Random(0);
+        ids = new BytesRef[NUMBER_OF_IDS];
+        for (int i = 0; i < ids.length; i++) {
+            // user-supplied ids of about the size of a UUID
+            final byte[] bytes = new byte[16 + random.nextInt(8)];
+            random.nextBytes(bytes);
+            ids[i] = new BytesRef(bytes);
+        }
+        switch (implementation) {
+            case "paged":
+                versionMap = new LiveVersionMap();
+                versionMap.enforceSafeAccess();
+                break;
+            case "concurrent_hash_map":
+                map = ConcurrentCollections.newConcurrentMapWithAggressiveConcurrency();
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown implementation [" + implementation + "]");
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class ThreadState {
+        private final Random random = new Random(Thread.currentThread().getId());
+        private long operations;
+    }
+
+    private VersionValue upsert(ThreadState state) throws IOException {
+        final BytesRef id = ids[state.random.nextInt(NUMBER_OF_IDS)];
+        final long seqNo = ++state.operations;
+        final Translog.Location location = new Translog.Location(1, seqNo * 100, 100);
+        final VersionValue previous;
+        if (versionMap != null) {
+            try (Releasable ignored = versionMap.acquireLock(id)) {
+                previous = versionMap.getUnderLock(id);
+                versionMap.putIndexUnderLock(id, new IndexVersionValue(location, seqNo, seqNo, 1));
+            }
+            if (seqNo % refreshInterval == 0) {
+                versionMap.beforeRefresh();
+                versionMap.afterRefresh(true);
+                versionMap.enforceSafeAccess();
+            }
+        } else {
+            final Map<BytesRef, VersionValue> current = map;
+            try (Releasable ignored = keyedLock.acquire(id)) {
+                previous = current.get(id);
+                current.put(id, new IndexVersionValue(location, seqNo, seqNo, 1));
+            }
+            if (seqNo % refreshInterval == 0) {
+                map = ConcurrentCollections.newConcurrentMapWithAggressiveConcurrency();
+            }
+        }
+        return previous;
+    }
+
+    @Benchmark
+    @Threads(1)
+    public VersionValue upsert_01(ThreadState state) throws IOException {
+        return upsert(state);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public VersionValue upsert_04(ThreadState state) throws IOException {
+        return upsert(state);
+    }
+
+    @Benchmark
+    @Threads(16)
+    public VersionValue upsert_16(ThreadState state) throws IOException {
+        return upsert(state);
+    }
+}
@@ -0,0 +1,150 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.elasticsearch.benchmark.search.fetch;
+
+import org.elasticsearch.common.CheckedBiConsumer;
+import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.io.stream.BytesStreamOutput;
+import org.elasticsearch.common.xcontent.DeprecationHandler;
+import org.elasticsearch.common.xcontent.NamedXContentRegistry;
+import org.elasticsearch.common.xcontent.XContentBuilder;
+import org.elasticsearch.common.xcontent.XContentHelper;
+import org.elasticsearch.common.xcontent.XContentParser;
+import org.elasticsearch.common.xcontent.XContentType;
+import org.elasticsearch.common.xcontent.json.JsonXContent;
+import org.elasticsearch.common.xcontent.support.XContentMapValues;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Compares filtering {@code _source} by parsing it into a map, filtering the map and serializing the result again,
+ * which is what the fetch phase used to do, with filtering it while copying it token by token through
+ * {@link XContentMapValues#filterXContent(String[], String[])}. Documents are either:
+ * <ul>
+ *     <li>{@code typical}: a couple dozen fields, a few of them objects or arrays</li>
+ *     <li>{@code wide}: a thousand top-level fields, each of them an object with a few sub-fields</li>
+ * </ul>
+ * and filters either:
+ * <ul>
+ *     <li>{@code include}: keep a couple of fields out of the whole document</li>
+ *     <li>{@code exclude}: drop a couple of fields, including one sub-field of each object</li>
+ * </ul>
+ */
+@Fork(3)
+@Warmup(iterations = 10)
+@Measurement(iterations = 10)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@SuppressWarnings("unused") //invoked by benchmarking framework
+public class FetchSourceFilterBenchmark {
+
+    @Param({"typical", "wide"})
+    private String document;
+
+    @Param({"include", "exclude"})
+    private String filter;
+
+    private BytesReference source;
+    private Function<Map<String, ?>, Map<String, Object>> mapFilter;
+    private CheckedBiConsumer<XContentParser, XContentBuilder, IOException> xContentFilter;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        final int numObjects;
+        switch (document) {
+            case "typical":
+                numObjects = 4;
+                break;
+            case "wide":
+                numObjects = 1000;
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown document [" + document + "]");
+        }
+        XContentBuilder builder = JsonXContent.contentBuilder().startObject();
+        builder.field("@timestamp", "2020-05-04T12:34:56.789Z");
+        builder.field("message", "GET /search?q=elasticsearch HTTP/1.1 200 1024 \"-\" \"Mozilla/5.0 (X11; Linux x86_64)\"");
+        builder.field("status", 200);
+        builder.field("bytes", 1024L);
+        builder.array("tags", "web", "production", "eu-west-1");
+        for (int i = 0; i < numObjects; i++) {
+            builder.startObject("object_" + i);
+            builder.field("name", "value_" + i);
+            builder.field("count", i);
+            builder.field("ratio", i / 7d);
+            builder.array("values", i, i + 1, i + 2);
+            builder.startObject("meta").field("created_by", "user_" + (i % 13)).field("version", i % 5).endObject();
+            builder.endObject();
+        }
+        builder.endObject();
+        source = BytesReference.bytes(builder);
+
+        final String[] includes;
+        final String[] excludes;
+        switch (filter) {
+            case "include":
+                includes = new String[] { "@timestamp", "object_1.name" };
+                excludes = new String[0];
+                break;
+            case "exclude":
+                includes = new String[0];
+                excludes = new String[] { "message", "*.meta" };
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown filter [" + filter + "]");
+        }
+        mapFilter = XContentMapValues.filter(includes, excludes);
+        xContentFilter = XContentMapValues.filterXContent(includes, excludes);
+    }
+
+    @Benchmark
+    public BytesReference filterMap() throws IOException {
+        Map<String, Object> filtered = mapFilter.apply(XContentHelper.convertToMap(source, false, XContentType.JSON).v2());
+        XContentBuilder builder = new XContentBuilder(XContentType.JSON.xContent(), new BytesStreamOutput(source.length()));
+        return BytesReference.bytes(builder.value(filtered));
+    }
+
+    @Benchmark
+    public BytesReference filterXContent() throws IOException {
+        try (XContentParser parser = XContentType.JSON.xContent()
+                .createParser(NamedXContentRegistry.EMPTY, DeprecationHandler.THROW_UNSUPPORTED_OPERATION, source.streamInput())) {
+            XContentBuilder builder = new XContentBuilder(XContentType.JSON.xContent(), new BytesStreamOutput(source.length()));
+            xContentFilter.accept(parser, builder);
+            return BytesReference.bytes(builder);
+        }
+    }
+}
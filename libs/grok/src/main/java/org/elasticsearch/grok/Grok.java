@@ -40,6 +40,7 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.function.BiConsumer;
 
 public final class Grok {
 
@@ -73,8 +74,14 @@ public final class Grok {
     private final Map<String, String> patternBank;
     private final boolean namedCaptures;
     private final Regex compiledExpression;
+    private final List<GrokCaptureConfig> captureConfig;
+    private final String requiredLiteral;
     private final MatcherWatchdog matcherWatchdog;
 
+    private static final ThreadLocal<MatchBuffer> MATCH_BUFFER = ThreadLocal.withInitial(MatchBuffer::new);
+    // the characters that stand for themselves when escaped
+    private static final String ESCAPED_LITERALS = "\\.^$|?*+()[]{}-/\" #:=!,;@%&~";
+
     public Grok(Map<String, String> patternBank, String grokPattern) {
         this(patternBank, grokPattern, true, MatcherWatchdog.noop());
     }
@@ -101,6 +108,13 @@ public final class Grok {
         String expression = toRegex(grokPattern);
         byte[] expressionBytes = expression.getBytes(StandardCharsets.UTF_8);
         this.compiledExpression = new Regex(expressionBytes, 0, expressionBytes.length, Option.DEFAULT, UTF8Encoding.INSTANCE);
+
+        List<GrokCaptureConfig> captureConfig = new ArrayList<>();
+        for (Iterator<NameEntry> entry = compiledExpression.namedBackrefIterator(); entry.hasNext();) {
+            captureConfig.add(new GrokCaptureConfig(entry.next()));
+        }
+        this.captureConfig = Collections.unmodifiableList(captureConfig);
+        this.requiredLiteral = requiredLiteral(grokPattern);
     }
 
     /**
@@ -207,6 +221,14 @@ public final class Grok {
         return grokPattern;
     }
 
+    /**
+     * Cheap check of whether a specific text may match the defined grok expression: returns <code>false</code>
+     * if the text lacks literal text that any match of the expression must contain.
+     */
+    public boolean mayMatch(String text) {
+        return requiredLiteral == null || text.contains(requiredLiteral);
+    }
+
     /**
      * Checks whether a specific text matches the defined grok expression.
      *
@@ -214,11 +236,16 @@ public final class Grok {
      * @return true if grok expression matches text or there is a timeout, false otherwise.
      */
     public boolean match(String text) {
-        Matcher matcher = compiledExpression.matcher(text.getBytes(StandardCharsets.UTF_8));
+        if (mayMatch(text) == false) {
+            return false;
+        }
+        MatchBuffer buffer = MATCH_BUFFER.get();
+        buffer.encode(text);
+        Matcher matcher = compiledExpression.matcher(buffer.bytes, 0, buffer.length);
         int result;
         try {
             matcherWatchdog.register(matcher);
-            result = matcher.search(0, text.length(), Option.DEFAULT);
+            result = matcher.search(0, buffer.length, Option.DEFAULT);
         } finally {
             matcherWatchdog.unregister(matcher);
         }
@@ -233,12 +260,32 @@ public final class Grok {
      * @return a map containing field names and their respective coerced values that matched.
      */
     public Map<String, Object> captures(String text) {
-        byte[] textAsBytes = text.getBytes(StandardCharsets.UTF_8);
-        Matcher matcher = compiledExpression.matcher(textAsBytes);
+        if (captureConfig.isEmpty()) {
+            return captures(text, (name, value) -> {}) ? Collections.emptyMap() : null;
+        }
+        Map<String, Object> fields = new HashMap<>();
+        return captures(text, fields::put) ? fields : null;
+    }
+
+    /**
+     * Matches the provided text and passes the field names and coerced values of any named captures to
+     * <code>extracter</code>, which saves building a map when the captures end up somewhere else anyway.
+     *
+     * @param text the text to match and extract values from.
+     * @param extracter called with the name and value of every named capture that took part in the match
+     * @return <code>true</code> if the text matched, <code>false</code> otherwise.
+     */
+    public boolean captures(String text, BiConsumer<String, Object> extracter) {
+        if (mayMatch(text) == false) {
+            return false;
+        }
+        MatchBuffer buffer = MATCH_BUFFER.get();
+        buffer.encode(text);
+        Matcher matcher = compiledExpression.matcher(buffer.bytes, 0, buffer.length);
         int result;
         try {
             matcherWatchdog.register(matcher);
-            result = matcher.search(0, textAsBytes.length, Option.DEFAULT);
+            result = matcher.search(0, buffer.length, Option.DEFAULT);
         } finally {
             matcherWatchdog.unregister(matcher);
         }
@@ -247,27 +294,85 @@ public final class Grok {
                 matcherWatchdog.maxExecutionTimeInMillis() + "] ms");
         } else if (result == Matcher.FAILED) {
             // TODO: I think we should throw an error here?
-            return null;
-        } else if (compiledExpression.numberOfNames() > 0) {
-            Map<String, Object> fields = new HashMap<>();
-            Region region = matcher.getEagerRegion();
-            for (Iterator<NameEntry> entry = compiledExpression.namedBackrefIterator(); entry.hasNext();) {
-                NameEntry e = entry.next();
-                String groupName = new String(e.name, e.nameP, e.nameEnd - e.nameP, StandardCharsets.UTF_8);
-                for (int number : e.getBackRefs()) {
-                    if (region.beg[number] >= 0) {
-                        String matchValue = new String(textAsBytes, region.beg[number], region.end[number] - region.beg[number],
-                            StandardCharsets.UTF_8);
-                        GrokMatchGroup match = new GrokMatchGroup(groupName, matchValue);
-                        fields.put(match.getName(), match.getValue());
-                        break;
-                    }
+            return false;
+        }
+        Region region = matcher.getEagerRegion();
+        for (GrokCaptureConfig config : captureConfig) {
+            Object value = config.extract(buffer.bytes, region);
+            if (value != null) {
+                extracter.accept(config.name(), value);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Extracts the longest run of literal text that any text matching the given grok pattern must contain, or
+     * <code>null</code> if there is no such text. Only the literal text between grok references is considered,
+     * and any construct that could make part of the pattern optional (groups, alternations, quantifiers...) disables
+     * the extraction altogether. Anchors are not used since <code>^</code> and <code>$</code> match at line
+     * boundaries with joni's Ruby syntax. Extraction stops at the first escape sequence that isn't an escaped
+     * metacharacter, since it may be followed by operands such as <code>\x41</code> or <code>\k&lt;name&gt;</code>.
+     */
+    static String requiredLiteral(String grokPattern) {
+        String longest = null;
+        StringBuilder current = new StringBuilder();
+        int i = 0;
+        while (i < grokPattern.length()) {
+            char c = grokPattern.charAt(i);
+            if (c == '%' && i + 1 < grokPattern.length() && grokPattern.charAt(i + 1) == '{') {
+                int end = grokPattern.indexOf('}', i);
+                if (end == -1) {
+                    return null;
                 }
+                longest = longest(longest, current);
+                i = end + 1;
+                continue;
             }
-            return fields;
-        } else {
-            return Collections.emptyMap();
+            switch (c) {
+                case '\\':
+                    if (i + 1 == grokPattern.length()) {
+                        return null;
+                    }
+                    char escaped = grokPattern.charAt(i + 1);
+                    if (ESCAPED_LITERALS.indexOf(escaped) == -1) {
+                        // a character class, an anchor, a back reference, a character code or quoting, whose operands
+                        // aren't literal text either
+                        return longest(longest, current);
+                    }
+                    current.append(escaped);
+                    i += 2;
+                    continue;
+                case '.':
+                case '^':
+                case '$':
+                    longest = longest(longest, current);
+                    break;
+                case '(':
+                case ')':
+                case '|':
+                case '[':
+                case ']':
+                case '{':
+                case '}':
+                case '?':
+                case '*':
+                case '+':
+                    return null;
+                default:
+                    current.append(c);
+            }
+            i++;
         }
+        return longest(longest, current);
+    }
+
+    private static String longest(String longest, StringBuilder current) {
+        if (current.length() > 0 && (longest == null || current.length() > longest.length())) {
+            longest = current.toString();
+        }
+        current.setLength(0);
+        return longest;
     }
 
     public static Map<String, String> getBuiltinPatterns() {
@@ -306,5 +411,53 @@ public final class Grok {
         }
     }
 
-}
+    /**
+     * Holds the UTF-8 encoding of the text being matched. There is one instance per thread so that matching does
+     * not need to allocate a new byte array for every text, except for texts that are larger than what we are
+     * willing to keep around.
+     */
+    private static final class MatchBuffer {
+
+        private static final int MAX_REUSED_SIZE = 1 << 16;
 
+        private byte[] reused = new byte[1024];
+        byte[] bytes;
+        int length;
+
+        void encode(String text) {
+            final int maxLength = text.length() * 3;
+            if (maxLength <= reused.length) {
+                bytes = reused;
+            } else if (maxLength <= MAX_REUSED_SIZE) {
+                reused = new byte[maxLength];
+                bytes = reused;
+            } else {
+                bytes = new byte[maxLength];
+            }
+            int pos = 0;
+            for (int i = 0; i < text.length(); i++) {
+                final char c = text.charAt(i);
+                if (c < 0x80) {
+                    bytes[pos++] = (byte) c;
+                } else if (c < 0x800) {
+                    bytes[pos++] = (byte) (0xC0 | (c >> 6));
+                    bytes[pos++] = (byte) (0x80 | (c & 0x3F));
+                } else if (Character.isSurrogate(c) == false) {
+                    bytes[pos++] = (byte) (0xE0 | (c >> 12));
+                    bytes[pos++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                    bytes[pos++] = (byte) (0x80 | (c & 0x3F));
+                } else if (Character.isHighSurrogate(c) && i + 1 < text.length() && Character.isLowSurrogate(text.charAt(i + 1))) {
+                    final int codePoint = Character.toCodePoint(c, text.charAt(++i));
+                    bytes[pos++] = (byte) (0xF0 | (codePoint >> 18));
+                    bytes[pos++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+                    bytes[pos++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+                    bytes[pos++] = (byte) (0x80 | (codePoint & 0x3F));
+                } else {
+                    // unpaired surrogate, replaced the same way as String#getBytes does
+                    bytes[pos++] = '?';
+                }
+            }
+            length = pos;
+        }
+    }
+}
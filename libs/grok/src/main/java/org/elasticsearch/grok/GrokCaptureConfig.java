@@ -0,0 +1,66 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.elasticsearch.grok;
+
+import org.joni.NameEntry;
+import org.joni.Region;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * A named capture of a compiled grok expression, e.g. <code>%{NUMBER:bytes:long}</code>. The name of the capture is
+ * parsed once when the expression gets compiled rather than every time a text matches.
+ */
+final class GrokCaptureConfig {
+
+    private final String name;
+    private final GrokCaptureType type;
+    private final int[] backRefs;
+
+    GrokCaptureConfig(NameEntry nameEntry) {
+        String groupName = new String(nameEntry.name, nameEntry.nameP, nameEntry.nameEnd - nameEntry.nameP, StandardCharsets.UTF_8);
+        String[] parts = groupName.split(":");
+        this.name = parts.length >= 2 ? parts[1] : parts[0];
+        this.type = parts.length == 3 ? GrokCaptureType.fromString(parts[2]) : GrokCaptureType.STRING;
+        this.backRefs = nameEntry.getBackRefs();
+    }
+
+    /**
+     * The name of the field that this capture extracts.
+     */
+    String name() {
+        return name;
+    }
+
+    /**
+     * Extracts the value of the first group of this capture that took part in the match.
+     *
+     * @return the converted value, or <code>null</code> if none of the groups took part in the match
+     */
+    Object extract(byte[] utf8, Region region) {
+        for (int number : backRefs) {
+            if (region.beg[number] >= 0) {
+                return type.parse(utf8, region.beg[number], region.end[number] - region.beg[number]);
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,138 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.elasticsearch.grok;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * The types that the value of a named capture can be converted to, e.g. <code>%{NUMBER:bytes:long}</code>.
+ * Values are converted straight from the UTF-8 bytes that the pattern was matched against. Integral and boolean
+ * values are decoded without building an intermediate {@link String} first.
+ */
+enum GrokCaptureType {
+    STRING {
+        @Override
+        Object parse(byte[] utf8, int offset, int length) {
+            return new String(utf8, offset, length, StandardCharsets.UTF_8);
+        }
+    },
+    INTEGER {
+        @Override
+        Object parse(byte[] utf8, int offset, int length) {
+            if (length <= 10) {
+                long value = parseLong(utf8, offset, length);
+                if (value != NOT_A_LONG && value >= Integer.MIN_VALUE && value <= Integer.MAX_VALUE) {
+                    return (int) value;
+                }
+            }
+            // fall back to the JDK for proper error reporting
+            return Integer.parseInt(new String(utf8, offset, length, StandardCharsets.UTF_8));
+        }
+    },
+    LONG {
+        @Override
+        Object parse(byte[] utf8, int offset, int length) {
+            // 18 digits and a sign can't overflow a long
+            if (length <= 19) {
+                long value = parseLong(utf8, offset, length);
+                if (value != NOT_A_LONG) {
+                    return value;
+                }
+            }
+            return Long.parseLong(new String(utf8, offset, length, StandardCharsets.UTF_8));
+        }
+    },
+    DOUBLE {
+        @Override
+        Object parse(byte[] utf8, int offset, int length) {
+            return Double.parseDouble(new String(utf8, offset, length, StandardCharsets.UTF_8));
+        }
+    },
+    FLOAT {
+        @Override
+        Object parse(byte[] utf8, int offset, int length) {
+            return Float.parseFloat(new String(utf8, offset, length, StandardCharsets.UTF_8));
+        }
+    },
+    BOOLEAN {
+        @Override
+        Object parse(byte[] utf8, int offset, int length) {
+            // same as Boolean#parseBoolean
+            if (length != 4) {
+                return false;
+            }
+            return (utf8[offset] | 0x20) == 't' && (utf8[offset + 1] | 0x20) == 'r'
+                && (utf8[offset + 2] | 0x20) == 'u' && (utf8[offset + 3] | 0x20) == 'e';
+        }
+    };
+
+    /**
+     * Returned by {@link #parseLong} when the bytes are not a plain decimal number, no number of at most 18 digits parses to it.
+     */
+    private static final long NOT_A_LONG = Long.MIN_VALUE;
+
+    /**
+     * Converts the <code>length</code> UTF-8 bytes of <code>utf8</code> that start at <code>offset</code>.
+     */
+    abstract Object parse(byte[] utf8, int offset, int length);
+
+    static GrokCaptureType fromString(String type) {
+        switch (type) {
+            case "int":
+                return INTEGER;
+            case "long":
+                return LONG;
+            case "double":
+                return DOUBLE;
+            case "float":
+                return FLOAT;
+            case "boolean":
+                return BOOLEAN;
+            default:
+                return STRING;
+        }
+    }
+
+    /**
+     * Parses an optionally signed decimal number of at most 18 digits, returns {@link #NOT_A_LONG} if the bytes are anything else.
+     */
+    private static long parseLong(byte[] utf8, int offset, int length) {
+        int i = offset;
+        final int end = offset + length;
+        boolean negative = false;
+        if (i < end && (utf8[i] == '-' || utf8[i] == '+')) {
+            negative = utf8[i] == '-';
+            i++;
+        }
+        if (i == end || end - i > 18) {
+            return NOT_A_LONG;
+        }
+        long value = 0;
+        for (; i < end; i++) {
+            final int digit = utf8[i] - '0';
+            if (digit < 0 || digit > 9) {
+                return NOT_A_LONG;
+            }
+            value = value * 10 + digit;
+        }
+        return negative ? -value : value;
+    }
+}
@@ -485,6 +485,69 @@ public class GrokTests extends ESTestCase {
         assertThat(grok.match("Test Class.java"), is(true));
     }
 
+    public void testRequiredLiteral() {
+        assertThat(Grok.requiredLiteral("%{IP:client} - - \\[%{HTTPDATE:timestamp}\\] \"%{WORD:verb}"), equalTo(" - - ["));
+        assertThat(Grok.requiredLiteral("^%{WORD:a}: %{WORD:b} called from %{WORD:c}$"), equalTo(" called from "));
+        assertThat(Grok.requiredLiteral("%{WORD:a}\\s+%{WORD:b}"), nullValue());
+        assertThat(Grok.requiredLiteral("%{WORD:a}\\sab%{WORD:b}"), nullValue());
+        assertThat(Grok.requiredLiteral("%{WORD:a} foo\\sab%{WORD:b}"), equalTo(" foo"));
+        assertThat(Grok.requiredLiteral("%{WORD:a}"), nullValue());
+        assertThat(Grok.requiredLiteral("%{WORD:a} (foo|bar)"), nullValue());
+        assertThat(Grok.requiredLiteral("%{WORD:a} foo?"), nullValue());
+        assertThat(Grok.requiredLiteral("(?i)foo"), nullValue());
+        assertThat(Grok.requiredLiteral("[a-z]foo"), nullValue());
+        assertThat(Grok.requiredLiteral("\\Q(\\E"), nullValue());
+        assertThat(Grok.requiredLiteral("%{WORD:a}\\x41bc"), nullValue());
+        assertThat(Grok.requiredLiteral("%{WORD:a}\\u0041bc"), nullValue());
+        assertThat(Grok.requiredLiteral("%{WORD:a}\\cXbc"), nullValue());
+        assertThat(Grok.requiredLiteral("%{WORD:a}\\012bc"), nullValue());
+        assertThat(Grok.requiredLiteral("%{WORD:a}\\k<a>bc"), nullValue());
+        assertThat(Grok.requiredLiteral("%{WORD:a}: \\x41bc"), equalTo(": "));
+        assertThat(Grok.requiredLiteral("%{WORD:a}\\.\\-\\/b"), equalTo(".-/b"));
+    }
+
+    public void testLiteralPrefilter() {
+        Grok grok = new Grok(basePatterns, "%{WORD:verb} %{URIPATH:path} HTTP/%{NUMBER:version}");
+        assertThat(grok.mayMatch("GET /index.html HTTP/1.1"), is(true));
+        assertThat(grok.mayMatch("GET /index.html"), is(false));
+        assertThat(grok.captures("GET /index.html"), nullValue());
+        assertThat(grok.match("GET /index.html"), is(false));
+        Map<String, Object> matches = grok.captures("GET /index.html HTTP/1.1");
+        assertThat(matches.get("verb"), equalTo("GET"));
+        assertThat(matches.get("path"), equalTo("/index.html"));
+        assertThat(matches.get("version"), equalTo("1.1"));
+    }
+
+    public void testCapturesWithExtracter() {
+        Grok grok = new Grok(basePatterns, "%{WORD:name}=%{NUMBER:value:int}");
+        Map<String, Object> extracted = new HashMap<>();
+        assertThat(grok.captures("answer=42", extracted::put), is(true));
+        assertThat(extracted, equalTo(Map.of("name", "answer", "value", 42)));
+        extracted.clear();
+        assertThat(grok.captures("no match", extracted::put), is(false));
+        assertThat(extracted.isEmpty(), is(true));
+    }
+
+    public void testIntegralCapturesOutOfRange() {
+        Map<String, String> bank = new HashMap<>();
+        bank.put("NUM", "[+-]?[0-9]+");
+        Grok grok = new Grok(bank, "%{NUM:int:int} %{NUM:long:long}");
+        assertThat(grok.captures("-2147483648 -9223372036854775808"),
+            equalTo(Map.of("int", Integer.MIN_VALUE, "long", Long.MIN_VALUE)));
+        assertThat(grok.captures("+12 +34"), equalTo(Map.of("int", 12, "long", 34L)));
+        expectThrows(NumberFormatException.class, () -> grok.captures("2147483648 0"));
+        expectThrows(NumberFormatException.class, () -> grok.captures("0 9223372036854775808"));
+    }
+
+    public void testMultiByteCharacters() {
+        Grok grok = new Grok(basePatterns, "%{DATA:first} → %{GREEDYDATA:second}");
+        String text = "héllo wörld → 𝄞 ✓ \uD800";
+        assertThat(grok.match(text), is(true));
+        Map<String, Object> matches = grok.captures(text);
+        assertThat(matches.get("first"), equalTo("héllo wörld"));
+        assertThat(matches.get("second"), equalTo("𝄞 ✓ ?"));
+    }
+
     private void assertGrokedField(String fieldName) {
         String line = "foo";
         Grok grok = new Grok(basePatterns, "%{WORD:" + fieldName + "}");
@@ -70,6 +70,11 @@ abstract class AbstractStringProcessor<T> extends AbstractProcessor {
         return document;
     }
 
+    @Override
+    public boolean supportsBatchExecution() {
+        return true;
+    }
+
     protected abstract T process(String value);
 
     abstract static class Factory implements Processor.Factory {
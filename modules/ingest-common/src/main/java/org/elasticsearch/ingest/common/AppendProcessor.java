@@ -61,6 +61,11 @@ public final class AppendProcessor extends AbstractProcessor {
         return ingestDocument;
     }
 
+    @Override
+    public boolean supportsBatchExecution() {
+        return true;
+    }
+
     @Override
     public String getType() {
         return TYPE;
@@ -197,6 +197,11 @@ public final class ConvertProcessor extends AbstractProcessor {
         return document;
     }
 
+    @Override
+    public boolean supportsBatchExecution() {
+        return true;
+    }
+
     @Override
     public String getType() {
         return TYPE;
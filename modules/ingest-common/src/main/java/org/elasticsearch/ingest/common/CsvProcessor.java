@@ -81,6 +81,11 @@ public final class CsvProcessor extends AbstractProcessor {
         return ingestDocument;
     }
 
+    @Override
+    public boolean supportsBatchExecution() {
+        return true;
+    }
+
     @Override
     public String getType() {
         return TYPE;
@@ -106,6 +106,11 @@ public final class DateIndexNameProcessor extends AbstractProcessor {
         return ingestDocument;
     }
 
+    @Override
+    public boolean supportsBatchExecution() {
+        return true;
+    }
+
     @Override
     public String getType() {
         return TYPE;
@@ -103,6 +103,11 @@ public final class DateProcessor extends AbstractProcessor {
         return ingestDocument;
     }
 
+    @Override
+    public boolean supportsBatchExecution() {
+        return true;
+    }
+
     @Override
     public String getType() {
         return TYPE;
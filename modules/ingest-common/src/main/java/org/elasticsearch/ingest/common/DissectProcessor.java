@@ -58,6 +58,11 @@ public final class DissectProcessor extends AbstractProcessor {
         return ingestDocument;
     }
 
+    @Override
+    public boolean supportsBatchExecution() {
+        return true;
+    }
+
     @Override
     public String getType() {
         return TYPE;
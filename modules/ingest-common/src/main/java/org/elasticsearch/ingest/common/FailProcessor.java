@@ -52,6 +52,11 @@ public final class FailProcessor extends AbstractProcessor {
         throw new FailProcessorException(document.renderTemplate(message));
     }
 
+    @Override
+    public boolean supportsBatchExecution() {
+        return true;
+    }
+
     @Override
     public String getType() {
         return TYPE;
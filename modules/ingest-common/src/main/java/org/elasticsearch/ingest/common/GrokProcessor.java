@@ -26,6 +26,7 @@ import org.elasticsearch.ingest.ConfigurationUtils;
 import org.elasticsearch.ingest.IngestDocument;
 import org.elasticsearch.ingest.Processor;
 
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -40,6 +41,9 @@ public final class GrokProcessor extends AbstractProcessor {
     private final String matchField;
     private final List<String> matchPatterns;
     private final Grok grok;
+    // one grok per pattern when there are several patterns, used to skip the combined expression when a single
+    // pattern may match the field value
+    private final List<Grok> patternGroks;
     private final boolean traceMatch;
     private final boolean ignoreMissing;
 
@@ -49,6 +53,14 @@ public final class GrokProcessor extends AbstractProcessor {
         this.matchField = matchField;
         this.matchPatterns = matchPatterns;
         this.grok = new Grok(patternBank, combinePatterns(matchPatterns, traceMatch), matcherWatchdog);
+        if (matchPatterns.size() > 1) {
+            this.patternGroks = new ArrayList<>(matchPatterns.size());
+            for (String matchPattern : matchPatterns) {
+                patternGroks.add(new Grok(patternBank, matchPattern, matcherWatchdog));
+            }
+        } else {
+            this.patternGroks = null;
+        }
         this.traceMatch = traceMatch;
         this.ignoreMissing = ignoreMissing;
     }
@@ -63,14 +75,36 @@ public final class GrokProcessor extends AbstractProcessor {
             throw new IllegalArgumentException("field [" + matchField + "] is null, cannot process it.");
         }
 
+        Grok grok = this.grok;
+        int matchIndex = -1;
+        if (patternGroks != null) {
+            int candidates = 0;
+            for (int i = 0; i < patternGroks.size() && candidates < 2; i++) {
+                if (patternGroks.get(i).mayMatch(fieldValue)) {
+                    candidates++;
+                    matchIndex = i;
+                }
+            }
+            if (candidates == 0) {
+                throw new IllegalArgumentException("Provided Grok expressions do not match field value: [" + fieldValue + "]");
+            } else if (candidates == 1) {
+                grok = patternGroks.get(matchIndex);
+            } else {
+                // several patterns may match, only the combined expression knows which one matches first
+                matchIndex = -1;
+            }
+        }
+
+        // all captures are extracted before any of them is written, so that a failing conversion leaves the document untouched
         Map<String, Object> matches = grok.captures(fieldValue);
         if (matches == null) {
             throw new IllegalArgumentException("Provided Grok expressions do not match field value: [" + fieldValue + "]");
         }
-
         matches.forEach(ingestDocument::setFieldValue);
 
-        if (traceMatch) {
+        if (traceMatch && matchIndex != -1) {
+            ingestDocument.setFieldValue(PATTERN_MATCH_KEY, Integer.toString(matchIndex));
+        } else if (traceMatch) {
             if (matchPatterns.size() > 1) {
                 @SuppressWarnings("unchecked")
                 HashMap<String, String> matchMap = (HashMap<String, String>) ingestDocument.getFieldValue(PATTERN_MATCH_KEY, Object.class);
@@ -84,6 +118,11 @@ public final class GrokProcessor extends AbstractProcessor {
         return ingestDocument;
     }
 
+    @Override
+    public boolean supportsBatchExecution() {
+        return true;
+    }
+
     @Override
     public String getType() {
         return TYPE;
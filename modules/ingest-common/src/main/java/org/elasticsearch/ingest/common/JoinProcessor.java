@@ -72,6 +72,11 @@ public final class JoinProcessor extends AbstractProcessor {
         return document;
     }
 
+    @Override
+    public boolean supportsBatchExecution() {
+        return true;
+    }
+
     @Override
     public String getType() {
         return TYPE;
@@ -116,6 +116,11 @@ public final class JsonProcessor extends AbstractProcessor {
         return document;
     }
 
+    @Override
+    public boolean supportsBatchExecution() {
+        return true;
+    }
+
     @Override
     public String getType() {
         return TYPE;
@@ -193,6 +193,11 @@ public final class KeyValueProcessor extends AbstractProcessor {
         return document;
     }
 
+    @Override
+    public boolean supportsBatchExecution() {
+        return true;
+    }
+
     @Override
     public String getType() {
         return TYPE;
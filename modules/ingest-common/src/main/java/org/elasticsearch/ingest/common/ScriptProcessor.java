@@ -76,7 +76,28 @@ public final class ScriptProcessor extends AbstractProcessor {
      */
     @Override
     public IngestDocument execute(IngestDocument document) {
-        IngestScript.Factory factory = scriptService.compile(script, IngestScript.CONTEXT);
+        return execute(scriptService.compile(script, IngestScript.CONTEXT), document);
+    }
+
+    @Override
+    public boolean supportsBatchExecution() {
+        return true;
+    }
+
+    @Override
+    public void executeBatch(IngestDocument[] documents, Exception[] failures) {
+        // look up the compiled script once for the whole batch
+        final IngestScript.Factory factory = scriptService.compile(script, IngestScript.CONTEXT);
+        for (int i = 0; i < documents.length; i++) {
+            try {
+                documents[i] = execute(factory, documents[i]);
+            } catch (Exception e) {
+                failures[i] = e;
+            }
+        }
+    }
+
+    private IngestDocument execute(IngestScript.Factory factory, IngestDocument document) {
         factory.newInstance(script.getParams()).execute(
                 new DeprecationMap(document.getSourceAndMetadata(), DEPRECATIONS, "script_processor"));
         CollectionUtils.ensureNoSelfReferences(document.getSourceAndMetadata(), "ingest script");
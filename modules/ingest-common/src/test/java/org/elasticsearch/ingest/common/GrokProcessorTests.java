@@ -45,6 +45,17 @@ public class GrokProcessorTests extends ESTestCase {
         assertThat(doc.getFieldValue("one", String.class), equalTo("1"));
     }
 
+    public void testFailedConversionLeavesDocumentUntouched() throws Exception {
+        String fieldName = RandomDocumentPicks.randomFieldName(random());
+        IngestDocument doc = RandomDocumentPicks.randomIngestDocument(random(), new HashMap<>());
+        doc.setFieldValue(fieldName, "foo bar");
+        GrokProcessor processor = new GrokProcessor(randomAlphaOfLength(10), Collections.singletonMap("WORD", "\\w+"),
+            Collections.singletonList("%{WORD:first} %{WORD:second:int}"), fieldName, false, false, MatcherWatchdog.noop());
+        expectThrows(NumberFormatException.class, () -> processor.execute(doc));
+        assertThat(doc.hasField("first"), equalTo(false));
+        assertThat(doc.hasField("second"), equalTo(false));
+    }
+
     public void testIgnoreCase() throws Exception {
         String fieldName = RandomDocumentPicks.randomFieldName(random());
         IngestDocument doc = RandomDocumentPicks.randomIngestDocument(random(), new HashMap<>());
@@ -179,6 +190,44 @@ public class GrokProcessorTests extends ESTestCase {
         assertThat(doc.getFieldValue("_ingest._grok_match_index", String.class), equalTo("1"));
     }
 
+    public void testSetMetadataWithLiteralPrefilter() throws Exception {
+        String fieldName = RandomDocumentPicks.randomFieldName(random());
+        Map<String, String> patternBank = new HashMap<>();
+        patternBank.put("WORD", "\\b\\w+\\b");
+        GrokProcessor processor = new GrokProcessor(randomAlphaOfLength(10), patternBank,
+            Arrays.asList("%{WORD:client} GET %{WORD:path}", "%{WORD:client} POST %{WORD:path}", "%{WORD:client} GET%{WORD:path}"),
+            fieldName, true, false, MatcherWatchdog.noop());
+
+        // only the second pattern may match
+        IngestDocument doc = RandomDocumentPicks.randomIngestDocument(random(), new HashMap<>());
+        doc.setFieldValue(fieldName, "foo POST bar");
+        processor.execute(doc);
+        assertThat(doc.getFieldValue("client", String.class), equalTo("foo"));
+        assertThat(doc.getFieldValue("path", String.class), equalTo("bar"));
+        assertThat(doc.getFieldValue("_ingest._grok_match_index", String.class), equalTo("1"));
+
+        // the first and the last patterns may match, the combined expression picks the first one
+        doc = RandomDocumentPicks.randomIngestDocument(random(), new HashMap<>());
+        doc.setFieldValue(fieldName, "foo GET bar");
+        processor.execute(doc);
+        assertThat(doc.getFieldValue("client", String.class), equalTo("foo"));
+        assertThat(doc.getFieldValue("path", String.class), equalTo("bar"));
+        assertThat(doc.getFieldValue("_ingest._grok_match_index", String.class), equalTo("0"));
+    }
+
+    public void testNoMatchWithLiteralPrefilter() {
+        String fieldName = RandomDocumentPicks.randomFieldName(random());
+        IngestDocument doc = RandomDocumentPicks.randomIngestDocument(random(), new HashMap<>());
+        doc.setFieldValue(fieldName, "foo PUT bar");
+        Map<String, String> patternBank = new HashMap<>();
+        patternBank.put("WORD", "\\b\\w+\\b");
+        GrokProcessor processor = new GrokProcessor(randomAlphaOfLength(10), patternBank,
+            Arrays.asList("%{WORD:client} GET %{WORD:path}", "%{WORD:client} POST %{WORD:path}"), fieldName, false, false,
+            MatcherWatchdog.noop());
+        Exception e = expectThrows(Exception.class, () -> processor.execute(doc));
+        assertThat(e.getMessage(), equalTo("Provided Grok expressions do not match field value: [foo PUT bar]"));
+    }
+
     public void testTraceWithOnePattern() throws Exception {
         String fieldName = RandomDocumentPicks.randomFieldName(random());
         IngestDocument doc = RandomDocumentPicks.randomIngestDocument(random(), new HashMap<>());
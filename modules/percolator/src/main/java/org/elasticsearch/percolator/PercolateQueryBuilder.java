@@ -23,6 +23,7 @@ import org.apache.lucene.analysis.Analyzer;
 import org.apache.lucene.analysis.DelegatingAnalyzerWrapper;
 import org.apache.lucene.index.BinaryDocValues;
 import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexReader;
 import org.apache.lucene.index.IndexReaderContext;
 import org.apache.lucene.index.IndexWriter;
 import org.apache.lucene.index.IndexWriterConfig;
@@ -45,8 +46,11 @@ import org.elasticsearch.ResourceNotFoundException;
 import org.elasticsearch.Version;
 import org.elasticsearch.action.ActionListener;
 import org.elasticsearch.action.get.GetRequest;
+import org.elasticsearch.common.Nullable;
 import org.elasticsearch.common.ParseField;
 import org.elasticsearch.common.ParsingException;
+import org.elasticsearch.common.breaker.CircuitBreaker;
+import org.elasticsearch.common.breaker.NoopCircuitBreaker;
 import org.elasticsearch.common.bytes.BytesReference;
 import org.elasticsearch.common.io.stream.InputStreamStreamInput;
 import org.elasticsearch.common.io.stream.NamedWriteableAwareStreamInput;
@@ -76,6 +80,7 @@ import org.elasticsearch.index.query.QueryShardContext;
 import org.elasticsearch.index.query.QueryShardException;
 import org.elasticsearch.indices.breaker.CircuitBreakerService;
 import org.elasticsearch.indices.breaker.NoneCircuitBreakerService;
+import org.elasticsearch.search.lookup.SearchLookup;
 
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
@@ -556,7 +561,9 @@ public class PercolateQueryBuilder extends AbstractQueryBuilder<PercolateQueryBu
         QueryShardContext percolateShardContext = wrap(context);
         PercolateQuery.QueryStore queryStore = createStore(pft.queryBuilderField,
             percolateShardContext,
-            pft.mapUnmappedFieldsAsText);
+            pft.mapUnmappedFieldsAsText,
+            pft.queryCache,
+            accountingBreaker(context));
 
         return pft.percolateQuery(name, queryStore, documents, docSearcher, excludeNestedDocuments, context.indexVersionCreated());
     }
@@ -601,15 +608,37 @@ public class PercolateQueryBuilder extends AbstractQueryBuilder<PercolateQueryBu
     static PercolateQuery.QueryStore createStore(MappedFieldType queryBuilderFieldType,
                                                  QueryShardContext context,
                                                  boolean mapUnmappedFieldsAsString) {
+        return createStore(queryBuilderFieldType, context, mapUnmappedFieldsAsString, null, null);
+    }
+
+    /**
+     * Creates a store that reads the query builders of percolator queries from doc values and builds them into Lucene queries.
+     * If a query cache is given then the built queries are cached per segment, unless building a query made the context
+     * non cacheable, for example because the query accesses the current time or is bound to the percolated documents.
+     */
+    static PercolateQuery.QueryStore createStore(MappedFieldType queryBuilderFieldType,
+                                                 QueryShardContext context,
+                                                 boolean mapUnmappedFieldsAsString,
+                                                 @Nullable PercolatorQueryCache queryCache,
+                                                 @Nullable CircuitBreaker breaker) {
         Version indexVersion = context.indexVersionCreated();
         NamedWriteableRegistry registry = context.getWriteableRegistry();
+        String field = queryBuilderFieldType.name();
+        long mappingVersion = queryCache != null ? context.getIndexSettings().getIndexMetaData().getMappingVersion() : -1;
         return ctx -> {
             LeafReader leafReader = ctx.reader();
-            BinaryDocValues binaryDocValues = leafReader.getBinaryDocValues(queryBuilderFieldType.name());
+            BinaryDocValues binaryDocValues = leafReader.getBinaryDocValues(field);
             if (binaryDocValues == null) {
                 return docId -> null;
             }
+            IndexReader.CacheHelper cacheHelper = queryCache != null ? leafReader.getCoreCacheHelper() : null;
             return docId -> {
+                if (cacheHelper != null) {
+                    Query query = queryCache.get(cacheHelper.getKey(), field, mappingVersion, docId);
+                    if (query != null) {
+                        return query;
+                    }
+                }
                 if (binaryDocValues.advanceExact(docId)) {
                     BytesRef qbSource = binaryDocValues.binaryValue();
                     try (InputStream in = new ByteArrayInputStream(qbSource.bytes, qbSource.offset, qbSource.length)) {
@@ -626,7 +655,12 @@ public class PercolateQueryBuilder extends AbstractQueryBuilder<PercolateQueryBu
                             assert valueLength > 0;
                             QueryBuilder queryBuilder = input.readNamedWriteable(QueryBuilder.class);
                             assert in.read() == -1;
-                            return PercolatorFieldMapper.toQuery(context, mapUnmappedFieldsAsString, queryBuilder);
+                            boolean cacheable = cacheHelper != null && context.isCacheable();
+                            Query query = PercolatorFieldMapper.toQuery(context, mapUnmappedFieldsAsString, queryBuilder);
+                            if (cacheable && context.isCacheable()) {
+                                queryCache.put(cacheHelper, field, mappingVersion, docId, query, qbSource.length, breaker);
+                            }
+                            return query;
                         }
                     }
                 } else {
@@ -636,9 +670,25 @@ public class PercolateQueryBuilder extends AbstractQueryBuilder<PercolateQueryBu
         };
     }
 
+    private static CircuitBreaker accountingBreaker(QueryShardContext context) {
+        CircuitBreakerService breakerService = context.bigArrays() != null ? context.bigArrays().breakerService() : null;
+        if (breakerService == null) {
+            return new NoopCircuitBreaker(CircuitBreaker.ACCOUNTING);
+        }
+        return breakerService.getBreaker(CircuitBreaker.ACCOUNTING);
+    }
+
     static QueryShardContext wrap(QueryShardContext shardContext) {
         return new QueryShardContext(shardContext) {
 
+            @Override
+            public SearchLookup lookup() {
+                // queries that use the lookup, like script queries, are bound to the documents being percolated
+                // and must not be cached:
+                failIfFrozen();
+                return super.lookup();
+            }
+
             @Override
             public BitSetProducer bitsetFilter(Query query) {
                 return context -> {
@@ -112,10 +112,12 @@ public class PercolatorFieldMapper extends FieldMapper {
     static class Builder extends FieldMapper.Builder<Builder, PercolatorFieldMapper> {
 
         private final Supplier<QueryShardContext> queryShardContext;
+        private final PercolatorQueryCache queryCache;
 
-        Builder(String fieldName, Supplier<QueryShardContext> queryShardContext) {
+        Builder(String fieldName, Supplier<QueryShardContext> queryShardContext, PercolatorQueryCache queryCache) {
             super(fieldName, FIELD_TYPE, FIELD_TYPE);
             this.queryShardContext = queryShardContext;
+            this.queryCache = queryCache;
         }
 
         @Override
@@ -135,6 +137,7 @@ public class PercolatorFieldMapper extends FieldMapper {
             NumberFieldMapper minimumShouldMatchFieldMapper = createMinimumShouldMatchField(context);
             fieldType.minimumShouldMatchField = minimumShouldMatchFieldMapper.fieldType();
             fieldType.mapUnmappedFieldsAsText = getMapUnmappedFieldAsText(context.indexSettings());
+            fieldType.queryCache = queryCache;
 
             context.path().remove();
             setupFieldType(context);
@@ -185,9 +188,15 @@ public class PercolatorFieldMapper extends FieldMapper {
 
     static class TypeParser implements FieldMapper.TypeParser {
 
+        private final PercolatorQueryCache queryCache;
+
+        TypeParser(PercolatorQueryCache queryCache) {
+            this.queryCache = queryCache;
+        }
+
         @Override
         public Builder parse(String name, Map<String, Object> node, ParserContext parserContext) throws MapperParsingException {
-            return new Builder(name, parserContext.queryShardContextSupplier());
+            return new Builder(name, parserContext.queryShardContextSupplier(), queryCache);
         }
     }
 
@@ -200,6 +209,7 @@ public class PercolatorFieldMapper extends FieldMapper {
 
         RangeFieldMapper.RangeFieldType rangeField;
         boolean mapUnmappedFieldsAsText;
+        PercolatorQueryCache queryCache;
 
         FieldType() {
             setIndexOptions(IndexOptions.NONE);
@@ -215,6 +225,7 @@ public class PercolatorFieldMapper extends FieldMapper {
             rangeField = ref.rangeField;
             minimumShouldMatchField = ref.minimumShouldMatchField;
             mapUnmappedFieldsAsText = ref.mapUnmappedFieldsAsText;
+            queryCache = ref.queryCache;
         }
 
         @Override
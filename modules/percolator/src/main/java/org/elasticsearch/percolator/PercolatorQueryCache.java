@@ -0,0 +1,201 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.elasticsearch.percolator;
+
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.util.Accountable;
+import org.apache.lucene.util.RamUsageEstimator;
+import org.elasticsearch.common.breaker.CircuitBreaker;
+import org.elasticsearch.common.breaker.CircuitBreakingException;
+import org.elasticsearch.common.cache.Cache;
+import org.elasticsearch.common.cache.CacheBuilder;
+import org.elasticsearch.common.cache.RemovalListener;
+import org.elasticsearch.common.cache.RemovalNotification;
+import org.elasticsearch.common.settings.Setting;
+import org.elasticsearch.common.settings.Setting.Property;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.unit.ByteSizeValue;
+import org.elasticsearch.common.util.concurrent.ConcurrentCollections;
+
+import java.io.Closeable;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * A node level cache for the Lucene queries that are built from the query builders stored in percolator fields. Verifying
+ * a candidate match otherwise requires reading the query builder from doc values, deserializing it and turning it into a
+ * Lucene query again on every percolate request.
+ * <p>
+ * Entries are keyed by the core of the segment the percolator query is stored in, so they are invalidated when the segment
+ * is closed, and by the mapping version of the index, because the Lucene query depends on the mappings it was built with.
+ * The memory held by the cache is bounded by {@link #QUERY_CACHE_SIZE_SETTING} and accounted in the accounting circuit
+ * breaker. Caching is best effort: a query that would trip the breaker is simply not cached.
+ */
+public final class PercolatorQueryCache implements RemovalListener<PercolatorQueryCache.Key, PercolatorQueryCache.Value>, Closeable {
+
+    public static final Setting<ByteSizeValue> QUERY_CACHE_SIZE_SETTING =
+        Setting.memorySizeSetting("indices.percolator.query_cache.size", "2%", Property.NodeScope);
+
+    // Lucene queries that don't report their memory usage are assumed to take this much memory in addition to the size of the
+    // query builder they were built from, which is a reasonable proxy for the number of terms and clauses they hold:
+    static final long DEFAULT_QUERY_RAM_BYTES_USED = 1024;
+    static final long ENTRY_RAM_BYTES_USED =
+        RamUsageEstimator.shallowSizeOfInstance(Key.class) + RamUsageEstimator.shallowSizeOfInstance(Value.class);
+
+    private static final String BREAKER_LABEL = "<percolator_query_cache>";
+
+    private final Cache<Key, Value> cache;
+    private final ConcurrentMap<IndexReader.CacheKey, Set<Key>> keysPerSegment = ConcurrentCollections.newConcurrentMap();
+
+    PercolatorQueryCache(Settings settings) {
+        this.cache = CacheBuilder.<Key, Value>builder()
+            .setMaximumWeight(QUERY_CACHE_SIZE_SETTING.get(settings).getBytes())
+            .weigher((key, value) -> value.ramBytesUsed)
+            // percolate requests often only share a subset of their candidate queries, so don't let queries that are
+            // verified once flush the ones that are verified over and over again:
+            .setFrequencyAware(true)
+            .removalListener(this)
+            .build();
+    }
+
+    /**
+     * Returns the Lucene query that was cached for the percolator query stored in the given document, or <code>null</code>
+     * if it isn't cached.
+     */
+    Query get(IndexReader.CacheKey segment, String field, long mappingVersion, int docId) {
+        Value value = cache.get(new Key(segment, field, mappingVersion, docId));
+        return value != null ? value.query : null;
+    }
+
+    /**
+     * Caches the Lucene query that was built for the percolator query stored in the given document.
+     *
+     * @param segment       the cache helper of the core of the segment that holds the document
+     * @param sourceLength  the length of the serialized query builder the query was built from
+     * @param breaker       the breaker to account the memory used by the cached query in
+     */
+    void put(IndexReader.CacheHelper segment, String field, long mappingVersion, int docId, Query query, int sourceLength,
+             CircuitBreaker breaker) {
+        long ramBytesUsed = ramBytesUsed(query, sourceLength);
+        try {
+            breaker.addEstimateBytesAndMaybeBreak(ramBytesUsed, BREAKER_LABEL);
+        } catch (CircuitBreakingException e) {
+            return;
+        }
+        Key key = new Key(segment.getKey(), field, mappingVersion, docId);
+        keysPerSegment.computeIfAbsent(key.segment, segmentKey -> {
+            segment.addClosedListener(this::onSegmentClosed);
+            return ConcurrentCollections.newConcurrentSet();
+        }).add(key);
+        cache.put(key, new Value(query, ramBytesUsed, breaker));
+    }
+
+    private void onSegmentClosed(IndexReader.CacheKey segment) {
+        Set<Key> keys = keysPerSegment.remove(segment);
+        if (keys != null) {
+            for (Key key : keys) {
+                cache.invalidate(key);
+            }
+        }
+    }
+
+    @Override
+    public void onRemoval(RemovalNotification<Key, Value> notification) {
+        Value value = notification.getValue();
+        value.breaker.addWithoutBreaking(-value.ramBytesUsed);
+        if (notification.getRemovalReason() != RemovalNotification.RemovalReason.REPLACED) {
+            Key key = notification.getKey();
+            Set<Key> keys = keysPerSegment.get(key.segment);
+            if (keys != null) {
+                keys.remove(key);
+            }
+        }
+    }
+
+    PercolatorQueryCacheStats stats() {
+        Cache.CacheStats stats = cache.stats();
+        return new PercolatorQueryCacheStats(cache.count(), cache.weight(), stats.getEvictions(), stats.getHits(), stats.getMisses());
+    }
+
+    @Override
+    public void close() {
+        cache.invalidateAll();
+        keysPerSegment.clear();
+    }
+
+    static long ramBytesUsed(Query query, int sourceLength) {
+        if (query instanceof Accountable) {
+            return ENTRY_RAM_BYTES_USED + ((Accountable) query).ramBytesUsed();
+        } else {
+            return ENTRY_RAM_BYTES_USED + DEFAULT_QUERY_RAM_BYTES_USED + sourceLength;
+        }
+    }
+
+    static final class Key {
+
+        final IndexReader.CacheKey segment;
+        final String field;
+        final long mappingVersion;
+        final int docId;
+
+        Key(IndexReader.CacheKey segment, String field, long mappingVersion, int docId) {
+            this.segment = Objects.requireNonNull(segment);
+            this.field = Objects.requireNonNull(field);
+            this.mappingVersion = mappingVersion;
+            this.docId = docId;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            Key key = (Key) o;
+            return docId == key.docId &&
+                mappingVersion == key.mappingVersion &&
+                segment.equals(key.segment) &&
+                field.equals(key.field);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(segment, field, mappingVersion, docId);
+        }
+    }
+
+    static final class Value {
+
+        final Query query;
+        final long ramBytesUsed;
+        final CircuitBreaker breaker;
+
+        Value(Query query, long ramBytesUsed, CircuitBreaker breaker) {
+            this.query = query;
+            this.ramBytesUsed = ramBytesUsed;
+            this.breaker = breaker;
+        }
+    }
+}
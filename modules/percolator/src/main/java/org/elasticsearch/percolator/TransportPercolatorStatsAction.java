@@ -0,0 +1,71 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.elasticsearch.percolator;
+
+import org.elasticsearch.action.FailedNodeException;
+import org.elasticsearch.action.support.ActionFilters;
+import org.elasticsearch.action.support.nodes.TransportNodesAction;
+import org.elasticsearch.cluster.service.ClusterService;
+import org.elasticsearch.common.inject.Inject;
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.elasticsearch.tasks.Task;
+import org.elasticsearch.threadpool.ThreadPool;
+import org.elasticsearch.transport.TransportService;
+
+import java.io.IOException;
+import java.util.List;
+
+public class TransportPercolatorStatsAction extends TransportNodesAction<PercolatorStatsAction.Request, PercolatorStatsAction.Response,
+    PercolatorStatsAction.NodeRequest, PercolatorStatsAction.NodeResponse> {
+
+    private final PercolatorQueryCache queryCache;
+
+    @Inject
+    public TransportPercolatorStatsAction(TransportService transportService, ClusterService clusterService, ThreadPool threadPool,
+                                          ActionFilters actionFilters, PercolatorQueryCache queryCache) {
+        super(PercolatorStatsAction.NAME, threadPool, clusterService, transportService, actionFilters,
+            PercolatorStatsAction.Request::new, PercolatorStatsAction.NodeRequest::new, ThreadPool.Names.MANAGEMENT,
+            PercolatorStatsAction.NodeResponse.class);
+        this.queryCache = queryCache;
+    }
+
+    @Override
+    protected PercolatorStatsAction.Response newResponse(PercolatorStatsAction.Request request,
+                                                         List<PercolatorStatsAction.NodeResponse> nodes,
+                                                         List<FailedNodeException> failures) {
+        return new PercolatorStatsAction.Response(clusterService.getClusterName(), nodes, failures);
+    }
+
+    @Override
+    protected PercolatorStatsAction.NodeRequest newNodeRequest(PercolatorStatsAction.Request request) {
+        return new PercolatorStatsAction.NodeRequest();
+    }
+
+    @Override
+    protected PercolatorStatsAction.NodeResponse newNodeResponse(StreamInput in) throws IOException {
+        return new PercolatorStatsAction.NodeResponse(in);
+    }
+
+    @Override
+    protected PercolatorStatsAction.NodeResponse nodeOperation(PercolatorStatsAction.NodeRequest request, Task task) {
+        return new PercolatorStatsAction.NodeResponse(clusterService.localNode(), queryCache.stats());
+    }
+}
@@ -0,0 +1,130 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.elasticsearch.percolator;
+
+import org.apache.lucene.analysis.core.WhitespaceAnalyzer;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.store.Directory;
+import org.elasticsearch.common.breaker.CircuitBreaker;
+import org.elasticsearch.common.settings.ClusterSettings;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.unit.ByteSizeUnit;
+import org.elasticsearch.indices.breaker.HierarchyCircuitBreakerService;
+import org.elasticsearch.test.ESTestCase;
+
+import java.io.IOException;
+
+import static org.elasticsearch.indices.breaker.HierarchyCircuitBreakerService.ACCOUNTING_CIRCUIT_BREAKER_LIMIT_SETTING;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+
+public class PercolatorQueryCacheTests extends ESTestCase {
+
+    public void testCachedQueriesAreAccountedAndInvalidatedWithTheirSegment() throws IOException {
+        CircuitBreaker breaker = newAccountingBreaker(ByteSizeUnit.MB.toBytes(1));
+        PercolatorQueryCache queryCache = new PercolatorQueryCache(Settings.EMPTY);
+        try (Directory directory = newDirectory()) {
+            try (IndexWriter writer = new IndexWriter(directory, new IndexWriterConfig(new WhitespaceAnalyzer()))) {
+                writer.addDocument(new Document());
+            }
+            DirectoryReader reader = DirectoryReader.open(directory);
+            IndexReader.CacheHelper segment = reader.leaves().get(0).reader().getCoreCacheHelper();
+            Query query = new TermQuery(new Term("field", "value"));
+            queryCache.put(segment, "query", 1L, 0, query, 32, breaker);
+
+            assertThat(queryCache.get(segment.getKey(), "query", 1L, 0), sameInstance(query));
+            assertThat(queryCache.get(segment.getKey(), "query", 2L, 0), nullValue());
+            assertThat(queryCache.get(segment.getKey(), "other_query", 1L, 0), nullValue());
+            PercolatorQueryCacheStats stats = queryCache.stats();
+            assertThat(stats.getCount(), equalTo(1L));
+            assertThat(stats.getHitCount(), equalTo(1L));
+            assertThat(stats.getMissCount(), equalTo(2L));
+            assertThat(stats.getMemorySizeInBytes(), equalTo(PercolatorQueryCache.ramBytesUsed(query, 32)));
+            assertThat(breaker.getUsed(), equalTo(stats.getMemorySizeInBytes()));
+
+            reader.close();
+            assertThat(queryCache.get(segment.getKey(), "query", 1L, 0), nullValue());
+            assertThat(queryCache.stats().getCount(), equalTo(0L));
+            assertThat(breaker.getUsed(), equalTo(0L));
+        } finally {
+            queryCache.close();
+        }
+    }
+
+    public void testQueriesThatTripTheBreakerAreNotCached() throws IOException {
+        CircuitBreaker breaker = newAccountingBreaker(PercolatorQueryCache.ENTRY_RAM_BYTES_USED);
+        PercolatorQueryCache queryCache = new PercolatorQueryCache(Settings.EMPTY);
+        try (Directory directory = newDirectory()) {
+            try (IndexWriter writer = new IndexWriter(directory, new IndexWriterConfig(new WhitespaceAnalyzer()))) {
+                writer.addDocument(new Document());
+            }
+            try (DirectoryReader reader = DirectoryReader.open(directory)) {
+                IndexReader.CacheHelper segment = reader.leaves().get(0).reader().getCoreCacheHelper();
+                queryCache.put(segment, "query", 1L, 0, new TermQuery(new Term("field", "value")), 32, breaker);
+                assertThat(queryCache.get(segment.getKey(), "query", 1L, 0), nullValue());
+                assertThat(queryCache.stats().getCount(), equalTo(0L));
+                assertThat(breaker.getUsed(), equalTo(0L));
+            }
+        } finally {
+            queryCache.close();
+        }
+    }
+
+    public void testCloseReleasesAccountedMemory() throws IOException {
+        CircuitBreaker breaker = newAccountingBreaker(ByteSizeUnit.MB.toBytes(1));
+        PercolatorQueryCache queryCache = new PercolatorQueryCache(Settings.EMPTY);
+        try (Directory directory = newDirectory()) {
+            try (IndexWriter writer = new IndexWriter(directory, new IndexWriterConfig(new WhitespaceAnalyzer()))) {
+                for (int i = 0; i < 8; i++) {
+                    writer.addDocument(new Document());
+                }
+            }
+            try (DirectoryReader reader = DirectoryReader.open(directory)) {
+                IndexReader.CacheHelper segment = reader.leaves().get(0).reader().getCoreCacheHelper();
+                for (int docId = 0; docId < 8; docId++) {
+                    queryCache.put(segment, "query", 1L, docId, new TermQuery(new Term("field", "value" + docId)), 32, breaker);
+                }
+                assertThat(queryCache.stats().getCount(), equalTo(8L));
+                queryCache.close();
+                assertThat(queryCache.stats().getCount(), equalTo(0L));
+                assertThat(breaker.getUsed(), equalTo(0L));
+            }
+        }
+    }
+
+    private static CircuitBreaker newAccountingBreaker(long limit) {
+        HierarchyCircuitBreakerService breakerService = new HierarchyCircuitBreakerService(
+            Settings.builder()
+                .put(ACCOUNTING_CIRCUIT_BREAKER_LIMIT_SETTING.getKey(), limit, ByteSizeUnit.BYTES)
+                .put(HierarchyCircuitBreakerService.USE_REAL_MEMORY_USAGE_SETTING.getKey(), false)
+                .build(),
+            new ClusterSettings(Settings.EMPTY, ClusterSettings.BUILT_IN_CLUSTER_SETTINGS));
+        return breakerService.getBreaker(CircuitBreaker.ACCOUNTING);
+    }
+}
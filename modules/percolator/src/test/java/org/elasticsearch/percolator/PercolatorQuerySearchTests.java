@@ -60,6 +60,7 @@ import static org.elasticsearch.index.query.QueryBuilders.termQuery;
 import static org.elasticsearch.test.hamcrest.ElasticsearchAssertions.assertHitCount;
 import static org.elasticsearch.test.hamcrest.ElasticsearchAssertions.assertSearchHits;
 import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
 
 public class PercolatorQuerySearchTests extends ESSingleNodeTestCase {
 
@@ -97,6 +98,44 @@ public class PercolatorQuerySearchTests extends ESSingleNodeTestCase {
         assertSearchHits(response, "1");
     }
 
+    public void testQueryCache() throws Exception {
+        client().admin().indices().prepareCreate("index").setMapping("field1", "type=keyword", "query", "type=percolator").get();
+        client().prepareIndex("index").setId("1")
+            .setSource(jsonBuilder().startObject().field("query", termQuery("field1", "b")).endObject())
+            .execute().actionGet();
+        client().prepareIndex("index").setId("2")
+            .setSource(jsonBuilder().startObject().field("query", QueryBuilders.scriptQuery(
+                new Script(ScriptType.INLINE, CustomScriptPlugin.NAME, "1==1", Collections.emptyMap()))).endObject())
+            .setRefreshPolicy(WriteRequest.RefreshPolicy.IMMEDIATE)
+            .execute().actionGet();
+
+        PercolatorQueryCacheStats before = queryCacheStats();
+        for (int i = 0; i < 3; i++) {
+            SearchResponse response = client().prepareSearch("index")
+                .setQuery(new PercolateQueryBuilder("query",
+                    BytesReference.bytes(jsonBuilder().startObject().field("field1", "b").endObject()), XContentType.JSON))
+                .get();
+            assertHitCount(response, 2);
+            assertSearchHits(response, "1", "2");
+        }
+        PercolatorQueryCacheStats after = queryCacheStats();
+        // the script query is bound to the percolated document and can't be cached
+        assertThat(after.getCount() - before.getCount(), equalTo(1L));
+        assertThat(after.getMemorySizeInBytes(), greaterThan(before.getMemorySizeInBytes()));
+        assertThat(after.getHitCount() - before.getHitCount(), greaterThan(0L));
+
+        // the cached query is invalidated when its segment is closed
+        client().admin().indices().prepareDelete("index").get();
+        assertBusy(() -> assertThat(queryCacheStats().getCount(), equalTo(before.getCount())));
+    }
+
+    private PercolatorQueryCacheStats queryCacheStats() {
+        PercolatorStatsAction.Response response =
+            client().execute(PercolatorStatsAction.INSTANCE, new PercolatorStatsAction.Request()).actionGet();
+        assertThat(response.getNodes().size(), equalTo(1));
+        return response.getNodes().get(0).getQueryCacheStats();
+    }
+
     public void testPercolateQueryWithNestedDocuments_doNotLeakBitsetCacheEntries() throws Exception {
         XContentBuilder mapping = XContentFactory.jsonBuilder();
         mapping.startObject().startObject("properties").startObject("companyname").field("type", "text").endObject()
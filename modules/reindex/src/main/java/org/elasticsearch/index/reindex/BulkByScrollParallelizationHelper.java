@@ -19,15 +19,23 @@
 
 package org.elasticsearch.index.reindex;
 
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
 import org.elasticsearch.action.ActionType;
 import org.elasticsearch.action.ActionListener;
 import org.elasticsearch.action.admin.cluster.shards.ClusterSearchShardsRequest;
 import org.elasticsearch.action.admin.cluster.shards.ClusterSearchShardsResponse;
+import org.elasticsearch.action.search.ClosePointInTimeAction;
+import org.elasticsearch.action.search.ClosePointInTimeRequest;
+import org.elasticsearch.action.search.OpenPointInTimeAction;
+import org.elasticsearch.action.search.OpenPointInTimeRequest;
 import org.elasticsearch.action.search.SearchRequest;
 import org.elasticsearch.client.Client;
 import org.elasticsearch.cluster.node.DiscoveryNode;
+import org.elasticsearch.common.Nullable;
 import org.elasticsearch.index.Index;
 import org.elasticsearch.index.mapper.IdFieldMapper;
+import org.elasticsearch.search.builder.PointInTimeBuilder;
 import org.elasticsearch.search.builder.SearchSourceBuilder;
 import org.elasticsearch.search.slice.SliceBuilder;
 import org.elasticsearch.tasks.TaskId;
@@ -44,6 +52,8 @@ import java.util.stream.Collectors;
  */
 class BulkByScrollParallelizationHelper {
 
+    private static final Logger logger = LogManager.getLogger(BulkByScrollParallelizationHelper.class);
+
     static final int AUTO_SLICE_CEILING = 20;
 
     private BulkByScrollParallelizationHelper() {}
@@ -175,10 +185,28 @@ class BulkByScrollParallelizationHelper {
             Request request,
             ActionListener<BulkByScrollResponse> listener) {
 
+        openPointInTime(client, request, ActionListener.wrap(
+            pointInTime -> sendSubRequests(client, action, localNodeId, task, request, SliceBuilder.DOC_FIELD_NAME, pointInTime,
+                ActionListener.runAfter(listener, () -> closePointInTime(client, pointInTime.getId()))),
+            e -> {
+                logger.debug("failed to open a point in time to slice the request on doc ids, slicing on _id instead", e);
+                sendSubRequests(client, action, localNodeId, task, request, IdFieldMapper.NAME, null, listener);
+            }));
+    }
+
+    private static <Request extends AbstractBulkByScrollRequest<Request>> void sendSubRequests(
+            Client client,
+            ActionType<BulkByScrollResponse> action,
+            String localNodeId,
+            BulkByScrollTask task,
+            Request request,
+            String sliceField,
+            @Nullable PointInTimeBuilder pointInTime,
+            ActionListener<BulkByScrollResponse> listener) {
         LeaderBulkByScrollTaskState worker = task.getLeaderState();
         int totalSlices = worker.getSlices();
         TaskId parentTaskId = new TaskId(localNodeId, task.getId());
-        for (final SearchRequest slice : sliceIntoSubRequests(request.getSearchRequest(), IdFieldMapper.NAME, totalSlices)) {
+        for (final SearchRequest slice : sliceIntoSubRequests(request.getSearchRequest(), sliceField, pointInTime, totalSlices)) {
             // TODO move the request to the correct node. maybe here or somehow do it as part of startup for reindex in general....
             Request requestForSlice = request.forSlice(parentTaskId, slice, totalSlices);
             ActionListener<BulkByScrollResponse> sliceListener = ActionListener.wrap(
@@ -188,11 +216,45 @@ class BulkByScrollParallelizationHelper {
         }
     }
 
+    /**
+     * Slicing on contiguous ranges of doc ids lets each slice read only its share of the shards instead of evaluating
+     * a slice filter on every document. It requires all slices to search the same point in time. Opening it fails if
+     * any node that holds the source shards doesn't know about reader contexts or if the user isn't allowed to, in
+     * which case the caller falls back to slicing on {@code _id}. Only read privileges on the source indices are
+     * needed, closing the point in time is authorized like clearing a scroll.
+     */
+    private static void openPointInTime(Client client, AbstractBulkByScrollRequest<?> request,
+                                        ActionListener<PointInTimeBuilder> listener) {
+        SearchRequest searchRequest = request.getSearchRequest();
+        OpenPointInTimeRequest openRequest = new OpenPointInTimeRequest(searchRequest.indices())
+            .indicesOptions(searchRequest.indicesOptions())
+            .routing(searchRequest.routing())
+            .preference(searchRequest.preference())
+            .keepAlive(request.getScrollTime());
+        client.execute(OpenPointInTimeAction.INSTANCE, openRequest,
+            ActionListener.map(listener, response -> new PointInTimeBuilder(response.getId(), null)));
+    }
+
+    private static void closePointInTime(Client client, String pointInTimeId) {
+        client.execute(ClosePointInTimeAction.INSTANCE, new ClosePointInTimeRequest(pointInTimeId), ActionListener.wrap(
+            r -> {},
+            e -> logger.warn("failed to close the point in time used to slice the request", e)));
+    }
+
     /**
      * Slice a search request into {@code times} separate search requests slicing on {@code field}. Note that the slices are *shallow*
      * copies of this request so don't change them.
      */
     static SearchRequest[] sliceIntoSubRequests(SearchRequest request, String field, int times) {
+        return sliceIntoSubRequests(request, field, null, times);
+    }
+
+    /**
+     * Slice a search request into {@code times} separate search requests slicing on {@code field}, searching the provided
+     * point in time if it is not null. Note that the slices are *shallow* copies of this request so don't change them.
+     */
+    static SearchRequest[] sliceIntoSubRequests(SearchRequest request, String field, @Nullable PointInTimeBuilder pointInTime,
+                                                int times) {
         SearchRequest[] slices = new SearchRequest[times];
         for (int slice = 0; slice < times; slice++) {
             SliceBuilder sliceBuilder = new SliceBuilder(field, slice, times);
@@ -205,6 +267,9 @@ class BulkByScrollParallelizationHelper {
                 }
                 slicedSource = request.source().copyWithNewSlice(sliceBuilder);
             }
+            if (pointInTime != null) {
+                slicedSource.pointInTimeBuilder(pointInTime);
+            }
             SearchRequest searchRequest = new SearchRequest(request);
             searchRequest.source(slicedSource);
             slices[slice] = searchRequest;
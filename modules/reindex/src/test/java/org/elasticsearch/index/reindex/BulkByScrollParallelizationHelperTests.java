@@ -21,7 +21,9 @@ package org.elasticsearch.index.reindex;
 
 import org.elasticsearch.action.search.SearchRequest;
 import org.elasticsearch.index.mapper.IdFieldMapper;
+import org.elasticsearch.search.builder.PointInTimeBuilder;
 import org.elasticsearch.search.builder.SearchSourceBuilder;
+import org.elasticsearch.search.slice.SliceBuilder;
 import org.elasticsearch.test.ESTestCase;
 
 import java.io.IOException;
@@ -61,4 +63,21 @@ public class BulkByScrollParallelizationHelperTests extends ESTestCase {
             currentSliceId++;
         }
     }
+
+    public void testSliceIntoSubRequestsWithPointInTime() {
+        SearchRequest searchRequest = new SearchRequest("index").source(new SearchSourceBuilder().size(between(1, 100)));
+        PointInTimeBuilder pointInTime = new PointInTimeBuilder(randomAlphaOfLength(10), null);
+        int times = between(2, 100);
+        int currentSliceId = 0;
+        for (SearchRequest slice : sliceIntoSubRequests(searchRequest, SliceBuilder.DOC_FIELD_NAME, pointInTime, times)) {
+            assertEquals(SliceBuilder.DOC_FIELD_NAME, slice.source().slice().getField());
+            assertEquals(currentSliceId, slice.source().slice().getId());
+            assertEquals(times, slice.source().slice().getMax());
+            assertSame(pointInTime, slice.source().pointInTimeBuilder());
+            currentSliceId++;
+        }
+        // the parent request is left untouched
+        assertNull(searchRequest.source().pointInTimeBuilder());
+        assertNull(searchRequest.source().slice());
+    }
 }
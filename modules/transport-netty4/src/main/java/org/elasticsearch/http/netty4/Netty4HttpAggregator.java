@@ -0,0 +1,113 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.http.netty4;
+
+import io.netty.buffer.Unpooled;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.handler.codec.http.DefaultFullHttpRequest;
+import io.netty.handler.codec.http.DefaultFullHttpResponse;
+import io.netty.handler.codec.http.DefaultHttpHeaders;
+import io.netty.handler.codec.http.HttpContent;
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.HttpObjectAggregator;
+import io.netty.handler.codec.http.HttpRequest;
+import io.netty.handler.codec.http.HttpResponseStatus;
+import io.netty.handler.codec.http.HttpUtil;
+import io.netty.handler.codec.http.HttpVersion;
+import io.netty.handler.codec.http.LastHttpContent;
+import org.elasticsearch.http.HttpServerTransport;
+
+/**
+ * A {@link HttpObjectAggregator} that does not aggregate the body of requests that the dispatcher would hand to a handler that
+ * {@link org.elasticsearch.rest.RestHandler#supportsStreamingContent() supports streaming content}. Such requests are passed on with an
+ * empty body as soon as their head has been received, and their body is handed over chunk by chunk through a
+ * {@link Netty4HttpRequestBodyStream}. The body of a streamed request is not subject to the maximum content length.
+ */
+class Netty4HttpAggregator extends HttpObjectAggregator {
+
+    private final HttpServerTransport.Dispatcher dispatcher;
+    // the body of the request that is currently being streamed, if any
+    private Netty4HttpRequestBodyStream currentStream;
+
+    Netty4HttpAggregator(int maxContentLength, HttpServerTransport.Dispatcher dispatcher) {
+        super(maxContentLength);
+        this.dispatcher = dispatcher;
+    }
+
+    @Override
+    public void channelRead(ChannelHandlerContext ctx, Object msg) throws Exception {
+        if (currentStream != null && msg instanceof HttpContent) {
+            final Netty4HttpRequestBodyStream stream = currentStream;
+            if (msg instanceof LastHttpContent) {
+                currentStream = null;
+            }
+            stream.handleContent((HttpContent) msg);
+        } else if (msg instanceof HttpRequest && shouldStream((HttpRequest) msg)) {
+            final HttpRequest request = (HttpRequest) msg;
+            if (HttpUtil.is100ContinueExpected(request)) {
+                ctx.writeAndFlush(new DefaultFullHttpResponse(HttpVersion.HTTP_1_1, HttpResponseStatus.CONTINUE, Unpooled.EMPTY_BUFFER));
+                request.headers().remove(HttpHeaderNames.EXPECT);
+            }
+            currentStream = new Netty4HttpRequestBodyStream(ctx.channel());
+            ctx.fireChannelRead(new StreamedRequest(request, currentStream));
+        } else {
+            super.channelRead(ctx, msg);
+        }
+    }
+
+    @Override
+    public void channelInactive(ChannelHandlerContext ctx) throws Exception {
+        if (currentStream != null) {
+            currentStream.onChannelClosed();
+            currentStream = null;
+        }
+        super.channelInactive(ctx);
+    }
+
+    private boolean shouldStream(HttpRequest request) {
+        if (request.decoderResult().isSuccess() == false) {
+            return false;
+        }
+        try {
+            return dispatcher.supportsStreamingContent(Netty4HttpRequest.translateRequestMethod(request.method()), request.uri());
+        } catch (IllegalArgumentException e) {
+            // an unsupported method, let the request be aggregated and rejected as usual
+            return false;
+        }
+    }
+
+    /**
+     * The head of a request whose body is streamed, with an empty content.
+     */
+    static final class StreamedRequest extends DefaultFullHttpRequest {
+
+        private final Netty4HttpRequestBodyStream contentStream;
+
+        StreamedRequest(HttpRequest request, Netty4HttpRequestBodyStream contentStream) {
+            super(request.protocolVersion(), request.method(), request.uri(), Unpooled.EMPTY_BUFFER, request.headers(),
+                new DefaultHttpHeaders());
+            this.contentStream = contentStream;
+        }
+
+        Netty4HttpRequestBodyStream contentStream() {
+            return contentStream;
+        }
+    }
+}
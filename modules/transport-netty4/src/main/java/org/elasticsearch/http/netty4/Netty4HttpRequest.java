@@ -31,6 +31,7 @@ import io.netty.handler.codec.http.cookie.Cookie;
 import io.netty.handler.codec.http.cookie.ServerCookieDecoder;
 import io.netty.handler.codec.http.cookie.ServerCookieEncoder;
 import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.http.HttpBodyStream;
 import org.elasticsearch.http.HttpRequest;
 import org.elasticsearch.rest.RestRequest;
 import org.elasticsearch.rest.RestStatus;
@@ -52,25 +53,39 @@ public class Netty4HttpRequest implements HttpRequest {
     private final FullHttpRequest request;
     private final boolean pooled;
     private final BytesReference content;
+    private final HttpBodyStream contentStream;
 
     Netty4HttpRequest(FullHttpRequest request, int sequence) {
-        this(request, new HttpHeadersMap(request.headers()), sequence, new AtomicBoolean(false), true,
-            Netty4Utils.toBytesReference(request.content()));
+        // the head of a streamed request has no content of its own, so it is not pooled
+        this(request, new HttpHeadersMap(request.headers()), sequence, new AtomicBoolean(false),
+            request instanceof Netty4HttpAggregator.StreamedRequest == false, Netty4Utils.toBytesReference(request.content()),
+            contentStream(request));
+    }
+
+    private static HttpBodyStream contentStream(FullHttpRequest request) {
+        if (request instanceof Netty4HttpAggregator.StreamedRequest) {
+            return ((Netty4HttpAggregator.StreamedRequest) request).contentStream();
+        }
+        return null;
     }
 
     private Netty4HttpRequest(FullHttpRequest request, HttpHeadersMap headers, int sequence, AtomicBoolean released, boolean pooled,
-                              BytesReference content) {
+                              BytesReference content, HttpBodyStream contentStream) {
         this.request = request;
         this.sequence = sequence;
         this.headers = headers;
         this.content = content;
         this.pooled = pooled;
         this.released = released;
+        this.contentStream = contentStream;
     }
 
     @Override
     public RestRequest.Method method() {
-        HttpMethod httpMethod = request.method();
+        return translateRequestMethod(request.method());
+    }
+
+    static RestRequest.Method translateRequestMethod(HttpMethod httpMethod) {
         if (httpMethod == HttpMethod.GET)
             return RestRequest.Method.GET;
 
@@ -117,11 +132,20 @@ public class Netty4HttpRequest implements HttpRequest {
         return content;
     }
 
+    @Override
+    public HttpBodyStream contentStream() {
+        return contentStream;
+    }
+
     @Override
     public void release() {
         if (pooled && released.compareAndSet(false, true)) {
             request.release();
         }
+        if (contentStream != null) {
+            // discard whatever part of the body the handler did not consume
+            contentStream.close();
+        }
     }
 
     @Override
@@ -135,7 +159,7 @@ public class Netty4HttpRequest implements HttpRequest {
             return new Netty4HttpRequest(
                 new DefaultFullHttpRequest(request.protocolVersion(), request.method(), request.uri(), copiedContent, request.headers(),
                     request.trailingHeaders()),
-                headers, sequence, new AtomicBoolean(false), false, Netty4Utils.toBytesReference(copiedContent));
+                headers, sequence, new AtomicBoolean(false), false, Netty4Utils.toBytesReference(copiedContent), contentStream);
         } finally {
             release();
         }
@@ -180,7 +204,7 @@ public class Netty4HttpRequest implements HttpRequest {
         FullHttpRequest requestWithoutHeader = new DefaultFullHttpRequest(request.protocolVersion(), request.method(), request.uri(),
             request.content(), headersWithoutContentTypeHeader, trailingHeaders);
         return new Netty4HttpRequest(requestWithoutHeader, new HttpHeadersMap(requestWithoutHeader.headers()), sequence, released,
-            pooled, content);
+            pooled, content, contentStream);
     }
 
     @Override
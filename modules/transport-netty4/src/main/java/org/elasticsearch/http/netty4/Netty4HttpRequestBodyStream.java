@@ -0,0 +1,150 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.http.netty4;
+
+import io.netty.channel.Channel;
+import io.netty.handler.codec.http.HttpContent;
+import io.netty.handler.codec.http.LastHttpContent;
+import org.elasticsearch.http.HttpBodyStream;
+import org.elasticsearch.transport.netty4.Netty4Utils;
+
+import java.nio.channels.ClosedChannelException;
+import java.util.ArrayDeque;
+
+/**
+ * A {@link HttpBodyStream} over the {@link HttpContent} messages of a request that is not aggregated. Auto-read is disabled on the
+ * channel while the body is being received so that the client is only read from when a chunk has been requested. All state is only
+ * accessed on the event loop of the channel.
+ */
+class Netty4HttpRequestBodyStream implements HttpBodyStream {
+
+    private final Channel channel;
+    // contents that were read before they were requested, e.g. because they were decoded from the same read as the request head
+    private final ArrayDeque<HttpContent> buffered = new ArrayDeque<>();
+    private ChunkHandler handler;
+    private boolean requested;
+    private boolean lastReceived;
+    private boolean done;
+    private boolean closed;
+    private Exception failure;
+
+    Netty4HttpRequestBodyStream(Channel channel) {
+        assert channel.eventLoop().inEventLoop();
+        this.channel = channel;
+        channel.config().setAutoRead(false);
+    }
+
+    @Override
+    public void setHandler(ChunkHandler handler) {
+        assert this.handler == null : "handler is already set";
+        this.handler = handler;
+    }
+
+    @Override
+    public void next() {
+        assert handler != null : "handler must be set before requesting a chunk";
+        // always fork so that chunks are never delivered from within this call
+        channel.eventLoop().execute(this::doNext);
+    }
+
+    @Override
+    public void close() {
+        if (channel.eventLoop().inEventLoop()) {
+            doClose();
+        } else {
+            channel.eventLoop().execute(this::doClose);
+        }
+    }
+
+    /**
+     * Called with the next content of the request as it is decoded.
+     */
+    void handleContent(HttpContent content) {
+        assert channel.eventLoop().inEventLoop();
+        assert lastReceived == false : "content received after the last content";
+        lastReceived = content instanceof LastHttpContent;
+        if (closed) {
+            content.release();
+        } else if (requested) {
+            requested = false;
+            deliver(content);
+        } else {
+            buffered.add(content);
+        }
+    }
+
+    /**
+     * Called if the channel is closed before the request was completed.
+     */
+    void onChannelClosed() {
+        assert channel.eventLoop().inEventLoop();
+        if (done || lastReceived) {
+            return;
+        }
+        failure = new ClosedChannelException();
+        if (requested) {
+            requested = false;
+            doNext();
+        }
+    }
+
+    private void doNext() {
+        if (done) {
+            return;
+        }
+        final HttpContent content = buffered.poll();
+        if (content != null) {
+            deliver(content);
+        } else if (failure != null) {
+            done = true;
+            handler.onFailure(failure);
+        } else {
+            requested = true;
+            channel.read();
+        }
+    }
+
+    private void deliver(HttpContent content) {
+        final boolean isLast = content instanceof LastHttpContent;
+        try {
+            if (isLast) {
+                done = true;
+                channel.config().setAutoRead(true);
+            }
+            handler.onChunk(Netty4Utils.toBytesReference(content.content()), isLast);
+        } finally {
+            content.release();
+        }
+    }
+
+    private void doClose() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        done = true;
+        HttpContent content;
+        while ((content = buffered.poll()) != null) {
+            content.release();
+        }
+        // the remainder of the body is discarded as it is read, after which reading continues with the next request
+        channel.config().setAutoRead(true);
+    }
+}
@@ -20,11 +20,15 @@
 package org.elasticsearch.transport.nio;
 
 import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.bytes.ReleasableBytesReference;
+import org.elasticsearch.core.internal.io.IOUtils;
 import org.elasticsearch.nio.BytesWriteHandler;
 import org.elasticsearch.nio.InboundChannelBuffer;
+import org.elasticsearch.nio.Page;
 import org.elasticsearch.transport.TcpTransport;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
 
 public class TcpReadWriteHandler extends BytesWriteHandler {
 
@@ -38,7 +42,15 @@ public class TcpReadWriteHandler extends BytesWriteHandler {
 
     @Override
     public int consumeReads(InboundChannelBuffer channelBuffer) throws IOException {
-        BytesReference bytesReference = BytesReference.fromByteBuffers(channelBuffer.sliceBuffersTo(channelBuffer.getIndex()));
-        return transport.consumeNetworkReads(channel, bytesReference);
+        Page[] pages = channelBuffer.sliceAndRetainPagesTo(channelBuffer.getIndex());
+        ByteBuffer[] buffers = new ByteBuffer[pages.length];
+        for (int i = 0; i < pages.length; ++i) {
+            buffers[i] = pages[i].byteBuffer();
+        }
+        // the pages are recycled once the message is handled and every part of it that a request retained is released
+        try (ReleasableBytesReference bytesReference = new ReleasableBytesReference(BytesReference.fromByteBuffers(buffers),
+                () -> IOUtils.closeWhileHandlingException(pages))) {
+            return transport.consumeNetworkReads(channel, bytesReference);
+        }
     }
 }
@@ -22,11 +22,13 @@ package org.elasticsearch.action.bulk;
 import org.elasticsearch.action.DocWriteRequest;
 import org.elasticsearch.action.DocWriteResponse;
 import org.elasticsearch.action.delete.DeleteResponse;
+import org.elasticsearch.action.index.IndexRequest;
 import org.elasticsearch.action.index.IndexResponse;
 import org.elasticsearch.action.support.replication.ReplicationResponse;
 import org.elasticsearch.action.support.replication.TransportWriteAction;
 import org.elasticsearch.index.engine.Engine;
 import org.elasticsearch.index.shard.IndexShard;
+import org.elasticsearch.index.shard.PreParsedDocument;
 import org.elasticsearch.index.translog.Translog;
 
 import java.util.Arrays;
@@ -75,6 +77,11 @@ class BulkPrimaryExecutionContext {
     private DocWriteRequest requestToExecute;
     private BulkItemResponse executionResult;
     private int retryCounter;
+    /*
+     * documents of index requests that were parsed ahead of execution, by item. Slots are written concurrently by the threads
+     * that parse documents, each slot by a single thread, and only read once all of them are done.
+     */
+    private PreParsedDocument[] preParsedDocuments;
 
 
     BulkPrimaryExecutionContext(BulkShardRequest request, IndexShard primary) {
@@ -83,6 +90,44 @@ class BulkPrimaryExecutionContext {
         advance();
     }
 
+    /**
+     * Parses the document of the item at the given index ahead of its execution, if it is an index request that wasn't aborted.
+     * This may be called concurrently for different items, but not while items are executed.
+     */
+    void preParse(int itemIndex) {
+        final BulkItemRequest item = request.items()[itemIndex];
+        if (item.getPrimaryResponse() == null && item.request() instanceof IndexRequest) {
+            final PreParsedDocument document =
+                primary.preParseIndexOperation(TransportShardBulkAction.sourceToParse((IndexRequest) item.request()));
+            if (document != null) {
+                preParsedDocuments[itemIndex] = document;
+            }
+        }
+    }
+
+    /**
+     * Prepares this context for {@link #preParse(int)} calls.
+     */
+    void startPreParsing() {
+        assert currentItemState == ItemProcessingState.INITIAL && preParsedDocuments == null;
+        preParsedDocuments = new PreParsedDocument[request.items().length];
+    }
+
+    /**
+     * Returns the document of the current item if it was parsed ahead of time, at most once so that a retried execution always
+     * parses its document again.
+     */
+    PreParsedDocument takePreParsedDocument() {
+        assert assertInvariants(ItemProcessingState.TRANSLATED);
+        if (preParsedDocuments == null || requestToExecute != getCurrent()) {
+            // translated updates are parsed when executed
+            return null;
+        }
+        final PreParsedDocument document = preParsedDocuments[currentIndex];
+        preParsedDocuments[currentIndex] = null;
+        return document;
+    }
+
 
     private int findNextNonAborted(int startIndex) {
         final int length = request.items().length;
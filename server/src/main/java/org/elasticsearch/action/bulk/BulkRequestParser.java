@@ -63,6 +63,9 @@ public final class BulkRequestParser {
     // TODO: Remove this parameter once the BulkMonitoring endpoint has been removed
     private final boolean errorOnType;
 
+    // the number of lines consumed by previous calls to incrementalParse, so that errors report the line within the whole body
+    private int incrementalLines;
+
     /**
      * Create a new parser.
      * @param errorOnType whether to allow _type information in the index line; used by BulkMonitoring
@@ -71,13 +74,13 @@ public final class BulkRequestParser {
         this.errorOnType = errorOnType;
     }
 
-    private static int findNextMarker(byte marker, int from, BytesReference data) {
+    private static int findNextMarker(byte marker, int from, BytesReference data, boolean lastData) {
         final int res = data.indexOf(marker, from);
         if (res != -1) {
             assert res >= 0;
             return res;
         }
-        if (from != data.length()) {
+        if (lastData && from != data.length()) {
             throw new IllegalArgumentException("The bulk request must be terminated by a newline [\\n]");
         }
         return res;
@@ -111,12 +114,52 @@ public final class BulkRequestParser {
             BiConsumer<IndexRequest, String> indexRequestConsumer,
             Consumer<UpdateRequest> updateRequestConsumer,
             Consumer<DeleteRequest> deleteRequestConsumer) throws IOException {
+        doParse(data, defaultIndex, defaultRouting, defaultFetchSourceContext, defaultPipeline, allowExplicitIndex, xContentType,
+            indexRequestConsumer, updateRequestConsumer, deleteRequestConsumer, true, 0);
+    }
+
+    /**
+     * Parse the complete items at the start of the provided {@code data}, which is a prefix of a bulk body that is received
+     * incrementally, and pass them to the consumers like {@link #parse} does. Parsing stops before the first item whose lines are not
+     * all terminated by a newline yet, the caller is expected to prepend the remaining bytes to the next chunk of the body.
+     * A parser instance must only be used for a single body when parsing incrementally.
+     *
+     * @param lastData whether {@code data} extends to the end of the body, in which case it must be terminated by a newline
+     * @return the number of bytes at the start of {@code data} that were consumed
+     */
+    public int incrementalParse(
+            BytesReference data, @Nullable String defaultIndex,
+            @Nullable String defaultRouting, @Nullable FetchSourceContext defaultFetchSourceContext,
+            @Nullable String defaultPipeline, boolean allowExplicitIndex,
+            XContentType xContentType,
+            BiConsumer<IndexRequest, String> indexRequestConsumer,
+            Consumer<UpdateRequest> updateRequestConsumer,
+            Consumer<DeleteRequest> deleteRequestConsumer,
+            boolean lastData) throws IOException {
+        return doParse(data, defaultIndex, defaultRouting, defaultFetchSourceContext, defaultPipeline, allowExplicitIndex, xContentType,
+            indexRequestConsumer, updateRequestConsumer, deleteRequestConsumer, lastData, incrementalLines);
+    }
+
+    private int doParse(
+            BytesReference data, @Nullable String defaultIndex,
+            @Nullable String defaultRouting, @Nullable FetchSourceContext defaultFetchSourceContext,
+            @Nullable String defaultPipeline, boolean allowExplicitIndex,
+            XContentType xContentType,
+            BiConsumer<IndexRequest, String> indexRequestConsumer,
+            Consumer<UpdateRequest> updateRequestConsumer,
+            Consumer<DeleteRequest> deleteRequestConsumer,
+            boolean lastData, int startLine) throws IOException {
         XContent xContent = xContentType.xContent();
-        int line = 0;
+        int line = startLine;
         int from = 0;
+        // the end of the last complete item and its line, an incomplete item is left for the next call when parsing incrementally
+        int consumed = 0;
+        int consumedLines = startLine;
         byte marker = xContent.streamSeparator();
         while (true) {
-            int nextMarker = findNextMarker(marker, from, data);
+            consumed = from;
+            consumedLines = line;
+            int nextMarker = findNextMarker(marker, from, data, lastData);
             if (nextMarker == -1) {
                 break;
             }
@@ -225,7 +268,7 @@ public final class BulkRequestParser {
                     deleteRequestConsumer.accept(new DeleteRequest(index).id(id).routing(routing)
                             .version(version).versionType(versionType).setIfSeqNo(ifSeqNo).setIfPrimaryTerm(ifPrimaryTerm));
                 } else {
-                    nextMarker = findNextMarker(marker, from, data);
+                    nextMarker = findNextMarker(marker, from, data, lastData);
                     if (nextMarker == -1) {
                         break;
                     }
@@ -281,6 +324,8 @@ public final class BulkRequestParser {
                 }
             }
         }
+        incrementalLines = consumedLines;
+        return consumed;
     }
 
 }
@@ -0,0 +1,323 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.action.bulk;
+
+import org.elasticsearch.ElasticsearchStatusException;
+import org.elasticsearch.action.ActionListener;
+import org.elasticsearch.action.DocWriteRequest;
+import org.elasticsearch.action.DocWriteResponse;
+import org.elasticsearch.client.Client;
+import org.elasticsearch.common.breaker.CircuitBreaker;
+import org.elasticsearch.common.bytes.BytesArray;
+import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.bytes.CompositeBytesReference;
+import org.elasticsearch.common.unit.ByteSizeValue;
+import org.elasticsearch.common.xcontent.XContentType;
+import org.elasticsearch.rest.RestStatus;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Executes a bulk body that is received incrementally, as a stream of chunks. Complete items are parsed as soon as their lines have
+ * been received and collected into batches that are executed once they reach a configured size, while the next batch is still being
+ * received. At most one batch is executed at a time so that items are executed in the order of the body, like they would be in a single
+ * bulk request, and the next chunk of the body is only requested while the batch that is being filled has room. This bounds the memory
+ * that is retained to roughly two batches plus the incomplete item at the end of the received data, which is bounded separately. The
+ * retained bytes are accounted for in a circuit breaker. Once the whole body has been executed the item responses of all batches are
+ * combined into a single {@link BulkResponse}.
+ */
+public final class IncrementalBulkExecutor {
+
+    /**
+     * Parses the complete items at the start of a prefix of the bulk body into a batch.
+     */
+    @FunctionalInterface
+    public interface BatchParser {
+
+        /**
+         * @param data     a prefix of the bulk body that hasn't been parsed yet
+         * @param lastData whether the data extends to the end of the bulk body
+         * @param batch    the batch to add the parsed items to
+         * @return the number of bytes at the start of {@code data} that were consumed
+         */
+        int parse(BytesReference data, boolean lastData, BulkRequest batch) throws IOException;
+    }
+
+    private final Client client;
+    private final Supplier<BulkRequest> batchSupplier;
+    private final byte separator;
+    private final BatchParser parser;
+    private final long batchSizeInBytes;
+    private final long maxUnparsedBytes;
+    private final CircuitBreaker breaker;
+    private final ActionListener<BulkResponse> listener;
+    private final long startTimeNanos = System.nanoTime();
+
+    // all of the below is guarded by this
+    private final List<BytesReference> unparsed = new ArrayList<>();
+    private long unparsedBytes;
+    private BulkRequest batch;
+    private long batchBytes;
+    private long executingBytes;
+    private boolean executing;
+    private boolean anyBatchExecuted;
+    private Runnable pendingRead;
+    private boolean lastChunkReceived;
+    private boolean completed;
+    private final List<BulkItemResponse> responses = new ArrayList<>();
+    private long ingestTookInMillis = BulkResponse.NO_INGEST_TOOK;
+
+    /**
+     * @param client           the client to execute the batches with
+     * @param batchSupplier    creates the empty batches, carrying the request level parameters such as the timeout
+     * @param xContentType     the content type of the bulk body
+     * @param parser           parses the items of the bulk body into batches
+     * @param batchSizeInBytes the estimated size at which a batch is executed
+     * @param maxUnparsedBytes the maximum size of the received bytes that don't form a complete item yet
+     * @param breaker          the circuit breaker that the received bytes are accounted for in until their batch completes
+     * @param listener         notified with the combined response once the whole body has been executed
+     */
+    public IncrementalBulkExecutor(Client client, Supplier<BulkRequest> batchSupplier, XContentType xContentType, BatchParser parser,
+                                   long batchSizeInBytes, long maxUnparsedBytes, CircuitBreaker breaker,
+                                   ActionListener<BulkResponse> listener) {
+        this.client = client;
+        this.batchSupplier = batchSupplier;
+        this.separator = xContentType.xContent().streamSeparator();
+        this.parser = parser;
+        this.batchSizeInBytes = batchSizeInBytes;
+        this.maxUnparsedBytes = maxUnparsedBytes;
+        this.breaker = breaker;
+        this.listener = listener;
+        this.batch = batchSupplier.get();
+    }
+
+    /**
+     * Adds the next chunk of the bulk body. The chunk is retained by the parsed items so it must not be released or modified
+     * afterwards.
+     *
+     * @param chunk    the next chunk of the body
+     * @param isLast   whether this is the last chunk of the body
+     * @param readNext requests the next chunk of the body, called once there is room for it
+     */
+    public void onChunk(BytesReference chunk, boolean isLast, Runnable readNext) {
+        final BulkRequest toExecute;
+        final boolean read;
+        Exception failure = null;
+        synchronized (this) {
+            if (completed) {
+                return;
+            }
+            try {
+                breaker.addEstimateBytesAndMaybeBreak(chunk.length(), "<http_request>");
+                if (chunk.length() > 0) {
+                    unparsed.add(chunk);
+                    unparsedBytes += chunk.length();
+                }
+                // items end with a separator, so unless the body is complete a chunk without one can't complete any item
+                if (isLast || chunk.indexOf(separator, 0) != -1) {
+                    parse(isLast);
+                }
+                if (unparsedBytes > maxUnparsedBytes) {
+                    throw new ElasticsearchStatusException("bulk item is larger than the maximum of [{}]",
+                        RestStatus.REQUEST_ENTITY_TOO_LARGE, new ByteSizeValue(maxUnparsedBytes));
+                }
+            } catch (Exception e) {
+                failure = e;
+                complete();
+            }
+            lastChunkReceived = isLast;
+            if (completed == false && executing == false && isBatchReady()) {
+                toExecute = startNextBatch();
+            } else {
+                toExecute = null;
+            }
+            if (completed || isLast) {
+                read = false;
+            } else if (executing && batch.estimatedSizeInBytes() >= batchSizeInBytes) {
+                // the batch is full but can't be executed yet, resume reading once the executing batch completes
+                pendingRead = readNext;
+                read = false;
+            } else {
+                read = true;
+            }
+        }
+        if (failure != null) {
+            listener.onFailure(failure);
+        }
+        if (toExecute != null) {
+            execute(toExecute);
+        }
+        if (read) {
+            readNext.run();
+        }
+    }
+
+    private void parse(boolean lastData) throws IOException {
+        assert Thread.holdsLock(this);
+        final BytesReference data;
+        if (unparsed.isEmpty()) {
+            data = BytesArray.EMPTY;
+        } else if (unparsed.size() == 1) {
+            data = unparsed.get(0);
+        } else {
+            // the chunks are only ever combined into one flat composite, right before they are parsed
+            data = new CompositeBytesReference(unparsed.toArray(new BytesReference[0]));
+        }
+        final int consumed = parser.parse(data, lastData, batch);
+        batchBytes += consumed;
+        unparsedBytes -= consumed;
+        unparsed.clear();
+        if (unparsedBytes > 0) {
+            // copy the incomplete tail so that it doesn't retain the chunks it was cut from
+            unparsed.add(new BytesArray(BytesReference.toBytes(data.slice(consumed, data.length() - consumed))));
+        }
+    }
+
+    /**
+     * Fails the bulk execution because the body could not be received in full. Items of batches that were executed already are not
+     * rolled back.
+     */
+    public void onFailure(Exception e) {
+        synchronized (this) {
+            if (completed) {
+                return;
+            }
+            complete();
+        }
+        listener.onFailure(e);
+    }
+
+    /**
+     * Marks the execution as completed and releases the bytes that are retained by the unparsed data and the batch that was being
+     * filled. The bytes of a batch that is still executing are released once it completes.
+     */
+    private void complete() {
+        assert Thread.holdsLock(this);
+        completed = true;
+        unparsed.clear();
+        breaker.addWithoutBreaking(-(unparsedBytes + batchBytes));
+        unparsedBytes = 0;
+        batchBytes = 0;
+    }
+
+    private BulkRequest startNextBatch() {
+        assert Thread.holdsLock(this);
+        assert executing == false;
+        final BulkRequest toExecute = batch;
+        batch = batchSupplier.get();
+        executingBytes = batchBytes;
+        batchBytes = 0;
+        executing = true;
+        anyBatchExecuted = true;
+        return toExecute;
+    }
+
+    private boolean isBatchReady() {
+        assert Thread.holdsLock(this);
+        if (lastChunkReceived) {
+            // an empty body still executes an (empty) batch so that it fails like an empty bulk request would
+            return batch.numberOfActions() > 0 || anyBatchExecuted == false;
+        }
+        return batch.estimatedSizeInBytes() >= batchSizeInBytes;
+    }
+
+    private void execute(BulkRequest toExecute) {
+        client.bulk(toExecute, new ActionListener<>() {
+            @Override
+            public void onResponse(BulkResponse response) {
+                onBatchCompleted(response.getItems(), response.getIngestTookInMillis());
+            }
+
+            @Override
+            public void onFailure(Exception e) {
+                if (toExecute.numberOfActions() == 0) {
+                    synchronized (IncrementalBulkExecutor.this) {
+                        breaker.addWithoutBreaking(-executingBytes);
+                        executingBytes = 0;
+                        executing = false;
+                    }
+                    IncrementalBulkExecutor.this.onFailure(e);
+                } else {
+                    // the batch as a whole failed, e.g. because it was rejected, which fails each of its items
+                    final List<DocWriteRequest<?>> requests = toExecute.requests();
+                    final BulkItemResponse[] items = new BulkItemResponse[requests.size()];
+                    for (int i = 0; i < items.length; i++) {
+                        final DocWriteRequest<?> request = requests.get(i);
+                        final BulkItemResponse.Failure failure = new BulkItemResponse.Failure(request.index(), request.id(), e);
+                        items[i] = new BulkItemResponse(i, request.opType(), failure);
+                    }
+                    onBatchCompleted(items, BulkResponse.NO_INGEST_TOOK);
+                }
+            }
+        });
+    }
+
+    private void onBatchCompleted(BulkItemResponse[] items, long batchIngestTookInMillis) {
+        final BulkRequest toExecute;
+        final Runnable read;
+        BulkResponse response = null;
+        synchronized (this) {
+            breaker.addWithoutBreaking(-executingBytes);
+            executingBytes = 0;
+            executing = false;
+            if (completed) {
+                return;
+            }
+            final int offset = responses.size();
+            for (BulkItemResponse item : items) {
+                final int id = offset + item.getItemId();
+                if (item.isFailed()) {
+                    responses.add(new BulkItemResponse(id, item.getOpType(), item.getFailure()));
+                } else {
+                    final DocWriteResponse itemResponse = item.getResponse();
+                    responses.add(new BulkItemResponse(id, item.getOpType(), itemResponse));
+                }
+            }
+            if (batchIngestTookInMillis != BulkResponse.NO_INGEST_TOOK) {
+                ingestTookInMillis = Math.max(ingestTookInMillis, 0L) + batchIngestTookInMillis;
+            }
+            if (isBatchReady()) {
+                toExecute = startNextBatch();
+            } else {
+                toExecute = null;
+                if (lastChunkReceived) {
+                    complete();
+                    response = new BulkResponse(responses.toArray(new BulkItemResponse[0]),
+                        TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTimeNanos), ingestTookInMillis);
+                }
+            }
+            read = pendingRead;
+            pendingRead = null;
+        }
+        if (response != null) {
+            listener.onResponse(response);
+        }
+        if (toExecute != null) {
+            execute(toExecute);
+        }
+        if (read != null) {
+            read.run();
+        }
+    }
+}
@@ -53,6 +53,8 @@ import org.elasticsearch.common.inject.Inject;
 import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.common.unit.TimeValue;
+import org.elasticsearch.common.util.concurrent.AbstractRunnable;
+import org.elasticsearch.common.util.concurrent.CountDown;
 import org.elasticsearch.common.xcontent.ToXContent;
 import org.elasticsearch.common.xcontent.XContentHelper;
 import org.elasticsearch.common.xcontent.XContentType;
@@ -64,6 +66,7 @@ import org.elasticsearch.index.mapper.MapperService;
 import org.elasticsearch.index.mapper.SourceToParse;
 import org.elasticsearch.index.seqno.SequenceNumbers;
 import org.elasticsearch.index.shard.IndexShard;
+import org.elasticsearch.index.shard.PreParsedDocument;
 import org.elasticsearch.index.shard.ShardId;
 import org.elasticsearch.index.translog.Translog;
 import org.elasticsearch.indices.IndicesService;
@@ -75,6 +78,7 @@ import org.elasticsearch.transport.TransportService;
 import java.io.IOException;
 import java.util.Map;
 import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Consumer;
 import java.util.function.LongSupplier;
 
@@ -153,8 +157,19 @@ public class TransportShardBulkAction extends TransportWriteAction<BulkShardRequ
 
             private final BulkPrimaryExecutionContext context = new BulkPrimaryExecutionContext(request, primary);
 
+            private boolean preParsingDone = false;
+
             @Override
             protected void doRun() throws Exception {
+                if (preParsingDone == false) {
+                    preParsingDone = true;
+                    final int parseConcurrency = primary.indexSettings().getBulkParseConcurrency();
+                    if (parseConcurrency > 1 && request.items().length > 1) {
+                        // documents are parsed on this thread and on forked threads, the last one to finish executes the items
+                        preParseDocuments(context, parseConcurrency, executor, this::run);
+                        return;
+                    }
+                }
                 while (context.hasMoreOperationsToExecute()) {
                     if (executeBulkItemRequest(context, updateHelper, nowInMillisSupplier, mappingUpdater, waitForMappingUpdate,
                         ActionListener.wrap(v -> executor.execute(this), this::onRejection)) == false) {
@@ -191,6 +206,57 @@ public class TransportShardBulkAction extends TransportWriteAction<BulkShardRequ
         }.run();
     }
 
+    /**
+     * Parses the documents of the index requests of a bulk concurrently on the calling thread and on up to {@code concurrency - 1}
+     * tasks forked to the given executor, and runs {@code onParsed} on the thread that parses the last item. Tasks that only start
+     * once all items were claimed exit right away, so execution never waits for them. Parsing ahead is best effort: documents that
+     * can't be parsed ahead, for instance because they need a mapping update, are parsed when their operation is executed, in order.
+     */
+    static void preParseDocuments(BulkPrimaryExecutionContext context, int concurrency, Executor executor, Runnable onParsed) {
+        final int numItems = context.getBulkShardRequest().items().length;
+        final int numTasks = Math.min(concurrency, numItems);
+        final CountDown countDown = new CountDown(numItems);
+        final AtomicInteger nextItem = new AtomicInteger();
+        final Runnable parseItems = () -> {
+            // items are claimed one by one, so that threads that are scheduled late or parse small documents don't lag behind
+            for (int i = nextItem.getAndIncrement(); i < numItems; i = nextItem.getAndIncrement()) {
+                try {
+                    context.preParse(i);
+                } finally {
+                    if (countDown.countDown()) {
+                        onParsed.run();
+                    }
+                }
+            }
+        };
+        context.startPreParsing();
+        for (int i = 1; i < numTasks; i++) {
+            executor.execute(new AbstractRunnable() {
+                @Override
+                protected void doRun() {
+                    parseItems.run();
+                }
+
+                @Override
+                public void onRejection(Exception e) {
+                    // the items are parsed by the other tasks, at least by the calling thread
+                }
+
+                @Override
+                public void onFailure(Exception e) {
+                    assert false : e;
+                    logger.warn(() -> new ParameterizedMessage("{} failed to parse bulk documents ahead of execution",
+                        context.getPrimary().shardId()), e);
+                }
+            });
+        }
+        parseItems.run();
+    }
+
+    static SourceToParse sourceToParse(IndexRequest request) {
+        return new SourceToParse(request.index(), request.id(), request.source(), request.getContentType(), request.routing());
+    }
+
     /**
      * Executes bulk item requests and handles request execution exceptions.
      * @return {@code true} if request completed on this thread and the listener was invoked, {@code false} if the request triggered
@@ -253,9 +319,14 @@ public class TransportShardBulkAction extends TransportWriteAction<BulkShardRequ
                 request.ifSeqNo(), request.ifPrimaryTerm());
         } else {
             final IndexRequest request = context.getRequestToExecute();
-            result = primary.applyIndexOperationOnPrimary(version, request.versionType(), new SourceToParse(
-                    request.index(), request.id(), request.source(), request.getContentType(), request.routing()),
+            final PreParsedDocument preParsed = context.takePreParsedDocument();
+            if (preParsed == null) {
+                result = primary.applyIndexOperationOnPrimary(version, request.versionType(), sourceToParse(request),
                     request.ifSeqNo(), request.ifPrimaryTerm(), request.getAutoGeneratedTimestamp(), request.isRetry());
+            } else {
+                result = primary.applyIndexOperationOnPrimary(version, request.versionType(), sourceToParse(request),
+                    request.ifSeqNo(), request.ifPrimaryTerm(), request.getAutoGeneratedTimestamp(), request.isRetry(), preParsed);
+            }
         }
         if (result.getResultType() == Engine.Result.Type.MAPPING_UPDATE_REQUIRED) {
 
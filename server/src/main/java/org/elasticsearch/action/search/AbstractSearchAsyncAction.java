@@ -84,6 +84,7 @@ abstract class AbstractSearchAsyncAction<Result extends SearchPhaseResult> exten
     private final SetOnce<AtomicArray<ShardSearchFailure>> shardFailures = new SetOnce<>();
     private final Object shardFailuresMutex = new Object();
     private final AtomicBoolean hasShardResponse = new AtomicBoolean(false);
+    private final AtomicBoolean requestFailed = new AtomicBoolean(false);
     private final AtomicInteger successfulOps = new AtomicInteger();
     private final AtomicInteger skippedOps = new AtomicInteger();
     private final SearchTimeProvider timeProvider;
@@ -297,6 +298,10 @@ abstract class AbstractSearchAsyncAction<Result extends SearchPhaseResult> exten
 
     @Override
     public final void executeNextPhase(SearchPhase currentPhase, SearchPhase nextPhase) {
+        if (requestFailed.get()) {
+            // the search failed before all shards responded, see #onShardResult
+            return;
+        }
         /* This is the main search phase transition where we move to the next phase. At this point we check if there is
          * at least one successful operation left and if so we move to the next phase. If not we immediately fail the
          * search phase as "all shards failed"*/
@@ -469,6 +474,16 @@ abstract class AbstractSearchAsyncAction<Result extends SearchPhaseResult> exten
         assert result.getSearchShardTarget() != null : "search shard target must not be null";
         successfulOps.incrementAndGet();
         results.consumeResult(result);
+        final Exception reduceFailure = results.getReduceFailure();
+        if (reduceFailure != null || requestFailed.get()) {
+            // the search is failing, so don't wait for the remaining shards. The context of this result is released
+            // here in case the failure was raised before the result was consumed.
+            releaseSearchContext(result, reduceFailure);
+            if (reduceFailure != null) {
+                onPhaseFailure(this, "failed to reduce shard results", reduceFailure);
+            }
+            return;
+        }
         hasShardResponse.set(true);
         if (logger.isTraceEnabled()) {
             logger.trace("got first-phase result from {}", result != null ? result.getSearchShardTarget() : null);
@@ -555,19 +570,28 @@ abstract class AbstractSearchAsyncAction<Result extends SearchPhaseResult> exten
      * @param exception the exception explaining or causing the phase failure
      */
     private void raisePhaseFailure(SearchPhaseExecutionException exception) {
-        results.getSuccessfulResults().forEach((entry) -> {
-            try {
-                SearchShardTarget searchShardTarget = entry.getSearchShardTarget();
-                Transport.Connection connection = getConnection(searchShardTarget.getClusterAlias(), searchShardTarget.getNodeId());
-                sendReleaseSearchContext(entry.getRequestId(), connection, searchShardTarget.getOriginalIndices());
-            } catch (Exception inner) {
-                inner.addSuppressed(exception);
-                logger.trace("failed to release context", inner);
-            }
-        });
+        if (requestFailed.compareAndSet(false, true) == false) {
+            // a failure was raised already, the contexts of later results are released as they arrive
+            return;
+        }
+        results.getSuccessfulResults().forEach((entry) -> releaseSearchContext(entry, exception));
+        results.close();
         listener.onFailure(exception);
     }
 
+    private void releaseSearchContext(SearchPhaseResult result, @Nullable Exception cause) {
+        try {
+            SearchShardTarget searchShardTarget = result.getSearchShardTarget();
+            Transport.Connection connection = getConnection(searchShardTarget.getClusterAlias(), searchShardTarget.getNodeId());
+            sendReleaseSearchContext(result.getRequestId(), connection, searchShardTarget.getOriginalIndices());
+        } catch (Exception inner) {
+            if (cause != null) {
+                inner.addSuppressed(cause);
+            }
+            logger.trace("failed to release context", inner);
+        }
+    }
+
     /**
      * Executed once all shard results have been received and processed
      * @see #onShardFailure(int, SearchShardTarget, Exception)
@@ -594,6 +618,7 @@ abstract class AbstractSearchAsyncAction<Result extends SearchPhaseResult> exten
 
     @Override
     public final void onFailure(Exception e) {
+        results.close();
         listener.onFailure(e);
     }
 
@@ -611,6 +636,7 @@ abstract class AbstractSearchAsyncAction<Result extends SearchPhaseResult> exten
         // can return a null response if the request rewrites to match none rather
         // than creating an empty response in the search thread pool.
         shardRequest.canReturnNullResponseIfMatchNoDocs(hasShardResponse.get());
+        shardRequest.readerId(shardIt.getReaderId());
         return shardRequest;
     }
 
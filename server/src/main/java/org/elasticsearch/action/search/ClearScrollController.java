@@ -23,6 +23,7 @@ import org.apache.logging.log4j.message.ParameterizedMessage;
 import org.elasticsearch.action.ActionListener;
 import org.elasticsearch.cluster.node.DiscoveryNode;
 import org.elasticsearch.cluster.node.DiscoveryNodes;
+import org.elasticsearch.common.Nullable;
 import org.elasticsearch.common.util.concurrent.CountDown;
 import org.elasticsearch.transport.Transport;
 import org.elasticsearch.transport.TransportResponse;
@@ -46,23 +47,23 @@ final class ClearScrollController implements Runnable {
 
     ClearScrollController(ClearScrollRequest request, ActionListener<ClearScrollResponse> listener, DiscoveryNodes nodes, Logger logger,
                           SearchTransportService searchTransportService) {
+        this(parseScrollIds(request), listener, nodes, logger, searchTransportService);
+    }
+
+    /**
+     * Frees the provided contexts, or all scroll contexts of the cluster if <code>parsedScrollIds</code> is <code>null</code>.
+     */
+    ClearScrollController(@Nullable List<ScrollIdForNode> parsedScrollIds, ActionListener<ClearScrollResponse> listener,
+                          DiscoveryNodes nodes, Logger logger, SearchTransportService searchTransportService) {
         this.nodes = nodes;
         this.logger = logger;
         this.searchTransportService = searchTransportService;
         this.listener = listener;
-        List<String> scrollIds = request.getScrollIds();
         final int expectedOps;
-        if (scrollIds.size() == 1 && "_all".equals(scrollIds.get(0))) {
+        if (parsedScrollIds == null) {
             expectedOps = nodes.getSize();
             runner = this::cleanAllScrolls;
         } else {
-            List<ScrollIdForNode> parsedScrollIds = new ArrayList<>();
-            for (String parsedScrollId : request.getScrollIds()) {
-                ScrollIdForNode[] context = parseScrollId(parsedScrollId).getContext();
-                for (ScrollIdForNode id : context) {
-                    parsedScrollIds.add(id);
-                }
-            }
             if (parsedScrollIds.isEmpty()) {
                 expectedOps = 0;
                 runner = () -> listener.onResponse(new ClearScrollResponse(true, 0));
@@ -75,6 +76,22 @@ final class ClearScrollController implements Runnable {
 
     }
 
+    @Nullable
+    private static List<ScrollIdForNode> parseScrollIds(ClearScrollRequest request) {
+        List<String> scrollIds = request.getScrollIds();
+        if (scrollIds.size() == 1 && "_all".equals(scrollIds.get(0))) {
+            return null;
+        }
+        List<ScrollIdForNode> parsedScrollIds = new ArrayList<>();
+        for (String parsedScrollId : scrollIds) {
+            ScrollIdForNode[] context = parseScrollId(parsedScrollId).getContext();
+            for (ScrollIdForNode id : context) {
+                parsedScrollIds.add(id);
+            }
+        }
+        return parsedScrollIds;
+    }
+
     @Override
     public void run() {
         runner.run();
@@ -0,0 +1,86 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.elasticsearch.action.search;
+
+import org.elasticsearch.Version;
+import org.elasticsearch.action.OriginalIndices;
+import org.elasticsearch.common.bytes.BytesArray;
+import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.io.stream.BytesStreamOutput;
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.elasticsearch.index.shard.ShardId;
+
+import java.util.Base64;
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * The decoded id of a point in time: the indices it was opened on and, for each shard, the node and
+ * the id of the reader context that holds the point in time view of the shard.
+ */
+final class PointInTimeId {
+    private final OriginalIndices originalIndices;
+    private final Map<ShardId, ScrollIdForNode> shards;
+
+    PointInTimeId(OriginalIndices originalIndices, Map<ShardId, ScrollIdForNode> shards) {
+        this.originalIndices = originalIndices;
+        this.shards = Collections.unmodifiableMap(shards);
+    }
+
+    OriginalIndices getOriginalIndices() {
+        return originalIndices;
+    }
+
+    Map<ShardId, ScrollIdForNode> getShards() {
+        return shards;
+    }
+
+    static String encode(OriginalIndices originalIndices, Map<ShardId, ScrollIdForNode> shards) {
+        try (BytesStreamOutput out = new BytesStreamOutput()) {
+            out.setVersion(Version.CURRENT);
+            Version.writeVersion(Version.CURRENT, out);
+            OriginalIndices.writeOriginalIndices(originalIndices, out);
+            out.writeMap(shards, (o, shardId) -> shardId.writeTo(o), (o, target) -> {
+                o.writeString(target.getNode());
+                o.writeLong(target.getScrollId());
+            });
+            return Base64.getUrlEncoder().encodeToString(BytesReference.toBytes(out.bytes()));
+        } catch (Exception e) {
+            throw new IllegalArgumentException("failed to encode point in time id", e);
+        }
+    }
+
+    static PointInTimeId decode(String id) {
+        try (StreamInput in = new BytesArray(Base64.getUrlDecoder().decode(id)).streamInput()) {
+            final Version version = Version.readVersion(in);
+            in.setVersion(version);
+            final OriginalIndices originalIndices = OriginalIndices.readOriginalIndices(in);
+            final Map<ShardId, ScrollIdForNode> shards = in.readMap(ShardId::new,
+                i -> new ScrollIdForNode(null, i.readString(), i.readLong()));
+            if (in.available() > 0) {
+                throw new IllegalArgumentException("Not all bytes were read");
+            }
+            return new PointInTimeId(originalIndices, shards);
+        } catch (Exception e) {
+            throw new IllegalArgumentException("invalid point in time id [" + id + "]", e);
+        }
+    }
+}
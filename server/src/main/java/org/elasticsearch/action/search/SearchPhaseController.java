@@ -33,8 +33,16 @@ import org.apache.lucene.search.TopFieldDocs;
 import org.apache.lucene.search.TotalHits;
 import org.apache.lucene.search.TotalHits.Relation;
 import org.apache.lucene.search.grouping.CollapseTopFieldDocs;
+import org.elasticsearch.ElasticsearchException;
+import org.elasticsearch.common.breaker.CircuitBreaker;
+import org.elasticsearch.common.breaker.CircuitBreakingException;
+import org.elasticsearch.common.breaker.NoopCircuitBreaker;
 import org.elasticsearch.common.collect.HppcMaps;
+import org.elasticsearch.common.io.stream.DelayableWriteable;
+import org.elasticsearch.common.io.stream.NamedWriteableRegistry;
 import org.elasticsearch.common.lucene.search.TopDocsAndMaxScore;
+import org.elasticsearch.common.util.concurrent.EsExecutors;
+import org.elasticsearch.common.util.concurrent.EsRejectedExecutionException;
 import org.elasticsearch.search.DocValueFormat;
 import org.elasticsearch.search.SearchHit;
 import org.elasticsearch.search.SearchHits;
@@ -58,12 +66,12 @@ import org.elasticsearch.search.suggest.Suggest.Suggestion;
 import org.elasticsearch.search.suggest.completion.CompletionSuggestion;
 
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Executor;
 import java.util.function.Function;
 import java.util.function.IntFunction;
 import java.util.stream.Collectors;
@@ -73,13 +81,32 @@ public final class SearchPhaseController {
     private static final ScoreDoc[] EMPTY_DOCS = new ScoreDoc[0];
 
     private final Function<Boolean, ReduceContext> reduceContextFunction;
+    private final NamedWriteableRegistry namedWriteableRegistry;
+    private final Executor executor;
+    private final CircuitBreaker circuitBreaker;
 
     /**
-     * Constructor.
+     * Constructor that reduces batches of shard results on the calling thread and doesn't account for their memory.
      * @param reduceContextFunction A function that builds a context for the reduce of an {@link InternalAggregation}
      */
     public SearchPhaseController(Function<Boolean, ReduceContext> reduceContextFunction) {
+        this(reduceContextFunction, null, EsExecutors.newDirectExecutorService(), new NoopCircuitBreaker(CircuitBreaker.REQUEST));
+    }
+
+    /**
+     * Constructor.
+     * @param reduceContextFunction A function that builds a context for the reduce of an {@link InternalAggregation}
+     * @param namedWriteableRegistry The registry used to keep partially reduced aggregations serialized,
+     *                               or {@code null} to keep them as objects
+     * @param executor The executor that partially reduces batches of shard results
+     * @param circuitBreaker The breaker that accounts for the memory used by buffered aggregations
+     */
+    public SearchPhaseController(Function<Boolean, ReduceContext> reduceContextFunction, NamedWriteableRegistry namedWriteableRegistry,
+                                 Executor executor, CircuitBreaker circuitBreaker) {
         this.reduceContextFunction = reduceContextFunction;
+        this.namedWriteableRegistry = namedWriteableRegistry;
+        this.executor = executor;
+        this.circuitBreaker = circuitBreaker;
     }
 
     public AggregatedDfs aggregateDfs(Collection<DfsSearchResult> results) {
@@ -585,16 +612,19 @@ public final class SearchPhaseController {
      * A {@link ArraySearchPhaseResults} implementation
      * that incrementally reduces aggregation results as shard results are consumed.
      * This implementation can be configured to batch up a certain amount of results and only reduce them
-     * iff the buffer is exhausted.
+     * iff the buffer is exhausted. Batches are reduced on the controller's executor so that the threads
+     * delivering shard results are never blocked by a partial reduce. Aggregations are kept in their
+     * serialized form until they are reduced, and their size is accounted for in the request circuit breaker.
+     * Once the breaker trips or a partial reduce fails, buffered results are released and later results are
+     * dropped, see {@link #getReduceFailure()}.
      */
     static final class QueryPhaseResultConsumer extends ArraySearchPhaseResults<SearchPhaseResult> {
         private final SearchShardTarget[] processedShards;
-        private final InternalAggregations[] aggsBuffer;
-        private final TopDocs[] topDocsBuffer;
+        private final List<DelayableWriteable<InternalAggregations>> pendingAggs = new ArrayList<>();
+        private final List<TopDocs> pendingTopDocs = new ArrayList<>();
         private final boolean hasAggs;
         private final boolean hasTopDocs;
         private final int bufferSize;
-        private int index;
         private final SearchPhaseController controller;
         private final SearchProgressListener progressListener;
         private int numReducePhases = 0;
@@ -602,6 +632,15 @@ public final class SearchPhaseController {
         private final int topNSize;
         private final boolean performFinalReduce;
 
+        private DelayableWriteable<InternalAggregations> partialAggs;
+        private TopDocs partialTopDocs;
+        private int numPending;
+        private boolean hasPartialResult;
+        private boolean mergeRunning;
+        private long circuitBreakerBytes;
+        private boolean closed;
+        private Exception failure;
+
         /**
          * Creates a new {@link QueryPhaseResultConsumer}
          * @param progressListener a progress listener to be notified when a successful response is received
@@ -627,9 +666,6 @@ public final class SearchPhaseController {
             this.controller = controller;
             this.progressListener = progressListener;
             this.processedShards = new SearchShardTarget[expectedResultSize];
-            // no need to buffer anything if we have less expected results. in this case we don't consume any results ahead of time.
-            this.aggsBuffer = new InternalAggregations[hasAggs ? bufferSize : 0];
-            this.topDocsBuffer = new TopDocs[hasTopDocs ? bufferSize : 0];
             this.hasTopDocs = hasTopDocs;
             this.hasAggs = hasAggs;
             this.bufferSize = bufferSize;
@@ -642,72 +678,292 @@ public final class SearchPhaseController {
         public void consumeResult(SearchPhaseResult result) {
             super.consumeResult(result);
             QuerySearchResult queryResult = result.queryResult();
-            consumeInternal(queryResult);
+            DelayableWriteable<InternalAggregations> aggs = null;
+            if (hasAggs && queryResult.isNull() == false) {
+                aggs = queryResult.consumeDelayedAggs();
+                if (aggs != null && aggs.isSerialized() == false && controller.namedWriteableRegistry != null) {
+                    // local results are kept in their compact form too, so that they are accounted for at their real size
+                    aggs = aggs.asSerialized(InternalAggregations::new, controller.namedWriteableRegistry);
+                }
+            }
+            Runnable merge = consumeInternal(queryResult, aggs);
+            if (merge != null) {
+                executeMerge(merge);
+            }
             progressListener.notifyQueryResult(queryResult.getShardIndex());
         }
 
-        private synchronized void consumeInternal(QuerySearchResult querySearchResult) {
-            if (querySearchResult.isNull() == false) {
-                if (index == bufferSize) {
+        /**
+         * Buffers the provided result and returns a task that reduces the current buffer if it is exhausted,
+         * or {@code null} if there is nothing to reduce yet. Results are dropped once the consumer failed.
+         */
+        private synchronized Runnable consumeInternal(QuerySearchResult querySearchResult,
+                                                      DelayableWriteable<InternalAggregations> aggs) {
+            processedShards[querySearchResult.getShardIndex()] = querySearchResult.getSearchShardTarget();
+            if (querySearchResult.isNull() || failure != null) {
+                return null;
+            }
+            if (hasAggs && addEstimateBytes(estimateRamBytesUsed(aggs)) == false) {
+                return null;
+            }
+            Runnable merge = null;
+            if (mergeRunning == false && numPending + (hasPartialResult ? 1 : 0) == bufferSize) {
+                merge = newMergeTask();
+            }
+            if (hasAggs) {
+                pendingAggs.add(aggs);
+            }
+            if (hasTopDocs) {
+                final TopDocsAndMaxScore topDocs = querySearchResult.consumeTopDocs(); // can't be null
+                topDocsStats.add(topDocs, querySearchResult.searchTimedOut(), querySearchResult.terminatedEarly());
+                setShardIndex(topDocs.topDocs, querySearchResult.getShardIndex());
+                pendingTopDocs.add(topDocs.topDocs);
+            }
+            numPending++;
+            return merge;
+        }
+
+        /**
+         * Takes the current buffer and returns a task that reduces it together with the current partial result.
+         * Must be called with the lock held.
+         */
+        private Runnable newMergeTask() {
+            assert Thread.holdsLock(this);
+            assert mergeRunning == false;
+            mergeRunning = true;
+            final DelayableWriteable<InternalAggregations> previousAggs = partialAggs;
+            final TopDocs previousTopDocs = partialTopDocs;
+            final List<DelayableWriteable<InternalAggregations>> batchAggs = new ArrayList<>(pendingAggs);
+            final List<TopDocs> batchTopDocs = new ArrayList<>(pendingTopDocs);
+            pendingAggs.clear();
+            pendingTopDocs.clear();
+            numPending = 0;
+            hasPartialResult = true;
+            return () -> {
+                long batchBytes = estimateRamBytesUsed(previousAggs);
+                InternalAggregations reducedAggs = null;
+                DelayableWriteable<InternalAggregations> newAggs = null;
+                TopDocs newTopDocs = null;
+                try {
                     if (hasAggs) {
+                        List<InternalAggregations> toReduce = new ArrayList<>(batchAggs.size() + 1);
+                        if (previousAggs != null) {
+                            toReduce.add(previousAggs.expand());
+                        }
+                        for (DelayableWriteable<InternalAggregations> aggs : batchAggs) {
+                            batchBytes += estimateRamBytesUsed(aggs);
+                            toReduce.add(aggs.expand());
+                        }
                         ReduceContext reduceContext = controller.reduceContextFunction.apply(false);
-                        InternalAggregations reducedAggs = InternalAggregations.topLevelReduce(Arrays.asList(aggsBuffer), reduceContext);
-                        Arrays.fill(aggsBuffer, null);
-                        aggsBuffer[0] = reducedAggs;
+                        reducedAggs = InternalAggregations.topLevelReduce(toReduce, reduceContext);
+                        newAggs = DelayableWriteable.referencing(reducedAggs);
+                        if (controller.namedWriteableRegistry != null) {
+                            // keep the partial result in its compact form, this also tells us how large it is
+                            newAggs = newAggs.asSerialized(InternalAggregations::new, controller.namedWriteableRegistry);
+                        }
                     }
                     if (hasTopDocs) {
-                        TopDocs reducedTopDocs = mergeTopDocs(Arrays.asList(topDocsBuffer),
-                            // we have to merge here in the same way we collect on a shard
-                            topNSize, 0);
-                        Arrays.fill(topDocsBuffer, null);
-                        topDocsBuffer[0] = reducedTopDocs;
-                    }
-                    numReducePhases++;
-                    index = 1;
-                    if (hasAggs) {
-                        progressListener.notifyPartialReduce(progressListener.searchShards(processedShards),
-                            topDocsStats.getTotalHits(), aggsBuffer[0], numReducePhases);
+                        List<TopDocs> toMerge = new ArrayList<>(batchTopDocs.size() + 1);
+                        if (previousTopDocs != null) {
+                            toMerge.add(previousTopDocs);
+                        }
+                        toMerge.addAll(batchTopDocs);
+                        // we have to merge here in the same way we collect on a shard
+                        newTopDocs = mergeTopDocs(toMerge, topNSize, 0);
                     }
+                } catch (Exception e) {
+                    onMergeFailure(e);
+                    return;
                 }
-                final int i = index++;
-                if (hasAggs) {
-                    aggsBuffer[i] = (InternalAggregations) querySearchResult.consumeAggs();
-                }
-                if (hasTopDocs) {
-                    final TopDocsAndMaxScore topDocs = querySearchResult.consumeTopDocs(); // can't be null
-                    topDocsStats.add(topDocs, querySearchResult.searchTimedOut(), querySearchResult.terminatedEarly());
-                    setShardIndex(topDocs.topDocs, querySearchResult.getShardIndex());
-                    topDocsBuffer[i] = topDocs.topDocs;
+                Runnable next = onMergeComplete(newAggs, reducedAggs, newTopDocs, batchBytes);
+                if (next != null) {
+                    executeMerge(next);
                 }
+            };
+        }
+
+        private synchronized Runnable onMergeComplete(DelayableWriteable<InternalAggregations> newAggs,
+                                                      InternalAggregations reducedAggs, TopDocs newTopDocs, long batchBytes) {
+            numReducePhases++;
+            addWithoutBreaking(-batchBytes);
+            if (failure != null || addEstimateBytes(estimateRamBytesUsed(newAggs)) == false) {
+                // the consumer failed while we were reducing, the reduced results are dropped
+                mergeRunning = false;
+                notifyAll();
+                return null;
+            }
+            partialAggs = newAggs;
+            partialTopDocs = newTopDocs;
+            if (hasAggs) {
+                progressListener.notifyPartialReduce(progressListener.searchShards(processedShards),
+                    topDocsStats.getTotalHits(), reducedAggs, numReducePhases);
+            }
+            if (numPending >= bufferSize) {
+                // more results arrived than fit into the buffer while we were reducing
+                mergeRunning = false;
+                return newMergeTask();
+            }
+            mergeRunning = false;
+            notifyAll();
+            return null;
+        }
+
+        private synchronized void onMergeFailure(Exception e) {
+            fail(e);
+            mergeRunning = false;
+            notifyAll();
+        }
+
+        /**
+         * Records the provided failure and releases the buffered results, since they can't be reduced anymore.
+         * Must be called with the lock held.
+         */
+        private void fail(Exception e) {
+            assert Thread.holdsLock(this);
+            if (failure != null) {
+                failure.addSuppressed(e);
+                return;
+            }
+            failure = e;
+            pendingAggs.clear();
+            pendingTopDocs.clear();
+            partialAggs = null;
+            partialTopDocs = null;
+            numPending = 0;
+            hasPartialResult = false;
+            // this also releases the bytes of a merge that is still running, its result is dropped once it completes
+            addWithoutBreaking(-circuitBreakerBytes);
+        }
+
+        private void executeMerge(Runnable merge) {
+            try {
+                controller.executor.execute(merge);
+            } catch (EsRejectedExecutionException e) {
+                // reduce on the calling thread rather than dropping results
+                merge.run();
+            }
+        }
+
+        /**
+         * Adds the provided bytes to the request circuit breaker. If the breaker trips the consumer fails
+         * and {@code false} is returned. Must be called with the lock held.
+         */
+        private boolean addEstimateBytes(long bytes) {
+            assert Thread.holdsLock(this);
+            if (closed || bytes == 0) {
+                return true;
+            }
+            try {
+                controller.circuitBreaker.addEstimateBytesAndMaybeBreak(bytes, "<reduce_aggs>");
+                circuitBreakerBytes += bytes;
+                return true;
+            } catch (CircuitBreakingException e) {
+                fail(e);
+                return false;
             }
-            processedShards[querySearchResult.getShardIndex()] = querySearchResult.getSearchShardTarget();
         }
 
-        private synchronized List<InternalAggregations> getRemainingAggs() {
-            return hasAggs ? Arrays.asList(aggsBuffer).subList(0, index) : null;
+        private void addWithoutBreaking(long bytes) {
+            assert Thread.holdsLock(this);
+            if (closed || bytes == 0) {
+                return;
+            }
+            // never release more than we accounted for, some additions may have tripped the breaker
+            long delta = Math.max(bytes, -circuitBreakerBytes);
+            controller.circuitBreaker.addWithoutBreaking(delta);
+            circuitBreakerBytes += delta;
         }
 
-        private synchronized List<TopDocs> getRemainingTopDocs() {
-            return hasTopDocs ? Arrays.asList(topDocsBuffer).subList(0, index) : null;
+        private static long estimateRamBytesUsed(DelayableWriteable<InternalAggregations> aggs) {
+            if (aggs != null && aggs.isSerialized()) {
+                return ((DelayableWriteable.Serialized<InternalAggregations>) aggs).ramBytesUsed();
+            }
+            return 0;
         }
 
         @Override
         public ReducedQueryPhase reduce() {
-            ReducedQueryPhase reducePhase = controller.reducedQueryPhase(results.asList(),
-                getRemainingAggs(), getRemainingTopDocs(), topDocsStats, numReducePhases, false, performFinalReduce);
-            progressListener.notifyReduce(progressListener.searchShards(results.asList()),
-                reducePhase.totalHits, reducePhase.aggregations);
-            return reducePhase;
+            final List<InternalAggregations> aggs;
+            final List<TopDocs> topDocs;
+            final int reducePhases;
+            try {
+                synchronized (this) {
+                    while (mergeRunning) {
+                        wait();
+                    }
+                    if (failure != null) {
+                        throw failure;
+                    }
+                    aggs = hasAggs ? getRemainingAggs() : null;
+                    topDocs = hasTopDocs ? getRemainingTopDocs() : null;
+                    reducePhases = numReducePhases;
+                }
+                ReducedQueryPhase reducePhase = controller.reducedQueryPhase(results.asList(),
+                    aggs, topDocs, topDocsStats, reducePhases, false, performFinalReduce);
+                progressListener.notifyReduce(progressListener.searchShards(results.asList()),
+                    reducePhase.totalHits, reducePhase.aggregations);
+                return reducePhase;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("interrupted while waiting for partial reduce", e);
+            } catch (RuntimeException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new ElasticsearchException(e);
+            } finally {
+                close();
+            }
+        }
+
+        private List<InternalAggregations> getRemainingAggs() {
+            assert Thread.holdsLock(this);
+            List<InternalAggregations> aggs = new ArrayList<>(pendingAggs.size() + 1);
+            if (partialAggs != null) {
+                aggs.add(partialAggs.expand());
+            }
+            for (DelayableWriteable<InternalAggregations> pending : pendingAggs) {
+                aggs.add(pending.expand());
+            }
+            return aggs;
+        }
+
+        private List<TopDocs> getRemainingTopDocs() {
+            assert Thread.holdsLock(this);
+            List<TopDocs> topDocs = new ArrayList<>(pendingTopDocs.size() + 1);
+            if (partialTopDocs != null) {
+                topDocs.add(partialTopDocs);
+            }
+            topDocs.addAll(pendingTopDocs);
+            return topDocs;
+        }
+
+        @Override
+        synchronized Exception getReduceFailure() {
+            return failure;
+        }
+
+        /**
+         * Releases the bytes accounted in the request circuit breaker for the buffered results.
+         */
+        @Override
+        public synchronized void close() {
+            if (closed == false) {
+                controller.circuitBreaker.addWithoutBreaking(-circuitBreakerBytes);
+                circuitBreakerBytes = 0;
+                closed = true;
+            }
         }
 
         /**
          * Returns the number of buffered results
          */
-        int getNumBuffered() {
-            return index;
+        synchronized int getNumBuffered() {
+            return numPending + (hasPartialResult ? 1 : 0);
         }
 
-        int getNumReducePhases() { return numReducePhases; }
+        synchronized int getNumReducePhases() { return numReducePhases; }
+
+        synchronized long getCircuitBreakerBytes() { return circuitBreakerBytes; }
     }
 
     private int resolveTrackTotalHits(SearchRequest request) {
@@ -19,6 +19,8 @@
 
 package org.elasticsearch.action.search;
 
+import org.elasticsearch.common.Nullable;
+import org.elasticsearch.common.lease.Releasable;
 import org.elasticsearch.common.util.concurrent.AtomicArray;
 import org.elasticsearch.search.SearchPhaseResult;
 
@@ -27,7 +29,7 @@ import java.util.stream.Stream;
 /**
  * This class acts as a basic result collection that can be extended to do on-the-fly reduction or result processing
  */
-abstract class SearchPhaseResults<Result extends SearchPhaseResult> {
+abstract class SearchPhaseResults<Result extends SearchPhaseResult> implements Releasable {
     private final int numShards;
 
     SearchPhaseResults(int numShards) {
@@ -68,4 +70,18 @@ abstract class SearchPhaseResults<Result extends SearchPhaseResult> {
     SearchPhaseController.ReducedQueryPhase reduce() {
         throw new UnsupportedOperationException("reduce is not supported");
     }
+
+    /**
+     * Returns the failure that prevents the consumed results from being reduced, or {@code null} if there is none
+     */
+    @Nullable
+    Exception getReduceFailure() {
+        return null;
+    }
+
+    /**
+     * Releases any resources held for results that have not been reduced yet
+     */
+    @Override
+    public void close() {}
 }
@@ -31,6 +31,7 @@ import org.elasticsearch.common.io.stream.StreamOutput;
 import org.elasticsearch.common.unit.TimeValue;
 import org.elasticsearch.common.xcontent.ToXContent;
 import org.elasticsearch.search.Scroll;
+import org.elasticsearch.search.builder.PointInTimeBuilder;
 import org.elasticsearch.search.builder.SearchSourceBuilder;
 import org.elasticsearch.search.internal.SearchContext;
 import org.elasticsearch.tasks.Task;
@@ -270,9 +271,26 @@ public final class SearchRequest extends ActionRequest implements IndicesRequest
                     addValidationError("[request_cache] cannot be used in a scroll context", validationException);
             }
         }
+        if (pointInTimeBuilder() != null && indices.length > 0 && pointInTimeIndicesMatch() == false) {
+            validationException =
+                addValidationError("[indices] cannot be used with [pit]; they are taken from its id", validationException);
+        }
         return validationException;
     }
 
+    /**
+     * Indices may only be set on a point in time search if they are the ones the point in time was opened on.
+     * This allows requests that are authorized and validated on their indices to search a point in time.
+     */
+    private boolean pointInTimeIndicesMatch() {
+        try {
+            final PointInTimeId pointInTimeId = PointInTimeId.decode(pointInTimeBuilder().getId());
+            return Arrays.equals(indices, pointInTimeId.getOriginalIndices().indices());
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
     /**
      * Returns the alias of the cluster that this search request is being executed on. A non-null value indicates that this search request
      * is being executed as part of a locally reduced cross-cluster search request. The cluster alias is used to prefix index names
@@ -419,6 +437,14 @@ public final class SearchRequest extends ActionRequest implements IndicesRequest
         return source;
     }
 
+    /**
+     * Returns the point in time that this request searches, if any.
+     */
+    @Nullable
+    public PointInTimeBuilder pointInTimeBuilder() {
+        return source != null ? source.pointInTimeBuilder() : null;
+    }
+
     /**
      * The tye of search to execute.
      */
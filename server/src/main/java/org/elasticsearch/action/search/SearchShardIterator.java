@@ -40,6 +40,7 @@ public final class SearchShardIterator extends PlainShardIterator {
 
     private final OriginalIndices originalIndices;
     private final String clusterAlias;
+    private final Long readerId;
     private boolean skip = false;
 
     /**
@@ -52,9 +53,25 @@ public final class SearchShardIterator extends PlainShardIterator {
      * @param originalIndices the indices that the search request originally related to (before any rewriting happened)
      */
     public SearchShardIterator(@Nullable String clusterAlias, ShardId shardId, List<ShardRouting> shards, OriginalIndices originalIndices) {
+        this(clusterAlias, shardId, shards, originalIndices, null);
+    }
+
+    /**
+     * Creates a {@link PlainShardIterator} instance that iterates over a subset of the given shards
+     * this the a given <code>shardId</code>, searching the reader context identified by <code>readerId</code> if it is set.
+     *
+     * @param clusterAlias the alias of the cluster where the shard is located
+     * @param shardId shard id of the group
+     * @param shards  shards to iterate
+     * @param originalIndices the indices that the search request originally related to (before any rewriting happened)
+     * @param readerId the id of the point in time reader context to search on the shard, or <code>null</code>
+     */
+    public SearchShardIterator(@Nullable String clusterAlias, ShardId shardId, List<ShardRouting> shards,
+                               OriginalIndices originalIndices, @Nullable Long readerId) {
         super(shardId, shards);
         this.originalIndices = originalIndices;
         this.clusterAlias = clusterAlias;
+        this.readerId = readerId;
     }
 
     /**
@@ -72,6 +89,15 @@ public final class SearchShardIterator extends PlainShardIterator {
         return clusterAlias;
     }
 
+    /**
+     * Returns the id of the point in time reader context to search on this shard, or <code>null</code> if the
+     * shard should be searched with a fresh searcher.
+     */
+    @Nullable
+    public Long getReaderId() {
+        return readerId;
+    }
+
     /**
      * Creates a new shard target from this iterator, pointing at the node identified by the provided identifier.
      * @see SearchShardTarget
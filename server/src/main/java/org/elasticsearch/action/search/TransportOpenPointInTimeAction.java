@@ -0,0 +1,170 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.elasticsearch.action.search;
+
+import org.apache.logging.log4j.message.ParameterizedMessage;
+import org.elasticsearch.action.ActionListener;
+import org.elasticsearch.action.NoShardAvailableActionException;
+import org.elasticsearch.action.OriginalIndices;
+import org.elasticsearch.action.search.SearchTransportService.OpenReaderContextResponse;
+import org.elasticsearch.action.support.ActionFilters;
+import org.elasticsearch.action.support.HandledTransportAction;
+import org.elasticsearch.cluster.ClusterState;
+import org.elasticsearch.cluster.block.ClusterBlockLevel;
+import org.elasticsearch.cluster.metadata.IndexNameExpressionResolver;
+import org.elasticsearch.cluster.node.DiscoveryNode;
+import org.elasticsearch.cluster.routing.GroupShardsIterator;
+import org.elasticsearch.cluster.routing.ShardIterator;
+import org.elasticsearch.cluster.routing.ShardRouting;
+import org.elasticsearch.cluster.service.ClusterService;
+import org.elasticsearch.common.inject.Inject;
+import org.elasticsearch.common.util.concurrent.AtomicArray;
+import org.elasticsearch.common.util.concurrent.CountDown;
+import org.elasticsearch.index.shard.ShardId;
+import org.elasticsearch.tasks.Task;
+import org.elasticsearch.transport.TransportService;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Opens a reader context on one copy of every shard targeted by the request and returns an id that encodes
+ * where each of them lives. The id can be used by subsequent search requests to search the same point in time.
+ */
+public class TransportOpenPointInTimeAction extends HandledTransportAction<OpenPointInTimeRequest, OpenPointInTimeResponse> {
+
+    private final ClusterService clusterService;
+    private final SearchTransportService searchTransportService;
+    private final IndexNameExpressionResolver indexNameExpressionResolver;
+
+    @Inject
+    public TransportOpenPointInTimeAction(TransportService transportService, ClusterService clusterService, ActionFilters actionFilters,
+                                          SearchTransportService searchTransportService,
+                                          IndexNameExpressionResolver indexNameExpressionResolver) {
+        super(OpenPointInTimeAction.NAME, transportService, actionFilters, OpenPointInTimeRequest::new);
+        this.clusterService = clusterService;
+        this.searchTransportService = searchTransportService;
+        this.indexNameExpressionResolver = indexNameExpressionResolver;
+    }
+
+    @Override
+    protected void doExecute(Task task, OpenPointInTimeRequest request, ActionListener<OpenPointInTimeResponse> listener) {
+        final ClusterState clusterState = clusterService.state();
+        final List<ShardRouting> targets = new ArrayList<>();
+        try {
+            clusterState.blocks().globalBlockedRaiseException(ClusterBlockLevel.READ);
+            final String[] concreteIndices = indexNameExpressionResolver.concreteIndexNames(clusterState, request);
+            for (String index : concreteIndices) {
+                clusterState.blocks().indexBlockedRaiseException(ClusterBlockLevel.READ, index);
+            }
+            final Map<String, Set<String>> routingMap =
+                indexNameExpressionResolver.resolveSearchRouting(clusterState, request.routing(), request.indices());
+            final GroupShardsIterator<ShardIterator> shardIterators =
+                clusterService.operationRouting().searchShards(clusterState, concreteIndices, routingMap, request.preference());
+            for (ShardIterator shardIterator : shardIterators) {
+                final ShardRouting shardRouting = shardIterator.nextOrNull();
+                if (shardRouting == null) {
+                    throw new NoShardAvailableActionException(shardIterator.shardId());
+                }
+                targets.add(shardRouting);
+            }
+        } catch (Exception e) {
+            listener.onFailure(e);
+            return;
+        }
+        final OriginalIndices originalIndices = new OriginalIndices(request);
+        if (targets.isEmpty()) {
+            listener.onResponse(new OpenPointInTimeResponse(PointInTimeId.encode(originalIndices, new HashMap<>())));
+            return;
+        }
+
+        final AtomicArray<ScrollIdForNode> readers = new AtomicArray<>(targets.size());
+        final AtomicReference<Exception> failure = new AtomicReference<>();
+        final CountDown countDown = new CountDown(targets.size());
+        final Runnable onShardDone = () -> {
+            if (countDown.countDown()) {
+                onFinish(originalIndices, targets, readers, failure.get(), listener);
+            }
+        };
+        for (int i = 0; i < targets.size(); i++) {
+            final int index = i;
+            final ShardRouting shardRouting = targets.get(i);
+            final DiscoveryNode node = clusterState.nodes().get(shardRouting.currentNodeId());
+            final ActionListener<OpenReaderContextResponse> shardListener = new ActionListener<OpenReaderContextResponse>() {
+                @Override
+                public void onResponse(OpenReaderContextResponse response) {
+                    readers.set(index, new ScrollIdForNode(null, node.getId(), response.getReaderId()));
+                    onShardDone.run();
+                }
+
+                @Override
+                public void onFailure(Exception e) {
+                    failure.accumulateAndGet(e, (current, update) -> {
+                        if (current == null) {
+                            return update;
+                        }
+                        current.addSuppressed(update);
+                        return current;
+                    });
+                    onShardDone.run();
+                }
+            };
+            try {
+                searchTransportService.sendOpenReaderContext(searchTransportService.getConnection(null, node), shardRouting.shardId(),
+                    originalIndices, request.keepAlive(), task, shardListener);
+            } catch (Exception e) {
+                shardListener.onFailure(e);
+            }
+        }
+    }
+
+    private void onFinish(OriginalIndices originalIndices, List<ShardRouting> targets, AtomicArray<ScrollIdForNode> readers,
+                          Exception failure, ActionListener<OpenPointInTimeResponse> listener) {
+        if (failure == null) {
+            final Map<ShardId, ScrollIdForNode> shards = new HashMap<>();
+            for (int i = 0; i < targets.size(); i++) {
+                shards.put(targets.get(i).shardId(), readers.get(i));
+            }
+            listener.onResponse(new OpenPointInTimeResponse(PointInTimeId.encode(originalIndices, shards)));
+        } else {
+            // a point in time that misses shards would silently return partial results, so we release what we opened and fail
+            for (ScrollIdForNode reader : readers.asList()) {
+                final DiscoveryNode node = clusterService.state().nodes().get(reader.getNode());
+                if (node == null) {
+                    continue;
+                }
+                try {
+                    searchTransportService.sendFreeContext(searchTransportService.getConnection(null, node), reader.getScrollId(),
+                        ActionListener.wrap(r -> {}, e -> logger.debug(() -> new ParameterizedMessage(
+                            "failed to free reader context [{}] on node [{}]", reader.getScrollId(), reader.getNode()), e)));
+                } catch (Exception e) {
+                    logger.debug(() -> new ParameterizedMessage("failed to free reader context [{}] on node [{}]",
+                        reader.getScrollId(), reader.getNode()), e);
+                }
+            }
+            listener.onFailure(failure);
+        }
+    }
+}
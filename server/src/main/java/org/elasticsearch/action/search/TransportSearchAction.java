@@ -34,7 +34,9 @@ import org.elasticsearch.cluster.metadata.IndexNameExpressionResolver;
 import org.elasticsearch.cluster.node.DiscoveryNode;
 import org.elasticsearch.cluster.node.DiscoveryNodes;
 import org.elasticsearch.cluster.routing.GroupShardsIterator;
+import org.elasticsearch.cluster.routing.IndexShardRoutingTable;
 import org.elasticsearch.cluster.routing.ShardIterator;
+import org.elasticsearch.cluster.routing.ShardRouting;
 import org.elasticsearch.cluster.service.ClusterService;
 import org.elasticsearch.common.Nullable;
 import org.elasticsearch.common.inject.Inject;
@@ -114,10 +116,10 @@ public class TransportSearchAction extends HandledTransportAction<SearchRequest,
         this.indexNameExpressionResolver = indexNameExpressionResolver;
     }
 
-    private Map<String, AliasFilter> buildPerIndexAliasFilter(SearchRequest request, ClusterState clusterState,
+    private Map<String, AliasFilter> buildPerIndexAliasFilter(String[] indexExpressions, ClusterState clusterState,
                                                               Index[] concreteIndices, Map<String, AliasFilter> remoteAliasMap) {
         final Map<String, AliasFilter> aliasFilterMap = new HashMap<>();
-        final Set<String> indicesAndAliases = indexNameExpressionResolver.resolveExpressions(clusterState, request.indices());
+        final Set<String> indicesAndAliases = indexNameExpressionResolver.resolveExpressions(clusterState, indexExpressions);
         for (Index index : concreteIndices) {
             clusterState.blocks().indexBlockedRaiseException(ClusterBlockLevel.READ, index.getName());
             AliasFilter aliasFilter = searchService.buildAliasFilter(clusterState, index.getName(), indicesAndAliases);
@@ -205,6 +207,12 @@ public class TransportSearchAction extends HandledTransportAction<SearchRequest,
                 searchRequest.source(source);
             }
             final ClusterState clusterState = clusterService.state();
+            if (searchRequest.pointInTimeBuilder() != null) {
+                // the indices and the shard copies to search are taken from the point in time id
+                executePointInTimeSearch((SearchTask) task, timeProvider, searchRequest,
+                    PointInTimeId.decode(searchRequest.pointInTimeBuilder().getId()), clusterState, listener);
+                return;
+            }
             final Map<String, OriginalIndices> remoteClusterIndices = remoteClusterService.groupIndices(searchRequest.indicesOptions(),
                 searchRequest.indices());
             OriginalIndices localIndices = remoteClusterIndices.remove(RemoteClusterAware.LOCAL_CLUSTER_GROUP_KEY);
@@ -469,7 +477,7 @@ public class TransportSearchAction extends HandledTransportAction<SearchRequest,
         // date math expressions and $now in scripts. This way all apis will deal with now in the same way instead
         // of just for the _search api
         final Index[] indices = resolveLocalIndices(localIndices, searchRequest.indicesOptions(), clusterState, timeProvider);
-        Map<String, AliasFilter> aliasFilter = buildPerIndexAliasFilter(searchRequest, clusterState, indices, remoteAliasMap);
+        Map<String, AliasFilter> aliasFilter = buildPerIndexAliasFilter(searchRequest.indices(), clusterState, indices, remoteAliasMap);
         Map<String, Set<String>> routingMap = indexNameExpressionResolver.resolveSearchRouting(clusterState, searchRequest.routing(),
             searchRequest.indices());
         routingMap = routingMap == null ? Collections.emptyMap() : Collections.unmodifiableMap(routingMap);
@@ -482,7 +490,54 @@ public class TransportSearchAction extends HandledTransportAction<SearchRequest,
                 concreteIndices, routingMap, searchRequest.preference(), searchService.getResponseCollectorService(), nodeSearchCounts);
         GroupShardsIterator<SearchShardIterator> shardIterators = mergeShardsIterators(localShardsIterator, localIndices,
             searchRequest.getLocalClusterAlias(), remoteShardIterators);
+        executeSearch(task, timeProvider, searchRequest, shardIterators, remoteConnections, clusterState, aliasFilter, routingMap,
+            listener, clusters);
+    }
+
+    /**
+     * Executes a search against the reader contexts of a point in time. The shards to search and the node holding the
+     * reader context of each shard are taken from the point in time id rather than from the routing table.
+     */
+    private void executePointInTimeSearch(SearchTask task, SearchTimeProvider timeProvider, SearchRequest searchRequest,
+                                          PointInTimeId pointInTimeId, ClusterState clusterState,
+                                          ActionListener<SearchResponse> listener) {
+        clusterState.blocks().globalBlockedRaiseException(ClusterBlockLevel.READ);
+        final OriginalIndices originalIndices = pointInTimeId.getOriginalIndices();
+        final Index[] indices = pointInTimeId.getShards().keySet().stream().map(ShardId::getIndex).distinct().toArray(Index[]::new);
+        final Map<String, AliasFilter> aliasFilter =
+            buildPerIndexAliasFilter(originalIndices.indices(), clusterState, indices, Collections.emptyMap());
+        final GroupShardsIterator<SearchShardIterator> shardIterators =
+            buildPointInTimeShardIterators(clusterState, pointInTimeId, searchRequest.getLocalClusterAlias());
+        executeSearch(task, timeProvider, searchRequest, shardIterators, (clusterName, nodeId) -> null, clusterState, aliasFilter,
+            Collections.emptyMap(), listener, SearchResponse.Clusters.EMPTY);
+    }
 
+    static GroupShardsIterator<SearchShardIterator> buildPointInTimeShardIterators(ClusterState clusterState,
+                                                                                  PointInTimeId pointInTimeId,
+                                                                                  @Nullable String localClusterAlias) {
+        final List<SearchShardIterator> shards = new ArrayList<>(pointInTimeId.getShards().size());
+        for (Map.Entry<ShardId, ScrollIdForNode> entry : pointInTimeId.getShards().entrySet()) {
+            final ShardId shardId = entry.getKey();
+            final String nodeId = entry.getValue().getNode();
+            final IndexShardRoutingTable shardRoutingTable = clusterState.routingTable().shardRoutingTable(shardId);
+            // the reader context only exists on the node that opened it, so that is the only copy we can search
+            final List<ShardRouting> targets = new ArrayList<>(1);
+            for (ShardRouting shardRouting : shardRoutingTable.activeShards()) {
+                if (nodeId.equals(shardRouting.currentNodeId())) {
+                    targets.add(shardRouting);
+                }
+            }
+            shards.add(new SearchShardIterator(localClusterAlias, shardId, targets, pointInTimeId.getOriginalIndices(),
+                entry.getValue().getScrollId()));
+        }
+        return new GroupShardsIterator<>(shards);
+    }
+
+    private void executeSearch(SearchTask task, SearchTimeProvider timeProvider, SearchRequest searchRequest,
+                               GroupShardsIterator<SearchShardIterator> shardIterators,
+                               BiFunction<String, String, DiscoveryNode> remoteConnections, ClusterState clusterState,
+                               Map<String, AliasFilter> aliasFilter, Map<String, Set<String>> routingMap,
+                               ActionListener<SearchResponse> listener, SearchResponse.Clusters clusters) {
         failIfOverShardCountLimit(clusterService, shardIterators.size());
 
         Map<String, Float> concreteIndexBoosts = resolveIndexBoosts(searchRequest, clusterState);
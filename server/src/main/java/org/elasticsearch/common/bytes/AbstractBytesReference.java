@@ -186,13 +186,13 @@ public abstract class AbstractBytesReference implements BytesReference {
      * this wrapper builds it on top of the BytesReferenceStreamInput which is much simpler
      * that way.
      */
-    private static final class MarkSupportingStreamInputWrapper extends StreamInput {
+    static class MarkSupportingStreamInputWrapper extends StreamInput {
         // can't use FilterStreamInput it needs to reset the delegate
         private final BytesReference reference;
         private BytesReferenceStreamInput input;
         private int mark = 0;
 
-        private MarkSupportingStreamInputWrapper(BytesReference reference) throws IOException {
+        MarkSupportingStreamInputWrapper(BytesReference reference) throws IOException {
             this.reference = reference;
             this.input = new BytesReferenceStreamInput(reference.iterator(), reference.length());
         }
@@ -254,6 +254,13 @@ public abstract class AbstractBytesReference implements BytesReference {
         public long skip(long n) throws IOException {
             return input.skip(n);
         }
+
+        /**
+         * Returns the current position of this stream in the wrapped reference.
+         */
+        int getOffset() {
+            return input.getOffset();
+        }
     }
 
     @Override
@@ -24,6 +24,8 @@ import org.apache.lucene.util.BytesRefIterator;
 import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.lease.Releasable;
 import org.elasticsearch.common.lease.Releasables;
+import org.elasticsearch.common.util.concurrent.AbstractRefCounted;
+import org.elasticsearch.common.util.concurrent.RefCounted;
 import org.elasticsearch.common.xcontent.XContentBuilder;
 
 import java.io.IOException;
@@ -32,20 +34,72 @@ import java.io.OutputStream;
 /**
  * An extension to {@link BytesReference} that requires releasing its content. This
  * class exists to make it explicit when a bytes reference needs to be released, and when not.
+ * <p>
+ * The content is reference counted: {@link #close()} releases one reference and the content
+ * is released once the last reference is gone. Slices obtained with {@link #retainedSlice(int, int)},
+ * and bytes references read from {@link #streamInput()} with {@link StreamInput#readReleasableBytesReference()},
+ * share the reference count of this instance so that they can outlive it without copying the bytes.
  */
-public final class ReleasableBytesReference implements Releasable, BytesReference {
+public final class ReleasableBytesReference implements Releasable, RefCounted, BytesReference {
 
     private final BytesReference delegate;
-    private final Releasable releasable;
+    private final RefCountedReleasable refCounted;
 
     public ReleasableBytesReference(BytesReference delegate, Releasable releasable) {
+        this(delegate, new RefCountedReleasable(releasable));
+    }
+
+    private ReleasableBytesReference(BytesReference delegate, RefCountedReleasable refCounted) {
         this.delegate = delegate;
-        this.releasable = releasable;
+        this.refCounted = refCounted;
+    }
+
+    /**
+     * Wraps bytes that do not need to be released, for instance because they live on the heap and are not recycled.
+     */
+    public static ReleasableBytesReference wrap(BytesReference reference) {
+        return new ReleasableBytesReference(reference, () -> {});
+    }
+
+    @Override
+    public void incRef() {
+        refCounted.incRef();
+    }
+
+    @Override
+    public boolean tryIncRef() {
+        return refCounted.tryIncRef();
+    }
+
+    @Override
+    public void decRef() {
+        refCounted.decRef();
+    }
+
+    /**
+     * Increments the reference count and returns this instance. The caller must {@link #close()} the returned instance.
+     */
+    public ReleasableBytesReference retain() {
+        refCounted.incRef();
+        return this;
+    }
+
+    /**
+     * Returns a slice of this reference that shares its content and holds its own reference to it. The slice
+     * must be {@link #close() closed} independently of this instance.
+     */
+    public ReleasableBytesReference retainedSlice(int from, int length) {
+        if (from == 0 && length() == length) {
+            return retain();
+        }
+        final BytesReference slice = delegate.slice(from, length);
+        refCounted.incRef();
+        return new ReleasableBytesReference(slice, refCounted);
     }
 
     @Override
     public void close() {
-        Releasables.close(releasable);
+        refCounted.decRef();
     }
 
     @Override
@@ -80,7 +134,19 @@ public final class ReleasableBytesReference implements Releasable, BytesReferenc
 
     @Override
     public StreamInput streamInput() throws IOException {
-        return delegate.streamInput();
+        return new AbstractBytesReference.MarkSupportingStreamInputWrapper(delegate) {
+            @Override
+            public ReleasableBytesReference readReleasableBytesReference() throws IOException {
+                final int length = readArraySize();
+                if (length == 0) {
+                    return wrap(BytesArray.EMPTY);
+                }
+                // slice the underlying bytes instead of copying them, the slice holds its own reference
+                final ReleasableBytesReference slice = retainedSlice(getOffset(), length);
+                skip(length);
+                return slice;
+            }
+        };
     }
 
     @Override
@@ -127,4 +193,19 @@ public final class ReleasableBytesReference implements Releasable, BytesReferenc
     public int hashCode() {
         return delegate.hashCode();
     }
+
+    private static final class RefCountedReleasable extends AbstractRefCounted {
+
+        private final Releasable releasable;
+
+        RefCountedReleasable(Releasable releasable) {
+            super("bytes reference");
+            this.releasable = releasable;
+        }
+
+        @Override
+        protected void closeInternal() {
+            Releasables.close(releasable);
+        }
+    }
 }
@@ -22,13 +22,14 @@ package org.elasticsearch.common.cache;
 import org.elasticsearch.common.collect.Tuple;
 import org.elasticsearch.common.util.concurrent.ReleasableLock;
 
-import java.util.Arrays;
-import java.util.HashMap;
 import java.util.Iterator;
 import java.util.Map;
 import java.util.Objects;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 import java.util.concurrent.atomic.LongAdder;
 import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantLock;
@@ -46,23 +47,27 @@ import java.util.function.ToLongBiFunction;
  * accept reduced write performance in exchange for easy-to-understand code. Cache statistics for hits, misses and
  * evictions are exposed.
  * <p>
- * The design of the cache is relatively simple. The cache is segmented into 256 segments which are backed by HashMaps.
- * Each segment is protected by a re-entrant read/write lock. The read/write locks permit multiple concurrent readers
- * without contention, and the segments gives us write throughput without impacting readers (so readers are blocked only
- * if they are reading a segment that a writer is writing to).
+ * The design of the cache is relatively simple. The cache is segmented into 256 segments which are backed by
+ * ConcurrentHashMaps. Reads do not take any lock. Each segment is protected by a re-entrant read/write lock that serializes
+ * writers to the segment, and the segments gives us write throughput without impacting readers.
  * <p>
  * The LRU functionality is backed by a single doubly-linked list chaining the entries in order of insertion. This
- * LRU list is protected by a lock that serializes all writes to it. There are opportunities for improvements
- * here if write throughput is a concern.
- * <ol>
- * <li>LRU list mutations could be inserted into a blocking queue that a single thread is reading from
- * and applying to the LRU list.</li>
- * <li>Promotions could be deferred for entries that were "recently" promoted.</li>
- * <li>Locks on the list could be taken per node being modified instead of globally.</li>
- * </ol>
+ * LRU list is protected by a lock that serializes all writes to it. Cache hits do not take this lock to promote the
+ * entry; instead the access is recorded in a striped, bounded {@link ReadBuffer} without locking, and the buffered
+ * promotions are replayed in order against the LRU list by the next thread that holds the lock (any write, an explicit
+ * {@link #refresh()}, or a reader that finds its buffer stripe filling up and can acquire the lock without waiting). A
+ * reader only blocks on the LRU lock if its buffer stripe is full.
+ * <p>
+ * Optionally (see {@link CacheBuilder#setFrequencyAware(boolean)}), the cache keeps a compact, approximate history of
+ * access frequencies (a {@link FrequencySketch}) and uses it as a TinyLFU admission filter when the cache is over its
+ * maximum weight: a newly inserted entry only displaces the least-recently-used entry if the new key was accessed more
+ * frequently, otherwise the new entry is evicted instead. This protects frequently used entries from being flushed out
+ * by one-off insertions, at the cost of a newly inserted key possibly having to be inserted more than once before it is
+ * retained.
  * <p>
  * Evictions only occur after a mutation to the cache (meaning an entry promotion, a cache insertion, or a manual
- * invalidation) or an explicit call to {@link #refresh()}.
+ * invalidation) or an explicit call to {@link #refresh()}. Promotions of cache hits may be deferred until the read
+ * buffer is drained.
  *
  * @param <K> The type of the keys
  * @param <V> The type of the values
@@ -97,6 +102,9 @@ public class Cache<K, V> {
     private RemovalListener<K, V> removalListener = notification -> {
     };
 
+    // the access frequency history used for admission, null if the cache is not frequency-aware
+    private FrequencySketch frequencySketch = null;
+
     // use CacheBuilder to construct
     Cache() {
     }
@@ -144,6 +152,15 @@ public class Cache<K, V> {
         this.removalListener = removalListener;
     }
 
+    void setFrequencyAware(boolean frequencyAware) {
+        this.frequencySketch = frequencyAware ? new FrequencySketch() : null;
+    }
+
+    // pkg-private for testing
+    boolean isFrequencyAware() {
+        return frequencySketch != null;
+    }
+
     /**
      * The relative time used to track time-based evictions.
      *
@@ -179,7 +196,8 @@ public class Cache<K, V> {
     /**
      * A cache segment.
      * <p>
-     * A CacheSegment is backed by a HashMap and is protected by a read/write lock.
+     * A CacheSegment is backed by a ConcurrentHashMap; reads are lock-free while mutations that need to be atomic with
+     * respect to each other are protected by a read/write lock.
      *
      * @param <K> the type of the keys
      * @param <V> the type of the values
@@ -188,10 +206,9 @@ public class Cache<K, V> {
         // read/write lock protecting mutations to the segment
         ReadWriteLock segmentLock = new ReentrantReadWriteLock();
 
-        ReleasableLock readLock = new ReleasableLock(segmentLock.readLock());
         ReleasableLock writeLock = new ReleasableLock(segmentLock.writeLock());
 
-        Map<K, CompletableFuture<Entry<K, V>>> map = new HashMap<>();
+        final Map<K, CompletableFuture<Entry<K, V>>> map = new ConcurrentHashMap<>();
 
         SegmentStats segmentStats = new SegmentStats();
 
@@ -206,10 +223,7 @@ public class Cache<K, V> {
          * @return the entry if there was one, otherwise null
          */
         Entry<K, V> get(K key, long now, Predicate<Entry<K, V>> isExpired, Consumer<Entry<K, V>> onExpiration) {
-            CompletableFuture<Entry<K, V>> future;
-            try (ReleasableLock ignored = readLock.acquire()) {
-                future = map.get(key);
-            }
+            final CompletableFuture<Entry<K, V>> future = map.get(key);
             if (future != null) {
                 Entry<K, V> entry;
                 try {
@@ -351,6 +365,11 @@ public class Cache<K, V> {
     // lock protecting mutations to the LRU list
     private final ReleasableLock lruLock = new ReleasableLock(new ReentrantLock());
 
+    // accesses that have not been applied to the LRU list yet
+    private final ReadBuffer<K, V> readBuffer = new ReadBuffer<>();
+
+    private final Consumer<Entry<K, V>> onBufferedAccess = this::onBufferedAccess;
+
     /**
      * Returns the value to which the specified key is mapped, or null if this map contains no mapping for the key.
      *
@@ -367,11 +386,30 @@ public class Cache<K, V> {
         if (entry == null) {
             return null;
         } else {
-            promote(entry, now);
+            recordAccess(entry, now);
             return entry.value;
         }
     }
 
+    /**
+     * Records a cache hit on the given entry. The promotion of the entry is buffered and applied to the LRU list the next
+     * time the read buffer is drained; if the buffer of the current stripe is full, the buffer is drained and the entry
+     * promoted under the LRU lock right away so that no access is lost.
+     */
+    private void recordAccess(Entry<K, V> entry, long now) {
+        final int pending = readBuffer.offer(entry);
+        if (pending < 0) {
+            promote(entry, now);
+        } else if (pending >= ReadBuffer.DRAIN_THRESHOLD) {
+            try (ReleasableLock locked = lruLock.tryAcquire()) {
+                if (locked != null) {
+                    drainReadBuffer();
+                    evict(now);
+                }
+            }
+        }
+    }
+
     /**
      * If the specified key is not already associated with a value (or is mapped to null), attempts to compute its
      * value using the given mapping function and enters it into this map unless null. The load method for a given key
@@ -543,7 +581,9 @@ public class Cache<K, V> {
             }
             try (ReleasableLock ignored = lruLock.acquire()) {
                 h = head;
-                Arrays.stream(segments).forEach(segment -> segment.map = new HashMap<>());
+                for (CacheSegment<K, V> segment : segments) {
+                    segment.map.clear();
+                }
                 Entry<K, V> current = head;
                 while (current != null) {
                     current.state = State.DELETED;
@@ -572,6 +612,7 @@ public class Cache<K, V> {
     public void refresh() {
         long now = now();
         try (ReleasableLock ignored = lruLock.acquire()) {
+            drainReadBuffer();
             evict(now);
         }
     }
@@ -603,7 +644,7 @@ public class Cache<K, V> {
      */
     public Iterable<K> keys() {
         return () -> new Iterator<K>() {
-            private CacheIterator iterator = new CacheIterator(head);
+            private CacheIterator iterator = new CacheIterator(drainedHead());
 
             @Override
             public boolean hasNext() {
@@ -631,7 +672,7 @@ public class Cache<K, V> {
      */
     public Iterable<V> values() {
         return () -> new Iterator<V>() {
-            private CacheIterator iterator = new CacheIterator(head);
+            private CacheIterator iterator = new CacheIterator(drainedHead());
 
             @Override
             public boolean hasNext() {
@@ -650,6 +691,18 @@ public class Cache<K, V> {
         };
     }
 
+    /**
+     * Applies any buffered promotions so that iteration reflects the LRU order of all accesses made so far.
+     *
+     * @return the head of the LRU list
+     */
+    private Entry<K, V> drainedHead() {
+        try (ReleasableLock ignored = lruLock.acquire()) {
+            drainReadBuffer();
+            return head;
+        }
+    }
+
     private class CacheIterator implements Iterator<Entry<K, V>> {
         private Entry<K, V> current;
         private Entry<K, V> next;
@@ -730,15 +783,22 @@ public class Cache<K, V> {
     private boolean promote(Entry<K, V> entry, long now) {
         boolean promoted = true;
         try (ReleasableLock ignored = lruLock.acquire()) {
+            // apply the buffered promotions first so that they are ordered before this one
+            drainReadBuffer();
             switch (entry.state) {
                 case DELETED:
                     promoted = false;
                     break;
                 case EXISTING:
                     relinkAtHead(entry);
+                    recordFrequency(entry);
                     break;
                 case NEW:
                     linkAtHead(entry);
+                    if (frequencySketch != null) {
+                        recordFrequency(entry);
+                        admit(entry);
+                    }
                     break;
             }
             if (promoted) {
@@ -748,6 +808,47 @@ public class Cache<K, V> {
         return promoted;
     }
 
+    private void drainReadBuffer() {
+        assert lruLock.isHeldByCurrentThread();
+        readBuffer.drain(onBufferedAccess);
+    }
+
+    private void onBufferedAccess(Entry<K, V> entry) {
+        assert lruLock.isHeldByCurrentThread();
+
+        // entries that are not linked yet are linked by the thread that inserted them, deleted entries are ignored
+        if (entry.state == State.EXISTING) {
+            relinkAtHead(entry);
+            recordFrequency(entry);
+        }
+    }
+
+    private void recordFrequency(Entry<K, V> entry) {
+        assert lruLock.isHeldByCurrentThread();
+
+        if (frequencySketch != null) {
+            frequencySketch.increment(entry.key.hashCode());
+        }
+    }
+
+    /**
+     * TinyLFU admission: while the cache exceeds its maximum weight, the newly linked candidate only evicts the least-recently-used
+     * entry if the candidate's key was accessed more frequently, otherwise the candidate itself is evicted.
+     */
+    private void admit(Entry<K, V> candidate) {
+        assert lruLock.isHeldByCurrentThread();
+
+        while (exceedsWeight() && tail != null && tail != candidate) {
+            final Entry<K, V> victim = tail;
+            if (frequencySketch.frequency(candidate.key.hashCode()) > frequencySketch.frequency(victim.key.hashCode())) {
+                evictEntry(victim);
+            } else {
+                evictEntry(candidate);
+                break;
+            }
+        }
+    }
+
     private void evict(long now) {
         assert lruLock.isHeldByCurrentThread();
 
@@ -845,6 +946,9 @@ public class Cache<K, V> {
         count++;
         weight += weigher.applyAsLong(entry.key, entry.value);
         entry.state = State.EXISTING;
+        if (frequencySketch != null) {
+            frequencySketch.ensureCapacity(count);
+        }
     }
 
     private void relinkAtHead(Entry<K, V> entry) {
@@ -859,4 +963,82 @@ public class Cache<K, V> {
     private CacheSegment<K, V> getCacheSegment(K key) {
         return segments[key.hashCode() & 0xff];
     }
+
+    /**
+     * A striped, bounded buffer of cache hits whose promotion has not been applied to the LRU list yet. Each stripe is a
+     * ring buffer that many threads append to without locking and that is drained by a single thread holding the LRU
+     * lock. Threads are spread over the stripes by their id so that a single thread always appends to the same stripe,
+     * which preserves the order of its accesses.
+     *
+     * @param <K> the type of the keys
+     * @param <V> the type of the values
+     */
+    static final class ReadBuffer<K, V> {
+        static final int NUMBER_OF_STRIPES = 16;
+        static final int STRIPE_CAPACITY = 32;
+        // the number of pending accesses in a stripe at which readers try to drain the buffer
+        static final int DRAIN_THRESHOLD = STRIPE_CAPACITY / 2;
+
+        private static final int STRIPE_MASK = STRIPE_CAPACITY - 1;
+
+        private static final class Stripe<K, V> {
+            private final AtomicReferenceArray<Entry<K, V>> buffer = new AtomicReferenceArray<>(STRIPE_CAPACITY);
+            // the number of slots reserved by writers
+            private final AtomicLong writeCounter = new AtomicLong();
+            // the number of slots consumed by the drainer, only written under the LRU lock
+            private volatile long readCounter;
+        }
+
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        private final Stripe<K, V>[] stripes = new Stripe[NUMBER_OF_STRIPES];
+
+        ReadBuffer() {
+            for (int i = 0; i < stripes.length; i++) {
+                stripes[i] = new Stripe<>();
+            }
+        }
+
+        /**
+         * Records an access to the given entry.
+         *
+         * @return the number of pending accesses in the stripe of the current thread including this one, or -1 if the
+         *         stripe is full and the access was not recorded
+         */
+        int offer(Entry<K, V> entry) {
+            final Stripe<K, V> stripe = stripes[(int) Thread.currentThread().getId() & (NUMBER_OF_STRIPES - 1)];
+            while (true) {
+                final long writeCounter = stripe.writeCounter.get();
+                final long pending = writeCounter - stripe.readCounter;
+                if (pending >= STRIPE_CAPACITY) {
+                    return -1;
+                }
+                if (stripe.writeCounter.compareAndSet(writeCounter, writeCounter + 1)) {
+                    stripe.buffer.lazySet((int) (writeCounter & STRIPE_MASK), entry);
+                    return (int) pending + 1;
+                }
+            }
+        }
+
+        /**
+         * Hands all published accesses to the given consumer in the order they were recorded per stripe. Must only be
+         * called by a single thread at a time.
+         */
+        void drain(Consumer<Entry<K, V>> consumer) {
+            for (Stripe<K, V> stripe : stripes) {
+                long readCounter = stripe.readCounter;
+                final long writeCounter = stripe.writeCounter.get();
+                for (; readCounter < writeCounter; readCounter++) {
+                    final int index = (int) (readCounter & STRIPE_MASK);
+                    final Entry<K, V> entry = stripe.buffer.get(index);
+                    if (entry == null) {
+                        // the slot was reserved but the entry is not published yet; it will be drained next time
+                        break;
+                    }
+                    stripe.buffer.lazySet(index, null);
+                    consumer.accept(entry);
+                }
+                stripe.readCounter = readCounter;
+            }
+        }
+    }
 }
@@ -30,6 +30,7 @@ public class CacheBuilder<K, V> {
     private long expireAfterWriteNanos = -1;
     private ToLongBiFunction<K, V> weigher;
     private RemovalListener<K, V> removalListener;
+    private boolean frequencyAware = false;
 
     public static <K, V> CacheBuilder<K, V> builder() {
         return new CacheBuilder<>();
@@ -90,6 +91,18 @@ public class CacheBuilder<K, V> {
         return this;
     }
 
+    /**
+     * Sets whether the cache uses the access frequency of keys to decide which entries to retain when it exceeds its maximum
+     * weight. A frequency-aware cache only admits a new entry at the expense of the least-recently-used entry if the new key
+     * was accessed more frequently, which makes it resistant to scans and one-off insertions. Defaults to {@code false}.
+     *
+     * @param frequencyAware whether to use frequency-based (TinyLFU) admission
+     */
+    public CacheBuilder<K, V> setFrequencyAware(boolean frequencyAware) {
+        this.frequencyAware = frequencyAware;
+        return this;
+    }
+
     public Cache<K, V> build() {
         Cache<K, V> cache = new Cache<>();
         if (maximumWeight != -1) {
@@ -107,6 +120,9 @@ public class CacheBuilder<K, V> {
         if (removalListener != null) {
             cache.setRemovalListener(removalListener);
         }
+        if (frequencyAware) {
+            cache.setFrequencyAware(true);
+        }
         return cache;
     }
 }
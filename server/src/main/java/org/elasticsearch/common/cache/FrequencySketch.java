@@ -0,0 +1,145 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.common.cache;
+
+/**
+ * An approximate, bounded history of access frequencies used by {@link Cache} for TinyLFU admission.
+ * <p>
+ * This is a count-min sketch with four 4-bit counters per key. The counters of a key are spread over four different
+ * words of the table, and the estimated frequency of a key is the minimum of its counters, which limits over-estimation
+ * due to hash collisions. Counters saturate at 15. To keep the history fresh, all counters are halved once the number of
+ * recorded accesses reaches ten times the table size, so that keys that were popular in the past but are not accessed
+ * anymore eventually lose their advantage.
+ * <p>
+ * This class is not thread-safe; {@link Cache} only accesses it under its LRU lock.
+ */
+final class FrequencySketch {
+
+    private static final long[] SEEDS = { 0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L };
+    // clears the high bit of every 4-bit counter after a shift to the right
+    private static final long RESET_MASK = 0x7777777777777777L;
+    // selects the low bit of every 4-bit counter
+    private static final long ONE_MASK = 0x1111111111111111L;
+
+    static final int MINIMUM_CAPACITY = 16;
+    static final int MAXIMUM_CAPACITY = 1 << 26;
+
+    private long[] table;
+    private int tableMask;
+    private int sampleSize;
+    private int size;
+
+    FrequencySketch() {
+        ensureCapacity(MINIMUM_CAPACITY);
+    }
+
+    /**
+     * Grows the sketch so that it can track the frequencies of the given number of keys with a low error rate. The history
+     * collected so far is preserved: the index of a key in the grown table only has additional high bits compared to its
+     * index in the current table, so each word of the grown table starts out as a copy of the word it was split from.
+     *
+     * @param capacity the number of keys to track
+     */
+    void ensureCapacity(long capacity) {
+        final int maximum = (int) Math.min(Math.max(capacity, MINIMUM_CAPACITY), MAXIMUM_CAPACITY);
+        if (table != null && table.length >= maximum) {
+            return;
+        }
+        final long[] grown = new long[Integer.highestOneBit(maximum - 1) << 1];
+        if (table != null) {
+            for (int i = 0; i < grown.length; i++) {
+                grown[i] = table[i & tableMask];
+            }
+        }
+        table = grown;
+        tableMask = table.length - 1;
+        sampleSize = 10 * table.length;
+    }
+
+    // pkg-private for testing
+    int capacity() {
+        return table.length;
+    }
+
+    /**
+     * Returns the estimated number of accesses of the key with the given hash, capped at 15.
+     */
+    int frequency(int keyHash) {
+        final int hash = spread(keyHash);
+        final int start = (hash & 3) << 2;
+        int frequency = Integer.MAX_VALUE;
+        for (int i = 0; i < 4; i++) {
+            final int index = indexOf(hash, i);
+            final int count = (int) ((table[index] >>> ((start + i) << 2)) & 0xfL);
+            frequency = Math.min(frequency, count);
+        }
+        return frequency;
+    }
+
+    /**
+     * Records an access of the key with the given hash, aging all counters if the sample size was reached.
+     */
+    void increment(int keyHash) {
+        final int hash = spread(keyHash);
+        final int start = (hash & 3) << 2;
+        boolean added = false;
+        for (int i = 0; i < 4; i++) {
+            added |= incrementAt(indexOf(hash, i), start + i);
+        }
+        if (added && ++size == sampleSize) {
+            reset();
+        }
+    }
+
+    private boolean incrementAt(int index, int counter) {
+        final int offset = counter << 2;
+        final long mask = 0xfL << offset;
+        if ((table[index] & mask) != mask) {
+            table[index] += 1L << offset;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Halves all counters, and the sample size accordingly.
+     */
+    private void reset() {
+        int odd = 0;
+        for (int i = 0; i < table.length; i++) {
+            odd += Long.bitCount(table[i] & ONE_MASK);
+            table[i] = (table[i] >>> 1) & RESET_MASK;
+        }
+        // every counter that was odd loses half an access to the truncation
+        size = (size - (odd >>> 2)) >>> 1;
+    }
+
+    private int indexOf(int hash, int i) {
+        long h = (hash + SEEDS[i]) * SEEDS[i];
+        h += h >>> 32;
+        return ((int) h) & tableMask;
+    }
+
+    private static int spread(int x) {
+        x = ((x >>> 16) ^ x) * 0x45d9f3b;
+        x = ((x >>> 16) ^ x) * 0x45d9f3b;
+        return (x >>> 16) ^ x;
+    }
+}
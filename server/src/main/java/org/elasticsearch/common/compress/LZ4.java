@@ -0,0 +1,211 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.common.compress;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * A pure Java implementation of the <a href="https://github.com/lz4/lz4/blob/dev/doc/lz4_Block_format.md">LZ4 block format</a>.
+ * This favours speed over compression ratio: matches are found through a single-entry hash table and there is no
+ * attempt at finding the longest match. Blocks produced by this class can be decoded by any LZ4 block decoder.
+ */
+final class LZ4 {
+
+    static final int MIN_MATCH = 4;
+    // the last 5 bytes of a block are always literals
+    private static final int LAST_LITERALS = 5;
+    // the last match must start at least 12 bytes before the end of the block
+    private static final int MF_LIMIT = 12;
+    private static final int MAX_DISTANCE = 1 << 16;
+    private static final int HASH_LOG = 12;
+    static final int HASH_TABLE_SIZE = 1 << HASH_LOG;
+    // number of misses after which we start skipping bytes when looking for matches
+    private static final int SKIP_STRENGTH = 6;
+
+    private LZ4() {
+    }
+
+    /**
+     * Returns the maximum number of bytes that compressing {@code length} bytes may produce.
+     */
+    static int maxCompressedLength(int length) {
+        return length + length / 255 + 16;
+    }
+
+    /**
+     * Compresses {@code src[srcOff:srcOff+srcLen]} into {@code dest} starting at {@code destOff}, which must have at
+     * least {@link #maxCompressedLength(int)} bytes available, and returns the number of bytes written.
+     * {@code hashTable} is scratch space of {@link #HASH_TABLE_SIZE} entries that is reset by this method.
+     */
+    static int compress(byte[] src, int srcOff, int srcLen, byte[] dest, int destOff, int[] hashTable) {
+        assert hashTable.length == HASH_TABLE_SIZE;
+        final int srcEnd = srcOff + srcLen;
+        int d = destOff;
+        int anchor = srcOff;
+        if (srcLen > MF_LIMIT) {
+            Arrays.fill(hashTable, -1);
+            final int matchLimit = srcEnd - LAST_LITERALS;
+            final int limit = srcEnd - MF_LIMIT;
+            int s = srcOff;
+            while (s <= limit) {
+                final int sequence = readInt(src, s);
+                final int h = hash(sequence);
+                int ref = hashTable[h];
+                hashTable[h] = s;
+                if (ref < 0 || s - ref >= MAX_DISTANCE || readInt(src, ref) != sequence) {
+                    s += 1 + ((s - anchor) >>> SKIP_STRENGTH);
+                    continue;
+                }
+                // extend the match backwards over pending literals
+                while (s > anchor && ref > srcOff && src[s - 1] == src[ref - 1]) {
+                    --s;
+                    --ref;
+                }
+                int matchLength = MIN_MATCH;
+                while (s + matchLength < matchLimit && src[s + matchLength] == src[ref + matchLength]) {
+                    ++matchLength;
+                }
+                d = writeSequence(src, anchor, s - anchor, s - ref, matchLength, dest, d);
+                s += matchLength;
+                anchor = s;
+            }
+        }
+        // trailing literals, the token has no match part
+        final int literalLength = srcEnd - anchor;
+        d = writeLiterals(src, anchor, literalLength, dest, d);
+        return d - destOff;
+    }
+
+    /**
+     * Decompresses {@code src[srcOff:srcOff+srcLen]} into {@code dest} starting at {@code destOff} and returns the
+     * number of decompressed bytes, which is never greater than {@code maxLength}.
+     */
+    static int decompress(byte[] src, int srcOff, int srcLen, byte[] dest, int destOff, int maxLength) throws IOException {
+        final int srcEnd = srcOff + srcLen;
+        final int destEnd = destOff + maxLength;
+        int s = srcOff;
+        int d = destOff;
+        while (true) {
+            if (s >= srcEnd) {
+                throw new IOException("Corrupt LZ4 block: unexpected end of input");
+            }
+            final int token = src[s++] & 0xFF;
+
+            int literalLength = token >>> 4;
+            if (literalLength == 0x0F) {
+                int b;
+                do {
+                    if (s >= srcEnd) {
+                        throw new IOException("Corrupt LZ4 block: unexpected end of input");
+                    }
+                    b = src[s++] & 0xFF;
+                    literalLength += b;
+                } while (b == 0xFF);
+            }
+            if (literalLength > srcEnd - s || literalLength > destEnd - d) {
+                throw new IOException("Corrupt LZ4 block: literals overflow");
+            }
+            System.arraycopy(src, s, dest, d, literalLength);
+            s += literalLength;
+            d += literalLength;
+
+            if (s == srcEnd) {
+                // the last sequence only has literals
+                return d - destOff;
+            }
+
+            if (srcEnd - s < 2) {
+                throw new IOException("Corrupt LZ4 block: unexpected end of input");
+            }
+            final int offset = (src[s++] & 0xFF) | ((src[s++] & 0xFF) << 8);
+            int matchLength = token & 0x0F;
+            if (matchLength == 0x0F) {
+                int b;
+                do {
+                    if (s >= srcEnd) {
+                        throw new IOException("Corrupt LZ4 block: unexpected end of input");
+                    }
+                    b = src[s++] & 0xFF;
+                    matchLength += b;
+                } while (b == 0xFF);
+            }
+            matchLength += MIN_MATCH;
+            final int ref = d - offset;
+            if (offset == 0 || ref < destOff || matchLength > destEnd - d) {
+                throw new IOException("Corrupt LZ4 block: invalid match");
+            }
+            if (offset >= matchLength) {
+                System.arraycopy(dest, ref, dest, d, matchLength);
+            } else {
+                // overlapping copy, the match repeats bytes that are being written
+                for (int i = 0; i < matchLength; ++i) {
+                    dest[d + i] = dest[ref + i];
+                }
+            }
+            d += matchLength;
+        }
+    }
+
+    private static int writeSequence(byte[] src, int literalOff, int literalLength, int offset, int matchLength,
+                                     byte[] dest, int d) {
+        final int tokenOff = d;
+        d = writeLiterals(src, literalOff, literalLength, dest, d);
+        dest[d++] = (byte) offset;
+        dest[d++] = (byte) (offset >>> 8);
+        final int extraMatchLength = matchLength - MIN_MATCH;
+        if (extraMatchLength >= 0x0F) {
+            dest[tokenOff] |= 0x0F;
+            d = writeLength(extraMatchLength - 0x0F, dest, d);
+        } else {
+            dest[tokenOff] |= (byte) extraMatchLength;
+        }
+        return d;
+    }
+
+    private static int writeLiterals(byte[] src, int literalOff, int literalLength, byte[] dest, int d) {
+        if (literalLength >= 0x0F) {
+            dest[d++] = (byte) 0xF0;
+            d = writeLength(literalLength - 0x0F, dest, d);
+        } else {
+            dest[d++] = (byte) (literalLength << 4);
+        }
+        System.arraycopy(src, literalOff, dest, d, literalLength);
+        return d + literalLength;
+    }
+
+    private static int writeLength(int length, byte[] dest, int d) {
+        while (length >= 0xFF) {
+            dest[d++] = (byte) 0xFF;
+            length -= 0xFF;
+        }
+        dest[d++] = (byte) length;
+        return d;
+    }
+
+    private static int readInt(byte[] bytes, int offset) {
+        return ((bytes[offset] & 0xFF) << 24) | ((bytes[offset + 1] & 0xFF) << 16)
+            | ((bytes[offset + 2] & 0xFF) << 8) | (bytes[offset + 3] & 0xFF);
+    }
+
+    private static int hash(int sequence) {
+        return (sequence * -1640531535) >>> (32 - HASH_LOG);
+    }
+}
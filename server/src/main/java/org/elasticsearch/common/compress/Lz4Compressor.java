@@ -0,0 +1,301 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.common.compress;
+
+import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.io.stream.InputStreamStreamInput;
+import org.elasticsearch.common.io.stream.OutputStreamStreamOutput;
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.elasticsearch.common.io.stream.StreamOutput;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+
+/**
+ * {@link Compressor} implementation based on the LZ4 compression algorithm. It compresses much faster than
+ * {@link DeflateCompressor} at the cost of a lower compression ratio, which makes it a better fit for compressing
+ * network traffic.
+ *
+ * The compressed stream is the header followed by a sequence of blocks of at most {@link #BLOCK_SIZE} uncompressed
+ * bytes, each prefixed with its uncompressed and compressed lengths as vints. A block whose compressed length equals
+ * its uncompressed length is stored as-is. An uncompressed length of zero marks the end of the stream.
+ */
+public class Lz4Compressor implements Compressor {
+
+    // An arbitrary header that we use to identify compressed streams
+    // It needs to be different from other compressors and to not be specific
+    // enough so that no stream starting with these bytes could be detected as
+    // a XContent
+    private static final byte[] HEADER = new byte[]{'L', 'Z', '4', '\0'};
+    static final int BLOCK_SIZE = 64 * 1024;
+
+    // Streams are opened for every compressed message and their buffers would dominate the allocations of small messages, so
+    // every thread holds on to the buffers of the last stream that it closed and lends them to the next stream that it opens.
+    // A stream that is opened while the buffers of its thread are lent out allocates its own.
+    private static final ThreadLocal<EncoderBuffers> ENCODER_BUFFERS = new ThreadLocal<>();
+    private static final ThreadLocal<DecoderBuffers> DECODER_BUFFERS = new ThreadLocal<>();
+
+    @Override
+    public boolean isCompressed(BytesReference bytes) {
+        if (bytes.length() < HEADER.length) {
+            return false;
+        }
+        for (int i = 0; i < HEADER.length; ++i) {
+            if (bytes.get(i) != HEADER[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public StreamInput streamInput(StreamInput in) throws IOException {
+        final byte[] headerBytes = new byte[HEADER.length];
+        int len = 0;
+        while (len < headerBytes.length) {
+            final int read = in.read(headerBytes, len, headerBytes.length - len);
+            if (read == -1) {
+                break;
+            }
+            len += read;
+        }
+        if (len != HEADER.length || Arrays.equals(headerBytes, HEADER) == false) {
+            throw new IllegalArgumentException("Input stream is not compressed with LZ4!");
+        }
+        return new InputStreamStreamInput(new Lz4BlockInputStream(in));
+    }
+
+    @Override
+    public StreamOutput streamOutput(StreamOutput out) throws IOException {
+        out.writeBytes(HEADER);
+        return new OutputStreamStreamOutput(new Lz4BlockOutputStream(out));
+    }
+
+    private static final class Lz4BlockOutputStream extends OutputStream {
+
+        private final StreamOutput out;
+        private EncoderBuffers buffers;
+        private byte[] buffer;
+        private int position;
+        private boolean closed;
+
+        private Lz4BlockOutputStream(StreamOutput out) {
+            this.out = out;
+            this.buffers = borrow(ENCODER_BUFFERS);
+            if (buffers == null) {
+                buffers = new EncoderBuffers();
+            }
+            this.buffer = buffers.block;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            ensureOpen();
+            if (position == buffer.length) {
+                writeBlock();
+            }
+            buffer[position++] = (byte) b;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            ensureOpen();
+            while (len > 0) {
+                if (position == buffer.length) {
+                    writeBlock();
+                }
+                final int toCopy = Math.min(len, buffer.length - position);
+                System.arraycopy(b, off, buffer, position, toCopy);
+                position += toCopy;
+                off += toCopy;
+                len -= toCopy;
+            }
+        }
+
+        private void writeBlock() throws IOException {
+            if (position == 0) {
+                return;
+            }
+            final int compressedLength = LZ4.compress(buffer, 0, position, buffers.compressed, 0, buffers.hashTable);
+            out.writeVInt(position);
+            if (compressedLength < position) {
+                out.writeVInt(compressedLength);
+                out.writeBytes(buffers.compressed, 0, compressedLength);
+            } else {
+                out.writeVInt(position);
+                out.writeBytes(buffer, 0, position);
+            }
+            position = 0;
+        }
+
+        private void ensureOpen() throws IOException {
+            if (closed) {
+                throw new IOException("Stream is closed");
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            if (closed == false) {
+                writeBlock();
+            }
+            out.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (closed == false) {
+                closed = true;
+                try {
+                    writeBlock();
+                    out.writeVInt(0);
+                } finally {
+                    giveBack(ENCODER_BUFFERS, buffers);
+                    buffers = null;
+                    buffer = null;
+                    out.close();
+                }
+            }
+        }
+    }
+
+    private static final class Lz4BlockInputStream extends InputStream {
+
+        private final StreamInput in;
+        private DecoderBuffers buffers;
+        private byte[] buffer;
+        private int position;
+        private int limit;
+        private boolean eof;
+
+        private Lz4BlockInputStream(StreamInput in) {
+            this.in = in;
+            this.buffers = borrow(DECODER_BUFFERS);
+            if (buffers == null) {
+                buffers = new DecoderBuffers();
+            }
+            this.buffer = buffers.block;
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (ensureAvailable() == false) {
+                return -1;
+            }
+            return buffer[position++] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (len == 0) {
+                return 0;
+            }
+            if (ensureAvailable() == false) {
+                return -1;
+            }
+            final int toCopy = Math.min(len, limit - position);
+            System.arraycopy(buffer, position, b, off, toCopy);
+            position += toCopy;
+            return toCopy;
+        }
+
+        @Override
+        public int available() {
+            return limit - position;
+        }
+
+        private boolean ensureAvailable() throws IOException {
+            if (buffers == null) {
+                throw new IOException("Stream is closed");
+            }
+            while (position == limit) {
+                if (eof) {
+                    return false;
+                }
+                readBlock();
+            }
+            return true;
+        }
+
+        private void readBlock() throws IOException {
+            final int uncompressedLength = in.readVInt();
+            if (uncompressedLength == 0) {
+                eof = true;
+                return;
+            }
+            final int compressedLength = in.readVInt();
+            if (uncompressedLength < 0 || uncompressedLength > BLOCK_SIZE
+                || compressedLength <= 0 || compressedLength > uncompressedLength) {
+                throw new IOException("Corrupt LZ4 stream: invalid block lengths [" + uncompressedLength + "/"
+                    + compressedLength + "]");
+            }
+            if (compressedLength == uncompressedLength) {
+                in.readBytes(buffer, 0, uncompressedLength);
+            } else {
+                in.readBytes(buffers.compressed, 0, compressedLength);
+                final int decompressed = LZ4.decompress(buffers.compressed, 0, compressedLength, buffer, 0, uncompressedLength);
+                if (decompressed != uncompressedLength) {
+                    throw new IOException("Corrupt LZ4 stream: expected [" + uncompressedLength + "] bytes but got ["
+                        + decompressed + "]");
+                }
+            }
+            position = 0;
+            limit = uncompressedLength;
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (buffers != null) {
+                giveBack(DECODER_BUFFERS, buffers);
+                buffers = null;
+                buffer = null;
+                position = limit = 0;
+            }
+            in.close();
+        }
+    }
+
+    private static <T> T borrow(ThreadLocal<T> threadLocal) {
+        final T buffers = threadLocal.get();
+        if (buffers != null) {
+            threadLocal.set(null);
+        }
+        return buffers;
+    }
+
+    private static <T> void giveBack(ThreadLocal<T> threadLocal, T buffers) {
+        if (threadLocal.get() == null) {
+            threadLocal.set(buffers);
+        }
+    }
+
+    private static final class EncoderBuffers {
+        final byte[] block = new byte[BLOCK_SIZE];
+        final byte[] compressed = new byte[LZ4.maxCompressedLength(BLOCK_SIZE)];
+        final int[] hashTable = new int[LZ4.HASH_TABLE_SIZE];
+    }
+
+    private static final class DecoderBuffers {
+        final byte[] block = new byte[BLOCK_SIZE];
+        final byte[] compressed = new byte[LZ4.maxCompressedLength(BLOCK_SIZE)];
+    }
+}
@@ -128,6 +128,9 @@ public final class IndexScopedSettings extends AbstractScopedSettings {
             IndexSettings.INDEX_CHECK_ON_STARTUP,
             IndexSettings.MAX_REFRESH_LISTENERS_PER_SHARD,
             IndexSettings.MAX_SLICES_PER_SCROLL,
+            IndexSettings.SEARCH_CONCURRENT_SLICES_SETTING,
+            IndexSettings.BULK_PARSE_CONCURRENCY_SETTING,
+            IndexSettings.BLOOM_FILTER_ID_FIELD_ENABLED_SETTING,
             IndexSettings.MAX_REGEX_LENGTH_SETTING,
             ShardsLimitAllocationDecider.INDEX_TOTAL_SHARDS_PER_NODE_SETTING,
             IndexSettings.INDEX_GC_DELETES_SETTING,
@@ -135,6 +138,7 @@ public final class IndexScopedSettings extends AbstractScopedSettings {
             IndexSettings.INDEX_SOFT_DELETES_RETENTION_OPERATIONS_SETTING,
             IndexSettings.INDEX_SOFT_DELETES_RETENTION_LEASE_PERIOD_SETTING,
             IndicesRequestCache.INDEX_CACHE_REQUEST_ENABLED_SETTING,
+            IndicesRequestCache.INDEX_CACHE_REQUEST_INCREMENTAL_SETTING,
             UnassignedInfo.INDEX_DELAYED_NODE_LEFT_TIMEOUT_SETTING,
             EnableAllocationDecider.INDEX_ROUTING_REBALANCE_ENABLE_SETTING,
             EnableAllocationDecider.INDEX_ROUTING_ALLOCATION_ENABLE_SETTING,
@@ -145,6 +149,7 @@ public final class IndexScopedSettings extends AbstractScopedSettings {
             IndexSettings.INDEX_TRANSLOG_RETENTION_SIZE_SETTING,
             IndexSettings.INDEX_SEARCH_IDLE_AFTER,
             IndexSettings.INDEX_SEARCH_THROTTLED,
+            IndexSettings.INDEX_INCREMENTAL_GLOBAL_ORDINALS_SETTING,
             IndexFieldDataService.INDEX_FIELDDATA_CACHE_KEY,
             FieldMapper.IGNORE_MALFORMED_SETTING,
             FieldMapper.COERCE_SETTING,
@@ -21,6 +21,7 @@ package org.elasticsearch.common.util;
 
 import org.apache.lucene.util.ArrayUtil;
 import org.apache.lucene.util.BytesRef;
+import org.apache.lucene.util.BytesRefBuilder;
 import org.apache.lucene.util.RamUsageEstimator;
 
 import java.util.Arrays;
@@ -66,6 +67,11 @@ final class BigByteArray extends AbstractBigArray implements ByteArray {
 
     @Override
     public boolean get(long index, int len, BytesRef ref) {
+        return get(index, len, ref, null);
+    }
+
+    @Override
+    public boolean get(long index, int len, BytesRef ref, BytesRefBuilder scratch) {
         assert index + len <= size();
         int pageIndex = pageIndex(index);
         final int indexInPage = indexInPage(index);
@@ -75,7 +81,12 @@ final class BigByteArray extends AbstractBigArray implements ByteArray {
             ref.length = len;
             return false;
         } else {
-            ref.bytes = new byte[len];
+            if (scratch == null) {
+                ref.bytes = new byte[len];
+            } else {
+                scratch.grow(len);
+                ref.bytes = scratch.bytes();
+            }
             ref.offset = 0;
             ref.length = pageSize() - indexInPage;
             System.arraycopy(pages[pageIndex], indexInPage, ref.bytes, 0, ref.length);
@@ -20,6 +20,7 @@
 package org.elasticsearch.common.util;
 
 import org.apache.lucene.util.BytesRef;
+import org.apache.lucene.util.BytesRefBuilder;
 
 /**
  * Abstraction of an array of byte values.
@@ -43,6 +44,17 @@ public interface ByteArray extends BigArray {
      */
     boolean get(long index, int len, BytesRef ref);
 
+    /**
+     * Get a reference to a slice, like {@link #get(long, int, BytesRef)}, except that bytes which need to be materialized may be
+     * copied into <code>scratch</code> instead of a newly allocated byte[]. The reference is then only valid until
+     * <code>scratch</code> is reused.
+     *
+     * @return <code>true</code> when a byte[] was materialized, <code>false</code> otherwise.
+     */
+    default boolean get(long index, int len, BytesRef ref, BytesRefBuilder scratch) {
+        return get(index, len, ref);
+    }
+
     /**
      * Bulk set.
      */
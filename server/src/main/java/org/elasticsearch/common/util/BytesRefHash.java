@@ -20,7 +20,9 @@
 package org.elasticsearch.common.util;
 
 import com.carrotsearch.hppc.BitMixer;
+import org.apache.lucene.util.Accountable;
 import org.apache.lucene.util.BytesRef;
+import org.apache.lucene.util.BytesRefBuilder;
 import org.elasticsearch.common.lease.Releasable;
 import org.elasticsearch.common.lease.Releasables;
 
@@ -31,12 +33,13 @@ import org.elasticsearch.common.lease.Releasables;
  *  re-hashing and capacity is always a multiple of 2 for faster identification of buckets.
  *  This class is not thread-safe.
  */
-public final class BytesRefHash extends AbstractHash {
+public final class BytesRefHash extends AbstractHash implements Accountable {
 
     private LongArray startOffsets;
     private ByteArray bytes;
     private IntArray hashes; // we cache hashes for faster re-hashing
     private final BytesRef spare;
+    private final BytesRefBuilder scratch; // backs spare when a key can't be referenced in place
 
     // Constructor with configurable capacity and default maximum load factor.
     public BytesRefHash(long capacity, BigArrays bigArrays) {
@@ -51,6 +54,7 @@ public final class BytesRefHash extends AbstractHash {
         bytes = bigArrays.newByteArray(capacity * 3, false);
         hashes = bigArrays.newIntArray(capacity, false);
         spare = new BytesRef();
+        scratch = new BytesRefBuilder();
     }
 
     // BytesRef has a weak hashCode function so we try to improve it by rehashing using Murmur3
@@ -70,10 +74,34 @@ public final class BytesRefHash extends AbstractHash {
         return dest;
     }
 
+    /**
+     * Read the key at <code>id</code> into {@link #spare}, which is only valid until the next call.
+     */
+    private BytesRef spare(long id) {
+        final long startOffset = startOffsets.get(id);
+        final int length = (int) (startOffsets.get(id + 1) - startOffset);
+        bytes.get(startOffset, length, spare, scratch);
+        return spare;
+    }
+
     /**
      * Get the id associated with <code>key</code>
      */
     public long find(BytesRef key, int code) {
+        final long slot = slot(rehash(code), mask);
+        for (long index = slot; ; index = nextSlot(index, mask)) {
+            final long id = id(index);
+            if (id == -1L || key.bytesEquals(spare(id))) {
+                return id;
+            }
+        }
+    }
+
+    /**
+     * Same as {@link #find(BytesRef, int)}, but reads keys into the given {@link BytesRef} rather than into a shared one, so that
+     * several threads may look up keys at the same time as long as none of them modifies the hash meanwhile.
+     */
+    public long find(BytesRef key, int code, BytesRef spare) {
         final long slot = slot(rehash(code), mask);
         for (long index = slot; ; index = nextSlot(index, mask)) {
             final long id = id(index);
@@ -99,7 +127,7 @@ public final class BytesRefHash extends AbstractHash {
                 append(id, key, code);
                 ++size;
                 return id;
-            } else if (key.bytesEquals(get(curId, spare))) {
+            } else if (key.bytesEquals(spare(curId))) {
                 return -1 - curId;
             }
         }
@@ -117,8 +145,7 @@ public final class BytesRefHash extends AbstractHash {
     }
 
     private boolean assertConsistent(long id, int code) {
-        get(id, spare);
-        return rehash(spare.hashCode()) == code;
+        return rehash(spare(id).hashCode()) == code;
     }
 
     private void reset(int code, long id) {
@@ -159,6 +186,11 @@ public final class BytesRefHash extends AbstractHash {
         reset(code, id);
     }
 
+    @Override
+    public long ramBytesUsed() {
+        return ids.ramBytesUsed() + startOffsets.ramBytesUsed() + bytes.ramBytesUsed() + hashes.ramBytesUsed();
+    }
+
     @Override
     public void close() {
         try (Releasable releasable = Releasables.wrap(bytes, hashes, startOffsets)) {
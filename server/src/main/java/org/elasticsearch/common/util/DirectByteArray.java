@@ -0,0 +1,122 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.elasticsearch.common.util;
+
+import org.apache.lucene.util.BytesRef;
+import org.apache.lucene.util.BytesRefBuilder;
+
+import java.nio.ByteBuffer;
+
+import static org.elasticsearch.common.util.PageCacheRecycler.BYTE_PAGE_SIZE;
+
+/**
+ * A {@link ByteArray} whose values are stored in direct pages, see {@link AbstractDirectBigArray}. Since there is no
+ * backing array that could be shared, {@link #get(long, int, BytesRef)} always copies. Callers that read many values should use
+ * {@link #get(long, int, BytesRef, BytesRefBuilder)} so that copies go to a reused buffer.
+ */
+final class DirectByteArray extends AbstractDirectBigArray implements ByteArray {
+
+    DirectByteArray(long size, BigArrays bigArrays, boolean clearOnResize) {
+        super(BYTE_PAGE_SIZE, size, bigArrays, clearOnResize);
+    }
+
+    @Override
+    public byte get(long index) {
+        return pages[pageIndex(index)].get(indexInPage(index));
+    }
+
+    @Override
+    public byte set(long index, byte value) {
+        final ByteBuffer page = pages[pageIndex(index)];
+        final int indexInPage = indexInPage(index);
+        final byte ret = page.get(indexInPage);
+        page.put(indexInPage, value);
+        return ret;
+    }
+
+    @Override
+    public boolean get(long index, int len, BytesRef ref) {
+        ref.bytes = new byte[len];
+        ref.offset = 0;
+        ref.length = len;
+        copy(index, len, ref.bytes);
+        return true;
+    }
+
+    @Override
+    public boolean get(long index, int len, BytesRef ref, BytesRefBuilder scratch) {
+        scratch.grow(len);
+        ref.bytes = scratch.bytes();
+        ref.offset = 0;
+        ref.length = len;
+        copy(index, len, ref.bytes);
+        return true;
+    }
+
+    private void copy(long index, int len, byte[] dest) {
+        assert index + len <= size();
+        int pageIndex = pageIndex(index);
+        int indexInPage = indexInPage(index);
+        int copied = 0;
+        while (copied < len) {
+            final int copyLength = Math.min(pageSize() - indexInPage, len - copied);
+            final ByteBuffer page = pages[pageIndex].duplicate();
+            page.position(indexInPage);
+            page.get(dest, copied, copyLength);
+            copied += copyLength;
+            ++pageIndex;
+            indexInPage = 0;
+        }
+    }
+
+    @Override
+    public void set(long index, byte[] buf, int offset, int len) {
+        assert index + len <= size();
+        int pageIndex = pageIndex(index);
+        int indexInPage = indexInPage(index);
+        int copied = 0;
+        while (copied < len) {
+            final int copyLength = Math.min(pageSize() - indexInPage, len - copied);
+            final ByteBuffer page = pages[pageIndex].duplicate();
+            page.position(indexInPage);
+            page.put(buf, offset + copied, copyLength);
+            copied += copyLength;
+            ++pageIndex;
+            indexInPage = 0;
+        }
+    }
+
+    @Override
+    public void fill(long fromIndex, long toIndex, byte value) {
+        if (fromIndex > toIndex) {
+            throw new IllegalArgumentException();
+        }
+        for (long i = fromIndex; i < toIndex; ++i) {
+            pages[pageIndex(i)].put(indexInPage(i), value);
+        }
+    }
+
+    @Override
+    protected int numBytesPerElement() {
+        return 1;
+    }
+
+}
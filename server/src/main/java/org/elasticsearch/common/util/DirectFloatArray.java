@@ -0,0 +1,78 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.elasticsearch.common.util;
+
+import java.nio.ByteBuffer;
+
+import static org.elasticsearch.common.util.PageCacheRecycler.INT_PAGE_SIZE;
+
+/**
+ * A {@link FloatArray} whose values are stored in direct pages, see {@link AbstractDirectBigArray}.
+ */
+final class DirectFloatArray extends AbstractDirectBigArray implements FloatArray {
+
+    DirectFloatArray(long size, BigArrays bigArrays, boolean clearOnResize) {
+        super(INT_PAGE_SIZE, size, bigArrays, clearOnResize);
+    }
+
+    private static int offset(int indexInPage) {
+        return indexInPage << 2;
+    }
+
+    @Override
+    public float get(long index) {
+        return pages[pageIndex(index)].getFloat(offset(indexInPage(index)));
+    }
+
+    @Override
+    public float set(long index, float value) {
+        final ByteBuffer page = pages[pageIndex(index)];
+        final int offset = offset(indexInPage(index));
+        final float ret = page.getFloat(offset);
+        page.putFloat(offset, value);
+        return ret;
+    }
+
+    @Override
+    public float increment(long index, float inc) {
+        final ByteBuffer page = pages[pageIndex(index)];
+        final int offset = offset(indexInPage(index));
+        final float value = page.getFloat(offset) + inc;
+        page.putFloat(offset, value);
+        return value;
+    }
+
+    @Override
+    public void fill(long fromIndex, long toIndex, float value) {
+        if (fromIndex > toIndex) {
+            throw new IllegalArgumentException();
+        }
+        for (long i = fromIndex; i < toIndex; ++i) {
+            pages[pageIndex(i)].putFloat(offset(indexInPage(i)), value);
+        }
+    }
+
+    @Override
+    protected int numBytesPerElement() {
+        return Float.BYTES;
+    }
+
+}
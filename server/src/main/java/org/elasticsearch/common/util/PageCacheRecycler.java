@@ -28,6 +28,8 @@ import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.common.unit.ByteSizeValue;
 import org.elasticsearch.common.util.concurrent.EsExecutors;
 
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 import java.util.Arrays;
 import java.util.Locale;
 
@@ -52,6 +54,11 @@ public class PageCacheRecycler {
     // object pages are less useful to us so we give them a lower weight by default
     public static final Setting<Double> WEIGHT_OBJECTS_SETTING  =
         Setting.doubleSetting("cache.recycler.page.weight.objects", 0.1d, 0d, Property.NodeScope);
+    public static final Setting<Allocator> ALLOCATOR_SETTING =
+        new Setting<>("cache.recycler.page.allocator", Allocator.HEAP.name(), Allocator::parse, Property.NodeScope);
+    // direct pages are only pooled up to this limit, pages that are released while the pool is full are left to the GC
+    public static final Setting<ByteSizeValue> LIMIT_DIRECT_SETTING  =
+        Setting.memorySizeSetting("cache.recycler.page.limit.direct", "10%", Property.NodeScope);
 
     /** Page size in bytes: 16KB */
     public static final int PAGE_SIZE_IN_BYTES = 1 << 14;
@@ -64,6 +71,10 @@ public class PageCacheRecycler {
     private final Recycler<int[]> intPage;
     private final Recycler<long[]> longPage;
     private final Recycler<Object[]> objectPage;
+    private final Allocator allocator;
+    private final Recycler<ByteBuffer> directPage;
+
+    private static final ByteBuffer ZERO_PAGE = ByteBuffer.allocate(PAGE_SIZE_IN_BYTES);
 
     public static final PageCacheRecycler NON_RECYCLING_INSTANCE;
 
@@ -146,6 +157,33 @@ public class PageCacheRecycler {
         });
 
         assert PAGE_SIZE_IN_BYTES * (maxBytePageCount + maxIntPageCount + maxLongPageCount + maxObjectPageCount) <= limit;
+
+        allocator = ALLOCATOR_SETTING.get(settings);
+        if (allocator == Allocator.DIRECT) {
+            // Direct pages are not reclaimed until their ByteBuffer gets garbage collected, so we keep released
+            // pages in a pool of their own in order to reuse them deterministically rather than allocating new ones.
+            final long directLimit = LIMIT_DIRECT_SETTING.get(settings).getBytes();
+            final int maxDirectPageCount = (int) Math.min(Integer.MAX_VALUE, directLimit / PAGE_SIZE_IN_BYTES);
+            directPage = build(type, maxDirectPageCount, availableProcessors, new AbstractRecyclerC<ByteBuffer>() {
+                @Override
+                public ByteBuffer newInstance() {
+                    return ByteBuffer.allocateDirect(PAGE_SIZE_IN_BYTES).order(ByteOrder.nativeOrder());
+                }
+                @Override
+                public void recycle(ByteBuffer value) {
+                    // nothing to do
+                }
+            });
+        } else {
+            directPage = null;
+        }
+    }
+
+    /**
+     * Whether big arrays should be backed by {@link #directPage(boolean) direct pages} rather than pages on the java heap.
+     */
+    public boolean allocatesDirectPages() {
+        return allocator == Allocator.DIRECT;
     }
 
     public Recycler.V<byte[]> bytePage(boolean clear) {
@@ -172,6 +210,24 @@ public class PageCacheRecycler {
         return v;
     }
 
+    /**
+     * Obtain a direct {@link ByteBuffer} of {@link #PAGE_SIZE_IN_BYTES} bytes in native byte order. Pages must be accessed
+     * with absolute reads and writes since they may be shared with other pages through the recycler.
+     */
+    public Recycler.V<ByteBuffer> directPage(boolean clear) {
+        if (directPage == null) {
+            throw new IllegalStateException("direct pages are only available with [" + ALLOCATOR_SETTING.getKey() + "] set to ["
+                + Allocator.DIRECT.name().toLowerCase(Locale.ROOT) + "]");
+        }
+        final Recycler.V<ByteBuffer> v = directPage.obtain();
+        if (v.isRecycled() && clear) {
+            final ByteBuffer page = v.v().duplicate();
+            page.clear();
+            page.put(ZERO_PAGE.duplicate());
+        }
+        return v;
+    }
+
     public Recycler.V<Object[]> objectPage() {
         // object pages are cleared on release anyway
         return objectPage.obtain();
@@ -217,4 +273,18 @@ public class PageCacheRecycler {
 
         abstract <T> Recycler<T> build(Recycler.C<T> c, int limit, int availableProcessors);
     }
+
+    /** Where the pages that back big arrays are allocated. */
+    public enum Allocator {
+        HEAP,
+        DIRECT;
+
+        public static Allocator parse(String allocator) {
+            try {
+                return Allocator.valueOf(allocator.toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("no allocator support [" + allocator + "]");
+            }
+        }
+    }
 }
@@ -25,11 +25,15 @@ import org.apache.lucene.util.automaton.CharacterRunAutomaton;
 import org.apache.lucene.util.automaton.Operations;
 import org.elasticsearch.ElasticsearchParseException;
 import org.elasticsearch.common.Booleans;
+import org.elasticsearch.common.CheckedBiConsumer;
 import org.elasticsearch.common.Numbers;
 import org.elasticsearch.common.Strings;
 import org.elasticsearch.common.regex.Regex;
 import org.elasticsearch.common.unit.TimeValue;
+import org.elasticsearch.common.xcontent.XContentBuilder;
+import org.elasticsearch.common.xcontent.XContentParser;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
@@ -167,16 +171,60 @@ public class XContentMapValues {
      */
     public static Function<Map<String, ?>, Map<String, Object>> filter(String[] includes, String[] excludes) {
         CharacterRunAutomaton matchAllAutomaton = new CharacterRunAutomaton(Automata.makeAnyString());
+        CharacterRunAutomaton include = includeAutomaton(includes, matchAllAutomaton);
+        CharacterRunAutomaton exclude = excludeAutomaton(excludes);
 
-        CharacterRunAutomaton include;
+        // NOTE: We cannot use Operations.minus because of the special case that
+        // we want all sub properties to match as soon as an object matches
+
+        return (map) -> filter(map,
+            include, 0,
+            exclude, 0,
+            matchAllAutomaton);
+    }
+
+    /**
+     * Returns a function that copies the object the parser is positioned on (or positioned before) to the
+     * builder, keeping only the properties that match the given include and exclude rules. This applies the
+     * same rules as {@link #filter(String[], String[])} but works directly on the tokens of the parser, so
+     * the document never needs to be materialized as a map: properties that are excluded are skipped without
+     * being parsed, and properties that are fully included are copied as they are. Unlike
+     * {@link #filter(String[], String[])}, properties keep the order they have in the source document.
+     * @see #filter(Map, String[], String[]) for details
+     */
+    public static CheckedBiConsumer<XContentParser, XContentBuilder, IOException> filterXContent(String[] includes,
+                                                                                                 String[] excludes) {
+        CharacterRunAutomaton matchAllAutomaton = new CharacterRunAutomaton(Automata.makeAnyString());
+        CharacterRunAutomaton include = includeAutomaton(includes, matchAllAutomaton);
+        CharacterRunAutomaton exclude = excludeAutomaton(excludes);
+
+        return (parser, builder) -> {
+            XContentParser.Token token = parser.currentToken();
+            if (token == null) {
+                token = parser.nextToken();
+            }
+            if (token != XContentParser.Token.START_OBJECT) {
+                throw new ElasticsearchParseException("expected an object but got [{}]", token);
+            }
+            builder.startObject();
+            filter(parser, builder, PendingContainer.ROOT,
+                include, 0,
+                exclude, 0,
+                matchAllAutomaton);
+            builder.endObject();
+        };
+    }
+
+    private static CharacterRunAutomaton includeAutomaton(String[] includes, CharacterRunAutomaton matchAllAutomaton) {
         if (includes == null || includes.length == 0) {
-            include = matchAllAutomaton;
-        } else {
-            Automaton includeA = Regex.simpleMatchToAutomaton(includes);
-            includeA = makeMatchDotsInFieldNames(includeA);
-            include = new CharacterRunAutomaton(includeA);
+            return matchAllAutomaton;
         }
+        Automaton includeA = Regex.simpleMatchToAutomaton(includes);
+        includeA = makeMatchDotsInFieldNames(includeA);
+        return new CharacterRunAutomaton(includeA);
+    }
 
+    private static CharacterRunAutomaton excludeAutomaton(String[] excludes) {
         Automaton excludeA;
         if (excludes == null || excludes.length == 0) {
             excludeA = Automata.makeEmpty();
@@ -184,15 +232,7 @@ public class XContentMapValues {
             excludeA = Regex.simpleMatchToAutomaton(excludes);
             excludeA = makeMatchDotsInFieldNames(excludeA);
         }
-        CharacterRunAutomaton exclude = new CharacterRunAutomaton(excludeA);
-
-        // NOTE: We cannot use Operations.minus because of the special case that
-        // we want all sub properties to match as soon as an object matches
-
-        return (map) -> filter(map,
-            include, 0,
-            exclude, 0,
-            matchAllAutomaton);
+        return new CharacterRunAutomaton(excludeA);
     }
 
     /** Make matches on objects also match dots in field names.
@@ -317,6 +357,183 @@ public class XContentMapValues {
         return filtered;
     }
 
+    /**
+     * Streaming counterpart of {@link #filter(Map, CharacterRunAutomaton, int, CharacterRunAutomaton, int, CharacterRunAutomaton)}.
+     * The parser must be positioned on the start of the object, and is positioned on its end when this method returns.
+     */
+    private static void filter(XContentParser parser, XContentBuilder builder, PendingContainer container,
+            CharacterRunAutomaton includeAutomaton, int initialIncludeState,
+            CharacterRunAutomaton excludeAutomaton, int initialExcludeState,
+            CharacterRunAutomaton matchAllAutomaton) throws IOException {
+        XContentParser.Token token;
+        while ((token = parser.nextToken()) != XContentParser.Token.END_OBJECT) {
+            assert token == XContentParser.Token.FIELD_NAME : token;
+            String key = parser.currentName();
+            token = parser.nextToken();
+
+            int includeState = step(includeAutomaton, key, initialIncludeState);
+            if (includeState == -1) {
+                parser.skipChildren();
+                continue;
+            }
+
+            int excludeState = step(excludeAutomaton, key, initialExcludeState);
+            if (excludeState != -1 && excludeAutomaton.isAccept(excludeState)) {
+                parser.skipChildren();
+                continue;
+            }
+
+            CharacterRunAutomaton subIncludeAutomaton = includeAutomaton;
+            int subIncludeState = includeState;
+            if (includeAutomaton.isAccept(includeState)) {
+                if (excludeState == -1 || excludeAutomaton.step(excludeState, '.') == -1) {
+                    // the exclude has no chances to match inner properties
+                    container.write(builder);
+                    builder.field(key);
+                    builder.copyCurrentStructure(parser);
+                    continue;
+                } else {
+                    // the object matched, so consider that the include matches every inner property
+                    // we only care about excludes now
+                    subIncludeAutomaton = matchAllAutomaton;
+                    subIncludeState = 0;
+                }
+            }
+
+            if (token == XContentParser.Token.START_OBJECT) {
+
+                subIncludeState = subIncludeAutomaton.step(subIncludeState, '.');
+                if (subIncludeState == -1) {
+                    parser.skipChildren();
+                    continue;
+                }
+                if (excludeState != -1) {
+                    excludeState = excludeAutomaton.step(excludeState, '.');
+                }
+
+                PendingContainer object = new PendingContainer(container, key, true);
+                if (includeAutomaton.isAccept(includeState)) {
+                    // the object itself matched so it is kept even if none of its properties are
+                    object.write(builder);
+                }
+                filter(parser, builder, object,
+                        subIncludeAutomaton, subIncludeState, excludeAutomaton, excludeState, matchAllAutomaton);
+                object.close(builder);
+
+            } else if (token == XContentParser.Token.START_ARRAY) {
+
+                PendingContainer array = new PendingContainer(container, key, false);
+                filterArray(parser, builder, array,
+                        subIncludeAutomaton, subIncludeState, excludeAutomaton, excludeState, matchAllAutomaton);
+                array.close(builder);
+
+            } else {
+
+                // leaf property
+                if (includeAutomaton.isAccept(includeState)
+                        && (excludeState == -1 || excludeAutomaton.isAccept(excludeState) == false)) {
+                    container.write(builder);
+                    builder.field(key);
+                    builder.copyCurrentStructure(parser);
+                }
+
+            }
+        }
+    }
+
+    /**
+     * Streaming counterpart of {@link #filter(Iterable, CharacterRunAutomaton, int, CharacterRunAutomaton, int, CharacterRunAutomaton)}.
+     * The parser must be positioned on the start of the array, and is positioned on its end when this method returns.
+     */
+    private static void filterArray(XContentParser parser, XContentBuilder builder, PendingContainer array,
+            CharacterRunAutomaton includeAutomaton, int initialIncludeState,
+            CharacterRunAutomaton excludeAutomaton, int initialExcludeState,
+            CharacterRunAutomaton matchAllAutomaton) throws IOException {
+        boolean isInclude = includeAutomaton.isAccept(initialIncludeState);
+        XContentParser.Token token;
+        while ((token = parser.nextToken()) != XContentParser.Token.END_ARRAY) {
+            if (token == XContentParser.Token.START_OBJECT) {
+                int includeState = includeAutomaton.step(initialIncludeState, '.');
+                if (includeState == -1) {
+                    parser.skipChildren();
+                    continue;
+                }
+                int excludeState = initialExcludeState;
+                if (excludeState != -1) {
+                    excludeState = excludeAutomaton.step(excludeState, '.');
+                }
+                PendingContainer object = new PendingContainer(array, null, true);
+                filter(parser, builder, object,
+                        includeAutomaton, includeState, excludeAutomaton, excludeState, matchAllAutomaton);
+                object.close(builder);
+            } else if (token == XContentParser.Token.START_ARRAY) {
+                PendingContainer nested = new PendingContainer(array, null, false);
+                filterArray(parser, builder, nested,
+                        includeAutomaton, initialIncludeState, excludeAutomaton, initialExcludeState, matchAllAutomaton);
+                nested.close(builder);
+            } else if (isInclude) {
+                // #22557: only accept this array value if the key we are on is accepted:
+                array.write(builder);
+                builder.copyCurrentStructure(parser);
+            }
+        }
+    }
+
+    /**
+     * An object or array whose start is only written to the builder once it is known to hold at least one
+     * value, so that objects and arrays that end up empty after filtering are omitted like they are when
+     * filtering maps.
+     */
+    private static final class PendingContainer {
+
+        /** The root object, which the caller writes up-front. */
+        static final PendingContainer ROOT = new PendingContainer(null, null, true, true);
+
+        private final PendingContainer parent;
+        private final String fieldName;
+        private final boolean object;
+        private boolean written;
+
+        PendingContainer(PendingContainer parent, String fieldName, boolean object) {
+            this(parent, fieldName, object, false);
+        }
+
+        private PendingContainer(PendingContainer parent, String fieldName, boolean object, boolean written) {
+            this.parent = parent;
+            this.fieldName = fieldName;
+            this.object = object;
+            this.written = written;
+        }
+
+        /** Write the start of this container, and of its enclosing containers, if not done already. */
+        void write(XContentBuilder builder) throws IOException {
+            if (written) {
+                return;
+            }
+            parent.write(builder);
+            if (fieldName != null) {
+                builder.field(fieldName);
+            }
+            if (object) {
+                builder.startObject();
+            } else {
+                builder.startArray();
+            }
+            written = true;
+        }
+
+        /** Write the end of this container if its start has been written. */
+        void close(XContentBuilder builder) throws IOException {
+            if (written) {
+                if (object) {
+                    builder.endObject();
+                } else {
+                    builder.endArray();
+                }
+            }
+        }
+    }
+
     public static boolean isObject(Object node) {
         return node instanceof Map;
     }
@@ -0,0 +1,66 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.http;
+
+import org.elasticsearch.common.bytes.BytesReference;
+
+/**
+ * The body of an http request that is handed to the rest layer chunk by chunk as it is received, rather than after it has been
+ * aggregated in full. Chunks are only read from the network when they are requested through {@link #next()}, which allows the
+ * consumer of the stream to apply backpressure to the client.
+ */
+public interface HttpBodyStream {
+
+    /**
+     * Receives the chunks of a {@link HttpBodyStream}.
+     */
+    interface ChunkHandler {
+
+        /**
+         * Called with the next chunk of the body. The chunk is only valid for the duration of this call, any bytes that need to be
+         * retained must be copied.
+         *
+         * @param chunk  the next chunk of the body, possibly empty
+         * @param isLast whether this is the last chunk of the body
+         */
+        void onChunk(BytesReference chunk, boolean isLast);
+
+        /**
+         * Called if the body could not be received in full, for instance because the channel was closed.
+         */
+        void onFailure(Exception e);
+    }
+
+    /**
+     * Sets the handler that receives the chunks of this stream. Must be called before the first call to {@link #next()}.
+     */
+    void setHandler(ChunkHandler handler);
+
+    /**
+     * Requests the next chunk of the body. The chunk is delivered asynchronously to the {@link ChunkHandler}, never from within this
+     * call. No further chunk is delivered until this method is called again.
+     */
+    void next();
+
+    /**
+     * Discards the remainder of the body. Implementations should be idempotent.
+     */
+    void close();
+}
@@ -52,6 +52,17 @@ public interface HttpRequest {
 
     BytesReference content();
 
+    /**
+     * Returns the body of this request as a stream of chunks if it was not aggregated before the request was dispatched, which is
+     * only the case for requests to handlers that {@link org.elasticsearch.rest.RestHandler#supportsStreamingContent() support it}.
+     * The {@link #content()} of such a request is empty.
+     *
+     * @return the body stream, or {@code null} if the body was aggregated
+     */
+    default HttpBodyStream contentStream() {
+        return null;
+    }
+
     /**
      * Get all of the headers and values associated with the headers. Modifications of this map are not supported.
      */
@@ -60,5 +60,17 @@ public interface HttpServerTransport extends LifecycleComponent {
          */
         void dispatchBadRequest(RestChannel channel, ThreadContext threadContext, Throwable cause);
 
+        /**
+         * Whether the body of a request with the given method and uri may be streamed to the handler rather than aggregated before
+         * the request is dispatched.
+         *
+         * @param method the method of the request
+         * @param uri    the uri of the request, including the query string
+         * @return true iff the request would be dispatched to a handler that supports streaming content
+         */
+        default boolean supportsStreamingContent(RestRequest.Method method, String uri) {
+            return false;
+        }
+
     }
 }
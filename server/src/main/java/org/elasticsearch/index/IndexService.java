@@ -515,6 +515,10 @@ public class IndexService extends AbstractIndexComponent implements IndicesClust
                         // ignore
                     }
                 }
+                if (indexFieldData != null) {
+                    // the shard is closed or relocated, drop what the fielddata caches retained for it
+                    indexFieldData.clear(sId);
+                }
                 // call this before we close the store, so we can release resources for it
                 listener.afterIndexShardClosed(sId, indexShard, indexSettings);
             }
@@ -283,6 +283,27 @@ public final class IndexSettings {
     public static final Setting<Integer> MAX_SLICES_PER_SCROLL = Setting.intSetting("index.max_slices_per_scroll",
         1024, 1, Property.Dynamic, Property.IndexScope);
 
+    /**
+     * The number of slices the segments of a shard are split into when a search is executed concurrently on the
+     * {@code search_worker} thread pool. Defaults to {@code 1} which searches all segments sequentially on the search thread.
+     */
+    public static final Setting<Integer> SEARCH_CONCURRENT_SLICES_SETTING = Setting.intSetting("index.search.concurrent_slices",
+        1, 1, 256, Property.Dynamic, Property.IndexScope);
+
+    /**
+     * The number of threads that parse the documents of a shard-level bulk request on the {@code write} thread pool before its
+     * operations are applied in order. Defaults to {@code 1} which parses each document right before its operation is applied.
+     */
+    public static final Setting<Integer> BULK_PARSE_CONCURRENCY_SETTING = Setting.intSetting("index.bulk.parse_concurrency",
+        1, 1, 64, Property.Dynamic, Property.IndexScope);
+
+    /**
+     * Whether segments write a bloom filter for the terms of the {@code _id} field, which lets lookups of ids skip segments that
+     * don't contain the id without seeking their terms dictionary. Applies to segments written after it is changed.
+     */
+    public static final Setting<Boolean> BLOOM_FILTER_ID_FIELD_ENABLED_SETTING =
+        Setting.boolSetting("index.bloom_filter_for_id_field.enabled", false, Property.IndexScope);
+
     /**
      * The maximum length of regex string allowed in a regexp query.
      */
@@ -309,6 +330,15 @@ public final class IndexSettings {
     public static final Setting<Boolean> INDEX_SEARCH_THROTTLED = Setting.boolSetting("index.search.throttled", false,
         Property.IndexScope, Property.PrivateIndex, Property.Dynamic);
 
+    /**
+     * Whether global ordinals of a shard are built by extending the global ordinals of the previous reader of that shard with the
+     * terms of the segments that were added since, instead of merging the terms of all segments again on every refresh. Incrementally
+     * built global ordinals are not backed by a Lucene {@link org.apache.lucene.index.OrdinalMap}, which is required by parent/child
+     * joins, so this is disabled by default.
+     */
+    public static final Setting<Boolean> INDEX_INCREMENTAL_GLOBAL_ORDINALS_SETTING =
+        Setting.boolSetting("index.global_ordinals.incremental", false, Property.IndexScope, Property.Dynamic);
+
     /**
      * Determines a balance between file-based and operations-based peer recoveries. The number of operations that will be used in an
      * operations-based peer recovery is limited to this proportion of the total number of documents in the shard (including deleted
@@ -348,6 +378,7 @@ public final class IndexSettings {
     private final IndexScopedSettings scopedSettings;
     private long gcDeletesInMillis = DEFAULT_GC_DELETES.millis();
     private final boolean softDeleteEnabled;
+    private final boolean bloomFilterForIdFieldEnabled;
     private volatile long softDeleteRetentionOperations;
 
     private volatile long retentionLeaseMillis;
@@ -380,6 +411,7 @@ public final class IndexSettings {
     private volatile String defaultPipeline;
     private volatile String requiredPipeline;
     private volatile boolean searchThrottled;
+    private volatile boolean incrementalGlobalOrdinals;
 
     /**
      * The maximum number of refresh listeners allows on this shard.
@@ -389,6 +421,8 @@ public final class IndexSettings {
      * The maximum number of slices allowed in a scroll request.
      */
     private volatile int maxSlicesPerScroll;
+    private volatile int searchConcurrentSlices;
+    private volatile int bulkParseConcurrency;
 
     /**
      * The maximum length of regex string allowed in a regexp query.
@@ -464,6 +498,7 @@ public final class IndexSettings {
         numberOfShards = settings.getAsInt(IndexMetaData.SETTING_NUMBER_OF_SHARDS, null);
 
         this.searchThrottled = INDEX_SEARCH_THROTTLED.get(settings);
+        this.incrementalGlobalOrdinals = INDEX_INCREMENTAL_GLOBAL_ORDINALS_SETTING.get(settings);
         this.queryStringLenient = QUERY_STRING_LENIENT_SETTING.get(settings);
         this.queryStringAnalyzeWildcard = QUERY_STRING_ANALYZE_WILDCARD.get(nodeSettings);
         this.queryStringAllowLeadingWildcard = QUERY_STRING_ALLOW_LEADING_WILDCARD.get(nodeSettings);
@@ -492,6 +527,9 @@ public final class IndexSettings {
         maxShingleDiff = scopedSettings.get(MAX_SHINGLE_DIFF_SETTING);
         maxRefreshListeners = scopedSettings.get(MAX_REFRESH_LISTENERS_PER_SHARD);
         maxSlicesPerScroll = scopedSettings.get(MAX_SLICES_PER_SCROLL);
+        searchConcurrentSlices = scopedSettings.get(SEARCH_CONCURRENT_SLICES_SETTING);
+        bulkParseConcurrency = scopedSettings.get(BULK_PARSE_CONCURRENCY_SETTING);
+        bloomFilterForIdFieldEnabled = scopedSettings.get(BLOOM_FILTER_ID_FIELD_ENABLED_SETTING);
         maxAnalyzedOffset = scopedSettings.get(MAX_ANALYZED_OFFSET_SETTING);
         maxTermsCount = scopedSettings.get(MAX_TERMS_COUNT_SETTING);
         maxRegexLength = scopedSettings.get(MAX_REGEX_LENGTH_SETTING);
@@ -541,6 +579,8 @@ public final class IndexSettings {
         scopedSettings.addSettingsUpdateConsumer(MAX_ANALYZED_OFFSET_SETTING, this::setHighlightMaxAnalyzedOffset);
         scopedSettings.addSettingsUpdateConsumer(MAX_TERMS_COUNT_SETTING, this::setMaxTermsCount);
         scopedSettings.addSettingsUpdateConsumer(MAX_SLICES_PER_SCROLL, this::setMaxSlicesPerScroll);
+        scopedSettings.addSettingsUpdateConsumer(SEARCH_CONCURRENT_SLICES_SETTING, this::setSearchConcurrentSlices);
+        scopedSettings.addSettingsUpdateConsumer(BULK_PARSE_CONCURRENCY_SETTING, this::setBulkParseConcurrency);
         scopedSettings.addSettingsUpdateConsumer(DEFAULT_FIELD_SETTING, this::setDefaultFields);
         scopedSettings.addSettingsUpdateConsumer(INDEX_SEARCH_IDLE_AFTER, this::setSearchIdleAfter);
         scopedSettings.addSettingsUpdateConsumer(MAX_REGEX_LENGTH_SETTING, this::setMaxRegexLength);
@@ -548,6 +588,7 @@ public final class IndexSettings {
         scopedSettings.addSettingsUpdateConsumer(FINAL_PIPELINE, this::setRequiredPipeline);
         scopedSettings.addSettingsUpdateConsumer(INDEX_SOFT_DELETES_RETENTION_OPERATIONS_SETTING, this::setSoftDeleteRetentionOperations);
         scopedSettings.addSettingsUpdateConsumer(INDEX_SEARCH_THROTTLED, this::setSearchThrottled);
+        scopedSettings.addSettingsUpdateConsumer(INDEX_INCREMENTAL_GLOBAL_ORDINALS_SETTING, this::setIncrementalGlobalOrdinals);
         scopedSettings.addSettingsUpdateConsumer(INDEX_SOFT_DELETES_RETENTION_LEASE_PERIOD_SETTING, this::setRetentionLeaseMillis);
     }
 
@@ -890,6 +931,35 @@ public final class IndexSettings {
         this.maxSlicesPerScroll = value;
     }
 
+    /**
+     * The default number of segment slices a search request on this index is split into.
+     */
+    public int getSearchConcurrentSlices() {
+        return searchConcurrentSlices;
+    }
+
+    private void setSearchConcurrentSlices(int value) {
+        this.searchConcurrentSlices = value;
+    }
+
+    /**
+     * The number of threads that parse the documents of a shard-level bulk request ahead of applying its operations.
+     */
+    public int getBulkParseConcurrency() {
+        return bulkParseConcurrency;
+    }
+
+    private void setBulkParseConcurrency(int value) {
+        this.bulkParseConcurrency = value;
+    }
+
+    /**
+     * Returns <code>true</code> if segments write a bloom filter for the terms of the {@code _id} field.
+     */
+    public boolean isBloomFilterForIdFieldEnabled() {
+        return bloomFilterForIdFieldEnabled;
+    }
+
     /**
      * The maximum length of regex string allowed in a regexp query.
      */
@@ -967,4 +1037,15 @@ public final class IndexSettings {
     private void setSearchThrottled(boolean searchThrottled) {
         this.searchThrottled = searchThrottled;
     }
+
+    /**
+     * Returns <code>true</code> if global ordinals should be built incrementally from the global ordinals of the previous reader.
+     */
+    public boolean isIncrementalGlobalOrdinals() {
+        return incrementalGlobalOrdinals;
+    }
+
+    private void setIncrementalGlobalOrdinals(boolean incrementalGlobalOrdinals) {
+        this.incrementalGlobalOrdinals = incrementalGlobalOrdinals;
+    }
 }
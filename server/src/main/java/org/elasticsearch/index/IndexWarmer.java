@@ -121,7 +121,7 @@ public final class IndexWarmer {
             final Map<String, MappedFieldType> warmUpGlobalOrdinals = new HashMap<>();
             for (MappedFieldType fieldType : mapperService.fieldTypes()) {
                 final String indexName = fieldType.name();
-                if (fieldType.eagerGlobalOrdinals() == false) {
+                if (fieldType.eagerGlobalFieldData() == false) {
                     continue;
                 }
                 warmUpGlobalOrdinals.put(indexName, fieldType);
@@ -0,0 +1,352 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.index.codec;
+
+import org.apache.lucene.codecs.CodecUtil;
+import org.apache.lucene.codecs.FieldsConsumer;
+import org.apache.lucene.codecs.FieldsProducer;
+import org.apache.lucene.codecs.NormsProducer;
+import org.apache.lucene.codecs.PostingsFormat;
+import org.apache.lucene.index.FieldInfo;
+import org.apache.lucene.index.Fields;
+import org.apache.lucene.index.FilterLeafReader;
+import org.apache.lucene.index.IndexFileNames;
+import org.apache.lucene.index.SegmentReadState;
+import org.apache.lucene.index.SegmentWriteState;
+import org.apache.lucene.index.Terms;
+import org.apache.lucene.index.TermsEnum;
+import org.apache.lucene.store.ChecksumIndexInput;
+import org.apache.lucene.store.DataInput;
+import org.apache.lucene.store.DataOutput;
+import org.apache.lucene.store.IndexOutput;
+import org.apache.lucene.util.Accountable;
+import org.apache.lucene.util.Accountables;
+import org.apache.lucene.util.BytesRef;
+import org.apache.lucene.util.IOUtils;
+import org.apache.lucene.util.RamUsageEstimator;
+import org.elasticsearch.common.hash.MurmurHash3;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A {@link PostingsFormat} that writes a bloom filter over the terms of each field next to the postings of a delegate format, and skips
+ * {@link TermsEnum#seekExact(BytesRef) exact seeks} for terms that the filter rules out. This is meant for the {@code _id} field, whose
+ * lookups on indexing mostly miss: with many segments most of them can then be skipped without seeking their terms dictionary.
+ * <p>
+ * Filters are sized from the number of documents of the segment, which bounds the number of terms of an {@code _id} field, and use
+ * {@value #BITS_PER_DOC} bits and {@value #NUM_HASH_FUNCTIONS} hash functions per document, for a false positive rate of about 1%.
+ */
+public final class ES80BloomFilterPostingsFormat extends PostingsFormat {
+
+    public static final String NAME = "ES80BloomFilter";
+
+    static final String BLOOM_FILTER_CODEC = "ES80BloomFilter";
+    static final String BLOOM_FILTER_EXTENSION = "bfi";
+    static final int VERSION_START = 0;
+    static final int VERSION_CURRENT = VERSION_START;
+
+    static final int BITS_PER_DOC = 10;
+    static final int NUM_HASH_FUNCTIONS = 7;
+
+    private final PostingsFormat delegate;
+
+    /**
+     * Used by SPI to read segments, the delegate format is recorded in the segment.
+     */
+    public ES80BloomFilterPostingsFormat() {
+        this(null);
+    }
+
+    public ES80BloomFilterPostingsFormat(PostingsFormat delegate) {
+        super(NAME);
+        this.delegate = delegate;
+    }
+
+    @Override
+    public FieldsConsumer fieldsConsumer(SegmentWriteState state) throws IOException {
+        if (delegate == null) {
+            throw new UnsupportedOperationException("the [" + NAME + "] postings format can only be used for writing with a delegate");
+        }
+        return new BloomFilterFieldsConsumer(delegate, delegate.fieldsConsumer(state), state);
+    }
+
+    @Override
+    public FieldsProducer fieldsProducer(SegmentReadState state) throws IOException {
+        final String fileName = IndexFileNames.segmentFileName(state.segmentInfo.name, state.segmentSuffix, BLOOM_FILTER_EXTENSION);
+        final Map<String, BloomFilter> filters = new HashMap<>();
+        final String delegateName;
+        try (ChecksumIndexInput in = state.directory.openChecksumInput(fileName, state.context)) {
+            Throwable priorException = null;
+            String name = null;
+            try {
+                CodecUtil.checkIndexHeader(in, BLOOM_FILTER_CODEC, VERSION_START, VERSION_CURRENT, state.segmentInfo.getId(),
+                    state.segmentSuffix);
+                name = in.readString();
+                final int numFields = in.readVInt();
+                for (int i = 0; i < numFields; i++) {
+                    final FieldInfo fieldInfo = state.fieldInfos.fieldInfo(in.readVInt());
+                    filters.put(fieldInfo.name, BloomFilter.read(in));
+                }
+            } catch (Throwable t) {
+                priorException = t;
+            } finally {
+                CodecUtil.checkFooter(in, priorException);
+            }
+            delegateName = name;
+        }
+        final FieldsProducer delegateProducer = PostingsFormat.forName(delegateName).fieldsProducer(state);
+        return new BloomFilterFieldsProducer(delegateProducer, filters);
+    }
+
+    @Override
+    public String toString() {
+        return NAME + "(" + delegate + ")";
+    }
+
+    private static final class BloomFilterFieldsConsumer extends FieldsConsumer {
+
+        private final PostingsFormat delegateFormat;
+        private final FieldsConsumer delegate;
+        private final SegmentWriteState state;
+        private final Map<FieldInfo, BloomFilter> filters = new HashMap<>();
+
+        BloomFilterFieldsConsumer(PostingsFormat delegateFormat, FieldsConsumer delegate, SegmentWriteState state) {
+            this.delegateFormat = delegateFormat;
+            this.delegate = delegate;
+            this.state = state;
+        }
+
+        @Override
+        public void write(Fields fields, NormsProducer norms) throws IOException {
+            delegate.write(fields, norms);
+            final MurmurHash3.Hash128 hash = new MurmurHash3.Hash128();
+            for (String field : fields) {
+                final Terms terms = fields.terms(field);
+                if (terms == null) {
+                    continue;
+                }
+                final BloomFilter filter = BloomFilter.create(state.segmentInfo.maxDoc());
+                final TermsEnum termsEnum = terms.iterator();
+                for (BytesRef term = termsEnum.next(); term != null; term = termsEnum.next()) {
+                    filter.add(term, hash);
+                }
+                filters.put(state.fieldInfos.fieldInfo(field), filter);
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            final String fileName = IndexFileNames.segmentFileName(state.segmentInfo.name, state.segmentSuffix, BLOOM_FILTER_EXTENSION);
+            boolean success = false;
+            try (IndexOutput out = state.directory.createOutput(fileName, state.context)) {
+                CodecUtil.writeIndexHeader(out, BLOOM_FILTER_CODEC, VERSION_CURRENT, state.segmentInfo.getId(), state.segmentSuffix);
+                out.writeString(delegateFormat.getName());
+                out.writeVInt(filters.size());
+                for (Map.Entry<FieldInfo, BloomFilter> entry : filters.entrySet()) {
+                    out.writeVInt(entry.getKey().number);
+                    entry.getValue().write(out);
+                }
+                CodecUtil.writeFooter(out);
+                success = true;
+            } finally {
+                if (success) {
+                    delegate.close();
+                } else {
+                    IOUtils.closeWhileHandlingException(delegate);
+                }
+            }
+        }
+    }
+
+    private static final class BloomFilterFieldsProducer extends FieldsProducer {
+
+        private final FieldsProducer delegate;
+        private final Map<String, BloomFilter> filters;
+
+        BloomFilterFieldsProducer(FieldsProducer delegate, Map<String, BloomFilter> filters) {
+            this.delegate = delegate;
+            this.filters = filters;
+        }
+
+        @Override
+        public Iterator<String> iterator() {
+            return delegate.iterator();
+        }
+
+        @Override
+        public Terms terms(String field) throws IOException {
+            final Terms terms = delegate.terms(field);
+            final BloomFilter filter = filters.get(field);
+            if (terms == null || filter == null) {
+                return terms;
+            }
+            return new BloomFilteredTerms(terms, filter);
+        }
+
+        @Override
+        public int size() {
+            return delegate.size();
+        }
+
+        @Override
+        public void checkIntegrity() throws IOException {
+            // the filters were verified against their checksum when they were loaded
+            delegate.checkIntegrity();
+        }
+
+        @Override
+        public FieldsProducer getMergeInstance() throws IOException {
+            // merges iterate over all terms, which the filters don't help with
+            return delegate.getMergeInstance();
+        }
+
+        @Override
+        public void close() throws IOException {
+            delegate.close();
+        }
+
+        @Override
+        public long ramBytesUsed() {
+            long bytes = delegate.ramBytesUsed();
+            for (BloomFilter filter : filters.values()) {
+                bytes += filter.ramBytesUsed();
+            }
+            return bytes;
+        }
+
+        @Override
+        public Collection<Accountable> getChildResources() {
+            final List<Accountable> resources = new ArrayList<>();
+            for (Map.Entry<String, BloomFilter> entry : filters.entrySet()) {
+                resources.add(Accountables.namedAccountable("bloom filter [" + entry.getKey() + "]", entry.getValue()));
+            }
+            resources.add(Accountables.namedAccountable("delegate", delegate));
+            return resources;
+        }
+
+        @Override
+        public String toString() {
+            return getClass().getSimpleName() + "(filters=" + filters.size() + ",delegate=" + delegate + ")";
+        }
+    }
+
+    private static final class BloomFilteredTerms extends FilterLeafReader.FilterTerms {
+
+        private final BloomFilter filter;
+
+        BloomFilteredTerms(Terms in, BloomFilter filter) {
+            super(in);
+            this.filter = filter;
+        }
+
+        @Override
+        public TermsEnum iterator() throws IOException {
+            return new BloomFilteredTermsEnum(in.iterator(), filter);
+        }
+    }
+
+    private static final class BloomFilteredTermsEnum extends FilterLeafReader.FilterTermsEnum {
+
+        private final BloomFilter filter;
+        private final MurmurHash3.Hash128 hash = new MurmurHash3.Hash128();
+
+        BloomFilteredTermsEnum(TermsEnum in, BloomFilter filter) {
+            super(in);
+            this.filter = filter;
+        }
+
+        @Override
+        public boolean seekExact(BytesRef text) throws IOException {
+            if (filter.mayContain(text, hash) == false) {
+                return false;
+            }
+            return in.seekExact(text);
+        }
+    }
+
+    /**
+     * A bloom filter over terms that derives its {@link #NUM_HASH_FUNCTIONS} bit positions from the two halves of a 128 bit murmur3
+     * hash of the term.
+     */
+    static final class BloomFilter implements Accountable {
+
+        private final long[] bits;
+        private final long numBits;
+
+        private BloomFilter(long[] bits) {
+            this.bits = bits;
+            this.numBits = (long) bits.length * Long.SIZE;
+        }
+
+        static BloomFilter create(int maxDoc) {
+            final long numBits = Math.max(1L, (long) maxDoc * BITS_PER_DOC);
+            return new BloomFilter(new long[Math.toIntExact((numBits + Long.SIZE - 1) / Long.SIZE)]);
+        }
+
+        static BloomFilter read(DataInput in) throws IOException {
+            final long[] bits = new long[in.readVInt()];
+            for (int i = 0; i < bits.length; i++) {
+                bits[i] = in.readLong();
+            }
+            return new BloomFilter(bits);
+        }
+
+        void write(DataOutput out) throws IOException {
+            out.writeVInt(bits.length);
+            for (long word : bits) {
+                out.writeLong(word);
+            }
+        }
+
+        void add(BytesRef term, MurmurHash3.Hash128 hash) {
+            MurmurHash3.hash128(term.bytes, term.offset, term.length, 0, hash);
+            for (int i = 0; i < NUM_HASH_FUNCTIONS; i++) {
+                final long bit = bit(hash, i);
+                bits[(int) (bit >>> 6)] |= 1L << bit;
+            }
+        }
+
+        boolean mayContain(BytesRef term, MurmurHash3.Hash128 hash) {
+            MurmurHash3.hash128(term.bytes, term.offset, term.length, 0, hash);
+            for (int i = 0; i < NUM_HASH_FUNCTIONS; i++) {
+                final long bit = bit(hash, i);
+                if ((bits[(int) (bit >>> 6)] & (1L << bit)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private long bit(MurmurHash3.Hash128 hash, int i) {
+            return ((hash.h1 + i * hash.h2) & Long.MAX_VALUE) % numBits;
+        }
+
+        @Override
+        public long ramBytesUsed() {
+            return RamUsageEstimator.sizeOf(bits);
+        }
+    }
+}
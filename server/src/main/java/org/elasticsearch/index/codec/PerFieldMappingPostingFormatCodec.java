@@ -26,6 +26,7 @@ import org.apache.lucene.codecs.lucene50.Lucene50StoredFieldsFormat;
 import org.apache.lucene.codecs.lucene84.Lucene84Codec;
 import org.elasticsearch.common.lucene.Lucene;
 import org.elasticsearch.index.mapper.CompletionFieldMapper;
+import org.elasticsearch.index.mapper.IdFieldMapper;
 import org.elasticsearch.index.mapper.MappedFieldType;
 import org.elasticsearch.index.mapper.MapperService;
 
@@ -40,6 +41,7 @@ import org.elasticsearch.index.mapper.MapperService;
 public class PerFieldMappingPostingFormatCodec extends Lucene84Codec {
     private final Logger logger;
     private final MapperService mapperService;
+    private final PostingsFormat idBloomFilterPostingsFormat;
 
     static {
         assert Codec.forName(Lucene.LATEST_CODEC).getClass().isAssignableFrom(PerFieldMappingPostingFormatCodec.class) :
@@ -50,10 +52,14 @@ public class PerFieldMappingPostingFormatCodec extends Lucene84Codec {
         super(compressionMode);
         this.mapperService = mapperService;
         this.logger = logger;
+        this.idBloomFilterPostingsFormat = new ES80BloomFilterPostingsFormat(super.getPostingsFormatForField(IdFieldMapper.NAME));
     }
 
     @Override
     public PostingsFormat getPostingsFormatForField(String field) {
+        if (IdFieldMapper.NAME.equals(field) && mapperService.getIndexSettings().isBloomFilterForIdFieldEnabled()) {
+            return idBloomFilterPostingsFormat;
+        }
         final MappedFieldType fieldType = mapperService.fieldType(field);
         if (fieldType == null) {
             logger.warn("no index mapper found for field: [{}] returning default postings format", field);
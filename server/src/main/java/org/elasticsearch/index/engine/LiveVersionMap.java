@@ -30,23 +30,25 @@ import org.elasticsearch.common.util.concurrent.KeyedLock;
 import java.io.IOException;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.Map;
 import java.util.concurrent.atomic.AtomicLong;
 
-/** Maps _uid value to its version information. */
-final class LiveVersionMap implements ReferenceManager.RefreshListener, Accountable {
+/**
+ * Maps _uid value to its version information. Index operations are kept in {@link PagedVersionTable}s, which are swapped out on
+ * refresh, while deletes are kept as tombstones until they get pruned.
+ * <p>
+ * This class is internal to the engine, the few methods that are public are only so for the benchmarks.
+ */
+public final class LiveVersionMap implements ReferenceManager.RefreshListener, Accountable {
 
     private final KeyedLock<BytesRef> keyedLock = new KeyedLock<>();
 
     private static final class VersionLookup {
 
-        /** Tracks bytes used by current map, i.e. what is freed on refresh. For deletes, which are also added to tombstones,
-         *  we only account for the CHM entry here, and account for BytesRef/VersionValue against the tombstones, since refresh would not
-         *  clear this RAM. */
-        final AtomicLong ramBytesUsed = new AtomicLong();
-
-        private static final VersionLookup EMPTY = new VersionLookup(Collections.emptyMap());
-        private final Map<BytesRef, VersionValue> map;
+        private static final VersionLookup EMPTY = new VersionLookup(new PagedVersionTable());
+        // only holds index operations: deletes remove the uid from here and go to the tombstones
+        private final PagedVersionTable table;
 
         // each version map has a notion of safe / unsafe which allows us to apply certain optimization in the auto-generated ID usecase
         // where we know that documents can't have any duplicates so we can skip the version map entirely. This reduces
@@ -64,24 +66,29 @@ final class LiveVersionMap implements ReferenceManager.RefreshListener, Accounta
         // the tombstone
         private final AtomicLong minDeleteTimestamp = new AtomicLong(Long.MAX_VALUE);
 
-        private VersionLookup(Map<BytesRef, VersionValue> map) {
-            this.map = map;
+        private VersionLookup(PagedVersionTable table) {
+            this.table = table;
         }
 
         VersionValue get(BytesRef key) {
-            return map.get(key);
+            return table.get(key);
         }
 
-        VersionValue put(BytesRef key, VersionValue value) {
-            return map.put(key, value);
+        void put(BytesRef key, IndexVersionValue value) {
+            table.put(key, value);
         }
 
         boolean isEmpty() {
-            return map.isEmpty();
+            return table.isEmpty();
         }
 
         int size() {
-            return map.size();
+            return table.size();
+        }
+
+        /** Tracks bytes used by this map, i.e. what is freed on refresh. */
+        long ramBytesUsed() {
+            return table.ramBytesUsed();
         }
 
         boolean isUnsafe() {
@@ -92,8 +99,8 @@ final class LiveVersionMap implements ReferenceManager.RefreshListener, Accounta
             unsafe = true;
         }
 
-        public VersionValue remove(BytesRef uid) {
-            return map.remove(uid);
+        public boolean remove(BytesRef uid) {
+            return table.remove(uid);
         }
 
         public void updateMinDeletedTimestamp(DeleteVersionValue delete) {
@@ -124,8 +131,7 @@ final class LiveVersionMap implements ReferenceManager.RefreshListener, Accounta
         }
 
         Maps() {
-            this(new VersionLookup(ConcurrentCollections.newConcurrentMapWithAggressiveConcurrency()),
-                VersionLookup.EMPTY, false);
+            this(new VersionLookup(new PagedVersionTable()), VersionLookup.EMPTY, false);
         }
 
         boolean isSafeAccessMode() {
@@ -143,8 +149,7 @@ final class LiveVersionMap implements ReferenceManager.RefreshListener, Accounta
          * Builds a new map for the refresh transition this should be called in beforeRefresh()
          */
         Maps buildTransitionMap() {
-            return new Maps(new VersionLookup(ConcurrentCollections.newConcurrentMapWithAggressiveConcurrency(current.size())), current,
-                shouldInheritSafeAccess());
+            return new Maps(new VersionLookup(new PagedVersionTable()), current, shouldInheritSafeAccess());
         }
 
         /**
@@ -154,28 +159,13 @@ final class LiveVersionMap implements ReferenceManager.RefreshListener, Accounta
             return new Maps(current, VersionLookup.EMPTY, previousMapsNeededSafeAccess);
         }
 
-        void put(BytesRef uid, VersionValue version) {
-            long uidRAMBytesUsed = BASE_BYTES_PER_BYTESREF + uid.bytes.length;
-            long ramAccounting = BASE_BYTES_PER_CHM_ENTRY + version.ramBytesUsed() + uidRAMBytesUsed;
-            VersionValue previousValue = current.put(uid, version);
-            ramAccounting += previousValue == null ? 0 : -(BASE_BYTES_PER_CHM_ENTRY + previousValue.ramBytesUsed() + uidRAMBytesUsed);
-            adjustRam(ramAccounting);
-        }
-
-        void adjustRam(long value) {
-            if (value != 0) {
-                long v = current.ramBytesUsed.addAndGet(value);
-                assert v >= 0 : "bytes=" + v;
-            }
+        void put(BytesRef uid, IndexVersionValue version) {
+            current.put(uid, version);
         }
 
         void remove(BytesRef uid, DeleteVersionValue deleted) {
-            VersionValue previousValue = current.remove(uid);
+            current.remove(uid);
             current.updateMinDeletedTimestamp(deleted);
-            if (previousValue != null) {
-                long uidRAMBytesUsed = BASE_BYTES_PER_BYTESREF + uid.bytes.length;
-                adjustRam(-(BASE_BYTES_PER_CHM_ENTRY + previousValue.ramBytesUsed() + uidRAMBytesUsed));
-            }
             if (old != VersionLookup.EMPTY) {
                 // we also need to remove it from the old map here to make sure we don't read this stale value while
                 // we are in the middle of a refresh. Most of the time the old map is an empty map so we can skip it there.
@@ -236,6 +226,9 @@ final class LiveVersionMap implements ReferenceManager.RefreshListener, Accounta
      */
     private final AtomicLong ramBytesUsedTombstones = new AtomicLong();
 
+    public LiveVersionMap() {
+    }
+
     @Override
     public void beforeRefresh() throws IOException {
         // Start sending all updates after this point to the new
@@ -265,7 +258,7 @@ final class LiveVersionMap implements ReferenceManager.RefreshListener, Accounta
     /**
      * Returns the live version (add or delete) for this uid.
      */
-    VersionValue getUnderLock(final BytesRef uid) {
+    public VersionValue getUnderLock(final BytesRef uid) {
         return getUnderLock(uid, maps);
     }
 
@@ -297,7 +290,7 @@ final class LiveVersionMap implements ReferenceManager.RefreshListener, Accounta
         return maps.current.isUnsafe() || maps.old.isUnsafe();
     }
 
-    void enforceSafeAccess() {
+    public void enforceSafeAccess() {
         maps.needsSafeAccess = true;
     }
 
@@ -323,7 +316,7 @@ final class LiveVersionMap implements ReferenceManager.RefreshListener, Accounta
         }
     }
 
-    void putIndexUnderLock(BytesRef uid, IndexVersionValue version) {
+    public void putIndexUnderLock(BytesRef uid, IndexVersionValue version) {
         assert assertKeyedLockHeldByCurrentThread(uid);
         assert uid.bytes.length == uid.length : "Oversized _uid! UID length: " + uid.length + ", bytes length: " + uid.bytes.length;
         maps.put(uid, version);
@@ -425,7 +418,7 @@ final class LiveVersionMap implements ReferenceManager.RefreshListener, Accounta
 
     @Override
     public long ramBytesUsed() {
-        return maps.current.ramBytesUsed.get() + ramBytesUsedTombstones.get();
+        return maps.current.ramBytesUsed() + ramBytesUsedTombstones.get();
     }
 
     /**
@@ -433,7 +426,7 @@ final class LiveVersionMap implements ReferenceManager.RefreshListener, Accounta
      * don't clear on refresh.
      */
     long ramBytesUsedForRefresh() {
-        return maps.current.ramBytesUsed.get();
+        return maps.current.ramBytesUsed();
     }
 
     /**
@@ -441,7 +434,7 @@ final class LiveVersionMap implements ReferenceManager.RefreshListener, Accounta
      * except does not include tombstones because they don't clear on refresh.
      */
     long getRefreshingBytes() {
-        return maps.old.ramBytesUsed.get();
+        return maps.old.ramBytesUsed();
     }
 
     @Override
@@ -451,10 +444,12 @@ final class LiveVersionMap implements ReferenceManager.RefreshListener, Accounta
     }
 
     /**
-     * Returns the current internal versions as a point in time snapshot
+     * Returns a copy of the current internal versions
      */
     Map<BytesRef, VersionValue> getAllCurrent() {
-        return maps.current.map;
+        final Map<BytesRef, VersionValue> current = new HashMap<>();
+        maps.current.table.forEach(current::put);
+        return current;
     }
 
     /** Iterates over all deleted versions, including new ones (not yet exposed via reader) and old ones
@@ -469,7 +464,7 @@ final class LiveVersionMap implements ReferenceManager.RefreshListener, Accounta
      * map are broken. We assert on this lock to be hold when calling these methods.
      * @see KeyedLock
      */
-    Releasable acquireLock(BytesRef uid) {
+    public Releasable acquireLock(BytesRef uid) {
         return keyedLock.acquire(uid);
     }
 
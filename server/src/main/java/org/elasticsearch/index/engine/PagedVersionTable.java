@@ -0,0 +1,291 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.elasticsearch.index.engine;
+
+import org.apache.lucene.util.Accountable;
+import org.apache.lucene.util.BytesRef;
+import org.elasticsearch.common.util.BigArrays;
+import org.elasticsearch.common.util.BytesRefHash;
+import org.elasticsearch.common.util.LongArray;
+import org.elasticsearch.index.translog.Translog;
+
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.BiConsumer;
+
+/**
+ * Maps _uid values to {@link IndexVersionValue}s like a {@code Map<BytesRef, IndexVersionValue>} would, but stores the uid bytes
+ * in a {@link BytesRefHash} and the version, seqNo, term and translog location of each uid packed in a {@link LongArray} next to it,
+ * so that an entry costs a few dozen bytes on paged arrays rather than a hash entry, a {@link BytesRef}, an {@link IndexVersionValue}
+ * and a {@link Translog.Location} object each.
+ * <p>
+ * The table is split in segments that are each guarded by their own lock, so that operations on different uids rarely contend.
+ * Lookups don't take the lock in the common case: they read the arrays optimistically and only retry under the lock if a write to
+ * the same segment happened meanwhile.
+ * Removed uids keep their slot in the hash, which is reused if the same uid is put again, until the table is discarded on refresh.
+ * <p>
+ * The arrays are not recycled: readers may still hold a reference to a table after it got swapped out on refresh, so its memory is
+ * left to the garbage collector rather than returned to a pool where it could be overwritten under their feet.
+ */
+final class PagedVersionTable implements Accountable {
+
+    private static final BigArrays BIG_ARRAYS = BigArrays.NON_RECYCLING_INSTANCE;
+
+    private static final int SEGMENT_SHIFT = 28;
+    private static final int NUM_SEGMENTS = 1 << (Integer.SIZE - SEGMENT_SHIFT);
+    private static final int INITIAL_SEGMENT_CAPACITY = 16;
+
+    // layout of the packed values of an entry
+    private static final int VALUE_LONGS = 6;
+    private static final int VERSION = 0;
+    private static final int SEQ_NO = 1;
+    private static final int TERM = 2;
+    private static final int GENERATION = 3;
+    private static final int TRANSLOG_LOCATION = 4;
+    private static final int FLAGS_AND_SIZE = 5;
+
+    private static final long PRESENT = 1L << 33;
+    private static final long HAS_LOCATION = 1L << 32;
+    private static final long SIZE_MASK = 0xFFFFFFFFL;
+
+    private final Segment[] segments;
+
+    PagedVersionTable() {
+        segments = new Segment[NUM_SEGMENTS];
+        for (int i = 0; i < segments.length; i++) {
+            segments[i] = new Segment();
+        }
+    }
+
+    private Segment segment(int hash) {
+        return segments[hash >>> SEGMENT_SHIFT];
+    }
+
+    /**
+     * Returns the value associated with the given uid, or {@code null} if there is none.
+     */
+    IndexVersionValue get(BytesRef uid) {
+        final int hash = uid.hashCode();
+        return segment(hash).get(uid, hash);
+    }
+
+    /**
+     * Associates the given value with the given uid, replacing the previous value if any.
+     */
+    void put(BytesRef uid, IndexVersionValue value) {
+        final int hash = uid.hashCode();
+        segment(hash).put(uid, hash, value);
+    }
+
+    /**
+     * Removes the value associated with the given uid, returning {@code true} if there was one.
+     */
+    boolean remove(BytesRef uid) {
+        final int hash = uid.hashCode();
+        return segment(hash).remove(uid, hash);
+    }
+
+    int size() {
+        int size = 0;
+        for (Segment segment : segments) {
+            size += segment.size;
+        }
+        return size;
+    }
+
+    boolean isEmpty() {
+        for (Segment segment : segments) {
+            if (segment.size != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Calls the given consumer with a copy of each uid and its value. Entries of a segment are visited while holding its lock,
+     * so the consumer must not call back into this table.
+     */
+    void forEach(BiConsumer<BytesRef, IndexVersionValue> consumer) {
+        for (Segment segment : segments) {
+            segment.forEach(consumer);
+        }
+    }
+
+    /**
+     * Returns the bytes used by the arrays that hold the entries, which is what gets freed when this table is discarded. The small
+     * constant overhead of the segments themselves is ignored so that a table that never saw a write reports {@code 0}.
+     */
+    @Override
+    public long ramBytesUsed() {
+        long ramBytesUsed = 0;
+        for (Segment segment : segments) {
+            ramBytesUsed += segment.ramBytesUsed;
+        }
+        return ramBytesUsed;
+    }
+
+    private static final class Segment {
+
+        // allocated on the first put since many tables never see any write before they get swapped out by a refresh
+        private BytesRefHash uids;
+        private LongArray values;
+        private final StampedLock lock = new StampedLock();
+
+        // only written under the segment lock, and read without it when a point-in-time approximation is good enough
+        private volatile int size;
+        private volatile long ramBytesUsed;
+
+        IndexVersionValue get(BytesRef uid, int hash) {
+            final long optimisticStamp = lock.tryOptimisticRead();
+            if (optimisticStamp != 0) {
+                // a write that races with this read may leave it with an inconsistent view of the arrays, which is only acted upon
+                // once validated; the arrays are never recycled, so such a read never sees memory that belongs to another table
+                try {
+                    final IndexVersionValue value = find(uid, hash);
+                    if (lock.validate(optimisticStamp)) {
+                        return value;
+                    }
+                } catch (RuntimeException e) {
+                    if (lock.validate(optimisticStamp)) {
+                        throw e;
+                    }
+                }
+            }
+            final long stamp = lock.readLock();
+            try {
+                return find(uid, hash);
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+
+        private IndexVersionValue find(BytesRef uid, int hash) {
+            final BytesRefHash uids = this.uids;
+            final LongArray values = this.values;
+            if (uids == null || values == null) {
+                return null;
+            }
+            final long id = uids.find(uid, hash, new BytesRef());
+            if (id < 0 || (id + 1) * VALUE_LONGS > values.size()) {
+                return null;
+            }
+            final long offset = id * VALUE_LONGS;
+            final long flagsAndSize = values.get(offset + FLAGS_AND_SIZE);
+            if ((flagsAndSize & PRESENT) == 0) {
+                return null;
+            }
+            return read(values, offset, flagsAndSize);
+        }
+
+        void put(BytesRef uid, int hash, IndexVersionValue value) {
+            final long stamp = lock.writeLock();
+            try {
+                doPut(uid, hash, value);
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+        }
+
+        private void doPut(BytesRef uid, int hash, IndexVersionValue value) {
+            if (uids == null) {
+                uids = new BytesRefHash(INITIAL_SEGMENT_CAPACITY, BIG_ARRAYS);
+                values = BIG_ARRAYS.newLongArray(INITIAL_SEGMENT_CAPACITY * VALUE_LONGS, false);
+            }
+            long id = uids.add(uid, hash);
+            if (id >= 0) {
+                values = BIG_ARRAYS.grow(values, (id + 1) * VALUE_LONGS);
+                size++;
+            } else {
+                id = -1 - id;
+                if (isPresent(id) == false) {
+                    size++;
+                }
+            }
+            final long offset = id * VALUE_LONGS;
+            values.set(offset + VERSION, value.version);
+            values.set(offset + SEQ_NO, value.seqNo);
+            values.set(offset + TERM, value.term);
+            final Translog.Location location = value.getLocation();
+            if (location == null) {
+                values.set(offset + GENERATION, 0L);
+                values.set(offset + TRANSLOG_LOCATION, 0L);
+                values.set(offset + FLAGS_AND_SIZE, PRESENT);
+            } else {
+                values.set(offset + GENERATION, location.generation);
+                values.set(offset + TRANSLOG_LOCATION, location.translogLocation);
+                values.set(offset + FLAGS_AND_SIZE, PRESENT | HAS_LOCATION | (location.size & SIZE_MASK));
+            }
+            ramBytesUsed = uids.ramBytesUsed() + values.ramBytesUsed();
+        }
+
+        boolean remove(BytesRef uid, int hash) {
+            final long stamp = lock.writeLock();
+            try {
+                if (uids == null) {
+                    return false;
+                }
+                final long id = uids.find(uid, hash);
+                if (id < 0 || isPresent(id) == false) {
+                    return false;
+                }
+                values.set(id * VALUE_LONGS + FLAGS_AND_SIZE, 0L);
+                size--;
+                return true;
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+        }
+
+        void forEach(BiConsumer<BytesRef, IndexVersionValue> consumer) {
+            final long stamp = lock.readLock();
+            try {
+                if (uids == null) {
+                    return;
+                }
+                final BytesRef spare = new BytesRef();
+                for (long id = 0; id < uids.size(); id++) {
+                    if (isPresent(id)) {
+                        final long offset = id * VALUE_LONGS;
+                        consumer.accept(BytesRef.deepCopyOf(uids.get(id, spare)),
+                            read(values, offset, values.get(offset + FLAGS_AND_SIZE)));
+                    }
+                }
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+
+        private boolean isPresent(long id) {
+            return (values.get(id * VALUE_LONGS + FLAGS_AND_SIZE) & PRESENT) != 0;
+        }
+
+        private static IndexVersionValue read(LongArray values, long offset, long flagsAndSize) {
+            final Translog.Location location;
+            if ((flagsAndSize & HAS_LOCATION) != 0) {
+                location = new Translog.Location(values.get(offset + GENERATION), values.get(offset + TRANSLOG_LOCATION),
+                    (int) (flagsAndSize & SIZE_MASK));
+            } else {
+                location = null;
+            }
+            return new IndexVersionValue(location, values.get(offset + VERSION), values.get(offset + SEQ_NO), values.get(offset + TERM));
+        }
+    }
+}
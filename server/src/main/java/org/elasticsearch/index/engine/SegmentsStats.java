@@ -72,6 +72,7 @@ public class SegmentsStats implements Writeable, ToXContentFragment {
             .fPut("tvd", "Term Vector Documents")
             .fPut("tvf", "Term Vector Fields")
             .fPut("liv", "Live Documents")
+            .fPut("bfi", "Bloom Filter")
             .build();
 
     public SegmentsStats() {}
@@ -19,16 +19,20 @@
 
 package org.elasticsearch.index.fielddata;
 
+import org.elasticsearch.Version;
 import org.elasticsearch.common.FieldMemoryStats;
 import org.elasticsearch.common.Nullable;
 import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.io.stream.StreamOutput;
 import org.elasticsearch.common.io.stream.Writeable;
 import org.elasticsearch.common.unit.ByteSizeValue;
+import org.elasticsearch.common.unit.TimeValue;
 import org.elasticsearch.common.xcontent.ToXContentFragment;
 import org.elasticsearch.common.xcontent.XContentBuilder;
 
 import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Objects;
 
 public class FieldDataStats implements Writeable, ToXContentFragment {
@@ -42,21 +46,32 @@ public class FieldDataStats implements Writeable, ToXContentFragment {
     private long evictions;
     @Nullable
     private FieldMemoryStats fields;
+    private GlobalOrdinalsStats globalOrdinalsStats;
 
     public FieldDataStats() {
-
+        this.globalOrdinalsStats = new GlobalOrdinalsStats(0, new HashMap<>());
     }
 
     public FieldDataStats(StreamInput in) throws IOException {
         memorySize = in.readVLong();
         evictions = in.readVLong();
         fields = in.readOptionalWriteable(FieldMemoryStats::new);
+        if (in.getVersion().onOrAfter(Version.V_8_0_0)) {
+            globalOrdinalsStats = new GlobalOrdinalsStats(in);
+        } else {
+            globalOrdinalsStats = new GlobalOrdinalsStats(0, new HashMap<>());
+        }
     }
 
     public FieldDataStats(long memorySize, long evictions, @Nullable FieldMemoryStats fields) {
+        this(memorySize, evictions, fields, new GlobalOrdinalsStats(0, new HashMap<>()));
+    }
+
+    public FieldDataStats(long memorySize, long evictions, @Nullable FieldMemoryStats fields, GlobalOrdinalsStats globalOrdinalsStats) {
         this.memorySize = memorySize;
         this.evictions = evictions;
         this.fields = fields;
+        this.globalOrdinalsStats = Objects.requireNonNull(globalOrdinalsStats);
     }
 
     public void add(FieldDataStats stats) {
@@ -69,6 +84,7 @@ public class FieldDataStats implements Writeable, ToXContentFragment {
                 fields.add(stats.fields);
             }
         }
+        this.globalOrdinalsStats.add(stats.globalOrdinalsStats);
     }
 
     public long getMemorySizeInBytes() {
@@ -88,11 +104,18 @@ public class FieldDataStats implements Writeable, ToXContentFragment {
         return fields;
     }
 
+    public GlobalOrdinalsStats getGlobalOrdinalsStats() {
+        return globalOrdinalsStats;
+    }
+
     @Override
     public void writeTo(StreamOutput out) throws IOException {
         out.writeVLong(memorySize);
         out.writeVLong(evictions);
         out.writeOptionalWriteable(fields);
+        if (out.getVersion().onOrAfter(Version.V_8_0_0)) {
+            globalOrdinalsStats.writeTo(out);
+        }
     }
 
     @Override
@@ -103,6 +126,7 @@ public class FieldDataStats implements Writeable, ToXContentFragment {
         if (fields != null) {
             fields.toXContent(builder, FIELDS, MEMORY_SIZE_IN_BYTES, MEMORY_SIZE);
         }
+        globalOrdinalsStats.toXContent(builder, params);
         builder.endObject();
         return builder;
     }
@@ -114,11 +138,159 @@ public class FieldDataStats implements Writeable, ToXContentFragment {
         FieldDataStats that = (FieldDataStats) o;
         return memorySize == that.memorySize &&
             evictions == that.evictions &&
-            Objects.equals(fields, that.fields);
+            Objects.equals(fields, that.fields) &&
+            Objects.equals(globalOrdinalsStats, that.globalOrdinalsStats);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(memorySize, evictions, fields);
+        return Objects.hash(memorySize, evictions, fields, globalOrdinalsStats);
+    }
+
+    /**
+     * The time spent building global ordinals, in total and per field.
+     */
+    public static class GlobalOrdinalsStats implements Writeable, ToXContentFragment {
+
+        private static final String GLOBAL_ORDINALS = "global_ordinals";
+        private static final String BUILD_TIME = "build_time";
+        private static final String BUILD_TIME_IN_MILLIS = "build_time_in_millis";
+        private static final String INCREMENTAL_BUILD_COUNT = "incremental_build_count";
+        private static final String SHARD_MAX_VALUE_COUNT = "shard_max_value_count";
+
+        private long buildTimeMillis;
+        private final Map<String, FieldStats> fieldStats;
+
+        public GlobalOrdinalsStats(long buildTimeMillis, Map<String, FieldStats> fieldStats) {
+            this.buildTimeMillis = buildTimeMillis;
+            this.fieldStats = fieldStats;
+        }
+
+        GlobalOrdinalsStats(StreamInput in) throws IOException {
+            this.buildTimeMillis = in.readVLong();
+            this.fieldStats = in.readMap(StreamInput::readString, FieldStats::new);
+        }
+
+        @Override
+        public void writeTo(StreamOutput out) throws IOException {
+            out.writeVLong(buildTimeMillis);
+            out.writeMap(fieldStats, StreamOutput::writeString, (o, stats) -> stats.writeTo(o));
+        }
+
+        void add(GlobalOrdinalsStats other) {
+            buildTimeMillis += other.buildTimeMillis;
+            for (Map.Entry<String, FieldStats> entry : other.fieldStats.entrySet()) {
+                fieldStats.merge(entry.getKey(), entry.getValue(), FieldStats::merge);
+            }
+        }
+
+        /**
+         * Returns the total time spent building global ordinals.
+         */
+        public long getBuildTimeMillis() {
+            return buildTimeMillis;
+        }
+
+        /**
+         * Returns the global ordinals statistics per field.
+         */
+        public Map<String, FieldStats> getFieldStats() {
+            return fieldStats;
+        }
+
+        @Override
+        public XContentBuilder toXContent(XContentBuilder builder, Params params) throws IOException {
+            builder.startObject(GLOBAL_ORDINALS);
+            builder.humanReadableField(BUILD_TIME_IN_MILLIS, BUILD_TIME, new TimeValue(buildTimeMillis));
+            if (fieldStats.isEmpty() == false) {
+                builder.startObject(FIELDS);
+                for (Map.Entry<String, FieldStats> entry : fieldStats.entrySet()) {
+                    builder.startObject(entry.getKey());
+                    builder.humanReadableField(BUILD_TIME_IN_MILLIS, BUILD_TIME, new TimeValue(entry.getValue().buildTimeMillis));
+                    builder.field(INCREMENTAL_BUILD_COUNT, entry.getValue().incrementalBuildCount);
+                    builder.field(SHARD_MAX_VALUE_COUNT, entry.getValue().shardMaxValueCount);
+                    builder.endObject();
+                }
+                builder.endObject();
+            }
+            builder.endObject();
+            return builder;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            GlobalOrdinalsStats that = (GlobalOrdinalsStats) o;
+            return buildTimeMillis == that.buildTimeMillis &&
+                Objects.equals(fieldStats, that.fieldStats);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(buildTimeMillis, fieldStats);
+        }
+
+        /**
+         * The global ordinals statistics of a single field: the total time spent building them, how many of the builds
+         * extended the global ordinals of a previous reader, and the maximum number of unique terms of a shard.
+         */
+        public static class FieldStats implements Writeable {
+
+            private final long buildTimeMillis;
+            private final long incrementalBuildCount;
+            private final long shardMaxValueCount;
+
+            public FieldStats(long buildTimeMillis, long incrementalBuildCount, long shardMaxValueCount) {
+                this.buildTimeMillis = buildTimeMillis;
+                this.incrementalBuildCount = incrementalBuildCount;
+                this.shardMaxValueCount = shardMaxValueCount;
+            }
+
+            FieldStats(StreamInput in) throws IOException {
+                this.buildTimeMillis = in.readVLong();
+                this.incrementalBuildCount = in.readVLong();
+                this.shardMaxValueCount = in.readVLong();
+            }
+
+            @Override
+            public void writeTo(StreamOutput out) throws IOException {
+                out.writeVLong(buildTimeMillis);
+                out.writeVLong(incrementalBuildCount);
+                out.writeVLong(shardMaxValueCount);
+            }
+
+            public long getBuildTimeMillis() {
+                return buildTimeMillis;
+            }
+
+            public long getIncrementalBuildCount() {
+                return incrementalBuildCount;
+            }
+
+            public long getShardMaxValueCount() {
+                return shardMaxValueCount;
+            }
+
+            static FieldStats merge(FieldStats a, FieldStats b) {
+                return new FieldStats(a.buildTimeMillis + b.buildTimeMillis, a.incrementalBuildCount + b.incrementalBuildCount,
+                    Math.max(a.shardMaxValueCount, b.shardMaxValueCount));
+            }
+
+            @Override
+            public boolean equals(Object o) {
+                if (this == o) return true;
+                if (o == null || getClass() != o.getClass()) return false;
+                FieldStats that = (FieldStats) o;
+                return buildTimeMillis == that.buildTimeMillis &&
+                    incrementalBuildCount == that.incrementalBuildCount &&
+                    shardMaxValueCount == that.shardMaxValueCount;
+            }
+
+            @Override
+            public int hashCode() {
+                return Objects.hash(buildTimeMillis, incrementalBuildCount, shardMaxValueCount);
+            }
+        }
     }
 }
@@ -22,6 +22,8 @@ package org.elasticsearch.index.fielddata;
 import org.apache.lucene.index.DirectoryReader;
 import org.apache.lucene.index.LeafReaderContext;
 import org.apache.lucene.util.Accountable;
+import org.elasticsearch.common.Nullable;
+import org.elasticsearch.index.fielddata.ordinals.GlobalOrdinalMap;
 import org.elasticsearch.index.shard.ShardId;
 
 /**
@@ -44,6 +46,20 @@ public interface IndexFieldDataCache {
      */
     void clear(String fieldName);
 
+    /**
+     * Returns the global ordinals that were last built through this cache for the shard of the provided reader,
+     * or {@code null} if there are none. These are used to build global ordinals incrementally across refreshes.
+     */
+    @Nullable
+    default GlobalOrdinalMap getPreviousGlobalOrdinals(DirectoryReader indexReader) {
+        return null;
+    }
+
+    /**
+     * Clears the state that is retained for the provided shard beyond the lifetime of its readers.
+     */
+    default void clear(ShardId shardId) {}
+
     interface Listener {
 
         /**
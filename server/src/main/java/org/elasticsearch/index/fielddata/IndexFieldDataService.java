@@ -106,6 +106,21 @@ public class IndexFieldDataService extends AbstractIndexComponent implements Clo
         ExceptionsHelper.maybeThrowRuntimeAndSuppress(exceptions);
     }
 
+    /**
+     * Clears the fielddata state that is retained for the provided shard beyond the lifetime of its readers.
+     */
+    public synchronized void clear(ShardId shardId) {
+        List<Exception> exceptions = new ArrayList<>(0);
+        for (IndexFieldDataCache cache : fieldDataCaches.values()) {
+            try {
+                cache.clear(shardId);
+            } catch (Exception e) {
+                exceptions.add(e);
+            }
+        }
+        ExceptionsHelper.maybeThrowRuntimeAndSuppress(exceptions);
+    }
+
     public <IFD extends IndexFieldData<?>> IFD getForField(MappedFieldType fieldType) {
         return getForField(fieldType, index().getName());
     }
@@ -22,6 +22,7 @@ package org.elasticsearch.index.fielddata;
 import org.apache.lucene.index.DirectoryReader;
 import org.apache.lucene.index.IndexReader;
 import org.apache.lucene.index.OrdinalMap;
+import org.apache.lucene.util.LongValues;
 
 
 /**
@@ -48,10 +49,28 @@ public interface IndexOrdinalsFieldData extends IndexFieldData.Global<AtomicOrdi
      */
     OrdinalMap getOrdinalMap();
 
+    /**
+     * Returns the mapping from the ordinals of the segment at {@code segmentIndex} to global ordinals,
+     * or null if global ordinals are not needed (constant value or single segment). Unlike
+     * {@link #getOrdinalMap()} this also works with global ordinals that were built incrementally.
+     */
+    default LongValues getGlobalOrds(int segmentIndex) {
+        final OrdinalMap ordinalMap = getOrdinalMap();
+        return ordinalMap == null ? null : ordinalMap.getGlobalOrds(segmentIndex);
+    }
+
     /**
      * Whether this field data is able to provide a mapping between global and segment ordinals,
      * by returning the underlying {@link OrdinalMap}. If this method returns false, then calling
-     * {@link #getOrdinalMap} will result in an {@link UnsupportedOperationException}.
+     * {@link #getOrdinalMap} or {@link #getGlobalOrds} will result in an {@link UnsupportedOperationException}.
      */
     boolean supportsGlobalOrdinalsMapping();
+
+    /**
+     * Whether global ordinals of this field data are built incrementally from those of the previous reader of the shard,
+     * in which case they are not backed by an {@link OrdinalMap} and {@link #getOrdinalMap()} is not supported.
+     */
+    default boolean buildsGlobalOrdinalsIncrementally() {
+        return false;
+    }
 }
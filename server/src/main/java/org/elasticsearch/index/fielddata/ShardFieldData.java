@@ -25,8 +25,10 @@ import org.elasticsearch.common.FieldMemoryStats;
 import org.elasticsearch.common.metrics.CounterMetric;
 import org.elasticsearch.common.regex.Regex;
 import org.elasticsearch.common.util.concurrent.ConcurrentCollections;
+import org.elasticsearch.index.fielddata.ordinals.GlobalOrdinalsIndexFieldData;
 import org.elasticsearch.index.shard.ShardId;
 
+import java.util.HashMap;
 import java.util.Map;
 import java.util.concurrent.ConcurrentMap;
 
@@ -35,6 +37,9 @@ public class ShardFieldData implements IndexFieldDataCache.Listener {
     private final CounterMetric evictionsMetric = new CounterMetric();
     private final CounterMetric totalMetric = new CounterMetric();
     private final ConcurrentMap<String, CounterMetric> perFieldTotals = ConcurrentCollections.newConcurrentMap();
+    private final CounterMetric globalOrdinalsBuildTime = new CounterMetric();
+    private final ConcurrentMap<String, FieldDataStats.GlobalOrdinalsStats.FieldStats> perFieldGlobalOrdinals =
+        ConcurrentCollections.newConcurrentMap();
 
     public FieldDataStats stats(String... fields) {
         ObjectLongHashMap<String> fieldTotals = null;
@@ -47,7 +52,8 @@ public class ShardFieldData implements IndexFieldDataCache.Listener {
             }
         }
         return new FieldDataStats(totalMetric.count(), evictionsMetric.count(), fieldTotals == null ? null :
-            new FieldMemoryStats(fieldTotals));
+            new FieldMemoryStats(fieldTotals),
+            new FieldDataStats.GlobalOrdinalsStats(globalOrdinalsBuildTime.count(), new HashMap<>(perFieldGlobalOrdinals)));
     }
 
     @Override
@@ -64,6 +70,14 @@ public class ShardFieldData implements IndexFieldDataCache.Listener {
                 prev.inc(ramUsage.ramBytesUsed());
             }
         }
+        if (ramUsage instanceof GlobalOrdinalsIndexFieldData) {
+            GlobalOrdinalsIndexFieldData globalOrdinals = (GlobalOrdinalsIndexFieldData) ramUsage;
+            long buildTimeMillis = globalOrdinals.getBuildTime().millis();
+            globalOrdinalsBuildTime.inc(buildTimeMillis);
+            FieldDataStats.GlobalOrdinalsStats.FieldStats fieldStats = new FieldDataStats.GlobalOrdinalsStats.FieldStats(
+                buildTimeMillis, globalOrdinals.isIncremental() ? 1 : 0, globalOrdinals.getValueCount());
+            perFieldGlobalOrdinals.merge(fieldName, fieldStats, FieldDataStats.GlobalOrdinalsStats.FieldStats::merge);
+        }
     }
 
     @Override
@@ -0,0 +1,348 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.elasticsearch.index.fielddata.ordinals;
+
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.OrdinalMap;
+import org.apache.lucene.index.SortedSetDocValues;
+import org.apache.lucene.index.TermsEnum;
+import org.apache.lucene.util.Accountable;
+import org.apache.lucene.util.Accountables;
+import org.apache.lucene.util.BytesRef;
+import org.apache.lucene.util.BytesRefBuilder;
+import org.apache.lucene.util.LongValues;
+import org.apache.lucene.util.PriorityQueue;
+import org.apache.lucene.util.RamUsageEstimator;
+import org.apache.lucene.util.packed.PackedInts;
+import org.apache.lucene.util.packed.PackedLongValues;
+import org.elasticsearch.common.Nullable;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Maps the ordinals of each segment of a reader to global ordinals, and global ordinals back to the first
+ * segment that contains them.
+ * <p>
+ * A map is either built from scratch on top of Lucene's {@link OrdinalMap}, see {@link #of}, or incrementally
+ * by {@link #extend}ing the map of a previous reader whose segments are a prefix of the segments of the new
+ * reader. The latter only needs to visit the terms of the new segments and the global terms of the previous
+ * map once, instead of merging the terms of all segments again, which is what makes refreshes that only add
+ * small segments to a large index cheap.
+ */
+public abstract class GlobalOrdinalMap implements Accountable {
+
+    private final IndexReader.CacheKey[] segmentKeys;
+
+    private GlobalOrdinalMap(IndexReader.CacheKey[] segmentKeys) {
+        this.segmentKeys = segmentKeys;
+    }
+
+    /**
+     * Returns the total number of unique terms in global ord space.
+     */
+    public abstract long getValueCount();
+
+    /**
+     * Returns the mapping from the ordinals of the segment at {@code segmentIndex} to global ordinals.
+     */
+    public abstract LongValues getGlobalOrds(int segmentIndex);
+
+    /**
+     * Returns the index of the first segment that contains the term associated with {@code globalOrd}.
+     */
+    public abstract int getFirstSegmentNumber(long globalOrd);
+
+    /**
+     * Returns the ordinal of the term associated with {@code globalOrd} in the segment returned by
+     * {@link #getFirstSegmentNumber(long)}.
+     */
+    public abstract long getFirstSegmentOrd(long globalOrd);
+
+    /**
+     * Returns the Lucene {@link OrdinalMap} this map was built from, or {@code null} if it was built incrementally.
+     */
+    @Nullable
+    public abstract OrdinalMap getOrdinalMap();
+
+    /**
+     * Returns the number of segments this map was built for.
+     */
+    public int getSegmentCount() {
+        return segmentKeys.length;
+    }
+
+    /**
+     * Returns the number of leading segments of the provided reader that this map was built for, or {@code -1} if
+     * the segments of this map are not a prefix of the segments of the reader, for instance because some of them
+     * were merged away.
+     */
+    public int reusableSegments(IndexReader indexReader) {
+        if (indexReader.leaves().size() < segmentKeys.length) {
+            return -1;
+        }
+        for (int i = 0; i < segmentKeys.length; i++) {
+            IndexReader.CacheHelper cacheHelper = indexReader.leaves().get(i).reader().getCoreCacheHelper();
+            if (cacheHelper == null || cacheHelper.getKey() != segmentKeys[i]) {
+                return -1;
+            }
+        }
+        return segmentKeys.length;
+    }
+
+    /**
+     * Wraps an {@link OrdinalMap} that was built for the provided segments.
+     */
+    public static GlobalOrdinalMap of(IndexReader.CacheKey[] segmentKeys, OrdinalMap ordinalMap) {
+        return new LuceneGlobalOrdinalMap(segmentKeys, ordinalMap);
+    }
+
+    /**
+     * Builds a map for the provided segments from the map of a previous reader. The first
+     * {@link #getSegmentCount()} segments of {@code subs} must be the segments {@code previous} was built for,
+     * in the same order, the remaining ones are the segments that were added since.
+     */
+    public static GlobalOrdinalMap extend(GlobalOrdinalMap previous, IndexReader.CacheKey[] segmentKeys,
+                                          SortedSetDocValues[] subs) throws IOException {
+        final int numPreviousSegments = previous.getSegmentCount();
+        assert subs.length == segmentKeys.length && subs.length >= numPreviousSegments;
+
+        // the terms of the previous segments, in the order of the previous global ordinals
+        final TermsEnum[] previousLookups = new TermsEnum[numPreviousSegments];
+        for (int i = 0; i < numPreviousSegments; i++) {
+            previousLookups[i] = subs[i].termsEnum();
+        }
+        // the terms of the new segments, merged in sorted order
+        final PriorityQueue<TermsEnumIndex> queue = new PriorityQueue<TermsEnumIndex>(subs.length - numPreviousSegments) {
+            @Override
+            protected boolean lessThan(TermsEnumIndex a, TermsEnumIndex b) {
+                int cmp = a.currentTerm.compareTo(b.currentTerm);
+                return cmp == 0 ? a.segmentIndex < b.segmentIndex : cmp < 0;
+            }
+        };
+        final PackedLongValues.Builder[] newSegmentToGlobalOrds = new PackedLongValues.Builder[subs.length - numPreviousSegments];
+        for (int i = numPreviousSegments; i < subs.length; i++) {
+            newSegmentToGlobalOrds[i - numPreviousSegments] = PackedLongValues.monotonicBuilder(PackedInts.COMPACT);
+            TermsEnumIndex sub = new TermsEnumIndex(subs[i].termsEnum(), i);
+            if (sub.next() != null) {
+                queue.add(sub);
+            }
+        }
+
+        final PackedLongValues.Builder previousToNewGlobalOrds = PackedLongValues.monotonicBuilder(PackedInts.COMPACT);
+        final PackedLongValues.Builder firstSegments = PackedLongValues.packedBuilder(PackedInts.COMPACT);
+        final PackedLongValues.Builder globalOrdDeltas = PackedLongValues.deltaPackedBuilder(PackedInts.COMPACT);
+        final BytesRefBuilder scratch = new BytesRefBuilder();
+        final long previousValueCount = previous.getValueCount();
+        long previousGlobalOrd = 0;
+        BytesRef previousTerm = lookup(previous, previousLookups, previousGlobalOrd, previousValueCount);
+        long globalOrd = 0;
+        while (previousTerm != null || queue.size() > 0) {
+            final int cmp;
+            if (previousTerm == null) {
+                cmp = 1;
+            } else if (queue.size() == 0) {
+                cmp = -1;
+            } else {
+                cmp = previousTerm.compareTo(queue.top().currentTerm);
+            }
+            if (cmp <= 0) {
+                // the term was already known, its first segment doesn't change since new segments come last
+                previousToNewGlobalOrds.add(globalOrd);
+                firstSegments.add(previous.getFirstSegmentNumber(previousGlobalOrd));
+                globalOrdDeltas.add(globalOrd - previous.getFirstSegmentOrd(previousGlobalOrd));
+            } else {
+                TermsEnumIndex top = queue.top();
+                firstSegments.add(top.segmentIndex);
+                globalOrdDeltas.add(globalOrd - top.termsEnum.ord());
+            }
+            if (cmp >= 0) {
+                scratch.copyBytes(queue.top().currentTerm);
+                while (queue.size() > 0 && queue.top().currentTerm.equals(scratch.get())) {
+                    TermsEnumIndex top = queue.top();
+                    newSegmentToGlobalOrds[top.segmentIndex - numPreviousSegments].add(globalOrd);
+                    if (top.next() == null) {
+                        queue.pop();
+                    } else {
+                        queue.updateTop();
+                    }
+                }
+            }
+            if (cmp <= 0) {
+                previousTerm = lookup(previous, previousLookups, ++previousGlobalOrd, previousValueCount);
+            }
+            globalOrd++;
+        }
+
+        final PackedLongValues previousToNew = previousToNewGlobalOrds.build();
+        final LongValues[] segmentToGlobalOrds = new LongValues[subs.length];
+        for (int i = 0; i < numPreviousSegments; i++) {
+            final LongValues previousMapping = previous.getGlobalOrds(i);
+            final PackedLongValues.Builder mapping = PackedLongValues.monotonicBuilder(PackedInts.COMPACT);
+            final long valueCount = subs[i].getValueCount();
+            for (long ord = 0; ord < valueCount; ord++) {
+                mapping.add(previousToNew.get(previousMapping.get(ord)));
+            }
+            segmentToGlobalOrds[i] = mapping.build();
+        }
+        for (int i = numPreviousSegments; i < subs.length; i++) {
+            segmentToGlobalOrds[i] = newSegmentToGlobalOrds[i - numPreviousSegments].build();
+        }
+        return new MergedGlobalOrdinalMap(segmentKeys, globalOrd, segmentToGlobalOrds, firstSegments.build(),
+            globalOrdDeltas.build());
+    }
+
+    private static BytesRef lookup(GlobalOrdinalMap map, TermsEnum[] lookups, long globalOrd, long valueCount) throws IOException {
+        if (globalOrd >= valueCount) {
+            return null;
+        }
+        TermsEnum lookup = lookups[map.getFirstSegmentNumber(globalOrd)];
+        lookup.seekExact(map.getFirstSegmentOrd(globalOrd));
+        return lookup.term();
+    }
+
+    private static final class TermsEnumIndex {
+        final TermsEnum termsEnum;
+        final int segmentIndex;
+        BytesRef currentTerm;
+
+        TermsEnumIndex(TermsEnum termsEnum, int segmentIndex) {
+            this.termsEnum = termsEnum;
+            this.segmentIndex = segmentIndex;
+        }
+
+        BytesRef next() throws IOException {
+            currentTerm = termsEnum.next();
+            return currentTerm;
+        }
+    }
+
+    private static final class LuceneGlobalOrdinalMap extends GlobalOrdinalMap {
+        private final OrdinalMap ordinalMap;
+
+        LuceneGlobalOrdinalMap(IndexReader.CacheKey[] segmentKeys, OrdinalMap ordinalMap) {
+            super(segmentKeys);
+            this.ordinalMap = ordinalMap;
+        }
+
+        @Override
+        public long getValueCount() {
+            return ordinalMap.getValueCount();
+        }
+
+        @Override
+        public LongValues getGlobalOrds(int segmentIndex) {
+            return ordinalMap.getGlobalOrds(segmentIndex);
+        }
+
+        @Override
+        public int getFirstSegmentNumber(long globalOrd) {
+            return ordinalMap.getFirstSegmentNumber(globalOrd);
+        }
+
+        @Override
+        public long getFirstSegmentOrd(long globalOrd) {
+            return ordinalMap.getFirstSegmentOrd(globalOrd);
+        }
+
+        @Override
+        public OrdinalMap getOrdinalMap() {
+            return ordinalMap;
+        }
+
+        @Override
+        public long ramBytesUsed() {
+            return ordinalMap.ramBytesUsed();
+        }
+
+        @Override
+        public Collection<Accountable> getChildResources() {
+            return Collections.singletonList(ordinalMap);
+        }
+    }
+
+    private static final class MergedGlobalOrdinalMap extends GlobalOrdinalMap {
+        private static final long BASE_RAM_BYTES_USED = RamUsageEstimator.shallowSizeOfInstance(MergedGlobalOrdinalMap.class);
+
+        private final long valueCount;
+        private final LongValues[] segmentToGlobalOrds;
+        private final PackedLongValues firstSegments;
+        private final PackedLongValues globalOrdDeltas;
+
+        MergedGlobalOrdinalMap(IndexReader.CacheKey[] segmentKeys, long valueCount, LongValues[] segmentToGlobalOrds,
+                               PackedLongValues firstSegments, PackedLongValues globalOrdDeltas) {
+            super(segmentKeys);
+            this.valueCount = valueCount;
+            this.segmentToGlobalOrds = segmentToGlobalOrds;
+            this.firstSegments = firstSegments;
+            this.globalOrdDeltas = globalOrdDeltas;
+        }
+
+        @Override
+        public long getValueCount() {
+            return valueCount;
+        }
+
+        @Override
+        public LongValues getGlobalOrds(int segmentIndex) {
+            return segmentToGlobalOrds[segmentIndex];
+        }
+
+        @Override
+        public int getFirstSegmentNumber(long globalOrd) {
+            return (int) firstSegments.get(globalOrd);
+        }
+
+        @Override
+        public long getFirstSegmentOrd(long globalOrd) {
+            return globalOrd - globalOrdDeltas.get(globalOrd);
+        }
+
+        @Override
+        public OrdinalMap getOrdinalMap() {
+            return null;
+        }
+
+        @Override
+        public long ramBytesUsed() {
+            long size = BASE_RAM_BYTES_USED + RamUsageEstimator.shallowSizeOf(segmentToGlobalOrds)
+                + firstSegments.ramBytesUsed() + globalOrdDeltas.ramBytesUsed();
+            for (LongValues mapping : segmentToGlobalOrds) {
+                size += ((PackedLongValues) mapping).ramBytesUsed();
+            }
+            return size;
+        }
+
+        @Override
+        public Collection<Accountable> getChildResources() {
+            List<Accountable> resources = new ArrayList<>();
+            resources.add(Accountables.namedAccountable("first segments", firstSegments));
+            resources.add(Accountables.namedAccountable("global ord deltas", globalOrdDeltas));
+            for (int i = 0; i < segmentToGlobalOrds.length; i++) {
+                resources.add(Accountables.namedAccountable("segment map [" + i + "]", (PackedLongValues) segmentToGlobalOrds[i]));
+            }
+            return Collections.unmodifiableList(resources);
+        }
+    }
+}
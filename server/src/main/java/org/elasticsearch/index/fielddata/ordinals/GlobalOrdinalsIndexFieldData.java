@@ -25,7 +25,9 @@ import org.apache.lucene.index.SortedSetDocValues;
 import org.apache.lucene.index.TermsEnum;
 import org.apache.lucene.search.SortField;
 import org.apache.lucene.util.Accountable;
+import org.apache.lucene.util.LongValues;
 import org.elasticsearch.common.Nullable;
+import org.elasticsearch.common.unit.TimeValue;
 import org.elasticsearch.index.AbstractIndexComponent;
 import org.elasticsearch.index.IndexSettings;
 import org.elasticsearch.index.fielddata.AtomicOrdinalsFieldData;
@@ -54,20 +56,26 @@ public final class GlobalOrdinalsIndexFieldData extends AbstractIndexComponent i
 
     private final String fieldName;
     private final long memorySizeInBytes;
+    private final TimeValue buildTime;
+    private final boolean incremental;
 
-    private final OrdinalMap ordinalMap;
+    private final GlobalOrdinalMap ordinalMap;
     private final AtomicOrdinalsFieldData[] segmentAfd;
     private final Function<SortedSetDocValues, ScriptDocValues<?>> scriptFunction;
 
     protected GlobalOrdinalsIndexFieldData(IndexSettings indexSettings,
                                            String fieldName,
                                            AtomicOrdinalsFieldData[] segmentAfd,
-                                           OrdinalMap ordinalMap,
+                                           GlobalOrdinalMap ordinalMap,
                                            long memorySizeInBytes,
+                                           TimeValue buildTime,
+                                           boolean incremental,
                                            Function<SortedSetDocValues, ScriptDocValues<?>> scriptFunction) {
         super(indexSettings);
         this.fieldName = fieldName;
         this.memorySizeInBytes = memorySizeInBytes;
+        this.buildTime = buildTime;
+        this.incremental = incremental;
         this.ordinalMap = ordinalMap;
         this.segmentAfd = segmentAfd;
         this.scriptFunction = scriptFunction;
@@ -123,7 +131,12 @@ public final class GlobalOrdinalsIndexFieldData extends AbstractIndexComponent i
 
     @Override
     public OrdinalMap getOrdinalMap() {
-        return ordinalMap;
+        return luceneOrdinalMap();
+    }
+
+    @Override
+    public LongValues getGlobalOrds(int segmentIndex) {
+        return ordinalMap.getGlobalOrds(segmentIndex);
     }
 
     @Override
@@ -131,6 +144,44 @@ public final class GlobalOrdinalsIndexFieldData extends AbstractIndexComponent i
         return true;
     }
 
+    /**
+     * Returns the mapping between segment and global ordinals.
+     */
+    public GlobalOrdinalMap getGlobalOrdinalMap() {
+        return ordinalMap;
+    }
+
+    /**
+     * Returns the number of unique terms in global ord space.
+     */
+    public long getValueCount() {
+        return ordinalMap.getValueCount();
+    }
+
+    /**
+     * Returns the time it took to build these global ordinals.
+     */
+    public TimeValue getBuildTime() {
+        return buildTime;
+    }
+
+    /**
+     * Returns whether these global ordinals were built from the global ordinals of a previous reader.
+     */
+    public boolean isIncremental() {
+        return incremental;
+    }
+
+    private OrdinalMap luceneOrdinalMap() {
+        final OrdinalMap luceneOrdinalMap = ordinalMap.getOrdinalMap();
+        if (luceneOrdinalMap == null) {
+            throw new UnsupportedOperationException("global ordinals of field [" + fieldName + "] were built incrementally and " +
+                "are not backed by an OrdinalMap, disable [" + IndexSettings.INDEX_INCREMENTAL_GLOBAL_ORDINALS_SETTING.getKey() +
+                "] to use them with this field");
+        }
+        return luceneOrdinalMap;
+    }
+
     /**
      * A non-thread safe {@link IndexOrdinalsFieldData} for global ordinals that creates the {@link TermsEnum} of each
      * segment once and use them to provide a single lookup per segment.
@@ -237,7 +288,12 @@ public final class GlobalOrdinalsIndexFieldData extends AbstractIndexComponent i
 
         @Override
         public OrdinalMap getOrdinalMap() {
-            return ordinalMap;
+            return luceneOrdinalMap();
+        }
+
+        @Override
+        public LongValues getGlobalOrds(int segmentIndex) {
+            return ordinalMap.getGlobalOrds(segmentIndex);
         }
 
     }
@@ -73,6 +73,7 @@ public abstract class DocValuesIndexFieldData {
         private NumericType numericType;
         private Function<SortedSetDocValues, ScriptDocValues<?>> scriptFunction = AbstractAtomicOrdinalsFieldData.DEFAULT_SCRIPT_FUNCTION;
         private RangeType rangeType;
+        private boolean requireOrdinalMap;
 
         public Builder numericType(NumericType type) {
             this.numericType = type;
@@ -89,6 +90,15 @@ public abstract class DocValuesIndexFieldData {
             return this;
         }
 
+        /**
+         * Always back global ordinals by an {@link org.apache.lucene.index.OrdinalMap}, even if the index builds
+         * global ordinals incrementally, for fields whose consumers need the ordinal map itself.
+         */
+        public Builder requireOrdinalMap() {
+            this.requireOrdinalMap = true;
+            return this;
+        }
+
         @Override
         public IndexFieldData<?> build(IndexSettings indexSettings, MappedFieldType fieldType, IndexFieldDataCache cache,
                                        CircuitBreakerService breakerService, MapperService mapperService) {
@@ -100,7 +110,8 @@ public abstract class DocValuesIndexFieldData {
             } else if (numericType != null) {
                 return new SortedNumericDVIndexFieldData(indexSettings.getIndex(), fieldName, numericType);
             } else {
-                return new SortedSetDVOrdinalsIndexFieldData(indexSettings, cache, fieldName, breakerService, scriptFunction);
+                return new SortedSetDVOrdinalsIndexFieldData(indexSettings, cache, fieldName, breakerService, scriptFunction,
+                    requireOrdinalMap);
             }
         }
 
@@ -37,6 +37,7 @@ import org.elasticsearch.index.fielddata.IndexFieldDataCache;
 import org.elasticsearch.index.fielddata.IndexOrdinalsFieldData;
 import org.elasticsearch.index.fielddata.ScriptDocValues;
 import org.elasticsearch.index.fielddata.fieldcomparator.BytesRefFieldComparatorSource;
+import org.elasticsearch.index.fielddata.ordinals.GlobalOrdinalMap;
 import org.elasticsearch.index.fielddata.ordinals.GlobalOrdinalsIndexFieldData;
 import org.elasticsearch.index.fielddata.ordinals.GlobalOrdinalsBuilder;
 import org.elasticsearch.indices.breaker.CircuitBreakerService;
@@ -51,15 +52,23 @@ public class SortedSetDVOrdinalsIndexFieldData extends DocValuesIndexFieldData i
     private final IndexFieldDataCache cache;
     private final CircuitBreakerService breakerService;
     private final Function<SortedSetDocValues, ScriptDocValues<?>> scriptFunction;
+    private final boolean requireOrdinalMap;
     private static final Logger logger = LogManager.getLogger(SortedSetDVOrdinalsIndexFieldData.class);
 
     public SortedSetDVOrdinalsIndexFieldData(IndexSettings indexSettings, IndexFieldDataCache cache, String fieldName,
             CircuitBreakerService breakerService, Function<SortedSetDocValues, ScriptDocValues<?>> scriptFunction) {
+        this(indexSettings, cache, fieldName, breakerService, scriptFunction, false);
+    }
+
+    public SortedSetDVOrdinalsIndexFieldData(IndexSettings indexSettings, IndexFieldDataCache cache, String fieldName,
+            CircuitBreakerService breakerService, Function<SortedSetDocValues, ScriptDocValues<?>> scriptFunction,
+            boolean requireOrdinalMap) {
         super(indexSettings.getIndex(), fieldName);
         this.indexSettings = indexSettings;
         this.cache = cache;
         this.breakerService = breakerService;
         this.scriptFunction = scriptFunction;
+        this.requireOrdinalMap = requireOrdinalMap;
     }
 
     @Override
@@ -139,7 +148,8 @@ public class SortedSetDVOrdinalsIndexFieldData extends DocValuesIndexFieldData i
 
     @Override
     public IndexOrdinalsFieldData localGlobalDirect(DirectoryReader indexReader) throws Exception {
-        return GlobalOrdinalsBuilder.build(indexReader, this, indexSettings, breakerService, logger, scriptFunction);
+        final GlobalOrdinalMap previous = buildsGlobalOrdinalsIncrementally() ? cache.getPreviousGlobalOrdinals(indexReader) : null;
+        return GlobalOrdinalsBuilder.build(indexReader, this, indexSettings, breakerService, logger, scriptFunction, previous);
     }
 
     @Override
@@ -151,4 +161,9 @@ public class SortedSetDVOrdinalsIndexFieldData extends DocValuesIndexFieldData i
     public boolean supportsGlobalOrdinalsMapping() {
         return true;
     }
+
+    @Override
+    public boolean buildsGlobalOrdinalsIncrementally() {
+        return requireOrdinalMap == false && indexSettings.isIncrementalGlobalOrdinals();
+    }
 }
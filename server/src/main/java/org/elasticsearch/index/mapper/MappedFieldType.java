@@ -454,6 +454,15 @@ public abstract class MappedFieldType extends FieldType {
         this.eagerGlobalOrdinals = eagerGlobalOrdinals;
     }
 
+    /**
+     * Whether the global field data of this field, see {@link org.elasticsearch.index.fielddata.IndexFieldData.Global}, is
+     * loaded by the warmer when the shard is refreshed rather than by the first search that needs it. This is the case for
+     * fields with {@link #eagerGlobalOrdinals()} and for field data that is too expensive to build at search time.
+     */
+    public boolean eagerGlobalFieldData() {
+        return eagerGlobalOrdinals();
+    }
+
     /** Return a {@link DocValueFormat} that can be used to display and parse
      *  values as returned by the fielddata API.
      *  The default implementation returns a {@link DocValueFormat#RAW}. */
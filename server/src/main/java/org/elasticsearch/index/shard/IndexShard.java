@@ -734,29 +734,82 @@ public class IndexShard extends AbstractIndexShardComponent implements IndicesCl
                                                            long ifSeqNo, long ifPrimaryTerm, long autoGeneratedTimestamp,
                                                            boolean isRetry)
         throws IOException {
+        return applyIndexOperationOnPrimary(version, versionType, sourceToParse, ifSeqNo, ifPrimaryTerm, autoGeneratedTimestamp, isRetry,
+            null);
+    }
+
+    /**
+     * Applies an index operation on the primary, reusing the given document if it was parsed with the current mapping.
+     *
+     * @param preParsed the document of the operation as parsed by {@link #preParseIndexOperation(SourceToParse)}, or {@code null}
+     *                  to parse the document here
+     */
+    public Engine.IndexResult applyIndexOperationOnPrimary(long version, VersionType versionType, SourceToParse sourceToParse,
+                                                           long ifSeqNo, long ifPrimaryTerm, long autoGeneratedTimestamp,
+                                                           boolean isRetry, @Nullable PreParsedDocument preParsed)
+        throws IOException {
         assert versionType.validateVersionForWrites(version);
         return applyIndexOperation(getEngine(), UNASSIGNED_SEQ_NO, getOperationPrimaryTerm(), version, versionType, ifSeqNo,
-            ifPrimaryTerm, autoGeneratedTimestamp, isRetry, Engine.Operation.Origin.PRIMARY, sourceToParse);
+            ifPrimaryTerm, autoGeneratedTimestamp, isRetry, Engine.Operation.Origin.PRIMARY, sourceToParse, preParsed);
     }
 
     public Engine.IndexResult applyIndexOperationOnReplica(long seqNo, long opPrimaryTerm, long version, long autoGeneratedTimeStamp,
         boolean isRetry, SourceToParse sourceToParse)
         throws IOException {
         return applyIndexOperation(getEngine(), seqNo, opPrimaryTerm, version, null, UNASSIGNED_SEQ_NO, 0,
-            autoGeneratedTimeStamp, isRetry, Engine.Operation.Origin.REPLICA, sourceToParse);
+            autoGeneratedTimeStamp, isRetry, Engine.Operation.Origin.REPLICA, sourceToParse, null);
+    }
+
+    /**
+     * Parses the document of an index operation against the current mapping without executing the operation. Parsing doesn't depend
+     * on the state of the engine, so this may be called concurrently for many operations ahead of applying them in order with
+     * {@link #applyIndexOperationOnPrimary(long, VersionType, SourceToParse, long, long, long, boolean, PreParsedDocument)}.
+     *
+     * @return the parsed document, or {@code null} if the document must be parsed when the operation is applied, which is the
+     *         case if parsing failed or requires a mapping update so that failures and mapping updates are handled in order
+     */
+    @Nullable
+    public PreParsedDocument preParseIndexOperation(SourceToParse sourceToParse) {
+        final DocumentMapper mapper = mapperService.documentMapper();
+        if (mapper == null) {
+            return null;
+        }
+        final long startTime = System.nanoTime();
+        final ParsedDocument doc;
+        try {
+            doc = mapper.parse(sourceToParse);
+        } catch (Exception e) {
+            return null;
+        }
+        if (doc.dynamicMappingsUpdate() != null) {
+            return null;
+        }
+        return new PreParsedDocument(mapper, doc, System.nanoTime() - startTime);
     }
 
     private Engine.IndexResult applyIndexOperation(Engine engine, long seqNo, long opPrimaryTerm, long version,
                                                    @Nullable VersionType versionType, long ifSeqNo, long ifPrimaryTerm,
                                                    long autoGeneratedTimeStamp, boolean isRetry, Engine.Operation.Origin origin,
-                                                   SourceToParse sourceToParse) throws IOException {
+                                                   SourceToParse sourceToParse, @Nullable PreParsedDocument preParsed) throws IOException {
         assert opPrimaryTerm <= getOperationPrimaryTerm()
                 : "op term [ " + opPrimaryTerm + " ] > shard term [" + getOperationPrimaryTerm() + "]";
         ensureWriteAllowed(origin);
         Engine.Index operation;
+        final long parseTimeInNanos;
         try {
-            operation = prepareIndex(docMapper(), sourceToParse,
-                seqNo, opPrimaryTerm, version, versionType, origin, autoGeneratedTimeStamp, isRetry, ifSeqNo, ifPrimaryTerm);
+            if (preParsed != null && preParsed.mapper() == mapperService.documentMapper()) {
+                assert preParsed.document().id().equals(sourceToParse.id());
+                parseTimeInNanos = preParsed.parseTimeInNanos();
+                // the start time is moved back by the parsing time so that index times include parsing either way; they
+                // don't include the time that the pre-parsed document waited for the rest of the bulk items to be parsed
+                operation = newIndexOperation(preParsed.document(), System.nanoTime() - parseTimeInNanos, seqNo, opPrimaryTerm,
+                    version, versionType, origin, autoGeneratedTimeStamp, isRetry, ifSeqNo, ifPrimaryTerm);
+            } else {
+                // the document was parsed against an older mapping, parse it again
+                operation = prepareIndex(docMapper(), sourceToParse,
+                    seqNo, opPrimaryTerm, version, versionType, origin, autoGeneratedTimeStamp, isRetry, ifSeqNo, ifPrimaryTerm);
+                parseTimeInNanos = System.nanoTime() - operation.startTime();
+            }
             Mapping update = operation.parsedDoc().dynamicMappingsUpdate();
             if (update != null) {
                 return new Engine.IndexResult(update);
@@ -770,6 +823,9 @@ public class IndexShard extends AbstractIndexShardComponent implements IndicesCl
             return new Engine.IndexResult(e, version, opPrimaryTerm, seqNo);
         }
 
+        if (origin.isRecovery() == false) {
+            internalIndexingStats.parsed(parseTimeInNanos);
+        }
         return index(engine, operation);
     }
 
@@ -782,6 +838,13 @@ public class IndexShard extends AbstractIndexShardComponent implements IndicesCl
         if (docMapper.getMapping() != null) {
             doc.addDynamicMappingsUpdate(docMapper.getMapping());
         }
+        return newIndexOperation(doc, startTime, seqNo, primaryTerm, version, versionType, origin, autoGeneratedIdTimestamp, isRetry,
+            ifSeqNo, ifPrimaryTerm);
+    }
+
+    private static Engine.Index newIndexOperation(ParsedDocument doc, long startTime, long seqNo, long primaryTerm, long version,
+                                                  VersionType versionType, Engine.Operation.Origin origin,
+                                                  long autoGeneratedIdTimestamp, boolean isRetry, long ifSeqNo, long ifPrimaryTerm) {
         Term uid = new Term(IdFieldMapper.NAME, Uid.encodeId(doc.id()));
         return new Engine.Index(uid, doc, seqNo, primaryTerm, version, versionType, origin, startTime, autoGeneratedIdTimestamp, isRetry,
             ifSeqNo, ifPrimaryTerm);
@@ -1472,7 +1535,7 @@ public class IndexShard extends AbstractIndexShardComponent implements IndicesCl
                 result = applyIndexOperation(engine, index.seqNo(), index.primaryTerm(), index.version(),
                     versionType, UNASSIGNED_SEQ_NO, 0, index.getAutoGeneratedIdTimestamp(), true, origin,
                     new SourceToParse(shardId.getIndexName(), index.id(), index.source(),
-                        XContentHelper.xContentType(index.source()), index.routing()));
+                        XContentHelper.xContentType(index.source()), index.routing()), null);
                 break;
             case DELETE:
                 final Translog.Delete delete = (Translog.Delete) operation;
@@ -38,6 +38,7 @@ public class IndexingStats implements Writeable, ToXContentFragment {
 
         private long indexCount;
         private long indexTimeInMillis;
+        private long parseTimeInMillis;
         private long indexCurrent;
         private long indexFailedCount;
         private long deleteCount;
@@ -60,12 +61,23 @@ public class IndexingStats implements Writeable, ToXContentFragment {
             noopUpdateCount = in.readVLong();
             isThrottled = in.readBoolean();
             throttleTimeInMillis = in.readLong();
+            if (in.getVersion().onOrAfter(Version.V_8_0_0)) {
+                parseTimeInMillis = in.readVLong();
+            }
         }
 
         public Stats(long indexCount, long indexTimeInMillis, long indexCurrent, long indexFailedCount, long deleteCount,
                         long deleteTimeInMillis, long deleteCurrent, long noopUpdateCount, boolean isThrottled, long throttleTimeInMillis) {
+            this(indexCount, indexTimeInMillis, 0, indexCurrent, indexFailedCount, deleteCount, deleteTimeInMillis, deleteCurrent,
+                noopUpdateCount, isThrottled, throttleTimeInMillis);
+        }
+
+        public Stats(long indexCount, long indexTimeInMillis, long parseTimeInMillis, long indexCurrent, long indexFailedCount,
+                     long deleteCount, long deleteTimeInMillis, long deleteCurrent, long noopUpdateCount, boolean isThrottled,
+                     long throttleTimeInMillis) {
             this.indexCount = indexCount;
             this.indexTimeInMillis = indexTimeInMillis;
+            this.parseTimeInMillis = parseTimeInMillis;
             this.indexCurrent = indexCurrent;
             this.indexFailedCount = indexFailedCount;
             this.deleteCount = deleteCount;
@@ -79,6 +91,7 @@ public class IndexingStats implements Writeable, ToXContentFragment {
         public void add(Stats stats) {
             indexCount += stats.indexCount;
             indexTimeInMillis += stats.indexTimeInMillis;
+            parseTimeInMillis += stats.parseTimeInMillis;
             indexCurrent += stats.indexCurrent;
             indexFailedCount += stats.indexFailedCount;
 
@@ -108,6 +121,11 @@ public class IndexingStats implements Writeable, ToXContentFragment {
          */
         public TimeValue getIndexTime() { return new TimeValue(indexTimeInMillis); }
 
+        /**
+         * The total amount of time spent on parsing the documents of index operations, which is part of {@link #getIndexTime()}.
+         */
+        public TimeValue getParseTime() { return new TimeValue(parseTimeInMillis); }
+
         /**
          * Returns the currently in-flight indexing operations.
          */
@@ -158,13 +176,16 @@ public class IndexingStats implements Writeable, ToXContentFragment {
             out.writeVLong(noopUpdateCount);
             out.writeBoolean(isThrottled);
             out.writeLong(throttleTimeInMillis);
-
+            if (out.getVersion().onOrAfter(Version.V_8_0_0)) {
+                out.writeVLong(parseTimeInMillis);
+            }
         }
 
         @Override
         public XContentBuilder toXContent(XContentBuilder builder, Params params) throws IOException {
             builder.field(Fields.INDEX_TOTAL, indexCount);
             builder.humanReadableField(Fields.INDEX_TIME_IN_MILLIS, Fields.INDEX_TIME, getIndexTime());
+            builder.humanReadableField(Fields.PARSE_TIME_IN_MILLIS, Fields.PARSE_TIME, getParseTime());
             builder.field(Fields.INDEX_CURRENT, indexCurrent);
             builder.field(Fields.INDEX_FAILED, indexFailedCount);
 
@@ -232,6 +253,8 @@ public class IndexingStats implements Writeable, ToXContentFragment {
         static final String INDEX_TOTAL = "index_total";
         static final String INDEX_TIME = "index_time";
         static final String INDEX_TIME_IN_MILLIS = "index_time_in_millis";
+        static final String PARSE_TIME = "parse_time";
+        static final String PARSE_TIME_IN_MILLIS = "parse_time_in_millis";
         static final String INDEX_CURRENT = "index_current";
         static final String INDEX_FAILED = "index_failed";
         static final String DELETE_TOTAL = "delete_total";
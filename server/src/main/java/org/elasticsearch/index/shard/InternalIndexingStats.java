@@ -115,8 +115,16 @@ final class InternalIndexingStats implements IndexingOperationListener {
         totalStats.noopUpdates.inc();
     }
 
+    /**
+     * Records the time spent parsing the document of an index operation.
+     */
+    void parsed(long tookInNanos) {
+        totalStats.parseTime.inc(tookInNanos);
+    }
+
     static class StatsHolder {
         private final MeanMetric indexMetric = new MeanMetric();
+        private final CounterMetric parseTime = new CounterMetric();
         private final MeanMetric deleteMetric = new MeanMetric();
         private final CounterMetric indexCurrent = new CounterMetric();
         private final CounterMetric indexFailed = new CounterMetric();
@@ -125,7 +133,8 @@ final class InternalIndexingStats implements IndexingOperationListener {
 
         IndexingStats.Stats stats(boolean isThrottled, long currentThrottleMillis) {
             return new IndexingStats.Stats(
-                indexMetric.count(), TimeUnit.NANOSECONDS.toMillis(indexMetric.sum()), indexCurrent.count(), indexFailed.count(),
+                indexMetric.count(), TimeUnit.NANOSECONDS.toMillis(indexMetric.sum()), TimeUnit.NANOSECONDS.toMillis(parseTime.count()),
+                indexCurrent.count(), indexFailed.count(),
                 deleteMetric.count(), TimeUnit.NANOSECONDS.toMillis(deleteMetric.sum()), deleteCurrent.count(),
                 noopUpdates.count(), isThrottled, TimeUnit.MILLISECONDS.toMillis(currentThrottleMillis));
         }
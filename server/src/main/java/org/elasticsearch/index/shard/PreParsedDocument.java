@@ -0,0 +1,54 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.elasticsearch.index.shard;
+
+import org.elasticsearch.index.mapper.DocumentMapper;
+import org.elasticsearch.index.mapper.ParsedDocument;
+
+/**
+ * The document of an index operation that was parsed ahead of applying the operation, see
+ * {@link IndexShard#preParseIndexOperation}. The document is only used if the mapping didn't change in the meantime.
+ */
+public final class PreParsedDocument {
+
+    private final DocumentMapper mapper;
+    private final ParsedDocument document;
+    private final long parseTimeInNanos;
+
+    PreParsedDocument(DocumentMapper mapper, ParsedDocument document, long parseTimeInNanos) {
+        this.mapper = mapper;
+        this.document = document;
+        this.parseTimeInNanos = parseTimeInNanos;
+    }
+
+    /** the mapper that parsed the document */
+    DocumentMapper mapper() {
+        return mapper;
+    }
+
+    ParsedDocument document() {
+        return document;
+    }
+
+    long parseTimeInNanos() {
+        return parseTimeInNanos;
+    }
+}
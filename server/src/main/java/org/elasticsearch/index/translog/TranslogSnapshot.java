@@ -41,10 +41,22 @@ final class TranslogSnapshot extends BaseTranslogReader {
      * Create a snapshot of translog file channel.
      */
     TranslogSnapshot(final BaseTranslogReader reader, final long length) {
+        this(reader, length, reader.totalOperations(), reader.getCheckpoint());
+    }
+
+    /**
+     * Creates a snapshot of the operations that are covered by the given checkpoint, which is useful if operations may be appended to
+     * the reader concurrently.
+     */
+    TranslogSnapshot(final BaseTranslogReader reader, final Checkpoint checkpoint) {
+        this(reader, checkpoint.offset, checkpoint.numOps, checkpoint);
+    }
+
+    private TranslogSnapshot(final BaseTranslogReader reader, final long length, final int totalOperations, final Checkpoint checkpoint) {
         super(reader.generation, reader.channel, reader.path, reader.header);
         this.length = length;
-        this.totalOperations = reader.totalOperations();
-        this.checkpoint = reader.getCheckpoint();
+        this.totalOperations = totalOperations;
+        this.checkpoint = checkpoint;
         this.reusableBuffer = ByteBuffer.allocate(1024);
         this.readOperations = 0;
         this.position = reader.getFirstOperationOffset();
@@ -18,6 +18,7 @@
  */
 package org.elasticsearch.index.translog;
 
+import org.elasticsearch.Version;
 import org.elasticsearch.common.Strings;
 import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.io.stream.StreamOutput;
@@ -35,6 +36,8 @@ public class TranslogStats implements Writeable, ToXContentFragment {
     private long uncommittedSizeInBytes;
     private int  uncommittedOperations;
     private long earliestLastModifiedAge;
+    private long syncCount;
+    private long syncedOperations;
 
     public TranslogStats() {
     }
@@ -45,10 +48,19 @@ public class TranslogStats implements Writeable, ToXContentFragment {
         uncommittedOperations = in.readVInt();
         uncommittedSizeInBytes = in.readVLong();
         earliestLastModifiedAge = in.readVLong();
+        if (in.getVersion().onOrAfter(Version.V_8_0_0)) {
+            syncCount = in.readVLong();
+            syncedOperations = in.readVLong();
+        }
     }
 
     public TranslogStats(int numberOfOperations, long translogSizeInBytes, int uncommittedOperations, long uncommittedSizeInBytes,
                          long earliestLastModifiedAge) {
+        this(numberOfOperations, translogSizeInBytes, uncommittedOperations, uncommittedSizeInBytes, earliestLastModifiedAge, 0, 0);
+    }
+
+    public TranslogStats(int numberOfOperations, long translogSizeInBytes, int uncommittedOperations, long uncommittedSizeInBytes,
+                         long earliestLastModifiedAge, long syncCount, long syncedOperations) {
         if (numberOfOperations < 0) {
             throw new IllegalArgumentException("numberOfOperations must be >= 0");
         }
@@ -64,11 +76,19 @@ public class TranslogStats implements Writeable, ToXContentFragment {
         if (earliestLastModifiedAge < 0) {
             throw new IllegalArgumentException("earliestLastModifiedAge must be >= 0");
         }
+        if (syncCount < 0) {
+            throw new IllegalArgumentException("syncCount must be >= 0");
+        }
+        if (syncedOperations < 0) {
+            throw new IllegalArgumentException("syncedOperations must be >= 0");
+        }
         this.numberOfOperations = numberOfOperations;
         this.translogSizeInBytes = translogSizeInBytes;
         this.uncommittedSizeInBytes = uncommittedSizeInBytes;
         this.uncommittedOperations = uncommittedOperations;
         this.earliestLastModifiedAge = earliestLastModifiedAge;
+        this.syncCount = syncCount;
+        this.syncedOperations = syncedOperations;
     }
 
     public void add(TranslogStats translogStats) {
@@ -82,6 +102,8 @@ public class TranslogStats implements Writeable, ToXContentFragment {
         this.uncommittedSizeInBytes += translogStats.uncommittedSizeInBytes;
         this.earliestLastModifiedAge =
             Math.min(this.earliestLastModifiedAge, translogStats.earliestLastModifiedAge);
+        this.syncCount += translogStats.syncCount;
+        this.syncedOperations += translogStats.syncedOperations;
     }
 
     public long getTranslogSizeInBytes() {
@@ -104,6 +126,19 @@ public class TranslogStats implements Writeable, ToXContentFragment {
 
     public long getEarliestLastModifiedAge() { return earliestLastModifiedAge; }
 
+    /** the number of times the translog was fsynced */
+    public long getSyncCount() {
+        return syncCount;
+    }
+
+    /**
+     * the number of operations that were persisted by fsyncs, concurrent writes are synced as a group so that
+     * the ratio of synced operations to syncs is the number of operations that a fsync covers on average
+     */
+    public long getSyncedOperations() {
+        return syncedOperations;
+    }
+
     @Override
     public XContentBuilder toXContent(XContentBuilder builder, Params params) throws IOException {
         builder.startObject("translog");
@@ -112,6 +147,8 @@ public class TranslogStats implements Writeable, ToXContentFragment {
         builder.field("uncommitted_operations", uncommittedOperations);
         builder.humanReadableField("uncommitted_size_in_bytes", "uncommitted_size", new ByteSizeValue(uncommittedSizeInBytes));
         builder.field("earliest_last_modified_age", earliestLastModifiedAge);
+        builder.field("sync_count", syncCount);
+        builder.field("synced_operations", syncedOperations);
         builder.endObject();
         return builder;
     }
@@ -128,5 +165,9 @@ public class TranslogStats implements Writeable, ToXContentFragment {
         out.writeVInt(uncommittedOperations);
         out.writeVLong(uncommittedSizeInBytes);
         out.writeVLong(earliestLastModifiedAge);
+        if (out.getVersion().onOrAfter(Version.V_8_0_0)) {
+            out.writeVLong(syncCount);
+            out.writeVLong(syncedOperations);
+        }
     }
 }
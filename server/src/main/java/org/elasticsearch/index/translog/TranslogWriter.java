@@ -22,20 +22,21 @@ package org.elasticsearch.index.translog;
 import com.carrotsearch.hppc.LongArrayList;
 import com.carrotsearch.hppc.procedures.LongProcedure;
 import org.apache.lucene.store.AlreadyClosedException;
+import org.apache.lucene.util.BytesRef;
+import org.apache.lucene.util.BytesRefIterator;
 import org.elasticsearch.core.internal.io.IOUtils;
 import org.elasticsearch.Assertions;
 import org.elasticsearch.common.bytes.BytesArray;
 import org.elasticsearch.common.bytes.BytesReference;
 import org.elasticsearch.common.collect.Tuple;
 import org.elasticsearch.common.io.Channels;
+import org.elasticsearch.common.metrics.MeanMetric;
 import org.elasticsearch.common.unit.ByteSizeValue;
 import org.elasticsearch.index.seqno.SequenceNumbers;
 import org.elasticsearch.index.shard.ShardId;
 
-import java.io.BufferedOutputStream;
 import java.io.Closeable;
 import java.io.IOException;
-import java.io.OutputStream;
 import java.nio.ByteBuffer;
 import java.nio.channels.FileChannel;
 import java.nio.file.Path;
@@ -43,38 +44,69 @@ import java.nio.file.StandardOpenOption;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.function.LongConsumer;
 import java.util.function.LongSupplier;
 
+/**
+ * Appends operations to a translog generation.
+ * <p>
+ * Operations are not serialized on a single lock: each thread reserves space for its operation in the current {@link WriteBuffer}
+ * with a compare-and-set and then copies its bytes concurrently with other threads. Full buffers are sealed and queued, and written
+ * to the channel in order by a single thread at a time under {@link #writeLock}. Syncs are group commits: the thread that holds
+ * {@link #syncLock} writes and fsyncs everything that was added so far, so that threads waiting for the lock find their locations
+ * already synced and return without an fsync of their own.
+ */
 public class TranslogWriter extends BaseTranslogReader implements Closeable {
+    /* the expected minimum size of an operation, which sizes the sequence number slots of a buffer; a buffer with no free slot is rolled */
+    private static final int MIN_OPERATION_SIZE_IN_BYTES = 32;
+
     private final ShardId shardId;
     private final ChannelFactory channelFactory;
     // the last checkpoint that was written when the translog was last synced
     private volatile Checkpoint lastSyncedCheckpoint;
-    /* the number of translog operations written to this file */
-    private volatile int operationCounter;
+    /* the number of translog operations added to this file */
+    private final AtomicInteger operationCounter = new AtomicInteger();
     /* if we hit an exception that we can't recover from we assign it to this var and ship it with every AlreadyClosedException we throw */
     private final TragicExceptionHolder tragedy;
-    /* A buffered outputstream what writes to the writers channel */
-    private final OutputStream outputStream;
-    /* the total offset of this file including the bytes written to the file as well as into the buffer */
-    private volatile long totalOffset;
-
-    private volatile long minSeqNo;
-    private volatile long maxSeqNo;
+    /* the size of the buffers that operations are copied to before being written to the channel */
+    private final int bufferSize;
+    /* the buffer that operations are currently added to, it covers the end of this file */
+    private volatile WriteBuffer buffer;
+    /* buffers that are full or were sealed by a sync, in offset order, that still need to be written to the channel */
+    private final Queue<WriteBuffer> sealedBuffers = new ConcurrentLinkedQueue<>();
+    /* the last buffer that was written to the channel, whose arrays are reused by the next buffer that gets rolled so that writes
+     * usually alternate between two sets of arrays rather than allocating new ones for each buffer */
+    private final AtomicReference<WriteBuffer> writtenBuffer = new AtomicReference<>();
+
+    private final AtomicLong minSeqNo;
+    private final AtomicLong maxSeqNo;
+
+    /* the state of the bytes that were written to the channel, guarded by writeLock */
+    private volatile long writtenOffset;
+    private int writtenOperations;
+    private long writtenMinSeqNo;
+    private long writtenMaxSeqNo;
+    private LongArrayList nonFsyncedSequenceNumbers;
 
     private final LongSupplier globalCheckpointSupplier;
     private final LongSupplier minTranslogGenerationSupplier;
 
     // callback that's called whenever an operation with a given sequence number is successfully persisted.
     private final LongConsumer persistedSequenceNumberConsumer;
+    // tracks the number of fsyncs and how many operations they persisted
+    private final MeanMetric syncMetric;
 
     protected final AtomicBoolean closed = new AtomicBoolean(false);
-    // lock order synchronized(syncLock) -> synchronized(this)
+    // lock order syncLock -> writeLock
     private final Object syncLock = new Object();
-
-    private LongArrayList nonFsyncedSequenceNumbers;
+    private final ReentrantLock writeLock = new ReentrantLock();
 
     private final Map<Long, Tuple<BytesReference, Exception>> seenSequenceNumbers;
 
@@ -87,7 +119,8 @@ public class TranslogWriter extends BaseTranslogReader implements Closeable {
         final ByteSizeValue bufferSize,
         final LongSupplier globalCheckpointSupplier, LongSupplier minTranslogGenerationSupplier, TranslogHeader header,
         TragicExceptionHolder tragedy,
-        final LongConsumer persistedSequenceNumberConsumer)
+        final LongConsumer persistedSequenceNumberConsumer,
+        final MeanMetric syncMetric)
             throws
             IOException {
         super(initialCheckpoint.generation, channel, path, header);
@@ -97,17 +130,21 @@ public class TranslogWriter extends BaseTranslogReader implements Closeable {
         this.shardId = shardId;
         this.channelFactory = channelFactory;
         this.minTranslogGenerationSupplier = minTranslogGenerationSupplier;
-        this.outputStream = new BufferedChannelOutputStream(java.nio.channels.Channels.newOutputStream(channel), bufferSize.bytesAsInt());
+        this.bufferSize = bufferSize.bytesAsInt();
+        this.buffer = new WriteBuffer(initialCheckpoint.offset, this.bufferSize);
         this.lastSyncedCheckpoint = initialCheckpoint;
-        this.totalOffset = initialCheckpoint.offset;
+        this.writtenOffset = initialCheckpoint.offset;
         assert initialCheckpoint.minSeqNo == SequenceNumbers.NO_OPS_PERFORMED : initialCheckpoint.minSeqNo;
-        this.minSeqNo = initialCheckpoint.minSeqNo;
+        this.minSeqNo = new AtomicLong(initialCheckpoint.minSeqNo);
+        this.writtenMinSeqNo = initialCheckpoint.minSeqNo;
         assert initialCheckpoint.maxSeqNo == SequenceNumbers.NO_OPS_PERFORMED : initialCheckpoint.maxSeqNo;
-        this.maxSeqNo = initialCheckpoint.maxSeqNo;
+        this.maxSeqNo = new AtomicLong(initialCheckpoint.maxSeqNo);
+        this.writtenMaxSeqNo = initialCheckpoint.maxSeqNo;
         assert initialCheckpoint.trimmedAboveSeqNo == SequenceNumbers.UNASSIGNED_SEQ_NO : initialCheckpoint.trimmedAboveSeqNo;
         this.globalCheckpointSupplier = globalCheckpointSupplier;
         this.nonFsyncedSequenceNumbers = new LongArrayList(64);
         this.persistedSequenceNumberConsumer = persistedSequenceNumberConsumer;
+        this.syncMetric = syncMetric;
         this.seenSequenceNumbers = Assertions.ENABLED ? new HashMap<>() : null;
         this.tragedy = tragedy;
     }
@@ -115,7 +152,8 @@ public class TranslogWriter extends BaseTranslogReader implements Closeable {
     public static TranslogWriter create(ShardId shardId, String translogUUID, long fileGeneration, Path file, ChannelFactory channelFactory,
                                         ByteSizeValue bufferSize, final long initialMinTranslogGen, long initialGlobalCheckpoint,
                                         final LongSupplier globalCheckpointSupplier, final LongSupplier minTranslogGenerationSupplier,
-                                        final long primaryTerm, TragicExceptionHolder tragedy, LongConsumer persistedSequenceNumberConsumer)
+                                        final long primaryTerm, TragicExceptionHolder tragedy, LongConsumer persistedSequenceNumberConsumer,
+                                        MeanMetric syncMetric)
         throws IOException {
         final FileChannel channel = channelFactory.open(file);
         try {
@@ -136,7 +174,8 @@ public class TranslogWriter extends BaseTranslogReader implements Closeable {
                 writerGlobalCheckpointSupplier = globalCheckpointSupplier;
             }
             return new TranslogWriter(channelFactory, shardId, checkpoint, channel, file, bufferSize,
-                writerGlobalCheckpointSupplier, minTranslogGenerationSupplier, header, tragedy, persistedSequenceNumberConsumer);
+                writerGlobalCheckpointSupplier, minTranslogGenerationSupplier, header, tragedy, persistedSequenceNumberConsumer,
+                syncMetric);
         } catch (Exception exception) {
             // if we fail to bake the file-generation into the checkpoint we stick with the file and once we recover and that
             // file exists we remove it. We only apply this logic to the checkpoint.generation+1 any other file with a higher generation
@@ -155,46 +194,140 @@ public class TranslogWriter extends BaseTranslogReader implements Closeable {
         }
     }
 
-    /**
-     * add the given bytes to the translog and return the location they were written at
-     */
-
     /**
      * Add the given bytes to the translog with the specified sequence number; returns the location the bytes were written to.
+     * This may be called concurrently: threads only contend on reserving space in the current buffer, not on copying their bytes.
      *
      * @param data  the bytes to write
      * @param seqNo the sequence number associated with the operation
      * @return the location the bytes were written to
      * @throws IOException if writing to the translog resulted in an I/O exception
      */
-    public synchronized Translog.Location add(final BytesReference data, final long seqNo) throws IOException {
+    public Translog.Location add(final BytesReference data, final long seqNo) throws IOException {
         ensureOpen();
-        final long offset = totalOffset;
+        final int length = data.length();
+        WriteBuffer target;
+        long reservation;
+        while (true) {
+            target = buffer;
+            reservation = target.tryReserve(length);
+            if (reservation >= 0) {
+                break;
+            }
+            rollBuffer(target, length);
+        }
+        final int position = WriteBuffer.bytes(reservation);
+        final int slot = WriteBuffer.operations(reservation);
         try {
-            data.writeTo(outputStream);
+            final BytesRefIterator iterator = data.iterator();
+            int copied = 0;
+            for (BytesRef bytes = iterator.next(); bytes != null; bytes = iterator.next()) {
+                System.arraycopy(bytes.bytes, bytes.offset, target.bytes, position + copied, bytes.length);
+                copied += bytes.length;
+            }
         } catch (final Exception ex) {
             closeWithTragicEvent(ex);
             throw ex;
+        } finally {
+            // always complete the reservation, the buffer would never be written otherwise
+            target.complete(slot, seqNo);
         }
-        totalOffset += data.length();
 
-        if (minSeqNo == SequenceNumbers.NO_OPS_PERFORMED) {
-            assert operationCounter == 0;
-        }
-        if (maxSeqNo == SequenceNumbers.NO_OPS_PERFORMED) {
-            assert operationCounter == 0;
-        }
+        minSeqNo.accumulateAndGet(seqNo, SequenceNumbers::min);
+        maxSeqNo.accumulateAndGet(seqNo, SequenceNumbers::max);
+        operationCounter.incrementAndGet();
 
-        minSeqNo = SequenceNumbers.min(minSeqNo, seqNo);
-        maxSeqNo = SequenceNumbers.max(maxSeqNo, seqNo);
+        assert assertNoSeqNumberConflict(seqNo, data);
 
-        nonFsyncedSequenceNumbers.add(seqNo);
+        return new Translog.Location(generation, target.startOffset + position, length);
+    }
 
-        operationCounter++;
+    /**
+     * Seals the given buffer, if not sealed already, and makes sure that a new buffer that can hold at least {@code length} bytes
+     * replaced it as the current buffer. The thread that seals the buffer also writes the sealed buffers to the channel.
+     */
+    private void rollBuffer(final WriteBuffer full, final int length) throws IOException {
+        final long sealed = full.seal();
+        if (sealed >= 0) {
+            final int sealedBytes = WriteBuffer.bytes(sealed);
+            if (sealedBytes > 0) {
+                full.sealedOperations = WriteBuffer.operations(sealed);
+                sealedBuffers.add(full);
+            }
+            // enqueue the sealed buffer before publishing its successor so that the queue stays in offset order
+            buffer = newBuffer(full.startOffset + sealedBytes, Math.max(bufferSize, length));
+            if (sealedBytes > 0) {
+                writeSealedBuffers();
+            }
+        } else {
+            // another thread sealed this buffer and is about to publish its successor
+            while (buffer == full) {
+                ensureOpen();
+                Thread.yield();
+            }
+        }
+    }
 
-        assert assertNoSeqNumberConflict(seqNo, data);
+    private WriteBuffer newBuffer(final long startOffset, final int capacity) {
+        final WriteBuffer written = writtenBuffer.getAndSet(null);
+        if (written != null) {
+            if (written.bytes.length >= capacity) {
+                return new WriteBuffer(startOffset, written);
+            }
+            writtenBuffer.compareAndSet(null, written);
+        }
+        return new WriteBuffer(startOffset, capacity);
+    }
+
+    /**
+     * Writes all sealed buffers to the channel, in order, waiting for operations that are still being copied to them.
+     */
+    private void writeSealedBuffers() throws IOException {
+        writeLock.lock();
+        try {
+            WriteBuffer sealed;
+            while ((sealed = sealedBuffers.peek()) != null) {
+                sealed.awaitCompletion();
+                ensureOpen();
+                final int length = (int) (sealed.sealedEnd() - sealed.startOffset);
+                assert sealed.startOffset == writtenOffset :
+                    "expected buffer at [" + writtenOffset + "] but got [" + sealed.startOffset + "]";
+                Channels.writeToChannel(sealed.bytes, 0, length, channel);
+                for (int i = 0; i < sealed.sealedOperations; i++) {
+                    final long seqNo = sealed.seqNos[i];
+                    writtenMinSeqNo = SequenceNumbers.min(writtenMinSeqNo, seqNo);
+                    writtenMaxSeqNo = SequenceNumbers.max(writtenMaxSeqNo, seqNo);
+                    nonFsyncedSequenceNumbers.add(seqNo);
+                }
+                writtenOperations += sealed.sealedOperations;
+                writtenOffset = sealed.sealedEnd();
+                sealedBuffers.poll();
+                // all operations were copied to this buffer, so nothing reads or writes its arrays anymore; buffers that were sized
+                // for a large operation are left to the garbage collector
+                if (sealed.bytes.length == bufferSize) {
+                    writtenBuffer.set(sealed);
+                }
+            }
+        } catch (final Exception ex) {
+            closeWithTragicEvent(ex);
+            throw ex;
+        } finally {
+            writeLock.unlock();
+        }
+    }
 
-        return new Translog.Location(generation, offset, data.length());
+    /**
+     * Seals the current buffer and writes all buffered operations to the channel.
+     */
+    private void flushBuffers() throws IOException {
+        final WriteBuffer current = buffer;
+        if (current.isEmpty()) {
+            writeSealedBuffers();
+        } else {
+            rollBuffer(current, 0);
+            // if another thread sealed the current buffer, it may not have written it yet
+            writeSealedBuffers();
+        }
     }
 
     private synchronized boolean assertNoSeqNumberConflict(long seqNo, BytesReference data) throws IOException {
@@ -272,26 +405,44 @@ public class TranslogWriter extends BaseTranslogReader implements Closeable {
      * checkpoint has not yet been fsynced
      */
     public boolean syncNeeded() {
-        return totalOffset != lastSyncedCheckpoint.offset ||
+        return sizeInBytes() != lastSyncedCheckpoint.offset ||
             globalCheckpointSupplier.getAsLong() != lastSyncedCheckpoint.globalCheckpoint ||
             minTranslogGenerationSupplier.getAsLong() != lastSyncedCheckpoint.minTranslogGeneration;
     }
 
     @Override
     public int totalOperations() {
-        return operationCounter;
+        return operationCounter.get();
     }
 
+    /**
+     * Returns a checkpoint that covers all operations added so far. Operations may be added concurrently, so the offset, the number
+     * of operations and the sequence number bounds are not necessarily consistent with each other. Use the last synced checkpoint for
+     * a consistent view of the file.
+     */
     @Override
-    synchronized Checkpoint getCheckpoint() {
-        return new Checkpoint(totalOffset, operationCounter, generation, minSeqNo, maxSeqNo,
+    Checkpoint getCheckpoint() {
+        return new Checkpoint(sizeInBytes(), operationCounter.get(), generation, minSeqNo.get(), maxSeqNo.get(),
             globalCheckpointSupplier.getAsLong(), minTranslogGenerationSupplier.getAsLong(),
             SequenceNumbers.UNASSIGNED_SEQ_NO);
     }
 
+    /**
+     * Returns a checkpoint that covers exactly the operations that were written to the channel. Must be called under the write lock.
+     */
+    private Checkpoint getWrittenCheckpoint() {
+        assert writeLock.isHeldByCurrentThread();
+        return new Checkpoint(writtenOffset, writtenOperations, generation, writtenMinSeqNo, writtenMaxSeqNo,
+            globalCheckpointSupplier.getAsLong(), minTranslogGenerationSupplier.getAsLong(),
+            SequenceNumbers.UNASSIGNED_SEQ_NO);
+    }
+
+    /**
+     * Returns the total offset of this file, including the bytes that were reserved in buffers but not written yet.
+     */
     @Override
     public long sizeInBytes() {
-        return totalOffset;
+        return buffer.reservedEnd();
     }
 
     /**
@@ -300,25 +451,19 @@ public class TranslogWriter extends BaseTranslogReader implements Closeable {
      * @throws IOException if any of the file operations resulted in an I/O exception
      */
     public TranslogReader closeIntoReader() throws IOException {
-        // make sure to acquire the sync lock first, to prevent dead locks with threads calling
-        // syncUpTo() , where the sync lock is acquired first, following by the synchronize(this)
-        //
-        // Note: While this is not strictly needed as this method is called while blocking all ops on the translog,
-        //       we do this to for correctness and preventing future issues.
+        // Note: this method is called while blocking all ops on the translog, so the sync below covers all operations
         synchronized (syncLock) {
-            synchronized (this) {
-                try {
-                    sync(); // sync before we close..
-                } catch (final Exception ex) {
-                    closeWithTragicEvent(ex);
-                    throw ex;
-                }
-                if (closed.compareAndSet(false, true)) {
-                    return new TranslogReader(getLastSyncedCheckpoint(), channel, path, header);
-                } else {
-                    throw new AlreadyClosedException("translog [" + getGeneration() + "] is already closed (path [" + path + "]",
-                            tragedy.get());
-                }
+            try {
+                sync(); // sync before we close..
+            } catch (final Exception ex) {
+                closeWithTragicEvent(ex);
+                throw ex;
+            }
+            if (closed.compareAndSet(false, true)) {
+                return new TranslogReader(getLastSyncedCheckpoint(), channel, path, header);
+            } else {
+                throw new AlreadyClosedException("translog [" + getGeneration() + "] is already closed (path [" + path + "]",
+                        tragedy.get());
             }
         }
     }
@@ -326,25 +471,19 @@ public class TranslogWriter extends BaseTranslogReader implements Closeable {
 
     @Override
     public TranslogSnapshot newSnapshot() {
-        // make sure to acquire the sync lock first, to prevent dead locks with threads calling
-        // syncUpTo() , where the sync lock is acquired first, following by the synchronize(this)
+        // hold the sync lock so that the last synced checkpoint is the one of the sync below, which covers all operations
+        // that were added before this call; operations that are added concurrently may or may not be part of the snapshot
         synchronized (syncLock) {
-            synchronized (this) {
-                ensureOpen();
-                try {
-                    sync();
-                } catch (IOException e) {
-                    throw new TranslogException(shardId, "exception while syncing before creating a snapshot", e);
-                }
-                return super.newSnapshot();
+            ensureOpen();
+            try {
+                sync();
+            } catch (IOException e) {
+                throw new TranslogException(shardId, "exception while syncing before creating a snapshot", e);
             }
+            return new TranslogSnapshot(this, getLastSyncedCheckpoint());
         }
     }
 
-    private long getWrittenOffset() throws IOException {
-        return channel.position();
-    }
-
     /**
      * Syncs the translog up to at least the given offset unless already synced
      *
@@ -358,20 +497,22 @@ public class TranslogWriter extends BaseTranslogReader implements Closeable {
                     // the lock we should check again since if this code is busy we might have fsynced enough already
                     final Checkpoint checkpointToSync;
                     final LongArrayList flushedSequenceNumbers;
-                    synchronized (this) {
+                    writeLock.lock();
+                    try {
                         ensureOpen();
-                        try {
-                            outputStream.flush();
-                            checkpointToSync = getCheckpoint();
-                            flushedSequenceNumbers = nonFsyncedSequenceNumbers;
-                            nonFsyncedSequenceNumbers = new LongArrayList(64);
-                        } catch (final Exception ex) {
-                            closeWithTragicEvent(ex);
-                            throw ex;
-                        }
+                        flushBuffers();
+                        checkpointToSync = getWrittenCheckpoint();
+                        flushedSequenceNumbers = nonFsyncedSequenceNumbers;
+                        nonFsyncedSequenceNumbers = new LongArrayList(64);
+                    } catch (final Exception ex) {
+                        closeWithTragicEvent(ex);
+                        throw ex;
+                    } finally {
+                        writeLock.unlock();
                     }
-                    // now do the actual fsync outside of the synchronized block such that
-                    // we can continue writing to the buffer etc.
+                    // now do the actual fsync outside of the write lock such that
+                    // we can continue writing to the buffer etc. Operations that are added meanwhile will be
+                    // synced as a group by the next thread that gets the sync lock.
                     try {
                         channel.force(false);
                         writeCheckpoint(channelFactory, path.getParent(), checkpointToSync);
@@ -380,6 +521,7 @@ public class TranslogWriter extends BaseTranslogReader implements Closeable {
                         throw ex;
                     }
                     flushedSequenceNumbers.forEach((LongProcedure) persistedSequenceNumberConsumer::accept);
+                    syncMetric.inc(flushedSequenceNumbers.size());
                     assert lastSyncedCheckpoint.offset <= checkpointToSync.offset :
                         "illegal state: " + lastSyncedCheckpoint.offset + " <= " + checkpointToSync.offset;
                     lastSyncedCheckpoint = checkpointToSync; // write protected by syncLock
@@ -393,16 +535,12 @@ public class TranslogWriter extends BaseTranslogReader implements Closeable {
     @Override
     protected void readBytes(ByteBuffer targetBuffer, long position) throws IOException {
         try {
-            if (position + targetBuffer.remaining() > getWrittenOffset()) {
-                synchronized (this) {
-                    // we only flush here if it's really really needed - try to minimize the impact of the read operation
-                    // in some cases ie. a tragic event we might still be able to read the relevant value
-                    // which is not really important in production but some test can make most strict assumptions
-                    // if we don't fail in this call unless absolutely necessary.
-                    if (position + targetBuffer.remaining() > getWrittenOffset()) {
-                        outputStream.flush();
-                    }
-                }
+            // we only flush here if it's really really needed - try to minimize the impact of the read operation
+            // in some cases ie. a tragic event we might still be able to read the relevant value
+            // which is not really important in production but some test can make most strict assumptions
+            // if we don't fail in this call unless absolutely necessary.
+            if (position + targetBuffer.remaining() > writtenOffset) {
+                flushBuffers();
             }
         } catch (final Exception ex) {
             closeWithTragicEvent(ex);
@@ -447,31 +585,107 @@ public class TranslogWriter extends BaseTranslogReader implements Closeable {
     }
 
 
-    private final class BufferedChannelOutputStream extends BufferedOutputStream {
+    /**
+     * A buffer that operations are copied to before being written to the channel. Threads reserve a range of bytes and a slot for
+     * the sequence number of their operation with a single compare-and-set on a packed state, and then copy their bytes without
+     * any further coordination. Once the buffer is sealed no more reservations are accepted, and it can be written as soon as all
+     * reservations have been completed.
+     */
+    private static final class WriteBuffer {
+
+        private static final long SEALED = Long.MIN_VALUE;
+
+        final long startOffset;
+        final byte[] bytes;
+        final long[] seqNos;
+        // the number of reserved operations in the upper half and of reserved bytes in the lower half, and whether this buffer is sealed
+        private final AtomicLong state = new AtomicLong();
+        private final AtomicInteger completedOperations = new AtomicInteger();
+        // set by the sealing thread before the buffer gets published to the writing thread through the sealed buffers queue
+        volatile int sealedOperations;
+
+        WriteBuffer(long startOffset, int capacity) {
+            this.startOffset = startOffset;
+            this.bytes = new byte[capacity];
+            this.seqNos = new long[Math.max(1, capacity / MIN_OPERATION_SIZE_IN_BYTES)];
+        }
 
-        BufferedChannelOutputStream(OutputStream out, int size) throws IOException {
-            super(out, size);
+        /**
+         * Creates a buffer that reuses the arrays of the given buffer, which must have been written already. Stale content is
+         * harmless since only the reserved bytes and the slots of completed operations are ever read.
+         */
+        WriteBuffer(long startOffset, WriteBuffer written) {
+            this.startOffset = startOffset;
+            this.bytes = written.bytes;
+            this.seqNos = written.seqNos;
         }
 
-        @Override
-        public synchronized void flush() throws IOException {
-            if (count > 0) {
-                try {
-                    ensureOpen();
-                    super.flush();
-                } catch (final Exception ex) {
-                    closeWithTragicEvent(ex);
-                    throw ex;
+        static int bytes(long state) {
+            return (int) state;
+        }
+
+        static int operations(long state) {
+            return (int) ((state & ~SEALED) >>> 32);
+        }
+
+        /**
+         * Reserves room for an operation of the given length, returning the state before the reservation, which holds the
+         * position of the operation in this buffer and its slot, or {@code -1} if the operation doesn't fit or the buffer is sealed.
+         */
+        long tryReserve(int length) {
+            while (true) {
+                final long current = state.get();
+                if ((current & SEALED) != 0 || (long) bytes(current) + length > bytes.length || operations(current) == seqNos.length) {
+                    return -1;
+                }
+                if (state.compareAndSet(current, current + (1L << 32) + length)) {
+                    return current;
                 }
             }
         }
 
-        @Override
-        public void close() throws IOException {
-            // the stream is intentionally not closed because
-            // closing it will close the FileChannel
-            throw new IllegalStateException("never close this stream");
+        void complete(int slot, long seqNo) {
+            seqNos[slot] = seqNo;
+            completedOperations.incrementAndGet();
+        }
+
+        /**
+         * Seals this buffer, returning the state at the time it was sealed, or {@code -1} if it was sealed already.
+         */
+        long seal() {
+            while (true) {
+                final long current = state.get();
+                if ((current & SEALED) != 0) {
+                    return -1;
+                }
+                if (state.compareAndSet(current, current | SEALED)) {
+                    return current;
+                }
+            }
+        }
+
+        boolean isEmpty() {
+            return bytes(state.get()) == 0;
+        }
+
+        long reservedEnd() {
+            return startOffset + bytes(state.get());
+        }
+
+        long sealedEnd() {
+            final long current = state.get();
+            assert (current & SEALED) != 0;
+            return startOffset + bytes(current);
         }
-    }
 
+        /**
+         * Waits for all operations that reserved room in this sealed buffer to be copied. Copies are short and never block, so this
+         * yields rather than parks.
+         */
+        void awaitCompletion() {
+            while (completedOperations.get() < sealedOperations) {
+                Thread.yield();
+            }
+        }
+    }
 }
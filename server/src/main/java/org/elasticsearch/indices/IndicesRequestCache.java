@@ -26,6 +26,7 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.apache.lucene.index.DirectoryReader;
 import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.LeafReaderContext;
 import org.apache.lucene.util.Accountable;
 import org.apache.lucene.util.RamUsageEstimator;
 import org.elasticsearch.common.bytes.BytesReference;
@@ -43,9 +44,11 @@ import org.elasticsearch.common.unit.TimeValue;
 import org.elasticsearch.common.util.concurrent.ConcurrentCollections;
 
 import java.io.Closeable;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Objects;
 import java.util.Set;
 import java.util.concurrent.ConcurrentMap;
@@ -61,6 +64,10 @@ import java.util.function.Supplier;
  * Currently, the cache is only enabled for count requests, and can only be opted in on an index
  * level setting that can be dynamically changed and defaults to false.
  * <p>
+ * Results can also be cached incrementally (see {@link #getPartial} and {@link #putPartial}): the result of a request is
+ * then keyed by the segments it was computed over rather than by the reader, so that after a refresh only the segments
+ * that were added since the result was computed need to be searched.
+ * <p>
  * There are still several TODOs left in this class, some easily addressable, some more complex, but the support
  * is functional.
  */
@@ -74,6 +81,12 @@ public final class IndicesRequestCache implements RemovalListener<IndicesRequest
      */
     public static final Setting<Boolean> INDEX_CACHE_REQUEST_ENABLED_SETTING =
         Setting.boolSetting("index.requests.cache.enable", true, Property.Dynamic, Property.IndexScope);
+    /**
+     * A setting to cache the results of requests per segment prefix so that they can be reused and completed with the results of
+     * new segments after a refresh, rather than being recomputed from scratch.
+     */
+    public static final Setting<Boolean> INDEX_CACHE_REQUEST_INCREMENTAL_SETTING =
+        Setting.boolSetting("index.requests.cache.incremental", false, Property.Dynamic, Property.IndexScope);
     public static final Setting<ByteSizeValue> INDICES_CACHE_QUERY_SIZE =
         Setting.memorySizeSetting("indices.requests.cache.size", "1%", Property.NodeScope);
     public static final Setting<TimeValue> INDICES_CACHE_QUERY_EXPIRE =
@@ -154,6 +167,96 @@ public final class IndicesRequestCache implements RemovalListener<IndicesRequest
         cache.invalidate(new Key(cacheEntity, reader.getReaderCacheHelper().getKey(), cacheKey));
     }
 
+    /**
+     * Returns the cached result of a request over the longest prefix of the given leaves for which there is one, or {@code null} if
+     * no prefix of the leaves has a cached result or if the leaves do not expose a reader cache key. This relies on segments being
+     * immutable: a segment that gets new deletes or that is merged is exposed through a leaf with a different reader cache key, so
+     * a result that was computed over a prefix of the leaves of an older reader is still valid for the same prefix of a newer
+     * reader.
+     *
+     * @param cacheEntity the cache entity to look up the result for
+     * @param leaves the leaves of the reader that the request is executed against
+     * @param cacheKey the cache key of the request
+     */
+    PartialResult getPartial(CacheEntity cacheEntity, List<LeafReaderContext> leaves, BytesReference cacheKey) {
+        final List<IndexReader.CacheKey> leafReaderCacheKeys = leafReaderCacheKeys(leaves);
+        if (leafReaderCacheKeys != null) {
+            for (int numberOfLeaves = leafReaderCacheKeys.size(); numberOfLeaves > 0; numberOfLeaves--) {
+                final BytesReference value = cache.get(new Key(cacheEntity, leafReaderCacheKeys.subList(0, numberOfLeaves), cacheKey));
+                if (value != null) {
+                    if (numberOfLeaves == leafReaderCacheKeys.size()) {
+                        cacheEntity.onHit();
+                    } else {
+                        // the result still needs to be completed with the new segments
+                        cacheEntity.onMiss();
+                    }
+                    return new PartialResult(numberOfLeaves, value);
+                }
+            }
+        }
+        cacheEntity.onMiss();
+        return null;
+    }
+
+    /**
+     * Caches the result of a request that was computed over all the given leaves.
+     *
+     * @param cacheEntity the cache entity to cache the result for
+     * @param leaves the leaves of the reader that the result was computed over, these must all expose a reader cache key
+     * @param cacheKey the cache key of the request
+     * @param value the result to cache
+     */
+    void putPartial(CacheEntity cacheEntity, List<LeafReaderContext> leaves, BytesReference cacheKey, BytesReference value) {
+        final List<IndexReader.CacheKey> leafReaderCacheKeys = leafReaderCacheKeys(leaves);
+        if (leafReaderCacheKeys == null || leafReaderCacheKeys.isEmpty()) {
+            throw new IllegalArgumentException("cannot cache a partial result for leaves without reader cache keys");
+        }
+        final Key key = new Key(cacheEntity, Collections.unmodifiableList(leafReaderCacheKeys), cacheKey);
+        cache.put(key, value);
+        cacheEntity.onCached(key, value);
+        // make sure to register a cleanup key for every segment that the result depends on
+        for (LeafReaderContext leaf : leaves) {
+            final IndexReader.CacheHelper cacheHelper = leaf.reader().getReaderCacheHelper();
+            final CleanupKey cleanupKey = new CleanupKey(cacheEntity, cacheHelper.getKey());
+            if (registeredClosedListeners.putIfAbsent(cleanupKey, Boolean.TRUE) == null) {
+                cacheHelper.addClosedListener(cleanupKey);
+            }
+        }
+    }
+
+    private static List<IndexReader.CacheKey> leafReaderCacheKeys(List<LeafReaderContext> leaves) {
+        final List<IndexReader.CacheKey> leafReaderCacheKeys = new ArrayList<>(leaves.size());
+        for (LeafReaderContext leaf : leaves) {
+            final IndexReader.CacheHelper cacheHelper = leaf.reader().getReaderCacheHelper();
+            if (cacheHelper == null) {
+                return null;
+            }
+            leafReaderCacheKeys.add(cacheHelper.getKey());
+        }
+        return leafReaderCacheKeys;
+    }
+
+    /**
+     * A cached result of a request that covers the first {@link #numberOfLeaves()} leaves of a reader.
+     */
+    static final class PartialResult {
+        private final int numberOfLeaves;
+        private final BytesReference value;
+
+        PartialResult(int numberOfLeaves, BytesReference value) {
+            this.numberOfLeaves = numberOfLeaves;
+            this.value = value;
+        }
+
+        int numberOfLeaves() {
+            return numberOfLeaves;
+        }
+
+        BytesReference value() {
+            return value;
+        }
+    }
+
     private static class Loader implements CacheLoader<Key, BytesReference> {
 
         private final CacheEntity entity;
@@ -220,18 +323,35 @@ public final class IndicesRequestCache implements RemovalListener<IndicesRequest
         private static final long BASE_RAM_BYTES_USED = RamUsageEstimator.shallowSizeOfInstance(Key.class);
 
         public final CacheEntity entity; // use as identity equality
-        public final IndexReader.CacheKey readerCacheKey;
+        public final IndexReader.CacheKey readerCacheKey; // null for partial results
+        public final List<IndexReader.CacheKey> leafReaderCacheKeys; // null unless this is a partial result
         public final BytesReference value;
 
         Key(CacheEntity entity, IndexReader.CacheKey readerCacheKey, BytesReference value) {
             this.entity = entity;
             this.readerCacheKey = Objects.requireNonNull(readerCacheKey);
+            this.leafReaderCacheKeys = null;
+            this.value = value;
+        }
+
+        /**
+         * Creates a key for a result that was computed over the leaves with the given reader cache keys.
+         */
+        Key(CacheEntity entity, List<IndexReader.CacheKey> leafReaderCacheKeys, BytesReference value) {
+            this.entity = entity;
+            this.readerCacheKey = null;
+            this.leafReaderCacheKeys = Objects.requireNonNull(leafReaderCacheKeys);
             this.value = value;
         }
 
         @Override
         public long ramBytesUsed() {
-            return BASE_RAM_BYTES_USED + entity.ramBytesUsed() + value.length();
+            long ramBytesUsed = BASE_RAM_BYTES_USED + entity.ramBytesUsed() + value.length();
+            if (leafReaderCacheKeys != null) {
+                ramBytesUsed += RamUsageEstimator.alignObjectSize(RamUsageEstimator.NUM_BYTES_ARRAY_HEADER +
+                    (long) RamUsageEstimator.NUM_BYTES_OBJECT_REF * leafReaderCacheKeys.size());
+            }
+            return ramBytesUsed;
         }
 
         @Override
@@ -246,6 +366,7 @@ public final class IndicesRequestCache implements RemovalListener<IndicesRequest
             if (o == null || getClass() != o.getClass()) return false;
             Key key = (Key) o;
             if (Objects.equals(readerCacheKey, key.readerCacheKey) == false) return false;
+            if (Objects.equals(leafReaderCacheKeys, key.leafReaderCacheKeys) == false) return false;
             if (!entity.getCacheIdentity().equals(key.entity.getCacheIdentity())) return false;
             if (!value.equals(key.value)) return false;
             return true;
@@ -254,7 +375,8 @@ public final class IndicesRequestCache implements RemovalListener<IndicesRequest
         @Override
         public int hashCode() {
             int result = entity.getCacheIdentity().hashCode();
-            result = 31 * result + readerCacheKey.hashCode();
+            result = 31 * result + Objects.hashCode(readerCacheKey);
+            result = 31 * result + Objects.hashCode(leafReaderCacheKeys);
             result = 31 * result + value.hashCode();
             return result;
         }
@@ -319,6 +441,14 @@ public final class IndicesRequestCache implements RemovalListener<IndicesRequest
                 Key key = iterator.next();
                 if (currentFullClean.contains(key.entity.getCacheIdentity())) {
                     iterator.remove();
+                } else if (key.leafReaderCacheKeys != null) {
+                    // a partial result is stale as soon as any of the segments it was computed over is closed
+                    for (IndexReader.CacheKey leafReaderCacheKey : key.leafReaderCacheKeys) {
+                        if (currentKeysToClean.contains(new CleanupKey(key.entity, leafReaderCacheKey))) {
+                            iterator.remove();
+                            break;
+                        }
+                    }
                 } else {
                     if (currentKeysToClean.contains(new CleanupKey(key.entity, key.readerCacheKey))) {
                         iterator.remove();
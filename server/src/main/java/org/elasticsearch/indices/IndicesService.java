@@ -24,6 +24,13 @@ import org.apache.logging.log4j.Logger;
 import org.apache.logging.log4j.message.ParameterizedMessage;
 import org.apache.lucene.index.DirectoryReader;
 import org.apache.lucene.index.IndexReader.CacheHelper;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.queries.MinDocQuery;
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.search.TotalHits;
 import org.apache.lucene.store.AlreadyClosedException;
 import org.apache.lucene.util.CollectionUtil;
 import org.apache.lucene.util.RamUsageEstimator;
@@ -57,6 +64,8 @@ import org.elasticsearch.common.io.stream.NamedWriteableRegistry;
 import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.io.stream.StreamOutput;
 import org.elasticsearch.common.lease.Releasable;
+import org.elasticsearch.common.lucene.Lucene;
+import org.elasticsearch.common.lucene.search.TopDocsAndMaxScore;
 import org.elasticsearch.common.settings.IndexScopedSettings;
 import org.elasticsearch.common.settings.Setting;
 import org.elasticsearch.common.settings.Setting.Property;
@@ -100,6 +109,7 @@ import org.elasticsearch.index.get.GetStats;
 import org.elasticsearch.index.mapper.IdFieldMapper;
 import org.elasticsearch.index.mapper.MapperService;
 import org.elasticsearch.index.merge.MergeStats;
+import org.elasticsearch.index.query.ParsedQuery;
 import org.elasticsearch.index.query.QueryBuilder;
 import org.elasticsearch.index.query.QueryRewriteContext;
 import org.elasticsearch.index.recovery.RecoveryStats;
@@ -126,6 +136,10 @@ import org.elasticsearch.plugins.IndexStorePlugin;
 import org.elasticsearch.plugins.PluginsService;
 import org.elasticsearch.repositories.RepositoriesService;
 import org.elasticsearch.script.ScriptService;
+import org.elasticsearch.search.aggregations.AggregationBuilder;
+import org.elasticsearch.search.aggregations.AggregationPhase;
+import org.elasticsearch.search.aggregations.InternalAggregation;
+import org.elasticsearch.search.aggregations.InternalAggregations;
 import org.elasticsearch.search.internal.AliasFilter;
 import org.elasticsearch.search.internal.SearchContext;
 import org.elasticsearch.search.internal.ShardSearchRequest;
@@ -138,6 +152,7 @@ import java.io.IOException;
 import java.io.UncheckedIOException;
 import java.nio.file.Files;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.Iterator;
@@ -270,7 +285,7 @@ public class IndicesService extends AbstractLifecycleComponent
                     "equal to 0 and not [" + sizeInBytes + "]";
                 circuitBreakerService.getBreaker(CircuitBreaker.FIELDDATA).addWithoutBreaking(-sizeInBytes);
             }
-        });
+        }, circuitBreakerService);
         this.cleanInterval = INDICES_CACHE_CLEAN_INTERVAL_SETTING.get(settings);
         this.cacheCleaner = new CacheCleaner(indicesFieldDataCache, indicesRequestCache,  logger, threadPool, this.cleanInterval);
         this.metaStateService = metaStateService;
@@ -1325,6 +1340,10 @@ public class IndicesService extends AbstractLifecycleComponent
     public void loadIntoContext(ShardSearchRequest request, SearchContext context, QueryPhase queryPhase) throws Exception {
         assert canCache(request, context);
         final DirectoryReader directoryReader = context.searcher().getDirectoryReader();
+        if (canCacheIncrementally(request, context)) {
+            loadIncrementallyIntoContext(request, context, queryPhase, directoryReader);
+            return;
+        }
 
         boolean[] loadedFromCache = new boolean[] { true };
         BytesReference bytesReference = cacheShardLevelResult(context.indexShard(), directoryReader, request.cacheKey(),
@@ -1362,6 +1381,117 @@ public class IndicesService extends AbstractLifecycleComponent
         }
     }
 
+    /**
+     * Can the result of the shard request be cached per segment prefix and completed with the results of new segments? This
+     * requires the result to only consist of the hit count and of aggregations, which can be reduced the same way that results
+     * from different shards are reduced.
+     */
+    private boolean canCacheIncrementally(ShardSearchRequest request, SearchContext context) {
+        if (context.indexShard().indexSettings().getValue(IndicesRequestCache.INDEX_CACHE_REQUEST_INCREMENTAL_SETTING) == false) {
+            return false;
+        }
+        if (context.size() != 0 || context.terminateAfter() != SearchContext.DEFAULT_TERMINATE_AFTER) {
+            return false;
+        }
+        if (request.source() != null && request.source().suggest() != null) {
+            return false;
+        }
+        if (request.source() != null && request.source().aggregations() != null) {
+            // aggregations must only see the documents of the new segments and reduce like results from different shards
+            final Collection<AggregationBuilder> aggregations = request.source().aggregations().getAggregatorFactories();
+            if (AggregationPhase.canCollectSegmentsSeparately(aggregations, false) == false) {
+                return false;
+            }
+        }
+        return context.searcher().getDirectoryReader().leaves().isEmpty() == false;
+    }
+
+
+    /**
+     * Loads the cached query result for the longest prefix of the segments of the shard, and completes it by executing the query
+     * phase on the remaining segments only and reducing both results. The completed result is cached for all segments so that the
+     * next refresh can reuse it in turn.
+     * <p>
+     * Reducing results computed over different sets of segments has the same accuracy trade-offs as reducing results from different
+     * shards, for instance {@code terms} aggregations may report document count errors.
+     */
+    private void loadIncrementallyIntoContext(ShardSearchRequest request, SearchContext context, QueryPhase queryPhase,
+                                              DirectoryReader directoryReader) throws Exception {
+        final IndexShardCacheEntity cacheEntity = new IndexShardCacheEntity(context.indexShard());
+        final List<LeafReaderContext> leaves = directoryReader.leaves();
+        final IndicesRequestCache.PartialResult cached = indicesRequestCache.getPartial(cacheEntity, leaves, request.cacheKey());
+        if (cached != null && cached.numberOfLeaves() == leaves.size()) {
+            // the cached result covers all segments, restore it into the context
+            readCachedQueryResult(cached.value(), context.id(), context.queryResult());
+            context.queryResult().setSearchShardTarget(context.shardTarget());
+            return;
+        }
+        if (cached != null) {
+            // only search the segments that are not covered by the cached result
+            final Query query = new BooleanQuery.Builder()
+                .add(context.query(), BooleanClause.Occur.MUST)
+                .add(new MinDocQuery(leaves.get(cached.numberOfLeaves()).docBase), BooleanClause.Occur.FILTER)
+                .build();
+            context.parsedQuery(new ParsedQuery(context.searcher().rewrite(query), context.parsedQuery()));
+        }
+        queryPhase.execute(context);
+        final QuerySearchResult result = context.queryResult();
+        if (result.searchTimedOut()) {
+            // do not cache results of timed out searches, see loadIntoContext
+            return;
+        }
+        if (cached != null) {
+            final QuerySearchResult cachedResult = new QuerySearchResult();
+            readCachedQueryResult(cached.value(), context.id(), cachedResult);
+            reducePartialQueryResults(cachedResult, result);
+            if (logger.isTraceEnabled()) {
+                logger.trace("reused cached result for [{}] out of [{}] segments for request on shard [{}]:\n {}",
+                    cached.numberOfLeaves(), leaves.size(), request.shardId(), request.source());
+            }
+        }
+        // see cacheShardLevelResult for the expected size
+        try (BytesStreamOutput out = new BytesStreamOutput(512)) {
+            result.writeToNoId(out);
+            indicesRequestCache.putPartial(cacheEntity, leaves, request.cacheKey(), out.bytes());
+        }
+    }
+
+    private void readCachedQueryResult(BytesReference bytesReference, long id, QuerySearchResult result) throws IOException {
+        try (StreamInput in = new NamedWriteableAwareStreamInput(bytesReference.streamInput(), namedWriteableRegistry)) {
+            result.readFromWithId(id, in);
+        }
+    }
+
+    /**
+     * Reduces the query result of previously searched segments into the query result of the remaining segments.
+     */
+    private void reducePartialQueryResults(QuerySearchResult cached, QuerySearchResult result) {
+        final TopDocsAndMaxScore cachedTopDocs = cached.topDocs();
+        final TopDocsAndMaxScore topDocs = result.topDocs();
+        final TotalHits cachedTotalHits = cachedTopDocs.topDocs.totalHits;
+        final TotalHits totalHits = topDocs.topDocs.totalHits;
+        final TotalHits.Relation relation =
+            cachedTotalHits.relation == TotalHits.Relation.EQUAL_TO && totalHits.relation == TotalHits.Relation.EQUAL_TO
+                ? TotalHits.Relation.EQUAL_TO : TotalHits.Relation.GREATER_THAN_OR_EQUAL_TO;
+        final float maxScore;
+        if (Float.isNaN(cachedTopDocs.maxScore)) {
+            maxScore = topDocs.maxScore;
+        } else if (Float.isNaN(topDocs.maxScore)) {
+            maxScore = cachedTopDocs.maxScore;
+        } else {
+            maxScore = Math.max(cachedTopDocs.maxScore, topDocs.maxScore);
+        }
+        result.topDocs(new TopDocsAndMaxScore(new TopDocs(new TotalHits(cachedTotalHits.value + totalHits.value, relation),
+            Lucene.EMPTY_SCORE_DOCS), maxScore), result.sortValueFormats());
+        if (cached.aggregations() != null && result.aggregations() != null) {
+            final InternalAggregation.ReduceContext reduceContext = new InternalAggregation.ReduceContext(bigArrays, scriptService, false);
+            result.aggregations(InternalAggregations.reduce(Arrays.asList(cached.aggregations(), result.aggregations()), reduceContext));
+        }
+        if (Boolean.TRUE.equals(cached.terminatedEarly())) {
+            result.terminatedEarly(true);
+        }
+    }
+
     public ByteSizeValue getTotalIndexingBufferBytes() {
         return indexingMemoryController.indexingBufferSize();
     }
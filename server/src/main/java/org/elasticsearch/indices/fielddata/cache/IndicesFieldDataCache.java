@@ -27,6 +27,7 @@ import org.apache.lucene.index.IndexReader.CacheKey;
 import org.apache.lucene.index.LeafReaderContext;
 import org.apache.lucene.util.Accountable;
 import org.elasticsearch.common.Nullable;
+import org.elasticsearch.common.breaker.CircuitBreaker;
 import org.elasticsearch.common.cache.Cache;
 import org.elasticsearch.common.cache.CacheBuilder;
 import org.elasticsearch.common.cache.RemovalListener;
@@ -41,12 +42,19 @@ import org.elasticsearch.index.Index;
 import org.elasticsearch.index.fielddata.AtomicFieldData;
 import org.elasticsearch.index.fielddata.IndexFieldData;
 import org.elasticsearch.index.fielddata.IndexFieldDataCache;
+import org.elasticsearch.index.fielddata.IndexOrdinalsFieldData;
+import org.elasticsearch.index.fielddata.ordinals.GlobalOrdinalMap;
+import org.elasticsearch.index.fielddata.ordinals.GlobalOrdinalsIndexFieldData;
 import org.elasticsearch.index.shard.ShardId;
 import org.elasticsearch.index.shard.ShardUtils;
+import org.elasticsearch.indices.breaker.CircuitBreakerService;
+import org.elasticsearch.indices.breaker.NoneCircuitBreakerService;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.function.ToLongBiFunction;
 
 public class IndicesFieldDataCache implements RemovalListener<IndicesFieldDataCache.Key, Accountable>, Releasable{
@@ -57,9 +65,16 @@ public class IndicesFieldDataCache implements RemovalListener<IndicesFieldDataCa
         Setting.memorySizeSetting("indices.fielddata.cache.size", new ByteSizeValue(-1), Property.NodeScope);
     private final IndexFieldDataCache.Listener indicesFieldDataCacheListener;
     private final Cache<Key, Accountable> cache;
+    private final CircuitBreakerService circuitBreakerService;
 
     public IndicesFieldDataCache(Settings settings, IndexFieldDataCache.Listener indicesFieldDataCacheListener) {
+        this(settings, indicesFieldDataCacheListener, new NoneCircuitBreakerService());
+    }
+
+    public IndicesFieldDataCache(Settings settings, IndexFieldDataCache.Listener indicesFieldDataCacheListener,
+                                 CircuitBreakerService circuitBreakerService) {
         this.indicesFieldDataCacheListener = indicesFieldDataCacheListener;
+        this.circuitBreakerService = circuitBreakerService;
         final long sizeInBytes = INDICES_FIELDDATA_CACHE_SIZE_KEY.get(settings).getBytes();
         CacheBuilder<Key, Accountable> cacheBuilder = CacheBuilder.<Key, Accountable>builder()
                 .removalListener(this);
@@ -75,7 +90,8 @@ public class IndicesFieldDataCache implements RemovalListener<IndicesFieldDataCa
     }
 
     public IndexFieldDataCache buildIndexFieldDataCache(IndexFieldDataCache.Listener listener, Index index, String fieldName) {
-        return new IndexFieldCache(logger, cache, index, fieldName, indicesFieldDataCacheListener, listener);
+        return new IndexFieldCache(logger, cache, circuitBreakerService.getBreaker(CircuitBreaker.FIELDDATA), index, fieldName,
+            indicesFieldDataCacheListener, listener);
     }
 
     public Cache<Key, Accountable> getCache() {
@@ -88,17 +104,18 @@ public class IndicesFieldDataCache implements RemovalListener<IndicesFieldDataCa
         assert key != null && key.listeners != null;
         IndexFieldCache indexCache = key.indexCache;
         final Accountable value = notification.getValue();
+        final boolean evicted = notification.getRemovalReason() == RemovalNotification.RemovalReason.EVICTED;
         for (IndexFieldDataCache.Listener listener : key.listeners) {
             try {
-                listener.onRemoval(
-                    key.shardId, indexCache.fieldName,
-                    notification.getRemovalReason() == RemovalNotification.RemovalReason.EVICTED, value.ramBytesUsed()
-                );
+                listener.onRemoval(key.shardId, indexCache.fieldName, evicted, value.ramBytesUsed());
             } catch (Exception e) {
                 // load anyway since listeners should not throw exceptions
                 logger.error("Failed to call listener on field data cache unloading", e);
             }
         }
+        if (key.shardId != null && value instanceof GlobalOrdinalsIndexFieldData) {
+            indexCache.onGlobalOrdinalsRemoved(key.shardId, ((GlobalOrdinalsIndexFieldData) value).getGlobalOrdinalMap(), evicted);
+        }
     }
 
     public static class FieldDataWeigher implements ToLongBiFunction<Key, Accountable> {
@@ -118,10 +135,16 @@ public class IndicesFieldDataCache implements RemovalListener<IndicesFieldDataCa
         final String fieldName;
         private final Cache<Key, Accountable> cache;
         private final Listener[] listeners;
+        private final CircuitBreaker breaker;
+        // the global ordinals that were last built for each shard, kept beyond the lifetime of their reader so
+        // that the next reader of the shard can extend them rather than building global ordinals from scratch
+        private final Map<ShardId, RetainedGlobalOrdinals> previousGlobalOrdinals = new HashMap<>(); // guarded by this
 
-        IndexFieldCache(Logger logger,final Cache<Key, Accountable> cache, Index index, String fieldName, Listener... listeners) {
+        IndexFieldCache(Logger logger, final Cache<Key, Accountable> cache, CircuitBreaker breaker, Index index, String fieldName,
+                        Listener... listeners) {
             this.logger = logger;
             this.listeners = listeners;
+            this.breaker = breaker;
             this.index = index;
             this.fieldName = fieldName;
             this.cache = cache;
@@ -168,6 +191,15 @@ public class IndicesFieldDataCache implements RemovalListener<IndicesFieldDataCa
                 ElasticsearchDirectoryReader.addReaderCloseListener(indexReader, IndexFieldCache.this);
                 Collections.addAll(k.listeners, this.listeners);
                 final Accountable ifd = (Accountable) indexFieldData.localGlobalDirect(indexReader);
+                if (shardId != null && ifd instanceof GlobalOrdinalsIndexFieldData) {
+                    final GlobalOrdinalsIndexFieldData globalOrdinals = (GlobalOrdinalsIndexFieldData) ifd;
+                    if (indexFieldData instanceof IndexOrdinalsFieldData
+                            && ((IndexOrdinalsFieldData) indexFieldData).buildsGlobalOrdinalsIncrementally()) {
+                        retainGlobalOrdinals(shardId, globalOrdinals.getGlobalOrdinalMap());
+                    } else {
+                        clear(shardId);
+                    }
+                }
                 for (Listener listener : k.listeners) {
                     try {
                         listener.onCache(shardId, fieldName, ifd);
@@ -181,6 +213,69 @@ public class IndicesFieldDataCache implements RemovalListener<IndicesFieldDataCa
             return (IFD) accountable;
         }
 
+        @Override
+        public GlobalOrdinalMap getPreviousGlobalOrdinals(DirectoryReader indexReader) {
+            final ShardId shardId = ShardUtils.extractShardId(indexReader);
+            if (shardId == null) {
+                return null;
+            }
+            synchronized (this) {
+                final RetainedGlobalOrdinals retained = previousGlobalOrdinals.get(shardId);
+                return retained == null ? null : retained.map;
+            }
+        }
+
+        /**
+         * Retains the provided global ordinals for the shard, which were just put in the cache. Every cache entry
+         * accounts for the global ordinals it holds, the retained ones are only charged to the fielddata breaker once
+         * no cache entry holds them anymore.
+         */
+        private synchronized void retainGlobalOrdinals(ShardId shardId, GlobalOrdinalMap map) {
+            final RetainedGlobalOrdinals retained = previousGlobalOrdinals.get(shardId);
+            if (retained != null && retained.map == map) {
+                // reused as is, the new cache entry accounts for them again
+                release(retained);
+                retained.charged = false;
+                retained.cacheEntries++;
+                return;
+            }
+            release(previousGlobalOrdinals.put(shardId, new RetainedGlobalOrdinals(map)));
+        }
+
+        /**
+         * Called when a cache entry holding global ordinals of the shard is removed. If these global ordinals are still
+         * retained and no other cache entry holds them, then they are dropped when the entry was evicted, and charged
+         * to the fielddata breaker otherwise.
+         */
+        synchronized void onGlobalOrdinalsRemoved(ShardId shardId, GlobalOrdinalMap map, boolean evicted) {
+            final RetainedGlobalOrdinals retained = previousGlobalOrdinals.get(shardId);
+            if (retained == null || retained.map != map || --retained.cacheEntries > 0) {
+                return;
+            }
+            if (evicted) {
+                previousGlobalOrdinals.remove(shardId);
+            } else {
+                breaker.addWithoutBreaking(map.ramBytesUsed());
+                retained.charged = true;
+            }
+        }
+
+        private void release(@Nullable RetainedGlobalOrdinals retained) {
+            if (retained != null && retained.charged) {
+                breaker.addWithoutBreaking(-retained.map.ramBytesUsed());
+            }
+        }
+
+        private synchronized void clearPreviousGlobalOrdinals() {
+            previousGlobalOrdinals.values().forEach(this::release);
+            previousGlobalOrdinals.clear();
+        }
+
+        @Override
+        public synchronized void clear(ShardId shardId) {
+            release(previousGlobalOrdinals.remove(shardId));
+        }
+
         @Override
         public void onClose(CacheKey key) {
             cache.invalidate(new Key(this, key, null));
@@ -189,6 +284,7 @@ public class IndicesFieldDataCache implements RemovalListener<IndicesFieldDataCa
 
         @Override
         public void clear() {
+            clearPreviousGlobalOrdinals();
             for (Key key : cache.keys()) {
                 if (key.indexCache.index.equals(index)) {
                     cache.invalidate(key);
@@ -200,6 +296,7 @@ public class IndicesFieldDataCache implements RemovalListener<IndicesFieldDataCa
 
         @Override
         public void clear(String fieldName) {
+            clearPreviousGlobalOrdinals();
             for (Key key : cache.keys()) {
                 if (key.indexCache.index.equals(index)) {
                     if (key.indexCache.fieldName.equals(fieldName)) {
@@ -214,6 +311,16 @@ public class IndicesFieldDataCache implements RemovalListener<IndicesFieldDataCa
         }
     }
 
+    private static final class RetainedGlobalOrdinals {
+        final GlobalOrdinalMap map;
+        int cacheEntries = 1;
+        boolean charged;
+
+        RetainedGlobalOrdinals(GlobalOrdinalMap map) {
+            this.map = map;
+        }
+    }
+
     public static class Key {
         public final IndexFieldCache indexCache;
         public final IndexReader.CacheKey readerKey;
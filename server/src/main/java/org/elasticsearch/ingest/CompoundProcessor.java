@@ -28,6 +28,7 @@ import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.BiConsumer;
 import java.util.function.LongSupplier;
 import java.util.stream.Collectors;
@@ -162,6 +163,101 @@ public class CompoundProcessor implements Processor {
         });
     }
 
+    /**
+     * Executes the processors on several documents at once, calling each handler with the result of processing the
+     * document at the same position. Processors that {@link Processor#supportsBatchExecution() support batch execution}
+     * are called once with all documents that are still being processed, other processors are called for one document
+     * at a time, and documents are batched again once all of them went through such a processor.
+     */
+    public void execute(List<IngestDocument> ingestDocuments, List<BiConsumer<IngestDocument, Exception>> handlers) {
+        assert ingestDocuments.size() == handlers.size();
+        innerExecute(0, ingestDocuments, handlers);
+    }
+
+    void innerExecute(int currentProcessor, List<IngestDocument> ingestDocuments,
+                      List<BiConsumer<IngestDocument, Exception>> handlers) {
+        if (ingestDocuments.isEmpty()) {
+            return;
+        }
+        if (ingestDocuments.size() == 1) {
+            innerExecute(currentProcessor, ingestDocuments.get(0), handlers.get(0));
+            return;
+        }
+        if (currentProcessor == processorsWithMetrics.size()) {
+            for (int i = 0; i < ingestDocuments.size(); i++) {
+                handlers.get(i).accept(ingestDocuments.get(i), null);
+            }
+            return;
+        }
+
+        Tuple<Processor, IngestMetric> processorWithMetric = processorsWithMetrics.get(currentProcessor);
+        final Processor processor = processorWithMetric.v1();
+        final IngestMetric metric = processorWithMetric.v2();
+        final int numDocuments = ingestDocuments.size();
+        final IngestDocument[] results = ingestDocuments.toArray(new IngestDocument[numDocuments]);
+        final Exception[] failures = new Exception[numDocuments];
+        if (processor.supportsBatchExecution()) {
+            final long startTimeInNanos = relativeTimeProvider.getAsLong();
+            metric.preIngest(numDocuments);
+            processor.executeBatch(results, failures);
+            long ingestTimeInMillis = TimeUnit.NANOSECONDS.toMillis(relativeTimeProvider.getAsLong() - startTimeInNanos);
+            metric.postIngest(numDocuments, ingestTimeInMillis);
+            onBatchProcessed(currentProcessor, ingestDocuments, handlers, results, failures);
+        } else {
+            final AtomicInteger pending = new AtomicInteger(numDocuments);
+            for (int i = 0; i < numDocuments; i++) {
+                final int slot = i;
+                final long startTimeInNanos = relativeTimeProvider.getAsLong();
+                metric.preIngest();
+                final BiConsumer<IngestDocument, Exception> handler = (result, e) -> {
+                    long ingestTimeInMillis = TimeUnit.NANOSECONDS.toMillis(relativeTimeProvider.getAsLong() - startTimeInNanos);
+                    metric.postIngest(ingestTimeInMillis);
+                    results[slot] = result;
+                    failures[slot] = e;
+                    // the decrement makes the writes above visible to whichever thread moves on to the next processor
+                    if (pending.decrementAndGet() == 0) {
+                        onBatchProcessed(currentProcessor, ingestDocuments, handlers, results, failures);
+                    }
+                };
+                processor.execute(ingestDocuments.get(slot), handler);
+            }
+        }
+    }
+
+    private void onBatchProcessed(int currentProcessor, List<IngestDocument> ingestDocuments,
+                                  List<BiConsumer<IngestDocument, Exception>> handlers, IngestDocument[] results, Exception[] failures) {
+        Tuple<Processor, IngestMetric> processorWithMetric = processorsWithMetrics.get(currentProcessor);
+        final Processor processor = processorWithMetric.v1();
+        final IngestMetric metric = processorWithMetric.v2();
+        final List<IngestDocument> nextDocuments = new ArrayList<>(results.length);
+        final List<BiConsumer<IngestDocument, Exception>> nextHandlers = new ArrayList<>(results.length);
+        for (int i = 0; i < results.length; i++) {
+            final IngestDocument ingestDocument = ingestDocuments.get(i);
+            final BiConsumer<IngestDocument, Exception> handler = handlers.get(i);
+            if (failures[i] != null) {
+                metric.ingestFailed();
+                if (ignoreFailure) {
+                    nextDocuments.add(ingestDocument);
+                    nextHandlers.add(handler);
+                } else {
+                    IngestProcessorException compoundProcessorException =
+                        newCompoundProcessorException(failures[i], processor, ingestDocument);
+                    if (onFailureProcessors.isEmpty()) {
+                        handler.accept(null, compoundProcessorException);
+                    } else {
+                        executeOnFailureAsync(0, ingestDocument, compoundProcessorException, handler);
+                    }
+                }
+            } else if (results[i] != null) {
+                nextDocuments.add(results[i]);
+                nextHandlers.add(handler);
+            } else {
+                handler.accept(null, null);
+            }
+        }
+        innerExecute(currentProcessor + 1, nextDocuments, nextHandlers);
+    }
+
     void executeOnFailureAsync(int currentOnFailureProcessor, IngestDocument ingestDocument, ElasticsearchException exception,
                                BiConsumer<IngestDocument, Exception> handler) {
         if (currentOnFailureProcessor == 0) {
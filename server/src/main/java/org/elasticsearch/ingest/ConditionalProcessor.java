@@ -91,9 +91,55 @@ public class ConditionalProcessor extends AbstractProcessor implements WrappingP
         throw new UnsupportedOperationException("this method should not get executed");
     }
 
+    @Override
+    public boolean supportsBatchExecution() {
+        return processor.supportsBatchExecution();
+    }
+
+    @Override
+    public void executeBatch(IngestDocument[] documents, Exception[] failures) {
+        final IngestConditionalScript.Factory factory = scriptService.compile(condition, IngestConditionalScript.CONTEXT);
+        final int[] matches = new int[documents.length];
+        int numMatches = 0;
+        for (int i = 0; i < documents.length; i++) {
+            try {
+                if (evaluate(factory, documents[i])) {
+                    matches[numMatches++] = i;
+                }
+            } catch (Exception e) {
+                failures[i] = e;
+            }
+        }
+        if (numMatches == 0) {
+            return;
+        }
+
+        final IngestDocument[] matchingDocuments = new IngestDocument[numMatches];
+        final Exception[] matchingFailures = new Exception[numMatches];
+        for (int i = 0; i < numMatches; i++) {
+            matchingDocuments[i] = documents[matches[i]];
+        }
+        final long startTimeInNanos = relativeTimeProvider.getAsLong();
+        metric.preIngest(numMatches);
+        processor.executeBatch(matchingDocuments, matchingFailures);
+        long ingestTimeInMillis = TimeUnit.NANOSECONDS.toMillis(relativeTimeProvider.getAsLong() - startTimeInNanos);
+        metric.postIngest(numMatches, ingestTimeInMillis);
+        for (int i = 0; i < numMatches; i++) {
+            if (matchingFailures[i] != null) {
+                metric.ingestFailed();
+                failures[matches[i]] = matchingFailures[i];
+            } else {
+                documents[matches[i]] = matchingDocuments[i];
+            }
+        }
+    }
+
     boolean evaluate(IngestDocument ingestDocument) {
-        IngestConditionalScript script =
-            scriptService.compile(condition, IngestConditionalScript.CONTEXT).newInstance(condition.getParams());
+        return evaluate(scriptService.compile(condition, IngestConditionalScript.CONTEXT), ingestDocument);
+    }
+
+    private boolean evaluate(IngestConditionalScript.Factory factory, IngestDocument ingestDocument) {
+        IngestConditionalScript script = factory.newInstance(condition.getParams());
         return script.execute(new UnmodifiableIngestData(
                 new DeprecationMap(ingestDocument.getSourceAndMetadata(), DEPRECATIONS, "conditional-processor")));
     }
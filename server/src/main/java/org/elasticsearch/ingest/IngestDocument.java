@@ -661,6 +661,43 @@ public final class IngestDocument {
         }
     }
 
+    /**
+     * Executes the given pipeline on several documents at once, skipping documents for which the pipeline has already
+     * been executed, see {@link #executePipeline(Pipeline, BiConsumer)}.
+     *
+     * @param pipeline the pipeline to execute
+     * @param ingestDocuments the documents to execute the pipeline on
+     * @param handlers handle the result or failure of the document at the same position
+     */
+    public static void executePipeline(Pipeline pipeline, List<IngestDocument> ingestDocuments,
+                                       List<BiConsumer<IngestDocument, Exception>> handlers) {
+        assert ingestDocuments.size() == handlers.size();
+        final List<IngestDocument> documents = new ArrayList<>(ingestDocuments.size());
+        final List<BiConsumer<IngestDocument, Exception>> documentHandlers = new ArrayList<>(ingestDocuments.size());
+        for (int i = 0; i < ingestDocuments.size(); i++) {
+            final IngestDocument ingestDocument = ingestDocuments.get(i);
+            final BiConsumer<IngestDocument, Exception> handler = handlers.get(i);
+            if (ingestDocument.executedPipelines.add(pipeline.getId())) {
+                Object previousPipeline = ingestDocument.ingestMetadata.put("pipeline", pipeline.getId());
+                documents.add(ingestDocument);
+                documentHandlers.add((result, e) -> {
+                    ingestDocument.executedPipelines.remove(pipeline.getId());
+                    if (previousPipeline != null) {
+                        ingestDocument.ingestMetadata.put("pipeline", previousPipeline);
+                    } else {
+                        ingestDocument.ingestMetadata.remove("pipeline");
+                    }
+                    handler.accept(result, e);
+                });
+            } else {
+                handler.accept(null, new IllegalStateException("Cycle detected for pipeline: " + pipeline.getId()));
+            }
+        }
+        if (documents.isEmpty() == false) {
+            pipeline.execute(documents, documentHandlers);
+        }
+    }
+
     /**
      * @return a pipeline stack; all pipelines that are in execution by this document in reverse order
      */
@@ -66,6 +66,25 @@ class IngestMetric {
         ingestCount.inc();
     }
 
+    /**
+     * Call this prior to an ingest action that processes several documents at once.
+     * @param count The number of documents.
+     */
+    void preIngest(int count) {
+        ingestCurrent.inc(count);
+    }
+
+    /**
+     * Call this after performing an ingest action that processed several documents at once, even if it failed.
+     * @param count The number of documents.
+     * @param ingestTimeInMillis The time it took to perform the action.
+     */
+    void postIngest(int count, long ingestTimeInMillis) {
+        ingestCurrent.dec(count);
+        ingestTime.inc(ingestTimeInMillis);
+        ingestCount.inc(count);
+    }
+
     /**
      * Call this if the ingest action failed.
      */
@@ -57,6 +57,7 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
@@ -77,6 +78,11 @@ public class IngestService implements ClusterStateApplier {
 
     private static final Logger logger = LogManager.getLogger(IngestService.class);
 
+    /**
+     * The maximum number of index requests of a bulk request that go through their pipelines together.
+     */
+    static final int MAX_BATCH_SIZE = 128;
+
     private final ClusterService clusterService;
     private final ScriptService scriptService;
     private final Map<String, Processor.Factory> processorFactories;
@@ -349,6 +355,9 @@ public class IngestService implements ClusterStateApplier {
             protected void doRun() {
                 final Thread originalThread = Thread.currentThread();
                 final AtomicInteger counter = new AtomicInteger(numberOfActionRequests);
+                // index requests that go through the same pipelines are executed together, so that processors
+                // which support it can process them in batches
+                final Map<List<String>, IngestBatch> batches = new LinkedHashMap<>();
                 int i = 0;
                 for (DocWriteRequest<?> actionRequest : actionRequests) {
                     IndexRequest indexRequest = TransportBulkAction.getIndexWriteRequest(actionRequest);
@@ -380,10 +389,18 @@ public class IngestService implements ClusterStateApplier {
                         continue;
                     }
 
-                    executePipelines(i, pipelines.iterator(), indexRequest, onDropped, onFailure, counter, onCompletion, originalThread);
+                    final IngestBatch batch = batches.computeIfAbsent(pipelines, IngestBatch::new);
+                    batch.add(i, indexRequest);
+                    if (batch.size() == MAX_BATCH_SIZE) {
+                        batches.remove(pipelines);
+                        executePipelines(batch, pipelines.iterator(), onDropped, onFailure, counter, onCompletion, originalThread);
+                    }
 
                     i++;
                 }
+                for (IngestBatch batch : batches.values()) {
+                    executePipelines(batch, batch.pipelines.iterator(), onDropped, onFailure, counter, onCompletion, originalThread);
+                }
             }
         });
     }
@@ -431,6 +448,86 @@ public class IngestService implements ClusterStateApplier {
         }
     }
 
+    private void executePipelines(
+        final IngestBatch batch,
+        final Iterator<String> it,
+        final IntConsumer onDropped,
+        final BiConsumer<Integer, Exception> onFailure,
+        final AtomicInteger counter,
+        final BiConsumer<Thread, Exception> onCompletion,
+        final Thread originalThread
+    ) {
+        if (batch.size() == 1) {
+            executePipelines(batch.slots.get(0), it, batch.indexRequests.get(0), onDropped, onFailure, counter, onCompletion,
+                originalThread);
+            return;
+        }
+
+        final String pipelineId = it.next();
+        final PipelineHolder holder = pipelines.get(pipelineId);
+        if (holder == null) {
+            final Exception e = new IllegalArgumentException("pipeline with id [" + pipelineId + "] does not exist");
+            for (int slot : batch.slots) {
+                onFailure.accept(slot, e);
+                if (counter.decrementAndGet() == 0) {
+                    onCompletion.accept(originalThread, null);
+                }
+                assert counter.get() >= 0;
+            }
+            return;
+        }
+        final Pipeline pipeline = holder.pipeline;
+        final IngestBatch executing;
+        final List<IngestDocument> ingestDocuments;
+        if (pipeline.getProcessors().isEmpty()) {
+            executing = batch;
+            ingestDocuments = null;
+        } else {
+            executing = new IngestBatch(batch.pipelines);
+            ingestDocuments = new ArrayList<>(batch.size());
+            for (int j = 0; j < batch.size(); j++) {
+                final int slot = batch.slots.get(j);
+                final IndexRequest indexRequest = batch.indexRequests.get(j);
+                try {
+                    ingestDocuments.add(newIngestDocument(indexRequest));
+                    executing.add(slot, indexRequest);
+                } catch (Exception e) {
+                    onFailure.accept(slot, e);
+                    if (counter.decrementAndGet() == 0) {
+                        onCompletion.accept(originalThread, null);
+                    }
+                    assert counter.get() >= 0;
+                }
+            }
+        }
+
+        final AtomicInteger pending = new AtomicInteger(executing.size());
+        final BiConsumer<Integer, Exception> handler = (slot, e) -> {
+            if (e != null) {
+                onFailure.accept(slot, e);
+            }
+            if (pending.decrementAndGet() == 0) {
+                if (it.hasNext()) {
+                    executePipelines(executing, it, onDropped, onFailure, counter, onCompletion, originalThread);
+                } else {
+                    for (int j = 0; j < executing.size(); j++) {
+                        if (counter.decrementAndGet() == 0) {
+                            onCompletion.accept(originalThread, null);
+                        }
+                        assert counter.get() >= 0;
+                    }
+                }
+            }
+        };
+        if (ingestDocuments == null) {
+            for (int slot : executing.slots) {
+                handler.accept(slot, null);
+            }
+        } else if (executing.size() > 0) {
+            innerExecute(executing, ingestDocuments, pipeline, onDropped, handler);
+        }
+    }
+
     public IngestStats stats() {
         IngestStats.Builder statsBuilder = new IngestStats.Builder();
         statsBuilder.addTotalMetrics(totalMetrics);
@@ -493,37 +590,71 @@ public class IngestService implements ClusterStateApplier {
         // the pipeline specific stat holder may not exist and that is fine:
         // (e.g. the pipeline may have been removed while we're ingesting a document
         totalMetrics.preIngest();
+        IngestDocument ingestDocument = newIngestDocument(indexRequest);
+        ingestDocument.executePipeline(pipeline, (result, e) -> {
+            long ingestTimeInMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTimeInNanos);
+            totalMetrics.postIngest(ingestTimeInMillis);
+            onPipelineExecuted(slot, indexRequest, ingestDocument, result, e, itemDroppedHandler, handler);
+        });
+    }
+
+    private void innerExecute(IngestBatch batch, List<IngestDocument> ingestDocuments, Pipeline pipeline,
+                              IntConsumer itemDroppedHandler, BiConsumer<Integer, Exception> handler) {
+        assert batch.size() == ingestDocuments.size();
+        final int numDocuments = batch.size();
+        final long startTimeInNanos = System.nanoTime();
+        // like pipelines and processors, the batch is timed once rather than charging its duration to every document
+        final AtomicInteger pending = new AtomicInteger(numDocuments);
+        totalMetrics.preIngest(numDocuments);
+        final List<BiConsumer<IngestDocument, Exception>> handlers = new ArrayList<>(numDocuments);
+        for (int i = 0; i < numDocuments; i++) {
+            final int slot = batch.slots.get(i);
+            final IndexRequest indexRequest = batch.indexRequests.get(i);
+            final IngestDocument ingestDocument = ingestDocuments.get(i);
+            handlers.add((result, e) -> {
+                if (pending.decrementAndGet() == 0) {
+                    long ingestTimeInMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTimeInNanos);
+                    totalMetrics.postIngest(numDocuments, ingestTimeInMillis);
+                }
+                onPipelineExecuted(slot, indexRequest, ingestDocument, result, e, itemDroppedHandler,
+                    exception -> handler.accept(slot, exception));
+            });
+        }
+        IngestDocument.executePipeline(pipeline, ingestDocuments, handlers);
+    }
+
+    private static IngestDocument newIngestDocument(IndexRequest indexRequest) {
         String index = indexRequest.index();
         String id = indexRequest.id();
         String routing = indexRequest.routing();
         Long version = indexRequest.version();
         VersionType versionType = indexRequest.versionType();
         Map<String, Object> sourceAsMap = indexRequest.sourceAsMap();
-        IngestDocument ingestDocument = new IngestDocument(index, id, routing, version, versionType, sourceAsMap);
-        ingestDocument.executePipeline(pipeline, (result, e) -> {
-            long ingestTimeInMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTimeInNanos);
-            totalMetrics.postIngest(ingestTimeInMillis);
-            if (e != null) {
-                totalMetrics.ingestFailed();
-                handler.accept(e);
-            } else if (result == null) {
-                itemDroppedHandler.accept(slot);
-                handler.accept(null);
-            } else {
-                Map<IngestDocument.MetaData, Object> metadataMap = ingestDocument.extractMetadata();
-                //it's fine to set all metadata fields all the time, as ingest document holds their starting values
-                //before ingestion, which might also get modified during ingestion.
-                indexRequest.index((String) metadataMap.get(IngestDocument.MetaData.INDEX));
-                indexRequest.id((String) metadataMap.get(IngestDocument.MetaData.ID));
-                indexRequest.routing((String) metadataMap.get(IngestDocument.MetaData.ROUTING));
-                indexRequest.version(((Number) metadataMap.get(IngestDocument.MetaData.VERSION)).longValue());
-                if (metadataMap.get(IngestDocument.MetaData.VERSION_TYPE) != null) {
-                    indexRequest.versionType(VersionType.fromString((String) metadataMap.get(IngestDocument.MetaData.VERSION_TYPE)));
-                }
-                indexRequest.source(ingestDocument.getSourceAndMetadata(), indexRequest.getContentType());
-                handler.accept(null);
+        return new IngestDocument(index, id, routing, version, versionType, sourceAsMap);
+    }
+
+    private void onPipelineExecuted(int slot, IndexRequest indexRequest, IngestDocument ingestDocument, IngestDocument result,
+                                    Exception e, IntConsumer itemDroppedHandler, Consumer<Exception> handler) {
+        if (e != null) {
+            totalMetrics.ingestFailed();
+            handler.accept(e);
+        } else if (result == null) {
+            itemDroppedHandler.accept(slot);
+            handler.accept(null);
+        } else {
+            Map<IngestDocument.MetaData, Object> metadataMap = ingestDocument.extractMetadata();
+            //it's fine to set all metadata fields all the time, as ingest document holds their starting values
+            //before ingestion, which might also get modified during ingestion.
+            indexRequest.index((String) metadataMap.get(IngestDocument.MetaData.INDEX));
+            indexRequest.id((String) metadataMap.get(IngestDocument.MetaData.ID));
+            indexRequest.routing((String) metadataMap.get(IngestDocument.MetaData.ROUTING));
+            indexRequest.version(((Number) metadataMap.get(IngestDocument.MetaData.VERSION)).longValue());
+            if (metadataMap.get(IngestDocument.MetaData.VERSION_TYPE) != null) {
+                indexRequest.versionType(VersionType.fromString((String) metadataMap.get(IngestDocument.MetaData.VERSION_TYPE)));
             }
-        });
+            indexRequest.source(ingestDocument.getSourceAndMetadata(), indexRequest.getContentType());
+            handler.accept(null);
+        }
     }
 
     @Override
@@ -709,4 +840,27 @@ public class IngestService implements ClusterStateApplier {
         }
     }
 
+    /**
+     * Index requests of a bulk request that go through the same pipelines, along with their slots in the bulk request.
+     */
+    private static final class IngestBatch {
+
+        final List<String> pipelines;
+        final List<Integer> slots = new ArrayList<>();
+        final List<IndexRequest> indexRequests = new ArrayList<>();
+
+        IngestBatch(List<String> pipelines) {
+            this.pipelines = pipelines;
+        }
+
+        void add(int slot, IndexRequest indexRequest) {
+            slots.add(slot);
+            indexRequests.add(indexRequest);
+        }
+
+        int size() {
+            return slots.size();
+        }
+    }
+
 }
@@ -22,11 +22,13 @@ package org.elasticsearch.ingest;
 import org.elasticsearch.ElasticsearchParseException;
 import org.elasticsearch.common.Nullable;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.BiConsumer;
 import java.util.function.LongSupplier;
 
@@ -107,6 +109,32 @@ public final class Pipeline {
         });
     }
 
+    /**
+     * Modifies the data of several documents at once, see {@link #execute(IngestDocument, BiConsumer)}. Each handler
+     * gets called with the result of processing the document at the same position. The time spent on the batch is
+     * recorded once, when the last document is done.
+     */
+    public void execute(List<IngestDocument> ingestDocuments, List<BiConsumer<IngestDocument, Exception>> handlers) {
+        final int numDocuments = handlers.size();
+        final long startTimeInNanos = relativeTimeProvider.getAsLong();
+        final AtomicInteger pending = new AtomicInteger(numDocuments);
+        metrics.preIngest(numDocuments);
+        final List<BiConsumer<IngestDocument, Exception>> pipelineHandlers = new ArrayList<>(numDocuments);
+        for (BiConsumer<IngestDocument, Exception> handler : handlers) {
+            pipelineHandlers.add((result, e) -> {
+                if (pending.decrementAndGet() == 0) {
+                    long ingestTimeInMillis = TimeUnit.NANOSECONDS.toMillis(relativeTimeProvider.getAsLong() - startTimeInNanos);
+                    metrics.postIngest(numDocuments, ingestTimeInMillis);
+                }
+                if (e != null) {
+                    metrics.ingestFailed();
+                }
+                handler.accept(result, e);
+            });
+        }
+        compoundProcessor.execute(ingestDocuments, pipelineHandlers);
+    }
+
     /**
      * The unique id of this pipeline
      */
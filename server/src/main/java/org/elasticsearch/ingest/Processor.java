@@ -63,6 +63,36 @@ public interface Processor {
      */
     IngestDocument execute(IngestDocument ingestDocument) throws Exception;
 
+    /**
+     * Whether this processor can process several documents in a single call to {@link #executeBatch(IngestDocument[], Exception[])}.
+     * Only processors that work synchronously may return <code>true</code>. Documents that go through processors that don't
+     * support batch execution are processed one at a time with {@link #execute(IngestDocument, BiConsumer)}.
+     */
+    default boolean supportsBatchExecution() {
+        return false;
+    }
+
+    /**
+     * Introspect and potentially modify a batch of documents.
+     *
+     * When this method returns, each slot of <code>documents</code> holds the result of processing the document that was
+     * there before, <code>null</code> meaning that the document must be dropped, unless the same slot of <code>failures</code>
+     * holds the exception that processing this document failed with.
+     *
+     * Only called if {@link #supportsBatchExecution()} returns <code>true</code>. The default implementation calls
+     * {@link #execute(IngestDocument)} for every document.
+     */
+    default void executeBatch(IngestDocument[] documents, Exception[] failures) {
+        assert documents.length == failures.length;
+        for (int i = 0; i < documents.length; i++) {
+            try {
+                documents[i] = execute(documents[i]);
+            } catch (Exception e) {
+                failures[i] = e;
+            }
+        }
+    }
+
     /**
      * Gets the type of a processor
      */
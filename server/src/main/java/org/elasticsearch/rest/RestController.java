@@ -195,9 +195,25 @@ public class RestController implements HttpServerTransport.Dispatcher {
         }
     }
 
+    @Override
+    public boolean supportsStreamingContent(final RestRequest.Method method, final String uri) {
+        final int queryStringIndex = uri.indexOf('?');
+        final String rawPath = queryStringIndex == -1 ? uri : uri.substring(0, queryStringIndex);
+        // mirror the resolution in tryAllHandlers: the first handler registered for the method is the one the request goes to
+        Iterator<MethodHandlers> allHandlers = getAllHandlers(null, rawPath);
+        while (allHandlers.hasNext()) {
+            final MethodHandlers handlers = allHandlers.next();
+            final RestHandler handler = handlers == null ? null : handlers.getHandler(method);
+            if (handler != null) {
+                return handler.supportsStreamingContent();
+            }
+        }
+        return false;
+    }
+
     private void dispatchRequest(RestRequest request, RestChannel channel, RestHandler handler) throws Exception {
         final int contentLength = request.contentLength();
-        if (contentLength > 0) {
+        if (contentLength > 0 || request.contentStream() != null) {
             final XContentType xContentType = request.getXContentType();
             if (xContentType == null) {
                 sendContentTypeErrorMessage(request.getAllHeaderValues("Content-Type"), channel);
@@ -48,6 +48,16 @@ public interface RestHandler {
         return false;
     }
 
+    /**
+     * Indicates if the RestHandler can consume the request body chunk by chunk as it is received through
+     * {@link RestRequest#contentStream()}. Http transports that support it do not aggregate the body of requests to such handlers, so
+     * neither the {@code http.max_content_length} limit nor the in-flight requests circuit breaker apply to them and the handler is
+     * responsible for bounding the memory it retains.
+     */
+    default boolean supportsStreamingContent() {
+        return false;
+    }
+
     /**
      * Indicates if the RestHandler supports working with pooled buffers. If the request handler will not escape the return
      * {@link RestRequest#content()} or any buffers extracted from it then there is no need to make a copies of any pooled buffers in the
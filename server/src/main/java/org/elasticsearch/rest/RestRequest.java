@@ -35,6 +35,7 @@ import org.elasticsearch.common.xcontent.NamedXContentRegistry;
 import org.elasticsearch.common.xcontent.ToXContent;
 import org.elasticsearch.common.xcontent.XContentParser;
 import org.elasticsearch.common.xcontent.XContentType;
+import org.elasticsearch.http.HttpBodyStream;
 import org.elasticsearch.http.HttpChannel;
 import org.elasticsearch.http.HttpRequest;
 
@@ -221,6 +222,14 @@ public class RestRequest implements ToXContent.Params {
         return httpRequest.content();
     }
 
+    /**
+     * @return the body of this request as a stream of chunks, or {@code null} if the body was aggregated into {@link #content()}
+     * @see RestHandler#supportsStreamingContent()
+     */
+    public HttpBodyStream contentStream() {
+        return httpRequest.contentStream();
+    }
+
     /**
      * @return content of the request body or throw an exception if the body or content type is missing
      */
@@ -0,0 +1,149 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.rest.action.document;
+
+import org.elasticsearch.action.bulk.BulkRequest;
+import org.elasticsearch.action.bulk.BulkRequestParser;
+import org.elasticsearch.action.bulk.BulkShardRequest;
+import org.elasticsearch.action.bulk.IncrementalBulkExecutor;
+import org.elasticsearch.action.support.ActiveShardCount;
+import org.elasticsearch.client.Requests;
+import org.elasticsearch.client.node.NodeClient;
+import org.elasticsearch.common.breaker.CircuitBreaker;
+import org.elasticsearch.common.breaker.NoopCircuitBreaker;
+import org.elasticsearch.common.bytes.BytesArray;
+import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.unit.ByteSizeUnit;
+import org.elasticsearch.common.unit.ByteSizeValue;
+import org.elasticsearch.common.unit.TimeValue;
+import org.elasticsearch.common.xcontent.XContentType;
+import org.elasticsearch.http.HttpBodyStream;
+import org.elasticsearch.indices.breaker.CircuitBreakerService;
+import org.elasticsearch.rest.BaseRestHandler;
+import org.elasticsearch.rest.RestController;
+import org.elasticsearch.rest.RestRequest;
+import org.elasticsearch.rest.action.RestStatusToXContentListener;
+import org.elasticsearch.search.fetch.subphase.FetchSourceContext;
+
+import java.io.IOException;
+import java.util.function.Supplier;
+
+import static org.elasticsearch.http.HttpTransportSettings.SETTING_HTTP_MAX_CONTENT_LENGTH;
+import static org.elasticsearch.rest.RestRequest.Method.POST;
+import static org.elasticsearch.rest.RestRequest.Method.PUT;
+
+/**
+ * Accepts the same body as {@link RestBulkAction}, but executes it while it is being received rather than after it has been received
+ * in full. The items are executed in batches of {@code batch_size} bytes, reading from the client is paused while a full batch waits
+ * for the previous one to complete, and the item responses of all batches are returned in a single bulk response at the end. Neither
+ * the batch size nor a single item may exceed {@code http.max_content_length}, and the received bytes are accounted for in the in
+ * flight requests circuit breaker until their batch completes.
+ */
+public class RestStreamingBulkAction extends BaseRestHandler {
+
+    static final ByteSizeValue DEFAULT_BATCH_SIZE = new ByteSizeValue(5, ByteSizeUnit.MB);
+
+    private final boolean allowExplicitIndex;
+    private final long maxContentLength;
+    private final CircuitBreakerService circuitBreakerService;
+
+    public RestStreamingBulkAction(Settings settings, RestController controller, CircuitBreakerService circuitBreakerService) {
+        controller.registerHandler(POST, "/_bulk/stream", this);
+        controller.registerHandler(PUT, "/_bulk/stream", this);
+        controller.registerHandler(POST, "/{index}/_bulk/stream", this);
+        controller.registerHandler(PUT, "/{index}/_bulk/stream", this);
+
+        this.allowExplicitIndex = MULTI_ALLOW_EXPLICIT_INDEX.get(settings);
+        this.maxContentLength = SETTING_HTTP_MAX_CONTENT_LENGTH.get(settings).getBytes();
+        this.circuitBreakerService = circuitBreakerService;
+    }
+
+    @Override
+    public String getName() {
+        return "bulk_stream_action";
+    }
+
+    @Override
+    public RestChannelConsumer prepareRequest(final RestRequest request, final NodeClient client) throws IOException {
+        final String defaultIndex = request.param("index");
+        final String defaultRouting = request.param("routing");
+        final FetchSourceContext defaultFetchSourceContext = FetchSourceContext.parseFromRestRequest(request);
+        final String defaultPipeline = request.param("pipeline");
+        final String waitForActiveShards = request.param("wait_for_active_shards");
+        final ActiveShardCount activeShardCount = waitForActiveShards == null ? null : ActiveShardCount.parseString(waitForActiveShards);
+        final TimeValue timeout = request.paramAsTime("timeout", BulkShardRequest.DEFAULT_TIMEOUT);
+        final String refresh = request.param("refresh");
+        final long batchSizeInBytes = Math.min(request.paramAsSize("batch_size", DEFAULT_BATCH_SIZE).getBytes(), maxContentLength);
+        final XContentType xContentType = request.getXContentType();
+        final HttpBodyStream stream = request.contentStream();
+        // http transports that can't stream the body hand it over in full, it is then executed in a single batch
+        final BytesReference content = stream == null ? request.requiredContent() : null;
+        // a body that was received in full is already accounted for by the rest controller
+        final CircuitBreaker breaker = stream == null ? new NoopCircuitBreaker(CircuitBreaker.IN_FLIGHT_REQUESTS)
+            : circuitBreakerService.getBreaker(CircuitBreaker.IN_FLIGHT_REQUESTS);
+
+        final Supplier<BulkRequest> batchSupplier = () -> {
+            final BulkRequest batch = Requests.bulkRequest();
+            if (activeShardCount != null) {
+                batch.waitForActiveShards(activeShardCount);
+            }
+            batch.timeout(timeout);
+            batch.setRefreshPolicy(refresh);
+            return batch;
+        };
+        final BulkRequestParser parser = new BulkRequestParser(true);
+        final IncrementalBulkExecutor.BatchParser batchParser = (data, lastData, batch) -> parser.incrementalParse(data, defaultIndex,
+            defaultRouting, defaultFetchSourceContext, defaultPipeline, allowExplicitIndex, xContentType,
+            (indexRequest, type) -> batch.add(indexRequest), batch::add, batch::add, lastData);
+
+        return channel -> {
+            final IncrementalBulkExecutor executor = new IncrementalBulkExecutor(client, batchSupplier, xContentType, batchParser,
+                batchSizeInBytes, maxContentLength, breaker, new RestStatusToXContentListener<>(channel));
+            if (stream == null) {
+                executor.onChunk(content, true, () -> {});
+            } else {
+                stream.setHandler(new HttpBodyStream.ChunkHandler() {
+                    @Override
+                    public void onChunk(BytesReference chunk, boolean isLast) {
+                        // the parsed items retain the chunk, so it must outlive the network buffer it was read into
+                        executor.onChunk(new BytesArray(chunk.toBytesRef(), true), isLast, stream::next);
+                    }
+
+                    @Override
+                    public void onFailure(Exception e) {
+                        executor.onFailure(e);
+                    }
+                });
+                stream.next();
+            }
+        };
+    }
+
+    @Override
+    public boolean supportsContentStream() {
+        return true;
+    }
+
+    @Override
+    public boolean supportsStreamingContent() {
+        return true;
+    }
+}
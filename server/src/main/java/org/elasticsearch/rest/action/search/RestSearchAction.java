@@ -207,6 +207,9 @@ public class RestSearchAction extends BaseRestHandler {
                 searchSourceBuilder.terminateAfter(terminateAfter);
             }
         }
+        if (request.hasParam("concurrent_slices")) {
+            searchSourceBuilder.concurrentSlices(request.paramAsInt("concurrent_slices", 1));
+        }
 
         StoredFieldsContext storedFieldsContext =
             StoredFieldsContext.fromRestRequest(SearchSourceBuilder.STORED_FIELDS_FIELD.getPreferredName(), request);
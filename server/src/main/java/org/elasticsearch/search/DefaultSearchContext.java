@@ -101,6 +101,7 @@ final class DefaultSearchContext extends SearchContext {
     private TimeValue timeout;
     // terminate after count
     private int terminateAfter = DEFAULT_TERMINATE_AFTER;
+    private int concurrentSlices;
     private List<String> groupStats;
     private ScrollContext scrollContext;
     private boolean explain;
@@ -175,6 +176,7 @@ final class DefaultSearchContext extends SearchContext {
             engineSearcher.getQueryCache(), engineSearcher.getQueryCachingPolicy());
         this.relativeTimeSupplier = relativeTimeSupplier;
         this.timeout = timeout;
+        this.concurrentSlices = indexService.getIndexSettings().getSearchConcurrentSlices();
         queryShardContext = indexService.newQueryShardContext(request.shardId().id(), searcher,
             request::nowInMillis, shardTarget.getClusterAlias());
         queryBoost = request.indexBoost();
@@ -508,6 +510,16 @@ final class DefaultSearchContext extends SearchContext {
         this.terminateAfter = terminateAfter;
     }
 
+    @Override
+    public int concurrentSlices() {
+        return concurrentSlices;
+    }
+
+    @Override
+    public void concurrentSlices(int concurrentSlices) {
+        this.concurrentSlices = concurrentSlices;
+    }
+
     @Override
     public SearchContext minimumScore(float minimumScore) {
         this.minimumScore = minimumScore;
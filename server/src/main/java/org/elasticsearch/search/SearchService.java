@@ -58,6 +58,7 @@ import org.elasticsearch.index.query.QueryShardContext;
 import org.elasticsearch.index.query.Rewriteable;
 import org.elasticsearch.index.shard.IndexEventListener;
 import org.elasticsearch.index.shard.IndexShard;
+import org.elasticsearch.index.shard.ShardId;
 import org.elasticsearch.index.shard.SearchOperationListener;
 import org.elasticsearch.indices.IndicesService;
 import org.elasticsearch.indices.breaker.CircuitBreakerService;
@@ -70,6 +71,7 @@ import org.elasticsearch.search.aggregations.AggregatorFactories;
 import org.elasticsearch.search.aggregations.InternalAggregation;
 import org.elasticsearch.search.aggregations.MultiBucketConsumerService;
 import org.elasticsearch.search.aggregations.SearchContextAggregations;
+import org.elasticsearch.search.builder.PointInTimeBuilder;
 import org.elasticsearch.search.builder.SearchSourceBuilder;
 import org.elasticsearch.search.collapse.CollapseContext;
 import org.elasticsearch.search.dfs.DfsPhase;
@@ -84,6 +86,7 @@ import org.elasticsearch.search.fetch.subphase.ScriptFieldsContext.ScriptField;
 import org.elasticsearch.search.fetch.subphase.highlight.HighlightBuilder;
 import org.elasticsearch.search.internal.AliasFilter;
 import org.elasticsearch.search.internal.InternalScrollSearchRequest;
+import org.elasticsearch.search.internal.ReaderContext;
 import org.elasticsearch.search.internal.ScrollContext;
 import org.elasticsearch.search.internal.SearchContext;
 import org.elasticsearch.search.internal.SearchContext.Lifetime;
@@ -193,6 +196,8 @@ public class SearchService extends AbstractLifecycleComponent implements IndexEv
 
     private final ConcurrentMapLong<SearchContext> activeContexts = ConcurrentCollections.newConcurrentMapLongWithAggressiveConcurrency();
 
+    private final ConcurrentMapLong<ReaderContext> activeReaders = ConcurrentCollections.newConcurrentMapLongWithAggressiveConcurrency();
+
     private final MultiBucketConsumerService multiBucketConsumerService;
 
     private final AtomicInteger openScrollContexts = new AtomicInteger();
@@ -299,6 +304,9 @@ public class SearchService extends AbstractLifecycleComponent implements IndexEv
         for (final SearchContext context : activeContexts.values()) {
             freeContext(context.id());
         }
+        for (final ReaderContext readerContext : activeReaders.values()) {
+            freeReaderContext(readerContext.id());
+        }
     }
 
     @Override
@@ -703,6 +711,7 @@ public class SearchService extends AbstractLifecycleComponent implements IndexEv
         try {
             DefaultSearchContext searchContext = new DefaultSearchContext(idGenerator.incrementAndGet(), request, shardTarget,
                 searcher, clusterService, indexService, indexShard, bigArrays, threadPool::relativeTimeInMillis, timeout, fetchPhase);
+            searchContext.searcher().setSliceExecutor(threadPool.executor(Names.SEARCH_WORKER));
             success = true;
             return searchContext;
         } finally {
@@ -721,6 +730,11 @@ public class SearchService extends AbstractLifecycleComponent implements IndexEv
                 freeContext(ctx.id());
             }
         }
+        for (ReaderContext readerContext : activeReaders.values()) {
+            if (index.equals(readerContext.indexShard().shardId().getIndex())) {
+                freeReaderContext(readerContext.id());
+            }
+        }
     }
 
 
@@ -730,7 +744,88 @@ public class SearchService extends AbstractLifecycleComponent implements IndexEv
                 onFreeContext(context);
                 return true;
             }
-            return false;
+        }
+        // point in time readers share the id space of search contexts so they can be freed like scroll contexts
+        return freeReaderContext(id);
+    }
+
+    /**
+     * Opens a point in time view of the provided shard that can be searched through {@link ShardSearchRequest#readerId()}
+     * until it is freed or isn't used for longer than the provided keep alive. The listener is notified with the id
+     * of the reader context.
+     */
+    public void openReaderContext(ShardId shardId, TimeValue keepAlive, ActionListener<Long> listener) {
+        final IndexShard shard;
+        try {
+            checkPointInTimeKeepAlive(keepAlive.millis());
+            shard = indicesService.indexServiceSafe(shardId.getIndex()).getShard(shardId.id());
+        } catch (Exception e) {
+            listener.onFailure(e);
+            return;
+        }
+        // wait for pending refreshes of search idle shards so that the point in time includes all acknowledged writes
+        shard.awaitShardSearchActive(ignored -> {
+            try {
+                final Engine.Searcher searcher = shard.acquireSearcherNoWrap("point_in_time");
+                final ReaderContext readerContext = new ReaderContext(idGenerator.incrementAndGet(), shard, searcher,
+                    keepAlive.millis(), threadPool::relativeTimeInMillis);
+                final ReaderContext previous = activeReaders.put(readerContext.id(), readerContext);
+                assert previous == null;
+                listener.onResponse(readerContext.id());
+            } catch (Exception e) {
+                listener.onFailure(e);
+            }
+        });
+    }
+
+    /**
+     * Frees the point in time reader context with the provided id. Requests that are still searching the
+     * reader keep it open until they complete.
+     */
+    public boolean freeReaderContext(long id) {
+        try (ReaderContext readerContext = activeReaders.remove(id)) {
+            return readerContext != null;
+        }
+    }
+
+    /**
+     * Returns the number of point in time reader contexts that are open on this node.
+     */
+    public int getActiveReaderContexts() {
+        return activeReaders.size();
+    }
+
+    /**
+     * Acquires the searcher of the point in time reader context targeted by the request if any, or a new searcher
+     * on the latest view of the shard otherwise.
+     */
+    private Engine.Searcher acquireSearcher(ShardSearchRequest request, IndexShard shard, String source) {
+        final Long readerId = request.readerId();
+        if (readerId == null) {
+            return shard.acquireSearcherNoWrap(source);
+        }
+        final ReaderContext readerContext = activeReaders.get(readerId);
+        if (readerContext == null) {
+            throw new SearchContextMissingException(readerId);
+        }
+        if (readerContext.indexShard().shardId().equals(request.shardId()) == false) {
+            throw new IllegalArgumentException("reader context [" + readerId + "] was opened on shard ["
+                + readerContext.indexShard().shardId() + "] but the request targets shard [" + request.shardId() + "]");
+        }
+        final PointInTimeBuilder pointInTime = request.source() == null ? null : request.source().pointInTimeBuilder();
+        if (pointInTime != null && pointInTime.getKeepAlive() != null) {
+            checkPointInTimeKeepAlive(pointInTime.getKeepAlive().millis());
+            readerContext.keepAlive(pointInTime.getKeepAlive().millis());
+        }
+        return readerContext.acquireSearcher(source);
+    }
+
+    private void checkPointInTimeKeepAlive(long keepAlive) {
+        if (keepAlive > maxKeepAlive) {
+            throw new IllegalArgumentException(
+                "Keep alive for point in time (" + TimeValue.timeValueMillis(keepAlive) + ") is too large. " +
+                    "It must be less than (" + TimeValue.timeValueMillis(maxKeepAlive) + "). " +
+                    "This limit can be set by changing the [" + MAX_KEEPALIVE_SETTING.getKey() + "] cluster level setting.");
         }
     }
 
@@ -848,6 +943,9 @@ public class SearchService extends AbstractLifecycleComponent implements IndexEv
             context.timeout(source.timeout());
         }
         context.terminateAfter(source.terminateAfter());
+        if (source.concurrentSlices() != null) {
+            context.concurrentSlices(source.concurrentSlices());
+        }
         if (source.aggregations() != null) {
             try {
                 AggregatorFactories factories = source.aggregations().build(queryShardContext, null);
@@ -1063,6 +1161,13 @@ public class SearchService extends AbstractLifecycleComponent implements IndexEv
                     freeContext(context.id());
                 }
             }
+            for (ReaderContext readerContext : activeReaders.values()) {
+                if (readerContext.isExpired(time)) {
+                    logger.debug("freeing reader context [{}], time [{}], lastAccessTime [{}], keepAlive [{}]", readerContext.id(), time,
+                        readerContext.lastAccessTime(), readerContext.keepAlive());
+                    freeReaderContext(readerContext.id());
+                }
+            }
         }
     }
 
@@ -1081,7 +1186,7 @@ public class SearchService extends AbstractLifecycleComponent implements IndexEv
         IndexShard indexShard = indexService.getShard(request.shardId().getId());
         // we don't want to use the reader wrapper since it could run costly operations
         // and we can afford false positives.
-        try (Engine.Searcher searcher = indexShard.acquireSearcherNoWrap("can_match")) {
+        try (Engine.Searcher searcher = acquireSearcher(request, indexShard, "can_match")) {
             QueryShardContext context = indexService.newQueryShardContext(request.shardId().id(), searcher,
                 request::nowInMillis, request.getClusterAlias());
             Rewriteable.rewrite(request.getRewriteable(), context, false);
@@ -1144,7 +1249,7 @@ public class SearchService extends AbstractLifecycleComponent implements IndexEv
     SearchRewriteContext acquireSearcherAndRewrite(ShardSearchRequest request, IndexShard shard) throws IOException {
         // acquire the searcher for rewrite with no wrapping in order to avoid costly
         // operations. We'll wrap the searcher at a later stage (when executing the query).
-        Engine.Searcher searcher = shard.acquireSearcherNoWrap("search");
+        Engine.Searcher searcher = acquireSearcher(request, shard, "search");
         boolean success = false;
         try {
             IndexService indexService = indicesService.indexServiceSafe(request.shardId().getIndex());
@@ -23,9 +23,42 @@ import org.apache.lucene.search.Query;
 import org.elasticsearch.common.inject.Inject;
 import org.elasticsearch.common.lucene.search.Queries;
 import org.elasticsearch.search.SearchPhase;
+import org.elasticsearch.search.aggregations.bucket.adjacency.AdjacencyMatrixAggregationBuilder;
+import org.elasticsearch.search.aggregations.bucket.composite.CompositeAggregationBuilder;
+import org.elasticsearch.search.aggregations.bucket.filter.FilterAggregationBuilder;
+import org.elasticsearch.search.aggregations.bucket.filter.FiltersAggregationBuilder;
+import org.elasticsearch.search.aggregations.bucket.geogrid.GeoHashGridAggregationBuilder;
+import org.elasticsearch.search.aggregations.bucket.geogrid.GeoTileGridAggregationBuilder;
 import org.elasticsearch.search.aggregations.bucket.global.GlobalAggregator;
+import org.elasticsearch.search.aggregations.bucket.histogram.AutoDateHistogramAggregationBuilder;
+import org.elasticsearch.search.aggregations.bucket.histogram.DateHistogramAggregationBuilder;
+import org.elasticsearch.search.aggregations.bucket.histogram.HistogramAggregationBuilder;
+import org.elasticsearch.search.aggregations.bucket.missing.MissingAggregationBuilder;
+import org.elasticsearch.search.aggregations.bucket.nested.NestedAggregationBuilder;
+import org.elasticsearch.search.aggregations.bucket.nested.ReverseNestedAggregationBuilder;
+import org.elasticsearch.search.aggregations.bucket.range.DateRangeAggregationBuilder;
+import org.elasticsearch.search.aggregations.bucket.range.GeoDistanceAggregationBuilder;
+import org.elasticsearch.search.aggregations.bucket.range.IpRangeAggregationBuilder;
+import org.elasticsearch.search.aggregations.bucket.range.RangeAggregationBuilder;
+import org.elasticsearch.search.aggregations.bucket.terms.RareTermsAggregationBuilder;
+import org.elasticsearch.search.aggregations.bucket.terms.TermsAggregationBuilder;
+import org.elasticsearch.search.aggregations.metrics.AvgAggregationBuilder;
+import org.elasticsearch.search.aggregations.metrics.CardinalityAggregationBuilder;
+import org.elasticsearch.search.aggregations.metrics.ExtendedStatsAggregationBuilder;
+import org.elasticsearch.search.aggregations.metrics.GeoBoundsAggregationBuilder;
+import org.elasticsearch.search.aggregations.metrics.GeoCentroidAggregationBuilder;
+import org.elasticsearch.search.aggregations.metrics.MaxAggregationBuilder;
+import org.elasticsearch.search.aggregations.metrics.MedianAbsoluteDeviationAggregationBuilder;
+import org.elasticsearch.search.aggregations.metrics.MinAggregationBuilder;
+import org.elasticsearch.search.aggregations.metrics.PercentileRanksAggregationBuilder;
+import org.elasticsearch.search.aggregations.metrics.PercentilesAggregationBuilder;
+import org.elasticsearch.search.aggregations.metrics.StatsAggregationBuilder;
+import org.elasticsearch.search.aggregations.metrics.SumAggregationBuilder;
+import org.elasticsearch.search.aggregations.metrics.ValueCountAggregationBuilder;
+import org.elasticsearch.search.aggregations.metrics.WeightedAvgAggregationBuilder;
 import org.elasticsearch.search.aggregations.pipeline.PipelineAggregator;
 import org.elasticsearch.search.aggregations.pipeline.SiblingPipelineAggregator;
+import org.elasticsearch.search.aggregations.support.ValuesSourceAggregationBuilder;
 import org.elasticsearch.search.internal.SearchContext;
 import org.elasticsearch.search.profile.query.CollectorResult;
 import org.elasticsearch.search.profile.query.InternalProfileCollector;
@@ -33,14 +66,66 @@ import org.elasticsearch.search.query.QueryPhaseExecutionException;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
+import java.util.Set;
 
 /**
  * Aggregation phase of a search request, used to collect aggregations
  */
 public class AggregationPhase implements SearchPhase {
 
+    /**
+     * Aggregations that only see the documents that match the query and whose results, computed over disjoint sets of segments
+     * of a shard, can be reduced like results from different shards. Aggregations such as {@code global} that collect documents
+     * outside of the query, or {@code significant_terms} whose background statistics are computed for the whole shard, can't.
+     */
+    private static final Set<String> SEGMENT_REDUCIBLE_AGGREGATIONS = Set.of(
+        AdjacencyMatrixAggregationBuilder.NAME,
+        AutoDateHistogramAggregationBuilder.NAME,
+        AvgAggregationBuilder.NAME,
+        CardinalityAggregationBuilder.NAME,
+        CompositeAggregationBuilder.NAME,
+        DateHistogramAggregationBuilder.NAME,
+        DateRangeAggregationBuilder.NAME,
+        ExtendedStatsAggregationBuilder.NAME,
+        FilterAggregationBuilder.NAME,
+        FiltersAggregationBuilder.NAME,
+        GeoBoundsAggregationBuilder.NAME,
+        GeoCentroidAggregationBuilder.NAME,
+        GeoDistanceAggregationBuilder.NAME,
+        GeoHashGridAggregationBuilder.NAME,
+        GeoTileGridAggregationBuilder.NAME,
+        HistogramAggregationBuilder.NAME,
+        IpRangeAggregationBuilder.NAME,
+        MaxAggregationBuilder.NAME,
+        MedianAbsoluteDeviationAggregationBuilder.NAME,
+        MinAggregationBuilder.NAME,
+        MissingAggregationBuilder.NAME,
+        NestedAggregationBuilder.NAME,
+        PercentileRanksAggregationBuilder.NAME,
+        PercentilesAggregationBuilder.NAME,
+        RangeAggregationBuilder.NAME,
+        RareTermsAggregationBuilder.NAME,
+        ReverseNestedAggregationBuilder.NAME,
+        StatsAggregationBuilder.NAME,
+        SumAggregationBuilder.NAME,
+        TermsAggregationBuilder.NAME,
+        ValueCountAggregationBuilder.NAME,
+        WeightedAvgAggregationBuilder.NAME);
+
+    /**
+     * Aggregations that may hold scripts that are not exposed through {@link ValuesSourceAggregationBuilder#script()}, such as
+     * scripts in filter queries.
+     */
+    private static final Set<String> AGGREGATIONS_WITH_NESTED_SCRIPTS = Set.of(
+        AdjacencyMatrixAggregationBuilder.NAME,
+        CompositeAggregationBuilder.NAME,
+        FilterAggregationBuilder.NAME,
+        FiltersAggregationBuilder.NAME,
+        WeightedAvgAggregationBuilder.NAME);
+
     @Inject
     public AggregationPhase() {
     }
@@ -75,6 +160,60 @@ public class AggregationPhase implements SearchPhase {
         }
     }
 
+    /**
+     * Returns true if the provided aggregations and their sub-aggregations can collect disjoint sets of segments of a shard
+     * separately and reduce their results afterwards. If the segments are collected concurrently, the aggregations must also
+     * not run scripts since these share the search lookup of the shard, which is not thread-safe. Pipeline aggregations are
+     * not checked because they only run on the final reduce.
+     */
+    public static boolean canCollectSegmentsSeparately(Collection<AggregationBuilder> aggregations, boolean concurrently) {
+        for (AggregationBuilder aggregation : aggregations) {
+            if (SEGMENT_REDUCIBLE_AGGREGATIONS.contains(aggregation.getType()) == false) {
+                return false;
+            }
+            if (concurrently) {
+                if (AGGREGATIONS_WITH_NESTED_SCRIPTS.contains(aggregation.getType())) {
+                    return false;
+                }
+                if (aggregation instanceof ValuesSourceAggregationBuilder
+                        && ((ValuesSourceAggregationBuilder<?, ?>) aggregation).script() != null) {
+                    return false;
+                }
+            }
+            if (canCollectSegmentsSeparately(aggregation.getSubAggregations(), concurrently) == false) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Creates a new set of the non-global top level aggregators to collect an additional slice of a concurrent
+     * query phase. The aggregators are registered on the aggregation context so that their results are reduced
+     * with the main aggregators in {@link #execute(SearchContext)}.
+     *
+     * @return the collector for the slice or <code>null</code> if there is nothing to collect
+     */
+    public static Collector createSliceCollector(SearchContext context) throws IOException {
+        if (context.aggregations() == null) {
+            return null;
+        }
+        List<Aggregator> collectors = new ArrayList<>();
+        for (Aggregator aggregator : context.aggregations().factories().createTopLevelAggregators(context)) {
+            // global aggregators run in their own search once the query phase is done, unused ones are released with the phase
+            if (aggregator instanceof GlobalAggregator == false) {
+                collectors.add(aggregator);
+            }
+        }
+        if (collectors.isEmpty()) {
+            return null;
+        }
+        context.aggregations().addSliceAggregators(collectors.toArray(new Aggregator[0]));
+        BucketCollector collector = MultiBucketCollector.wrap(collectors);
+        collector.preCollection();
+        return collector;
+    }
+
     @Override
     public void execute(SearchContext context) {
         if (context.aggregations() == null) {
@@ -143,7 +282,32 @@ public class AggregationPhase implements SearchPhase {
                     + "allowed at the top level");
             }
         }
-        context.queryResult().aggregations(new InternalAggregations(aggregations, siblingPipelineAggregators));
+        InternalAggregations shardAggregations = new InternalAggregations(aggregations, siblingPipelineAggregators);
+        if (context.aggregations().sliceAggregators().isEmpty() == false) {
+            // the query phase ran concurrently, reduce the results of each slice as if they came from different shards
+            List<InternalAggregations> slices = new ArrayList<>(context.aggregations().sliceAggregators().size() + 1);
+            slices.add(shardAggregations);
+            for (Aggregator[] sliceAggregators : context.aggregations().sliceAggregators()) {
+                // like the main aggregators, each slice is only checked against the bucket limit on its own
+                context.aggregations().resetBucketMultiConsumer();
+                List<InternalAggregation> sliceAggregations = new ArrayList<>(sliceAggregators.length);
+                for (Aggregator aggregator : sliceAggregators) {
+                    try {
+                        aggregator.postCollection();
+                        sliceAggregations.add(aggregator.buildAggregation(0));
+                    } catch (IOException e) {
+                        throw new AggregationExecutionException("Failed to build aggregation [" + aggregator.name() + "]", e);
+                    }
+                }
+                slices.add(new InternalAggregations(sliceAggregations, siblingPipelineAggregators));
+            }
+            // the buckets that are common to several slices must only be counted once, so only the reduced result is charged
+            context.aggregations().resetBucketMultiConsumer();
+            InternalAggregation.ReduceContext reduceContext = new InternalAggregation.ReduceContext(context.bigArrays(), null,
+                context.aggregations().multiBucketConsumer(), false);
+            shardAggregations = InternalAggregations.reduce(slices, reduceContext);
+        }
+        context.queryResult().aggregations(shardAggregations);
 
         // disable aggregations so that they don't run on next pages in case of scrolling
         context.aggregations(null);
@@ -31,6 +31,7 @@ import org.elasticsearch.search.aggregations.bucket.BucketsAggregator;
 import org.elasticsearch.search.internal.SearchContext;
 
 import java.io.IOException;
+import java.util.function.BiConsumer;
 
 /**
  * An Aggregator.
@@ -101,6 +102,18 @@ public abstract class Aggregator extends BucketCollector implements Releasable {
      */
     public abstract InternalAggregation buildEmptyAggregation();
 
+    /**
+     * Collect debugging information to add to the profiling results. This will
+     * only be called if the aggregation is being profiled.
+     * <p>
+     * Well behaved implementations will always call the superclass
+     * implementation just in case it has something interesting. They will
+     * also only add objects which can be serialized with
+     * {@link StreamOutput#writeGenericValue(Object)} and
+     * {@link org.elasticsearch.common.xcontent.XContentBuilder#value(Object)}.
+     */
+    public void collectDebugInfo(BiConsumer<String, Object> add) {}
+
     /** Aggregation mode for sub aggregations. */
     public enum SubAggCollectionMode implements Writeable {
 
@@ -0,0 +1,337 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.elasticsearch.search.aggregations.bucket;
+
+import org.apache.lucene.document.LongPoint;
+import org.apache.lucene.index.IndexOptions;
+import org.apache.lucene.index.LeafReader;
+import org.apache.lucene.index.PointValues;
+import org.apache.lucene.search.BoostQuery;
+import org.apache.lucene.search.ConstantScoreQuery;
+import org.apache.lucene.search.IndexOrDocValuesQuery;
+import org.apache.lucene.search.MatchAllDocsQuery;
+import org.apache.lucene.search.PointRangeQuery;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.util.FutureArrays;
+import org.elasticsearch.common.Nullable;
+import org.elasticsearch.index.mapper.DateFieldMapper;
+import org.elasticsearch.index.mapper.MappedFieldType;
+import org.elasticsearch.index.mapper.NumberFieldMapper;
+import org.elasticsearch.search.aggregations.Aggregator;
+import org.elasticsearch.search.aggregations.AggregatorFactories;
+import org.elasticsearch.search.aggregations.support.ValuesSourceConfig;
+import org.elasticsearch.search.internal.SearchContext;
+
+import java.io.IOException;
+import java.util.function.Function;
+import java.util.function.LongUnaryOperator;
+
+/**
+ * Counts the documents of a segment per bucket straight from the points (BKD tree) of the aggregated field instead of
+ * iterating over the matching documents and reading their doc values. Cells of the tree that fall entirely into a
+ * single bucket are accepted as a whole, without decoding the values of their documents.
+ * <p>
+ * This produces the same counts as the regular collection only under strict conditions: the aggregation must be
+ * top-level and have no sub-aggregations, the query must match all documents or be a range query on the aggregated
+ * field, and the segment must have no deleted documents and at most one value per document. Callers must collect
+ * the segment as usual when {@link #countHistogram} or {@link #countRanges} return {@code false}.
+ */
+public final class PointsBucketCounter {
+
+    /**
+     * Receives the number of documents that were counted for a bucket key.
+     */
+    @FunctionalInterface
+    public interface KeyCounter {
+        void count(long key, int docCount) throws IOException;
+    }
+
+    private final String field;
+    private final Function<byte[], Number> converter;
+    @Nullable
+    private final byte[] lowerPointQuery;
+    @Nullable
+    private final byte[] upperPointQuery;
+
+    private PointsBucketCounter(String field, Function<byte[], Number> converter,
+                                @Nullable byte[] lowerPointQuery, @Nullable byte[] upperPointQuery) {
+        this.field = field;
+        this.converter = converter;
+        this.lowerPointQuery = lowerPointQuery;
+        this.upperPointQuery = upperPointQuery;
+    }
+
+    /**
+     * Returns a counter for the aggregated field or {@code null} if the buckets of this aggregation can't be
+     * counted from points.
+     *
+     * @param context The {@link SearchContext} of the aggregation.
+     * @param parent The parent aggregator, if any.
+     * @param factories The factories of the sub-aggregations.
+     * @param config The configuration of the aggregated values.
+     * @param integralOnly Whether floating point fields should be rejected.
+     */
+    @Nullable
+    public static PointsBucketCounter build(SearchContext context, @Nullable Aggregator parent, AggregatorFactories factories,
+                                            ValuesSourceConfig<?> config, boolean integralOnly) {
+        if (parent != null || factories.countAggregators() > 0) {
+            return null;
+        }
+        if (context.minimumScore() != null || context.terminateAfter() != SearchContext.DEFAULT_TERMINATE_AFTER) {
+            return null;
+        }
+        if (config.fieldContext() == null || config.script() != null || config.missing() != null) {
+            return null;
+        }
+        final MappedFieldType fieldType = config.fieldContext().fieldType();
+        if (fieldType == null || fieldType.indexOptions() == IndexOptions.NONE) {
+            return null;
+        }
+        final Function<byte[], Number> converter;
+        if (fieldType instanceof DateFieldMapper.DateFieldType) {
+            // date_nanos points hold nanoseconds but their doc values are exposed as milliseconds
+            if (((DateFieldMapper.DateFieldType) fieldType).resolution() != DateFieldMapper.Resolution.MILLISECONDS) {
+                return null;
+            }
+            converter = (in) -> LongPoint.decodeDimension(in, 0);
+        } else if (fieldType instanceof NumberFieldMapper.NumberFieldType) {
+            final NumberFieldMapper.NumberFieldType numberFieldType = (NumberFieldMapper.NumberFieldType) fieldType;
+            if (integralOnly && numberFieldType.numericType().isFloatingPoint()) {
+                return null;
+            }
+            converter = numberFieldType::parsePoint;
+        } else {
+            return null;
+        }
+
+        final Query query = extractQuery(context.query());
+        if (query == null || query.getClass() == MatchAllDocsQuery.class) {
+            return new PointsBucketCounter(fieldType.name(), converter, null, null);
+        }
+        if (query instanceof PointRangeQuery) {
+            final PointRangeQuery rangeQuery = (PointRangeQuery) query;
+            if (rangeQuery.getNumDims() == 1 && fieldType.name().equals(rangeQuery.getField())) {
+                return new PointsBucketCounter(fieldType.name(), converter, rangeQuery.getLowerPoint(), rangeQuery.getUpperPoint());
+            }
+        }
+        return null;
+    }
+
+    private static Query extractQuery(Query query) {
+        if (query instanceof BoostQuery) {
+            return extractQuery(((BoostQuery) query).getQuery());
+        } else if (query instanceof IndexOrDocValuesQuery) {
+            return extractQuery(((IndexOrDocValuesQuery) query).getIndexQuery());
+        } else if (query instanceof ConstantScoreQuery) {
+            return extractQuery(((ConstantScoreQuery) query).getQuery());
+        } else {
+            return query;
+        }
+    }
+
+    /**
+     * Counts the documents of the segment per rounded value of the field.
+     *
+     * @return {@code false} if the segment can't be counted from points and must be collected instead.
+     */
+    public boolean countHistogram(LeafReader reader, LongUnaryOperator rounding, KeyCounter counter) throws IOException {
+        if (canCount(reader) == false) {
+            return false;
+        }
+        final PointValues values = reader.getPointValues(field);
+        if (values == null) {
+            // the field has no value in this segment
+            return true;
+        }
+        final HistogramVisitor visitor = new HistogramVisitor(values.getBytesPerDimension(), rounding, counter);
+        values.intersect(visitor);
+        visitor.flush();
+        return true;
+    }
+
+    /**
+     * Counts the documents of the segment that fall into each of the provided ranges. Ranges include their
+     * lower bound and exclude their upper bound.
+     *
+     * @param from The lower bounds of the ranges.
+     * @param to The upper bounds of the ranges.
+     * @param counts The array that receives the count of each range.
+     * @return {@code false} if the segment can't be counted from points and must be collected instead.
+     */
+    public boolean countRanges(LeafReader reader, double[] from, double[] to, long[] counts) throws IOException {
+        assert from.length == to.length && to.length == counts.length;
+        if (canCount(reader) == false) {
+            return false;
+        }
+        final PointValues values = reader.getPointValues(field);
+        if (values == null) {
+            // the field has no value in this segment
+            return true;
+        }
+        for (int i = 0; i < from.length; i++) {
+            final RangeVisitor visitor = new RangeVisitor(values.getBytesPerDimension(), from[i], to[i]);
+            values.intersect(visitor);
+            counts[i] += visitor.count;
+        }
+        return true;
+    }
+
+    private boolean canCount(LeafReader reader) throws IOException {
+        if (reader.hasDeletions()) {
+            // deleted documents are still present in the tree
+            return false;
+        }
+        final PointValues values = reader.getPointValues(field);
+        if (values == null) {
+            // nothing to count unless the field has values that were not indexed as points
+            return reader.getFieldInfos().fieldInfo(field) == null;
+        }
+        if (values.getNumDimensions() != 1 || values.size() != values.getDocCount()) {
+            // multi-valued documents would be counted once per value
+            return false;
+        }
+        return lowerPointQuery == null || lowerPointQuery.length == values.getBytesPerDimension();
+    }
+
+    private PointValues.Relation relateToQuery(byte[] minPackedValue, byte[] maxPackedValue, int bytesPerDim) {
+        if (lowerPointQuery == null) {
+            return PointValues.Relation.CELL_INSIDE_QUERY;
+        }
+        if (FutureArrays.compareUnsigned(minPackedValue, 0, bytesPerDim, upperPointQuery, 0, bytesPerDim) > 0
+                || FutureArrays.compareUnsigned(maxPackedValue, 0, bytesPerDim, lowerPointQuery, 0, bytesPerDim) < 0) {
+            return PointValues.Relation.CELL_OUTSIDE_QUERY;
+        }
+        if (FutureArrays.compareUnsigned(minPackedValue, 0, bytesPerDim, lowerPointQuery, 0, bytesPerDim) >= 0
+                && FutureArrays.compareUnsigned(maxPackedValue, 0, bytesPerDim, upperPointQuery, 0, bytesPerDim) <= 0) {
+            return PointValues.Relation.CELL_INSIDE_QUERY;
+        }
+        return PointValues.Relation.CELL_CROSSES_QUERY;
+    }
+
+    private boolean matchesQuery(byte[] packedValue, int bytesPerDim) {
+        return relateToQuery(packedValue, packedValue, bytesPerDim) == PointValues.Relation.CELL_INSIDE_QUERY;
+    }
+
+    private class HistogramVisitor implements PointValues.IntersectVisitor {
+        private final int bytesPerDim;
+        private final LongUnaryOperator rounding;
+        private final KeyCounter counter;
+        // the key of the cell that is currently visited as a whole
+        private long cellKey;
+        // documents are visited in key order most of the time so consecutive keys are counted in a single call
+        private long pendingKey;
+        private int pendingCount;
+
+        HistogramVisitor(int bytesPerDim, LongUnaryOperator rounding, KeyCounter counter) {
+            this.bytesPerDim = bytesPerDim;
+            this.rounding = rounding;
+            this.counter = counter;
+        }
+
+        @Override
+        public void visit(int docID) throws IOException {
+            add(cellKey);
+        }
+
+        @Override
+        public void visit(int docID, byte[] packedValue) throws IOException {
+            if (matchesQuery(packedValue, bytesPerDim)) {
+                add(rounding.applyAsLong(converter.apply(packedValue).longValue()));
+            }
+        }
+
+        @Override
+        public PointValues.Relation compare(byte[] minPackedValue, byte[] maxPackedValue) {
+            final PointValues.Relation relation = relateToQuery(minPackedValue, maxPackedValue, bytesPerDim);
+            if (relation != PointValues.Relation.CELL_INSIDE_QUERY) {
+                return relation;
+            }
+            final long minKey = rounding.applyAsLong(converter.apply(minPackedValue).longValue());
+            final long maxKey = rounding.applyAsLong(converter.apply(maxPackedValue).longValue());
+            if (minKey != maxKey) {
+                // the cell spans several buckets, its values need to be rounded one by one
+                return PointValues.Relation.CELL_CROSSES_QUERY;
+            }
+            cellKey = minKey;
+            return PointValues.Relation.CELL_INSIDE_QUERY;
+        }
+
+        private void add(long key) throws IOException {
+            if (pendingCount > 0 && key != pendingKey) {
+                flush();
+            }
+            pendingKey = key;
+            pendingCount++;
+        }
+
+        void flush() throws IOException {
+            if (pendingCount > 0) {
+                counter.count(pendingKey, pendingCount);
+                pendingCount = 0;
+            }
+        }
+    }
+
+    private class RangeVisitor implements PointValues.IntersectVisitor {
+        private final int bytesPerDim;
+        private final double from;
+        private final double to;
+        private long count;
+
+        RangeVisitor(int bytesPerDim, double from, double to) {
+            this.bytesPerDim = bytesPerDim;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        public void visit(int docID) {
+            count++;
+        }
+
+        @Override
+        public void visit(int docID, byte[] packedValue) {
+            if (matchesQuery(packedValue, bytesPerDim)) {
+                final double value = converter.apply(packedValue).doubleValue();
+                if (value >= from && value < to) {
+                    count++;
+                }
+            }
+        }
+
+        @Override
+        public PointValues.Relation compare(byte[] minPackedValue, byte[] maxPackedValue) {
+            final PointValues.Relation relation = relateToQuery(minPackedValue, maxPackedValue, bytesPerDim);
+            if (relation == PointValues.Relation.CELL_OUTSIDE_QUERY) {
+                return relation;
+            }
+            final double min = converter.apply(minPackedValue).doubleValue();
+            final double max = converter.apply(maxPackedValue).doubleValue();
+            if (min >= to || max < from) {
+                return PointValues.Relation.CELL_OUTSIDE_QUERY;
+            }
+            if (relation == PointValues.Relation.CELL_INSIDE_QUERY && min >= from && max < to) {
+                return PointValues.Relation.CELL_INSIDE_QUERY;
+            }
+            return PointValues.Relation.CELL_CROSSES_QUERY;
+        }
+    }
+}
@@ -19,7 +19,9 @@
 package org.elasticsearch.search.aggregations.bucket.range;
 
 import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.search.CollectionTerminatedException;
 import org.apache.lucene.search.ScoreMode;
+import org.elasticsearch.common.Nullable;
 import org.elasticsearch.common.ParseField;
 import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.io.stream.StreamOutput;
@@ -38,6 +40,7 @@ import org.elasticsearch.search.aggregations.LeafBucketCollector;
 import org.elasticsearch.search.aggregations.LeafBucketCollectorBase;
 import org.elasticsearch.search.aggregations.NonCollectingAggregator;
 import org.elasticsearch.search.aggregations.bucket.BucketsAggregator;
+import org.elasticsearch.search.aggregations.bucket.PointsBucketCounter;
 import org.elasticsearch.search.aggregations.pipeline.PipelineAggregator;
 import org.elasticsearch.search.aggregations.support.ValuesSource;
 import org.elasticsearch.search.internal.SearchContext;
@@ -47,6 +50,7 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.function.BiConsumer;
 
 public class RangeAggregator extends BucketsAggregator {
 
@@ -225,13 +229,26 @@ public class RangeAggregator extends BucketsAggregator {
 
     final double[] maxTo;
 
+    @Nullable
+    private final PointsBucketCounter pointsCounter;
+    private int segmentsCountedFromPoints;
+    private int segmentsCollected;
+
     public RangeAggregator(String name, AggregatorFactories factories, ValuesSource.Numeric valuesSource, DocValueFormat format,
             InternalRange.Factory rangeFactory, Range[] ranges, boolean keyed, SearchContext context,
             Aggregator parent, List<PipelineAggregator> pipelineAggregators, Map<String, Object> metaData) throws IOException {
+        this(name, factories, valuesSource, null, format, rangeFactory, ranges, keyed, context, parent, pipelineAggregators, metaData);
+    }
+
+    public RangeAggregator(String name, AggregatorFactories factories, ValuesSource.Numeric valuesSource,
+            @Nullable PointsBucketCounter pointsCounter, DocValueFormat format, InternalRange.Factory rangeFactory, Range[] ranges,
+            boolean keyed, SearchContext context, Aggregator parent, List<PipelineAggregator> pipelineAggregators,
+            Map<String, Object> metaData) throws IOException {
 
         super(name, factories, context, parent, pipelineAggregators, metaData);
         assert valuesSource != null;
         this.valuesSource = valuesSource;
+        this.pointsCounter = pointsCounter;
         this.format = format;
         this.keyed = keyed;
         this.rangeFactory = rangeFactory;
@@ -257,6 +274,12 @@ public class RangeAggregator extends BucketsAggregator {
     @Override
     public LeafBucketCollector getLeafCollector(LeafReaderContext ctx,
             final LeafBucketCollector sub) throws IOException {
+        if (pointsCounter != null && countFromPoints(ctx)) {
+            segmentsCountedFromPoints++;
+            // all ranges of this segment have been counted, there is nothing left to collect
+            throw new CollectionTerminatedException();
+        }
+        segmentsCollected++;
         final SortedNumericDoubleValues values = valuesSource.doubleValues(ctx);
         return new LeafBucketCollectorBase(sub, values) {
             @Override
@@ -270,6 +293,31 @@ public class RangeAggregator extends BucketsAggregator {
                 }
             }
 
+    private boolean countFromPoints(LeafReaderContext ctx) throws IOException {
+        final double[] from = new double[ranges.length];
+        final double[] to = new double[ranges.length];
+        for (int i = 0; i < ranges.length; i++) {
+            from[i] = ranges[i].from;
+            to[i] = ranges[i].to;
+        }
+        final long[] counts = new long[ranges.length];
+        if (pointsCounter.countRanges(ctx.reader(), from, to, counts) == false) {
+            return false;
+        }
+        for (int i = 0; i < ranges.length; i++) {
+            if (counts[i] > 0) {
+                incrementBucketDocCount(subBucketOrdinal(0, i), Math.toIntExact(counts[i]));
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public void collectDebugInfo(BiConsumer<String, Object> add) {
+        add.accept("segments_counted_from_points", segmentsCountedFromPoints);
+        add.accept("segments_collected", segmentsCollected);
+    }
+
     private int collect(int doc, double value, long owningBucketOrdinal, int lowBound) throws IOException {
         int lo = lowBound, hi = ranges.length - 1; // all candidates are between these indexes
         int mid = (lo + hi) >>> 1;
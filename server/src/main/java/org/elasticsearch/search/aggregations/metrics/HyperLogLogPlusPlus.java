@@ -20,6 +20,7 @@
 package org.elasticsearch.search.aggregations.metrics;
 
 import org.apache.lucene.util.BytesRef;
+import org.apache.lucene.util.BytesRefBuilder;
 import org.apache.lucene.util.LongBitSet;
 import org.apache.lucene.util.packed.PackedInts;
 import org.elasticsearch.common.io.stream.StreamInput;
@@ -1078,6 +1079,7 @@ public final class HyperLogLogPlusPlus implements Releasable {
         private final int mask;
         private IntArray sizes;
         private final BytesRef readSpare;
+        private final BytesRefBuilder readScratch;
         private final ByteBuffer writeSpare;
 
         Hashset(long initialBucketCount) {
@@ -1086,6 +1088,7 @@ public final class HyperLogLogPlusPlus implements Releasable {
             mask = capacity - 1;
             sizes = bigArrays.newIntArray(initialBucketCount);
             readSpare = new BytesRef();
+            readScratch = new BytesRefBuilder();
             writeSpare = ByteBuffer.allocate(4).order(ByteOrder.LITTLE_ENDIAN);
         }
 
@@ -1094,7 +1097,7 @@ public final class HyperLogLogPlusPlus implements Releasable {
         }
 
         private int get(long bucket, int index) {
-            runLens.get(index(bucket, index), 4, readSpare);
+            runLens.get(index(bucket, index), 4, readSpare, readScratch);
             return ByteUtils.readIntLE(readSpare.bytes, readSpare.offset);
         }
 
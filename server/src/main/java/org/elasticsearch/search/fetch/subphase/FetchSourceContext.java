@@ -20,6 +20,7 @@
 package org.elasticsearch.search.fetch.subphase;
 
 import org.elasticsearch.common.Booleans;
+import org.elasticsearch.common.CheckedBiConsumer;
 import org.elasticsearch.common.ParseField;
 import org.elasticsearch.common.ParsingException;
 import org.elasticsearch.common.Strings;
@@ -53,6 +54,7 @@ public class FetchSourceContext implements Writeable, ToXContentObject {
     private final String[] includes;
     private final String[] excludes;
     private Function<Map<String, ?>, Map<String, Object>> filter;
+    private CheckedBiConsumer<XContentParser, XContentBuilder, IOException> xContentFilter;
 
     public FetchSourceContext(boolean fetchSource, String[] includes, String[] excludes) {
         this.fetchSource = fetchSource;
@@ -234,4 +236,16 @@ public class FetchSourceContext implements Writeable, ToXContentObject {
         }
         return filter;
     }
+
+    /**
+     * Returns a filter that copies the source from a parser to a builder, only keeping
+     * the included fields. Unlike {@link #getFilter()} this does not require the source
+     * to be parsed into a map.
+     */
+    public CheckedBiConsumer<XContentParser, XContentBuilder, IOException> getXContentFilter() {
+        if (xContentFilter == null) {
+            xContentFilter = XContentMapValues.filterXContent(includes, excludes);
+        }
+        return xContentFilter;
+    }
 }
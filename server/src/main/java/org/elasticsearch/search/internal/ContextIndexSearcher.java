@@ -49,6 +49,7 @@ import org.apache.lucene.util.BitSetIterator;
 import org.apache.lucene.util.Bits;
 import org.apache.lucene.util.CombinedBitSet;
 import org.apache.lucene.util.SparseFixedBitSet;
+import org.apache.lucene.util.ThreadInterruptedException;
 import org.elasticsearch.common.lucene.search.TopDocsAndMaxScore;
 import org.elasticsearch.search.DocValueFormat;
 import org.elasticsearch.search.dfs.AggregatedDfs;
@@ -64,6 +65,10 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
 
 /**
  * Context-aware extension of {@link IndexSearcher}.
@@ -78,6 +83,7 @@ public class ContextIndexSearcher extends IndexSearcher {
     private AggregatedDfs aggregatedDfs;
     private QueryProfiler profiler;
     private Runnable checkCancelled;
+    private Executor sliceExecutor;
 
     public ContextIndexSearcher(IndexReader reader, Similarity similarity, QueryCache queryCache, QueryCachingPolicy queryCachingPolicy) {
         super(reader);
@@ -102,6 +108,17 @@ public class ContextIndexSearcher extends IndexSearcher {
         this.aggregatedDfs = aggregatedDfs;
     }
 
+    /**
+     * Set the {@link Executor} used to search slices of segments concurrently in {@link #searchSlices}.
+     */
+    public void setSliceExecutor(Executor sliceExecutor) {
+        this.sliceExecutor = sliceExecutor;
+    }
+
+    public Executor getSliceExecutor() {
+        return sliceExecutor;
+    }
+
     @Override
     public Query rewrite(Query original) throws IOException {
         if (profiler != null) {
@@ -166,6 +183,112 @@ public class ContextIndexSearcher extends IndexSearcher {
         result.topDocs(new TopDocsAndMaxScore(mergedTopDocs, Float.NaN), formats);
     }
 
+    /**
+     * Splits the provided leaves into at most <code>numSlices</code> slices of contiguous leaves that hold roughly
+     * the same number of documents. Slices are returned in leaf order so that the doc ids of a slice are all
+     * lower than the doc ids of the following slices.
+     */
+    public static List<List<LeafReaderContext>> slices(List<LeafReaderContext> leaves, int numSlices) {
+        if (numSlices < 1) {
+            throw new IllegalArgumentException("numSlices must be >= 1, got " + numSlices);
+        }
+        numSlices = Math.min(numSlices, leaves.size());
+        long totalDocs = 0;
+        for (LeafReaderContext leaf : leaves) {
+            totalDocs += leaf.reader().maxDoc();
+        }
+        final List<List<LeafReaderContext>> slices = new ArrayList<>(numSlices);
+        List<LeafReaderContext> current = new ArrayList<>();
+        long docs = 0;
+        for (LeafReaderContext leaf : leaves) {
+            current.add(leaf);
+            docs += leaf.reader().maxDoc();
+            // close the slice once it reaches its share of the documents, the last slice takes the remaining leaves
+            if (slices.size() < numSlices - 1 && docs * numSlices >= totalDocs * (slices.size() + 1)) {
+                slices.add(current);
+                current = new ArrayList<>();
+            }
+        }
+        if (current.isEmpty() == false) {
+            slices.add(current);
+        }
+        return slices;
+    }
+
+    /**
+     * Searches the provided <code>slices</code> concurrently, the collector at index <code>i</code> collects the documents
+     * of the slice at the same index. All slices but the last one are executed on the slice executor, the last one runs
+     * on the calling thread. This method returns once all slices are done and rethrows the first failure, if any.
+     */
+    public void searchSlices(Query query, List<List<LeafReaderContext>> slices, List<? extends Collector> collectors) throws IOException {
+        if (slices.size() != collectors.size()) {
+            throw new IllegalArgumentException("expected one collector per slice, got [" + collectors.size() + "] collectors for ["
+                + slices.size() + "] slices");
+        }
+        if (slices.isEmpty()) {
+            return;
+        }
+        ScoreMode scoreMode = collectors.get(0).scoreMode();
+        for (Collector collector : collectors) {
+            if (collector.scoreMode() != scoreMode) {
+                scoreMode = ScoreMode.COMPLETE;
+                break;
+            }
+        }
+        final Weight weight = createWeight(rewrite(query), scoreMode, 1f);
+        final int last = slices.size() - 1;
+        final List<FutureTask<Void>> tasks = new ArrayList<>(last);
+        for (int i = 0; i < last; i++) {
+            final List<LeafReaderContext> leaves = slices.get(i);
+            final Collector collector = collectors.get(i);
+            final FutureTask<Void> task = new FutureTask<>(() -> {
+                search(leaves, weight, collector);
+                return null;
+            });
+            tasks.add(task);
+            if (sliceExecutor == null) {
+                task.run();
+            } else {
+                try {
+                    sliceExecutor.execute(task);
+                } catch (RejectedExecutionException e) {
+                    // the executor is shutting down, search the slice on the calling thread instead
+                    task.run();
+                }
+            }
+        }
+        Throwable failure = null;
+        try {
+            search(slices.get(last), weight, collectors.get(last));
+        } catch (Exception e) {
+            failure = e;
+        }
+        // always wait for all slices since they hold on to the reader of this searcher
+        for (FutureTask<Void> task : tasks) {
+            try {
+                task.get();
+            } catch (ExecutionException e) {
+                if (failure == null) {
+                    failure = e.getCause();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                if (failure == null) {
+                    failure = new ThreadInterruptedException(e);
+                }
+            }
+        }
+        if (failure instanceof IOException) {
+            throw (IOException) failure;
+        } else if (failure instanceof RuntimeException) {
+            throw (RuntimeException) failure;
+        } else if (failure instanceof Error) {
+            throw (Error) failure;
+        } else if (failure != null) {
+            throw new RuntimeException(failure);
+        }
+    }
+
     @Override
     protected void search(List<LeafReaderContext> leaves, Weight weight, Collector collector) throws IOException {
         for (LeafReaderContext ctx : leaves) { // search each subreader
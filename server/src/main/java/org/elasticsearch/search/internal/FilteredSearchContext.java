@@ -285,6 +285,16 @@ public abstract class FilteredSearchContext extends SearchContext {
         in.terminateAfter(terminateAfter);
     }
 
+    @Override
+    public int concurrentSlices() {
+        return in.concurrentSlices();
+    }
+
+    @Override
+    public void concurrentSlices(int concurrentSlices) {
+        in.concurrentSlices(concurrentSlices);
+    }
+
     @Override
     public boolean lowLevelCancellation() {
         return in.lowLevelCancellation();
@@ -0,0 +1,121 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.elasticsearch.search.internal;
+
+import org.elasticsearch.common.lease.Releasable;
+import org.elasticsearch.common.util.concurrent.AbstractRefCounted;
+import org.elasticsearch.index.engine.Engine;
+import org.elasticsearch.index.shard.IndexShard;
+import org.elasticsearch.search.SearchContextMissingException;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.LongSupplier;
+
+/**
+ * Holds a point in time view of a shard that can be shared by any number of search requests.
+ * <p>
+ * Unlike a {@link SearchContext}, a reader context only pins the {@link Engine.Searcher} of the shard: it doesn't keep
+ * any per-request state, so concurrent requests (e.g. sliced <code>search_after</code> requests) can search the same
+ * consistent view of the shard. Each request acquires its own {@link Engine.Searcher} through {@link #acquireSearcher(String)}
+ * and the underlying searcher is released once the context is freed and all acquired searchers are closed.
+ */
+public final class ReaderContext extends AbstractRefCounted implements Releasable {
+    private final long id;
+    private final IndexShard indexShard;
+    private final Engine.Searcher searcher;
+    private final LongSupplier relativeTimeInMillis;
+    private final AtomicBoolean closed = new AtomicBoolean(false);
+    private volatile long keepAlive;
+    private volatile long lastAccessTime;
+
+    public ReaderContext(long id, IndexShard indexShard, Engine.Searcher searcher, long keepAlive, LongSupplier relativeTimeInMillis) {
+        super("reader_context");
+        this.id = id;
+        this.indexShard = indexShard;
+        this.searcher = searcher;
+        this.keepAlive = keepAlive;
+        this.relativeTimeInMillis = relativeTimeInMillis;
+        this.lastAccessTime = relativeTimeInMillis.getAsLong();
+    }
+
+    public long id() {
+        return id;
+    }
+
+    public IndexShard indexShard() {
+        return indexShard;
+    }
+
+    /**
+     * Returns a new {@link Engine.Searcher} over the point in time view of this context. The returned searcher
+     * must be closed once the request is done with it.
+     *
+     * @throws SearchContextMissingException if the context has already been freed
+     */
+    public Engine.Searcher acquireSearcher(String source) {
+        if (tryIncRef() == false) {
+            throw new SearchContextMissingException(id);
+        }
+        lastAccessTime = relativeTimeInMillis.getAsLong();
+        final AtomicBoolean released = new AtomicBoolean(false);
+        return new Engine.Searcher(source, searcher.getDirectoryReader(), searcher.getSimilarity(), searcher.getQueryCache(),
+            searcher.getQueryCachingPolicy(), () -> {
+                if (released.compareAndSet(false, true)) {
+                    // the keep alive starts again once the request is done with the reader
+                    lastAccessTime = relativeTimeInMillis.getAsLong();
+                    decRef();
+                }
+            });
+    }
+
+    /**
+     * Returns <code>true</code> if the context hasn't been used for longer than its keep alive and no
+     * request is currently searching it.
+     */
+    public boolean isExpired(long currentTimeInMillis) {
+        // the context itself holds one reference, any other reference is held by an ongoing request
+        return refCount() <= 1 && currentTimeInMillis - lastAccessTime > keepAlive;
+    }
+
+    public long keepAlive() {
+        return keepAlive;
+    }
+
+    public void keepAlive(long keepAlive) {
+        this.keepAlive = keepAlive;
+    }
+
+    public long lastAccessTime() {
+        return lastAccessTime;
+    }
+
+    @Override
+    public void close() {
+        if (closed.compareAndSet(false, true)) {
+            decRef();
+        }
+    }
+
+    @Override
+    protected void closeInternal() {
+        searcher.close();
+    }
+}
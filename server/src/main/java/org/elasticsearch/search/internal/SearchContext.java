@@ -223,6 +223,13 @@ public abstract class SearchContext extends AbstractRefCounted implements Releas
 
     public abstract void terminateAfter(int terminateAfter);
 
+    /**
+     * The number of slices the segments of the shard are split into and searched concurrently during the query phase.
+     */
+    public abstract int concurrentSlices();
+
+    public abstract void concurrentSlices(int concurrentSlices);
+
     /**
      * Indicates if the current index should perform frequent low level search cancellation check.
      *
@@ -77,6 +77,8 @@ public class ShardSearchRequest extends TransportRequest implements IndicesReque
     private final OriginalIndices originalIndices;
 
     private boolean canReturnNullResponseIfMatchNoDocs;
+    @Nullable
+    private Long readerId;
 
     //these are the only mutable fields, as they are subject to rewriting
     private AliasFilter aliasFilter;
@@ -176,6 +178,9 @@ public class ShardSearchRequest extends TransportRequest implements IndicesReque
             canReturnNullResponseIfMatchNoDocs = false;
         }
         originalIndices = OriginalIndices.readOriginalIndices(in);
+        if (in.getVersion().onOrAfter(Version.V_8_0_0)) {
+            readerId = in.readOptionalLong();
+        }
     }
 
     @Override
@@ -183,6 +188,12 @@ public class ShardSearchRequest extends TransportRequest implements IndicesReque
         super.writeTo(out);
         innerWriteTo(out, false);
         OriginalIndices.writeOriginalIndices(originalIndices, out);
+        if (out.getVersion().onOrAfter(Version.V_8_0_0)) {
+            out.writeOptionalLong(readerId);
+        } else if (readerId != null) {
+            throw new IllegalArgumentException("point in time searches are not supported on nodes before version [" + Version.V_8_0_0
+                + "], node version [" + out.getVersion() + "]");
+        }
     }
 
     protected final void innerWriteTo(StreamOutput out, boolean asKey) throws IOException {
@@ -299,6 +310,19 @@ public class ShardSearchRequest extends TransportRequest implements IndicesReque
         this.canReturnNullResponseIfMatchNoDocs = value;
     }
 
+    /**
+     * Returns the id of the point in time reader context that this request should search, or <code>null</code>
+     * if the request should search the latest view of the shard.
+     */
+    @Nullable
+    public Long readerId() {
+        return readerId;
+    }
+
+    public void readerId(@Nullable Long readerId) {
+        this.readerId = readerId;
+    }
+
     /**
      * Returns the cache key for this shard search request, based on its content
      */
@@ -53,6 +53,13 @@ public abstract class AbstractProfileBreakdown<T extends Enum<T>> {
         timings[timing.ordinal()] = timer;
     }
 
+    /**
+     * Fetch extra debugging information.
+     */
+    protected Map<String, Object> toDebugMap() {
+        return Collections.emptyMap();
+    }
+
     /** Convert this record to a map from timingType to times. */
     public Map<String, Long> toTimingMap() {
         Map<String, Long> map = new HashMap<>();
@@ -26,6 +26,7 @@ import org.apache.lucene.index.IndexOptions;
 import org.apache.lucene.index.IndexReader;
 import org.apache.lucene.index.LeafReaderContext;
 import org.apache.lucene.index.PointValues;
+import org.apache.lucene.index.Term;
 import org.apache.lucene.queries.MinDocQuery;
 import org.apache.lucene.queries.SearchAfterSortedDocQuery;
 import org.apache.lucene.search.BooleanClause;
@@ -37,6 +38,7 @@ import org.apache.lucene.search.DocValuesFieldExistsQuery;
 import org.apache.lucene.search.FieldDoc;
 import org.apache.lucene.search.MatchAllDocsQuery;
 import org.apache.lucene.search.Query;
+import org.apache.lucene.search.QueryVisitor;
 import org.apache.lucene.search.ScoreDoc;
 import org.apache.lucene.search.ScoreMode;
 import org.apache.lucene.search.Sort;
@@ -55,10 +57,12 @@ import org.elasticsearch.common.util.concurrent.QueueResizingEsThreadPoolExecuto
 import org.elasticsearch.index.IndexSortConfig;
 import org.elasticsearch.index.mapper.MappedFieldType;
 import org.elasticsearch.index.mapper.DateFieldMapper.DateFieldType;
+import org.elasticsearch.index.search.ESToParentBlockJoinQuery;
 import org.elasticsearch.search.DocValueFormat;
 import org.elasticsearch.search.SearchPhase;
 import org.elasticsearch.search.SearchService;
 import org.elasticsearch.search.aggregations.AggregationPhase;
+import org.elasticsearch.search.builder.SearchSourceBuilder;
 import org.elasticsearch.search.internal.ContextIndexSearcher;
 import org.elasticsearch.search.internal.ScrollContext;
 import org.elasticsearch.search.internal.SearchContext;
@@ -66,7 +70,11 @@ import org.elasticsearch.search.profile.ProfileShardResult;
 import org.elasticsearch.search.profile.SearchProfileShardResults;
 import org.elasticsearch.search.profile.query.InternalProfileCollector;
 import org.elasticsearch.search.rescore.RescorePhase;
+import org.elasticsearch.search.slice.SliceQuery;
+import org.elasticsearch.search.sort.FieldSortBuilder;
+import org.elasticsearch.search.sort.ScoreSortBuilder;
 import org.elasticsearch.search.sort.SortAndFormats;
+import org.elasticsearch.search.sort.SortBuilder;
 import org.elasticsearch.search.suggest.SuggestPhase;
 import org.elasticsearch.tasks.TaskCancelledException;
 import org.elasticsearch.threadpool.ThreadPool;
@@ -290,6 +298,8 @@ public class QueryPhase implements SearchPhase {
             // if we are optimizing sort and there are no other collectors
             if (sortAndFormatsForRewrittenNumericSort != null && collectors.size() == 0 && searchContext.getProfilers() == null) {
                 shouldRescore = searchWithCollectorManager(searchContext, searcher, query, leafSorter, timeoutSet);
+            } else if (canSearchConcurrently(searchContext, reader)) {
+                shouldRescore = searchConcurrently(searchContext, searcher, query, hasFilterCollector, timeoutSet);
             } else {
                 shouldRescore = searchWithCollector(searchContext, searcher, query, collectors, hasFilterCollector, timeoutSet);
             }
@@ -351,6 +361,210 @@ public class QueryPhase implements SearchPhase {
         return topDocsFactory.shouldRescore();
     }
 
+    /**
+     * Returns true if the query phase can search slices of segments concurrently. This requires the collectors of the
+     * request to be able to collect each slice independently and to merge their results afterwards, and the query, sort
+     * and aggregations to keep no state that is shared across slices. Only an allowlist of these is searched concurrently.
+     */
+    static boolean canSearchConcurrently(SearchContext searchContext, IndexReader reader) {
+        if (searchContext.concurrentSlices() <= 1 || reader.leaves().size() <= 1) {
+            return false;
+        }
+        // profiled collectors and timers are not thread-safe
+        if (searchContext.getProfilers() != null) {
+            return false;
+        }
+        // terminate_after counts documents across all segments, scroll and collapse collect the whole shard at once
+        if (searchContext.terminateAfter() != SearchContext.DEFAULT_TERMINATE_AFTER
+                || searchContext.scrollContext() != null
+                || searchContext.collapse() != null) {
+            return false;
+        }
+        // aggregations are the only query collectors that know how to collect slices independently
+        for (Class<?> key : searchContext.queryCollectors().keySet()) {
+            if (key != AggregationPhase.class) {
+                return false;
+            }
+        }
+        if (isSliceSafe(searchContext.query()) == false) {
+            return false;
+        }
+        if (searchContext.parsedPostFilter() != null && isSliceSafe(searchContext.parsedPostFilter().query()) == false) {
+            return false;
+        }
+        final SearchSourceBuilder source = searchContext.request() == null ? null : searchContext.request().source();
+        if (searchContext.sort() != null && isSliceSafe(searchContext.sort().sort, source) == false) {
+            return false;
+        }
+        if (searchContext.aggregations() != null) {
+            if (source == null || source.aggregations() == null
+                    || AggregationPhase.canCollectSegmentsSeparately(source.aggregations().getAggregatorFactories(), true) == false) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Lucene queries support concurrent searches of an {@link org.apache.lucene.search.IndexSearcher} so they can be used
+     * by slices, as well as the Elasticsearch queries listed here. Other queries may share state across slices, for instance
+     * scripts share the search lookup of the shard and the percolator shares the query shard context.
+     */
+    private static boolean isSliceSafe(Query query) {
+        final SliceSafeQueryVisitor visitor = new SliceSafeQueryVisitor();
+        query.visit(visitor);
+        return visitor.sliceSafe;
+    }
+
+    private static class SliceSafeQueryVisitor extends QueryVisitor {
+        private boolean sliceSafe = true;
+
+        @Override
+        public void consumeTerms(Query query, Term... terms) {
+            check(query);
+        }
+
+        @Override
+        public void visitLeaf(Query query) {
+            check(query);
+        }
+
+        @Override
+        public QueryVisitor getSubVisitor(BooleanClause.Occur occur, Query parent) {
+            check(parent);
+            return this;
+        }
+
+        private void check(Query query) {
+            if (query.getClass().getName().startsWith("org.apache.lucene.") == false
+                    && query instanceof ESToParentBlockJoinQuery == false
+                    && query instanceof SliceQuery == false) {
+                sliceSafe = false;
+            }
+        }
+    }
+
+    /**
+     * Field and score sorts compare per segment, other sorts such as script sorts may share state across slices. If the
+     * sort builders are not available only the sorts that don't use a custom comparator are allowed.
+     */
+    private static boolean isSliceSafe(Sort sort, SearchSourceBuilder source) {
+        if (source != null && source.sorts() != null) {
+            for (SortBuilder<?> sortBuilder : source.sorts()) {
+                if (sortBuilder instanceof FieldSortBuilder == false && sortBuilder instanceof ScoreSortBuilder == false) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        for (SortField sortField : sort.getSort()) {
+            if (sortField.getType() == SortField.Type.CUSTOM) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /*
+     * Searches slices of the shard's segments concurrently, each slice with its own collector chain. Slices
+     * are contiguous so their top docs are merged using the slice index as a tie-breaker, which preserves the
+     * doc id order of a sequential search. Aggregations of the additional slices are reduced in the AggregationPhase.
+     */
+    private static boolean searchConcurrently(SearchContext searchContext, ContextIndexSearcher searcher, Query query,
+            boolean hasFilterCollector, boolean timeoutSet) throws IOException {
+        final IndexReader reader = searcher.getIndexReader();
+        final List<List<LeafReaderContext>> slices = ContextIndexSearcher.slices(reader.leaves(), searchContext.concurrentSlices());
+
+        // the total hit count shortcut applies to the whole reader so it is computed once instead of once per slice
+        int trackTotalHitsUpTo = searchContext.trackTotalHitsUpTo();
+        TotalHits shortcutTotalHits = null;
+        if (trackTotalHitsUpTo != SearchContext.TRACK_TOTAL_HITS_DISABLED && hasFilterCollector == false) {
+            final int hitCount = shortcutTotalHitCount(reader, searchContext.query());
+            if (hitCount != -1) {
+                shortcutTotalHits = new TotalHits(hitCount, TotalHits.Relation.EQUAL_TO);
+                trackTotalHitsUpTo = SearchContext.TRACK_TOTAL_HITS_DISABLED;
+            }
+        }
+
+        final List<TopDocsCollectorContext> topDocsFactories = new ArrayList<>(slices.size());
+        final List<Collector> sliceCollectors = new ArrayList<>(slices.size());
+        for (int i = 0; i < slices.size(); i++) {
+            final LinkedList<QueryCollectorContext> collectors = new LinkedList<>();
+            // the shortcut was already handled above so slices never need to compute it
+            final TopDocsCollectorContext topDocsFactory = createTopDocsCollectorContext(searchContext, true, trackTotalHitsUpTo);
+            collectors.add(topDocsFactory);
+            if (searchContext.parsedPostFilter() != null) {
+                collectors.add(createFilteredCollectorContext(searcher, searchContext.parsedPostFilter().query()));
+            }
+            // the first slice uses the main aggregators, the other slices get their own
+            final Collector aggsCollector = i == 0 ? searchContext.queryCollectors().get(AggregationPhase.class)
+                : AggregationPhase.createSliceCollector(searchContext);
+            if (aggsCollector != null) {
+                collectors.add(createMultiCollectorContext(Collections.singletonList(aggsCollector)));
+            }
+            if (searchContext.minimumScore() != null) {
+                collectors.add(createMinScoreCollectorContext(searchContext.minimumScore()));
+            }
+            topDocsFactories.add(topDocsFactory);
+            sliceCollectors.add(QueryCollectorContext.createQueryCollector(collectors));
+        }
+
+        QuerySearchResult queryResult = searchContext.queryResult();
+        try {
+            searcher.searchSlices(query, slices, sliceCollectors);
+        } catch (TimeExceededException e) {
+            assert timeoutSet : "TimeExceededException thrown even though timeout wasn't set";
+            if (searchContext.request().allowPartialSearchResults() == false) {
+                // Can't rethrow TimeExceededException because not serializable
+                throw new QueryPhaseExecutionException(searchContext.shardTarget(), "Time exceeded");
+            }
+            queryResult.searchTimedOut(true);
+        } finally {
+            searchContext.clearReleasables(SearchContext.Lifetime.COLLECTION);
+        }
+
+        final TopDocs[] sliceTopDocs = new TopDocs[slices.size()];
+        DocValueFormat[] sortValueFormats = null;
+        float maxScore = Float.NaN;
+        long totalHitCount = 0;
+        TotalHits.Relation relation = TotalHits.Relation.EQUAL_TO;
+        for (int i = 0; i < slices.size(); i++) {
+            final QuerySearchResult sliceResult = new QuerySearchResult();
+            topDocsFactories.get(i).postProcess(sliceResult);
+            final TopDocsAndMaxScore topDocs = sliceResult.topDocs();
+            sliceTopDocs[i] = topDocs.topDocs;
+            sortValueFormats = sliceResult.sortValueFormats();
+            totalHitCount += topDocs.topDocs.totalHits.value;
+            if (topDocs.topDocs.totalHits.relation == TotalHits.Relation.GREATER_THAN_OR_EQUAL_TO) {
+                relation = TotalHits.Relation.GREATER_THAN_OR_EQUAL_TO;
+            }
+            if (Float.isNaN(maxScore) || topDocs.maxScore > maxScore) {
+                maxScore = topDocs.maxScore;
+            }
+        }
+        final TotalHits totalHits = shortcutTotalHits != null ? shortcutTotalHits : new TotalHits(totalHitCount, relation);
+        final int numHits = topDocsFactories.get(0).numHits();
+        final TopDocs mergedTopDocs;
+        if (numHits == 0) {
+            mergedTopDocs = new TopDocs(totalHits, Lucene.EMPTY_SCORE_DOCS);
+        } else if (searchContext.sort() != null) {
+            final TopFieldDocs[] sliceFieldDocs = new TopFieldDocs[sliceTopDocs.length];
+            for (int i = 0; i < sliceTopDocs.length; i++) {
+                sliceFieldDocs[i] = (TopFieldDocs) sliceTopDocs[i];
+            }
+            TopFieldDocs merged = TopDocs.merge(searchContext.sort().sort, 0, numHits, sliceFieldDocs, true);
+            mergedTopDocs = new TopFieldDocs(totalHits, merged.scoreDocs, merged.fields);
+        } else {
+            mergedTopDocs = new TopDocs(totalHits, TopDocs.merge(0, numHits, sliceTopDocs, true).scoreDocs);
+        }
+        // the slice index was used as a tie-breaker, ES sets the shard index during the reduce on the coordinating node
+        for (ScoreDoc scoreDoc : mergedTopDocs.scoreDocs) {
+            scoreDoc.shardIndex = -1;
+        }
+        queryResult.topDocs(new TopDocsAndMaxScore(mergedTopDocs, maxScore), sortValueFormats);
+        return topDocsFactories.get(0).shouldRescore();
+    }
+
 
     /*
      * We use collectorManager during sort optimization, where
@@ -22,6 +22,7 @@ package org.elasticsearch.search.query;
 import org.apache.lucene.search.FieldDoc;
 import org.apache.lucene.search.TotalHits;
 import org.elasticsearch.Version;
+import org.elasticsearch.common.io.stream.DelayableWriteable;
 import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.io.stream.StreamOutput;
 import org.elasticsearch.common.lucene.search.TopDocsAndMaxScore;
@@ -53,7 +54,7 @@ public final class QuerySearchResult extends SearchPhaseResult {
     private TotalHits totalHits;
     private float maxScore = Float.NaN;
     private DocValueFormat[] sortValueFormats;
-    private InternalAggregations aggregations;
+    private DelayableWriteable<InternalAggregations> aggregations;
     private boolean hasAggs;
     private Suggest suggest;
     private boolean searchTimedOut;
@@ -196,21 +197,37 @@ public final class QuerySearchResult extends SearchPhaseResult {
      * @throws IllegalStateException if the aggregations have already been consumed.
      */
     public Aggregations consumeAggs() {
+        return consumeDelayedAggs().expand();
+    }
+
+    /**
+     * Returns and nulls out the aggregations for this search results without deserializing them if they were
+     * received from a remote node. This allows the coordinating node to keep the aggregations in their compact
+     * serialized form until they are reduced.
+     * @throws IllegalStateException if the aggregations have already been consumed.
+     */
+    public DelayableWriteable<InternalAggregations> consumeDelayedAggs() {
         if (aggregations == null) {
             throw new IllegalStateException("aggs already consumed");
         }
-        Aggregations aggs = aggregations;
+        DelayableWriteable<InternalAggregations> aggs = aggregations;
         aggregations = null;
         return aggs;
     }
 
     public void aggregations(InternalAggregations aggregations) {
-        this.aggregations = aggregations;
+        this.aggregations = aggregations == null ? null : DelayableWriteable.referencing(aggregations);
         hasAggs = aggregations != null;
     }
 
     public InternalAggregations aggregations() {
-        return aggregations;
+        if (aggregations == null) {
+            return null;
+        }
+        if (aggregations.isSerialized()) {
+            aggregations = DelayableWriteable.referencing(aggregations.expand());
+        }
+        return aggregations.expand();
     }
 
     /**
@@ -313,18 +330,22 @@ public final class QuerySearchResult extends SearchPhaseResult {
         }
         setTopDocs(readTopDocs(in));
         if (hasAggs = in.readBoolean()) {
-            aggregations = new InternalAggregations(in);
+            if (in.getVersion().onOrAfter(Version.V_8_0_0)) {
+                aggregations = DelayableWriteable.delayed(InternalAggregations::new, in);
+            } else {
+                aggregations = DelayableWriteable.referencing(new InternalAggregations(in));
+            }
         }
         if (in.getVersion().before(Version.V_7_2_0)) {
             List<SiblingPipelineAggregator> pipelineAggregators = in.readNamedWriteableList(PipelineAggregator.class).stream()
                 .map(a -> (SiblingPipelineAggregator) a).collect(Collectors.toList());
             if (hasAggs && pipelineAggregators.isEmpty() == false) {
-                List<InternalAggregation> internalAggs = aggregations.asList().stream()
+                List<InternalAggregation> internalAggs = aggregations.expand().asList().stream()
                     .map(agg -> (InternalAggregation) agg).collect(Collectors.toList());
                 //Earlier versions serialize sibling pipeline aggs separately as they used to be set to QuerySearchResult directly, while
                 //later versions include them in InternalAggregations. Note that despite serializing sibling pipeline aggs as part of
                 //InternalAggregations is supported since 6.7.0, the shards set sibling pipeline aggs to InternalAggregations only from 7.1.
-                this.aggregations = new InternalAggregations(internalAggs, pipelineAggregators);
+                this.aggregations = DelayableWriteable.referencing(new InternalAggregations(internalAggs, pipelineAggregators));
             }
         }
         if (in.readBoolean()) {
@@ -365,7 +386,11 @@ public final class QuerySearchResult extends SearchPhaseResult {
             out.writeBoolean(false);
         } else {
             out.writeBoolean(true);
-            aggregations.writeTo(out);
+            if (out.getVersion().onOrAfter(Version.V_8_0_0)) {
+                aggregations.writeTo(out);
+            } else {
+                aggregations.expand().writeTo(out);
+            }
         }
         if (out.getVersion().before(Version.V_7_2_0)) {
             //Earlier versions expect sibling pipeline aggs separately as they used to be set to QuerySearchResult directly,
@@ -374,7 +399,7 @@ public final class QuerySearchResult extends SearchPhaseResult {
             if (aggregations == null) {
                 out.writeNamedWriteableList(Collections.emptyList());
             } else {
-                out.writeNamedWriteableList(aggregations.getTopLevelPipelineAggregators());
+                out.writeNamedWriteableList(aggregations.expand().getTopLevelPipelineAggregators());
             }
         }
         if (suggest == null) {
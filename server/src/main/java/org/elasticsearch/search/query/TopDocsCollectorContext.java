@@ -415,23 +415,34 @@ abstract class TopDocsCollectorContext extends QueryCollectorContext {
      */
     static TopDocsCollectorContext createTopDocsCollectorContext(SearchContext searchContext,
                                                                  boolean hasFilterCollector) throws IOException {
+        return createTopDocsCollectorContext(searchContext, hasFilterCollector, searchContext.trackTotalHitsUpTo());
+    }
+
+    /**
+     * Creates a {@link TopDocsCollectorContext} from the provided <code>searchContext</code> that tracks total hits
+     * up to <code>trackTotalHitsUpTo</code> rather than the value of the search context. Scroll queries ignore this value.
+     * @param hasFilterCollector True if the collector chain contains at least one collector that can filters document.
+     */
+    static TopDocsCollectorContext createTopDocsCollectorContext(SearchContext searchContext,
+                                                                 boolean hasFilterCollector,
+                                                                 int trackTotalHitsUpTo) throws IOException {
         final IndexReader reader = searchContext.searcher().getIndexReader();
         final Query query = searchContext.query();
         // top collectors don't like a size of 0
         final int totalNumDocs = Math.max(1, reader.numDocs());
         if (searchContext.size() == 0) {
             // no matter what the value of from is
-            return new EmptyTopDocsCollectorContext(reader, query, searchContext.trackTotalHitsUpTo(), hasFilterCollector);
+            return new EmptyTopDocsCollectorContext(reader, query, trackTotalHitsUpTo, hasFilterCollector);
         } else if (searchContext.scrollContext() != null) {
             // we can disable the tracking of total hits after the initial scroll query
             // since the total hits is preserved in the scroll context.
-            int trackTotalHitsUpTo = searchContext.scrollContext().totalHits != null ?
+            int scrollTrackTotalHitsUpTo = searchContext.scrollContext().totalHits != null ?
                 SearchContext.TRACK_TOTAL_HITS_DISABLED : SearchContext.TRACK_TOTAL_HITS_ACCURATE;
             // no matter what the value of from is
             int numDocs = Math.min(searchContext.size(), totalNumDocs);
             return new ScrollingTopDocsCollectorContext(reader, query, searchContext.scrollContext(),
                 searchContext.sort(), numDocs, searchContext.trackScores(), searchContext.numberOfShards(),
-                trackTotalHitsUpTo, hasFilterCollector);
+                scrollTrackTotalHitsUpTo, hasFilterCollector);
         } else if (searchContext.collapse() != null) {
             boolean trackScores = searchContext.sort() == null ? true : searchContext.trackScores();
             int numDocs = Math.min(searchContext.from() + searchContext.size(), totalNumDocs);
@@ -446,7 +457,7 @@ abstract class TopDocsCollectorContext extends QueryCollectorContext {
                 }
             }
             return new SimpleTopDocsCollectorContext(reader, query, searchContext.sort(), searchContext.searchAfter(), numDocs,
-                searchContext.trackScores(), searchContext.trackTotalHitsUpTo(), hasFilterCollector) {
+                searchContext.trackScores(), trackTotalHitsUpTo, hasFilterCollector) {
                 @Override
                 boolean shouldRescore() {
                     return rescore;
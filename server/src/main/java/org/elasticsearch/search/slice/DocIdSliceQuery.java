@@ -0,0 +1,71 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.elasticsearch.search.slice;
+
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.search.ConstantScoreScorer;
+import org.apache.lucene.search.ConstantScoreWeight;
+import org.apache.lucene.search.DocIdSetIterator;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.ScoreMode;
+import org.apache.lucene.search.Scorer;
+import org.apache.lucene.search.Weight;
+
+import java.io.IOException;
+
+/**
+ * A {@link SliceQuery} that splits the documents of a reader in contiguous ranges of doc ids.
+ * Each slice only visits the segments that overlap with its range and doesn't need to evaluate
+ * a per-document predicate, so the cost of a slice is proportional to its share of the documents.
+ *
+ * <b>NOTE</b>: Doc ids depend on the reader, all `slice` queries must use the same reader in order to
+ * return disjoint slices. This is why this query can only be used with a point in time.
+ */
+public final class DocIdSliceQuery extends SliceQuery {
+    public DocIdSliceQuery(int id, int max) {
+        super(SliceBuilder.DOC_FIELD_NAME, id, max);
+    }
+
+    @Override
+    public Weight createWeight(IndexSearcher searcher, ScoreMode scoreMode, float boost) throws IOException {
+        final int maxDoc = searcher.getIndexReader().maxDoc();
+        final int from = (int) ((long) maxDoc * getId() / getMax());
+        final int to = (int) ((long) maxDoc * (getId() + 1) / getMax());
+        return new ConstantScoreWeight(this, boost) {
+            @Override
+            public Scorer scorer(LeafReaderContext context) throws IOException {
+                final int min = Math.max(from - context.docBase, 0);
+                final int max = Math.min(to - context.docBase, context.reader().maxDoc());
+                if (min >= max) {
+                    // the segment is outside of the range of this slice
+                    return null;
+                }
+                return new ConstantScoreScorer(this, score(), scoreMode, DocIdSetIterator.range(min, max));
+            }
+
+            @Override
+            public boolean isCacheable(LeafReaderContext ctx) {
+                // the range depends on the top level reader
+                return false;
+            }
+        };
+    }
+}
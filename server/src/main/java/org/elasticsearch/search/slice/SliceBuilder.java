@@ -57,11 +57,17 @@ import java.util.Set;
  *  then the slices 0 and 2 are assigned to the first shard and the slices 1 and 3 are assigned to the second shard.
  *  This way the total number of bitsets that we need to build on each shard is bounded by the number of slices
  *  (instead of {@code numShards*numSlices}).
+ *  If the provided field is "_doc" the documents of each shard are split in contiguous ranges of doc ids with
+ *  a {@link org.elasticsearch.search.slice.DocIdSliceQuery} so that each slice only reads its share of the segments.
+ *  Doc ids are only stable within a reader so this mode requires the request to search a point in time.
  *  Otherwise the provided field must be a numeric and doc_values must be enabled. In that case a
  *  {@link org.elasticsearch.search.slice.DocValuesSliceQuery} is used to filter the results.
  */
 public class SliceBuilder implements Writeable, ToXContentObject {
 
+    /** The pseudo field used to slice on contiguous ranges of doc ids */
+    public static final String DOC_FIELD_NAME = "_doc";
+
     private static final ParseField FIELD_FIELD = new ParseField("field");
     public static final ParseField ID_FIELD = new ParseField("id");
     private static final ParseField MAX_FIELD = new ParseField("max");
@@ -206,8 +212,12 @@ public class SliceBuilder implements Writeable, ToXContentObject {
      */
     @SuppressWarnings("rawtypes")
     public Query toFilter(ClusterService clusterService, ShardSearchRequest request, QueryShardContext context) {
-        final MappedFieldType type = context.fieldMapper(field);
-        if (type == null) {
+        final boolean useDocIdQuery = DOC_FIELD_NAME.equals(field);
+        if (useDocIdQuery) {
+            if (request.readerId() == null) {
+                throw new IllegalArgumentException("slicing on [" + DOC_FIELD_NAME + "] requires a point in time");
+            }
+        } else if (context.fieldMapper(field) == null) {
             throw new IllegalArgumentException("field " + field + " not found");
         }
 
@@ -243,9 +253,11 @@ public class SliceBuilder implements Writeable, ToXContentObject {
         boolean useTermQuery = false;
         if (IdFieldMapper.NAME.equals(field)) {
             useTermQuery = true;
-        } else if (type.hasDocValues() == false) {
-            throw new IllegalArgumentException("cannot load numeric doc values on " + field);
-        } else {
+        } else if (useDocIdQuery == false) {
+            final MappedFieldType type = context.fieldMapper(field);
+            if (type.hasDocValues() == false) {
+                throw new IllegalArgumentException("cannot load numeric doc values on " + field);
+            }
             IndexFieldData ifm = context.getForField(type);
             if (ifm instanceof IndexNumericFieldData == false) {
                 throw new IllegalArgumentException("cannot load numeric doc values on " + field);
@@ -253,8 +265,7 @@ public class SliceBuilder implements Writeable, ToXContentObject {
         }
 
         if (numShards == 1) {
-            return useTermQuery ? new TermsSliceQuery(field, id, max) :
-                new DocValuesSliceQuery(field, id, max);
+            return createSliceQuery(field, useDocIdQuery, useTermQuery, id, max);
         }
         if (max >= numShards) {
             // the number of slices is greater than the number of shards
@@ -280,9 +291,7 @@ public class SliceBuilder implements Writeable, ToXContentObject {
             // get the new slice id for this shard
             int shardSlice = id / numShards;
 
-            return useTermQuery ?
-                new TermsSliceQuery(field, shardSlice, numSlicesInShard) :
-                new DocValuesSliceQuery(field, shardSlice, numSlicesInShard);
+            return createSliceQuery(field, useDocIdQuery, useTermQuery, shardSlice, numSlicesInShard);
         }
         // the number of shards is greater than the number of slices
 
@@ -295,6 +304,13 @@ public class SliceBuilder implements Writeable, ToXContentObject {
         return new MatchAllDocsQuery();
     }
 
+    private static Query createSliceQuery(String field, boolean useDocIdQuery, boolean useTermQuery, int id, int max) {
+        if (useDocIdQuery) {
+            return new DocIdSliceQuery(id, max);
+        }
+        return useTermQuery ? new TermsSliceQuery(field, id, max) : new DocValuesSliceQuery(field, id, max);
+    }
+
     /**
      * Returns the {@link GroupShardsIterator} for the provided <code>request</code>.
      */
@@ -19,9 +19,10 @@
 
 package org.elasticsearch.transport;
 
+import org.elasticsearch.common.Nullable;
 import org.elasticsearch.core.internal.io.IOUtils;
 import org.elasticsearch.common.bytes.BytesReference;
-import org.elasticsearch.common.compress.CompressorFactory;
+import org.elasticsearch.common.compress.Compressor;
 import org.elasticsearch.common.io.Streams;
 import org.elasticsearch.common.io.stream.BytesStream;
 import org.elasticsearch.common.io.stream.StreamOutput;
@@ -47,12 +48,18 @@ final class CompressibleBytesOutputStream extends StreamOutput {
     private final StreamOutput stream;
     private final BytesStream bytesStreamOutput;
     private final boolean shouldCompress;
+    private final long startPosition;
+    private long uncompressedBytes;
 
-    CompressibleBytesOutputStream(BytesStream bytesStreamOutput, boolean shouldCompress) throws IOException {
+    /**
+     * Creates a stream that compresses with the given {@link Compressor}, or that does not compress if it is {@code null}.
+     */
+    CompressibleBytesOutputStream(BytesStream bytesStreamOutput, @Nullable Compressor compressor) throws IOException {
         this.bytesStreamOutput = bytesStreamOutput;
-        this.shouldCompress = shouldCompress;
+        this.shouldCompress = compressor != null;
+        this.startPosition = bytesStreamOutput.position();
         if (shouldCompress) {
-            this.stream = CompressorFactory.COMPRESSOR.streamOutput(Streams.flushOnCloseStream(bytesStreamOutput));
+            this.stream = compressor.streamOutput(Streams.flushOnCloseStream(bytesStreamOutput));
         } else {
             this.stream = bytesStreamOutput;
         }
@@ -75,14 +82,31 @@ final class CompressibleBytesOutputStream extends StreamOutput {
         return bytesStreamOutput.bytes();
     }
 
+    /**
+     * Returns the number of bytes written to this stream before compression.
+     */
+    long uncompressedBytes() {
+        return uncompressedBytes;
+    }
+
+    /**
+     * Returns the number of bytes that writing to this stream added to the underlying stream. This is only accurate
+     * once {@link #materializeBytes()} has been called.
+     */
+    long compressedBytes() throws IOException {
+        return bytesStreamOutput.position() - startPosition;
+    }
+
     @Override
     public void writeByte(byte b) throws IOException {
         stream.write(b);
+        uncompressedBytes++;
     }
 
     @Override
     public void writeBytes(byte[] b, int offset, int length) throws IOException {
         stream.writeBytes(b, offset, length);
+        uncompressedBytes += length;
     }
 
     @Override
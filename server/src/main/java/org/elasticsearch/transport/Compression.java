@@ -0,0 +1,79 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.transport;
+
+import org.elasticsearch.Version;
+import org.elasticsearch.common.compress.Compressor;
+import org.elasticsearch.common.compress.CompressorFactory;
+
+import java.util.Locale;
+
+/**
+ * The compression schemes that can be used for transport messages. Compressed messages are flagged as such in the
+ * status byte of their {@link TcpHeader}, the receiving side then detects the scheme from the header of the
+ * compressed bytes.
+ */
+public final class Compression {
+
+    private Compression() {
+    }
+
+    public enum Scheme {
+        DEFLATE(CompressorFactory.COMPRESSOR),
+        LZ4(CompressorFactory.LZ4_COMPRESSOR);
+
+        /** Nodes before this version can only decompress {@link #DEFLATE} messages. */
+        static final Version LZ4_VERSION = Version.V_8_0_0;
+
+        private final Compressor compressor;
+
+        Scheme(Compressor compressor) {
+            this.compressor = compressor;
+        }
+
+        public Compressor compressor() {
+            return compressor;
+        }
+
+        /**
+         * Returns the scheme to use for a message sent with the given version, which is the version negotiated
+         * during the handshake. Falls back to {@link #DEFLATE} if the remote node cannot read this scheme.
+         */
+        Scheme forVersion(Version version) {
+            if (this == LZ4 && version.before(LZ4_VERSION)) {
+                return DEFLATE;
+            }
+            return this;
+        }
+
+        public static Scheme parse(String value) {
+            try {
+                return valueOf(value.toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("unknown compression scheme [" + value + "], must be one of [deflate, lz4]", e);
+            }
+        }
+
+        @Override
+        public String toString() {
+            return name().toLowerCase(Locale.ROOT);
+        }
+    }
+}
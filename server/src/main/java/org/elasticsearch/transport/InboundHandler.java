@@ -173,15 +173,24 @@ public class InboundHandler {
                 transportChannel = new TcpTransportChannel(outboundHandler, channel, action, requestId, version,
                     circuitBreakerService, messageLengthBytes, message.isCompress());
                 final T request = reg.newRequest(stream);
-                request.remoteAddress(new TransportAddress(channel.getRemoteAddress()));
-                // in case we throw an exception, i.e. when the limit is hit, we don't want to verify
-                final int nextByte = stream.read();
-                // calling read() is useful to make sure the message is fully read, even if there some kind of EOS marker
-                if (nextByte != -1) {
-                    throw new IllegalStateException("Message not fully read (request) for requestId [" + requestId + "], action [" + action
-                        + "], available [" + stream.available() + "]; resetting");
+                boolean dispatched = false;
+                try {
+                    request.remoteAddress(new TransportAddress(channel.getRemoteAddress()));
+                    // in case we throw an exception, i.e. when the limit is hit, we don't want to verify
+                    final int nextByte = stream.read();
+                    // calling read() is useful to make sure the message is fully read, even if there some kind of EOS marker
+                    if (nextByte != -1) {
+                        throw new IllegalStateException("Message not fully read (request) for requestId [" + requestId + "], action ["
+                            + action + "], available [" + stream.available() + "]; resetting");
+                    }
+                    // from here on the request handler releases the request once it is done with it
+                    dispatched = true;
+                    threadPool.executor(reg.getExecutor()).execute(new RequestHandler<>(reg, request, transportChannel));
+                } finally {
+                    if (dispatched == false) {
+                        request.decRef();
+                    }
                 }
-                threadPool.executor(reg.getExecutor()).execute(new RequestHandler<>(reg, request, transportChannel));
             }
         } catch (Exception e) {
             // the circuit breaker tripped
@@ -277,5 +286,11 @@ public class InboundHandler {
                     "Failed to send error message back to client for action [{}]", reg.getAction()), inner);
             }
         }
+
+        @Override
+        public void onAfter() {
+            // release the network buffers that the request may still reference
+            request.decRef();
+        }
     }
 }
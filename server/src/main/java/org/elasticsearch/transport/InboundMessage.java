@@ -19,7 +19,9 @@
 package org.elasticsearch.transport;
 
 import org.elasticsearch.Version;
+import org.elasticsearch.common.bytes.BytesArray;
 import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.compress.Compressor;
 import org.elasticsearch.common.compress.CompressorFactory;
 import org.elasticsearch.common.io.stream.NamedWriteableAwareStreamInput;
 import org.elasticsearch.common.io.stream.NamedWriteableRegistry;
@@ -45,6 +47,9 @@ public abstract class InboundMessage extends NetworkMessage implements Closeable
 
     static class Reader {
 
+        // all compressors use a header of 4 bytes
+        private static final int COMPRESSION_HEADER_LENGTH = 4;
+
         private final Version version;
         private final NamedWriteableRegistry namedWriteableRegistry;
         private final ThreadContext threadContext;
@@ -105,18 +110,46 @@ public abstract class InboundMessage extends NetworkMessage implements Closeable
 
         static StreamInput decompressingStream(byte status, Version remoteVersion, StreamInput streamInput) throws IOException {
             if (TransportStatus.isCompress(status) && streamInput.available() > 0) {
-                try {
-                    StreamInput decompressor = CompressorFactory.COMPRESSOR.streamInput(streamInput);
-                    decompressor.setVersion(remoteVersion);
-                    return decompressor;
-                } catch (IllegalArgumentException e) {
-                    throw new IllegalStateException("stream marked as compressed, but is missing deflate header");
+                final Compressor compressor = compressor(streamInput);
+                if (compressor == null) {
+                    throw new IllegalStateException("stream marked as compressed, but is missing a known compression header");
                 }
+                StreamInput decompressor = compressor.streamInput(streamInput);
+                decompressor.setVersion(remoteVersion);
+                return decompressor;
             } else {
                 return streamInput;
             }
         }
 
+        /**
+         * Peeks at the header of the compressed bytes to find out which {@link Compression.Scheme} they were compressed
+         * with, or returns {@code null} if the header is not recognized.
+         */
+        private static Compressor compressor(StreamInput streamInput) throws IOException {
+            if (streamInput.markSupported() == false) {
+                return CompressorFactory.COMPRESSOR;
+            }
+            final byte[] header = new byte[COMPRESSION_HEADER_LENGTH];
+            streamInput.mark(header.length);
+            int len = 0;
+            while (len < header.length) {
+                final int read = streamInput.read(header, len, header.length - len);
+                if (read == -1) {
+                    break;
+                }
+                len += read;
+            }
+            streamInput.reset();
+            final BytesArray headerBytes = new BytesArray(header, 0, len);
+            for (Compression.Scheme scheme : Compression.Scheme.values()) {
+                if (scheme.compressor().isCompressed(headerBytes)) {
+                    return scheme.compressor();
+                }
+            }
+            return null;
+        }
+
         private StreamInput namedWriteableStream(StreamInput delegate, Version remoteVersion) {
             NamedWriteableAwareStreamInput streamInput = new NamedWriteableAwareStreamInput(delegate, namedWriteableRegistry);
             streamInput.setVersion(remoteVersion);
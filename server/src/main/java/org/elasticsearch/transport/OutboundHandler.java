@@ -27,12 +27,16 @@ import org.elasticsearch.action.ActionListener;
 import org.elasticsearch.action.NotifyOnceListener;
 import org.elasticsearch.cluster.node.DiscoveryNode;
 import org.elasticsearch.common.CheckedSupplier;
+import org.elasticsearch.common.Nullable;
+import org.elasticsearch.common.Strings;
 import org.elasticsearch.common.bytes.BytesReference;
 import org.elasticsearch.common.io.stream.ReleasableBytesStreamOutput;
 import org.elasticsearch.common.lease.Releasable;
 import org.elasticsearch.common.lease.Releasables;
+import org.elasticsearch.common.metrics.CounterMetric;
 import org.elasticsearch.common.metrics.MeanMetric;
 import org.elasticsearch.common.network.CloseableChannel;
+import org.elasticsearch.common.regex.Regex;
 import org.elasticsearch.common.transport.NetworkExceptionHelper;
 import org.elasticsearch.common.transport.TransportAddress;
 import org.elasticsearch.common.util.BigArrays;
@@ -46,18 +50,34 @@ final class OutboundHandler {
     private static final Logger logger = LogManager.getLogger(OutboundHandler.class);
 
     private final MeanMetric transmittedBytesMetric = new MeanMetric();
+    private final MeanMetric compressedBytesMetric = new MeanMetric();
+    private final CounterMetric uncompressedBytesMetric = new CounterMetric();
+    private final CounterMetric compressionTimeMetric = new CounterMetric();
 
     private final String nodeName;
     private final Version version;
     private final ThreadPool threadPool;
     private final BigArrays bigArrays;
+    private final Compression.Scheme compressionScheme;
+    private final String[] compressActions;
     private volatile TransportMessageListener messageListener = TransportMessageListener.NOOP_LISTENER;
 
     OutboundHandler(String nodeName, Version version, ThreadPool threadPool, BigArrays bigArrays) {
+        this(nodeName, version, threadPool, bigArrays, Compression.Scheme.DEFLATE, Strings.EMPTY_ARRAY);
+    }
+
+    /**
+     * @param compressionScheme the scheme used to compress messages, if the receiving node can read it
+     * @param compressActions   patterns of actions whose requests and responses are always compressed
+     */
+    OutboundHandler(String nodeName, Version version, ThreadPool threadPool, BigArrays bigArrays,
+                    Compression.Scheme compressionScheme, String[] compressActions) {
         this.nodeName = nodeName;
         this.version = version;
         this.threadPool = threadPool;
         this.bigArrays = bigArrays;
+        this.compressionScheme = compressionScheme;
+        this.compressActions = compressActions;
     }
 
     void sendBytes(TcpChannel channel, BytesReference bytes, ActionListener<Void> listener) {
@@ -78,8 +98,9 @@ final class OutboundHandler {
                      final TransportRequest request, final TransportRequestOptions options, final Version channelVersion,
                      final boolean compressRequest, final boolean isHandshake) throws IOException, TransportException {
         Version version = Version.min(this.version, channelVersion);
+        Compression.Scheme scheme = compressionScheme(version, action, compressRequest, isHandshake);
         OutboundMessage.Request message =
-            new OutboundMessage.Request(threadPool.getThreadContext(), request, version, action, requestId, isHandshake, compressRequest);
+            new OutboundMessage.Request(threadPool.getThreadContext(), request, version, action, requestId, isHandshake, scheme);
         ActionListener<Void> listener = ActionListener.wrap(() ->
             messageListener.onRequestSent(node, requestId, action, request, options));
         sendMessage(channel, message, listener);
@@ -94,8 +115,9 @@ final class OutboundHandler {
     void sendResponse(final Version nodeVersion, final TcpChannel channel, final long requestId, final String action,
                       final TransportResponse response, final boolean compress, final boolean isHandshake) throws IOException {
         Version version = Version.min(this.version, nodeVersion);
+        Compression.Scheme scheme = compressionScheme(version, action, compress, isHandshake);
         OutboundMessage.Response message = new OutboundMessage.Response(threadPool.getThreadContext(), response, version,
-            requestId, isHandshake, compress);
+            requestId, isHandshake, scheme);
         ActionListener<Void> listener = ActionListener.wrap(() -> messageListener.onResponseSent(requestId, action, response));
         sendMessage(channel, message, listener);
     }
@@ -109,11 +131,30 @@ final class OutboundHandler {
         TransportAddress address = new TransportAddress(channel.getLocalAddress());
         RemoteTransportException tx = new RemoteTransportException(nodeName, address, action, error);
         OutboundMessage.Response message = new OutboundMessage.Response(threadPool.getThreadContext(), tx, version, requestId,
-            false, false);
+            false, null);
         ActionListener<Void> listener = ActionListener.wrap(() -> messageListener.onResponseSent(requestId, action, error));
         sendMessage(channel, message, listener);
     }
 
+    /**
+     * Returns the scheme to compress a message with, or {@code null} if it should not be compressed. Handshakes are only
+     * compressed when explicitly requested since the version of the remote node is not known yet.
+     */
+    @Nullable
+    private Compression.Scheme compressionScheme(Version version, String action, boolean compress, boolean isHandshake) {
+        if (compress || (isHandshake == false && shouldCompress(action))) {
+            return compressionScheme.forVersion(version);
+        }
+        return null;
+    }
+
+    /**
+     * Returns whether messages for the given action should be compressed regardless of the connection settings.
+     */
+    boolean shouldCompress(String action) {
+        return compressActions.length > 0 && Regex.simpleMatch(compressActions, action);
+    }
+
     private void sendMessage(TcpChannel channel, OutboundMessage networkMessage, ActionListener<Void> listener) throws IOException {
         MessageSerializer serializer = new MessageSerializer(networkMessage, bigArrays);
         SendContext sendContext = new SendContext(channel, serializer, listener, serializer);
@@ -137,6 +178,27 @@ final class OutboundHandler {
         return transmittedBytesMetric;
     }
 
+    /**
+     * Returns the number of compressed messages and their total size after compression.
+     */
+    MeanMetric getCompressedBytes() {
+        return compressedBytesMetric;
+    }
+
+    /**
+     * Returns the total size of compressed messages before compression.
+     */
+    CounterMetric getUncompressedBytes() {
+        return uncompressedBytesMetric;
+    }
+
+    /**
+     * Returns the time in nanoseconds spent serializing and compressing compressed messages.
+     */
+    CounterMetric getCompressionTime() {
+        return compressionTimeMetric;
+    }
+
     void setMessageListener(TransportMessageListener listener) {
         if (messageListener == TransportMessageListener.NOOP_LISTENER) {
             messageListener = listener;
@@ -145,7 +207,7 @@ final class OutboundHandler {
         }
     }
 
-    private static class MessageSerializer implements CheckedSupplier<BytesReference, IOException>, Releasable {
+    private class MessageSerializer implements CheckedSupplier<BytesReference, IOException>, Releasable {
 
         private final OutboundMessage message;
         private final BigArrays bigArrays;
@@ -159,7 +221,14 @@ final class OutboundHandler {
         @Override
         public BytesReference get() throws IOException {
             bytesStreamOutput = new ReleasableBytesStreamOutput(bigArrays);
-            return message.serialize(bytesStreamOutput);
+            final long startNanos = System.nanoTime();
+            final BytesReference reference = message.serialize(bytesStreamOutput);
+            if (message.getCompressedBytes() != -1) {
+                compressionTimeMetric.inc(System.nanoTime() - startNanos);
+                compressedBytesMetric.inc(message.getCompressedBytes());
+                uncompressedBytesMetric.inc(message.getUncompressedBytes());
+            }
+            return reference;
         }
 
         @Override
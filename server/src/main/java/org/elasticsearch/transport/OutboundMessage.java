@@ -19,10 +19,12 @@
 package org.elasticsearch.transport;
 
 import org.elasticsearch.Version;
+import org.elasticsearch.common.Nullable;
 import org.elasticsearch.common.Strings;
 import org.elasticsearch.common.bytes.BytesArray;
 import org.elasticsearch.common.bytes.BytesReference;
 import org.elasticsearch.common.bytes.CompositeBytesReference;
+import org.elasticsearch.common.compress.Compressor;
 import org.elasticsearch.common.io.stream.BytesStreamOutput;
 import org.elasticsearch.common.io.stream.StreamOutput;
 import org.elasticsearch.common.io.stream.Writeable;
@@ -33,10 +35,16 @@ import java.io.IOException;
 abstract class OutboundMessage extends NetworkMessage {
 
     private final Writeable message;
+    private final Compression.Scheme compressionScheme;
+    private long uncompressedBytes = -1;
+    private long compressedBytes = -1;
 
-    OutboundMessage(ThreadContext threadContext, Version version, byte status, long requestId, Writeable message) {
+    OutboundMessage(ThreadContext threadContext, Version version, byte status, long requestId,
+                    @Nullable Compression.Scheme compressionScheme, Writeable message) {
         super(threadContext, version, status, requestId);
+        assert TransportStatus.isCompress(status) == false || compressionScheme != null : "compressed messages need a scheme";
         this.message = message;
+        this.compressionScheme = compressionScheme;
     }
 
     BytesReference serialize(BytesStreamOutput bytesStream) throws IOException {
@@ -54,12 +62,17 @@ abstract class OutboundMessage extends NetworkMessage {
             variableHeaderLength = Math.toIntExact(bytesStream.position() - preHeaderPosition);
         }
 
-        try (CompressibleBytesOutputStream stream = new CompressibleBytesOutputStream(bytesStream, TransportStatus.isCompress(status))) {
+        final Compressor compressor = TransportStatus.isCompress(status) ? compressionScheme.compressor() : null;
+        try (CompressibleBytesOutputStream stream = new CompressibleBytesOutputStream(bytesStream, compressor)) {
             stream.setVersion(version);
             if (variableHeaderLength == -1) {
                 writeVariableHeader(stream);
             }
             reference = writeMessage(stream);
+            if (compressor != null) {
+                uncompressedBytes = stream.uncompressedBytes();
+                compressedBytes = stream.compressedBytes();
+            }
         }
 
         bytesStream.seek(0);
@@ -72,6 +85,22 @@ abstract class OutboundMessage extends NetworkMessage {
         threadContext.writeTo(stream);
     }
 
+    /**
+     * Returns the number of bytes of the message body before compression, or {@code -1} if the message was not
+     * compressed. Only available once the message has been serialized.
+     */
+    long getUncompressedBytes() {
+        return uncompressedBytes;
+    }
+
+    /**
+     * Returns the number of bytes of the message body after compression, or {@code -1} if the message was not
+     * compressed. Only available once the message has been serialized.
+     */
+    long getCompressedBytes() {
+        return compressedBytes;
+    }
+
     protected BytesReference writeMessage(CompressibleBytesOutputStream stream) throws IOException {
         final BytesReference zeroCopyBuffer;
         if (message instanceof BytesTransportRequest) {
@@ -103,8 +132,9 @@ abstract class OutboundMessage extends NetworkMessage {
         private final String action;
 
         Request(ThreadContext threadContext, Writeable message, Version version, String action, long requestId,
-                boolean isHandshake, boolean compress) {
-            super(threadContext, version, setStatus(compress, isHandshake, message), requestId, message);
+                boolean isHandshake, @Nullable Compression.Scheme compressionScheme) {
+            super(threadContext, version, setStatus(compressionScheme != null, isHandshake, message), requestId, compressionScheme,
+                message);
             this.action = action;
         }
 
@@ -134,8 +164,10 @@ abstract class OutboundMessage extends NetworkMessage {
 
     static class Response extends OutboundMessage {
 
-        Response(ThreadContext threadContext, Writeable message, Version version, long requestId, boolean isHandshake, boolean compress) {
-            super(threadContext, version, setStatus(compress, isHandshake, message), requestId, message);
+        Response(ThreadContext threadContext, Writeable message, Version version, long requestId, boolean isHandshake,
+                 @Nullable Compression.Scheme compressionScheme) {
+            super(threadContext, version, setStatus(compressionScheme != null, isHandshake, message), requestId, compressionScheme,
+                message);
         }
 
         private static byte setStatus(boolean compress, boolean isHandshake, Writeable message) {
@@ -33,6 +33,7 @@ import org.elasticsearch.common.Strings;
 import org.elasticsearch.common.breaker.CircuitBreaker;
 import org.elasticsearch.common.bytes.BytesArray;
 import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.bytes.ReleasableBytesReference;
 import org.elasticsearch.common.component.AbstractLifecycleComponent;
 import org.elasticsearch.common.component.Lifecycle;
 import org.elasticsearch.common.io.stream.NamedWriteableRegistry;
@@ -137,7 +138,9 @@ public abstract class TcpTransport extends AbstractLifecycleComponent implements
         String nodeName = Node.NODE_NAME_SETTING.get(settings);
         BigArrays bigArrays = new BigArrays(pageCacheRecycler, circuitBreakerService, CircuitBreaker.IN_FLIGHT_REQUESTS);
 
-        this.outboundHandler = new OutboundHandler(nodeName, version, threadPool, bigArrays);
+        this.outboundHandler = new OutboundHandler(nodeName, version, threadPool, bigArrays,
+            TransportSettings.TRANSPORT_COMPRESSION_SCHEME.get(settings),
+            TransportSettings.TRANSPORT_COMPRESS_ACTIONS.get(settings).toArray(Strings.EMPTY_ARRAY));
         this.handshaker = new TransportHandshaker(ClusterName.CLUSTER_NAME_SETTING.get(settings), version, threadPool,
             (node, channel, requestId, v) -> outboundHandler.sendRequest(node, channel, requestId,
                 TransportHandshaker.HANDSHAKE_ACTION_NAME, new TransportHandshaker.HandshakeRequest(version),
@@ -657,12 +660,13 @@ public abstract class TcpTransport extends AbstractLifecycleComponent implements
     protected abstract void stopInternal();
 
     /**
-     * Handles inbound message that has been decoded.
+     * Handles inbound message that has been decoded. The message is only valid for the duration of this call,
+     * requests that need to hold on to parts of it retain them with {@link StreamInput#readReleasableBytesReference()}.
      *
      * @param channel the channel the message is from
-     * @param message the message
+     * @param message the message, which the caller releases once this method returns
      */
-    public void inboundMessage(TcpChannel channel, BytesReference message) {
+    public void inboundMessage(TcpChannel channel, ReleasableBytesReference message) {
         try {
             inboundHandler.inboundMessage(channel, message);
         } catch (Exception e) {
@@ -675,21 +679,26 @@ public abstract class TcpTransport extends AbstractLifecycleComponent implements
      * in this call.
      *
      * @param channel        the channel read from
-     * @param bytesReference the bytes available to consume
+     * @param bytesReference the bytes available to consume, which the caller releases once this method returns
      * @return the number of bytes consumed
      * @throws StreamCorruptedException              if the message header format is not recognized
      * @throws HttpRequestOnTransportException       if the message header appears to be an HTTP message
      * @throws IllegalArgumentException              if the message length is greater that the maximum allowed frame size.
      *                                               This is dependent on the available memory.
      */
-    public int consumeNetworkReads(TcpChannel channel, BytesReference bytesReference) throws IOException {
-        BytesReference message = decodeFrame(bytesReference);
+    public int consumeNetworkReads(TcpChannel channel, ReleasableBytesReference bytesReference) throws IOException {
+        BytesReference frame = decodeFrame(bytesReference);
 
-        if (message == null) {
+        if (frame == null) {
             return 0;
         } else {
-            inboundMessage(channel, message);
-            return message.length() + BYTES_NEEDED_FOR_MESSAGE_SIZE;
+            final int messageLength = frame.length();
+            // the message shares the network buffers rather than copying them
+            try (ReleasableBytesReference message = messageLength == 0 ? ReleasableBytesReference.wrap(frame)
+                : bytesReference.retainedSlice(BYTES_NEEDED_FOR_MESSAGE_SIZE, messageLength)) {
+                inboundMessage(channel, message);
+            }
+            return messageLength + BYTES_NEEDED_FOR_MESSAGE_SIZE;
         }
     }
 
@@ -867,8 +876,10 @@ public abstract class TcpTransport extends AbstractLifecycleComponent implements
     public final TransportStats getStats() {
         MeanMetric transmittedBytes = outboundHandler.getTransmittedBytes();
         MeanMetric readBytes = inboundHandler.getReadBytes();
+        MeanMetric compressedBytes = outboundHandler.getCompressedBytes();
         return new TransportStats(acceptedChannels.size(), readBytes.count(), readBytes.sum(), transmittedBytes.count(),
-            transmittedBytes.sum());
+            transmittedBytes.sum(), compressedBytes.count(), outboundHandler.getUncompressedBytes().count(), compressedBytes.sum(),
+            outboundHandler.getCompressionTime().count());
     }
 
     /**
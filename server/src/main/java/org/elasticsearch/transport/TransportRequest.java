@@ -21,12 +21,13 @@ package org.elasticsearch.transport;
 
 import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.io.stream.StreamOutput;
+import org.elasticsearch.common.util.concurrent.RefCounted;
 import org.elasticsearch.tasks.TaskAwareRequest;
 import org.elasticsearch.tasks.TaskId;
 
 import java.io.IOException;
 
-public abstract class TransportRequest extends TransportMessage implements TaskAwareRequest {
+public abstract class TransportRequest extends TransportMessage implements TaskAwareRequest, RefCounted {
     public static class Empty extends TransportRequest {
         public static final Empty INSTANCE = new Empty();
 
@@ -69,4 +70,25 @@ public abstract class TransportRequest extends TransportMessage implements TaskA
     public void writeTo(StreamOutput out) throws IOException {
         parentTaskId.writeTo(out);
     }
+
+    /*
+     * Requests that are received from the network hold a single reference that is released once their handler's
+     * messageReceived method returns. Requests that read parts of their payload with
+     * StreamInput#readReleasableBytesReference() must override these methods to retain and release that payload, and
+     * handlers that use the payload after returning must retain the request and release it when they are done with it.
+     * By default requests hold on to nothing.
+     */
+
+    @Override
+    public void incRef() {
+    }
+
+    @Override
+    public boolean tryIncRef() {
+        return true;
+    }
+
+    @Override
+    public void decRef() {
+    }
 }
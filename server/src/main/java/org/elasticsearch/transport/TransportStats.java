@@ -19,15 +19,18 @@
 
 package org.elasticsearch.transport;
 
+import org.elasticsearch.Version;
 import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.io.stream.StreamOutput;
 import org.elasticsearch.common.io.stream.Writeable;
 import org.elasticsearch.common.unit.ByteSizeValue;
+import org.elasticsearch.common.unit.TimeValue;
 import org.elasticsearch.common.xcontent.ToXContent.Params;
 import org.elasticsearch.common.xcontent.ToXContentFragment;
 import org.elasticsearch.common.xcontent.XContentBuilder;
 
 import java.io.IOException;
+import java.util.concurrent.TimeUnit;
 
 public class TransportStats implements Writeable, ToXContentFragment {
 
@@ -36,13 +39,22 @@ public class TransportStats implements Writeable, ToXContentFragment {
     private final long rxSize;
     private final long txCount;
     private final long txSize;
+    private final long txCompressedCount;
+    private final long txUncompressedSize;
+    private final long txCompressedSize;
+    private final long txCompressionTimeInNanos;
 
-    public TransportStats(long serverOpen, long rxCount, long rxSize, long txCount, long txSize) {
+    public TransportStats(long serverOpen, long rxCount, long rxSize, long txCount, long txSize, long txCompressedCount,
+                          long txUncompressedSize, long txCompressedSize, long txCompressionTimeInNanos) {
         this.serverOpen = serverOpen;
         this.rxCount = rxCount;
         this.rxSize = rxSize;
         this.txCount = txCount;
         this.txSize = txSize;
+        this.txCompressedCount = txCompressedCount;
+        this.txUncompressedSize = txUncompressedSize;
+        this.txCompressedSize = txCompressedSize;
+        this.txCompressionTimeInNanos = txCompressionTimeInNanos;
     }
 
     public TransportStats(StreamInput in) throws IOException {
@@ -51,6 +63,17 @@ public class TransportStats implements Writeable, ToXContentFragment {
         rxSize = in.readVLong();
         txCount = in.readVLong();
         txSize = in.readVLong();
+        if (in.getVersion().onOrAfter(Version.V_8_0_0)) {
+            txCompressedCount = in.readVLong();
+            txUncompressedSize = in.readVLong();
+            txCompressedSize = in.readVLong();
+            txCompressionTimeInNanos = in.readVLong();
+        } else {
+            txCompressedCount = 0;
+            txUncompressedSize = 0;
+            txCompressedSize = 0;
+            txCompressionTimeInNanos = 0;
+        }
     }
 
     @Override
@@ -60,6 +83,12 @@ public class TransportStats implements Writeable, ToXContentFragment {
         out.writeVLong(rxSize);
         out.writeVLong(txCount);
         out.writeVLong(txSize);
+        if (out.getVersion().onOrAfter(Version.V_8_0_0)) {
+            out.writeVLong(txCompressedCount);
+            out.writeVLong(txUncompressedSize);
+            out.writeVLong(txCompressedSize);
+            out.writeVLong(txCompressionTimeInNanos);
+        }
     }
 
     public long serverOpen() {
@@ -102,6 +131,42 @@ public class TransportStats implements Writeable, ToXContentFragment {
         return txSize();
     }
 
+    /**
+     * Returns the number of messages that were compressed before being sent.
+     */
+    public long getTxCompressedCount() {
+        return txCompressedCount;
+    }
+
+    /**
+     * Returns the total size of compressed messages before compression.
+     */
+    public ByteSizeValue getTxUncompressedSize() {
+        return new ByteSizeValue(txUncompressedSize);
+    }
+
+    /**
+     * Returns the total size of compressed messages after compression.
+     */
+    public ByteSizeValue getTxCompressedSize() {
+        return new ByteSizeValue(txCompressedSize);
+    }
+
+    /**
+     * Returns the ratio of the size of compressed messages before and after compression, or {@code 0} if no message was
+     * compressed.
+     */
+    public double getTxCompressionRatio() {
+        return txCompressedSize == 0 ? 0 : (double) txUncompressedSize / txCompressedSize;
+    }
+
+    /**
+     * Returns the time spent serializing and compressing compressed messages.
+     */
+    public TimeValue getTxCompressionTime() {
+        return new TimeValue(txCompressionTimeInNanos, TimeUnit.NANOSECONDS);
+    }
+
     @Override
     public XContentBuilder toXContent(XContentBuilder builder, Params params) throws IOException {
         builder.startObject(Fields.TRANSPORT);
@@ -110,6 +175,13 @@ public class TransportStats implements Writeable, ToXContentFragment {
         builder.humanReadableField(Fields.RX_SIZE_IN_BYTES, Fields.RX_SIZE, new ByteSizeValue(rxSize));
         builder.field(Fields.TX_COUNT, txCount);
         builder.humanReadableField(Fields.TX_SIZE_IN_BYTES, Fields.TX_SIZE, new ByteSizeValue(txSize));
+        builder.startObject(Fields.COMPRESSION);
+        builder.field(Fields.TX_COUNT, txCompressedCount);
+        builder.humanReadableField(Fields.TX_UNCOMPRESSED_SIZE_IN_BYTES, Fields.TX_UNCOMPRESSED_SIZE, getTxUncompressedSize());
+        builder.humanReadableField(Fields.TX_COMPRESSED_SIZE_IN_BYTES, Fields.TX_COMPRESSED_SIZE, getTxCompressedSize());
+        builder.field(Fields.TX_RATIO, getTxCompressionRatio());
+        builder.humanReadableField(Fields.TX_TIME_IN_MILLIS, Fields.TX_TIME, getTxCompressionTime());
+        builder.endObject();
         builder.endObject();
         return builder;
     }
@@ -123,5 +195,13 @@ public class TransportStats implements Writeable, ToXContentFragment {
         static final String TX_COUNT = "tx_count";
         static final String TX_SIZE = "tx_size";
         static final String TX_SIZE_IN_BYTES = "tx_size_in_bytes";
+        static final String COMPRESSION = "compression";
+        static final String TX_UNCOMPRESSED_SIZE = "tx_uncompressed_size";
+        static final String TX_UNCOMPRESSED_SIZE_IN_BYTES = "tx_uncompressed_size_in_bytes";
+        static final String TX_COMPRESSED_SIZE = "tx_compressed_size";
+        static final String TX_COMPRESSED_SIZE_IN_BYTES = "tx_compressed_size_in_bytes";
+        static final String TX_RATIO = "tx_ratio";
+        static final String TX_TIME = "tx_time";
+        static final String TX_TIME_IN_MILLIS = "tx_time_in_millis";
     }
 }
@@ -218,6 +218,14 @@ public class NodeStatsTests extends ESTestCase {
                     assertEquals(nodeStats.getTransport().getServerOpen(), deserializedNodeStats.getTransport().getServerOpen());
                     assertEquals(nodeStats.getTransport().getTxCount(), deserializedNodeStats.getTransport().getTxCount());
                     assertEquals(nodeStats.getTransport().getTxSize(), deserializedNodeStats.getTransport().getTxSize());
+                    assertEquals(nodeStats.getTransport().getTxCompressedCount(),
+                        deserializedNodeStats.getTransport().getTxCompressedCount());
+                    assertEquals(nodeStats.getTransport().getTxUncompressedSize(),
+                        deserializedNodeStats.getTransport().getTxUncompressedSize());
+                    assertEquals(nodeStats.getTransport().getTxCompressedSize(),
+                        deserializedNodeStats.getTransport().getTxCompressedSize());
+                    assertEquals(nodeStats.getTransport().getTxCompressionTime(),
+                        deserializedNodeStats.getTransport().getTxCompressionTime());
                 }
                 if (nodeStats.getHttp() == null) {
                     assertNull(deserializedNodeStats.getHttp());
@@ -413,6 +421,7 @@ public class NodeStatsTests extends ESTestCase {
             fsInfo = new FsInfo(randomNonNegativeLong(), ioStats, paths);
         }
         TransportStats transportStats = frequently() ? new TransportStats(randomNonNegativeLong(), randomNonNegativeLong(),
+                randomNonNegativeLong(), randomNonNegativeLong(), randomNonNegativeLong(), randomNonNegativeLong(),
                 randomNonNegativeLong(), randomNonNegativeLong(), randomNonNegativeLong()) : null;
         HttpStats httpStats = frequently() ? new HttpStats(randomNonNegativeLong(), randomNonNegativeLong()) : null;
         AllCircuitBreakerStats allCircuitBreakerStats = null;
@@ -20,10 +20,15 @@
 package org.elasticsearch.action.bulk;
 
 import org.elasticsearch.common.bytes.BytesArray;
+import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.bytes.CompositeBytesReference;
 import org.elasticsearch.common.xcontent.XContentType;
 import org.elasticsearch.test.ESTestCase;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 public class BulkRequestParserTests extends ESTestCase {
@@ -109,4 +114,67 @@ public class BulkRequestParserTests extends ESTestCase {
         assertTrue(parsed.get());
     }
 
+    public void testIncrementalParse() throws IOException {
+        final int numItems = randomIntBetween(1, 20);
+        final StringBuilder body = new StringBuilder();
+        for (int i = 0; i < numItems; i++) {
+            if (randomBoolean()) {
+                body.append("{ \"delete\":{ \"_id\": \"").append(i).append("\" } }\n");
+            } else {
+                body.append("{ \"index\":{ \"_id\": \"").append(i).append("\" } }\n{ \"field\": ").append(i).append(" }\n");
+            }
+        }
+        final byte[] bytes = body.toString().getBytes(StandardCharsets.UTF_8);
+        final BulkRequestParser parser = new BulkRequestParser(randomBoolean());
+        final List<String> ids = new ArrayList<>();
+        BytesReference unparsed = BytesArray.EMPTY;
+        int offset = 0;
+        while (offset < bytes.length) {
+            final int chunkLength = randomIntBetween(1, bytes.length - offset);
+            final BytesReference chunk = new BytesArray(bytes, offset, chunkLength);
+            offset += chunkLength;
+            final BytesReference data = unparsed.length() == 0 ? chunk : new CompositeBytesReference(unparsed, chunk);
+            final int consumed = parser.incrementalParse(data, "foo", null, null, null, false, XContentType.JSON,
+                (indexRequest, type) -> ids.add(indexRequest.id()), req -> fail(), deleteRequest -> ids.add(deleteRequest.id()),
+                offset == bytes.length);
+            unparsed = data.slice(consumed, data.length() - consumed);
+        }
+        assertEquals(0, unparsed.length());
+        assertEquals(numItems, ids.size());
+        for (int i = 0; i < numItems; i++) {
+            assertEquals(Integer.toString(i), ids.get(i));
+        }
+    }
+
+    public void testIncrementalParseLeavesIncompleteItem() throws IOException {
+        BytesArray request = new BytesArray("{ \"delete\":{ \"_id\": \"bar\" } }\n{ \"index\":{ \"_id\": \"baz\" } }\n{}");
+        BulkRequestParser parser = new BulkRequestParser(randomBoolean());
+        final AtomicBoolean parsed = new AtomicBoolean();
+        int consumed = parser.incrementalParse(request, "foo", null, null, null, false, XContentType.JSON,
+            (req, type) -> fail(), req -> fail(),
+                deleteRequest -> {
+                    assertFalse(parsed.get());
+                    assertEquals("bar", deleteRequest.id());
+                    parsed.set(true);
+                }, false);
+        assertTrue(parsed.get());
+        assertEquals(request.indexOf((byte) '\n', 0) + 1, consumed);
+
+        IllegalArgumentException e = expectThrows(IllegalArgumentException.class,
+            () -> parser.incrementalParse(request.slice(consumed, request.length() - consumed), "foo", null, null, null, false,
+                XContentType.JSON, (req, type) -> fail(), req -> fail(), req -> fail(), true));
+        assertEquals("The bulk request must be terminated by a newline [\\n]", e.getMessage());
+    }
+
+    public void testIncrementalParseReportsLinesOfWholeBody() throws IOException {
+        BulkRequestParser parser = new BulkRequestParser(randomBoolean());
+        BytesArray first = new BytesArray("{ \"index\":{ \"_id\": \"bar\" } }\n{}\n");
+        assertEquals(first.length(), parser.incrementalParse(first, "foo", null, null, null, false, XContentType.JSON,
+            (req, type) -> {}, req -> fail(), req -> fail(), false));
+
+        IllegalArgumentException e = expectThrows(IllegalArgumentException.class,
+            () -> parser.incrementalParse(new BytesArray("[]\n"), "foo", null, null, null, false, XContentType.JSON,
+                (req, type) -> fail(), req -> fail(), req -> fail(), true));
+        assertEquals("Malformed action/metadata line [3], expected START_OBJECT but found [START_ARRAY]", e.getMessage());
+    }
 }
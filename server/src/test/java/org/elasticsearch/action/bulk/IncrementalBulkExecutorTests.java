@@ -0,0 +1,238 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.action.bulk;
+
+import org.elasticsearch.ElasticsearchException;
+import org.elasticsearch.ElasticsearchStatusException;
+import org.elasticsearch.action.ActionListener;
+import org.elasticsearch.action.ActionRequest;
+import org.elasticsearch.action.ActionResponse;
+import org.elasticsearch.action.ActionType;
+import org.elasticsearch.action.DocWriteRequest;
+import org.elasticsearch.action.support.PlainActionFuture;
+import org.elasticsearch.common.breaker.CircuitBreaker;
+import org.elasticsearch.common.breaker.CircuitBreakingException;
+import org.elasticsearch.common.bytes.BytesArray;
+import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.collect.Tuple;
+import org.elasticsearch.common.settings.ClusterSettings;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.util.concurrent.EsRejectedExecutionException;
+import org.elasticsearch.common.xcontent.XContentType;
+import org.elasticsearch.indices.breaker.HierarchyCircuitBreakerService;
+import org.elasticsearch.rest.RestStatus;
+import org.elasticsearch.test.ESTestCase;
+import org.elasticsearch.test.client.NoOpClient;
+import org.junit.Before;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+
+public class IncrementalBulkExecutorTests extends ESTestCase {
+
+    private final List<Tuple<BulkRequest, ActionListener<BulkResponse>>> executed = new ArrayList<>();
+    private CircuitBreaker breaker;
+
+    @Before
+    public void setupBreaker() {
+        final HierarchyCircuitBreakerService circuitBreakerService = new HierarchyCircuitBreakerService(
+            Settings.builder()
+                .put(HierarchyCircuitBreakerService.IN_FLIGHT_REQUESTS_CIRCUIT_BREAKER_LIMIT_SETTING.getKey(), "1kb")
+                .put(HierarchyCircuitBreakerService.USE_REAL_MEMORY_USAGE_SETTING.getKey(), false)
+                .build(),
+            new ClusterSettings(Settings.EMPTY, ClusterSettings.BUILT_IN_CLUSTER_SETTINGS));
+        breaker = circuitBreakerService.getBreaker(CircuitBreaker.IN_FLIGHT_REQUESTS);
+    }
+
+    public void testExecutesOneBatchAtATime() {
+        try (NoOpClient client = new CapturingClient()) {
+            final PlainActionFuture<BulkResponse> future = PlainActionFuture.newFuture();
+            // every item fills a batch on its own
+            final IncrementalBulkExecutor executor = newExecutor(client, 1, future);
+            final AtomicInteger reads = new AtomicInteger();
+
+            executor.onChunk(item(0), false, reads::incrementAndGet);
+            assertEquals(1, executed.size());
+            assertEquals(1, reads.get());
+
+            // the second batch is full but has to wait for the first one, so reading pauses
+            executor.onChunk(item(1), false, reads::incrementAndGet);
+            assertEquals(1, executed.size());
+            assertEquals(1, reads.get());
+
+            final BulkRequest firstBatch = executed.get(0).v1();
+            assertEquals(1, firstBatch.numberOfActions());
+            final BulkItemResponse[] items = new BulkItemResponse[] {
+                new BulkItemResponse(0, DocWriteRequest.OpType.INDEX, new BulkItemResponse.Failure("index", "0",
+                    new ElasticsearchException("failed")))
+            };
+            executed.get(0).v2().onResponse(new BulkResponse(items, 0L));
+            assertEquals(2, executed.size());
+            assertEquals(2, reads.get());
+
+            executor.onChunk(BytesArray.EMPTY, true, () -> fail("no chunk should be requested after the last one"));
+            assertFalse(future.isDone());
+            executed.get(1).v2().onFailure(new EsRejectedExecutionException("rejected"));
+
+            final BulkResponse response = future.actionGet();
+            assertEquals(2, response.getItems().length);
+            for (int i = 0; i < 2; i++) {
+                final BulkItemResponse item = response.getItems()[i];
+                assertEquals(i, item.getItemId());
+                assertEquals(Integer.toString(i), item.getId());
+                assertTrue(item.isFailed());
+            }
+            assertThat(response.getItems()[1].getFailure().getCause(), instanceOf(EsRejectedExecutionException.class));
+            assertEquals(0, breaker.getUsed());
+        }
+    }
+
+    public void testCollectsItemsUntilBatchIsFull() {
+        try (NoOpClient client = new CapturingClient()) {
+            final PlainActionFuture<BulkResponse> future = PlainActionFuture.newFuture();
+            final IncrementalBulkExecutor executor = newExecutor(client, Long.MAX_VALUE, future);
+            final AtomicInteger reads = new AtomicInteger();
+            final int numItems = randomIntBetween(1, 10);
+            for (int i = 0; i < numItems; i++) {
+                // split the item in two chunks, the first one only completes the items before it
+                final BytesReference item = item(i);
+                final int split = randomIntBetween(1, item.length() - 1);
+                executor.onChunk(item.slice(0, split), false, reads::incrementAndGet);
+                executor.onChunk(item.slice(split, item.length() - split), i == numItems - 1, reads::incrementAndGet);
+            }
+            assertEquals(2 * numItems - 1, reads.get());
+            assertEquals(1, executed.size());
+            assertEquals(numItems, executed.get(0).v1().numberOfActions());
+        }
+    }
+
+    public void testFailsOnMalformedBody() throws InterruptedException {
+        try (NoOpClient client = new CapturingClient()) {
+            final PlainActionFuture<BulkResponse> future = PlainActionFuture.newFuture();
+            final IncrementalBulkExecutor executor = newExecutor(client, Long.MAX_VALUE, future);
+            executor.onChunk(item(0), false, () -> {});
+            executor.onChunk(new BytesArray("[]\n"), false, () -> fail("no chunk should be requested after a failure"));
+            final ExecutionException e = expectThrows(ExecutionException.class, future::get);
+            assertThat(e.getCause(), instanceOf(IllegalArgumentException.class));
+            assertThat(e.getCause().getMessage(), containsString("Malformed action/metadata line [3]"));
+            assertEquals(0, executed.size());
+            assertEquals(0, breaker.getUsed());
+        }
+    }
+
+    public void testAccountsRetainedBytesUntilBatchCompletes() {
+        try (NoOpClient client = new CapturingClient()) {
+            final PlainActionFuture<BulkResponse> future = PlainActionFuture.newFuture();
+            final IncrementalBulkExecutor executor = newExecutor(client, 1, future);
+            final BytesReference first = item(0);
+            executor.onChunk(first, false, () -> {});
+            assertEquals(1, executed.size());
+            assertEquals(first.length(), breaker.getUsed());
+
+            // an incomplete item is accounted for as well
+            final BytesReference second = item(1);
+            final int split = randomIntBetween(1, second.length() - 1);
+            executor.onChunk(second.slice(0, split), false, () -> {});
+            assertEquals(first.length() + split, breaker.getUsed());
+
+            executed.get(0).v2().onResponse(new BulkResponse(new BulkItemResponse[0], 0L));
+            assertEquals(split, breaker.getUsed());
+
+            executor.onChunk(second.slice(split, second.length() - split), true, () -> {});
+            assertEquals(2, executed.size());
+            assertEquals(second.length(), breaker.getUsed());
+            executed.get(1).v2().onResponse(new BulkResponse(new BulkItemResponse[0], 0L));
+            assertEquals(0, breaker.getUsed());
+            assertTrue(future.isDone());
+        }
+    }
+
+    public void testFailsWhenBreakerTrips() throws InterruptedException {
+        try (NoOpClient client = new CapturingClient()) {
+            final PlainActionFuture<BulkResponse> future = PlainActionFuture.newFuture();
+            final IncrementalBulkExecutor executor = newExecutor(client, Long.MAX_VALUE, future);
+            final AtomicInteger reads = new AtomicInteger();
+            // items are collected into a single batch that never fills, so the received bytes keep accumulating
+            while (future.isDone() == false) {
+                executor.onChunk(item(reads.get()), false, reads::incrementAndGet);
+            }
+            final ExecutionException e = expectThrows(ExecutionException.class, future::get);
+            assertThat(e.getCause(), instanceOf(CircuitBreakingException.class));
+            assertEquals(0, executed.size());
+            assertEquals(0, breaker.getUsed());
+        }
+    }
+
+    public void testFailsOnTooLargeItem() throws InterruptedException {
+        try (NoOpClient client = new CapturingClient()) {
+            final PlainActionFuture<BulkResponse> future = PlainActionFuture.newFuture();
+            final IncrementalBulkExecutor executor = newExecutor(client, Long.MAX_VALUE, 64, future);
+            executor.onChunk(item(0), false, () -> {});
+            // a line that never ends is rejected once it exceeds the limit instead of being buffered
+            final AtomicInteger reads = new AtomicInteger();
+            while (future.isDone() == false) {
+                executor.onChunk(new BytesArray("{ \"index\":"), false, reads::incrementAndGet);
+            }
+            assertThat(reads.get(), lessThanOrEqualTo(64 / 11));
+            final ExecutionException e = expectThrows(ExecutionException.class, future::get);
+            assertThat(e.getCause(), instanceOf(ElasticsearchStatusException.class));
+            assertEquals(RestStatus.REQUEST_ENTITY_TOO_LARGE, ((ElasticsearchStatusException) e.getCause()).status());
+            assertEquals(0, executed.size());
+            assertEquals(0, breaker.getUsed());
+        }
+    }
+
+    private IncrementalBulkExecutor newExecutor(NoOpClient client, long batchSizeInBytes, ActionListener<BulkResponse> listener) {
+        return newExecutor(client, batchSizeInBytes, Long.MAX_VALUE, listener);
+    }
+
+    private IncrementalBulkExecutor newExecutor(NoOpClient client, long batchSizeInBytes, long maxUnparsedBytes,
+                                                ActionListener<BulkResponse> listener) {
+        final BulkRequestParser parser = new BulkRequestParser(true);
+        return new IncrementalBulkExecutor(client, BulkRequest::new, XContentType.JSON,
+            (data, lastData, batch) -> parser.incrementalParse(data, "index", null, null, null, false, XContentType.JSON,
+                (indexRequest, type) -> batch.add(indexRequest), batch::add, batch::add, lastData),
+            batchSizeInBytes, maxUnparsedBytes, breaker, listener);
+    }
+
+    private static BytesReference item(int id) {
+        return new BytesArray("{ \"index\":{ \"_id\": \"" + id + "\" } }\n{ \"field\": " + id + " }\n");
+    }
+
+    private class CapturingClient extends NoOpClient {
+
+        CapturingClient() {
+            super(IncrementalBulkExecutorTests.this.getTestName());
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        protected <Request extends ActionRequest, Response extends ActionResponse>
+        void doExecute(ActionType<Response> action, Request request, ActionListener<Response> listener) {
+            executed.add(new Tuple<>((BulkRequest) request, (ActionListener<BulkResponse>) listener));
+        }
+    }
+}
@@ -38,21 +38,27 @@ import org.elasticsearch.action.update.UpdateRequest;
 import org.elasticsearch.action.update.UpdateResponse;
 import org.elasticsearch.client.Requests;
 import org.elasticsearch.cluster.metadata.IndexMetaData;
+import org.elasticsearch.common.compress.CompressedXContent;
 import org.elasticsearch.common.lucene.uid.Versions;
 import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.xcontent.ToXContent;
+import org.elasticsearch.common.xcontent.XContentType;
 import org.elasticsearch.index.IndexSettings;
 import org.elasticsearch.index.VersionType;
 import org.elasticsearch.index.engine.Engine;
 import org.elasticsearch.index.engine.VersionConflictEngineException;
+import org.elasticsearch.index.mapper.DocumentMapper;
 import org.elasticsearch.index.mapper.MapperService;
 import org.elasticsearch.index.mapper.Mapping;
 import org.elasticsearch.index.mapper.MetadataFieldMapper;
 import org.elasticsearch.index.mapper.RootObjectMapper;
 import org.elasticsearch.index.shard.IndexShard;
 import org.elasticsearch.index.shard.IndexShardTestCase;
+import org.elasticsearch.index.shard.PreParsedDocument;
 import org.elasticsearch.index.shard.ShardId;
 import org.elasticsearch.index.translog.Translog;
 import org.elasticsearch.rest.RestStatus;
+import org.mockito.ArgumentCaptor;
 
 import java.io.IOException;
 import java.util.Collections;
@@ -64,7 +70,9 @@ import static org.hamcrest.CoreMatchers.not;
 import static org.hamcrest.CoreMatchers.notNullValue;
 import static org.hamcrest.Matchers.arrayWithSize;
 import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.everyItem;
 import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
 import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.anyBoolean;
 import static org.mockito.Matchers.anyLong;
@@ -224,6 +232,105 @@ public class TransportShardBulkActionTests extends IndexShardTestCase {
         latch.await();
     }
 
+    public void testPreParseDocumentsConcurrently() throws Exception {
+        final IndexShard shard = spy(newStartedShardWithMapping(randomIntBetween(2, 8)));
+
+        BulkItemRequest[] items = new BulkItemRequest[randomIntBetween(2, 50)];
+        for (int i = 0; i < items.length; i++) {
+            DocWriteRequest<IndexRequest> writeRequest = new IndexRequest("index").id("id_" + i)
+                .source(Requests.INDEX_CONTENT_TYPE, "foo", "value_" + i)
+                .opType(randomFrom(DocWriteRequest.OpType.INDEX, DocWriteRequest.OpType.CREATE));
+            items[i] = new BulkItemRequest(i, writeRequest);
+        }
+        BulkShardRequest bulkShardRequest = new BulkShardRequest(shardId, RefreshPolicy.NONE, items);
+
+        final CountDownLatch latch = new CountDownLatch(1);
+        TransportShardBulkAction.performOnPrimary(
+            bulkShardRequest, shard, null, threadPool::absoluteTimeInMillis, new NoopMappingUpdatePerformer(),
+            listener -> {}, ActionListener.runAfter(
+                ActionTestUtils.assertNoFailureListener(result -> {
+                    assertThat(result.finalResponseIfSuccessful.getResponses(), arrayWithSize(items.length));
+                    for (int i = 0; i < items.length; i++) {
+                        BulkItemResponse response = result.finalResponseIfSuccessful.getResponses()[i];
+                        assertThat(response.getItemId(), equalTo(i));
+                        assertThat(response.getId(), equalTo("id_" + i));
+                        assertFalse(response.isFailed());
+                        // items are still applied in order
+                        assertThat(response.getResponse().getSeqNo(), equalTo((long) i));
+                    }
+                }), latch::countDown), threadPool);
+        latch.await();
+
+        // every operation was applied with the document that was parsed ahead of it
+        ArgumentCaptor<PreParsedDocument> preParsed = ArgumentCaptor.forClass(PreParsedDocument.class);
+        verify(shard, times(items.length)).applyIndexOperationOnPrimary(anyLong(), any(), any(), anyLong(), anyLong(), anyLong(),
+            anyBoolean(), preParsed.capture());
+        assertThat(preParsed.getAllValues(), everyItem(notNullValue()));
+
+        assertDocCount(shard, items.length);
+        assertThat(shard.indexingStats().getTotal().getIndexCount(), equalTo((long) items.length));
+        closeShards(shard);
+    }
+
+    public void testPreParsedDocumentsAreParsedAgainAfterMappingUpdate() throws Exception {
+        final IndexShard shard = spy(newStartedShardWithMapping(randomIntBetween(2, 8)));
+        final DocumentMapper initialMapper = shard.mapperService().documentMapper();
+
+        BulkItemRequest[] items = new BulkItemRequest[randomIntBetween(2, 50)];
+        // the first document introduces a new field, so it can't be parsed ahead and updates the mapping when it is executed
+        items[0] = new BulkItemRequest(0, new IndexRequest("index").id("id_0").source(Requests.INDEX_CONTENT_TYPE, "bar", "value"));
+        for (int i = 1; i < items.length; i++) {
+            items[i] = new BulkItemRequest(i,
+                new IndexRequest("index").id("id_" + i).source(Requests.INDEX_CONTENT_TYPE, "foo", "value_" + i));
+        }
+        BulkShardRequest bulkShardRequest = new BulkShardRequest(shardId, RefreshPolicy.NONE, items);
+
+        final MappingUpdatePerformer mappingUpdater = (update, shardId, listener) -> {
+            try {
+                shard.mapperService().merge(MapperService.SINGLE_MAPPING_NAME,
+                    new CompressedXContent(update, XContentType.JSON, ToXContent.EMPTY_PARAMS), MapperService.MergeReason.MAPPING_UPDATE);
+                listener.onResponse(null);
+            } catch (Exception e) {
+                listener.onFailure(e);
+            }
+        };
+        final CountDownLatch latch = new CountDownLatch(1);
+        TransportShardBulkAction.performOnPrimary(
+            bulkShardRequest, shard, null, threadPool::absoluteTimeInMillis, mappingUpdater,
+            listener -> listener.onResponse(null), ActionListener.runAfter(
+                ActionTestUtils.assertNoFailureListener(result -> {
+                    assertThat(result.finalResponseIfSuccessful.getResponses(), arrayWithSize(items.length));
+                    for (int i = 0; i < items.length; i++) {
+                        BulkItemResponse response = result.finalResponseIfSuccessful.getResponses()[i];
+                        assertFalse(response.isFailed());
+                        assertThat(response.getResponse().getSeqNo(), equalTo((long) i));
+                    }
+                }), latch::countDown), threadPool);
+        latch.await();
+
+        assertThat(shard.mapperService().documentMapper(), not(sameInstance(initialMapper)));
+        assertThat(shard.mapperService().fieldType("bar"), notNullValue());
+        // the first document is applied twice, before and after the mapping update. The later documents were parsed against the
+        // initial mapping, so they are parsed again when they are applied
+        ArgumentCaptor<PreParsedDocument> preParsed = ArgumentCaptor.forClass(PreParsedDocument.class);
+        verify(shard, times(items.length + 1)).applyIndexOperationOnPrimary(anyLong(), any(), any(), anyLong(), anyLong(), anyLong(),
+            anyBoolean(), preParsed.capture());
+        assertThat(preParsed.getAllValues().subList(0, 2), everyItem(nullValue()));
+        assertThat(preParsed.getAllValues().subList(2, items.length + 1), everyItem(notNullValue()));
+
+        assertDocCount(shard, items.length);
+        closeShards(shard);
+    }
+
+    private IndexShard newStartedShardWithMapping(int parseConcurrency) throws IOException {
+        IndexShard shard = newStartedShard(true,
+            Settings.builder().put(IndexSettings.BULK_PARSE_CONCURRENCY_SETTING.getKey(), parseConcurrency).build());
+        // documents can only be parsed ahead against an existing mapping
+        shard.mapperService().merge(MapperService.SINGLE_MAPPING_NAME,
+            new CompressedXContent("{\"properties\":{\"foo\":{\"type\":\"keyword\"}}}"), MapperService.MergeReason.MAPPING_UPDATE);
+        return shard;
+    }
+
     public void testExecuteBulkIndexRequestWithMappingUpdates() throws Exception {
 
         BulkItemRequest[] items = new BulkItemRequest[1];
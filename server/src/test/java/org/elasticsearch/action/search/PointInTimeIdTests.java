@@ -0,0 +1,60 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.elasticsearch.action.search;
+
+import org.elasticsearch.action.OriginalIndices;
+import org.elasticsearch.action.support.IndicesOptions;
+import org.elasticsearch.index.shard.ShardId;
+import org.elasticsearch.test.ESTestCase;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.hamcrest.Matchers.equalTo;
+
+public class PointInTimeIdTests extends ESTestCase {
+
+    public void testEncodeAndDecode() {
+        final OriginalIndices originalIndices = new OriginalIndices(generateRandomStringArray(5, 10, false, false),
+            IndicesOptions.fromOptions(randomBoolean(), randomBoolean(), randomBoolean(), randomBoolean()));
+        final Map<ShardId, ScrollIdForNode> shards = new HashMap<>();
+        final int numShards = randomIntBetween(0, 10);
+        for (int i = 0; i < numShards; i++) {
+            shards.put(new ShardId(randomAlphaOfLength(5), randomAlphaOfLength(10), i),
+                new ScrollIdForNode(null, randomAlphaOfLength(10), randomNonNegativeLong()));
+        }
+        final PointInTimeId decoded = PointInTimeId.decode(PointInTimeId.encode(originalIndices, shards));
+        assertArrayEquals(originalIndices.indices(), decoded.getOriginalIndices().indices());
+        assertThat(decoded.getOriginalIndices().indicesOptions(), equalTo(originalIndices.indicesOptions()));
+        assertThat(decoded.getShards().keySet(), equalTo(shards.keySet()));
+        for (Map.Entry<ShardId, ScrollIdForNode> entry : shards.entrySet()) {
+            final ScrollIdForNode target = decoded.getShards().get(entry.getKey());
+            assertThat(target.getNode(), equalTo(entry.getValue().getNode()));
+            assertThat(target.getScrollId(), equalTo(entry.getValue().getScrollId()));
+        }
+    }
+
+    public void testDecodeInvalidId() {
+        final String id = randomAlphaOfLength(12);
+        IllegalArgumentException e = expectThrows(IllegalArgumentException.class, () -> PointInTimeId.decode(id));
+        assertThat(e.getMessage(), equalTo("invalid point in time id [" + id + "]"));
+    }
+}
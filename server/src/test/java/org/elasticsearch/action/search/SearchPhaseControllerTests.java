@@ -31,15 +31,22 @@ import org.apache.lucene.search.grouping.CollapseTopFieldDocs;
 import org.apache.lucene.util.BytesRef;
 import org.elasticsearch.action.OriginalIndices;
 import org.elasticsearch.common.Strings;
+import org.elasticsearch.common.breaker.CircuitBreaker;
+import org.elasticsearch.common.breaker.CircuitBreakingException;
+import org.elasticsearch.common.breaker.NoopCircuitBreaker;
+import org.elasticsearch.common.io.stream.NamedWriteableRegistry;
 import org.elasticsearch.common.lucene.Lucene;
 import org.elasticsearch.common.lucene.search.TopDocsAndMaxScore;
+import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.common.text.Text;
 import org.elasticsearch.common.util.BigArrays;
 import org.elasticsearch.common.util.concurrent.AtomicArray;
+import org.elasticsearch.common.util.concurrent.EsExecutors;
 import org.elasticsearch.index.shard.ShardId;
 import org.elasticsearch.search.DocValueFormat;
 import org.elasticsearch.search.SearchHit;
 import org.elasticsearch.search.SearchHits;
+import org.elasticsearch.search.SearchModule;
 import org.elasticsearch.search.SearchPhaseResult;
 import org.elasticsearch.search.SearchShardTarget;
 import org.elasticsearch.search.aggregations.AggregationBuilders;
@@ -57,8 +64,12 @@ import org.elasticsearch.search.suggest.completion.CompletionSuggestion;
 import org.elasticsearch.search.suggest.phrase.PhraseSuggestion;
 import org.elasticsearch.search.suggest.term.TermSuggestion;
 import org.elasticsearch.test.ESTestCase;
+import org.elasticsearch.threadpool.TestThreadPool;
+import org.elasticsearch.threadpool.ThreadPool;
 import org.junit.Before;
 
+import java.io.IOException;
+
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
@@ -67,13 +78,16 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import static org.elasticsearch.action.search.SearchProgressListener.NOOP;
 import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
 import static org.hamcrest.Matchers.greaterThanOrEqualTo;
 import static org.hamcrest.Matchers.instanceOf;
 import static org.hamcrest.Matchers.lessThan;
@@ -520,6 +534,150 @@ public class SearchPhaseControllerTests extends ESTestCase {
         assertNull(reduce.sortedTopDocs.collapseValues);
     }
 
+    public void testConsumerWithSerializedAggs() throws Exception {
+        int expectedNumResults = randomIntBetween(3, 100);
+        int bufferSize = randomIntBetween(2, expectedNumResults - 1);
+        SearchRequest request = randomSearchRequest();
+        request.source(new SearchSourceBuilder().aggregation(AggregationBuilders.avg("foo")).size(0));
+        request.setBatchedReduceSize(bufferSize);
+        NamedWriteableRegistry registry = new NamedWriteableRegistry(
+            new SearchModule(Settings.EMPTY, Collections.emptyList()).getNamedWriteables());
+        AccountingBreaker breaker = new AccountingBreaker(Long.MAX_VALUE);
+        ThreadPool threadPool = new TestThreadPool(getTestName());
+        try {
+            SearchPhaseController controller = new SearchPhaseController(
+                (finalReduce) -> {
+                    reductions.add(finalReduce);
+                    return new InternalAggregation.ReduceContext(BigArrays.NON_RECYCLING_INSTANCE, null, finalReduce);
+                }, registry, threadPool.executor(ThreadPool.Names.SEARCH_COORDINATION), breaker);
+            ArraySearchPhaseResults<SearchPhaseResult> consumer = controller.newSearchPhaseResults(NOOP, request, expectedNumResults);
+            assertThat(consumer, instanceOf(SearchPhaseController.QueryPhaseResultConsumer.class));
+            int max = 0;
+            for (int i = 0; i < expectedNumResults; i++) {
+                int number = randomIntBetween(1, 1000);
+                max = Math.max(max, number);
+                consumer.consumeResult(serializedResult(i, number, registry));
+            }
+            assertThat(((SearchPhaseController.QueryPhaseResultConsumer) consumer).getCircuitBreakerBytes(), greaterThan(0L));
+            SearchPhaseController.ReducedQueryPhase reduce = consumer.reduce();
+            assertFinalReduction(request);
+            InternalMax internalMax = (InternalMax) reduce.aggregations.asList().get(0);
+            assertEquals(max, internalMax.getValue(), 0.0D);
+            assertEquals(expectedNumResults, reduce.totalHits.value);
+            assertEquals(0L, breaker.getUsed());
+        } finally {
+            ThreadPool.terminate(threadPool, 10, TimeUnit.SECONDS);
+        }
+    }
+
+    public void testConsumerCircuitBreaker() throws Exception {
+        int expectedNumResults = randomIntBetween(3, 100);
+        int bufferSize = randomIntBetween(2, expectedNumResults - 1);
+        SearchRequest request = randomSearchRequest();
+        request.source(new SearchSourceBuilder().aggregation(AggregationBuilders.avg("foo")).size(0));
+        request.setBatchedReduceSize(bufferSize);
+        NamedWriteableRegistry registry = new NamedWriteableRegistry(
+            new SearchModule(Settings.EMPTY, Collections.emptyList()).getNamedWriteables());
+        AccountingBreaker breaker = new AccountingBreaker(1);
+        SearchPhaseController controller = new SearchPhaseController(
+            (finalReduce) -> new InternalAggregation.ReduceContext(BigArrays.NON_RECYCLING_INSTANCE, null, finalReduce),
+            registry, EsExecutors.newDirectExecutorService(), breaker);
+        SearchPhaseController.QueryPhaseResultConsumer consumer =
+            (SearchPhaseController.QueryPhaseResultConsumer) controller.newSearchPhaseResults(NOOP, request, expectedNumResults);
+        for (int i = 0; i < expectedNumResults; i++) {
+            int number = randomIntBetween(1, 1000);
+            consumer.consumeResult(randomBoolean() ? serializedResult(i, number, registry) : localResult(i, number));
+            // the first result trips the breaker, the buffered results are released and later results are dropped
+            assertThat(consumer.getReduceFailure(), instanceOf(CircuitBreakingException.class));
+            assertEquals(0, consumer.getNumBuffered());
+            assertEquals(0L, consumer.getCircuitBreakerBytes());
+            assertEquals(0L, breaker.getUsed());
+        }
+        expectThrows(CircuitBreakingException.class, consumer::reduce);
+        assertEquals(0L, breaker.getUsed());
+    }
+
+    public void testConsumerAccountsLocalResults() throws Exception {
+        int expectedNumResults = randomIntBetween(3, 100);
+        SearchRequest request = randomSearchRequest();
+        request.source(new SearchSourceBuilder().aggregation(AggregationBuilders.avg("foo")).size(0));
+        request.setBatchedReduceSize(expectedNumResults - 1);
+        NamedWriteableRegistry registry = new NamedWriteableRegistry(
+            new SearchModule(Settings.EMPTY, Collections.emptyList()).getNamedWriteables());
+        AccountingBreaker breaker = new AccountingBreaker(Long.MAX_VALUE);
+        SearchPhaseController controller = new SearchPhaseController(
+            (finalReduce) -> new InternalAggregation.ReduceContext(BigArrays.NON_RECYCLING_INSTANCE, null, finalReduce),
+            registry, EsExecutors.newDirectExecutorService(), breaker);
+        SearchPhaseController.QueryPhaseResultConsumer consumer =
+            (SearchPhaseController.QueryPhaseResultConsumer) controller.newSearchPhaseResults(NOOP, request, expectedNumResults);
+        int max = 0;
+        for (int i = 0; i < expectedNumResults; i++) {
+            int number = randomIntBetween(1, 1000);
+            max = Math.max(max, number);
+            consumer.consumeResult(localResult(i, number));
+            if (i == 0) {
+                // local results are accounted for at the size of their serialized form
+                assertThat(consumer.getCircuitBreakerBytes(), greaterThan(0L));
+            }
+        }
+        SearchPhaseController.ReducedQueryPhase reduce = consumer.reduce();
+        InternalMax internalMax = (InternalMax) reduce.aggregations.asList().get(0);
+        assertEquals(max, internalMax.getValue(), 0.0D);
+        assertEquals(0L, breaker.getUsed());
+    }
+
+    private static QuerySearchResult localResult(int shardIndex, int number) {
+        QuerySearchResult result = new QuerySearchResult(shardIndex, new SearchShardTarget("node", new ShardId("a", "b", shardIndex),
+            null, OriginalIndices.NONE));
+        result.topDocs(new TopDocsAndMaxScore(new TopDocs(new TotalHits(1, TotalHits.Relation.EQUAL_TO), new ScoreDoc[0]), number),
+            new DocValueFormat[0]);
+        InternalAggregations aggs = new InternalAggregations(Collections.singletonList(new InternalMax("test", (double) number,
+            DocValueFormat.RAW, Collections.emptyList(), Collections.emptyMap())));
+        result.aggregations(aggs);
+        result.size(1);
+        result.setShardIndex(shardIndex);
+        return result;
+    }
+
+    private static QuerySearchResult serializedResult(int shardIndex, int number, NamedWriteableRegistry registry) throws IOException {
+        QuerySearchResult result = localResult(shardIndex, number);
+        QuerySearchResult copy = copyWriteable(result, registry, QuerySearchResult::new);
+        copy.setSearchShardTarget(result.getSearchShardTarget());
+        copy.setShardIndex(shardIndex);
+        return copy;
+    }
+
+    /**
+     * A breaker that keeps track of its usage and trips once it is above its limit.
+     */
+    private static class AccountingBreaker extends NoopCircuitBreaker {
+        private final AtomicLong used = new AtomicLong();
+        private final long limit;
+
+        AccountingBreaker(long limit) {
+            super(CircuitBreaker.REQUEST);
+            this.limit = limit;
+        }
+
+        @Override
+        public double addEstimateBytesAndMaybeBreak(long bytes, String label) throws CircuitBreakingException {
+            if (used.get() + bytes > limit) {
+                throw new CircuitBreakingException("[" + label + "] would be too large", bytes, limit, getDurability());
+            }
+            return used.addAndGet(bytes);
+        }
+
+        @Override
+        public long addWithoutBreaking(long bytes) {
+            return used.addAndGet(bytes);
+        }
+
+        @Override
+        public long getUsed() {
+            return used.get();
+        }
+    }
+
     public void testConsumerOnlyHits() {
         int expectedNumResults = randomIntBetween(1, 100);
         int bufferSize = randomIntBetween(2, 200);
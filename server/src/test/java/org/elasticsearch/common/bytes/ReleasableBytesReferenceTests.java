@@ -21,12 +21,14 @@ package org.elasticsearch.common.bytes;
 
 import org.elasticsearch.common.io.stream.BytesStreamOutput;
 import org.elasticsearch.common.io.stream.ReleasableBytesStreamOutput;
+import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.util.ByteArray;
 import org.hamcrest.Matchers;
 
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.hamcrest.CoreMatchers.equalTo;
 
@@ -99,4 +101,38 @@ public class ReleasableBytesReferenceTests extends AbstractBytesReferenceTestCas
     public void testSliceToBytesRef() throws IOException {
         // CompositeBytesReference shifts offsets
     }
+
+    public void testRetainedSliceReleasesOnceAllReferencesAreClosed() {
+        AtomicInteger released = new AtomicInteger();
+        ReleasableBytesReference reference = new ReleasableBytesReference(new BytesArray(randomByteArrayOfLength(16)),
+            released::incrementAndGet);
+        ReleasableBytesReference slice = reference.retainedSlice(4, 8);
+        assertThat(slice.length(), equalTo(8));
+        assertThat(slice.get(0), equalTo(reference.get(4)));
+        reference.close();
+        assertThat(released.get(), equalTo(0));
+        slice.close();
+        assertThat(released.get(), equalTo(1));
+    }
+
+    public void testReadReleasableBytesReferenceSharesContent() throws IOException {
+        BytesStreamOutput out = new BytesStreamOutput();
+        out.writeVInt(randomInt());
+        BytesReference payload = new BytesArray(randomByteArrayOfLength(randomIntBetween(1, 100)));
+        out.writeBytesReference(payload);
+        out.writeVInt(42);
+        AtomicInteger released = new AtomicInteger();
+        ReleasableBytesReference reference = new ReleasableBytesReference(out.bytes(), released::incrementAndGet);
+        final ReleasableBytesReference read;
+        try (StreamInput in = reference.streamInput()) {
+            in.readVInt();
+            read = in.readReleasableBytesReference();
+            assertThat(in.readVInt(), equalTo(42));
+        }
+        assertThat(read, equalTo(payload));
+        reference.close();
+        assertThat(released.get(), equalTo(0));
+        read.close();
+        assertThat(released.get(), equalTo(1));
+    }
 }
@@ -47,4 +47,10 @@ public class CacheBuilderTests extends ESTestCase {
         Cache<Object, Object> cache = CacheBuilder.builder().setExpireAfterWrite(timeValue).build();
         assertEquals(timeValue.getNanos(), cache.getExpireAfterWriteNanos());
     }
+
+    public void testSettingFrequencyAware() {
+        assertFalse(CacheBuilder.builder().build().isFrequencyAware());
+        assertFalse(CacheBuilder.builder().setFrequencyAware(false).build().isFrequencyAware());
+        assertTrue(CacheBuilder.builder().setFrequencyAware(true).build().isFrequencyAware());
+    }
 }
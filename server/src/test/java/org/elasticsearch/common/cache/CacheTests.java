@@ -48,7 +48,9 @@ import java.util.stream.Collectors;
 
 import static org.hamcrest.CoreMatchers.instanceOf;
 import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
 
 public class CacheTests extends ESTestCase {
     private int numberOfEntries;
@@ -914,6 +916,101 @@ public class CacheTests extends ESTestCase {
         assertEquals(500, cache.count());
     }
 
+    // fill a frequency-aware cache with entries that are accessed repeatedly, then scan through as many new keys; the
+    // scan must not flush the frequently accessed entries out of the cache while a plain LRU cache would have evicted all
+    // of them
+    public void testFrequencyAwareAdmission() {
+        final int maximumWeight = randomIntBetween(100, 1000);
+        final Cache<Integer, String> lruCache = CacheBuilder.<Integer, String>builder().setMaximumWeight(maximumWeight).build();
+        final Cache<Integer, String> cache =
+            CacheBuilder.<Integer, String>builder().setMaximumWeight(maximumWeight).setFrequencyAware(true).build();
+        for (int i = 0; i < maximumWeight; i++) {
+            lruCache.put(i, Integer.toString(i));
+            cache.put(i, Integer.toString(i));
+        }
+        for (int j = 0; j < 5; j++) {
+            for (int i = 0; i < maximumWeight; i++) {
+                assertNotNull(lruCache.get(i));
+                assertNotNull(cache.get(i));
+            }
+        }
+        for (int i = maximumWeight; i < 2 * maximumWeight; i++) {
+            lruCache.put(i, Integer.toString(i));
+            cache.put(i, Integer.toString(i));
+        }
+        assertEquals(maximumWeight, lruCache.count());
+        assertEquals(maximumWeight, cache.count());
+        int retained = 0;
+        for (int i = 0; i < maximumWeight; i++) {
+            assertNull(lruCache.get(i));
+            if (cache.get(i) != null) {
+                retained++;
+            }
+        }
+        // the frequency sketch is approximate, a few scanned keys may collide with frequently accessed ones
+        assertThat(retained, greaterThanOrEqualTo((int) (0.9 * maximumWeight)));
+
+        // a key that keeps being inserted is eventually admitted
+        final int key = 2 * maximumWeight;
+        boolean admitted = false;
+        for (int i = 0; i < 16 && admitted == false; i++) {
+            cache.put(key, Integer.toString(key));
+            admitted = cache.get(key) != null;
+        }
+        assertTrue(admitted);
+        assertEquals(maximumWeight, cache.count());
+    }
+
+    // concurrently read and write a small set of keys so that promotions are buffered and replayed by many threads, then
+    // check that the LRU list is consistent with the contents of the cache
+    public void testConcurrentReadsAndWrites() throws BrokenBarrierException, InterruptedException {
+        final int numberOfThreads = randomIntBetween(2, 32);
+        final int maximumWeight = randomIntBetween(10, 100);
+        final boolean frequencyAware = randomBoolean();
+        final Cache<Integer, String> cache =
+            CacheBuilder.<Integer, String>builder().setMaximumWeight(maximumWeight).setFrequencyAware(frequencyAware).build();
+
+        final CyclicBarrier barrier = new CyclicBarrier(1 + numberOfThreads);
+        for (int i = 0; i < numberOfThreads; i++) {
+            final Thread thread = new Thread(() -> {
+                try {
+                    barrier.await();
+                    final Random random = new Random(random().nextLong());
+                    for (int j = 0; j < numberOfEntries; j++) {
+                        final Integer key = random.nextInt(2 * maximumWeight);
+                        if (random.nextInt(10) == 0) {
+                            cache.put(key, Integer.toString(key));
+                        } else {
+                            final String value = cache.get(key);
+                            assertTrue(value == null || value.equals(Integer.toString(key)));
+                        }
+                    }
+                    barrier.await();
+                } catch (BrokenBarrierException | InterruptedException e) {
+                    throw new AssertionError(e);
+                }
+            });
+            thread.start();
+        }
+
+        // wait for all threads to be ready
+        barrier.await();
+        // wait for all threads to finish
+        barrier.await();
+
+        cache.refresh();
+        assertThat(cache.count(), lessThanOrEqualTo(maximumWeight));
+        assertEquals(cache.count(), cache.weight());
+        final List<Integer> keys = new ArrayList<>();
+        for (Integer key : cache.keys()) {
+            keys.add(key);
+        }
+        assertEquals(cache.count(), keys.size());
+        for (Integer key : keys) {
+            assertEquals(Integer.toString(key), cache.get(key));
+        }
+    }
+
     public void testRemoveUsingValuesIterator() {
         final List<RemovalNotification<Integer, String>> removalNotifications = new ArrayList<>();
         Cache<Integer, String> cache =
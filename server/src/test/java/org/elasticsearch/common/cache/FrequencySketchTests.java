@@ -0,0 +1,80 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.common.cache;
+
+import org.elasticsearch.test.ESTestCase;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.lessThan;
+
+public class FrequencySketchTests extends ESTestCase {
+
+    public void testIncrement() {
+        final FrequencySketch sketch = new FrequencySketch();
+        final int hash = randomInt();
+        assertThat(sketch.frequency(hash), equalTo(0));
+        final int increments = randomIntBetween(1, 15);
+        for (int i = 0; i < increments; i++) {
+            sketch.increment(hash);
+        }
+        assertThat(sketch.frequency(hash), greaterThanOrEqualTo(increments));
+    }
+
+    public void testSaturation() {
+        final FrequencySketch sketch = new FrequencySketch();
+        final int hash = randomInt();
+        for (int i = 0; i < 100; i++) {
+            sketch.increment(hash);
+        }
+        assertThat(sketch.frequency(hash), equalTo(15));
+    }
+
+    public void testAging() {
+        final FrequencySketch sketch = new FrequencySketch();
+        final int hot = randomInt();
+        for (int i = 0; i < 15; i++) {
+            sketch.increment(hot);
+        }
+        // record enough distinct accesses to reach the sample size, which halves all counters
+        for (int i = 0; i < 20 * sketch.capacity(); i++) {
+            sketch.increment(hot + 1 + i);
+            if (sketch.frequency(hot) < 15) {
+                break;
+            }
+        }
+        assertThat(sketch.frequency(hot), lessThan(15));
+    }
+
+    public void testEnsureCapacityPreservesHistory() {
+        final FrequencySketch sketch = new FrequencySketch();
+        assertThat(sketch.capacity(), equalTo(FrequencySketch.MINIMUM_CAPACITY));
+        final int hash = randomInt();
+        final int increments = randomIntBetween(1, 15);
+        for (int i = 0; i < increments; i++) {
+            sketch.increment(hash);
+        }
+        final int capacity = randomIntBetween(FrequencySketch.MINIMUM_CAPACITY + 1, 1 << 16);
+        sketch.ensureCapacity(capacity);
+        assertThat(sketch.capacity(), greaterThanOrEqualTo(capacity));
+        assertThat(Integer.bitCount(sketch.capacity()), equalTo(1));
+        assertThat(sketch.frequency(hash), greaterThanOrEqualTo(increments));
+    }
+}
@@ -0,0 +1,143 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.common.compress;
+
+import org.elasticsearch.common.bytes.BytesArray;
+import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.io.stream.BytesStreamOutput;
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.elasticsearch.common.io.stream.StreamOutput;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.lessThan;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+
+/**
+ * Runs the streaming compression tests against {@link Lz4Compressor} and tests the LZ4 block format.
+ */
+public class Lz4CompressTests extends DeflateCompressTests {
+
+    @Override
+    protected Compressor newCompressor() {
+        return new Lz4Compressor();
+    }
+
+    public void testBlockRoundTrip() throws IOException {
+        final int[] hashTable = new int[LZ4.HASH_TABLE_SIZE];
+        for (int i = 0; i < 100; i++) {
+            final byte[] bytes = new byte[randomIntBetween(0, Lz4Compressor.BLOCK_SIZE)];
+            final int alphabet = randomIntBetween(1, 256);
+            for (int j = 0; j < bytes.length; j++) {
+                if (j > 0 && randomBoolean()) {
+                    // copy a previous byte to create matches at random distances
+                    bytes[j] = bytes[j - 1 - randomInt(Math.min(j - 1, 1000))];
+                } else {
+                    bytes[j] = (byte) randomInt(alphabet - 1);
+                }
+            }
+            final byte[] compressed = new byte[LZ4.maxCompressedLength(bytes.length)];
+            final int compressedLength = LZ4.compress(bytes, 0, bytes.length, compressed, 0, hashTable);
+            final byte[] restored = new byte[bytes.length];
+            assertEquals(bytes.length, LZ4.decompress(compressed, 0, compressedLength, restored, 0, restored.length));
+            assertArrayEquals(bytes, restored);
+        }
+    }
+
+    public void testCompressesRepetitiveContent() throws IOException {
+        final byte[] bytes = new byte[randomIntBetween(1000, 3 * Lz4Compressor.BLOCK_SIZE)];
+        Arrays.fill(bytes, (byte) 'a');
+        final BytesReference compressed = compress(bytes);
+        assertTrue(compressor().isCompressed(compressed));
+        assertThat(compressed.length(), lessThan(bytes.length / 50));
+        assertEquals(new BytesArray(bytes), CompressorFactory.uncompress(compressed));
+    }
+
+    public void testStoresIncompressibleBlocksAsIs() throws IOException {
+        final byte[] bytes = randomByteArrayOfLength(randomIntBetween(1, 2 * Lz4Compressor.BLOCK_SIZE));
+        final BytesReference compressed = compress(bytes);
+        // header, end marker and at most 6 bytes of lengths per block
+        assertThat(compressed.length(), lessThanOrEqualTo(bytes.length + 4 + 1 + 6 * 2));
+        assertEquals(new BytesArray(bytes), CompressorFactory.uncompress(compressed));
+    }
+
+    public void testCorruptBlock() throws IOException {
+        final byte[] bytes = new byte[1000];
+        Arrays.fill(bytes, (byte) 'a');
+        final byte[] compressed = BytesReference.toBytes(compress(bytes));
+        // corrupt the offset of the first match so that it points before the start of the block
+        final byte[] corrupted = Arrays.copyOf(compressed, compressed.length);
+        // (header, two bytes of uncompressed length, one byte of compressed length, token and a single literal)
+        corrupted[4 + 2 + 1 + 2] = (byte) 0xFF;
+        corrupted[4 + 2 + 1 + 3] = (byte) 0xFF;
+        final StreamInput in = compressor().streamInput(new BytesArray(corrupted).streamInput());
+        final IOException e = expectThrows(IOException.class, () -> in.readBytes(new byte[bytes.length], 0, bytes.length));
+        assertThat(e.getMessage(), containsString("Corrupt LZ4"));
+    }
+
+    public void testInterleavedStreamsOnSameThread() throws IOException {
+        // streams borrow the buffers of their thread, the ones that are opened while they are lent out must not share them
+        final byte[][] bytes = new byte[3][];
+        final BytesStreamOutput[] outs = new BytesStreamOutput[bytes.length];
+        final StreamOutput[] compressedOuts = new StreamOutput[bytes.length];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = new byte[randomIntBetween(1, 2 * Lz4Compressor.BLOCK_SIZE)];
+            Arrays.fill(bytes[i], (byte) ('a' + i));
+            outs[i] = new BytesStreamOutput();
+            compressedOuts[i] = compressor().streamOutput(outs[i]);
+        }
+        for (int i = 0; i < bytes.length; i++) {
+            compressedOuts[i].writeBytes(bytes[i], 0, bytes[i].length / 2);
+        }
+        for (int i = bytes.length - 1; i >= 0; i--) {
+            compressedOuts[i].writeBytes(bytes[i], bytes[i].length / 2, bytes[i].length - bytes[i].length / 2);
+            compressedOuts[i].close();
+        }
+
+        final StreamInput[] ins = new StreamInput[bytes.length];
+        final byte[][] restored = new byte[bytes.length][];
+        for (int i = 0; i < bytes.length; i++) {
+            ins[i] = compressor().streamInput(outs[i].bytes().streamInput());
+            restored[i] = new byte[bytes[i].length];
+            ins[i].readBytes(restored[i], 0, bytes[i].length / 2);
+        }
+        for (int i = 0; i < bytes.length; i++) {
+            ins[i].readBytes(restored[i], bytes[i].length / 2, bytes[i].length - bytes[i].length / 2);
+            assertEquals(-1, ins[i].read());
+            ins[i].close();
+            assertArrayEquals(bytes[i], restored[i]);
+        }
+        expectThrows(IOException.class, () -> compressedOuts[0].writeByte((byte) 0));
+    }
+
+    private Compressor compressor() {
+        return CompressorFactory.LZ4_COMPRESSOR;
+    }
+
+    private BytesReference compress(byte[] bytes) throws IOException {
+        final BytesStreamOutput out = new BytesStreamOutput();
+        try (StreamOutput compressed = compressor().streamOutput(out)) {
+            compressed.writeBytes(bytes);
+        }
+        return out.bytes();
+    }
+}
@@ -20,6 +20,7 @@
 package org.elasticsearch.common.util;
 
 import org.apache.lucene.util.BytesRef;
+import org.apache.lucene.util.BytesRefBuilder;
 import org.elasticsearch.common.breaker.CircuitBreaker;
 import org.elasticsearch.common.breaker.CircuitBreakingException;
 import org.elasticsearch.common.settings.ClusterSettings;
@@ -42,7 +43,10 @@ import static org.hamcrest.Matchers.greaterThanOrEqualTo;
 public class BigArraysTests extends ESTestCase {
 
     private BigArrays randombigArrays() {
-        return new MockBigArrays(new MockPageCacheRecycler(Settings.EMPTY), new NoneCircuitBreakerService());
+        final Settings settings = Settings.builder()
+            .put(PageCacheRecycler.ALLOCATOR_SETTING.getKey(), randomFrom(PageCacheRecycler.Allocator.values()).name())
+            .build();
+        return new MockBigArrays(new MockPageCacheRecycler(settings), new NoneCircuitBreakerService());
     }
 
     private BigArrays bigArrays;
@@ -387,6 +391,53 @@ public class BigArraysTests extends ESTestCase {
         }
     }
 
+    public void testDirectPagesAreAccountedAndReleased() throws Exception {
+        HierarchyCircuitBreakerService hcbs = new HierarchyCircuitBreakerService(
+            Settings.builder()
+                .put(HierarchyCircuitBreakerService.USE_REAL_MEMORY_USAGE_SETTING.getKey(), false)
+                .build(),
+            new ClusterSettings(Settings.EMPTY, ClusterSettings.BUILT_IN_CLUSTER_SETTINGS));
+        final Settings settings = Settings.builder()
+            .put(PageCacheRecycler.ALLOCATOR_SETTING.getKey(), "direct")
+            .build();
+        BigArrays bigArrays = new BigArrays(new MockPageCacheRecycler(settings), hcbs, CircuitBreaker.REQUEST).withCircuitBreaking();
+        for (String type : Arrays.asList("Byte", "Int", "Long", "Float", "Double")) {
+            Method create = BigArrays.class.getMethod("new" + type + "Array", long.class);
+            BigArray array = (BigArray) create.invoke(bigArrays, randomIntBetween((1 << 14) + 1, 1 << 18));
+            assertEquals("Direct" + type + "Array", array.getClass().getSimpleName());
+            assertEquals(array.ramBytesUsed(), hcbs.getBreaker(CircuitBreaker.REQUEST).getUsed());
+            Method resize = BigArrays.class.getMethod("resize", array.getClass().getInterfaces()[0], long.class);
+            array = (BigArray) resize.invoke(bigArrays, array, array.size() * 2);
+            assertEquals("Direct" + type + "Array", array.getClass().getSimpleName());
+            assertEquals(array.ramBytesUsed(), hcbs.getBreaker(CircuitBreaker.REQUEST).getUsed());
+            array.close();
+            assertEquals(0, hcbs.getBreaker(CircuitBreaker.REQUEST).getUsed());
+        }
+    }
+
+    public void testDirectByteArrayBulkGetReusesScratch() {
+        final Settings settings = Settings.builder()
+            .put(PageCacheRecycler.ALLOCATOR_SETTING.getKey(), "direct")
+            .build();
+        final BigArrays directBigArrays =
+            new BigArrays(new MockPageCacheRecycler(settings), new NoneCircuitBreakerService(), CircuitBreaker.REQUEST);
+        final byte[] array1 = new byte[randomIntBetween(PageCacheRecycler.BYTE_PAGE_SIZE + 1, 1 << 18)];
+        random().nextBytes(array1);
+        final ByteArray array2 = directBigArrays.newByteArray(array1.length, randomBoolean());
+        assertEquals("DirectByteArray", array2.getClass().getSimpleName());
+        array2.set(0, array1, 0, array1.length);
+        final BytesRef ref = new BytesRef();
+        final BytesRefBuilder scratch = new BytesRefBuilder();
+        for (int i = 0; i < 1000; ++i) {
+            final int offset = randomInt(array1.length - 1);
+            final int len = randomInt(Math.min(randomBoolean() ? 10 : Integer.MAX_VALUE, array1.length - offset));
+            assertTrue(array2.get(offset, len, ref, scratch));
+            assertSame(scratch.bytes(), ref.bytes);
+            assertEquals(new BytesRef(array1, offset, len), ref);
+        }
+        array2.close();
+    }
+
     private List<BigArraysHelper> bigArrayCreators(final long maxSize, final boolean withBreaking) {
         final BigArrays byteBigArrays = newBigArraysInstance(maxSize, withBreaking);
         BigArraysHelper byteHelper = new BigArraysHelper(byteBigArrays,
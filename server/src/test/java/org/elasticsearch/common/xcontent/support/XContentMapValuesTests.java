@@ -22,6 +22,8 @@ package org.elasticsearch.common.xcontent.support;
 import org.elasticsearch.common.Strings;
 import org.elasticsearch.common.bytes.BytesReference;
 import org.elasticsearch.common.collect.Tuple;
+import org.elasticsearch.common.xcontent.DeprecationHandler;
+import org.elasticsearch.common.xcontent.NamedXContentRegistry;
 import org.elasticsearch.common.xcontent.ToXContentObject;
 import org.elasticsearch.common.xcontent.XContentBuilder;
 import org.elasticsearch.common.xcontent.XContentFactory;
@@ -30,6 +32,7 @@ import org.elasticsearch.common.xcontent.XContentType;
 import org.elasticsearch.common.xcontent.json.JsonXContent;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
@@ -69,6 +72,12 @@ public class XContentMapValuesTests extends AbstractFilteringTestCase {
         assertEquals("Filtered map must be equal to the expected map",
                 toMap(expected, xContentType, humanReadable),
                 XContentMapValues.filter(toMap(actual, xContentType, humanReadable), sourceIncludes, sourceExcludes));
+
+        ToXContentObject toXContent = (builder, params) -> actual.apply(builder);
+        BytesReference source = toXContent(toXContent, xContentType, humanReadable);
+        assertEquals("Filtered content must be equal to the expected map",
+                toMap(expected, xContentType, humanReadable),
+                filterXContent(source, xContentType, sourceIncludes, sourceExcludes));
     }
 
     @SuppressWarnings({"unchecked"})
@@ -490,6 +499,67 @@ public class XContentMapValuesTests extends AbstractFilteringTestCase {
         assertEquals(expected, filtered);
     }
 
+    public void testFilterXContentKeepsFieldOrder() throws IOException {
+        XContentBuilder builder = JsonXContent.contentBuilder().startObject()
+            .field("c", 1)
+            .startObject("b").field("z", 1).field("y", 2).field("x", 3).endObject()
+            .field("a", 3)
+            .endObject();
+        XContentBuilder filtered = JsonXContent.contentBuilder();
+        try (XContentParser parser = createParser(builder)) {
+            XContentMapValues.filterXContent(new String[] {"c", "b.*"}, new String[] {"b.y"}).accept(parser, filtered);
+        }
+        assertEquals("{\"c\":1,\"b\":{\"z\":1,\"x\":3}}", Strings.toString(filtered));
+    }
+
+    public void testFilterXContentOnRandomDocuments() throws IOException {
+        final String[] fields = new String[] {"a", "b", "c", "a.b", "b.c"};
+        final String[] patterns = new String[] {"a", "b", "c", "a.b", "b.c", "a.*", "*.c", "*b*", "a.b.c", "c.*.a"};
+        for (int i = 0; i < 100; i++) {
+            Map<String, Object> document = randomObject(fields, 3);
+            String[] includes = randomSubsetOf(randomIntBetween(0, 2), patterns).toArray(Strings.EMPTY_ARRAY);
+            String[] excludes = randomSubsetOf(randomIntBetween(0, 2), patterns).toArray(Strings.EMPTY_ARRAY);
+            XContentType xContentType = randomFrom(XContentType.values());
+            BytesReference source = BytesReference.bytes(XContentFactory.contentBuilder(xContentType).map(document));
+            assertEquals("includes " + Arrays.toString(includes) + ", excludes " + Arrays.toString(excludes) + ", source " + document,
+                XContentMapValues.filter(convertToMap(source, true, xContentType).v2(), includes, excludes),
+                filterXContent(source, xContentType, includes, excludes));
+        }
+    }
+
+    private static Map<String, Object> randomObject(String[] fields, int depth) {
+        Map<String, Object> object = new HashMap<>();
+        for (String field : randomSubsetOf(Arrays.asList(fields))) {
+            object.put(field, randomValue(fields, depth));
+        }
+        return object;
+    }
+
+    private static Object randomValue(String[] fields, int depth) {
+        switch (depth == 0 ? 0 : randomInt(3)) {
+            case 0:
+                return randomBoolean() ? randomInt() : randomAlphaOfLength(5);
+            case 1:
+                return randomObject(fields, depth - 1);
+            default:
+                List<Object> array = new ArrayList<>();
+                for (int i = randomInt(3); i > 0; i--) {
+                    array.add(randomValue(fields, depth - 1));
+                }
+                return array;
+        }
+    }
+
+    private static Map<String, Object> filterXContent(BytesReference source, XContentType xContentType,
+                                                      String[] includes, String[] excludes) throws IOException {
+        XContentBuilder builder = XContentFactory.contentBuilder(xContentType);
+        try (XContentParser parser = xContentType.xContent()
+                .createParser(NamedXContentRegistry.EMPTY, DeprecationHandler.THROW_UNSUPPORTED_OPERATION, source.streamInput())) {
+            XContentMapValues.filterXContent(includes, excludes).accept(parser, builder);
+        }
+        return convertToMap(BytesReference.bytes(builder), true, xContentType).v2();
+    }
+
     private static Map<String, Object> toMap(Builder test, XContentType xContentType, boolean humanReadable) throws IOException {
         ToXContentObject toXContent = (builder, params) -> test.apply(builder);
         return convertToMap(toXContent(toXContent, xContentType, humanReadable), true, xContentType).v2();
@@ -20,6 +20,7 @@
 package org.elasticsearch.index.codec;
 
 import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.not;
 
 import java.io.IOException;
 import java.util.Collections;
@@ -40,6 +41,7 @@ import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.env.Environment;
 import org.elasticsearch.index.IndexSettings;
 import org.elasticsearch.index.analysis.IndexAnalyzers;
+import org.elasticsearch.index.mapper.IdFieldMapper;
 import org.elasticsearch.index.mapper.MapperService;
 import org.elasticsearch.index.similarity.SimilarityService;
 import org.elasticsearch.indices.mapper.MapperRegistry;
@@ -67,6 +69,15 @@ public class CodecTests extends ESTestCase {
         assertCompressionEquals(Mode.BEST_COMPRESSION, codec);
     }
 
+    public void testBloomFilterForIdField() throws Exception {
+        PerFieldMappingPostingFormatCodec codec = (PerFieldMappingPostingFormatCodec) createCodecService(Settings.EMPTY).codec("default");
+        assertThat(codec.getPostingsFormatForField(IdFieldMapper.NAME), not(instanceOf(ES80BloomFilterPostingsFormat.class)));
+
+        Settings indexSettings = Settings.builder().put(IndexSettings.BLOOM_FILTER_ID_FIELD_ENABLED_SETTING.getKey(), true).build();
+        codec = (PerFieldMappingPostingFormatCodec) createCodecService(indexSettings).codec("default");
+        assertThat(codec.getPostingsFormatForField(IdFieldMapper.NAME), instanceOf(ES80BloomFilterPostingsFormat.class));
+    }
+
     // write some docs with it, inspect .si to see this was the used compression
     private void assertCompressionEquals(Mode expected, Codec actual) throws Exception {
         Directory dir = newDirectory();
@@ -86,10 +97,15 @@ public class CodecTests extends ESTestCase {
     }
 
     private CodecService createCodecService() throws IOException {
+        return createCodecService(Settings.EMPTY);
+    }
+
+    private CodecService createCodecService(Settings indexSettings) throws IOException {
         Settings nodeSettings = Settings.builder()
                 .put(Environment.PATH_HOME_SETTING.getKey(), createTempDir())
                 .build();
-        IndexSettings settings = IndexSettingsModule.newIndexSettings("_na", nodeSettings);
+        IndexSettings settings = IndexSettingsModule.newIndexSettings("_na",
+            Settings.builder().put(nodeSettings).put(indexSettings).build());
         SimilarityService similarityService = new SimilarityService(settings, null, Collections.emptyMap());
         IndexAnalyzers indexAnalyzers = createTestAnalysis(settings, nodeSettings).indexAnalyzers;
         MapperRegistry mapperRegistry = new MapperRegistry(Collections.emptyMap(), Collections.emptyMap(), MapperPlugin.NOOP_FIELD_FILTER);
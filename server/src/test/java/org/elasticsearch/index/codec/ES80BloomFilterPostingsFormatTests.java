@@ -0,0 +1,149 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.index.codec;
+
+import org.apache.lucene.codecs.Codec;
+import org.apache.lucene.codecs.PostingsFormat;
+import org.apache.lucene.codecs.lucene84.Lucene84Codec;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.index.NoMergePolicy;
+import org.apache.lucene.index.SegmentReader;
+import org.apache.lucene.index.TermsEnum;
+import org.apache.lucene.index.TieredMergePolicy;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.util.Accountable;
+import org.apache.lucene.util.BytesRef;
+import org.apache.lucene.util.LuceneTestCase.SuppressCodecs;
+import org.elasticsearch.common.hash.MurmurHash3;
+import org.elasticsearch.index.mapper.IdFieldMapper;
+import org.elasticsearch.test.ESTestCase;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.hamcrest.Matchers.lessThan;
+
+@SuppressCodecs("*") // we test against our own codec
+public class ES80BloomFilterPostingsFormatTests extends ESTestCase {
+
+    public void testBloomFilterHasNoFalseNegatives() {
+        final int numTerms = randomIntBetween(1, 10_000);
+        final ES80BloomFilterPostingsFormat.BloomFilter filter = ES80BloomFilterPostingsFormat.BloomFilter.create(numTerms);
+        final MurmurHash3.Hash128 hash = new MurmurHash3.Hash128();
+        final Set<BytesRef> terms = new HashSet<>();
+        while (terms.size() < numTerms) {
+            terms.add(new BytesRef(randomAlphaOfLengthBetween(1, 20)));
+        }
+        for (BytesRef term : terms) {
+            filter.add(term, hash);
+        }
+        for (BytesRef term : terms) {
+            assertTrue(filter.mayContain(term, hash));
+        }
+        int falsePositives = 0;
+        final int numMisses = 10_000;
+        for (int i = 0; i < numMisses; i++) {
+            // the terms above don't contain digits
+            if (filter.mayContain(new BytesRef(Integer.toString(i)), hash)) {
+                falsePositives++;
+            }
+        }
+        assertThat("false positive rate", (double) falsePositives / numMisses, lessThan(0.05));
+    }
+
+    public void testSeekExactAcrossSegments() throws Exception {
+        final PostingsFormat postingsFormat = new ES80BloomFilterPostingsFormat(PostingsFormat.forName("Lucene84"));
+        final Codec codec = new Lucene84Codec() {
+            @Override
+            public PostingsFormat getPostingsFormatForField(String field) {
+                return IdFieldMapper.NAME.equals(field) ? postingsFormat : super.getPostingsFormatForField(field);
+            }
+        };
+        try (Directory dir = newDirectory()) {
+            final boolean forceMerge = randomBoolean();
+            final IndexWriterConfig iwc = new IndexWriterConfig();
+            iwc.setCodec(codec);
+            iwc.setMergePolicy(forceMerge ? new TieredMergePolicy() : NoMergePolicy.INSTANCE);
+            final List<Set<String>> idsPerSegment = new ArrayList<>();
+            try (IndexWriter writer = new IndexWriter(dir, iwc)) {
+                final int numSegments = randomIntBetween(1, 5);
+                int nextId = 0;
+                for (int i = 0; i < numSegments; i++) {
+                    final Set<String> ids = new HashSet<>();
+                    final int numDocs = randomIntBetween(1, 100);
+                    for (int j = 0; j < numDocs; j++) {
+                        final String id = Integer.toString(nextId++);
+                        final Document doc = new Document();
+                        doc.add(new StringField(IdFieldMapper.NAME, id, Field.Store.NO));
+                        writer.addDocument(doc);
+                        ids.add(id);
+                    }
+                    writer.commit();
+                    idsPerSegment.add(ids);
+                }
+                if (forceMerge) {
+                    // merged segments are filtered too
+                    writer.forceMerge(1);
+                    final Set<String> allIds = new HashSet<>();
+                    idsPerSegment.forEach(allIds::addAll);
+                    idsPerSegment.clear();
+                    idsPerSegment.add(allIds);
+                }
+                writer.commit();
+            }
+            try (DirectoryReader reader = DirectoryReader.open(dir)) {
+                assertEquals(idsPerSegment.size(), reader.leaves().size());
+                for (LeafReaderContext context : reader.leaves()) {
+                    final Set<String> ids = idsPerSegment.get(context.ord);
+                    final TermsEnum termsEnum = context.reader().terms(IdFieldMapper.NAME).iterator();
+                    for (int id = 0; id < 600; id++) {
+                        final String idString = Integer.toString(id);
+                        assertEquals(ids.contains(idString), termsEnum.seekExact(new BytesRef(idString)));
+                        if (ids.contains(idString)) {
+                            assertEquals(new BytesRef(idString), termsEnum.term());
+                        }
+                    }
+                    final SegmentReader segmentReader = (SegmentReader) context.reader();
+                    assertTrue(hasBloomFilter(segmentReader.getPostingsReader()));
+                }
+            }
+        }
+    }
+
+    private static boolean hasBloomFilter(Accountable accountable) {
+        if (accountable.toString().startsWith("bloom filter [" + IdFieldMapper.NAME + "]")) {
+            return accountable.ramBytesUsed() > 0;
+        }
+        for (Accountable child : accountable.getChildResources()) {
+            if (hasBloomFilter(child)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,165 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.elasticsearch.index.engine;
+
+import org.apache.lucene.util.BytesRef;
+import org.apache.lucene.util.TestUtil;
+import org.elasticsearch.index.translog.Translog;
+import org.elasticsearch.test.ESTestCase;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
+
+public class PagedVersionTableTests extends ESTestCase {
+
+    public void testEmpty() {
+        PagedVersionTable table = new PagedVersionTable();
+        assertTrue(table.isEmpty());
+        assertEquals(0, table.size());
+        assertEquals(0, table.ramBytesUsed());
+        assertNull(table.get(new BytesRef("foo")));
+        assertFalse(table.remove(new BytesRef("foo")));
+    }
+
+    public void testAgainstHashMap() {
+        PagedVersionTable table = new PagedVersionTable();
+        Map<BytesRef, IndexVersionValue> expected = new HashMap<>();
+        List<BytesRef> uids = new ArrayList<>();
+        for (int i = randomIntBetween(1, 1000); i > 0; i--) {
+            uids.add(new BytesRef(TestUtil.randomSimpleString(random(), 1, 20)));
+        }
+        for (int i = 0; i < 10000; i++) {
+            BytesRef uid = randomFrom(uids);
+            if (randomInt(3) == 0) {
+                assertEquals(expected.remove(uid) != null, table.remove(uid));
+            } else {
+                IndexVersionValue value = randomIndexVersionValue();
+                expected.put(uid, value);
+                table.put(uid, value);
+            }
+            assertEquals(expected.get(uid), table.get(uid));
+        }
+        assertEquals(expected.size(), table.size());
+        assertEquals(expected.isEmpty(), table.isEmpty());
+        Map<BytesRef, IndexVersionValue> actual = new HashMap<>();
+        table.forEach(actual::put);
+        assertEquals(expected, actual);
+        if (expected.isEmpty() == false) {
+            assertThat(table.ramBytesUsed(), greaterThan(0L));
+        }
+    }
+
+    public void testConcurrentPuts() throws InterruptedException {
+        PagedVersionTable table = new PagedVersionTable();
+        int numThreads = randomIntBetween(2, 5);
+        int numUidsPerThread = randomIntBetween(100, 1000);
+        CountDownLatch startLatch = new CountDownLatch(1);
+        Thread[] threads = new Thread[numThreads];
+        for (int t = 0; t < numThreads; t++) {
+            final int threadId = t;
+            threads[t] = new Thread(() -> {
+                try {
+                    startLatch.await();
+                } catch (InterruptedException e) {
+                    throw new AssertionError(e);
+                }
+                for (int i = 0; i < numUidsPerThread; i++) {
+                    BytesRef uid = new BytesRef(threadId + "_" + i);
+                    IndexVersionValue value = new IndexVersionValue(null, i, i, threadId);
+                    table.put(uid, value);
+                    assertEquals(value, table.get(uid));
+                }
+            });
+            threads[t].start();
+        }
+        startLatch.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertThat(table.size(), equalTo(numThreads * numUidsPerThread));
+        for (int t = 0; t < numThreads; t++) {
+            for (int i = 0; i < numUidsPerThread; i++) {
+                assertEquals(new IndexVersionValue(null, i, i, t), table.get(new BytesRef(t + "_" + i)));
+            }
+        }
+    }
+
+    public void testConcurrentGetsSeeWholeValues() throws InterruptedException {
+        PagedVersionTable table = new PagedVersionTable();
+        List<BytesRef> uids = new ArrayList<>();
+        for (int i = randomIntBetween(1, 100); i > 0; i--) {
+            uids.add(new BytesRef(TestUtil.randomSimpleString(random(), 1, 20)));
+        }
+        int numWriters = randomIntBetween(1, 3);
+        int numReaders = randomIntBetween(1, 3);
+        int numOps = randomIntBetween(1000, 10000);
+        CountDownLatch startLatch = new CountDownLatch(1);
+        Thread[] threads = new Thread[numWriters + numReaders];
+        for (int t = 0; t < threads.length; t++) {
+            final boolean writer = t < numWriters;
+            threads[t] = new Thread(() -> {
+                try {
+                    startLatch.await();
+                } catch (InterruptedException e) {
+                    throw new AssertionError(e);
+                }
+                for (int i = 0; i < numOps; i++) {
+                    BytesRef uid = randomFrom(uids);
+                    if (writer) {
+                        if (randomInt(9) == 0) {
+                            table.remove(uid);
+                        } else {
+                            // all fields of a value are derived from the same number so that a torn read is detected
+                            Translog.Location location = randomBoolean() ? null : new Translog.Location(i, i, i);
+                            table.put(uid, new IndexVersionValue(location, i, i, i));
+                        }
+                    } else {
+                        IndexVersionValue value = table.get(uid);
+                        if (value != null) {
+                            assertEquals(value.version, value.seqNo);
+                            assertEquals(value.version, value.term);
+                            if (value.getLocation() != null) {
+                                assertEquals(new Translog.Location(value.version, value.version, (int) value.version),
+                                    value.getLocation());
+                            }
+                        }
+                    }
+                }
+            });
+            threads[t].start();
+        }
+        startLatch.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+    }
+
+    private static IndexVersionValue randomIndexVersionValue() {
+        Translog.Location location = randomBoolean() ? null : new Translog.Location(randomLong(), randomLong(), randomInt());
+        return new IndexVersionValue(location, randomLong(), randomLong(), randomLong());
+    }
+}
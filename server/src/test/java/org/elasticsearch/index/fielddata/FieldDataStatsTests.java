@@ -25,12 +25,21 @@ import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.test.ESTestCase;
 
 import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
 
 public class FieldDataStatsTests extends ESTestCase {
 
     public void testSerialize() throws IOException {
         FieldMemoryStats map = randomBoolean() ? null : FieldMemoryStatsTests.randomFieldMemoryStats();
-        FieldDataStats stats = new FieldDataStats(randomNonNegativeLong(), randomNonNegativeLong(), map);
+        Map<String, FieldDataStats.GlobalOrdinalsStats.FieldStats> fieldGlobalOrdinalsStats = new HashMap<>();
+        int numFields = randomIntBetween(0, 5);
+        for (int i = 0; i < numFields; i++) {
+            fieldGlobalOrdinalsStats.put(randomAlphaOfLength(8) + i, new FieldDataStats.GlobalOrdinalsStats.FieldStats(
+                randomNonNegativeLong(), randomNonNegativeLong(), randomNonNegativeLong()));
+        }
+        FieldDataStats stats = new FieldDataStats(randomNonNegativeLong(), randomNonNegativeLong(), map,
+            new FieldDataStats.GlobalOrdinalsStats(randomNonNegativeLong(), fieldGlobalOrdinalsStats));
         BytesStreamOutput out = new BytesStreamOutput();
         stats.writeTo(out);
         StreamInput input = out.bytes().streamInput();
@@ -39,5 +48,24 @@ public class FieldDataStatsTests extends ESTestCase {
         assertEquals(stats.getEvictions(), read.getEvictions());
         assertEquals(stats.getMemorySize(), read.getMemorySize());
         assertEquals(stats.getFields(), read.getFields());
+        assertEquals(stats.getGlobalOrdinalsStats(), read.getGlobalOrdinalsStats());
+    }
+
+    public void testAddGlobalOrdinalsStats() {
+        Map<String, FieldDataStats.GlobalOrdinalsStats.FieldStats> first = new HashMap<>();
+        first.put("field1", new FieldDataStats.GlobalOrdinalsStats.FieldStats(10, 1, 100));
+        first.put("field2", new FieldDataStats.GlobalOrdinalsStats.FieldStats(5, 0, 20));
+        Map<String, FieldDataStats.GlobalOrdinalsStats.FieldStats> second = new HashMap<>();
+        second.put("field1", new FieldDataStats.GlobalOrdinalsStats.FieldStats(3, 2, 50));
+        FieldDataStats stats = new FieldDataStats();
+        stats.add(new FieldDataStats(0, 0, null, new FieldDataStats.GlobalOrdinalsStats(15, first)));
+        stats.add(new FieldDataStats(0, 0, null, new FieldDataStats.GlobalOrdinalsStats(3, second)));
+
+        FieldDataStats.GlobalOrdinalsStats globalOrdinalsStats = stats.getGlobalOrdinalsStats();
+        assertEquals(18, globalOrdinalsStats.getBuildTimeMillis());
+        assertEquals(new FieldDataStats.GlobalOrdinalsStats.FieldStats(13, 3, 100), globalOrdinalsStats.getFieldStats().get("field1"));
+        assertEquals(new FieldDataStats.GlobalOrdinalsStats.FieldStats(5, 0, 20), globalOrdinalsStats.getFieldStats().get("field2"));
+        // the added stats are left untouched
+        assertEquals(new FieldDataStats.GlobalOrdinalsStats.FieldStats(10, 1, 100), first.get("field1"));
     }
 }
@@ -22,17 +22,24 @@ package org.elasticsearch.index.fielddata;
 import org.apache.lucene.analysis.core.KeywordAnalyzer;
 import org.apache.lucene.document.Document;
 import org.apache.lucene.document.Field.Store;
+import org.apache.lucene.document.SortedSetDocValuesField;
 import org.apache.lucene.document.StringField;
 import org.apache.lucene.index.DirectoryReader;
 import org.apache.lucene.index.IndexReader;
 import org.apache.lucene.index.IndexWriter;
 import org.apache.lucene.index.IndexWriterConfig;
 import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.index.NoMergePolicy;
+import org.apache.lucene.index.Term;
 import org.apache.lucene.store.RAMDirectory;
 import org.apache.lucene.util.Accountable;
+import org.apache.lucene.util.BytesRef;
+import org.elasticsearch.common.breaker.CircuitBreaker;
 import org.elasticsearch.common.lucene.index.ElasticsearchDirectoryReader;
 import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.index.IndexService;
+import org.elasticsearch.index.IndexSettings;
+import org.elasticsearch.index.fielddata.plain.AbstractAtomicOrdinalsFieldData;
 import org.elasticsearch.index.fielddata.plain.SortedNumericDVIndexFieldData;
 import org.elasticsearch.index.fielddata.plain.SortedSetDVOrdinalsIndexFieldData;
 import org.elasticsearch.index.mapper.BooleanFieldMapper;
@@ -57,6 +64,7 @@ import java.util.Collection;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.greaterThan;
 
 public class IndexFieldDataServiceTests extends ESSingleNodeTestCase {
 
@@ -212,6 +220,93 @@ public class IndexFieldDataServiceTests extends ESSingleNodeTestCase {
         ifdService.clear();
     }
 
+    public void testRetainedGlobalOrdinalsAreAccounted() throws Exception {
+        final IndexService indexService = createIndex("test",
+            Settings.builder().put(IndexSettings.INDEX_INCREMENTAL_GLOBAL_ORDINALS_SETTING.getKey(), true).build());
+        final IndicesService indicesService = getInstanceFromNode(IndicesService.class);
+        final IndexFieldDataService ifdService = new IndexFieldDataService(indexService.getIndexSettings(),
+            indicesService.getIndicesFieldDataCache(), indicesService.getCircuitBreakerService(), indexService.mapperService());
+        final CircuitBreaker breaker = indicesService.getCircuitBreakerService().getBreaker(CircuitBreaker.FIELDDATA);
+        final long initialUsed = breaker.getUsed();
+
+        final BuilderContext ctx = new BuilderContext(indexService.getIndexSettings().getSettings(), new ContentPath(1));
+        final MappedFieldType mapper = new KeywordFieldMapper.Builder("field").build(ctx).fieldType();
+        final IndexWriter writer = new IndexWriter(new RAMDirectory(),
+            new IndexWriterConfig(new KeywordAnalyzer()).setMergePolicy(NoMergePolicy.INSTANCE));
+        for (String value : new String[] { "a", "b", "c" }) {
+            Document doc = new Document();
+            doc.add(new StringField("id", value, Store.NO));
+            doc.add(new SortedSetDocValuesField("field", new BytesRef(value)));
+            writer.addDocument(doc);
+            if (value.equals("b")) {
+                writer.flush();
+            }
+        }
+        final ShardId shardId = new ShardId(indexService.index(), 0);
+        final DirectoryReader reader1 = ElasticsearchDirectoryReader.wrap(DirectoryReader.open(writer), shardId);
+        final IndexOrdinalsFieldData ifd = ifdService.getForField(mapper);
+        ifd.loadGlobal(reader1);
+        final long size = breaker.getUsed() - initialUsed;
+        assertThat(size, greaterThan(0L));
+
+        // only deletes changed, the global ordinals are reused and charged for as long as either reader holds them
+        writer.deleteDocuments(new Term("id", "a"));
+        final DirectoryReader reader2 = ElasticsearchDirectoryReader.wrap(DirectoryReader.open(writer), shardId);
+        ifd.loadGlobal(reader2);
+        assertEquals(initialUsed + 2 * size, breaker.getUsed());
+
+        // the retained global ordinals stay charged once the readers that built them are closed
+        reader1.close();
+        assertEquals(initialUsed + size, breaker.getUsed());
+        reader2.close();
+        assertEquals(initialUsed + size, breaker.getUsed());
+
+        // and are released when the shard is closed
+        ifdService.clear(shardId);
+        assertEquals(initialUsed, breaker.getUsed());
+
+        writer.close();
+        ifdService.clear();
+    }
+
+    public void testRequiredOrdinalMapIsNotBuiltIncrementally() throws Exception {
+        final IndexService indexService = createIndex("test",
+            Settings.builder().put(IndexSettings.INDEX_INCREMENTAL_GLOBAL_ORDINALS_SETTING.getKey(), true).build());
+        final IndicesService indicesService = getInstanceFromNode(IndicesService.class);
+        final IndexFieldDataCache cache = indicesService.getIndicesFieldDataCache()
+            .buildIndexFieldDataCache(new IndexFieldDataCache.Listener() {}, indexService.index(), "field");
+        final SortedSetDVOrdinalsIndexFieldData ifd = new SortedSetDVOrdinalsIndexFieldData(indexService.getIndexSettings(), cache,
+            "field", indicesService.getCircuitBreakerService(), AbstractAtomicOrdinalsFieldData.DEFAULT_SCRIPT_FUNCTION, true);
+        assertFalse(ifd.buildsGlobalOrdinalsIncrementally());
+
+        final IndexWriter writer = new IndexWriter(new RAMDirectory(),
+            new IndexWriterConfig(new KeywordAnalyzer()).setMergePolicy(NoMergePolicy.INSTANCE));
+        for (String value : new String[] { "a", "b", "c" }) {
+            Document doc = new Document();
+            doc.add(new SortedSetDocValuesField("field", new BytesRef(value)));
+            writer.addDocument(doc);
+            writer.flush();
+        }
+        final ShardId shardId = new ShardId(indexService.index(), 0);
+        final DirectoryReader reader1 = ElasticsearchDirectoryReader.wrap(DirectoryReader.open(writer), shardId);
+        assertNotNull(ifd.loadGlobal(reader1).getOrdinalMap());
+
+        // a new segment would extend the previous global ordinals if they were retained
+        Document doc = new Document();
+        doc.add(new SortedSetDocValuesField("field", new BytesRef("d")));
+        writer.addDocument(doc);
+        final DirectoryReader reader2 = ElasticsearchDirectoryReader.wrap(DirectoryReader.open(writer), shardId);
+        assertNull(cache.getPreviousGlobalOrdinals(reader2));
+        final IndexOrdinalsFieldData global = ifd.loadGlobal(reader2);
+        assertNotNull(global.getOrdinalMap());
+        assertEquals(4, global.getOrdinalMap().getValueCount());
+
+        reader1.close();
+        reader2.close();
+        writer.close();
+        cache.clear();
+    }
+
     public void testSetCacheListenerTwice() {
         final IndexService indexService = createIndex("test");
         final IndicesService indicesService = getInstanceFromNode(IndicesService.class);
@@ -0,0 +1,154 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.elasticsearch.index.fielddata.ordinals;
+
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.SortedSetDocValuesField;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.NoMergePolicy;
+import org.apache.lucene.index.OrdinalMap;
+import org.apache.lucene.index.SortedSetDocValues;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.util.BytesRef;
+import org.apache.lucene.util.LongValues;
+import org.apache.lucene.util.packed.PackedInts;
+import org.elasticsearch.test.ESTestCase;
+
+import java.io.IOException;
+
+import static org.hamcrest.Matchers.equalTo;
+
+public class GlobalOrdinalMapTests extends ESTestCase {
+
+    public void testExtendWithNewSegments() throws IOException {
+        try (Directory dir = newDirectory();
+             IndexWriter writer = new IndexWriter(dir, newIndexWriterConfig().setMergePolicy(NoMergePolicy.INSTANCE))) {
+            int id = 0;
+            int numSegments = randomIntBetween(2, 5);
+            for (int i = 0; i < numSegments; i++) {
+                id = addSegment(writer, id);
+            }
+            GlobalOrdinalMap previous;
+            try (DirectoryReader reader = DirectoryReader.open(writer)) {
+                previous = GlobalOrdinalMap.of(segmentKeys(reader), OrdinalMap.build(null, subs(reader), PackedInts.DEFAULT));
+                assertThat(previous.reusableSegments(reader), equalTo(reader.leaves().size()));
+            }
+
+            int numRefreshes = randomIntBetween(1, 5);
+            for (int refresh = 0; refresh < numRefreshes; refresh++) {
+                int numNewSegments = randomIntBetween(1, 3);
+                for (int i = 0; i < numNewSegments; i++) {
+                    id = addSegment(writer, id);
+                }
+                try (DirectoryReader reader = DirectoryReader.open(writer)) {
+                    assertThat(previous.reusableSegments(reader), equalTo(reader.leaves().size() - numNewSegments));
+                    SortedSetDocValues[] subs = subs(reader);
+                    GlobalOrdinalMap extended = GlobalOrdinalMap.extend(previous, segmentKeys(reader), subs);
+                    assertNull(extended.getOrdinalMap());
+                    assertSameGlobalOrdinals(reader, OrdinalMap.build(null, subs(reader), PackedInts.DEFAULT), extended);
+                    previous = extended;
+                }
+            }
+        }
+    }
+
+    public void testReusableSegments() throws IOException {
+        try (Directory dir = newDirectory();
+             IndexWriter writer = new IndexWriter(dir, newIndexWriterConfig().setMergePolicy(NoMergePolicy.INSTANCE))) {
+            int id = addSegment(writer, 0);
+            id = addSegment(writer, id);
+            GlobalOrdinalMap previous;
+            try (DirectoryReader reader = DirectoryReader.open(writer)) {
+                previous = GlobalOrdinalMap.of(segmentKeys(reader), OrdinalMap.build(null, subs(reader), PackedInts.DEFAULT));
+            }
+
+            // deletes don't change the core of segments
+            writer.deleteDocuments(new Term("id", "0"));
+            try (DirectoryReader reader = DirectoryReader.open(writer)) {
+                assertThat(previous.reusableSegments(reader), equalTo(2));
+            }
+
+            // neither can segments that were dropped
+            writer.deleteAll();
+            id = addSegment(writer, id);
+            addSegment(writer, id);
+            try (DirectoryReader reader = DirectoryReader.open(writer)) {
+                assertThat(previous.reusableSegments(reader), equalTo(-1));
+            }
+        }
+    }
+
+    private static void assertSameGlobalOrdinals(IndexReader reader, OrdinalMap expected, GlobalOrdinalMap actual) throws IOException {
+        assertThat(actual.getValueCount(), equalTo(expected.getValueCount()));
+        for (int segment = 0; segment < reader.leaves().size(); segment++) {
+            SortedSetDocValues values = reader.leaves().get(segment).reader().getSortedSetDocValues("field");
+            LongValues expectedGlobalOrds = expected.getGlobalOrds(segment);
+            LongValues actualGlobalOrds = actual.getGlobalOrds(segment);
+            for (long ord = 0; ord < values.getValueCount(); ord++) {
+                assertThat(actualGlobalOrds.get(ord), equalTo(expectedGlobalOrds.get(ord)));
+            }
+        }
+        for (long globalOrd = 0; globalOrd < actual.getValueCount(); globalOrd++) {
+            assertThat(lookup(reader, actual.getFirstSegmentNumber(globalOrd), actual.getFirstSegmentOrd(globalOrd)),
+                equalTo(lookup(reader, expected.getFirstSegmentNumber(globalOrd), expected.getFirstSegmentOrd(globalOrd))));
+        }
+    }
+
+    private static BytesRef lookup(IndexReader reader, int segment, long ord) throws IOException {
+        return BytesRef.deepCopyOf(reader.leaves().get(segment).reader().getSortedSetDocValues("field").lookupOrd(ord));
+    }
+
+    private static int addSegment(IndexWriter writer, int id) throws IOException {
+        int numDocs = randomIntBetween(1, 50);
+        for (int i = 0; i < numDocs; i++) {
+            Document doc = new Document();
+            doc.add(new StringField("id", Integer.toString(id++), Field.Store.NO));
+            int numValues = randomIntBetween(1, 3);
+            for (int j = 0; j < numValues; j++) {
+                doc.add(new SortedSetDocValuesField("field", new BytesRef(randomAlphaOfLengthBetween(1, 3))));
+            }
+            writer.addDocument(doc);
+        }
+        writer.flush();
+        return id;
+    }
+
+    private static SortedSetDocValues[] subs(IndexReader reader) throws IOException {
+        SortedSetDocValues[] subs = new SortedSetDocValues[reader.leaves().size()];
+        for (int i = 0; i < subs.length; i++) {
+            subs[i] = reader.leaves().get(i).reader().getSortedSetDocValues("field");
+        }
+        return subs;
+    }
+
+    private static IndexReader.CacheKey[] segmentKeys(IndexReader reader) {
+        IndexReader.CacheKey[] keys = new IndexReader.CacheKey[reader.leaves().size()];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = reader.leaves().get(i).reader().getCoreCacheHelper().getKey();
+        }
+        return keys;
+    }
+}
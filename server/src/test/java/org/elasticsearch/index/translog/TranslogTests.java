@@ -131,6 +131,7 @@ import static org.hamcrest.Matchers.endsWith;
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.greaterThan;
 import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.hasToString;
 import static org.hamcrest.Matchers.instanceOf;
 import static org.hamcrest.Matchers.is;
@@ -492,6 +493,8 @@ public class TranslogTests extends ESTestCase {
             final TranslogStats copy = new TranslogStats(out.bytes().streamInput());
             assertThat(copy.estimatedNumberOfOperations(), equalTo(4));
             assertThat(copy.getTranslogSizeInBytes(), equalTo(expectedSizeInBytes));
+            assertThat(copy.getSyncCount(), equalTo(stats.getSyncCount()));
+            assertThat(copy.getSyncedOperations(), equalTo(stats.getSyncedOperations()));
 
             try (XContentBuilder builder = XContentFactory.jsonBuilder()) {
                 builder.startObject();
@@ -499,7 +502,9 @@ public class TranslogTests extends ESTestCase {
                 builder.endObject();
                 assertThat(Strings.toString(builder), equalTo("{\"translog\":{\"operations\":4,\"size_in_bytes\":" + expectedSizeInBytes
                     + ",\"uncommitted_operations\":4,\"uncommitted_size_in_bytes\":" + expectedSizeInBytes
-                    + ",\"earliest_last_modified_age\":" + stats.getEarliestLastModifiedAge() + "}}"));
+                    + ",\"earliest_last_modified_age\":" + stats.getEarliestLastModifiedAge()
+                    + ",\"sync_count\":" + stats.getSyncCount()
+                    + ",\"synced_operations\":" + stats.getSyncedOperations() + "}}"));
             }
         }
 
@@ -1137,6 +1142,57 @@ public class TranslogTests extends ESTestCase {
         logger.info("--> test done. total ops written [{}]", writtenOps.size());
     }
 
+    public void testConcurrentSyncsAreGrouped() throws Exception {
+        final TranslogStats before = translog.stats();
+        final int threadCount = randomIntBetween(2, 8);
+        final int opsPerThread = randomIntBetween(10, 100);
+        final AtomicLong seqNoGenerator = new AtomicLong();
+        final CyclicBarrier barrier = new CyclicBarrier(threadCount);
+        final Thread[] threads = new Thread[threadCount];
+        final Exception[] threadExceptions = new Exception[threadCount];
+        for (int i = 0; i < threadCount; i++) {
+            final int threadId = i;
+            threads[i] = new Thread(() -> {
+                try {
+                    barrier.await();
+                    for (int op = 0; op < opsPerThread; op++) {
+                        final long seqNo = seqNoGenerator.getAndIncrement();
+                        final Translog.Location location = translog.add(new Translog.Index(threadId + "_" + op, seqNo,
+                            primaryTerm.get(), new byte[randomIntBetween(1, 1024)]));
+                        translog.ensureSynced(location);
+                    }
+                } catch (Exception e) {
+                    threadExceptions[threadId] = e;
+                }
+            });
+            threads[i].start();
+        }
+        for (int i = 0; i < threadCount; i++) {
+            threads[i].join();
+            if (threadExceptions[i] != null) {
+                throw threadExceptions[i];
+            }
+        }
+
+        assertFalse(translog.syncNeeded());
+        final TranslogStats after = translog.stats();
+        final long totalOps = (long) threadCount * opsPerThread;
+        assertThat(after.getSyncedOperations() - before.getSyncedOperations(), equalTo(totalOps));
+        // every operation waits for a sync, but a sync may cover the operations of several threads
+        assertThat(after.getSyncCount() - before.getSyncCount(), lessThanOrEqualTo(totalOps));
+        assertThat(after.getSyncCount() - before.getSyncCount(), greaterThan(0L));
+
+        try (Translog.Snapshot snapshot = translog.newSnapshot()) {
+            assertThat(snapshot.totalOperations(), equalTo((int) totalOps));
+            final Set<Long> seqNos = new HashSet<>();
+            Translog.Operation op;
+            while ((op = snapshot.next()) != null) {
+                assertTrue("duplicate seq# [" + op.seqNo() + "]", seqNos.add(op.seqNo()));
+            }
+            assertThat(seqNos, hasSize((int) totalOps));
+        }
+    }
+
     public void testSyncUpTo() throws IOException {
         int translogOperations = randomIntBetween(10, 100);
         int count = 0;
@@ -26,6 +26,7 @@ import org.apache.lucene.index.DirectoryReader;
 import org.apache.lucene.index.IndexReader;
 import org.apache.lucene.index.IndexWriter;
 import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.NoMergePolicy;
 import org.apache.lucene.index.Term;
 import org.apache.lucene.search.IndexSearcher;
 import org.apache.lucene.search.TermQuery;
@@ -33,6 +34,7 @@ import org.apache.lucene.search.TopDocs;
 import org.apache.lucene.store.Directory;
 import org.apache.lucene.util.BytesRef;
 import org.elasticsearch.common.bytes.AbstractBytesReference;
+import org.elasticsearch.common.bytes.BytesArray;
 import org.elasticsearch.common.bytes.BytesReference;
 import org.elasticsearch.common.io.stream.BytesStreamOutput;
 import org.elasticsearch.common.lucene.index.ElasticsearchDirectoryReader;
@@ -429,6 +431,74 @@ public class IndicesRequestCacheTests extends ESTestCase {
         assertEquals(0, cache.numRegisteredCloseListeners());
     }
 
+    public void testPartialResults() throws Exception {
+        IndicesRequestCache cache = new IndicesRequestCache(Settings.EMPTY);
+        AtomicBoolean indexShard = new AtomicBoolean(true);
+        ShardRequestCache requestCacheStats = new ShardRequestCache();
+        Directory dir = newDirectory();
+        IndexWriter writer = new IndexWriter(dir, newIndexWriterConfig().setMergePolicy(NoMergePolicy.INSTANCE));
+
+        writer.addDocument(newDoc(0, "foo"));
+        DirectoryReader reader = ElasticsearchDirectoryReader.wrap(DirectoryReader.open(writer), new ShardId("foo", "bar", 1));
+        TermQueryBuilder termQuery = new TermQueryBuilder("id", "0");
+        BytesReference termBytes = XContentHelper.toXContent(termQuery, XContentType.JSON, false);
+        TestEntity entity = new TestEntity(requestCacheStats, indexShard);
+
+        // nothing cached yet
+        assertNull(cache.getPartial(entity, reader.leaves(), termBytes));
+        assertEquals(0, requestCacheStats.stats().getHitCount());
+        assertEquals(1, requestCacheStats.stats().getMissCount());
+
+        BytesReference value = new BytesArray("foo");
+        cache.putPartial(entity, reader.leaves(), termBytes, value);
+        assertEquals(1, cache.count());
+        assertEquals(1, cache.numRegisteredCloseListeners());
+        assertTrue(requestCacheStats.stats().getMemorySize().bytesAsInt() > value.length());
+
+        // the cached result covers all segments
+        IndicesRequestCache.PartialResult result = cache.getPartial(entity, reader.leaves(), termBytes);
+        assertEquals(1, result.numberOfLeaves());
+        assertEquals(value, result.value());
+        assertEquals(1, requestCacheStats.stats().getHitCount());
+        assertEquals(1, requestCacheStats.stats().getMissCount());
+
+        // a new segment only needs its own result
+        writer.addDocument(newDoc(1, "bar"));
+        DirectoryReader secondReader = DirectoryReader.openIfChanged(reader);
+        assertEquals(2, secondReader.leaves().size());
+        result = cache.getPartial(entity, secondReader.leaves(), termBytes);
+        assertEquals(1, result.numberOfLeaves());
+        assertEquals(value, result.value());
+        assertEquals(1, requestCacheStats.stats().getHitCount());
+        assertEquals(2, requestCacheStats.stats().getMissCount());
+
+        BytesReference secondValue = new BytesArray("foobar");
+        cache.putPartial(entity, secondReader.leaves(), termBytes, secondValue);
+        assertEquals(2, cache.count());
+        assertEquals(2, cache.numRegisteredCloseListeners());
+        result = cache.getPartial(entity, secondReader.leaves(), termBytes);
+        assertEquals(2, result.numberOfLeaves());
+        assertEquals(secondValue, result.value());
+        assertEquals(2, requestCacheStats.stats().getHitCount());
+
+        // other requests do not share the results
+        BytesReference otherTermBytes = XContentHelper.toXContent(new TermQueryBuilder("id", "1"), XContentType.JSON, false);
+        assertNull(cache.getPartial(entity, secondReader.leaves(), otherTermBytes));
+
+        // deleting a document changes the reader cache key of its segment, so the results computed over it cannot be reused
+        writer.deleteDocuments(new Term("id", "0"));
+        DirectoryReader thirdReader = DirectoryReader.openIfChanged(secondReader);
+        assertNull(cache.getPartial(entity, thirdReader.leaves(), termBytes));
+
+        // once the segments are closed, the results that depend on them are cleaned up
+        IOUtils.close(reader, secondReader, thirdReader, writer);
+        cache.cleanCache();
+        assertEquals(0, cache.count());
+        assertEquals(0, cache.numRegisteredCloseListeners());
+        assertEquals(0, requestCacheStats.stats().getMemorySize().bytesAsInt());
+        IOUtils.close(dir, cache);
+    }
+
     public void testEqualsKey() throws IOException {
         AtomicBoolean trueBoolean = new AtomicBoolean(true);
         AtomicBoolean falseBoolean = new AtomicBoolean(false);
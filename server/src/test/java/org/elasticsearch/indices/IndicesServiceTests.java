@@ -18,6 +18,12 @@
  */
 package org.elasticsearch.indices;
 
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.MatchAllDocsQuery;
+import org.apache.lucene.search.MatchNoDocsQuery;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ScoreMode;
+import org.apache.lucene.search.Weight;
 import org.apache.lucene.search.similarities.BM25Similarity;
 import org.apache.lucene.search.similarities.Similarity;
 import org.apache.lucene.store.AlreadyClosedException;
@@ -25,6 +31,7 @@ import org.elasticsearch.Version;
 import org.elasticsearch.action.ActionListener;
 import org.elasticsearch.action.admin.indices.stats.CommonStatsFlags;
 import org.elasticsearch.action.admin.indices.stats.IndexShardStats;
+import org.elasticsearch.action.search.SearchResponse;
 import org.elasticsearch.cluster.ClusterName;
 import org.elasticsearch.cluster.ClusterState;
 import org.elasticsearch.cluster.metadata.IndexGraveyard;
@@ -37,9 +44,13 @@ import org.elasticsearch.cluster.shards.ClusterShardLimitIT;
 import org.elasticsearch.common.UUIDs;
 import org.elasticsearch.common.collect.ImmutableOpenMap;
 import org.elasticsearch.common.io.FileSystemUtils;
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.elasticsearch.common.io.stream.StreamOutput;
 import org.elasticsearch.common.settings.Setting;
 import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.common.unit.TimeValue;
+import org.elasticsearch.common.xcontent.XContentBuilder;
+import org.elasticsearch.common.xcontent.XContentParser;
 import org.elasticsearch.env.NodeEnvironment;
 import org.elasticsearch.env.ShardLockObtainFailedException;
 import org.elasticsearch.gateway.GatewayMetaState;
@@ -58,6 +69,9 @@ import org.elasticsearch.index.mapper.KeywordFieldMapper;
 import org.elasticsearch.index.mapper.Mapper;
 import org.elasticsearch.index.mapper.MapperService;
 import org.elasticsearch.index.mapper.NestedPathFieldMapper;
+import org.elasticsearch.index.query.AbstractQueryBuilder;
+import org.elasticsearch.index.query.QueryBuilders;
+import org.elasticsearch.index.query.QueryShardContext;
 import org.elasticsearch.index.shard.IllegalIndexShardStateException;
 import org.elasticsearch.index.shard.IndexShard;
 import org.elasticsearch.index.shard.IndexShardState;
@@ -68,6 +82,11 @@ import org.elasticsearch.indices.IndicesService.ShardDeletionCheckResult;
 import org.elasticsearch.plugins.EnginePlugin;
 import org.elasticsearch.plugins.MapperPlugin;
 import org.elasticsearch.plugins.Plugin;
+import org.elasticsearch.plugins.SearchPlugin;
+import org.elasticsearch.search.aggregations.AggregationBuilders;
+import org.elasticsearch.search.aggregations.bucket.global.Global;
+import org.elasticsearch.search.aggregations.bucket.significant.SignificantTerms;
+import org.elasticsearch.search.aggregations.bucket.terms.Terms;
 import org.elasticsearch.test.ESSingleNodeTestCase;
 import org.elasticsearch.test.IndexSettingsModule;
 import org.elasticsearch.test.VersionUtils;
@@ -111,7 +130,7 @@ public class IndicesServiceTests extends ESSingleNodeTestCase {
     protected Collection<Class<? extends Plugin>> getPlugins() {
         return Stream.concat(
                 super.getPlugins().stream(),
-                Stream.of(TestPlugin.class, FooEnginePlugin.class, BarEnginePlugin.class))
+                Stream.of(TestPlugin.class, FooEnginePlugin.class, BarEnginePlugin.class, SwitchQueryPlugin.class))
                 .collect(Collectors.toList());
     }
 
@@ -627,6 +646,158 @@ public class IndicesServiceTests extends ESSingleNodeTestCase {
         assertFalse(errorMessage.isPresent());
     }
 
+    public void testIncrementalRequestCacheWithAggregationsOutsideOfQuery() {
+        createIndex("test", Settings.builder()
+            .put(IndexMetaData.SETTING_NUMBER_OF_SHARDS, 1)
+            .put(IndexMetaData.SETTING_NUMBER_OF_REPLICAS, 0)
+            .put(IndicesRequestCache.INDEX_CACHE_REQUEST_INCREMENTAL_SETTING.getKey(), true)
+            .build(), "_doc", "type", "type=keyword");
+        int total = 0;
+        int matching = 0;
+        // every round adds a segment, so that the next search could reuse the cached result of the previous segments
+        for (int round = 0; round < 3; round++) {
+            final int numDocs = randomIntBetween(3, 10);
+            for (int i = 0; i < numDocs; i++) {
+                client().prepareIndex("test").setSource("type", "a").get();
+                client().prepareIndex("test").setSource("type", "b").get();
+            }
+            client().admin().indices().prepareRefresh("test").get();
+            total += 2 * numDocs;
+            matching += numDocs;
+
+            final SearchResponse response = client().prepareSearch("test")
+                .setSize(0)
+                .setRequestCache(true)
+                .setQuery(QueryBuilders.termQuery("type", "a"))
+                .addAggregation(AggregationBuilders.terms("types").field("type"))
+                .addAggregation(AggregationBuilders.global("all"))
+                .addAggregation(AggregationBuilders.significantTerms("significant").field("type"))
+                .get();
+            assertHitCount(response, matching);
+            final Terms terms = response.getAggregations().get("types");
+            assertEquals(1, terms.getBuckets().size());
+            assertEquals(matching, terms.getBucketByKey("a").getDocCount());
+            final Global global = response.getAggregations().get("all");
+            assertEquals(total, global.getDocCount());
+            final SignificantTerms significant = response.getAggregations().get("significant");
+            final SignificantTerms.Bucket bucket = significant.getBucketByKey("a");
+            assertEquals(matching, bucket.getSubsetDf());
+            assertEquals(matching, bucket.getSupersetDf());
+            assertEquals(total, bucket.getSupersetSize());
+        }
+    }
+
+    public void testIncrementalRequestCacheReusesResultsOfUnchangedSegments() {
+        createIndex("test", Settings.builder()
+            .put(IndexMetaData.SETTING_NUMBER_OF_SHARDS, 1)
+            .put(IndexMetaData.SETTING_NUMBER_OF_REPLICAS, 0)
+            .put(IndexModule.INDEX_QUERY_CACHE_ENABLED_SETTING.getKey(), false)
+            .put(IndicesRequestCache.INDEX_CACHE_REQUEST_INCREMENTAL_SETTING.getKey(), true)
+            .build());
+        final int numDocs = randomIntBetween(1, 10);
+        for (int i = 0; i < numDocs; i++) {
+            client().prepareIndex("test").setSource("field", i).get();
+        }
+        client().admin().indices().prepareRefresh("test").get();
+        try {
+            SwitchQueryPlugin.matchAll = true;
+            assertHitCount(client().prepareSearch("test").setSize(0).setRequestCache(true)
+                .setQuery(new SwitchQueryBuilder()).get(), numDocs);
+
+            // the refresh adds a segment, only that segment is searched and the cached result of the first one is reused
+            client().prepareIndex("test").setSource("field", numDocs).get();
+            client().admin().indices().prepareRefresh("test").get();
+            SwitchQueryPlugin.matchAll = false;
+            assertHitCount(client().prepareSearch("test").setSize(0).setRequestCache(true)
+                .setQuery(new SwitchQueryBuilder()).get(), numDocs);
+        } finally {
+            SwitchQueryPlugin.matchAll = true;
+        }
+    }
+
+    /**
+     * Provides a query whose matches can be switched between all and no documents without changing the request, which
+     * shows which segments a cached request is actually executed against.
+     */
+    public static class SwitchQueryPlugin extends Plugin implements SearchPlugin {
+
+        static volatile boolean matchAll = true;
+
+        @Override
+        public List<QuerySpec<?>> getQueries() {
+            return Collections.singletonList(
+                new QuerySpec<>(SwitchQueryBuilder.NAME, SwitchQueryBuilder::new, SwitchQueryBuilder::fromXContent));
+        }
+    }
+
+    public static class SwitchQueryBuilder extends AbstractQueryBuilder<SwitchQueryBuilder> {
+        static final String NAME = "switch";
+
+        SwitchQueryBuilder() {
+        }
+
+        SwitchQueryBuilder(StreamInput in) throws IOException {
+            super(in);
+        }
+
+        static SwitchQueryBuilder fromXContent(XContentParser parser) throws IOException {
+            XContentParser.Token token = parser.nextToken();
+            assert token == XContentParser.Token.END_OBJECT;
+            return new SwitchQueryBuilder();
+        }
+
+        @Override
+        protected void doWriteTo(StreamOutput out) {
+            // only the superclass has state
+        }
+
+        @Override
+        protected void doXContent(XContentBuilder builder, Params params) throws IOException {
+            builder.startObject(NAME).endObject();
+        }
+
+        @Override
+        protected Query doToQuery(QueryShardContext context) {
+            return new Query() {
+                @Override
+                public Weight createWeight(IndexSearcher searcher, ScoreMode scoreMode, float boost) throws IOException {
+                    final Query query = SwitchQueryPlugin.matchAll ? new MatchAllDocsQuery() : new MatchNoDocsQuery();
+                    return query.createWeight(searcher, scoreMode, boost);
+                }
+
+                @Override
+                public String toString(String field) {
+                    return NAME;
+                }
+
+                @Override
+                public boolean equals(Object obj) {
+                    return sameClassAs(obj);
+                }
+
+                @Override
+                public int hashCode() {
+                    return classHash();
+                }
+            };
+        }
+
+        @Override
+        protected boolean doEquals(SwitchQueryBuilder other) {
+            return true;
+        }
+
+        @Override
+        protected int doHashCode() {
+            return 0;
+        }
+
+        @Override
+        public String getWriteableName() {
+            return NAME;
+        }
+    }
+
     public static ClusterState createClusterForShardLimitTest(int nodesInCluster, int shardsInIndex, int replicas,
                                                               Settings clusterSettings) {
         ImmutableOpenMap.Builder<String, DiscoveryNode> dataNodes = ImmutableOpenMap.builder();
@@ -23,6 +23,7 @@ import org.elasticsearch.ElasticsearchException;
 import org.elasticsearch.test.ESTestCase;
 import org.junit.Before;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
@@ -31,6 +32,7 @@ import java.util.Map;
 import java.util.concurrent.TimeUnit;
 import java.util.function.BiConsumer;
 import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.function.LongSupplier;
 
 import static org.hamcrest.CoreMatchers.equalTo;
@@ -359,6 +361,125 @@ public class CompoundProcessorTests extends ESTestCase {
         assertThat(ingestProcessorException.getHeader("pipeline_origin"), equalTo(List.of("2", "1")));
     }
 
+    public void testBatchExecution() {
+        LongSupplier relativeTimeProvider = mock(LongSupplier.class);
+        when(relativeTimeProvider.getAsLong()).thenReturn(0L);
+        BatchTestProcessor first = new BatchTestProcessor(document -> document.hasField("drop") ? null : document);
+        TestProcessor second = new TestProcessor("tag", "type", document -> {
+            if (document.hasField("fail")) {
+                throw new RuntimeException("error");
+            }
+            document.setFieldValue("second", true);
+            return document;
+        });
+        BatchTestProcessor third = new BatchTestProcessor(document -> {
+            document.setFieldValue("third", true);
+            return document;
+        });
+        CompoundProcessor compoundProcessor =
+            new CompoundProcessor(false, List.of(first, second, third), List.of(), relativeTimeProvider);
+
+        List<IngestDocument> documents = List.of(
+            new IngestDocument(new HashMap<>(), new HashMap<>()),
+            new IngestDocument(new HashMap<>(), new HashMap<>()),
+            new IngestDocument(new HashMap<>(Map.of("drop", true)), new HashMap<>()),
+            new IngestDocument(new HashMap<>(Map.of("fail", true)), new HashMap<>()));
+        IngestDocument[] results = new IngestDocument[documents.size()];
+        Exception[] failures = new Exception[documents.size()];
+        int[] calls = new int[documents.size()];
+        List<BiConsumer<IngestDocument, Exception>> handlers = new ArrayList<>();
+        for (int i = 0; i < documents.size(); i++) {
+            final int slot = i;
+            handlers.add((result, e) -> {
+                calls[slot]++;
+                results[slot] = result;
+                failures[slot] = e;
+            });
+        }
+        compoundProcessor.execute(documents, handlers);
+
+        for (int i = 0; i < documents.size(); i++) {
+            assertThat(calls[i], equalTo(1));
+        }
+        for (int i = 0; i < 2; i++) {
+            assertThat(failures[i], nullValue());
+            assertThat(results[i], sameInstance(documents.get(i)));
+            assertThat(results[i].getFieldValue("second", Boolean.class), is(true));
+            assertThat(results[i].getFieldValue("third", Boolean.class), is(true));
+        }
+        assertThat(results[2], nullValue());
+        assertThat(failures[2], nullValue());
+        assertThat(results[3], nullValue());
+        assertThat(((ElasticsearchException) failures[3]).getRootCause().getMessage(), equalTo("error"));
+
+        assertThat(first.batchCount, equalTo(1));
+        assertThat(first.getInvokedCounter(), equalTo(4));
+        assertThat(second.getInvokedCounter(), equalTo(3));
+        assertThat(third.batchCount, equalTo(1));
+        assertThat(third.getInvokedCounter(), equalTo(2));
+        assertStats(0, compoundProcessor, 0, 4, 0, 0);
+        assertStats(1, compoundProcessor, 0, 3, 1, 0);
+        assertStats(2, compoundProcessor, 0, 2, 0, 0);
+    }
+
+    public void testBatchExecutionWithOnFailureProcessor() {
+        LongSupplier relativeTimeProvider = mock(LongSupplier.class);
+        when(relativeTimeProvider.getAsLong()).thenReturn(0L);
+        BatchTestProcessor processor = new BatchTestProcessor(document -> {
+            if (document.hasField("fail")) {
+                throw new RuntimeException("error");
+            }
+            return document;
+        });
+        TestProcessor onFailureProcessor = new TestProcessor(document -> {
+            Map<String, Object> ingestMetadata = document.getIngestMetadata();
+            assertThat(ingestMetadata.get(CompoundProcessor.ON_FAILURE_MESSAGE_FIELD), equalTo("error"));
+            document.setFieldValue("failed", true);
+        });
+        CompoundProcessor compoundProcessor =
+            new CompoundProcessor(false, List.of(processor), List.of(onFailureProcessor), relativeTimeProvider);
+
+        List<IngestDocument> documents = List.of(
+            new IngestDocument(new HashMap<>(Map.of("fail", true)), new HashMap<>()),
+            new IngestDocument(new HashMap<>(), new HashMap<>()));
+        IngestDocument[] results = new IngestDocument[documents.size()];
+        compoundProcessor.execute(documents, List.of(
+            (result, e) -> {
+                assertThat(e, nullValue());
+                results[0] = result;
+            },
+            (result, e) -> {
+                assertThat(e, nullValue());
+                results[1] = result;
+            }));
+
+        assertThat(results[0].getFieldValue("failed", Boolean.class), is(true));
+        assertThat(results[1].hasField("failed"), is(false));
+        assertThat(processor.batchCount, equalTo(1));
+        assertThat(onFailureProcessor.getInvokedCounter(), equalTo(1));
+        assertStats(compoundProcessor, 2, 1, 0);
+    }
+
+    private static class BatchTestProcessor extends TestProcessor {
+
+        private int batchCount;
+
+        BatchTestProcessor(Function<IngestDocument, IngestDocument> ingestDocumentMapper) {
+            super(null, "batch-test-processor", ingestDocumentMapper);
+        }
+
+        @Override
+        public boolean supportsBatchExecution() {
+            return true;
+        }
+
+        @Override
+        public void executeBatch(IngestDocument[] documents, Exception[] failures) {
+            batchCount++;
+            super.executeBatch(documents, failures);
+        }
+    }
+
     private void assertStats(CompoundProcessor compoundProcessor, long count,  long failed, long time) {
         assertStats(0, compoundProcessor, 0L, count, failed, time);
     }
@@ -65,6 +65,7 @@ import org.mockito.ArgumentMatcher;
 import org.mockito.invocation.InvocationOnMock;
 
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
@@ -73,6 +74,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.BiConsumer;
@@ -87,6 +89,7 @@ import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.greaterThanOrEqualTo;
 import static org.hamcrest.Matchers.instanceOf;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
 import static org.hamcrest.Matchers.notNullValue;
 import static org.hamcrest.Matchers.nullValue;
 import static org.hamcrest.Matchers.sameInstance;
@@ -988,6 +991,51 @@ public class IngestServiceTests extends ESTestCase {
         }
     }
 
+    public void testBatchStats() throws Exception {
+        final Processor processor = mock(Processor.class);
+        when(processor.getType()).thenReturn("mock");
+        when(processor.supportsBatchExecution()).thenReturn(true);
+        doAnswer(args -> {
+            // leaves the documents untouched, so none of them is dropped
+            Thread.sleep(20);
+            return null;
+        }).when(processor).executeBatch(any(), any());
+        Map<String, Processor.Factory> map = new HashMap<>(2);
+        map.put("mock", (factories, tag, config) -> processor);
+        IngestService ingestService = createWithProcessors(map);
+        PutPipelineRequest putRequest = new PutPipelineRequest("_id",
+            new BytesArray("{\"processors\": [{\"mock\" : {}}]}"), XContentType.JSON);
+        ClusterState clusterState = ClusterState.builder(new ClusterName("_name")).build();
+        ClusterState previousClusterState = clusterState;
+        clusterState = IngestService.innerPut(putRequest, clusterState);
+        ingestService.applyClusterState(new ClusterChangedEvent("", clusterState, previousClusterState));
+
+        int numRequest = randomIntBetween(4, 32);
+        List<IndexRequest> indexRequests = new ArrayList<>(numRequest);
+        for (int i = 0; i < numRequest; i++) {
+            IndexRequest indexRequest = new IndexRequest("_index").id(Integer.toString(i)).setPipeline("_id").setFinalPipeline("_none");
+            indexRequest.source(randomAlphaOfLength(10), randomAlphaOfLength(10));
+            indexRequests.add(indexRequest);
+        }
+        @SuppressWarnings("unchecked") final BiConsumer<Integer, Exception> failureHandler = mock(BiConsumer.class);
+        @SuppressWarnings("unchecked") final BiConsumer<Thread, Exception> completionHandler = mock(BiConsumer.class);
+        final long startTimeInNanos = System.nanoTime();
+        ingestService.executeBulkRequest(numRequest, indexRequests, failureHandler, completionHandler, indexReq -> {});
+        final long tookInMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTimeInNanos);
+        verify(failureHandler, never()).accept(any(), any());
+        verify(completionHandler, times(1)).accept(Thread.currentThread(), null);
+        verify(processor, times(1)).executeBatch(any(), any());
+
+        // the batch is only timed once, charging its duration to every document would exceed the time it took
+        final IngestStats stats = ingestService.stats();
+        assertStats(stats.getTotalStats(), numRequest, 0, 0);
+        assertThat(stats.getTotalStats().getIngestTimeInMillis(), lessThanOrEqualTo(tookInMillis));
+        assertPipelineStats(stats.getPipelineStats(), "_id", numRequest, 0, 0);
+        assertThat(getPipelineStats(stats.getPipelineStats(), "_id").getIngestTimeInMillis(), lessThanOrEqualTo(tookInMillis));
+        assertProcessorStats(0, stats, "_id", numRequest, 0, 0);
+        assertThat(stats.getProcessorStats().get("_id").get(0).getStats().getIngestTimeInMillis(), lessThanOrEqualTo(tookInMillis));
+    }
+
     public void testStats() throws Exception {
         final Processor processor = mock(Processor.class);
         final Processor processorFailure = mock(Processor.class);
@@ -230,6 +230,27 @@ public class RestControllerTests extends ESTestCase {
         assertThat(exception.getMessage(), equalTo("Trying to use conflicting wildcard names for same path: wildcard1 and wildcard2"));
     }
 
+    public void testSupportsStreamingContent() {
+        final RestHandler streamingHandler = new RestHandler() {
+            @Override
+            public void handleRequest(RestRequest request, RestChannel channel, NodeClient client) {
+            }
+
+            @Override
+            public boolean supportsStreamingContent() {
+                return true;
+            }
+        };
+        restController.registerHandler(RestRequest.Method.POST, "/{index}/_stream", streamingHandler);
+        restController.registerHandler(RestRequest.Method.POST, "/_aggregated", (request, channel, client) -> {});
+
+        assertTrue(restController.supportsStreamingContent(RestRequest.Method.POST, "/foo/_stream"));
+        assertTrue(restController.supportsStreamingContent(RestRequest.Method.POST, "/foo/_stream?refresh=true"));
+        assertFalse(restController.supportsStreamingContent(RestRequest.Method.PUT, "/foo/_stream"));
+        assertFalse(restController.supportsStreamingContent(RestRequest.Method.POST, "/_aggregated"));
+        assertFalse(restController.supportsStreamingContent(RestRequest.Method.POST, "/_unknown/path"));
+    }
+
     public void testRestHandlerWrapper() throws Exception {
         AtomicBoolean handlerCalled = new AtomicBoolean(false);
         AtomicBoolean wrapperCalled = new AtomicBoolean(false);
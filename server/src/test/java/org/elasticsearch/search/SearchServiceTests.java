@@ -29,6 +29,10 @@ import org.elasticsearch.action.ActionListener;
 import org.elasticsearch.action.OriginalIndices;
 import org.elasticsearch.action.index.IndexResponse;
 import org.elasticsearch.action.search.ClearScrollRequest;
+import org.elasticsearch.action.search.ClosePointInTimeAction;
+import org.elasticsearch.action.search.ClosePointInTimeRequest;
+import org.elasticsearch.action.search.OpenPointInTimeAction;
+import org.elasticsearch.action.search.OpenPointInTimeRequest;
 import org.elasticsearch.action.search.SearchPhaseExecutionException;
 import org.elasticsearch.action.search.SearchRequest;
 import org.elasticsearch.action.search.SearchResponse;
@@ -72,6 +76,7 @@ import org.elasticsearch.search.aggregations.MultiBucketConsumerService;
 import org.elasticsearch.search.aggregations.bucket.global.GlobalAggregationBuilder;
 import org.elasticsearch.search.aggregations.bucket.terms.TermsAggregationBuilder;
 import org.elasticsearch.search.aggregations.support.ValueType;
+import org.elasticsearch.search.builder.PointInTimeBuilder;
 import org.elasticsearch.search.builder.SearchSourceBuilder;
 import org.elasticsearch.search.fetch.FetchSearchResult;
 import org.elasticsearch.search.fetch.ShardFetchRequest;
@@ -898,4 +903,41 @@ public class SearchServiceTests extends ESSingleNodeTestCase {
             latch.await();
         }
     }
+
+    public void testPointInTime() {
+        createIndex("index");
+        client().prepareIndex("index").setId("1").setSource("field", "value").setRefreshPolicy(IMMEDIATE).get();
+        final SearchService service = getInstanceFromNode(SearchService.class);
+
+        final String pitId = client().execute(OpenPointInTimeAction.INSTANCE,
+            new OpenPointInTimeRequest("index").keepAlive(TimeValue.timeValueMinutes(1))).actionGet().getId();
+        assertThat(service.getActiveReaderContexts(), equalTo(1));
+
+        // documents indexed after the point in time was opened are not visible to it
+        client().prepareIndex("index").setId("2").setSource("field", "value").setRefreshPolicy(IMMEDIATE).get();
+        assertHitCount(client().prepareSearch("index").get(), 2);
+        SearchResponse response = client().prepareSearch()
+            .setSource(new SearchSourceBuilder().pointInTimeBuilder(new PointInTimeBuilder(pitId, TimeValue.timeValueMinutes(1))))
+            .get();
+        assertHitCount(response, 1);
+        assertThat(service.getActiveContexts(), equalTo(0));
+        assertThat(service.getActiveReaderContexts(), equalTo(1));
+
+        assertTrue(client().execute(ClosePointInTimeAction.INSTANCE, new ClosePointInTimeRequest(pitId)).actionGet().isSucceeded());
+        assertThat(service.getActiveReaderContexts(), equalTo(0));
+        expectThrows(SearchPhaseExecutionException.class, () -> client().prepareSearch()
+            .setSource(new SearchSourceBuilder().pointInTimeBuilder(new PointInTimeBuilder(pitId, null)))
+            .get());
+    }
+
+    public void testPointInTimeKeepAliveLimit() {
+        createIndex("index");
+        final SearchService service = getInstanceFromNode(SearchService.class);
+        final IndexShard indexShard = getInstanceFromNode(IndicesService.class).indexServiceSafe(resolveIndex("index")).getShard(0);
+        PlainActionFuture<Long> future = new PlainActionFuture<>();
+        service.openReaderContext(indexShard.shardId(), TimeValue.timeValueDays(2), future);
+        IllegalArgumentException e = expectThrows(IllegalArgumentException.class, future::actionGet);
+        assertThat(e.getMessage(), startsWith("Keep alive for point in time is too large"));
+        assertThat(service.getActiveReaderContexts(), equalTo(0));
+    }
 }
@@ -0,0 +1,121 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.search.aggregations;
+
+import org.apache.lucene.util.BytesRef;
+import org.elasticsearch.common.breaker.CircuitBreaker;
+import org.elasticsearch.common.breaker.NoopCircuitBreaker;
+import org.elasticsearch.index.query.QueryShardContext;
+import org.elasticsearch.script.Script;
+import org.elasticsearch.search.DocValueFormat;
+import org.elasticsearch.search.aggregations.MultiBucketConsumerService.MultiBucketConsumer;
+import org.elasticsearch.search.aggregations.MultiBucketConsumerService.TooManyBucketsException;
+import org.elasticsearch.search.aggregations.bucket.terms.StringTerms;
+import org.elasticsearch.search.aggregations.bucket.terms.TermsAggregationBuilder;
+import org.elasticsearch.test.ESTestCase;
+import org.elasticsearch.test.TestSearchContext;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+import static org.elasticsearch.index.query.QueryBuilders.matchAllQuery;
+import static org.elasticsearch.search.aggregations.AggregationBuilders.avg;
+import static org.elasticsearch.search.aggregations.AggregationBuilders.dateHistogram;
+import static org.elasticsearch.search.aggregations.AggregationBuilders.filter;
+import static org.elasticsearch.search.aggregations.AggregationBuilders.global;
+import static org.elasticsearch.search.aggregations.AggregationBuilders.significantTerms;
+import static org.elasticsearch.search.aggregations.AggregationBuilders.terms;
+import static org.elasticsearch.search.aggregations.AggregationBuilders.topHits;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class AggregationPhaseTests extends ESTestCase {
+
+    public void testCanCollectSegmentsSeparately() {
+        final TermsAggregationBuilder terms = terms("terms").field("field")
+            .subAggregation(avg("avg").field("value"))
+            .subAggregation(dateHistogram("histo").field("date"));
+        assertTrue(AggregationPhase.canCollectSegmentsSeparately(List.of(terms), randomBoolean()));
+        assertTrue(AggregationPhase.canCollectSegmentsSeparately(List.of(), randomBoolean()));
+
+        // aggregations that look outside of the query or that can't be reduced per segment, even as sub-aggregations
+        assertFalse(AggregationPhase.canCollectSegmentsSeparately(List.of(terms, global("global")), randomBoolean()));
+        assertFalse(AggregationPhase.canCollectSegmentsSeparately(
+            List.of(terms("terms").field("field").subAggregation(significantTerms("significant").field("other"))), randomBoolean()));
+        assertFalse(AggregationPhase.canCollectSegmentsSeparately(List.of(topHits("top")), randomBoolean()));
+
+        // scripts share the search lookup of the shard so they can't run concurrently
+        final TermsAggregationBuilder script = terms("terms").script(new Script("doc['field'].value"));
+        assertTrue(AggregationPhase.canCollectSegmentsSeparately(List.of(script), false));
+        assertFalse(AggregationPhase.canCollectSegmentsSeparately(List.of(script), true));
+        final AggregationBuilder filter = filter("filter", matchAllQuery()).subAggregation(avg("avg").field("value"));
+        assertTrue(AggregationPhase.canCollectSegmentsSeparately(List.of(filter), false));
+        assertFalse(AggregationPhase.canCollectSegmentsSeparately(List.of(filter), true));
+    }
+
+    public void testSliceBucketsAreCountedOnce() throws IOException {
+        final int numTerms = randomIntBetween(10, 100);
+        final int numSlices = randomIntBetween(2, 8);
+        // every slice sees every term, so the reduced result has as many buckets as each slice
+        TestSearchContext context = newSlicedContext(numTerms, numTerms, numSlices);
+        new AggregationPhase().execute(context);
+        StringTerms terms = (StringTerms) context.queryResult().aggregations().get("terms");
+        assertEquals(numTerms, terms.getBuckets().size());
+        for (StringTerms.Bucket bucket : terms.getBuckets()) {
+            assertEquals(numSlices, bucket.getDocCount());
+        }
+
+        TestSearchContext overLimit = newSlicedContext(numTerms - 1, numTerms, numSlices);
+        expectThrows(TooManyBucketsException.class, () -> new AggregationPhase().execute(overLimit));
+    }
+
+    private static TestSearchContext newSlicedContext(int maxBuckets, int numTerms, int numSlices) throws IOException {
+        MultiBucketConsumer consumer = new MultiBucketConsumer(maxBuckets, new NoopCircuitBreaker(CircuitBreaker.REQUEST));
+        TestSearchContext context = new TestSearchContext((QueryShardContext) null);
+        context.aggregations(new SearchContextAggregations(AggregatorFactories.EMPTY, consumer));
+        context.aggregations().aggregators(new Aggregator[] { termsAggregator(consumer, numTerms) });
+        for (int i = 1; i < numSlices; i++) {
+            context.aggregations().addSliceAggregators(new Aggregator[] { termsAggregator(consumer, numTerms) });
+        }
+        return context;
+    }
+
+    /**
+     * An aggregator that charges the bucket consumer like a terms aggregator that collected one document per term.
+     */
+    private static Aggregator termsAggregator(MultiBucketConsumer consumer, int numTerms) throws IOException {
+        Aggregator aggregator = mock(Aggregator.class);
+        when(aggregator.name()).thenReturn("terms");
+        when(aggregator.buildAggregation(0)).thenAnswer(invocation -> {
+            consumer.accept(numTerms);
+            List<StringTerms.Bucket> buckets = new ArrayList<>(numTerms);
+            for (int i = 0; i < numTerms; i++) {
+                buckets.add(new StringTerms.Bucket(new BytesRef(String.format(Locale.ROOT, "%03d", i)), 1,
+                    InternalAggregations.EMPTY, false, 0, DocValueFormat.RAW));
+            }
+            return new StringTerms("terms", BucketOrder.key(true), numTerms, 1, Collections.emptyList(), null,
+                DocValueFormat.RAW, numTerms, false, 0, buckets, 0);
+        });
+        return aggregator;
+    }
+}
@@ -23,6 +23,7 @@ import org.apache.lucene.document.Document;
 import org.apache.lucene.document.LongPoint;
 import org.apache.lucene.document.SortedNumericDocValuesField;
 import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexOptions;
 import org.apache.lucene.index.IndexReader;
 import org.apache.lucene.index.RandomIndexWriter;
 import org.apache.lucene.search.IndexSearcher;
@@ -39,10 +40,14 @@ import org.elasticsearch.search.aggregations.MultiBucketConsumerService.TooManyB
 import org.elasticsearch.search.aggregations.support.AggregationInspectionHelper;
 
 import java.io.IOException;
+import java.time.ZonedDateTime;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
 import java.util.function.Consumer;
 
 import static org.hamcrest.Matchers.equalTo;
@@ -1164,6 +1169,76 @@ public class DateHistogramAggregatorTests extends AggregatorTestCase {
         assertWarnings("[interval] on [date_histogram] is deprecated, use [fixed_interval] or [calendar_interval] in the future.");
     }
 
+    public void testCountFromPoints() throws IOException {
+        final long dayInMillis = 24 * 60 * 60 * 1000L;
+        final long start = asLong("2019-01-01");
+        final long end = start + 100 * dayInMillis;
+        final long[] values = new long[randomIntBetween(1, 500)];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = randomLongBetween(start, end);
+        }
+        final boolean withDeletions = randomBoolean();
+        try (Directory directory = newDirectory()) {
+            try (RandomIndexWriter indexWriter = new RandomIndexWriter(random(), directory)) {
+                for (long value : values) {
+                    if (rarely()) {
+                        indexWriter.commit();
+                    }
+                    Document document = new Document();
+                    document.add(new SortedNumericDocValuesField(DATE_FIELD, value));
+                    document.add(new LongPoint(DATE_FIELD, value));
+                    indexWriter.addDocument(document);
+                }
+                if (withDeletions) {
+                    indexWriter.deleteDocuments(LongPoint.newExactQuery(DATE_FIELD, values[0]));
+                }
+            }
+
+            final long from = randomLongBetween(start, end);
+            final long to = randomLongBetween(from, end);
+            final boolean rangeQuery = randomBoolean();
+            final Query query = rangeQuery ? LongPoint.newRangeQuery(DATE_FIELD, from, to) : new MatchAllDocsQuery();
+            final Map<Long, Long> expected = new TreeMap<>();
+            for (long value : values) {
+                if ((withDeletions && value == values[0]) || (rangeQuery && (value < from || value > to))) {
+                    continue;
+                }
+                expected.merge(Math.floorDiv(value, dayInMillis) * dayInMillis, 1L, Long::sum);
+            }
+
+            DateFieldMapper.DateFieldType fieldType = new DateFieldMapper.Builder("_name").fieldType();
+            fieldType.setName(DATE_FIELD);
+            fieldType.setHasDocValues(true);
+            fieldType.setIndexOptions(IndexOptions.DOCS);
+            DateHistogramAggregationBuilder aggregationBuilder = new DateHistogramAggregationBuilder("_name")
+                .fixedInterval(new DateHistogramInterval("1d"))
+                .field(DATE_FIELD);
+
+            try (IndexReader indexReader = DirectoryReader.open(directory)) {
+                IndexSearcher indexSearcher = new IndexSearcher(indexReader);
+                DateHistogramAggregator aggregator = createAggregator(query, aggregationBuilder, indexSearcher, createIndexSettings(),
+                    fieldType);
+                aggregator.preCollection();
+                indexSearcher.search(query, aggregator);
+                aggregator.postCollection();
+                InternalDateHistogram histogram = (InternalDateHistogram) aggregator.buildAggregation(0L);
+
+                final Map<Long, Long> actual = new TreeMap<>();
+                for (Histogram.Bucket bucket : histogram.getBuckets()) {
+                    actual.put(((ZonedDateTime) bucket.getKey()).toInstant().toEpochMilli(), bucket.getDocCount());
+                }
+                assertEquals(expected, actual);
+
+                final Map<String, Object> debug = new HashMap<>();
+                aggregator.collectDebugInfo(debug::put);
+                // segments with deleted documents can't be counted from points
+                int segmentsWithDeletions = (int) indexReader.leaves().stream().filter(ctx -> ctx.reader().hasDeletions()).count();
+                assertThat(debug.get("segments_collected"), equalTo(segmentsWithDeletions));
+                assertThat(debug.get("segments_counted_from_points"), equalTo(indexReader.leaves().size() - segmentsWithDeletions));
+            }
+        }
+    }
+
     private void testSearchCase(Query query, List<String> dataset,
                                 Consumer<DateHistogramAggregationBuilder> configure,
                                 Consumer<InternalDateHistogram> verify, boolean useNanosecondResolution) throws IOException {
@@ -0,0 +1,155 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.search.aggregations.bucket.range;
+
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.LongPoint;
+import org.apache.lucene.document.SortedNumericDocValuesField;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexOptions;
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.RandomIndexWriter;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.MatchAllDocsQuery;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.store.Directory;
+import org.elasticsearch.index.mapper.KeywordFieldMapper;
+import org.elasticsearch.index.mapper.MappedFieldType;
+import org.elasticsearch.index.mapper.NumberFieldMapper;
+import org.elasticsearch.search.aggregations.Aggregator;
+import org.elasticsearch.search.aggregations.AggregatorTestCase;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.hamcrest.Matchers.equalTo;
+
+public class RangeAggregatorTests extends AggregatorTestCase {
+
+    private static final String NUMBER_FIELD = "number";
+    private static final String TAG_FIELD = "tag";
+
+    public void testCountFromPoints() throws IOException {
+        final Long[] values = new Long[randomIntBetween(1, 500)];
+        final String[] tags = new String[values.length];
+        for (int i = 0; i < values.length; i++) {
+            // some documents don't have a value
+            values[i] = rarely() ? null : randomLongBetween(0, 1000);
+            tags[i] = randomFrom("a", "b");
+        }
+        final boolean withDeletions = randomBoolean();
+        try (Directory directory = newDirectory()) {
+            try (RandomIndexWriter indexWriter = new RandomIndexWriter(random(), directory)) {
+                for (int i = 0; i < values.length; i++) {
+                    if (rarely()) {
+                        indexWriter.commit();
+                    }
+                    Document document = new Document();
+                    document.add(new StringField("id", Integer.toString(i), StringField.Store.NO));
+                    document.add(new StringField(TAG_FIELD, tags[i], StringField.Store.NO));
+                    if (values[i] != null) {
+                        document.add(new SortedNumericDocValuesField(NUMBER_FIELD, values[i]));
+                        document.add(new LongPoint(NUMBER_FIELD, values[i]));
+                    }
+                    indexWriter.addDocument(document);
+                }
+                if (withDeletions) {
+                    indexWriter.deleteDocuments(new Term("id", "0"));
+                }
+            }
+
+            // open-ended ranges on both sides, possibly overlapping ones in between
+            final RangeAggregationBuilder aggregationBuilder = new RangeAggregationBuilder("_name").field(NUMBER_FIELD);
+            aggregationBuilder.addUnboundedTo(randomLongBetween(0, 1000));
+            for (int i = randomIntBetween(0, 5); i > 0; i--) {
+                final long from = randomLongBetween(0, 1000);
+                aggregationBuilder.addRange(from, randomLongBetween(from, 1000));
+            }
+            aggregationBuilder.addUnboundedFrom(randomLongBetween(0, 1000));
+
+            final long queryFrom = randomLongBetween(0, 1000);
+            final long queryTo = randomLongBetween(queryFrom, 1000);
+            final int queryType = randomInt(2);
+            final Query query;
+            switch (queryType) {
+                case 0:
+                    query = new MatchAllDocsQuery();
+                    break;
+                case 1:
+                    query = LongPoint.newRangeQuery(NUMBER_FIELD, queryFrom, queryTo);
+                    break;
+                default:
+                    // not a query that the points of the aggregated field can answer, the documents must be collected
+                    query = new TermQuery(new Term(TAG_FIELD, "a"));
+                    break;
+            }
+            final boolean countedFromPoints = queryType != 2;
+
+            MappedFieldType numberFieldType = new NumberFieldMapper.NumberFieldType(NumberFieldMapper.NumberType.LONG);
+            numberFieldType.setName(NUMBER_FIELD);
+            numberFieldType.setHasDocValues(true);
+            numberFieldType.setIndexOptions(IndexOptions.DOCS);
+            MappedFieldType tagFieldType = new KeywordFieldMapper.KeywordFieldType();
+            tagFieldType.setName(TAG_FIELD);
+
+            try (IndexReader indexReader = DirectoryReader.open(directory)) {
+                IndexSearcher indexSearcher = new IndexSearcher(indexReader);
+                Aggregator aggregator = createAggregator(query, aggregationBuilder, indexSearcher, createIndexSettings(),
+                    numberFieldType, tagFieldType);
+                aggregator.preCollection();
+                indexSearcher.search(query, aggregator);
+                aggregator.postCollection();
+                InternalRange<?, ?> range = (InternalRange<?, ?>) aggregator.buildAggregation(0L);
+
+                assertThat(range.getBuckets().size(), equalTo(aggregationBuilder.ranges().size()));
+                for (InternalRange.Bucket bucket : range.getBuckets()) {
+                    long expected = 0;
+                    for (int i = 0; i < values.length; i++) {
+                        if (values[i] == null || (withDeletions && i == 0)) {
+                            continue;
+                        }
+                        if (queryType == 1 && (values[i] < queryFrom || values[i] > queryTo)) {
+                            continue;
+                        }
+                        if (queryType == 2 && tags[i].equals("a") == false) {
+                            continue;
+                        }
+                        if (values[i] >= bucket.from && values[i] < bucket.to) {
+                            expected++;
+                        }
+                    }
+                    assertThat(bucket.getKeyAsString(), bucket.getDocCount(), equalTo(expected));
+                }
+
+                final Map<String, Object> debug = new HashMap<>();
+                aggregator.collectDebugInfo(debug::put);
+                // segments with deleted documents can't be counted from points
+                int segmentsWithDeletions = (int) indexReader.leaves().stream().filter(ctx -> ctx.reader().hasDeletions()).count();
+                int segmentsCountedFromPoints = countedFromPoints ? indexReader.leaves().size() - segmentsWithDeletions : 0;
+                assertThat(debug.get("segments_counted_from_points"), equalTo(segmentsCountedFromPoints));
+                assertThat(debug.get("segments_collected"), equalTo(indexReader.leaves().size() - segmentsCountedFromPoints));
+            }
+        }
+    }
+}
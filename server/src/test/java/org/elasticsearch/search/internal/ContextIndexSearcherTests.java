@@ -37,6 +37,7 @@ import org.apache.lucene.index.Term;
 import org.apache.lucene.index.TermsEnum;
 import org.apache.lucene.search.BoostQuery;
 import org.apache.lucene.search.BulkScorer;
+import org.apache.lucene.search.Collector;
 import org.apache.lucene.search.ConstantScoreQuery;
 import org.apache.lucene.search.DocIdSetIterator;
 import org.apache.lucene.search.Explanation;
@@ -49,6 +50,7 @@ import org.apache.lucene.search.ScoreMode;
 import org.apache.lucene.search.Scorer;
 import org.apache.lucene.search.TermQuery;
 import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.search.TotalHitCountCollector;
 import org.apache.lucene.search.Weight;
 import org.apache.lucene.store.Directory;
 import org.apache.lucene.util.Accountable;
@@ -68,16 +70,22 @@ import org.elasticsearch.index.shard.ShardId;
 import org.elasticsearch.search.aggregations.LeafBucketCollector;
 import org.elasticsearch.test.ESTestCase;
 import org.elasticsearch.test.IndexSettingsModule;
+import org.elasticsearch.threadpool.TestThreadPool;
+import org.elasticsearch.threadpool.ThreadPool;
 
 import java.io.IOException;
 import java.io.UncheckedIOException;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.IdentityHashMap;
+import java.util.List;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
 
 import static org.elasticsearch.search.internal.ContextIndexSearcher.intersectScorerAndBitSet;
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
 
 public class ContextIndexSearcherTests extends ESTestCase {
     public void testIntersectScorerAndRoleBits() throws Exception {
@@ -253,6 +261,88 @@ public class ContextIndexSearcherTests extends ESTestCase {
         IOUtils.close(reader, w, dir);
     }
 
+    public void testSlices() throws IOException {
+        Directory dir = newDirectory();
+        DirectoryReader reader = newMultiSegmentReader(dir);
+        int numSlices = randomIntBetween(1, 30);
+        List<List<LeafReaderContext>> slices = ContextIndexSearcher.slices(reader.leaves(), numSlices);
+        assertThat(slices.size(), lessThanOrEqualTo(Math.min(numSlices, reader.leaves().size())));
+        // slices are non-empty and hold contiguous leaves in order
+        List<LeafReaderContext> leaves = new ArrayList<>();
+        for (List<LeafReaderContext> slice : slices) {
+            assertFalse(slice.isEmpty());
+            leaves.addAll(slice);
+        }
+        assertEquals(reader.leaves(), leaves);
+        assertEquals(1, ContextIndexSearcher.slices(reader.leaves(), 1).size());
+        expectThrows(IllegalArgumentException.class, () -> ContextIndexSearcher.slices(reader.leaves(), 0));
+        reader.close();
+        dir.close();
+    }
+
+    public void testSearchSlices() throws Exception {
+        Directory dir = newDirectory();
+        DirectoryReader reader = newMultiSegmentReader(dir);
+        ThreadPool threadPool = new TestThreadPool(getTestName());
+        try {
+            ContextIndexSearcher searcher = new ContextIndexSearcher(reader, IndexSearcher.getDefaultSimilarity(),
+                IndexSearcher.getDefaultQueryCache(), IndexSearcher.getDefaultQueryCachingPolicy());
+            searcher.setSliceExecutor(threadPool.executor(ThreadPool.Names.SEARCH_WORKER));
+            List<List<LeafReaderContext>> slices = ContextIndexSearcher.slices(reader.leaves(), randomIntBetween(2, 8));
+            List<TotalHitCountCollector> collectors = new ArrayList<>();
+            for (int i = 0; i < slices.size(); i++) {
+                collectors.add(new TotalHitCountCollector());
+            }
+            searcher.searchSlices(new MatchAllDocsQuery(), slices, collectors);
+            for (int i = 0; i < slices.size(); i++) {
+                int expected = 0;
+                for (LeafReaderContext leaf : slices.get(i)) {
+                    expected += leaf.reader().numDocs();
+                }
+                assertEquals(expected, collectors.get(i).getTotalHits());
+            }
+
+            // a failure on any slice is rethrown once all slices are done
+            final int failingSlice = randomIntBetween(0, slices.size() - 1);
+            List<Collector> failingCollectors = new ArrayList<>();
+            for (int i = 0; i < slices.size(); i++) {
+                if (i == failingSlice) {
+                    failingCollectors.add(new TotalHitCountCollector() {
+                        @Override
+                        protected void doSetNextReader(LeafReaderContext context) {
+                            throw new IllegalStateException("boom");
+                        }
+                    });
+                } else {
+                    failingCollectors.add(new TotalHitCountCollector());
+                }
+            }
+            IllegalStateException e = expectThrows(IllegalStateException.class,
+                () -> searcher.searchSlices(new MatchAllDocsQuery(), slices, failingCollectors));
+            assertEquals("boom", e.getMessage());
+        } finally {
+            ThreadPool.terminate(threadPool, 10, TimeUnit.SECONDS);
+            reader.close();
+            dir.close();
+        }
+    }
+
+    private static DirectoryReader newMultiSegmentReader(Directory dir) throws IOException {
+        IndexWriter w = new IndexWriter(dir, newIndexWriterConfig(null).setMergePolicy(NoMergePolicy.INSTANCE));
+        int numSegments = randomIntBetween(2, 20);
+        for (int i = 0; i < numSegments; i++) {
+            int numDocs = randomIntBetween(1, 50);
+            for (int j = 0; j < numDocs; j++) {
+                Document doc = new Document();
+                doc.add(new StringField("foo", "bar", Field.Store.NO));
+                w.addDocument(doc);
+            }
+            w.commit();
+        }
+        w.close();
+        return DirectoryReader.open(dir);
+    }
+
     private SparseFixedBitSet query(LeafReaderContext leaf, String field, String value) throws IOException {
         SparseFixedBitSet sparseFixedBitSet = new SparseFixedBitSet(leaf.reader().maxDoc());
         TermsEnum tenum = leaf.reader().terms(field).iterator();
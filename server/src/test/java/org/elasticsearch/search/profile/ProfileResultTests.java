@@ -56,12 +56,17 @@ public class ProfileResultTests extends ESTestCase {
             }
             timings.put(randomAlphaOfLengthBetween(5, 10), time); // don't overflow Long.MAX_VALUE;
         }
+        int debugSize = randomIntBetween(0, 2);
+        Map<String, Object> debug = new HashMap<>(debugSize);
+        for (int i = 0; i < debugSize; i++) {
+            debug.put(randomAlphaOfLength(5), randomAlphaOfLength(4));
+        }
         int childrenSize = depth > 0 ? randomIntBetween(0, 1) : 0;
         List<ProfileResult> children = new ArrayList<>(childrenSize);
         for (int i = 0; i < childrenSize; i++) {
             children.add(createTestItem(depth - 1));
         }
-        return new ProfileResult(type, description, timings, children);
+        return new ProfileResult(type, description, timings, debug, children);
     }
 
     public void testFromXContent() throws IOException {
@@ -84,7 +89,9 @@ public class ProfileResultTests extends ESTestCase {
         BytesReference mutated;
         if (addRandomFields) {
             // "breakdown" just consists of key/value pairs, we shouldn't add anything random there
-            Predicate<String> excludeFilter = (s) -> s.endsWith(ProfileResult.BREAKDOWN.getPreferredName());
+            // and "debug" is parsed into a free-form map
+            Predicate<String> excludeFilter = (s) -> s.endsWith(ProfileResult.BREAKDOWN.getPreferredName())
+                || s.endsWith(ProfileResult.DEBUG.getPreferredName());
             mutated = insertRandomFields(xContentType, originalBytes, excludeFilter, random());
         } else {
             mutated = originalBytes;
@@ -198,4 +205,22 @@ public class ProfileResultTests extends ESTestCase {
                 "  }\n" +
               "}", Strings.toString(builder));
     }
+
+    public void testToXContentWithDebug() throws IOException {
+        ProfileResult result = new ProfileResult("profileName", "some description", Collections.singletonMap("key1", 100L),
+            Collections.singletonMap("segments_counted_from_points", 3), Collections.emptyList());
+        XContentBuilder builder = XContentFactory.jsonBuilder().prettyPrint();
+        result.toXContent(builder, ToXContent.EMPTY_PARAMS);
+        assertEquals("{\n" +
+                "  \"type\" : \"profileName\",\n" +
+                "  \"description\" : \"some description\",\n" +
+                "  \"time_in_nanos\" : 100,\n" +
+                "  \"breakdown\" : {\n" +
+                "    \"key1\" : 100\n" +
+                "  },\n" +
+                "  \"debug\" : {\n" +
+                "    \"segments_counted_from_points\" : 3\n" +
+                "  }\n" +
+              "}", Strings.toString(builder));
+    }
 }
@@ -70,6 +70,8 @@ import org.apache.lucene.store.Directory;
 import org.apache.lucene.util.BytesRef;
 import org.apache.lucene.util.FixedBitSet;
 import org.elasticsearch.action.search.SearchShardTask;
+import org.elasticsearch.common.lucene.search.function.FunctionScoreQuery;
+import org.elasticsearch.common.lucene.search.function.WeightFactorFunction;
 import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.index.mapper.DateFieldMapper;
 import org.elasticsearch.index.mapper.MappedFieldType;
@@ -85,11 +87,13 @@ import org.elasticsearch.search.internal.ScrollContext;
 import org.elasticsearch.search.internal.SearchContext;
 import org.elasticsearch.search.sort.SortAndFormats;
 import org.elasticsearch.test.TestSearchContext;
+import org.elasticsearch.threadpool.ThreadPool;
 
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.function.Consumer;
 
 import static org.elasticsearch.search.query.QueryPhase.indexFieldHasDuplicateData;
 import static org.elasticsearch.search.query.TopDocsCollectorContext.hasInfMaxScore;
@@ -834,6 +838,108 @@ public class QueryPhaseTests extends IndexShardTestCase {
 
     }
 
+    public void testConcurrentSlices() throws Exception {
+        Directory dir = newDirectory();
+        IndexWriterConfig iwc = newIndexWriterConfig().setMergePolicy(NoMergePolicy.INSTANCE);
+        IndexWriter w = new IndexWriter(dir, iwc);
+        final int numDocs = scaledRandomIntBetween(200, 500);
+        for (int i = 0; i < numDocs; ++i) {
+            Document doc = new Document();
+            doc.add(new StringField("foo", i % 3 == 0 ? "bar" : "baz", Store.NO));
+            doc.add(new TextField("text", randomFrom("a", "a b", "a b c"), Store.NO));
+            doc.add(new NumericDocValuesField("rank", randomIntBetween(0, 50)));
+            w.addDocument(doc);
+            if (i % 50 == 49) {
+                w.commit();
+            }
+        }
+        w.close();
+        IndexReader reader = DirectoryReader.open(dir);
+        assertThat(reader.leaves().size(), greaterThanOrEqualTo(4));
+        final int slices = randomIntBetween(2, 8);
+
+        // the total hit count shortcut
+        assertSameResults(reader, slices, context -> {
+            context.parsedQuery(new ParsedQuery(new MatchAllDocsQuery()));
+            context.setSize(10);
+        });
+        // constant scores are tie-broken on the doc id
+        assertSameResults(reader, slices, context -> {
+            context.parsedQuery(new ParsedQuery(new TermQuery(new Term("foo", "bar"))));
+            context.setSize(20);
+        });
+        assertSameResults(reader, slices, context -> {
+            context.parsedQuery(new ParsedQuery(new TermQuery(new Term("text", "b"))));
+            context.setSize(randomIntBetween(0, 50));
+        });
+        assertSameResults(reader, slices, context -> {
+            context.parsedQuery(new ParsedQuery(new TermQuery(new Term("text", "a"))));
+            context.parsedPostFilter(new ParsedQuery(new TermQuery(new Term("foo", "baz"))));
+            context.setSize(10);
+        });
+        assertSameResults(reader, slices, context -> {
+            context.parsedQuery(new ParsedQuery(new MatchAllDocsQuery()));
+            context.sort(new SortAndFormats(new Sort(new SortField("rank", SortField.Type.LONG, randomBoolean())),
+                new DocValueFormat[] { DocValueFormat.RAW }));
+            context.setSize(randomIntBetween(1, 50));
+        });
+
+        TestSearchContext context = new TestSearchContext(null, indexShard, newContextSearcher(reader));
+        context.setTask(new SearchShardTask(123L, "", "", "", null, Collections.emptyMap()));
+        context.parsedQuery(new ParsedQuery(new TermQuery(new Term("text", "a"))));
+        context.trackTotalHitsUpTo(5);
+        context.concurrentSlices(slices);
+        QueryPhase.executeInternal(context);
+        TotalHits totalHits = context.queryResult().topDocs().topDocs.totalHits;
+        assertThat(totalHits.value, greaterThanOrEqualTo(5L));
+        assertEquals(TotalHits.Relation.GREATER_THAN_OR_EQUAL_TO, totalHits.relation);
+
+        // queries that may share state across slices, such as function scores that may run scripts, are searched sequentially
+        final Query functionScore = new FunctionScoreQuery(new TermQuery(new Term("foo", "bar")), new WeightFactorFunction(2f));
+        context = new TestSearchContext(null, indexShard, newContextSearcher(reader));
+        context.parsedQuery(new ParsedQuery(new BooleanQuery.Builder()
+            .add(new TermQuery(new Term("text", "a")), Occur.MUST)
+            .add(functionScore, Occur.SHOULD)
+            .build()));
+        context.concurrentSlices(slices);
+        assertFalse(QueryPhase.canSearchConcurrently(context, reader));
+
+        context = new TestSearchContext(null, indexShard, newContextSearcher(reader));
+        context.parsedQuery(new ParsedQuery(new MatchAllDocsQuery()));
+        context.parsedPostFilter(new ParsedQuery(functionScore));
+        context.concurrentSlices(slices);
+        assertFalse(QueryPhase.canSearchConcurrently(context, reader));
+
+        reader.close();
+        dir.close();
+    }
+
+    private void assertSameResults(IndexReader reader, int slices, Consumer<TestSearchContext> setup) throws Exception {
+        TestSearchContext sequential = new TestSearchContext(null, indexShard, newContextSearcher(reader));
+        sequential.setTask(new SearchShardTask(123L, "", "", "", null, Collections.emptyMap()));
+        setup.accept(sequential);
+        QueryPhase.executeInternal(sequential);
+        TopDocs expected = sequential.queryResult().topDocs().topDocs;
+
+        ContextIndexSearcher searcher = newContextSearcher(reader);
+        searcher.setSliceExecutor(indexShard.getThreadPool().executor(ThreadPool.Names.SEARCH_WORKER));
+        TestSearchContext concurrent = new TestSearchContext(null, indexShard, searcher);
+        concurrent.setTask(new SearchShardTask(123L, "", "", "", null, Collections.emptyMap()));
+        setup.accept(concurrent);
+        concurrent.concurrentSlices(slices);
+        assertTrue(QueryPhase.canSearchConcurrently(concurrent, reader));
+        QueryPhase.executeInternal(concurrent);
+        TopDocs actual = concurrent.queryResult().topDocs().topDocs;
+
+        assertEquals(expected.totalHits, actual.totalHits);
+        assertEquals(expected.scoreDocs.length, actual.scoreDocs.length);
+        for (int i = 0; i < expected.scoreDocs.length; i++) {
+            assertEquals(expected.scoreDocs[i].doc, actual.scoreDocs[i].doc);
+            assertEquals(expected.scoreDocs[i].score, actual.scoreDocs[i].score, 0f);
+            assertEquals(-1, actual.scoreDocs[i].shardIndex);
+        }
+    }
+
     private static ContextIndexSearcher newContextSearcher(IndexReader reader) {
         return new ContextIndexSearcher(reader, IndexSearcher.getDefaultSimilarity(),
             IndexSearcher.getDefaultQueryCache(), IndexSearcher.getDefaultQueryCachingPolicy());
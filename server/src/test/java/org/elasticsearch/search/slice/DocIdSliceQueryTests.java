@@ -0,0 +1,116 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.elasticsearch.search.slice;
+
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.index.RandomIndexWriter;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.QueryUtils;
+import org.apache.lucene.search.Scorable;
+import org.apache.lucene.search.ScoreMode;
+import org.apache.lucene.search.SimpleCollector;
+import org.apache.lucene.store.Directory;
+import org.elasticsearch.test.ESTestCase;
+
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+
+public class DocIdSliceQueryTests extends ESTestCase {
+
+    public void testBasics() {
+        DocIdSliceQuery query1 = new DocIdSliceQuery(1, 10);
+        DocIdSliceQuery query2 = new DocIdSliceQuery(1, 10);
+        DocIdSliceQuery query3 = new DocIdSliceQuery(2, 10);
+        DocIdSliceQuery query4 = new DocIdSliceQuery(1, 5);
+        QueryUtils.check(query1);
+        QueryUtils.checkEqual(query1, query2);
+        QueryUtils.checkUnequal(query1, query3);
+        QueryUtils.checkUnequal(query1, query4);
+    }
+
+    public void testSearch() throws Exception {
+        final int numDocs = randomIntBetween(100, 200);
+        final Directory dir = newDirectory();
+        final RandomIndexWriter w = new RandomIndexWriter(random(), dir);
+        Set<String> keys = new HashSet<>();
+        for (int i = 0; i < numDocs; ++i) {
+            Document doc = new Document();
+            String id = Integer.toString(i);
+            doc.add(new StringField("id", id, Field.Store.YES));
+            w.addDocument(doc);
+            keys.add(id);
+            if (rarely()) {
+                w.commit();
+            }
+        }
+        for (int i = 0; i < numDocs; i += randomIntBetween(5, 20)) {
+            String id = Integer.toString(i);
+            w.deleteDocuments(new Term("id", id));
+            keys.remove(id);
+        }
+        final IndexReader reader = w.getReader();
+        final IndexSearcher searcher = newSearcher(reader);
+
+        final int max = randomIntBetween(2, 10);
+        for (int id = 0; id < max; id++) {
+            DocIdSliceQuery query = new DocIdSliceQuery(id, max);
+            // each slice is a contiguous range of doc ids of roughly the same size
+            assertThat(searcher.count(query), lessThanOrEqualTo(reader.maxDoc() / max + 1));
+            searcher.search(query, new SimpleCollector() {
+                private LeafReaderContext context;
+
+                @Override
+                protected void doSetNextReader(LeafReaderContext context) {
+                    this.context = context;
+                }
+
+                @Override
+                public void setScorer(Scorable scorer) {
+                }
+
+                @Override
+                public void collect(int doc) throws IOException {
+                    Document d = context.reader().document(doc, Set.of("id"));
+                    assertThat(keys.remove(d.get("id")), equalTo(true));
+                }
+
+                @Override
+                public ScoreMode scoreMode() {
+                    return ScoreMode.COMPLETE_NO_SCORES;
+                }
+            });
+        }
+        // the slices are disjoint and cover all live documents
+        assertThat(keys.size(), equalTo(0));
+        w.close();
+        reader.close();
+        dir.close();
+    }
+}
@@ -320,6 +320,29 @@ public class SliceBuilderTests extends ESTestCase {
         }
     }
 
+    public void testToFilterOnDocIds() throws IOException {
+        Directory dir = new RAMDirectory();
+        try (IndexWriter writer = new IndexWriter(dir, newIndexWriterConfig(new MockAnalyzer(random())))) {
+            writer.commit();
+        }
+        try (IndexReader reader = DirectoryReader.open(dir)) {
+            QueryShardContext context = createShardContext(Version.CURRENT, reader, "field", null, 2, 0);
+            SliceBuilder builder = new SliceBuilder(SliceBuilder.DOC_FIELD_NAME, 2, 6);
+            IllegalArgumentException exc = expectThrows(IllegalArgumentException.class,
+                () -> builder.toFilter(null, createRequest(0), context));
+            assertThat(exc.getMessage(), containsString("slicing on [_doc] requires a point in time"));
+
+            ShardSearchRequest request = createRequest(0);
+            request.readerId(randomNonNegativeLong());
+            // slices are assigned to shards first and then split on doc ids within each shard
+            Query query = builder.toFilter(null, request, context);
+            assertThat(query, equalTo(new DocIdSliceQuery(1, 3)));
+            ShardSearchRequest otherShardRequest = createRequest(1);
+            otherShardRequest.readerId(randomNonNegativeLong());
+            assertThat(builder.toFilter(null, otherShardRequest, context), instanceOf(MatchNoDocsQuery.class));
+        }
+    }
+
     public void testToFilterWithRouting() throws IOException {
         Directory dir = new RAMDirectory();
         try (IndexWriter writer = new IndexWriter(dir, newIndexWriterConfig(new MockAnalyzer(random())))) {
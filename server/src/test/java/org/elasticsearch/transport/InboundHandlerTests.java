@@ -126,7 +126,8 @@ public class InboundHandlerTests extends ESTestCase {
         handler.registerRequestHandler(registry);
         String requestValue = randomAlphaOfLength(10);
         OutboundMessage.Request request = new OutboundMessage.Request(threadPool.getThreadContext(),
-            new TestRequest(requestValue), version, action, requestId, false, isCompressed);
+            new TestRequest(requestValue), version, action, requestId, false,
+            isCompressed ? Compression.Scheme.DEFLATE : null);
 
         BytesReference bytes = request.serialize(new BytesStreamOutput());
         handler.inboundMessage(channel, bytes.slice(6, bytes.length() - 6));
@@ -49,7 +49,7 @@ public class InboundMessageTests extends ESTestCase {
         threadContext.putHeader("header", "header_value");
         Version version = randomFrom(Version.CURRENT, Version.CURRENT.minimumCompatibilityVersion());
         OutboundMessage.Request request = new OutboundMessage.Request(threadContext, message, version, action, requestId,
-            isHandshake, compress);
+            isHandshake, compress ? randomFrom(Compression.Scheme.values()) : null);
         BytesReference reference;
         try (BytesStreamOutput streamOutput = new BytesStreamOutput()) {
             reference = request.serialize(streamOutput);
@@ -86,7 +86,7 @@ public class InboundMessageTests extends ESTestCase {
         threadContext.putHeader("header", "header_value");
         Version version = randomFrom(Version.CURRENT, Version.CURRENT.minimumCompatibilityVersion());
         OutboundMessage.Response request = new OutboundMessage.Response(threadContext, message, version, requestId, isHandshake,
-            compress);
+            compress ? randomFrom(Compression.Scheme.values()) : null);
         BytesReference reference;
         try (BytesStreamOutput streamOutput = new BytesStreamOutput()) {
             reference = request.serialize(streamOutput);
@@ -121,7 +121,7 @@ public class InboundMessageTests extends ESTestCase {
         threadContext.putHeader("header", "header_value");
         Version version = randomFrom(Version.CURRENT, Version.CURRENT.minimumCompatibilityVersion());
         OutboundMessage.Response request = new OutboundMessage.Response(threadContext, exception, version, requestId,
-            isHandshake, compress);
+            isHandshake, compress ? randomFrom(Compression.Scheme.values()) : null);
         BytesReference reference;
         try (BytesStreamOutput streamOutput = new BytesStreamOutput()) {
             reference = request.serialize(streamOutput);
@@ -179,7 +179,7 @@ public class InboundMessageTests extends ESTestCase {
 
     public void testThrowOnNotCompressed() throws Exception {
         OutboundMessage.Response request = new OutboundMessage.Response(
-            threadContext, new Message(randomAlphaOfLength(10)), Version.CURRENT, randomLong(), false, false);
+            threadContext, new Message(randomAlphaOfLength(10)), Version.CURRENT, randomLong(), false, null);
         BytesReference reference;
         try (BytesStreamOutput streamOutput = new BytesStreamOutput()) {
             reference = request.serialize(streamOutput);
@@ -192,7 +192,7 @@ public class InboundMessageTests extends ESTestCase {
         InboundMessage.Reader reader = new InboundMessage.Reader(Version.CURRENT, registry, threadContext);
         BytesReference sliced = reference.slice(6, reference.length() - 6);
         final IllegalStateException iste = expectThrows(IllegalStateException.class, () -> reader.deserialize(sliced));
-        assertThat(iste.getMessage(), Matchers.equalTo("stream marked as compressed, but is missing deflate header"));
+        assertThat(iste.getMessage(), Matchers.equalTo("stream marked as compressed, but is missing a known compression header"));
     }
 
     private void testVersionIncompatibility(Version version, Version currentVersion, boolean isHandshake) throws IOException {
@@ -202,7 +202,7 @@ public class InboundMessageTests extends ESTestCase {
         long requestId = randomLong();
         boolean compress = randomBoolean();
         OutboundMessage.Request request = new OutboundMessage.Request(threadContext, message, version, action, requestId,
-            isHandshake, compress);
+            isHandshake, compress ? randomFrom(Compression.Scheme.values()) : null);
         BytesReference reference;
         try (BytesStreamOutput streamOutput = new BytesStreamOutput()) {
             reference = request.serialize(streamOutput);
@@ -39,13 +39,16 @@ import org.junit.Before;
 
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
 
+import static org.hamcrest.Matchers.greaterThan;
 import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.lessThan;
 
 public class OutboundHandlerTests extends ESTestCase {
 
@@ -290,6 +293,54 @@ public class OutboundHandlerTests extends ESTestCase {
         }
     }
 
+    public void testCompressActions() throws IOException {
+        handler = new OutboundHandler("node", Version.CURRENT, threadPool, BigArrays.NON_RECYCLING_INSTANCE, Compression.Scheme.LZ4,
+            new String[] { "internal:index/shard/recovery/*" });
+        Version version = randomFrom(Version.CURRENT, Version.CURRENT.minimumCompatibilityVersion());
+        String value = String.join("", Collections.nCopies(100, randomAlphaOfLength(10)));
+
+        handler.sendRequest(node, channel, randomNonNegativeLong(), "internal:index/shard/recovery/file_chunk", new Request(value),
+            options, version, false, false);
+        BytesReference compressed = channel.getMessageCaptor().get();
+        assertEquals(1, handler.getCompressedBytes().count());
+        assertThat(handler.getUncompressedBytes().count(), greaterThan((long) value.length()));
+        assertThat(handler.getCompressedBytes().sum(), lessThan(handler.getUncompressedBytes().count()));
+
+        InboundMessage.Reader reader = new InboundMessage.Reader(Version.CURRENT, namedWriteableRegistry, threadPool.getThreadContext());
+        try (InboundMessage inboundMessage = reader.deserialize(compressed.slice(6, compressed.length() - 6))) {
+            assertTrue(inboundMessage.isCompress());
+            assertEquals(value, new Request(inboundMessage.getStreamInput()).value);
+        }
+        // nodes that do not know about LZ4 get DEFLATE compressed messages
+        final byte[] lz4Header = new byte[] { 'L', 'Z', '4', '\0' };
+        assertEquals(version.onOrAfter(Compression.Scheme.LZ4_VERSION), contains(BytesReference.toBytes(compressed), lz4Header));
+
+        handler.sendRequest(node, channel, randomNonNegativeLong(), "internal:index/shard/recovery/start", new Request(value),
+            options, version, false, false);
+        assertEquals(2, handler.getCompressedBytes().count());
+
+        handler.sendRequest(node, channel, randomNonNegativeLong(), "indices:data/read/search", new Request(value),
+            options, version, false, false);
+        assertEquals(2, handler.getCompressedBytes().count());
+        BytesReference uncompressed = channel.getMessageCaptor().get();
+        try (InboundMessage inboundMessage = reader.deserialize(uncompressed.slice(6, uncompressed.length() - 6))) {
+            assertFalse(inboundMessage.isCompress());
+        }
+
+        handler.sendResponse(version, channel, randomNonNegativeLong(), "internal:index/shard/recovery/file_chunk",
+            new Response(value), false, false);
+        assertEquals(3, handler.getCompressedBytes().count());
+    }
+
+    private static boolean contains(byte[] bytes, byte[] sequence) {
+        for (int i = 0; i + sequence.length <= bytes.length; i++) {
+            if (Arrays.equals(Arrays.copyOfRange(bytes, i, i + sequence.length), sequence)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     private static final class Request extends TransportRequest {
 
         public String value;
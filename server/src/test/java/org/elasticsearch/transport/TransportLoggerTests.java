@@ -92,7 +92,8 @@ public class TransportLoggerTests extends ESTestCase {
         boolean compress = randomBoolean();
         try (BytesStreamOutput bytesStreamOutput = new BytesStreamOutput()) {
             OutboundMessage.Request request = new OutboundMessage.Request(new ThreadContext(Settings.EMPTY), new ClusterStatsRequest(),
-                Version.CURRENT, ClusterStatsAction.NAME, randomInt(30), false, compress);
+                Version.CURRENT, ClusterStatsAction.NAME, randomInt(30), false,
+                compress ? randomFrom(Compression.Scheme.values()) : null);
             return request.serialize(bytesStreamOutput);
         }
     }
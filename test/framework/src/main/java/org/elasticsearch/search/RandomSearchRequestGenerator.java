@@ -150,6 +150,9 @@ public class RandomSearchRequestGenerator {
         if (randomBoolean()) {
             builder.terminateAfter(randomIntBetween(1, 100000));
         }
+        if (randomBoolean()) {
+            builder.concurrentSlices(randomIntBetween(1, 16));
+        }
         if (randomBoolean()) {
             if (randomBoolean()) {
                 builder.trackTotalHits(randomBoolean());
@@ -87,6 +87,7 @@ public class TestSearchContext extends SearchContext {
     ContextIndexSearcher searcher;
     int size;
     private int terminateAfter = DEFAULT_TERMINATE_AFTER;
+    private int concurrentSlices = 1;
     private SearchContextAggregations aggregations;
     private ScrollContext scrollContext;
 
@@ -327,6 +328,16 @@ public class TestSearchContext extends SearchContext {
         this.terminateAfter = terminateAfter;
     }
 
+    @Override
+    public int concurrentSlices() {
+        return concurrentSlices;
+    }
+
+    @Override
+    public void concurrentSlices(int concurrentSlices) {
+        this.concurrentSlices = concurrentSlices;
+    }
+
     @Override
     public boolean lowLevelCancellation() {
         return false;
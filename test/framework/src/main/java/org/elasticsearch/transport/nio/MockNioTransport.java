@@ -28,12 +28,14 @@ import org.elasticsearch.action.ActionListener;
 import org.elasticsearch.action.support.PlainActionFuture;
 import org.elasticsearch.cluster.node.DiscoveryNode;
 import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.bytes.ReleasableBytesReference;
 import org.elasticsearch.common.io.stream.NamedWriteableRegistry;
 import org.elasticsearch.common.network.NetworkService;
 import org.elasticsearch.common.recycler.Recycler;
 import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.common.unit.TimeValue;
 import org.elasticsearch.common.util.PageCacheRecycler;
+import org.elasticsearch.core.internal.io.IOUtils;
 import org.elasticsearch.indices.breaker.CircuitBreakerService;
 import org.elasticsearch.nio.BytesChannelContext;
 import org.elasticsearch.nio.BytesWriteHandler;
@@ -272,8 +274,16 @@ public class MockNioTransport extends TcpTransport {
 
         @Override
         public int consumeReads(InboundChannelBuffer channelBuffer) throws IOException {
-            BytesReference bytesReference = BytesReference.fromByteBuffers(channelBuffer.sliceBuffersTo(channelBuffer.getIndex()));
-            return transport.consumeNetworkReads(channel, bytesReference);
+            Page[] pages = channelBuffer.sliceAndRetainPagesTo(channelBuffer.getIndex());
+            ByteBuffer[] buffers = new ByteBuffer[pages.length];
+            for (int i = 0; i < pages.length; ++i) {
+                buffers[i] = pages[i].byteBuffer();
+            }
+            // the pages are recycled once the message is handled and every part of it that a request retained is released
+            try (ReleasableBytesReference bytesReference = new ReleasableBytesReference(BytesReference.fromByteBuffers(buffers),
+                    () -> IOUtils.closeWhileHandlingException(pages))) {
+                return transport.consumeNetworkReads(channel, bytesReference);
+            }
         }
     }
 
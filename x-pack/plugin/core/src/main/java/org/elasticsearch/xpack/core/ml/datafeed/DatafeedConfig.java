@@ -23,9 +23,12 @@ import org.elasticsearch.common.xcontent.XContentParser;
 import org.elasticsearch.index.query.QueryBuilder;
 import org.elasticsearch.search.aggregations.AggregationBuilder;
 import org.elasticsearch.search.aggregations.AggregatorFactories;
+import org.elasticsearch.search.aggregations.bucket.composite.CompositeAggregationBuilder;
+import org.elasticsearch.search.aggregations.bucket.composite.DateHistogramValuesSourceBuilder;
 import org.elasticsearch.search.aggregations.metrics.MaxAggregationBuilder;
 import org.elasticsearch.search.aggregations.support.ValuesSourceAggregationBuilder;
 import org.elasticsearch.search.builder.SearchSourceBuilder;
+import org.elasticsearch.search.sort.SortOrder;
 import org.elasticsearch.xpack.core.ml.datafeed.extractor.ExtractorUtils;
 import org.elasticsearch.xpack.core.ml.job.config.Job;
 import org.elasticsearch.xpack.core.ml.job.messages.Messages;
@@ -107,6 +110,9 @@ public class DatafeedConfig extends AbstractDiffable<DatafeedConfig> implements
         }
 
         AggregationBuilder histogramAggregation = ExtractorUtils.getHistogramAggregation(aggregatorFactories);
+        if (histogramAggregation instanceof CompositeAggregationBuilder) {
+            Builder.checkCompositeAggregation((CompositeAggregationBuilder) histogramAggregation, aggregatorFactories);
+        }
         Builder.checkNoMoreHistogramAggregations(histogramAggregation.getSubAggregations());
         Builder.checkHistogramAggregationHasChildMaxTimeAgg(histogramAggregation);
         Builder.checkHistogramIntervalIsPositive(histogramAggregation);
@@ -748,10 +754,31 @@ public class DatafeedConfig extends AbstractDiffable<DatafeedConfig> implements
             }
         }
 
+        /**
+         * A composite aggregation is paged through in time order, so it has to be the only top level aggregation
+         * and its date_histogram has to be its first source, sorted ascending and without a missing bucket.
+         */
+        private static void checkCompositeAggregation(CompositeAggregationBuilder compositeAggregation,
+                                                      Collection<AggregationBuilder> topLevelAggregations) {
+            if (topLevelAggregations.contains(compositeAggregation) == false) {
+                throw ExceptionsHelper.badRequestException(
+                    Messages.getMessage(Messages.DATAFEED_AGGREGATIONS_COMPOSITE_AGG_MUST_BE_TOP_LEVEL, compositeAggregation.getName()));
+            }
+            DateHistogramValuesSourceBuilder dateHistogramSource = ExtractorUtils.getDateHistogramValuesSource(compositeAggregation);
+            if (compositeAggregation.sources().get(0) != dateHistogramSource
+                    || dateHistogramSource.order() != SortOrder.ASC
+                    || dateHistogramSource.missingBucket()) {
+                throw ExceptionsHelper.badRequestException(Messages.getMessage(
+                    Messages.DATAFEED_AGGREGATIONS_COMPOSITE_AGG_DATE_HISTOGRAM_SOURCE, compositeAggregation.getName()));
+            }
+        }
+
         static void checkHistogramAggregationHasChildMaxTimeAgg(AggregationBuilder histogramAggregation) {
             String timeField = null;
             if (histogramAggregation instanceof ValuesSourceAggregationBuilder) {
                 timeField = ((ValuesSourceAggregationBuilder) histogramAggregation).field();
+            } else if (histogramAggregation instanceof CompositeAggregationBuilder) {
+                timeField = ExtractorUtils.getDateHistogramValuesSource((CompositeAggregationBuilder) histogramAggregation).field();
             }
 
             for (AggregationBuilder agg : histogramAggregation.getSubAggregations()) {
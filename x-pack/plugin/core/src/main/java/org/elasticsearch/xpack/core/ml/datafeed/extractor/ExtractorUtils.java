@@ -18,7 +18,10 @@ import org.elasticsearch.index.query.RangeQueryBuilder;
 import org.elasticsearch.rest.RestStatus;
 import org.elasticsearch.search.aggregations.AggregationBuilder;
 import org.elasticsearch.search.aggregations.AggregatorFactories;
+import org.elasticsearch.search.aggregations.bucket.composite.CompositeAggregationBuilder;
+import org.elasticsearch.search.aggregations.bucket.composite.DateHistogramValuesSourceBuilder;
 import org.elasticsearch.search.aggregations.bucket.histogram.DateHistogramAggregationBuilder;
+import org.elasticsearch.search.aggregations.bucket.histogram.DateHistogramInterval;
 import org.elasticsearch.search.aggregations.bucket.histogram.HistogramAggregationBuilder;
 import org.elasticsearch.xpack.core.ml.job.messages.Messages;
 import org.elasticsearch.xpack.core.ml.utils.ExceptionsHelper;
@@ -81,7 +84,8 @@ public final class ExtractorUtils {
     /**
      * Find and return (date) histogram in {@code aggregations}
      * @param aggregations List of aggregations
-     * @return A {@link HistogramAggregationBuilder} or a {@link DateHistogramAggregationBuilder}
+     * @return A {@link HistogramAggregationBuilder}, a {@link DateHistogramAggregationBuilder} or
+     * a {@link CompositeAggregationBuilder} with a {@link DateHistogramValuesSourceBuilder} source
      */
     public static AggregationBuilder getHistogramAggregation(Collection<AggregationBuilder> aggregations) {
         if (aggregations.isEmpty()) {
@@ -101,16 +105,40 @@ public final class ExtractorUtils {
 
     public static boolean isHistogram(AggregationBuilder aggregationBuilder) {
         return aggregationBuilder instanceof HistogramAggregationBuilder
-                || aggregationBuilder instanceof DateHistogramAggregationBuilder;
+                || aggregationBuilder instanceof DateHistogramAggregationBuilder
+                || isCompositeWithDateHistogramSource(aggregationBuilder);
+    }
+
+    /**
+     * Whether {@code aggregationBuilder} is a composite aggregation that buckets by time with a date_histogram source
+     */
+    public static boolean isCompositeWithDateHistogramSource(AggregationBuilder aggregationBuilder) {
+        return aggregationBuilder instanceof CompositeAggregationBuilder
+                && ((CompositeAggregationBuilder) aggregationBuilder).sources().stream()
+                    .anyMatch(DateHistogramValuesSourceBuilder.class::isInstance);
+    }
+
+    /**
+     * Find and return the date_histogram source of {@code compositeAggregation}
+     * @param compositeAggregation A composite aggregation for which {@link #isCompositeWithDateHistogramSource} is true
+     * @return The date_histogram source
+     */
+    public static DateHistogramValuesSourceBuilder getDateHistogramValuesSource(CompositeAggregationBuilder compositeAggregation) {
+        return compositeAggregation.sources().stream()
+            .filter(DateHistogramValuesSourceBuilder.class::isInstance)
+            .map(DateHistogramValuesSourceBuilder.class::cast)
+            .findFirst()
+            .orElseThrow(() -> new IllegalStateException(
+                "Composite aggregation [" + compositeAggregation.getName() + "] has no date_histogram source"));
     }
 
     /**
      * Get the interval from {@code histogramAggregation} or throw an {@code IllegalStateException}
-     * if {@code histogramAggregation} is not a {@link HistogramAggregationBuilder} or a
-     * {@link DateHistogramAggregationBuilder}
+     * if {@code histogramAggregation} is not a {@link HistogramAggregationBuilder}, a
+     * {@link DateHistogramAggregationBuilder} or a {@link CompositeAggregationBuilder} with a date_histogram source
      *
-     * @param histogramAggregation Must be a {@link HistogramAggregationBuilder} or a
-     * {@link DateHistogramAggregationBuilder}
+     * @param histogramAggregation Must be a {@link HistogramAggregationBuilder}, a
+     * {@link DateHistogramAggregationBuilder} or a {@link CompositeAggregationBuilder} with a date_histogram source
      * @return The histogram interval
      */
     public static long getHistogramIntervalMillis(AggregationBuilder histogramAggregation) {
@@ -118,6 +146,8 @@ public final class ExtractorUtils {
             return (long) ((HistogramAggregationBuilder) histogramAggregation).interval();
         } else if (histogramAggregation instanceof DateHistogramAggregationBuilder) {
             return validateAndGetDateHistogramInterval((DateHistogramAggregationBuilder) histogramAggregation);
+        } else if (isCompositeWithDateHistogramSource(histogramAggregation)) {
+            return validateAndGetDateHistogramInterval(getDateHistogramValuesSource((CompositeAggregationBuilder) histogramAggregation));
         } else {
             throw new IllegalStateException("Invalid histogram aggregation [" + histogramAggregation.getName() + "]");
         }
@@ -146,6 +176,32 @@ public final class ExtractorUtils {
         }
     }
 
+    /**
+     * Returns the interval of a composite aggregation's date histogram source as epoch millis if valid,
+     * or throws an {@link ElasticsearchException} with the validation error
+     */
+    private static long validateAndGetDateHistogramInterval(DateHistogramValuesSourceBuilder dateHistogram) {
+        if (dateHistogram.timeZone() != null && dateHistogram.timeZone().normalized().equals(ZoneOffset.UTC) == false) {
+            throw ExceptionsHelper.badRequestException("ML requires date_histogram.time_zone to be UTC");
+        }
+
+        // the source does not say how its interval was configured, only which forms it can be read as
+        DateHistogramInterval calendarInterval;
+        try {
+            calendarInterval = dateHistogram.getIntervalAsCalendar();
+        } catch (IllegalStateException e) {
+            calendarInterval = null;
+        }
+        if (calendarInterval != null) {
+            return validateAndGetCalendarInterval(calendarInterval.toString());
+        }
+        try {
+            return dateHistogram.getIntervalAsFixed().estimateMillis();
+        } catch (IllegalStateException e) {
+            throw new IllegalArgumentException("Must specify an interval for DateHistogram");
+        }
+    }
+
     public static long validateAndGetCalendarInterval(String calendarInterval) {
         TimeValue interval;
         Rounding.DateTimeUnit dateTimeUnit = DateHistogramAggregationBuilder.DATE_FIELD_UNITS.get(calendarInterval);
@@ -115,7 +115,10 @@ public class TrainedModelDefinition implements ToXContentObject, Writeable, Acco
         return preProcessors;
     }
 
-    private void preProcess(Map<String, Object> fields) {
+    /**
+     * Applies the pre-processors of this model to the given fields, this is done as part of {@link #infer}.
+     */
+    public void preProcess(Map<String, Object> fields) {
         preProcessors.forEach(preProcessor -> preProcessor.process(fields));
     }
 
@@ -132,18 +132,33 @@ public class Ensemble implements LenientlyParsedTrainedModel, StrictlyParsedTrai
         }
     }
 
+    public List<TrainedModel> getModels() {
+        return models;
+    }
+
     @Override
     public InferenceResults infer(Map<String, Object> fields, InferenceConfig config) {
-        if (config.isTargetTypeSupported(targetType) == false) {
-            throw ExceptionsHelper.badRequestException(
-                "Cannot infer using configuration for [{}] when model target_type is [{}]", config.getName(), targetType.toString());
-        }
+        checkTargetTypeSupported(config);
         List<Double> inferenceResults = this.models.stream().map(model -> {
             InferenceResults results = model.infer(fields, NullInferenceConfig.INSTANCE);
             assert results instanceof SingleValueInferenceResults;
             return ((SingleValueInferenceResults)results).value();
         }).collect(Collectors.toList());
-        List<Double> processed = outputAggregator.processValues(inferenceResults);
+        return aggregate(inferenceResults, config);
+    }
+
+    void checkTargetTypeSupported(InferenceConfig config) {
+        if (config.isTargetTypeSupported(targetType) == false) {
+            throw ExceptionsHelper.badRequestException(
+                "Cannot infer using configuration for [{}] when model target_type is [{}]", config.getName(), targetType.toString());
+        }
+    }
+
+    /**
+     * Builds the results from the raw values that the models of this ensemble inferred, in the order of the models
+     */
+    InferenceResults aggregate(List<Double> modelValues, InferenceConfig config) {
+        List<Double> processed = outputAggregator.processValues(modelValues);
         return buildResults(processed, config);
     }
 
@@ -0,0 +1,194 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License;
+ * you may not use this file except in compliance with the Elastic License.
+ */
+package org.elasticsearch.xpack.core.ml.inference.trainedmodel.ensemble;
+
+import org.apache.lucene.util.Accountable;
+import org.apache.lucene.util.RamUsageEstimator;
+import org.elasticsearch.common.Nullable;
+import org.elasticsearch.xpack.core.ml.inference.results.InferenceResults;
+import org.elasticsearch.xpack.core.ml.inference.trainedmodel.InferenceConfig;
+import org.elasticsearch.xpack.core.ml.inference.trainedmodel.InferenceHelpers;
+import org.elasticsearch.xpack.core.ml.inference.trainedmodel.TrainedModel;
+import org.elasticsearch.xpack.core.ml.inference.trainedmodel.tree.Tree;
+import org.elasticsearch.xpack.core.ml.inference.trainedmodel.tree.TreeNode;
+import org.elasticsearch.xpack.core.ml.job.config.Operator;
+import org.elasticsearch.xpack.core.ml.utils.MapHelper;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A flattened form of an {@link Ensemble} of {@link Tree}s that is built once when a model is loaded and infers the same results
+ * as the ensemble does. The nodes of all trees are kept in primitive arrays, and the features that the trees split on are resolved
+ * to a single feature vector, so that inference does not walk object graphs and looks up every feature of a document only once
+ * rather than once per tree.
+ */
+public final class FlattenedTreeEnsemble implements Accountable {
+
+    private static final long SHALLOW_SIZE = RamUsageEstimator.shallowSizeOfInstance(FlattenedTreeEnsemble.class);
+    private static final int LEAF = -1;
+
+    private final Ensemble ensemble;
+    private final String[] featureNames;
+    private final int[] roots;
+    // the index in featureNames of the feature that a node splits on, or LEAF
+    private final int[] splitFeatures;
+    // the threshold of a split node, or the value of a leaf
+    private final double[] values;
+    private final Operator[] operators;
+    private final boolean[] defaultLeft;
+    private final int[] leftChildren;
+    private final int[] rightChildren;
+
+    private FlattenedTreeEnsemble(Ensemble ensemble, String[] featureNames, int[] roots, int[] splitFeatures, double[] values,
+                                  Operator[] operators, boolean[] defaultLeft, int[] leftChildren, int[] rightChildren) {
+        this.ensemble = ensemble;
+        this.featureNames = featureNames;
+        this.roots = roots;
+        this.splitFeatures = splitFeatures;
+        this.values = values;
+        this.operators = operators;
+        this.defaultLeft = defaultLeft;
+        this.leftChildren = leftChildren;
+        this.rightChildren = rightChildren;
+    }
+
+    /**
+     * Flattens the given ensemble, returns {@code null} if the ensemble cannot be flattened because not all of its models are trees.
+     */
+    @Nullable
+    public static FlattenedTreeEnsemble flatten(Ensemble ensemble) {
+        List<Tree> trees = new ArrayList<>(ensemble.getModels().size());
+        int numNodes = 0;
+        for (TrainedModel model : ensemble.getModels()) {
+            if (model instanceof Tree == false) {
+                return null;
+            }
+            trees.add((Tree) model);
+            numNodes += ((Tree) model).getNodes().size();
+        }
+
+        Map<String, Integer> featureIndices = new HashMap<>();
+        List<String> featureNames = new ArrayList<>();
+        int[] roots = new int[trees.size()];
+        int[] splitFeatures = new int[numNodes];
+        double[] values = new double[numNodes];
+        Operator[] operators = new Operator[numNodes];
+        boolean[] defaultLeft = new boolean[numNodes];
+        int[] leftChildren = new int[numNodes];
+        int[] rightChildren = new int[numNodes];
+        int offset = 0;
+        for (int t = 0; t < trees.size(); t++) {
+            List<String> treeFeatureNames = trees.get(t).getFeatureNames();
+            List<TreeNode> nodes = trees.get(t).getNodes();
+            roots[t] = offset;
+            for (int i = 0; i < nodes.size(); i++) {
+                TreeNode node = nodes.get(i);
+                int n = offset + i;
+                if (node.isLeaf()) {
+                    splitFeatures[n] = LEAF;
+                    values[n] = node.getLeafValue();
+                    continue;
+                }
+                if (node.getSplitFeature() < 0 || node.getSplitFeature() >= treeFeatureNames.size()) {
+                    // leave it to the tree to report the broken split
+                    return null;
+                }
+                String featureName = treeFeatureNames.get(node.getSplitFeature());
+                splitFeatures[n] = featureIndices.computeIfAbsent(featureName, name -> {
+                    featureNames.add(name);
+                    return featureNames.size() - 1;
+                });
+                values[n] = node.getThreshold();
+                operators[n] = node.getOperator();
+                defaultLeft[n] = node.isDefaultLeft();
+                leftChildren[n] = offset + node.getLeftChild();
+                rightChildren[n] = offset + node.getRightChild();
+            }
+            offset += nodes.size();
+        }
+        return new FlattenedTreeEnsemble(ensemble, featureNames.toArray(new String[0]), roots, splitFeatures, values, operators,
+            defaultLeft, leftChildren, rightChildren);
+    }
+
+    public InferenceResults infer(Map<String, Object> fields, InferenceConfig config) {
+        return infer(Collections.singletonList(fields), config).get(0);
+    }
+
+    /**
+     * Infers the results for several documents at once, in the same order as the given documents.
+     */
+    public List<InferenceResults> infer(List<Map<String, Object>> documents, InferenceConfig config) {
+        ensemble.checkTargetTypeSupported(config);
+        final int numDocs = documents.size();
+        final int numFeatures = featureNames.length;
+        final int numTrees = roots.length;
+
+        double[] features = new double[numDocs * numFeatures];
+        boolean[] missing = new boolean[numDocs * numFeatures];
+        for (int d = 0; d < numDocs; d++) {
+            Map<String, Object> fields = documents.get(d);
+            for (int f = 0; f < numFeatures; f++) {
+                Double value = InferenceHelpers.toDouble(MapHelper.dig(featureNames[f], fields));
+                if (value == null) {
+                    missing[d * numFeatures + f] = true;
+                } else {
+                    features[d * numFeatures + f] = value;
+                }
+            }
+        }
+
+        // go over the documents tree by tree, so that the nodes of a tree stay in the cpu caches
+        double[] treeValues = new double[numDocs * numTrees];
+        for (int t = 0; t < numTrees; t++) {
+            for (int d = 0; d < numDocs; d++) {
+                treeValues[d * numTrees + t] = evaluate(roots[t], features, missing, d * numFeatures);
+            }
+        }
+
+        List<InferenceResults> results = new ArrayList<>(numDocs);
+        for (int d = 0; d < numDocs; d++) {
+            List<Double> modelValues = new ArrayList<>(numTrees);
+            for (int t = 0; t < numTrees; t++) {
+                modelValues.add(treeValues[d * numTrees + t]);
+            }
+            results.add(ensemble.aggregate(modelValues, config));
+        }
+        return results;
+    }
+
+    private double evaluate(int node, double[] features, boolean[] missing, int featureOffset) {
+        while (splitFeatures[node] != LEAF) {
+            int feature = featureOffset + splitFeatures[node];
+            boolean goLeft = missing[feature] ? defaultLeft[node] : operators[node].test(features[feature], values[node]);
+            node = goLeft ? leftChildren[node] : rightChildren[node];
+        }
+        return values[node];
+    }
+
+    /**
+     * The memory used by the flattened form, which is in addition to the memory of the ensemble it was built from.
+     */
+    @Override
+    public long ramBytesUsed() {
+        long size = SHALLOW_SIZE;
+        size += RamUsageEstimator.shallowSizeOf(featureNames);
+        for (String featureName : featureNames) {
+            size += RamUsageEstimator.sizeOf(featureName);
+        }
+        size += RamUsageEstimator.sizeOf(roots);
+        size += RamUsageEstimator.sizeOf(splitFeatures);
+        size += RamUsageEstimator.sizeOf(values);
+        size += RamUsageEstimator.shallowSizeOf(operators);
+        size += RamUsageEstimator.sizeOf(defaultLeft);
+        size += RamUsageEstimator.sizeOf(leftChildren);
+        size += RamUsageEstimator.sizeOf(rightChildren);
+        return size;
+    }
+}
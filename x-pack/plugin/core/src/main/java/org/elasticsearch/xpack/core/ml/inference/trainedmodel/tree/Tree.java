@@ -115,6 +115,10 @@ public class Tree implements LenientlyParsedTrainedModel, StrictlyParsedTrainedM
         return NAME.getPreferredName();
     }
 
+    public List<String> getFeatureNames() {
+        return featureNames;
+    }
+
     public List<TreeNode> getNodes() {
         return nodes;
     }
@@ -43,6 +43,11 @@ public final class Messages {
             "Aggregation interval [{0}] must be a divisor of the bucket_span [{1}]";
     public static final String DATAFEED_AGGREGATIONS_INTERVAL_MUST_LESS_OR_EQUAL_TO_BUCKET_SPAN =
             "Aggregation interval [{0}] must be less than or equal to the bucket_span [{1}]";
+    public static final String DATAFEED_AGGREGATIONS_COMPOSITE_AGG_MUST_BE_TOP_LEVEL =
+            "Composite aggregation [{0}] must be the only top level aggregation";
+    public static final String DATAFEED_AGGREGATIONS_COMPOSITE_AGG_DATE_HISTOGRAM_SOURCE =
+            "The date_histogram source of composite aggregation [{0}] must be its first source, " +
+                "sorted in ascending order and without missing_bucket";
     public static final String DATAFEED_DATA_HISTOGRAM_MUST_HAVE_NESTED_MAX_AGGREGATION =
             "Date histogram must have nested max aggregation for time_field [{0}]";
     public static final String DATAFEED_MISSING_MAX_AGGREGATION_FOR_TIME_FIELD = "Missing max aggregation for time_field [{0}]";
@@ -5,6 +5,7 @@
  */
 package org.elasticsearch.xpack.core.watcher.transport.actions.stats;
 
+import org.elasticsearch.Version;
 import org.elasticsearch.action.FailedNodeException;
 import org.elasticsearch.action.support.nodes.BaseNodeResponse;
 import org.elasticsearch.action.support.nodes.BaseNodesResponse;
@@ -22,6 +23,7 @@ import org.elasticsearch.xpack.core.watcher.execution.QueuedWatch;
 import org.elasticsearch.xpack.core.watcher.execution.WatchExecutionSnapshot;
 
 import java.io.IOException;
+import java.util.Collections;
 import java.util.List;
 import java.util.Locale;
 
@@ -84,6 +86,9 @@ public class WatcherStatsResponse extends BaseNodesResponse<WatcherStatsResponse
 
     public static class Node extends BaseNodeResponse implements ToXContentObject {
 
+        private static final String TRIGGER_LAG_COUNT = "trigger.schedule.lag.count";
+        private static final String TRIGGER_LAG_MAX = "trigger.schedule.lag.max_in_millis";
+
         private long watchesCount;
         private WatcherState watcherState;
         private long threadPoolQueueSize;
@@ -91,6 +96,7 @@ public class WatcherStatsResponse extends BaseNodesResponse<WatcherStatsResponse
         private List<WatchExecutionSnapshot> snapshots;
         private List<QueuedWatch> queuedWatches;
         private Counters stats;
+        private long maxTriggerLag;
 
         public Node(StreamInput in) throws IOException {
             super(in);
@@ -108,6 +114,9 @@ public class WatcherStatsResponse extends BaseNodesResponse<WatcherStatsResponse
             if (in.readBoolean()) {
                 stats = new Counters(in);
             }
+            if (in.getVersion().onOrAfter(Version.V_8_0_0)) {
+                maxTriggerLag = in.readVLong();
+            }
         }
 
         public Node(DiscoveryNode node) {
@@ -184,6 +193,31 @@ public class WatcherStatsResponse extends BaseNodesResponse<WatcherStatsResponse
             this.stats = stats;
         }
 
+        /**
+         * @return The maximum delay in milliseconds with which a watch was triggered on this node. This is kept out of
+         *         {@link #getStats()}, as merging counters across nodes would sum it up.
+         */
+        public long getMaxTriggerLag() {
+            return maxTriggerLag;
+        }
+
+        public void setMaxTriggerLag(long maxTriggerLag) {
+            this.maxTriggerLag = maxTriggerLag;
+        }
+
+        /**
+         * Returns a copy of the given counters that also reports the given maximum trigger lag, if any watch was triggered.
+         * This should only be called on counters that won't be merged any further.
+         */
+        public static Counters withMaxTriggerLag(Counters counters, long maxTriggerLag) {
+            if (counters.get(TRIGGER_LAG_COUNT) == 0) {
+                return counters;
+            }
+            Counters result = Counters.merge(Collections.singletonList(counters));
+            result.inc(TRIGGER_LAG_MAX, maxTriggerLag);
+            return result;
+        }
+
         @Override
         public void writeTo(StreamOutput out) throws IOException {
             super.writeTo(out);
@@ -204,6 +238,9 @@ public class WatcherStatsResponse extends BaseNodesResponse<WatcherStatsResponse
             if (stats != null) {
                 stats.writeTo(out);
             }
+            if (out.getVersion().onOrAfter(Version.V_8_0_0)) {
+                out.writeVLong(maxTriggerLag);
+            }
         }
 
 
@@ -234,7 +271,7 @@ public class WatcherStatsResponse extends BaseNodesResponse<WatcherStatsResponse
                 builder.endArray();
             }
             if (stats != null && stats.hasCounters()) {
-                builder.field("stats", stats.toNestedMap());
+                builder.field("stats", withMaxTriggerLag(stats, maxTriggerLag).toNestedMap());
             }
             builder.endObject();
             return builder;
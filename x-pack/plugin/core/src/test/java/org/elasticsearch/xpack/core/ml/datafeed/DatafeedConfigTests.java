@@ -34,6 +34,10 @@ import org.elasticsearch.search.SearchModule;
 import org.elasticsearch.search.aggregations.AggregationBuilders;
 import org.elasticsearch.search.aggregations.AggregatorFactories;
 import org.elasticsearch.search.aggregations.PipelineAggregatorBuilders;
+import org.elasticsearch.search.aggregations.bucket.composite.CompositeAggregationBuilder;
+import org.elasticsearch.search.aggregations.bucket.composite.CompositeValuesSourceBuilder;
+import org.elasticsearch.search.aggregations.bucket.composite.DateHistogramValuesSourceBuilder;
+import org.elasticsearch.search.aggregations.bucket.composite.TermsValuesSourceBuilder;
 import org.elasticsearch.search.aggregations.bucket.histogram.DateHistogramAggregationBuilder;
 import org.elasticsearch.search.aggregations.bucket.histogram.DateHistogramInterval;
 import org.elasticsearch.search.aggregations.bucket.terms.TermsAggregationBuilder;
@@ -43,6 +47,7 @@ import org.elasticsearch.search.aggregations.pipeline.BucketScriptPipelineAggreg
 import org.elasticsearch.search.aggregations.pipeline.DerivativePipelineAggregationBuilder;
 import org.elasticsearch.search.builder.SearchSourceBuilder;
 import org.elasticsearch.search.builder.SearchSourceBuilder.ScriptField;
+import org.elasticsearch.search.sort.SortOrder;
 import org.elasticsearch.test.AbstractSerializingTestCase;
 import org.elasticsearch.test.ESTestCase;
 import org.elasticsearch.xpack.core.ml.datafeed.ChunkingConfig.Mode;
@@ -54,6 +59,7 @@ import java.io.IOException;
 import java.time.ZoneId;
 import java.time.ZoneOffset;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
@@ -614,6 +620,60 @@ public class DatafeedConfigTests extends AbstractSerializingTestCase<DatafeedCon
         assertEquals("Aggregations can only have 1 date_histogram or histogram aggregation", e.getMessage());
     }
 
+    public void testValidateAggregations_GivenCompositeWithDateHistogramSource() {
+        CompositeAggregationBuilder composite = createCompositeAggregation(
+            new DateHistogramValuesSourceBuilder("time_bucket").field("time").fixedInterval(new DateHistogramInterval("5m")),
+            new TermsValuesSourceBuilder("airline").field("airline"));
+        AggregatorFactories.Builder aggs = new AggregatorFactories.Builder().addAggregator(composite);
+
+        DatafeedConfig.validateAggregations(aggs);
+
+        DatafeedConfig.Builder builder = new DatafeedConfig.Builder("datafeed1", "job1");
+        builder.setIndices(Collections.singletonList("myIndex"));
+        builder.setParsedAggregations(aggs);
+        assertThat(builder.build().getHistogramIntervalMillis(xContentRegistry()), equalTo(300000L));
+    }
+
+    public void testValidateAggregations_GivenNestedComposite() {
+        CompositeAggregationBuilder composite = createCompositeAggregation(
+            new DateHistogramValuesSourceBuilder("time_bucket").field("time").fixedInterval(new DateHistogramInterval("5m")));
+        TermsAggregationBuilder toplevelTerms = AggregationBuilders.terms("top_level").subAggregation(composite);
+
+        ElasticsearchException e = expectThrows(ElasticsearchException.class,
+            () -> DatafeedConfig.validateAggregations(new AggregatorFactories.Builder().addAggregator(toplevelTerms)));
+
+        assertEquals("Composite aggregation [buckets] must be the only top level aggregation", e.getMessage());
+    }
+
+    public void testValidateAggregations_GivenCompositeWithDateHistogramSourceNotFirst() {
+        CompositeAggregationBuilder composite = createCompositeAggregation(
+            new TermsValuesSourceBuilder("airline").field("airline"),
+            new DateHistogramValuesSourceBuilder("time_bucket").field("time").fixedInterval(new DateHistogramInterval("5m")));
+
+        ElasticsearchException e = expectThrows(ElasticsearchException.class,
+            () -> DatafeedConfig.validateAggregations(new AggregatorFactories.Builder().addAggregator(composite)));
+
+        assertEquals("The date_histogram source of composite aggregation [buckets] must be its first source, " +
+            "sorted in ascending order and without missing_bucket", e.getMessage());
+    }
+
+    public void testValidateAggregations_GivenCompositeWithDescendingDateHistogramSource() {
+        CompositeAggregationBuilder composite = createCompositeAggregation(
+            new DateHistogramValuesSourceBuilder("time_bucket").field("time").fixedInterval(new DateHistogramInterval("5m"))
+                .order(SortOrder.DESC));
+
+        ElasticsearchException e = expectThrows(ElasticsearchException.class,
+            () -> DatafeedConfig.validateAggregations(new AggregatorFactories.Builder().addAggregator(composite)));
+
+        assertEquals("The date_histogram source of composite aggregation [buckets] must be its first source, " +
+            "sorted in ascending order and without missing_bucket", e.getMessage());
+    }
+
+    private static CompositeAggregationBuilder createCompositeAggregation(CompositeValuesSourceBuilder<?>... sources) {
+        return new CompositeAggregationBuilder("buckets", Arrays.asList(sources))
+            .subAggregation(AggregationBuilders.max("time").field("time"));
+    }
+
     public void testDefaultFrequency_GivenNegative() {
         DatafeedConfig datafeed = createTestInstance();
         ESTestCase.expectThrows(IllegalArgumentException.class,
@@ -0,0 +1,123 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License;
+ * you may not use this file except in compliance with the Elastic License.
+ */
+package org.elasticsearch.xpack.core.ml.inference.trainedmodel.ensemble;
+
+import org.elasticsearch.ElasticsearchStatusException;
+import org.elasticsearch.test.ESTestCase;
+import org.elasticsearch.xpack.core.ml.inference.results.InferenceResults;
+import org.elasticsearch.xpack.core.ml.inference.trainedmodel.ClassificationConfig;
+import org.elasticsearch.xpack.core.ml.inference.trainedmodel.InferenceConfig;
+import org.elasticsearch.xpack.core.ml.inference.trainedmodel.RegressionConfig;
+import org.elasticsearch.xpack.core.ml.inference.trainedmodel.TargetType;
+import org.elasticsearch.xpack.core.ml.inference.trainedmodel.TrainedModel;
+import org.elasticsearch.xpack.core.ml.inference.trainedmodel.tree.Tree;
+import org.elasticsearch.xpack.core.ml.inference.trainedmodel.tree.TreeTests;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
+
+public class FlattenedTreeEnsembleTests extends ESTestCase {
+
+    public void testInferMatchesEnsemble() {
+        List<String> featureNames = randomFeatureNames();
+        TargetType targetType = randomFrom(TargetType.values());
+        Ensemble ensemble = buildRandomEnsemble(featureNames, randomIntBetween(1, 50), targetType);
+        InferenceConfig config = targetType == TargetType.REGRESSION ? new RegressionConfig(null) : new ClassificationConfig(2);
+
+        FlattenedTreeEnsemble flattened = FlattenedTreeEnsemble.flatten(ensemble);
+        assertThat(flattened, notNullValue());
+
+        List<Map<String, Object>> documents = randomDocuments(featureNames, randomIntBetween(1, 50));
+        List<InferenceResults> results = flattened.infer(documents, config);
+        assertThat(results, hasSize(documents.size()));
+        for (int i = 0; i < documents.size(); i++) {
+            InferenceResults expected = ensemble.infer(documents.get(i), config);
+            assertThat(results.get(i), equalTo(expected));
+            assertThat(flattened.infer(documents.get(i), config), equalTo(expected));
+        }
+    }
+
+    public void testInferWithLargeEnsemble() {
+        List<String> featureNames = randomFeatureNames();
+        Ensemble ensemble = buildRandomEnsemble(featureNames, 500, TargetType.REGRESSION);
+        InferenceConfig config = new RegressionConfig(null);
+
+        FlattenedTreeEnsemble flattened = FlattenedTreeEnsemble.flatten(ensemble);
+        assertThat(flattened, notNullValue());
+        assertThat(flattened.ramBytesUsed(), greaterThan(0L));
+
+        List<Map<String, Object>> documents = randomDocuments(featureNames, 10);
+        List<InferenceResults> results = flattened.infer(documents, config);
+        for (int i = 0; i < documents.size(); i++) {
+            assertThat(results.get(i), equalTo(ensemble.infer(documents.get(i), config)));
+        }
+    }
+
+    public void testInferWithUnsupportedConfig() {
+        Ensemble ensemble = buildRandomEnsemble(randomFeatureNames(), randomIntBetween(1, 5), TargetType.REGRESSION);
+        FlattenedTreeEnsemble flattened = FlattenedTreeEnsemble.flatten(ensemble);
+        assertThat(flattened, notNullValue());
+
+        ElasticsearchStatusException e = expectThrows(ElasticsearchStatusException.class,
+            () -> flattened.infer(Collections.emptyMap(), new ClassificationConfig(2)));
+        assertThat(e.getMessage(), equalTo("Cannot infer using configuration for [classification] when model target_type is [regression]"));
+    }
+
+    public void testFlattenEnsembleOfEnsembles() {
+        List<String> featureNames = randomFeatureNames();
+        Ensemble inner = buildRandomEnsemble(featureNames, randomIntBetween(1, 5), TargetType.REGRESSION);
+        Ensemble outer = new Ensemble(featureNames,
+            Collections.singletonList(inner),
+            new WeightedSum(null),
+            TargetType.REGRESSION,
+            null,
+            null);
+        assertThat(FlattenedTreeEnsemble.flatten(outer), nullValue());
+    }
+
+    private static List<String> randomFeatureNames() {
+        return randomList(1, 10, () -> randomAlphaOfLength(10));
+    }
+
+    private static Ensemble buildRandomEnsemble(List<String> featureNames, int numberOfModels, TargetType targetType) {
+        List<TrainedModel> models = new ArrayList<>(numberOfModels);
+        for (int i = 0; i < numberOfModels; i++) {
+            // every tree has its own order of the features, which the flattened form has to map to a single feature vector
+            List<String> treeFeatureNames = new ArrayList<>(featureNames);
+            Collections.shuffle(treeFeatureNames, random());
+            Tree tree = TreeTests.buildRandomTree(treeFeatureNames.subList(0, randomIntBetween(1, treeFeatureNames.size())),
+                randomIntBetween(2, 6));
+            models.add(tree);
+        }
+        OutputAggregator outputAggregator = targetType == TargetType.REGRESSION ?
+            new WeightedSum(null) :
+            new LogisticRegression(null);
+        return new Ensemble(featureNames, models, outputAggregator, targetType, null, null);
+    }
+
+    private static List<Map<String, Object>> randomDocuments(List<String> featureNames, int numberOfDocuments) {
+        List<Map<String, Object>> documents = new ArrayList<>(numberOfDocuments);
+        for (int i = 0; i < numberOfDocuments; i++) {
+            Map<String, Object> fields = new HashMap<>();
+            for (String featureName : featureNames) {
+                if (rarely() == false) {
+                    fields.put(featureName, randomBoolean() ? randomDouble() : String.valueOf(randomDouble()));
+                }
+            }
+            documents.add(fields);
+        }
+        return documents;
+    }
+}
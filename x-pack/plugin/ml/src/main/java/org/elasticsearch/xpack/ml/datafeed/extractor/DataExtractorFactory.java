@@ -19,6 +19,7 @@ import org.elasticsearch.xpack.core.ml.utils.ExceptionsHelper;
 import org.elasticsearch.xpack.core.rollup.action.GetRollupIndexCapsAction;
 import org.elasticsearch.xpack.ml.datafeed.DatafeedTimingStatsReporter;
 import org.elasticsearch.xpack.ml.datafeed.extractor.aggregation.AggregationDataExtractorFactory;
+import org.elasticsearch.xpack.ml.datafeed.extractor.aggregation.CompositeAggregationDataExtractorFactory;
 import org.elasticsearch.xpack.ml.datafeed.extractor.aggregation.RollupDataExtractorFactory;
 import org.elasticsearch.xpack.ml.datafeed.extractor.chunked.ChunkedDataExtractorFactory;
 import org.elasticsearch.xpack.ml.datafeed.extractor.scroll.ScrollDataExtractorFactory;
@@ -44,14 +45,19 @@ public interface DataExtractorFactory {
         ActionListener<GetRollupIndexCapsAction.Response> getRollupIndexCapsActionHandler = ActionListener.wrap(
             response -> {
                 if (response.getJobs().isEmpty()) { // This means no rollup indexes are in the config
-                    if (datafeed.hasAggregations()) {
+                    if (CompositeAggregationDataExtractorFactory.isComposite(datafeed, xContentRegistry)) {
+                        factoryHandler.onResponse(
+                            new CompositeAggregationDataExtractorFactory(client, datafeed, job, xContentRegistry, timingStatsReporter));
+                    } else if (datafeed.hasAggregations()) {
                         factoryHandler.onResponse(
                             new AggregationDataExtractorFactory(client, datafeed, job, xContentRegistry, timingStatsReporter));
                     } else {
                         ScrollDataExtractorFactory.create(client, datafeed, job, xContentRegistry, timingStatsReporter, factoryHandler);
                     }
                 } else {
-                    if (datafeed.hasAggregations()) { // Rollup indexes require aggregations
+                    if (CompositeAggregationDataExtractorFactory.isComposite(datafeed, xContentRegistry)) {
+                        listener.onFailure(new IllegalArgumentException("Composite aggregations are not supported with Rollup indices"));
+                    } else if (datafeed.hasAggregations()) { // Rollup indexes require aggregations
                         RollupDataExtractorFactory.create(
                             client, datafeed, job, response.getJobs(), xContentRegistry, timingStatsReporter, factoryHandler);
                     } else {
@@ -14,6 +14,7 @@ import org.elasticsearch.search.aggregations.Aggregation;
 import org.elasticsearch.search.aggregations.Aggregations;
 import org.elasticsearch.search.aggregations.bucket.MultiBucketsAggregation;
 import org.elasticsearch.search.aggregations.bucket.SingleBucketAggregation;
+import org.elasticsearch.search.aggregations.bucket.composite.CompositeAggregation;
 import org.elasticsearch.search.aggregations.bucket.histogram.Histogram;
 import org.elasticsearch.search.aggregations.metrics.GeoCentroid;
 import org.elasticsearch.search.aggregations.metrics.Max;
@@ -54,6 +55,7 @@ class AggregationToJsonProcessor {
     private long keyValueWrittenCount;
     private final SortedMap<Long, List<Map<String, Object>>> docsByBucketTimestamp;
     private final long startTime;
+    private final String compositeAggDateHistogramSourceName;
 
     /**
      * Constructs a processor that processes aggregations into JSON
@@ -65,6 +67,21 @@ class AggregationToJsonProcessor {
      */
     AggregationToJsonProcessor(String timeField, Set<String> fields, boolean includeDocCount, long startTime)
             throws IOException {
+        this(timeField, fields, includeDocCount, startTime, null);
+    }
+
+    /**
+     * Constructs a processor that processes aggregations into JSON
+     *
+     * @param timeField the time field
+     * @param fields the fields to convert into JSON
+     * @param includeDocCount whether to include the doc_count
+     * @param startTime buckets with a timestamp before this time are discarded
+     * @param compositeAggDateHistogramSourceName the name of the date_histogram source when processing
+     *                                            a composite aggregation, {@code null} otherwise
+     */
+    AggregationToJsonProcessor(String timeField, Set<String> fields, boolean includeDocCount, long startTime,
+                               @Nullable String compositeAggDateHistogramSourceName) {
         this.timeField = Objects.requireNonNull(timeField);
         this.fields = Objects.requireNonNull(fields);
         this.includeDocCount = includeDocCount;
@@ -72,6 +89,7 @@ class AggregationToJsonProcessor {
         docsByBucketTimestamp = new TreeMap<>();
         keyValueWrittenCount = 0;
         this.startTime = startTime;
+        this.compositeAggDateHistogramSourceName = compositeAggDateHistogramSourceName;
     }
 
     public void process(Aggregations aggs) throws IOException {
@@ -149,6 +167,8 @@ class AggregationToJsonProcessor {
             MultiBucketsAggregation bucketAgg = bucketAggregations.get(0);
             if (bucketAgg instanceof Histogram) {
                 processDateHistogram((Histogram) bucketAgg);
+            } else if (bucketAgg instanceof CompositeAggregation && compositeAggDateHistogramSourceName != null) {
+                processCompositeAgg((CompositeAggregation) bucketAgg);
             } else {
                 // Ignore bucket aggregations that don't contain a field we
                 // are interested in. This avoids problems with pipeline bucket
@@ -210,6 +230,40 @@ class AggregationToJsonProcessor {
         }
     }
 
+    private void processCompositeAgg(CompositeAggregation agg) throws IOException {
+        if (keyValuePairs.containsKey(timeField)) {
+            throw new IllegalArgumentException("More than one Date histogram cannot be used in the aggregation. " +
+                    "[" + agg.getName() + "] is another instance of a Date histogram");
+        }
+
+        // the date_histogram is the first source, so buckets are ordered by time
+        // and once we get to a bucket past the start time we no longer need to check the time.
+        boolean checkBucketTime = true;
+        for (CompositeAggregation.Bucket bucket : agg.getBuckets()) {
+            if (checkBucketTime) {
+                long bucketTime = toHistogramKeyToEpoch(bucket.getKey().get(compositeAggDateHistogramSourceName));
+                if (bucketTime < startTime) {
+                    // skip buckets outside the required time range
+                    LOGGER.debug("Skipping bucket at [{}], startTime is [{}]", bucketTime, startTime);
+                    continue;
+                } else {
+                    checkBucketTime = false;
+                }
+            }
+
+            List<String> addedKeys = new ArrayList<>();
+            for (Map.Entry<String, Object> key : bucket.getKey().entrySet()) {
+                if (key.getKey().equals(compositeAggDateHistogramSourceName) == false && fields.contains(key.getKey())) {
+                    keyValuePairs.put(key.getKey(), key.getValue());
+                    addedKeys.add(key.getKey());
+                }
+            }
+            processAggs(bucket.getDocCount(), asList(bucket.getAggregations()));
+            keyValuePairs.remove(timeField);
+            addedKeys.forEach(keyValuePairs::remove);
+        }
+    }
+
     /*
      * Date Histograms have a {@link ZonedDateTime} object as the key,
      * Histograms have either a Double or Long.
@@ -375,6 +429,31 @@ class AggregationToJsonProcessor {
         return docsByBucketTimestamp.isEmpty() == false;
     }
 
+    /**
+     * Write all the aggregated documents with a timestamp before {@code timestamp}.
+     * This allows writing the buckets that are complete while keeping the ones that
+     * are still being aggregated.
+     *
+     * @param timestamp Documents with a timestamp at or after this time are kept
+     * @return True if there are any more documents to write after the call.
+     * False if there are no documents to write.
+     * @throws IOException If an error occurs serialising the JSON
+     */
+    boolean writeDocsBefore(long timestamp, OutputStream outputStream) throws IOException {
+        SortedMap<Long, List<Map<String, Object>>> docsToWrite = docsByBucketTimestamp.headMap(timestamp);
+        if (docsToWrite.isEmpty() == false) {
+            try (XContentBuilder jsonBuilder = new XContentBuilder(JsonXContent.jsonXContent, outputStream)) {
+                for (List<Map<String, Object>> docs : docsToWrite.values()) {
+                    for (Map<String, Object> map : docs) {
+                        writeJsonObject(jsonBuilder, map);
+                    }
+                }
+            }
+            docsToWrite.clear();
+        }
+        return docsByBucketTimestamp.isEmpty() == false;
+    }
+
     private void writeJsonObject(XContentBuilder jsonBuilder, Map<String, Object> record) throws IOException {
         jsonBuilder.startObject();
         for (Map.Entry<String, Object> keyValue : record.entrySet()) {
@@ -0,0 +1,186 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License;
+ * you may not use this file except in compliance with the Elastic License.
+ */
+package org.elasticsearch.xpack.ml.datafeed.extractor.aggregation;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.elasticsearch.action.search.SearchAction;
+import org.elasticsearch.action.search.SearchRequestBuilder;
+import org.elasticsearch.action.search.SearchResponse;
+import org.elasticsearch.client.Client;
+import org.elasticsearch.search.aggregations.Aggregation;
+import org.elasticsearch.search.aggregations.AggregationBuilder;
+import org.elasticsearch.search.aggregations.Aggregations;
+import org.elasticsearch.search.aggregations.AggregatorFactories;
+import org.elasticsearch.search.aggregations.PipelineAggregationBuilder;
+import org.elasticsearch.search.aggregations.bucket.composite.CompositeAggregation;
+import org.elasticsearch.search.aggregations.bucket.composite.CompositeAggregationBuilder;
+import org.elasticsearch.search.builder.SearchSourceBuilder;
+import org.elasticsearch.xpack.core.ClientHelper;
+import org.elasticsearch.xpack.core.ml.datafeed.extractor.DataExtractor;
+import org.elasticsearch.xpack.core.ml.datafeed.extractor.ExtractorUtils;
+import org.elasticsearch.xpack.ml.datafeed.DatafeedTimingStatsReporter;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+/**
+ * An implementation that extracts data from elasticsearch by paging through a composite aggregation
+ * whose first source is a date_histogram. Each call to {@link #next()} requests the page of buckets
+ * after the previous one and writes the histogram buckets that are complete. The buckets of the last
+ * histogram bucket of a page are held back until the following page, as more of them may follow.
+ * Thus, the buckets held in memory are those of the current page plus those of the histogram bucket that
+ * it ends with. The latter is not bounded by the page size: when the other sources of the composite
+ * aggregation have more distinct values within a single histogram bucket than fit in a page, all of its
+ * buckets are held until the page that ends after it. This is still bounded by the buckets of a single
+ * histogram bucket rather than by those of the whole search, as with the aggregation extractor.
+ * Cancellation is supported between pages.
+ * Note that this class is NOT thread-safe.
+ */
+class CompositeAggregationDataExtractor implements DataExtractor {
+
+    private static final Logger LOGGER = LogManager.getLogger(CompositeAggregationDataExtractor.class);
+
+    private final Client client;
+    private final CompositeAggregationDataExtractorContext context;
+    private final DatafeedTimingStatsReporter timingStatsReporter;
+    private final AggregationToJsonProcessor aggregationToJsonProcessor;
+    private final ByteArrayOutputStream outputStream;
+    private Map<String, Object> afterKey;
+    private boolean hasNext;
+    private boolean isCancelled;
+
+    CompositeAggregationDataExtractor(Client client, CompositeAggregationDataExtractorContext dataExtractorContext,
+                                      DatafeedTimingStatsReporter timingStatsReporter) {
+        this.client = Objects.requireNonNull(client);
+        this.context = Objects.requireNonNull(dataExtractorContext);
+        this.timingStatsReporter = Objects.requireNonNull(timingStatsReporter);
+        this.aggregationToJsonProcessor = new AggregationToJsonProcessor(context.timeField, context.fields, context.includeDocCount,
+            context.start, context.compositeAggDateHistogramSourceName);
+        this.outputStream = new ByteArrayOutputStream();
+        this.hasNext = true;
+        this.isCancelled = false;
+    }
+
+    @Override
+    public boolean hasNext() {
+        return hasNext;
+    }
+
+    @Override
+    public boolean isCancelled() {
+        return isCancelled;
+    }
+
+    @Override
+    public void cancel() {
+        LOGGER.debug("[{}] Data extractor received cancel request", context.jobId);
+        isCancelled = true;
+        hasNext = false;
+    }
+
+    @Override
+    public long getEndTime() {
+        return context.end;
+    }
+
+    @Override
+    public Optional<InputStream> next() throws IOException {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+
+        // Buckets from before this time are complete and can be written
+        long completeBefore = Long.MAX_VALUE;
+        CompositeAggregation compositeAgg = search();
+        if (compositeAgg == null
+                || compositeAgg.afterKey() == null
+                || compositeAgg.getBuckets().size() < context.compositeAggregationBuilder.size()) {
+            // this is the last page
+            hasNext = false;
+        } else {
+            afterKey = compositeAgg.afterKey();
+            completeBefore = toEpochMillis(afterKey.get(context.compositeAggDateHistogramSourceName));
+        }
+        if (compositeAgg != null) {
+            aggregationToJsonProcessor.process(new Aggregations(List.of(compositeAgg)));
+        }
+
+        outputStream.reset();
+        aggregationToJsonProcessor.writeDocsBefore(completeBefore, outputStream);
+        return outputStream.size() > 0 ? Optional.of(new ByteArrayInputStream(outputStream.toByteArray())) : Optional.empty();
+    }
+
+    private static long toEpochMillis(Object dateHistogramKey) {
+        if (dateHistogramKey instanceof Number) {
+            return ((Number) dateHistogramKey).longValue();
+        }
+        throw new IllegalStateException("Composite aggregation key [" + dateHistogramKey + "] cannot be converted to a timestamp");
+    }
+
+    private CompositeAggregation search() throws IOException {
+        LOGGER.debug("[{}] Executing composite aggregated search after [{}]", context.jobId, afterKey);
+        SearchResponse searchResponse = executeSearchRequest(buildSearchRequest());
+        LOGGER.debug("[{}] Search response was obtained", context.jobId);
+        timingStatsReporter.reportSearchDuration(searchResponse.getTook());
+        ExtractorUtils.checkSearchWasSuccessful(context.jobId, searchResponse);
+        Aggregations aggs = searchResponse.getAggregations();
+        if (aggs == null || aggs.asList().isEmpty()) {
+            return null;
+        }
+        if (aggs.asList().size() > 1) {
+            throw new IllegalArgumentException("Multiple top level aggregations not supported; found: "
+                + aggs.asList().stream().map(Aggregation::getName).collect(Collectors.toList()));
+        }
+        Aggregation agg = aggs.asList().get(0);
+        if (agg instanceof CompositeAggregation == false) {
+            throw new IllegalArgumentException("Expected composite aggregation [" + context.compositeAggregationBuilder.getName()
+                + "] but found [" + agg.getName() + "]");
+        }
+        return (CompositeAggregation) agg;
+    }
+
+    protected SearchResponse executeSearchRequest(SearchRequestBuilder searchRequestBuilder) {
+        return ClientHelper.executeWithHeaders(context.headers, ClientHelper.ML_ORIGIN, client, searchRequestBuilder::get);
+    }
+
+    private SearchRequestBuilder buildSearchRequest() {
+        // The configured aggregation is shared with the datafeed config so the page is requested with a copy of it
+        CompositeAggregationBuilder configured = context.compositeAggregationBuilder;
+        AggregatorFactories.Builder subAggregations = new AggregatorFactories.Builder();
+        for (AggregationBuilder subAggregation : configured.getSubAggregations()) {
+            subAggregations.addAggregator(subAggregation);
+        }
+        for (PipelineAggregationBuilder pipelineAggregation : configured.getPipelineAggregations()) {
+            subAggregations.addPipelineAggregator(pipelineAggregation);
+        }
+        CompositeAggregationBuilder page = new CompositeAggregationBuilder(configured.getName(), configured.sources())
+            .size(configured.size())
+            .aggregateAfter(afterKey)
+            .subAggregations(subAggregations)
+            .setMetaData(configured.getMetaData());
+
+        SearchSourceBuilder searchSourceBuilder = new SearchSourceBuilder()
+            .size(0)
+            .query(ExtractorUtils.wrapInTimeRangeQuery(context.query, context.timeField, context.start, context.end))
+            .aggregation(page);
+        return new SearchRequestBuilder(client, SearchAction.INSTANCE)
+            .setSource(searchSourceBuilder)
+            .setIndices(context.indices);
+    }
+
+    public CompositeAggregationDataExtractorContext getContext() {
+        return context;
+    }
+}
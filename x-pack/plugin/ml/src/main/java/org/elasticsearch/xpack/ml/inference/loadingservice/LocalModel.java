@@ -10,6 +10,8 @@ import org.elasticsearch.xpack.core.ml.inference.TrainedModelDefinition;
 import org.elasticsearch.xpack.core.ml.inference.TrainedModelInput;
 import org.elasticsearch.xpack.core.ml.inference.results.WarningInferenceResults;
 import org.elasticsearch.xpack.core.ml.inference.trainedmodel.InferenceConfig;
+import org.elasticsearch.xpack.core.ml.inference.trainedmodel.ensemble.Ensemble;
+import org.elasticsearch.xpack.core.ml.inference.trainedmodel.ensemble.FlattenedTreeEnsemble;
 import org.elasticsearch.xpack.core.ml.job.messages.Messages;
 import org.elasticsearch.xpack.core.ml.utils.ExceptionsHelper;
 import org.elasticsearch.xpack.core.ml.inference.results.ClassificationInferenceResults;
@@ -17,7 +19,9 @@ import org.elasticsearch.xpack.core.ml.inference.results.InferenceResults;
 import org.elasticsearch.xpack.core.ml.inference.results.RegressionInferenceResults;
 import org.elasticsearch.xpack.core.ml.utils.MapHelper;
 
+import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
@@ -28,15 +32,28 @@ public class LocalModel implements Model {
     private final TrainedModelDefinition trainedModelDefinition;
     private final String modelId;
     private final Set<String> fieldNames;
+    // tree ensembles are flattened once when the model is loaded, null if the model cannot be flattened
+    private final FlattenedTreeEnsemble flattenedEnsemble;
 
     public LocalModel(String modelId, TrainedModelDefinition trainedModelDefinition, TrainedModelInput input) {
         this.trainedModelDefinition = trainedModelDefinition;
         this.modelId = modelId;
         this.fieldNames = new HashSet<>(input.getFieldNames());
+        this.flattenedEnsemble = trainedModelDefinition.getTrainedModel() instanceof Ensemble ?
+            FlattenedTreeEnsemble.flatten((Ensemble) trainedModelDefinition.getTrainedModel()) :
+            null;
     }
 
     long ramBytesUsed() {
-        return trainedModelDefinition.ramBytesUsed();
+        long size = trainedModelDefinition.ramBytesUsed();
+        if (flattenedEnsemble != null) {
+            size += flattenedEnsemble.ramBytesUsed();
+        }
+        return size;
+    }
+
+    boolean isFlattened() {
+        return flattenedEnsemble != null;
     }
 
     @Override
@@ -61,15 +78,63 @@ public class LocalModel implements Model {
     @Override
     public void infer(Map<String, Object> fields, InferenceConfig config, ActionListener<InferenceResults> listener) {
         try {
-            if (fieldNames.stream().allMatch(f -> MapHelper.dig(f, fields) == null)) {
-                listener.onResponse(new WarningInferenceResults(Messages.getMessage(INFERENCE_WARNING_ALL_FIELDS_MISSING, modelId)));
+            if (allFieldsMissing(fields)) {
+                listener.onResponse(allFieldsMissingWarning());
+                return;
+            }
+
+            listener.onResponse(infer(fields, config));
+        } catch (Exception e) {
+            listener.onFailure(e);
+        }
+    }
+
+    @Override
+    public void infer(List<Map<String, Object>> documents, InferenceConfig config, ActionListener<List<InferenceResults>> listener) {
+        try {
+            if (flattenedEnsemble == null) {
+                List<InferenceResults> results = new ArrayList<>(documents.size());
+                for (Map<String, Object> fields : documents) {
+                    results.add(allFieldsMissing(fields) ? allFieldsMissingWarning() : trainedModelDefinition.infer(fields, config));
+                }
+                listener.onResponse(results);
                 return;
             }
 
-            listener.onResponse(trainedModelDefinition.infer(fields, config));
+            List<Map<String, Object>> toInfer = new ArrayList<>(documents.size());
+            for (Map<String, Object> fields : documents) {
+                if (allFieldsMissing(fields) == false) {
+                    trainedModelDefinition.preProcess(fields);
+                    toInfer.add(fields);
+                }
+            }
+            List<InferenceResults> inferred = flattenedEnsemble.infer(toInfer, config);
+            List<InferenceResults> results = new ArrayList<>(documents.size());
+            int i = 0;
+            for (Map<String, Object> fields : documents) {
+                // preprocessing only adds fields, so the documents that were missing all fields still are
+                results.add(i < toInfer.size() && toInfer.get(i) == fields ? inferred.get(i++) : allFieldsMissingWarning());
+            }
+            listener.onResponse(results);
         } catch (Exception e) {
             listener.onFailure(e);
         }
     }
 
+    private InferenceResults infer(Map<String, Object> fields, InferenceConfig config) {
+        if (flattenedEnsemble == null) {
+            return trainedModelDefinition.infer(fields, config);
+        }
+        trainedModelDefinition.preProcess(fields);
+        return flattenedEnsemble.infer(fields, config);
+    }
+
+    private boolean allFieldsMissing(Map<String, Object> fields) {
+        return fieldNames.stream().allMatch(f -> MapHelper.dig(f, fields) == null);
+    }
+
+    private WarningInferenceResults allFieldsMissingWarning() {
+        return new WarningInferenceResults(Messages.getMessage(INFERENCE_WARNING_ALL_FIELDS_MISSING, modelId));
+    }
+
 }
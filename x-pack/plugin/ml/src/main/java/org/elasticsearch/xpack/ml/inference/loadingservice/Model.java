@@ -9,6 +9,7 @@ import org.elasticsearch.action.ActionListener;
 import org.elasticsearch.xpack.core.ml.inference.results.InferenceResults;
 import org.elasticsearch.xpack.core.ml.inference.trainedmodel.InferenceConfig;
 
+import java.util.List;
 import java.util.Map;
 
 public interface Model {
@@ -17,5 +18,10 @@ public interface Model {
 
     void infer(Map<String, Object> fields, InferenceConfig inferenceConfig, ActionListener<InferenceResults> listener);
 
+    /**
+     * Infers the results of several documents at once, the results are in the same order as the documents
+     */
+    void infer(List<Map<String, Object>> documents, InferenceConfig inferenceConfig, ActionListener<List<InferenceResults>> listener);
+
     String getModelId();
 }
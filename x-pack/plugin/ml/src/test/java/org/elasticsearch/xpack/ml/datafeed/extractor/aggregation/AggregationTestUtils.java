@@ -9,6 +9,7 @@ import org.elasticsearch.common.geo.GeoPoint;
 import org.elasticsearch.search.aggregations.Aggregation;
 import org.elasticsearch.search.aggregations.Aggregations;
 import org.elasticsearch.search.aggregations.bucket.SingleBucketAggregation;
+import org.elasticsearch.search.aggregations.bucket.composite.CompositeAggregation;
 import org.elasticsearch.search.aggregations.bucket.histogram.Histogram;
 import org.elasticsearch.search.aggregations.bucket.terms.StringTerms;
 import org.elasticsearch.search.aggregations.bucket.terms.Terms;
@@ -64,6 +65,27 @@ public final class AggregationTestUtils {
         return histogram;
     }
 
+    static CompositeAggregation.Bucket createCompositeBucket(Map<String, Object> key, long docCount,
+                                                             List<Aggregation> subAggregations) {
+        CompositeAggregation.Bucket bucket = mock(CompositeAggregation.Bucket.class);
+        when(bucket.getKey()).thenReturn(key);
+        when(bucket.getDocCount()).thenReturn(docCount);
+        when(bucket.getAggregations()).thenReturn(createAggs(subAggregations));
+        return bucket;
+    }
+
+    @SuppressWarnings("unchecked")
+    static CompositeAggregation createCompositeAggregation(String name, List<CompositeAggregation.Bucket> buckets) {
+        CompositeAggregation compositeAggregation = mock(CompositeAggregation.class);
+        when((List<CompositeAggregation.Bucket>)compositeAggregation.getBuckets()).thenReturn(buckets);
+        when(compositeAggregation.getName()).thenReturn(name);
+        if (buckets.isEmpty() == false) {
+            Map<String, Object> afterKey = buckets.get(buckets.size() - 1).getKey();
+            when(compositeAggregation.afterKey()).thenReturn(afterKey);
+        }
+        return compositeAggregation;
+    }
+
     static Max createMax(String name, double value) {
         Max max = mock(Max.class);
         when(max.getName()).thenReturn(name);
@@ -0,0 +1,233 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License;
+ * you may not use this file except in compliance with the Elastic License.
+ */
+package org.elasticsearch.xpack.ml.datafeed.extractor.aggregation;
+
+import org.elasticsearch.action.search.SearchRequestBuilder;
+import org.elasticsearch.action.search.SearchResponse;
+import org.elasticsearch.client.Client;
+import org.elasticsearch.common.unit.TimeValue;
+import org.elasticsearch.index.query.QueryBuilder;
+import org.elasticsearch.index.query.QueryBuilders;
+import org.elasticsearch.rest.RestStatus;
+import org.elasticsearch.search.aggregations.AggregationBuilders;
+import org.elasticsearch.search.aggregations.Aggregations;
+import org.elasticsearch.search.aggregations.bucket.composite.CompositeAggregation;
+import org.elasticsearch.search.aggregations.bucket.composite.CompositeAggregationBuilder;
+import org.elasticsearch.search.aggregations.bucket.composite.CompositeValuesSourceBuilder;
+import org.elasticsearch.search.aggregations.bucket.composite.DateHistogramValuesSourceBuilder;
+import org.elasticsearch.search.aggregations.bucket.composite.TermsValuesSourceBuilder;
+import org.elasticsearch.search.aggregations.bucket.histogram.DateHistogramInterval;
+import org.elasticsearch.test.ESTestCase;
+import org.elasticsearch.xpack.core.ml.datafeed.DatafeedTimingStats;
+import org.elasticsearch.xpack.ml.datafeed.DatafeedTimingStatsReporter;
+import org.elasticsearch.xpack.ml.datafeed.DatafeedTimingStatsReporter.DatafeedTimingStatsPersister;
+import org.junit.Before;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.elasticsearch.xpack.ml.datafeed.extractor.aggregation.AggregationTestUtils.createAggs;
+import static org.elasticsearch.xpack.ml.datafeed.extractor.aggregation.AggregationTestUtils.createCompositeAggregation;
+import static org.elasticsearch.xpack.ml.datafeed.extractor.aggregation.AggregationTestUtils.createCompositeBucket;
+import static org.elasticsearch.xpack.ml.datafeed.extractor.aggregation.AggregationTestUtils.createMax;
+import static org.elasticsearch.xpack.ml.datafeed.extractor.aggregation.AggregationTestUtils.createSingleValue;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class CompositeAggregationDataExtractorTests extends ESTestCase {
+
+    private Client testClient;
+    private List<SearchRequestBuilder> capturedSearchRequests;
+    private String jobId;
+    private String timeField;
+    private Set<String> fields;
+    private List<String> indices;
+    private QueryBuilder query;
+    private CompositeAggregationBuilder compositeAggregationBuilder;
+    private DatafeedTimingStatsReporter timingStatsReporter;
+
+    private class TestDataExtractor extends CompositeAggregationDataExtractor {
+
+        private final Deque<SearchResponse> nextResponses = new ArrayDeque<>();
+
+        TestDataExtractor(long start, long end) {
+            super(testClient, createContext(start, end), timingStatsReporter);
+        }
+
+        @Override
+        protected SearchResponse executeSearchRequest(SearchRequestBuilder searchRequestBuilder) {
+            capturedSearchRequests.add(searchRequestBuilder);
+            return nextResponses.removeFirst();
+        }
+
+        void addNextResponse(SearchResponse searchResponse) {
+            nextResponses.add(searchResponse);
+        }
+    }
+
+    @Before
+    public void setUpTests() {
+        testClient = mock(Client.class);
+        capturedSearchRequests = new ArrayList<>();
+        jobId = "test-job";
+        timeField = "time";
+        fields = new HashSet<>();
+        fields.addAll(Arrays.asList("time", "airline", "responsetime"));
+        indices = Arrays.asList("index-1", "index-2");
+        query = QueryBuilders.matchAllQuery();
+        List<CompositeValuesSourceBuilder<?>> sources = Arrays.asList(
+            new DateHistogramValuesSourceBuilder("time_bucket").field("time").fixedInterval(new DateHistogramInterval("1000ms")),
+            new TermsValuesSourceBuilder("airline").field("airline"));
+        compositeAggregationBuilder = new CompositeAggregationBuilder("buckets", sources)
+            .size(2)
+            .subAggregation(AggregationBuilders.max("time").field("time"))
+            .subAggregation(AggregationBuilders.avg("responsetime").field("responsetime"));
+        timingStatsReporter = new DatafeedTimingStatsReporter(new DatafeedTimingStats(jobId), mock(DatafeedTimingStatsPersister.class));
+    }
+
+    public void testExtraction() throws IOException {
+        TestDataExtractor extractor = new TestDataExtractor(1000L, 4000L);
+        extractor.addNextResponse(createSearchResponse(Arrays.asList(
+            createBucket(1000L, "a", 1, 1999, 11.0),
+            createBucket(1000L, "b", 2, 1999, 12.0))));
+        extractor.addNextResponse(createSearchResponse(Arrays.asList(
+            createBucket(2000L, "a", 3, 2999, 21.0),
+            createBucket(3000L, "c", 4, 3999, 31.0))));
+        extractor.addNextResponse(createSearchResponse(Collections.emptyList()));
+
+        // the buckets at 1000 are held back as the next page may have more of them
+        assertThat(extractor.hasNext(), is(true));
+        assertThat(extractor.next().isPresent(), is(false));
+
+        assertThat(extractor.hasNext(), is(true));
+        Optional<InputStream> stream = extractor.next();
+        assertThat(stream.isPresent(), is(true));
+        assertThat(asString(stream.get()), equalTo("{\"airline\":\"a\",\"time\":1999,\"responsetime\":11.0,\"doc_count\":1} "
+            + "{\"airline\":\"b\",\"time\":1999,\"responsetime\":12.0,\"doc_count\":2} "
+            + "{\"airline\":\"a\",\"time\":2999,\"responsetime\":21.0,\"doc_count\":3}"));
+
+        assertThat(extractor.hasNext(), is(true));
+        stream = extractor.next();
+        assertThat(stream.isPresent(), is(true));
+        assertThat(asString(stream.get()), equalTo("{\"airline\":\"c\",\"time\":3999,\"responsetime\":31.0,\"doc_count\":4}"));
+        assertThat(extractor.hasNext(), is(false));
+
+        assertThat(capturedSearchRequests.size(), equalTo(3));
+        String firstSearchRequest = capturedSearchRequests.get(0).toString().replaceAll("\\s", "");
+        assertThat(firstSearchRequest, containsString("\"size\":0"));
+        assertThat(firstSearchRequest, containsString("\"query\":{\"bool\":{\"filter\":[{\"match_all\":{\"boost\":1.0}}," +
+            "{\"range\":{\"time\":{\"from\":1000,\"to\":4000,\"include_lower\":true,\"include_upper\":false," +
+            "\"format\":\"epoch_millis\",\"boost\":1.0}}}]"));
+        // the configured aggregation is shared with the datafeed config, so the first request must not see later pages
+        assertThat(firstSearchRequest, not(containsString("\"after\"")));
+        String secondSearchRequest = capturedSearchRequests.get(1).toString().replaceAll("\\s", "");
+        assertThat(secondSearchRequest, containsString("\"after\":{\"time_bucket\":1000,\"airline\":\"b\"}"));
+        String thirdSearchRequest = capturedSearchRequests.get(2).toString().replaceAll("\\s", "");
+        assertThat(thirdSearchRequest, containsString("\"after\":{\"time_bucket\":3000,\"airline\":\"c\"}"));
+    }
+
+    public void testExtractionGivenLastPageIsNotFull() throws IOException {
+        TestDataExtractor extractor = new TestDataExtractor(1000L, 4000L);
+        extractor.addNextResponse(createSearchResponse(Collections.singletonList(createBucket(1000L, "a", 1, 1999, 11.0))));
+
+        assertThat(extractor.hasNext(), is(true));
+        Optional<InputStream> stream = extractor.next();
+        assertThat(stream.isPresent(), is(true));
+        assertThat(asString(stream.get()), equalTo("{\"airline\":\"a\",\"time\":1999,\"responsetime\":11.0,\"doc_count\":1}"));
+        assertThat(extractor.hasNext(), is(false));
+        assertThat(capturedSearchRequests.size(), equalTo(1));
+    }
+
+    public void testExtractionGivenResponseHasNullAggs() throws IOException {
+        TestDataExtractor extractor = new TestDataExtractor(1000L, 2000L);
+        extractor.addNextResponse(createSearchResponse((Aggregations) null));
+
+        assertThat(extractor.hasNext(), is(true));
+        assertThat(extractor.next().isPresent(), is(false));
+        assertThat(extractor.hasNext(), is(false));
+        assertThat(capturedSearchRequests.size(), equalTo(1));
+    }
+
+    public void testExtractionGivenCancelHalfWay() throws IOException {
+        TestDataExtractor extractor = new TestDataExtractor(1000L, 4000L);
+        extractor.addNextResponse(createSearchResponse(Arrays.asList(
+            createBucket(1000L, "a", 1, 1999, 11.0),
+            createBucket(2000L, "b", 2, 2999, 12.0))));
+
+        assertThat(extractor.hasNext(), is(true));
+        Optional<InputStream> stream = extractor.next();
+        assertThat(stream.isPresent(), is(true));
+        assertThat(asString(stream.get()), equalTo("{\"airline\":\"a\",\"time\":1999,\"responsetime\":11.0,\"doc_count\":1}"));
+        assertThat(extractor.hasNext(), is(true));
+
+        extractor.cancel();
+
+        assertThat(extractor.hasNext(), is(false));
+        assertThat(extractor.isCancelled(), is(true));
+        assertThat(capturedSearchRequests.size(), equalTo(1));
+    }
+
+    public void testExtractionGivenSearchResponseHasError() {
+        TestDataExtractor extractor = new TestDataExtractor(1000L, 2000L);
+        SearchResponse searchResponse = mock(SearchResponse.class);
+        when(searchResponse.status()).thenReturn(RestStatus.INTERNAL_SERVER_ERROR);
+        extractor.addNextResponse(searchResponse);
+
+        assertThat(extractor.hasNext(), is(true));
+        expectThrows(IOException.class, extractor::next);
+    }
+
+    private CompositeAggregationDataExtractorContext createContext(long start, long end) {
+        return new CompositeAggregationDataExtractorContext(jobId, timeField, fields, indices, query, compositeAggregationBuilder,
+            "time_bucket", start, end, true, Collections.emptyMap());
+    }
+
+    private static CompositeAggregation.Bucket createBucket(long bucketTime, String airline, long docCount, long time,
+                                                            double responseTime) {
+        Map<String, Object> key = new LinkedHashMap<>();
+        key.put("time_bucket", bucketTime);
+        key.put("airline", airline);
+        return createCompositeBucket(key, docCount,
+            Arrays.asList(createMax("time", time), createSingleValue("responsetime", responseTime)));
+    }
+
+    private SearchResponse createSearchResponse(List<CompositeAggregation.Bucket> buckets) {
+        return createSearchResponse(createAggs(Collections.singletonList(createCompositeAggregation("buckets", buckets))));
+    }
+
+    private SearchResponse createSearchResponse(Aggregations aggregations) {
+        SearchResponse searchResponse = mock(SearchResponse.class);
+        when(searchResponse.status()).thenReturn(RestStatus.OK);
+        when(searchResponse.getAggregations()).thenReturn(aggregations);
+        when(searchResponse.getTook()).thenReturn(TimeValue.timeValueMillis(randomNonNegativeLong()));
+        return searchResponse;
+    }
+
+    private static String asString(InputStream inputStream) throws IOException {
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8))) {
+            return reader.lines().collect(Collectors.joining("\n"));
+        }
+    }
+}
@@ -127,6 +127,39 @@ public class LocalModelTests extends ESTestCase {
             equalTo(Messages.getMessage(Messages.INFERENCE_WARNING_ALL_FIELDS_MISSING, "regression_model")));
     }
 
+    public void testBatchInfer() throws Exception {
+        List<String> inputFields = Arrays.asList("foo", "bar", "categorical");
+        TrainedModelDefinition trainedModelDefinition = new TrainedModelDefinition.Builder()
+            .setPreProcessors(Arrays.asList(new OneHotEncoding("categorical", oneHotMap())))
+            .setTrainedModel(buildRegression())
+            .build();
+        LocalModel model = new LocalModel("regression_model", trainedModelDefinition, new TrainedModelInput(inputFields));
+        assertThat(model.isFlattened(), is(true));
+
+        Map<String, Object> dog = new HashMap<>() {{
+            put("field.foo", 1.0);
+            put("field.bar", 0.5);
+            put("categorical", "dog");
+        }};
+        Map<String, Object> missing = new HashMap<>() {{
+            put("something", 1.0);
+        }};
+        Map<String, Object> cat = new HashMap<>() {{
+            put("field.foo", 0.3);
+            put("field.bar", 0.1);
+            put("categorical", "cat");
+        }};
+
+        PlainActionFuture<List<InferenceResults>> future = new PlainActionFuture<>();
+        model.infer(Arrays.asList(dog, missing, cat), RegressionConfig.EMPTY_PARAMS, future);
+        List<InferenceResults> results = future.get();
+        assertThat(results, hasSize(3));
+        assertThat(((SingleValueInferenceResults)results.get(0)).value(), equalTo(1.3));
+        assertThat(((WarningInferenceResults)results.get(1)).getWarning(),
+            equalTo(Messages.getMessage(Messages.INFERENCE_WARNING_ALL_FIELDS_MISSING, "regression_model")));
+        assertThat(((SingleValueInferenceResults)results.get(2)).value(), closeTo(1.35, 0.00001));
+    }
+
     private static SingleValueInferenceResults getSingleValue(Model model,
                                                               Map<String, Object> fields,
                                                               InferenceConfig config) throws Exception {
@@ -21,6 +21,7 @@ import org.elasticsearch.action.delete.DeleteAction;
 import org.elasticsearch.action.get.MultiGetAction;
 import org.elasticsearch.action.index.IndexAction;
 import org.elasticsearch.action.search.ClearScrollAction;
+import org.elasticsearch.action.search.ClosePointInTimeAction;
 import org.elasticsearch.action.search.MultiSearchAction;
 import org.elasticsearch.action.search.SearchScrollAction;
 import org.elasticsearch.action.search.SearchTransportService;
@@ -567,6 +568,7 @@ public class RBACEngine implements AuthorizationEngine {
             action.equals(SearchTransportService.QUERY_SCROLL_ACTION_NAME) ||
             action.equals(SearchTransportService.FREE_CONTEXT_SCROLL_ACTION_NAME) ||
             action.equals(ClearScrollAction.NAME) ||
+            action.equals(ClosePointInTimeAction.NAME) ||
             action.equals("indices:data/read/sql/close_cursor") ||
             action.equals(SearchTransportService.CLEAR_SCROLL_CONTEXTS_ACTION_NAME);
     }
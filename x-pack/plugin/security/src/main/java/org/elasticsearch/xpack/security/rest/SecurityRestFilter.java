@@ -86,6 +86,11 @@ public class SecurityRestFilter implements RestHandler {
         return restHandler.supportsContentStream();
     }
 
+    @Override
+    public boolean supportsStreamingContent() {
+        return restHandler.supportsStreamingContent();
+    }
+
     @Override
     public boolean allowsUnsafeBuffers() {
         return restHandler.allowsUnsafeBuffers();
@@ -7,11 +7,17 @@ package org.elasticsearch.xpack.security.authz;
 
 import org.elasticsearch.ExceptionsHelper;
 import org.elasticsearch.action.index.IndexRequestBuilder;
+import org.elasticsearch.action.search.ClosePointInTimeAction;
+import org.elasticsearch.action.search.ClosePointInTimeRequest;
+import org.elasticsearch.action.search.OpenPointInTimeAction;
+import org.elasticsearch.action.search.OpenPointInTimeRequest;
 import org.elasticsearch.action.search.SearchPhaseExecutionException;
 import org.elasticsearch.action.search.SearchResponse;
 import org.elasticsearch.action.search.ShardSearchFailure;
 import org.elasticsearch.common.unit.TimeValue;
 import org.elasticsearch.search.SearchContextMissingException;
+import org.elasticsearch.search.builder.PointInTimeBuilder;
+import org.elasticsearch.search.builder.SearchSourceBuilder;
 import org.elasticsearch.test.SecurityIntegTestCase;
 import org.elasticsearch.test.SecuritySettingsSourceField;
 import org.elasticsearch.xpack.core.security.action.role.PutRoleRequestBuilder;
@@ -97,6 +103,25 @@ public class SecurityScrollTests extends SecurityIntegTestCase {
         }
     }
 
+    public void testOpenAndClosePointInTime() throws Exception {
+        IndexRequestBuilder[] docs = new IndexRequestBuilder[randomIntBetween(1, 20)];
+        for (int i = 0; i < docs.length; i++) {
+            docs[i] = client().prepareIndex("idx").setSource("field", "value");
+        }
+        indexRandom(true, docs);
+
+        final String pitId = client().execute(OpenPointInTimeAction.INSTANCE,
+            new OpenPointInTimeRequest("idx").keepAlive(TimeValue.timeValueMinutes(1))).actionGet().getId();
+        try {
+            SearchResponse response = client().prepareSearch()
+                .setSource(new SearchSourceBuilder().pointInTimeBuilder(new PointInTimeBuilder(pitId, TimeValue.timeValueMinutes(1))))
+                .get();
+            assertHitCount(response, docs.length);
+        } finally {
+            assertTrue(client().execute(ClosePointInTimeAction.INSTANCE, new ClosePointInTimeRequest(pitId)).actionGet().isSucceeded());
+        }
+    }
+
     @After
     public void cleanupSecurityIndex() throws Exception {
         super.deleteSecurityIndex();
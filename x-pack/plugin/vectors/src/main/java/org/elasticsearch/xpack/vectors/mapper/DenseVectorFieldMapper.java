@@ -28,12 +28,15 @@ import org.elasticsearch.index.mapper.ParseContext;
 import org.elasticsearch.index.query.QueryShardContext;
 import org.elasticsearch.search.DocValueFormat;
 import org.elasticsearch.xpack.vectors.query.VectorDVIndexFieldData;
+import org.elasticsearch.xpack.vectors.query.VectorSimilarity;
 
 import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.time.ZoneId;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 
 import static org.elasticsearch.common.xcontent.XContentParserUtils.ensureExpectedToken;
 
@@ -47,6 +50,8 @@ public class DenseVectorFieldMapper extends FieldMapper implements ArrayValueMap
     private static final byte INT_BYTES = 4;
 
     public static class Defaults {
+        public static final boolean KNN = false;
+        public static final VectorSimilarity KNN_SIMILARITY = VectorSimilarity.COSINE;
         public static final MappedFieldType FIELD_TYPE = new DenseVectorFieldType();
 
         static {
@@ -60,6 +65,8 @@ public class DenseVectorFieldMapper extends FieldMapper implements ArrayValueMap
 
     public static class Builder extends FieldMapper.Builder<Builder, DenseVectorFieldMapper> {
         private int dims = 0;
+        private boolean knn = Defaults.KNN;
+        private VectorSimilarity knnSimilarity = Defaults.KNN_SIMILARITY;
 
         public Builder(String name) {
             super(name, Defaults.FIELD_TYPE, Defaults.FIELD_TYPE);
@@ -75,10 +82,26 @@ public class DenseVectorFieldMapper extends FieldMapper implements ArrayValueMap
             return this;
         }
 
+        /**
+         * Whether to build graphs of the vectors of each segment so that knn queries can find approximate nearest
+         * neighbors without comparing the query vector to every vector.
+         */
+        public Builder knn(boolean knn) {
+            this.knn = knn;
+            return this;
+        }
+
+        public Builder knnSimilarity(VectorSimilarity knnSimilarity) {
+            this.knnSimilarity = knnSimilarity;
+            return this;
+        }
+
         @Override
         protected void setupFieldType(BuilderContext context) {
             super.setupFieldType(context);
             fieldType().setDims(dims);
+            fieldType().setKnn(knn);
+            fieldType().setKnnSimilarity(knnSimilarity);
         }
 
         @Override
@@ -104,24 +127,43 @@ public class DenseVectorFieldMapper extends FieldMapper implements ArrayValueMap
                 throw new MapperParsingException("The [dims] property must be specified for field [" + name + "].");
             }
             int dims = XContentMapValues.nodeIntegerValue(dimsField);
-            return builder.dims(dims);
+            builder.dims(dims);
+            Object knnField = node.remove("knn");
+            if (knnField != null) {
+                builder.knn(XContentMapValues.nodeBooleanValue(knnField, name + ".knn"));
+            }
+            Object knnSimilarityField = node.remove("knn_similarity");
+            if (knnSimilarityField != null) {
+                try {
+                    builder.knnSimilarity(VectorSimilarity.fromString(knnSimilarityField.toString()));
+                } catch (IllegalArgumentException e) {
+                    throw new MapperParsingException("Unknown [knn_similarity] [" + knnSimilarityField + "] for field [" + name
+                        + "], must be one of " + Arrays.toString(VectorSimilarity.values()));
+                }
+            }
+            return builder;
         }
     }
 
     public static final class DenseVectorFieldType extends MappedFieldType {
         private int dims;
+        private boolean knn = Defaults.KNN;
+        private VectorSimilarity knnSimilarity = Defaults.KNN_SIMILARITY;
 
         public DenseVectorFieldType() {}
 
         protected DenseVectorFieldType(DenseVectorFieldType ref) {
             super(ref);
+            this.dims = ref.dims;
+            this.knn = ref.knn;
+            this.knnSimilarity = ref.knnSimilarity;
         }
 
         public DenseVectorFieldType clone() {
             return new DenseVectorFieldType(this);
         }
 
-        int dims() {
+        public int dims() {
             return dims;
         }
 
@@ -129,6 +171,56 @@ public class DenseVectorFieldMapper extends FieldMapper implements ArrayValueMap
             this.dims = dims;
         }
 
+        public boolean knn() {
+            return knn;
+        }
+
+        void setKnn(boolean knn) {
+            checkIfFrozen();
+            this.knn = knn;
+        }
+
+        public VectorSimilarity knnSimilarity() {
+            return knnSimilarity;
+        }
+
+        @Override
+        public boolean eagerGlobalFieldData() {
+            // build the graphs of new segments on refresh rather than in the first knn query
+            return knn;
+        }
+
+        void setKnnSimilarity(VectorSimilarity knnSimilarity) {
+            checkIfFrozen();
+            this.knnSimilarity = knnSimilarity;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (super.equals(o) == false) {
+                return false;
+            }
+            DenseVectorFieldType that = (DenseVectorFieldType) o;
+            return knn == that.knn && knnSimilarity == that.knnSimilarity;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(super.hashCode(), knn, knnSimilarity);
+        }
+
+        @Override
+        public void checkCompatibility(MappedFieldType fieldType, List<String> conflicts) {
+            super.checkCompatibility(fieldType, conflicts);
+            DenseVectorFieldType other = (DenseVectorFieldType) fieldType;
+            if (knn != other.knn) {
+                conflicts.add("mapper [" + name() + "] has different [knn] values");
+            }
+            if (knnSimilarity != other.knnSimilarity) {
+                conflicts.add("mapper [" + name() + "] has different [knn_similarity] values");
+            }
+        }
+
         @Override
         public String typeName() {
             return CONTENT_TYPE;
@@ -147,7 +239,7 @@ public class DenseVectorFieldMapper extends FieldMapper implements ArrayValueMap
 
         @Override
         public IndexFieldData.Builder fielddataBuilder(String fullyQualifiedIndexName) {
-            return new VectorDVIndexFieldData.Builder();
+            return new VectorDVIndexFieldData.Builder(dims, knnSimilarity, knn);
         }
 
         @Override
@@ -222,6 +314,12 @@ public class DenseVectorFieldMapper extends FieldMapper implements ArrayValueMap
     protected void doXContentBody(XContentBuilder builder, boolean includeDefaults, Params params) throws IOException {
         super.doXContentBody(builder, includeDefaults, params);
         builder.field("dims", fieldType().dims());
+        if (includeDefaults || fieldType().knn() != Defaults.KNN) {
+            builder.field("knn", fieldType().knn());
+        }
+        if (includeDefaults || fieldType().knnSimilarity() != Defaults.KNN_SIMILARITY) {
+            builder.field("knn_similarity", fieldType().knnSimilarity().toString());
+        }
     }
 
     @Override
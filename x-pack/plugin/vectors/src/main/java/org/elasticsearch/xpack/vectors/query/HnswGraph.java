@@ -0,0 +1,296 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License;
+ * you may not use this file except in compliance with the Elastic License.
+ */
+
+package org.elasticsearch.xpack.vectors.query;
+
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.util.Accountable;
+import org.apache.lucene.util.ArrayUtil;
+import org.apache.lucene.util.Bits;
+import org.apache.lucene.util.RamUsageEstimator;
+import org.apache.lucene.util.SparseFixedBitSet;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * A hierarchical navigable small world graph (see <a href="https://arxiv.org/abs/1603.09320">Malkov and Yashunin</a>)
+ * over the vectors of a segment, used to find the approximate nearest neighbors of a query vector without comparing
+ * it to every vector of the segment.
+ *
+ * Nodes are identified by their ordinal, which is the rank of their document among the documents of the segment that
+ * have a vector. Every node is on level 0 and on a random number of upper levels, each upper level having
+ * exponentially fewer nodes. A search greedily walks the sparse upper levels to find a good entry point in the dense
+ * level 0, where it then explores the neighborhood of the closest nodes it has found so far.
+ */
+final class HnswGraph implements Accountable {
+
+    /** The maximum number of neighbors of a node on upper levels, nodes have twice as many on level 0. */
+    static final int DEFAULT_MAX_CONNECTIONS = 16;
+    /** The number of candidates that are tracked when looking for the neighbors of a new node. */
+    static final int DEFAULT_BEAM_WIDTH = 100;
+
+    private static final long BASE_RAM_BYTES_USED = RamUsageEstimator.shallowSizeOfInstance(HnswGraph.class);
+    private static final int[] NO_NEIGHBORS = new int[0];
+
+    private final VectorSimilarity similarity;
+    private final int[] docs;
+    // node -> level -> neighbors
+    private final int[][][] neighbors;
+    private int entryPoint = -1;
+    private int maxLevel = -1;
+    private long ramBytesUsed;
+
+    private HnswGraph(VectorSimilarity similarity, int[] docs) {
+        this.similarity = similarity;
+        this.docs = docs;
+        this.neighbors = new int[docs.length][][];
+    }
+
+    /**
+     * Builds a graph over the given vectors.
+     *
+     * @param docs           the document of each node, in increasing order
+     * @param vectors        the vector of each node
+     * @param maxConnections the maximum number of neighbors of a node on upper levels
+     * @param beamWidth      the number of candidates to track when looking for the neighbors of a new node
+     * @param seed           the seed used to assign nodes to levels
+     */
+    static HnswGraph build(VectorSimilarity similarity, int[] docs, KnnVectorValues vectors, int maxConnections, int beamWidth,
+                           long seed) throws IOException {
+        final HnswGraph graph = new HnswGraph(similarity, docs);
+        final Random random = new Random(seed);
+        final double levelMultiplier = 1 / Math.log(maxConnections);
+        for (int ord = 0; ord < docs.length; ord++) {
+            final int level = (int) (-Math.log(1 - random.nextDouble()) * levelMultiplier);
+            graph.insert(ord, level, vectors, maxConnections, beamWidth);
+        }
+        graph.ramBytesUsed = graph.computeRamBytesUsed();
+        return graph;
+    }
+
+    int size() {
+        return docs.length;
+    }
+
+    int[] docs() {
+        return docs;
+    }
+
+    VectorSimilarity similarity() {
+        return similarity;
+    }
+
+    /**
+     * Returns the neighbors of a node on the given level.
+     */
+    int[] neighbors(int ord, int level) {
+        return neighbors[ord][level];
+    }
+
+    /**
+     * Finds the approximate {@code k} nearest neighbors of the query vector among the documents accepted by
+     * {@code acceptDocs}, sorted by decreasing score. {@code numCandidates} controls how many candidates are tracked
+     * while exploring the graph, higher values trade latency for recall.
+     */
+    ScoreDoc[] search(float[] query, int k, int numCandidates, KnnVectorValues vectors, Bits acceptDocs) throws IOException {
+        if (entryPoint == -1) {
+            return new ScoreDoc[0];
+        }
+        final float queryMagnitude = KnnVectorValues.magnitude(query);
+        int[] entryPoints = new int[] { entryPoint };
+        for (int level = maxLevel; level > 0; level--) {
+            entryPoints = nodes(searchLevel(query, queryMagnitude, entryPoints, 1, level, vectors));
+        }
+        final NeighborQueue results = searchLevel(query, queryMagnitude, entryPoints, Math.max(k, numCandidates), 0, vectors);
+        // the queue returns the least similar nodes first
+        final ScoreDoc[] topDocs = new ScoreDoc[results.size()];
+        int count = 0;
+        for (int i = results.size() - 1; i >= 0; i--) {
+            final float nodeSimilarity = results.topSimilarity();
+            final int doc = docs[results.pop()];
+            if (acceptDocs == null || acceptDocs.get(doc)) {
+                topDocs[count++] = new ScoreDoc(doc, similarity.score(nodeSimilarity));
+            }
+        }
+        // reverse to get the most similar first
+        final ScoreDoc[] hits = new ScoreDoc[Math.min(k, count)];
+        for (int i = 0; i < hits.length; i++) {
+            hits[i] = topDocs[count - 1 - i];
+        }
+        return hits;
+    }
+
+    private void insert(int ord, int level, KnnVectorValues vectors, int maxConnections, int beamWidth) throws IOException {
+        neighbors[ord] = new int[level + 1][];
+        Arrays.fill(neighbors[ord], NO_NEIGHBORS);
+        if (entryPoint == -1) {
+            entryPoint = ord;
+            maxLevel = level;
+            return;
+        }
+        final float[] vector = vectors.vector(ord).clone();
+        final float magnitude = vectors.magnitude(ord);
+        int[] entryPoints = new int[] { entryPoint };
+        for (int l = maxLevel; l > level; l--) {
+            entryPoints = nodes(searchLevel(vector, magnitude, entryPoints, 1, l, vectors));
+        }
+        for (int l = Math.min(level, maxLevel); l >= 0; l--) {
+            final int maxNeighbors = l == 0 ? 2 * maxConnections : maxConnections;
+            final NeighborQueue candidates = searchLevel(vector, magnitude, entryPoints, beamWidth, l, vectors);
+            // drain the candidates from the most to the least similar
+            final int[] candidateNodes = new int[candidates.size()];
+            final float[] candidateSimilarities = new float[candidates.size()];
+            for (int i = candidateNodes.length - 1; i >= 0; i--) {
+                candidateSimilarities[i] = candidates.topSimilarity();
+                candidateNodes[i] = candidates.pop();
+            }
+            final int[] selected = selectNeighbors(candidateNodes, candidateSimilarities, candidateNodes.length, maxNeighbors,
+                vectors);
+            neighbors[ord][l] = selected;
+            for (int neighbor : selected) {
+                addNeighbor(neighbor, ord, l, maxNeighbors, vectors);
+            }
+            entryPoints = candidateNodes;
+        }
+        if (level > maxLevel) {
+            entryPoint = ord;
+            maxLevel = level;
+        }
+    }
+
+    /**
+     * Adds a link from {@code node} to {@code neighbor}, pruning the neighbors of {@code node} if it has too many.
+     */
+    private void addNeighbor(int node, int neighbor, int level, int maxNeighbors, KnnVectorValues vectors) throws IOException {
+        final int[] current = neighbors[node][level];
+        final int[] updated = Arrays.copyOf(current, current.length + 1);
+        updated[current.length] = neighbor;
+        if (updated.length <= maxNeighbors) {
+            neighbors[node][level] = updated;
+            return;
+        }
+        final float[] vector = vectors.vector(node).clone();
+        final float magnitude = vectors.magnitude(node);
+        final NeighborQueue queue = new NeighborQueue(updated.length, false);
+        for (int candidate : updated) {
+            queue.add(candidate, similarity.similarity(vector, magnitude, vectors.vector(candidate), vectors.magnitude(candidate)));
+        }
+        final int[] candidateNodes = new int[updated.length];
+        final float[] candidateSimilarities = new float[updated.length];
+        for (int i = updated.length - 1; i >= 0; i--) {
+            candidateSimilarities[i] = queue.topSimilarity();
+            candidateNodes[i] = queue.pop();
+        }
+        neighbors[node][level] = selectNeighbors(candidateNodes, candidateSimilarities, candidateNodes.length, maxNeighbors,
+            vectors);
+    }
+
+    /**
+     * Selects up to {@code maxNeighbors} neighbors among candidates sorted from the most to the least similar. A candidate
+     * is only selected if it is more similar to the node than to any of the neighbors that were already selected, which
+     * keeps neighbors spread around the node rather than clustered in a single direction.
+     */
+    private int[] selectNeighbors(int[] candidates, float[] candidateSimilarities, int numCandidates, int maxNeighbors,
+                                  KnnVectorValues vectors) throws IOException {
+        int[] selected = new int[Math.min(numCandidates, maxNeighbors)];
+        int numSelected = 0;
+        for (int i = 0; i < numCandidates && numSelected < selected.length; i++) {
+            final float[] candidate = vectors.vector(candidates[i]).clone();
+            final float candidateMagnitude = vectors.magnitude(candidates[i]);
+            boolean diverse = true;
+            for (int j = 0; j < numSelected; j++) {
+                final float[] other = vectors.vector(selected[j]);
+                if (similarity.similarity(candidate, candidateMagnitude, other, vectors.magnitude(selected[j]))
+                    > candidateSimilarities[i]) {
+                    diverse = false;
+                    break;
+                }
+            }
+            if (diverse) {
+                selected[numSelected++] = candidates[i];
+            }
+        }
+        return numSelected == selected.length ? selected : ArrayUtil.copyOfSubArray(selected, 0, numSelected);
+    }
+
+    /**
+     * Explores a level of the graph from the given entry points and returns the {@code beamWidth} most similar nodes
+     * that were found, the least similar first.
+     */
+    private NeighborQueue searchLevel(float[] query, float queryMagnitude, int[] entryPoints, int beamWidth, int level,
+                                      KnnVectorValues vectors) throws IOException {
+        final SparseFixedBitSet visited = new SparseFixedBitSet(docs.length);
+        final NeighborQueue candidates = new NeighborQueue(beamWidth, true);
+        final NeighborQueue results = new NeighborQueue(beamWidth, false);
+        for (int entryPoint : entryPoints) {
+            visited.set(entryPoint);
+            final float entrySimilarity = similarity(query, queryMagnitude, entryPoint, vectors);
+            candidates.add(entryPoint, entrySimilarity);
+            results.add(entryPoint, entrySimilarity);
+            if (results.size() > beamWidth) {
+                results.pop();
+            }
+        }
+        while (candidates.size() > 0) {
+            if (results.size() >= beamWidth && candidates.topSimilarity() < results.topSimilarity()) {
+                // the best candidate is worse than all results, exploring further would not improve them
+                break;
+            }
+            final int candidate = candidates.pop();
+            for (int neighbor : neighbors[candidate][level]) {
+                if (visited.get(neighbor)) {
+                    continue;
+                }
+                visited.set(neighbor);
+                final float neighborSimilarity = similarity(query, queryMagnitude, neighbor, vectors);
+                if (results.size() < beamWidth || neighborSimilarity > results.topSimilarity()) {
+                    candidates.add(neighbor, neighborSimilarity);
+                    results.add(neighbor, neighborSimilarity);
+                    if (results.size() > beamWidth) {
+                        results.pop();
+                    }
+                }
+            }
+        }
+        return results;
+    }
+
+    private float similarity(float[] query, float queryMagnitude, int ord, KnnVectorValues vectors) throws IOException {
+        final float[] vector = vectors.vector(ord);
+        return similarity.similarity(query, queryMagnitude, vector, vectors.magnitude(ord));
+    }
+
+    private static int[] nodes(NeighborQueue queue) {
+        final int[] nodes = new int[queue.size()];
+        for (int i = nodes.length - 1; i >= 0; i--) {
+            nodes[i] = queue.pop();
+        }
+        return nodes;
+    }
+
+    private long computeRamBytesUsed() {
+        long bytes = BASE_RAM_BYTES_USED + RamUsageEstimator.sizeOf(docs)
+            + RamUsageEstimator.alignObjectSize(RamUsageEstimator.NUM_BYTES_ARRAY_HEADER
+                + (long) RamUsageEstimator.NUM_BYTES_OBJECT_REF * neighbors.length);
+        for (int[][] levels : neighbors) {
+            bytes += RamUsageEstimator.alignObjectSize(RamUsageEstimator.NUM_BYTES_ARRAY_HEADER
+                + (long) RamUsageEstimator.NUM_BYTES_OBJECT_REF * levels.length);
+            for (int[] levelNeighbors : levels) {
+                if (levelNeighbors != NO_NEIGHBORS) {
+                    bytes += RamUsageEstimator.sizeOf(levelNeighbors);
+                }
+            }
+        }
+        return bytes;
+    }
+
+    @Override
+    public long ramBytesUsed() {
+        return ramBytesUsed;
+    }
+}
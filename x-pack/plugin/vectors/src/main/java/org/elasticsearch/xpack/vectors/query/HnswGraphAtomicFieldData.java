@@ -0,0 +1,58 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License;
+ * you may not use this file except in compliance with the Elastic License.
+ */
+
+package org.elasticsearch.xpack.vectors.query;
+
+import org.apache.lucene.util.Accountable;
+import org.apache.lucene.util.Accountables;
+import org.elasticsearch.index.fielddata.AtomicFieldData;
+import org.elasticsearch.index.fielddata.ScriptDocValues;
+import org.elasticsearch.index.fielddata.SortedBinaryDocValues;
+
+import java.util.Collection;
+import java.util.Collections;
+
+/**
+ * Holds the {@link HnswGraph} of a segment in the fielddata cache, so that it is built once per segment, accounted for
+ * in fielddata memory and released when the segment is closed.
+ */
+final class HnswGraphAtomicFieldData implements AtomicFieldData {
+
+    private final HnswGraph graph;
+
+    HnswGraphAtomicFieldData(HnswGraph graph) {
+        this.graph = graph;
+    }
+
+    HnswGraph graph() {
+        return graph;
+    }
+
+    @Override
+    public long ramBytesUsed() {
+        return graph.ramBytesUsed();
+    }
+
+    @Override
+    public Collection<Accountable> getChildResources() {
+        return Collections.singletonList(Accountables.namedAccountable("graph", graph));
+    }
+
+    @Override
+    public ScriptDocValues<?> getScriptValues() {
+        throw new UnsupportedOperationException("Vector graphs can't be used in scripts");
+    }
+
+    @Override
+    public SortedBinaryDocValues getBytesValues() {
+        throw new UnsupportedOperationException("String representation of vector graphs is not supported");
+    }
+
+    @Override
+    public void close() {
+        // no-op
+    }
+}
@@ -0,0 +1,118 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License;
+ * you may not use this file except in compliance with the Elastic License.
+ */
+
+package org.elasticsearch.xpack.vectors.query;
+
+import org.apache.lucene.index.BinaryDocValues;
+import org.apache.lucene.index.DocValues;
+import org.apache.lucene.index.LeafReader;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.search.DocIdSetIterator;
+import org.apache.lucene.search.SortField;
+import org.apache.lucene.util.ArrayUtil;
+import org.apache.lucene.util.RamUsageEstimator;
+import org.elasticsearch.ElasticsearchException;
+import org.elasticsearch.Version;
+import org.elasticsearch.common.Nullable;
+import org.elasticsearch.common.breaker.CircuitBreaker;
+import org.elasticsearch.index.Index;
+import org.elasticsearch.index.fielddata.IndexFieldData;
+import org.elasticsearch.index.fielddata.IndexFieldData.XFieldComparatorSource.Nested;
+import org.elasticsearch.index.fielddata.IndexFieldDataCache;
+import org.elasticsearch.index.fielddata.plain.DocValuesIndexFieldData;
+import org.elasticsearch.search.MultiValueMode;
+
+import java.io.IOException;
+
+/**
+ * Builds the {@link HnswGraph} of the vectors of a segment and caches it in the fielddata cache. Graphs are built
+ * lazily by the first knn query that hits a segment, and both the vectors that are held in memory while building and
+ * the resulting graph are accounted for in the fielddata circuit breaker.
+ */
+final class HnswGraphIndexFieldData extends DocValuesIndexFieldData implements IndexFieldData<HnswGraphAtomicFieldData> {
+
+    private final IndexFieldDataCache cache;
+    private final CircuitBreaker breaker;
+    private final Version indexVersion;
+    private final int dims;
+    private final VectorSimilarity similarity;
+
+    HnswGraphIndexFieldData(Index index, String fieldName, IndexFieldDataCache cache, CircuitBreaker breaker,
+                            Version indexVersion, int dims, VectorSimilarity similarity) {
+        super(index, fieldName);
+        this.cache = cache;
+        this.breaker = breaker;
+        this.indexVersion = indexVersion;
+        this.dims = dims;
+        this.similarity = similarity;
+    }
+
+    @Override
+    public SortField sortField(@Nullable Object missingValue, MultiValueMode sortMode, Nested nested, boolean reverse) {
+        throw new IllegalArgumentException("can't sort on the vector field");
+    }
+
+    /**
+     * Returns the graph of the segment, or {@code null} if the segment can't be cached, in which case building a graph
+     * for a single query would be slower than comparing the query vector to every vector of the segment.
+     */
+    @Override
+    public HnswGraphAtomicFieldData load(LeafReaderContext context) {
+        if (context.reader().getCoreCacheHelper() == null) {
+            return null;
+        }
+        try {
+            return cache.load(context, this);
+        } catch (Exception e) {
+            if (e instanceof ElasticsearchException) {
+                throw (ElasticsearchException) e;
+            } else {
+                throw new ElasticsearchException(e);
+            }
+        }
+    }
+
+    @Override
+    public HnswGraphAtomicFieldData loadDirect(LeafReaderContext context) throws IOException {
+        final LeafReader reader = context.reader();
+        final BinaryDocValues values = DocValues.getBinary(reader, fieldName);
+        // each vector, its slot in the vectors array, its doc and its magnitude
+        final long bytesPerVector = RamUsageEstimator.alignObjectSize(RamUsageEstimator.NUM_BYTES_ARRAY_HEADER
+            + (long) dims * Float.BYTES) + RamUsageEstimator.NUM_BYTES_OBJECT_REF + Integer.BYTES + Float.BYTES;
+        final long estimate = bytesPerVector * reader.maxDoc();
+        breaker.addEstimateBytesAndMaybeBreak(estimate, fieldName);
+        boolean success = false;
+        try {
+            int[] docs = new int[0];
+            float[][] vectors = new float[0][];
+            int count = 0;
+            for (int doc = values.nextDoc(); doc != DocIdSetIterator.NO_MORE_DOCS; doc = values.nextDoc()) {
+                if (count == docs.length) {
+                    docs = ArrayUtil.grow(docs, count + 1);
+                    vectors = ArrayUtil.grow(vectors, count + 1);
+                }
+                docs[count] = doc;
+                vectors[count] = new float[dims];
+                KnnVectorValues.decode(values.binaryValue(), indexVersion, vectors[count]);
+                count++;
+            }
+            docs = ArrayUtil.copyOfSubArray(docs, 0, count);
+            vectors = ArrayUtil.copyOfSubArray(vectors, 0, count);
+            // seed with the number of vectors so that rebuilding the graph of a segment is reproducible
+            final HnswGraph graph = HnswGraph.build(similarity, docs, new KnnVectorValues.InMemory(vectors),
+                HnswGraph.DEFAULT_MAX_CONNECTIONS, HnswGraph.DEFAULT_BEAM_WIDTH, count);
+            // the vectors are released, only the graph remains
+            breaker.addWithoutBreaking(graph.ramBytesUsed() - estimate);
+            success = true;
+            return new HnswGraphAtomicFieldData(graph);
+        } finally {
+            if (success == false) {
+                breaker.addWithoutBreaking(-estimate);
+            }
+        }
+    }
+
+}
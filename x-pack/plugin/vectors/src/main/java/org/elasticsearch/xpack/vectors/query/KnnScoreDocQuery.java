@@ -0,0 +1,189 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License;
+ * you may not use this file except in compliance with the Elastic License.
+ */
+
+package org.elasticsearch.xpack.vectors.query;
+
+import org.apache.lucene.index.IndexReaderContext;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.DocIdSetIterator;
+import org.apache.lucene.search.Explanation;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.QueryVisitor;
+import org.apache.lucene.search.ScoreMode;
+import org.apache.lucene.search.Scorer;
+import org.apache.lucene.search.Weight;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Matches a fixed set of documents of a reader with precomputed scores, which is what a {@link KnnVectorQuery}
+ * rewrites to once its nearest neighbors have been found. The matches are only valid for the top level reader
+ * context that the query was rewritten against, searchers over another reader run the original query again.
+ */
+final class KnnScoreDocQuery extends Query {
+
+    private final IndexReaderContext readerContext;
+    private final Query original;
+    // top level doc ids, in increasing order
+    private final int[] docs;
+    private final float[] scores;
+
+    KnnScoreDocQuery(IndexReaderContext readerContext, Query original, int[] docs, float[] scores) {
+        assert docs.length == scores.length;
+        this.readerContext = readerContext;
+        this.original = original;
+        this.docs = docs;
+        this.scores = scores;
+    }
+
+    @Override
+    public Weight createWeight(IndexSearcher searcher, ScoreMode scoreMode, float boost) throws IOException {
+        if (searcher.getTopReaderContext() != readerContext) {
+            // e.g. a searcher that wraps the reader, whose doc ids may not match
+            return searcher.createWeight(searcher.rewrite(original), scoreMode, boost);
+        }
+        return new Weight(this) {
+            @Override
+            public void extractTerms(Set<Term> terms) {
+            }
+
+            @Override
+            public Explanation explain(LeafReaderContext context, int doc) {
+                final int index = Arrays.binarySearch(docs, context.docBase + doc);
+                if (index < 0) {
+                    return Explanation.noMatch("not a nearest neighbor");
+                }
+                return Explanation.match(scores[index] * boost, "nearest neighbor, vector similarity score");
+            }
+
+            @Override
+            public Scorer scorer(LeafReaderContext context) {
+                final int from = lowerBound(context.docBase);
+                final int to = lowerBound(context.docBase + context.reader().maxDoc());
+                if (from == to) {
+                    return null;
+                }
+                return new KnnScorer(this, context.docBase, from, to, boost);
+            }
+
+            @Override
+            public boolean isCacheable(LeafReaderContext context) {
+                // the matches are only valid for the reader that the query was rewritten against
+                return false;
+            }
+        };
+    }
+
+    private class KnnScorer extends Scorer {
+
+        private final int docBase;
+        private final int from;
+        private final int to;
+        private final float boost;
+        private int index;
+
+        KnnScorer(Weight weight, int docBase, int from, int to, float boost) {
+            super(weight);
+            this.docBase = docBase;
+            this.from = from;
+            this.to = to;
+            this.boost = boost;
+            this.index = from - 1;
+        }
+
+        @Override
+        public DocIdSetIterator iterator() {
+            return new DocIdSetIterator() {
+                @Override
+                public int docID() {
+                    return KnnScorer.this.docID();
+                }
+
+                @Override
+                public int nextDoc() {
+                    index++;
+                    return docID();
+                }
+
+                @Override
+                public int advance(int target) {
+                    index = lowerBound(docBase + target, Math.min(index + 1, to), to);
+                    return docID();
+                }
+
+                @Override
+                public long cost() {
+                    return to - from;
+                }
+            };
+        }
+
+        @Override
+        public int docID() {
+            if (index < from) {
+                return -1;
+            }
+            return index < to ? docs[index] - docBase : DocIdSetIterator.NO_MORE_DOCS;
+        }
+
+        @Override
+        public float getMaxScore(int upTo) {
+            float maxScore = 0;
+            for (int i = from; i < to && docs[i] - docBase <= upTo; i++) {
+                maxScore = Math.max(maxScore, scores[i]);
+            }
+            return maxScore * boost;
+        }
+
+        @Override
+        public float score() {
+            return scores[index] * boost;
+        }
+    }
+
+    private int lowerBound(int doc) {
+        return lowerBound(doc, 0, docs.length);
+    }
+
+    /**
+     * Returns the index of the first doc that is greater than or equal to {@code doc} in the given range.
+     */
+    private int lowerBound(int doc, int from, int to) {
+        final int index = Arrays.binarySearch(docs, from, to, doc);
+        return index >= 0 ? index : -1 - index;
+    }
+
+    @Override
+    public void visit(QueryVisitor visitor) {
+        visitor.visitLeaf(this);
+    }
+
+    @Override
+    public String toString(String field) {
+        return "KnnScoreDocQuery(docs=" + Arrays.toString(docs) + ")";
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (sameClassAs(obj) == false) {
+            return false;
+        }
+        KnnScoreDocQuery other = (KnnScoreDocQuery) obj;
+        return readerContext == other.readerContext && original.equals(other.original)
+            && Arrays.equals(docs, other.docs) && Arrays.equals(scores, other.scores);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(classHash(), System.identityHashCode(readerContext), original, Arrays.hashCode(docs),
+            Arrays.hashCode(scores));
+    }
+}
@@ -0,0 +1,143 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License;
+ * you may not use this file except in compliance with the Elastic License.
+ */
+
+package org.elasticsearch.xpack.vectors.query;
+
+import org.apache.lucene.index.BinaryDocValues;
+import org.apache.lucene.index.DocValues;
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.LeafReader;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.search.DocIdSetIterator;
+import org.apache.lucene.search.MatchNoDocsQuery;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.QueryVisitor;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.util.Bits;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Finds the {@code k} documents whose vectors are the most similar to a query vector. Segments of fields that are
+ * indexed for knn search are searched approximately through their {@link HnswGraph}, other segments are searched
+ * exactly by comparing the query vector to every vector of the segment.
+ *
+ * The search is run when the query is rewritten, which turns it into a {@link KnnScoreDocQuery} over the top hits.
+ */
+public class KnnVectorQuery extends Query {
+
+    private final VectorDVIndexFieldData fieldData;
+    private final float[] queryVector;
+    private final int k;
+    private final int numCandidates;
+
+    public KnnVectorQuery(VectorDVIndexFieldData fieldData, float[] queryVector, int k, int numCandidates) {
+        this.fieldData = fieldData;
+        this.queryVector = queryVector;
+        this.k = k;
+        this.numCandidates = numCandidates;
+    }
+
+    @Override
+    public Query rewrite(IndexReader reader) throws IOException {
+        final List<ScoreDoc> hits = new ArrayList<>();
+        for (LeafReaderContext context : reader.leaves()) {
+            for (ScoreDoc hit : searchLeaf(context)) {
+                hit.doc += context.docBase;
+                hits.add(hit);
+            }
+        }
+        if (hits.isEmpty()) {
+            return new MatchNoDocsQuery("no vectors in field [" + fieldData.getFieldName() + "]");
+        }
+        hits.sort(Comparator.comparingDouble((ScoreDoc hit) -> hit.score).reversed().thenComparingInt(hit -> hit.doc));
+        final ScoreDoc[] topHits = hits.subList(0, Math.min(k, hits.size())).toArray(new ScoreDoc[0]);
+        Arrays.sort(topHits, Comparator.comparingInt(hit -> hit.doc));
+        final int[] docs = new int[topHits.length];
+        final float[] scores = new float[topHits.length];
+        for (int i = 0; i < topHits.length; i++) {
+            docs[i] = topHits[i].doc;
+            scores[i] = topHits[i].score;
+        }
+        return new KnnScoreDocQuery(reader.getContext(), this, docs, scores);
+    }
+
+    private ScoreDoc[] searchLeaf(LeafReaderContext context) throws IOException {
+        final LeafReader reader = context.reader();
+        if (reader.getFieldInfos().fieldInfo(fieldData.getFieldName()) == null) {
+            return new ScoreDoc[0];
+        }
+        final HnswGraphAtomicFieldData graphFieldData = fieldData.loadGraph(context);
+        if (graphFieldData != null) {
+            final HnswGraph graph = graphFieldData.graph();
+            final KnnVectorValues vectors = new KnnVectorValues.FromDocValues(reader, fieldData.getFieldName(),
+                fieldData.indexVersion(), fieldData.dims(), graph.docs());
+            return graph.search(queryVector, k, numCandidates, vectors, reader.getLiveDocs());
+        }
+        return exactSearch(reader);
+    }
+
+    private ScoreDoc[] exactSearch(LeafReader reader) throws IOException {
+        final VectorSimilarity similarity = fieldData.similarity();
+        final float queryMagnitude = KnnVectorValues.magnitude(queryVector);
+        final BinaryDocValues values = DocValues.getBinary(reader, fieldData.getFieldName());
+        final Bits liveDocs = reader.getLiveDocs();
+        final float[] vector = new float[fieldData.dims()];
+        final NeighborQueue queue = new NeighborQueue(k, false);
+        for (int doc = values.nextDoc(); doc != DocIdSetIterator.NO_MORE_DOCS; doc = values.nextDoc()) {
+            if (liveDocs != null && liveDocs.get(doc) == false) {
+                continue;
+            }
+            final float magnitude = KnnVectorValues.decode(values.binaryValue(), fieldData.indexVersion(), vector);
+            final float docSimilarity = similarity.similarity(queryVector, queryMagnitude, vector, magnitude);
+            if (queue.size() < k) {
+                queue.add(doc, docSimilarity);
+            } else if (docSimilarity > queue.topSimilarity()) {
+                queue.pop();
+                queue.add(doc, docSimilarity);
+            }
+        }
+        final ScoreDoc[] hits = new ScoreDoc[queue.size()];
+        for (int i = hits.length - 1; i >= 0; i--) {
+            final float docSimilarity = queue.topSimilarity();
+            hits[i] = new ScoreDoc(queue.pop(), similarity.score(docSimilarity));
+        }
+        return hits;
+    }
+
+    @Override
+    public void visit(QueryVisitor visitor) {
+        visitor.visitLeaf(this);
+    }
+
+    @Override
+    public String toString(String field) {
+        return "KnnVectorQuery(field=" + fieldData.getFieldName() + ", k=" + k + ", num_candidates=" + numCandidates
+            + ", query_vector=" + Arrays.toString(queryVector) + ")";
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (sameClassAs(obj) == false) {
+            return false;
+        }
+        KnnVectorQuery other = (KnnVectorQuery) obj;
+        return fieldData.getFieldName().equals(other.fieldData.getFieldName())
+            && Arrays.equals(queryVector, other.queryVector)
+            && k == other.k
+            && numCandidates == other.numCandidates;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(classHash(), fieldData.getFieldName(), Arrays.hashCode(queryVector), k, numCandidates);
+    }
+}
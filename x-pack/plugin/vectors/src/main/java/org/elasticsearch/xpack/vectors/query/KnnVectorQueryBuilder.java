@@ -0,0 +1,191 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License;
+ * you may not use this file except in compliance with the Elastic License.
+ */
+
+package org.elasticsearch.xpack.vectors.query;
+
+import org.apache.lucene.search.MatchNoDocsQuery;
+import org.apache.lucene.search.Query;
+import org.elasticsearch.common.ParseField;
+import org.elasticsearch.common.ParsingException;
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.elasticsearch.common.io.stream.StreamOutput;
+import org.elasticsearch.common.xcontent.ConstructingObjectParser;
+import org.elasticsearch.common.xcontent.XContentBuilder;
+import org.elasticsearch.common.xcontent.XContentParser;
+import org.elasticsearch.index.mapper.MappedFieldType;
+import org.elasticsearch.index.query.AbstractQueryBuilder;
+import org.elasticsearch.index.query.QueryShardContext;
+import org.elasticsearch.xpack.vectors.mapper.DenseVectorFieldMapper.DenseVectorFieldType;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+import static org.elasticsearch.common.xcontent.ConstructingObjectParser.constructorArg;
+import static org.elasticsearch.common.xcontent.ConstructingObjectParser.optionalConstructorArg;
+
+/**
+ * A query that returns the {@code k} documents whose {@code dense_vector} values are the nearest to a query vector.
+ * Fields that are mapped with {@code knn: true} are searched approximately, and {@code num_candidates} controls the
+ * trade-off between recall and latency. Other fields are searched exactly.
+ */
+public class KnnVectorQueryBuilder extends AbstractQueryBuilder<KnnVectorQueryBuilder> {
+    public static final String NAME = "knn";
+    public static final int DEFAULT_K = 10;
+    public static final int DEFAULT_NUM_CANDIDATES = 100;
+    public static final int MAX_NUM_CANDIDATES = 10000;
+
+    private static final ParseField FIELD_FIELD = new ParseField("field");
+    private static final ParseField QUERY_VECTOR_FIELD = new ParseField("query_vector");
+    private static final ParseField K_FIELD = new ParseField("k");
+    private static final ParseField NUM_CANDIDATES_FIELD = new ParseField("num_candidates");
+
+    private final String fieldName;
+    private final float[] queryVector;
+    private final int k;
+    private final int numCandidates;
+
+    public KnnVectorQueryBuilder(String fieldName, float[] queryVector) {
+        this(fieldName, queryVector, DEFAULT_K, DEFAULT_NUM_CANDIDATES);
+    }
+
+    public KnnVectorQueryBuilder(String fieldName, float[] queryVector, int k, int numCandidates) {
+        if (fieldName == null) {
+            throw new IllegalArgumentException("[" + NAME + "] requires a field");
+        }
+        if (queryVector == null) {
+            throw new IllegalArgumentException("[" + NAME + "] requires a query vector");
+        }
+        if (k < 1) {
+            throw new IllegalArgumentException("[" + NAME + "] [k] must be greater than 0 but was [" + k + "]");
+        }
+        if (numCandidates < k) {
+            throw new IllegalArgumentException("[" + NAME + "] [num_candidates] must be greater than or equal to [k] but was ["
+                + numCandidates + "]");
+        }
+        if (numCandidates > MAX_NUM_CANDIDATES) {
+            throw new IllegalArgumentException("[" + NAME + "] [num_candidates] must be less than or equal to ["
+                + MAX_NUM_CANDIDATES + "] but was [" + numCandidates + "]");
+        }
+        this.fieldName = fieldName;
+        this.queryVector = queryVector;
+        this.k = k;
+        this.numCandidates = numCandidates;
+    }
+
+    /**
+     * Read from a stream.
+     */
+    public KnnVectorQueryBuilder(StreamInput in) throws IOException {
+        super(in);
+        fieldName = in.readString();
+        queryVector = in.readFloatArray();
+        k = in.readVInt();
+        numCandidates = in.readVInt();
+    }
+
+    @Override
+    protected void doWriteTo(StreamOutput out) throws IOException {
+        out.writeString(fieldName);
+        out.writeFloatArray(queryVector);
+        out.writeVInt(k);
+        out.writeVInt(numCandidates);
+    }
+
+    public String fieldName() {
+        return fieldName;
+    }
+
+    public float[] queryVector() {
+        return queryVector;
+    }
+
+    public int k() {
+        return k;
+    }
+
+    public int numCandidates() {
+        return numCandidates;
+    }
+
+    @Override
+    protected void doXContent(XContentBuilder builder, Params params) throws IOException {
+        builder.startObject(NAME);
+        builder.field(FIELD_FIELD.getPreferredName(), fieldName);
+        builder.array(QUERY_VECTOR_FIELD.getPreferredName(), queryVector);
+        builder.field(K_FIELD.getPreferredName(), k);
+        builder.field(NUM_CANDIDATES_FIELD.getPreferredName(), numCandidates);
+        printBoostAndQueryName(builder);
+        builder.endObject();
+    }
+
+    private static final ConstructingObjectParser<KnnVectorQueryBuilder, Void> PARSER = new ConstructingObjectParser<>(NAME,
+        a -> {
+            @SuppressWarnings("unchecked")
+            List<Float> values = (List<Float>) a[1];
+            float[] queryVector = new float[values.size()];
+            for (int i = 0; i < queryVector.length; i++) {
+                queryVector[i] = values.get(i);
+            }
+            int k = a[2] == null ? DEFAULT_K : (Integer) a[2];
+            int numCandidates = a[3] == null ? Math.max(k, DEFAULT_NUM_CANDIDATES) : (Integer) a[3];
+            return new KnnVectorQueryBuilder((String) a[0], queryVector, k, numCandidates);
+        });
+
+    static {
+        PARSER.declareString(constructorArg(), FIELD_FIELD);
+        PARSER.declareFloatArray(constructorArg(), QUERY_VECTOR_FIELD);
+        PARSER.declareInt(optionalConstructorArg(), K_FIELD);
+        PARSER.declareInt(optionalConstructorArg(), NUM_CANDIDATES_FIELD);
+        declareStandardFields(PARSER);
+    }
+
+    public static KnnVectorQueryBuilder fromXContent(XContentParser parser) {
+        try {
+            return PARSER.apply(parser, null);
+        } catch (IllegalArgumentException e) {
+            throw new ParsingException(parser.getTokenLocation(), e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public String getWriteableName() {
+        return NAME;
+    }
+
+    @Override
+    protected Query doToQuery(QueryShardContext context) throws IOException {
+        MappedFieldType fieldType = context.fieldMapper(fieldName);
+        if (fieldType == null) {
+            return new MatchNoDocsQuery("No mappings for field [" + fieldName + "]");
+        }
+        if (fieldType instanceof DenseVectorFieldType == false) {
+            throw new IllegalArgumentException("[" + NAME + "] queries are only supported on [dense_vector] fields, but field ["
+                + fieldName + "] is of type [" + fieldType.typeName() + "]");
+        }
+        DenseVectorFieldType vectorFieldType = (DenseVectorFieldType) fieldType;
+        if (queryVector.length != vectorFieldType.dims()) {
+            throw new IllegalArgumentException("[" + NAME + "] query vector has [" + queryVector.length
+                + "] dimensions, but field [" + fieldName + "] has [" + vectorFieldType.dims() + "]");
+        }
+        VectorDVIndexFieldData fieldData = context.getForField(fieldType);
+        return new KnnVectorQuery(fieldData, queryVector, k, numCandidates);
+    }
+
+    @Override
+    protected int doHashCode() {
+        return Objects.hash(fieldName, Arrays.hashCode(queryVector), k, numCandidates);
+    }
+
+    @Override
+    protected boolean doEquals(KnnVectorQueryBuilder other) {
+        return Objects.equals(fieldName, other.fieldName)
+            && Arrays.equals(queryVector, other.queryVector)
+            && k == other.k
+            && numCandidates == other.numCandidates;
+    }
+}
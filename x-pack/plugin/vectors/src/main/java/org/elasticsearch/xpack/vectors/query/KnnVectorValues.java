@@ -0,0 +1,125 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License;
+ * you may not use this file except in compliance with the Elastic License.
+ */
+
+package org.elasticsearch.xpack.vectors.query;
+
+import org.apache.lucene.index.BinaryDocValues;
+import org.apache.lucene.index.DocValues;
+import org.apache.lucene.index.LeafReader;
+import org.apache.lucene.util.BytesRef;
+import org.elasticsearch.Version;
+import org.elasticsearch.xpack.vectors.mapper.VectorEncoderDecoder;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * Random access to the vectors of the nodes of a {@link HnswGraph}, by node ordinal.
+ */
+abstract class KnnVectorValues {
+
+    /**
+     * Returns the vector of the given node. The returned array may be reused by the next call.
+     */
+    abstract float[] vector(int ord) throws IOException;
+
+    /**
+     * Returns the magnitude of the vector of the given node, which must be the last one returned by {@link #vector(int)}.
+     */
+    abstract float magnitude(int ord);
+
+    static float magnitude(float[] vector) {
+        double magnitude = 0;
+        for (float value : vector) {
+            magnitude += value * value;
+        }
+        return (float) Math.sqrt(magnitude);
+    }
+
+    /**
+     * Decodes a vector that was encoded by the dense vector field mapper into the given array and returns its magnitude.
+     */
+    static float decode(BytesRef bytes, Version indexVersion, float[] vector) {
+        final ByteBuffer byteBuffer = ByteBuffer.wrap(bytes.bytes, bytes.offset, bytes.length);
+        for (int dim = 0; dim < vector.length; dim++) {
+            vector[dim] = byteBuffer.getFloat();
+        }
+        return indexVersion.onOrAfter(Version.V_7_5_0)
+            ? VectorEncoderDecoder.decodeVectorMagnitude(indexVersion, bytes)
+            : magnitude(vector);
+    }
+
+    /**
+     * Vectors that are held in memory, used to build graphs.
+     */
+    static final class InMemory extends KnnVectorValues {
+
+        private final float[][] vectors;
+        private final float[] magnitudes;
+
+        InMemory(float[][] vectors) {
+            this.vectors = vectors;
+            this.magnitudes = new float[vectors.length];
+            for (int i = 0; i < vectors.length; i++) {
+                magnitudes[i] = magnitude(vectors[i]);
+            }
+        }
+
+        @Override
+        float[] vector(int ord) {
+            return vectors[ord];
+        }
+
+        @Override
+        float magnitude(int ord) {
+            return magnitudes[ord];
+        }
+    }
+
+    /**
+     * Vectors that are read from the binary doc values of a segment.
+     */
+    static final class FromDocValues extends KnnVectorValues {
+
+        private final LeafReader reader;
+        private final String field;
+        private final Version indexVersion;
+        private final int[] docs;
+        private final float[] vector;
+        private BinaryDocValues values;
+        private int lastOrd = -1;
+        private float lastMagnitude;
+
+        FromDocValues(LeafReader reader, String field, Version indexVersion, int dims, int[] docs) {
+            this.reader = reader;
+            this.field = field;
+            this.indexVersion = indexVersion;
+            this.docs = docs;
+            this.vector = new float[dims];
+        }
+
+        @Override
+        float[] vector(int ord) throws IOException {
+            final int doc = docs[ord];
+            if (values == null || values.docID() > doc) {
+                // doc values can only be iterated forward, but pulling a new iterator is cheap
+                values = DocValues.getBinary(reader, field);
+            }
+            if (values.advanceExact(doc) == false) {
+                throw new IllegalStateException("Document [" + doc + "] has no value for vector field [" + field + "]");
+            }
+            lastOrd = ord;
+            lastMagnitude = decode(values.binaryValue(), indexVersion, vector);
+            return vector;
+        }
+
+        @Override
+        float magnitude(int ord) {
+            assert ord == lastOrd : "magnitude of [" + ord + "] requested but last vector was [" + lastOrd + "]";
+            return lastMagnitude;
+        }
+    }
+}
@@ -0,0 +1,105 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License;
+ * you may not use this file except in compliance with the Elastic License.
+ */
+
+package org.elasticsearch.xpack.vectors.query;
+
+import org.apache.lucene.util.ArrayUtil;
+import org.apache.lucene.util.NumericUtils;
+
+/**
+ * A priority queue of graph nodes and their similarities to a query vector. Each entry is encoded in a single long
+ * whose upper half is the sortable representation of the similarity and whose lower half is the node.
+ */
+final class NeighborQueue {
+
+    private final boolean mostSimilarFirst;
+    private long[] heap;
+    private int size;
+
+    /**
+     * @param mostSimilarFirst whether the top of the queue is the most similar node, or the least similar one
+     */
+    NeighborQueue(int initialSize, boolean mostSimilarFirst) {
+        this.heap = new long[Math.max(1, initialSize)];
+        this.mostSimilarFirst = mostSimilarFirst;
+    }
+
+    int size() {
+        return size;
+    }
+
+    void add(int node, float similarity) {
+        long encoded = ((long) NumericUtils.floatToSortableInt(similarity) << 32) | (node & 0xFFFFFFFFL);
+        if (mostSimilarFirst) {
+            // reverses the order so that the min-heap returns the highest similarity first
+            encoded = ~encoded;
+        }
+        if (size == heap.length) {
+            heap = ArrayUtil.grow(heap, size + 1);
+        }
+        heap[size] = encoded;
+        siftUp(size++);
+    }
+
+    int topNode() {
+        assert size > 0;
+        return (int) decode(heap[0]);
+    }
+
+    float topSimilarity() {
+        assert size > 0;
+        return NumericUtils.sortableIntToFloat((int) (decode(heap[0]) >> 32));
+    }
+
+    /**
+     * Removes the top of the queue and returns its node.
+     */
+    int pop() {
+        assert size > 0;
+        final int node = topNode();
+        heap[0] = heap[--size];
+        if (size > 0) {
+            siftDown(0);
+        }
+        return node;
+    }
+
+    private long decode(long encoded) {
+        return mostSimilarFirst ? ~encoded : encoded;
+    }
+
+    private void siftUp(int i) {
+        final long value = heap[i];
+        while (i > 0) {
+            final int parent = (i - 1) >>> 1;
+            if (heap[parent] <= value) {
+                break;
+            }
+            heap[i] = heap[parent];
+            i = parent;
+        }
+        heap[i] = value;
+    }
+
+    private void siftDown(int i) {
+        final long value = heap[i];
+        while (true) {
+            int child = (i << 1) + 1;
+            if (child >= size) {
+                break;
+            }
+            if (child + 1 < size && heap[child + 1] < heap[child]) {
+                child++;
+            }
+            if (heap[child] >= value) {
+                break;
+            }
+            heap[i] = heap[child];
+            i = child;
+        }
+        heap[i] = value;
+    }
+}
@@ -7,9 +7,12 @@
 
 package org.elasticsearch.xpack.vectors.query;
 
+import org.apache.lucene.index.DirectoryReader;
 import org.apache.lucene.index.LeafReaderContext;
 import org.apache.lucene.search.SortField;
+import org.elasticsearch.Version;
 import org.elasticsearch.common.Nullable;
+import org.elasticsearch.common.breaker.CircuitBreaker;
 import org.elasticsearch.index.Index;
 import org.elasticsearch.index.IndexSettings;
 import org.elasticsearch.index.fielddata.IndexFieldData;
@@ -22,10 +25,65 @@ import org.elasticsearch.indices.breaker.CircuitBreakerService;
 import org.elasticsearch.search.MultiValueMode;
 
 
-public class VectorDVIndexFieldData extends DocValuesIndexFieldData implements IndexFieldData<VectorDVAtomicFieldData> {
+public class VectorDVIndexFieldData extends DocValuesIndexFieldData implements IndexFieldData.Global<VectorDVAtomicFieldData> {
+
+    private final Version indexVersion;
+    private final int dims;
+    private final VectorSimilarity similarity;
+    @Nullable
+    private final HnswGraphIndexFieldData graphs;
 
     public VectorDVIndexFieldData(Index index, String fieldName) {
+        this(index, fieldName, Version.CURRENT, 0, VectorSimilarity.COSINE, null);
+    }
+
+    VectorDVIndexFieldData(Index index, String fieldName, Version indexVersion, int dims, VectorSimilarity similarity,
+                           @Nullable HnswGraphIndexFieldData graphs) {
         super(index, fieldName);
+        this.indexVersion = indexVersion;
+        this.dims = dims;
+        this.similarity = similarity;
+        this.graphs = graphs;
+    }
+
+    Version indexVersion() {
+        return indexVersion;
+    }
+
+    int dims() {
+        return dims;
+    }
+
+    VectorSimilarity similarity() {
+        return similarity;
+    }
+
+    /**
+     * Returns the graph of the vectors of the segment, or {@code null} if the field is not indexed for knn search or if
+     * the segment can't be cached.
+     */
+    @Nullable
+    HnswGraphAtomicFieldData loadGraph(LeafReaderContext context) {
+        return graphs == null ? null : graphs.load(context);
+    }
+
+    /**
+     * Vectors are not global, but loading them globally builds the graphs of all segments so that the warmer builds them
+     * before knn queries need them.
+     */
+    @Override
+    public VectorDVIndexFieldData loadGlobal(DirectoryReader indexReader) {
+        if (graphs != null) {
+            for (LeafReaderContext context : indexReader.leaves()) {
+                graphs.load(context);
+            }
+        }
+        return this;
+    }
+
+    @Override
+    public VectorDVIndexFieldData localGlobalDirect(DirectoryReader indexReader) {
+        return loadGlobal(indexReader);
     }
 
     @Override
@@ -45,11 +103,33 @@ public class VectorDVIndexFieldData extends DocValuesIndexFieldData implements I
 
     public static class Builder implements IndexFieldData.Builder {
 
+        private final int dims;
+        private final VectorSimilarity similarity;
+        private final boolean knn;
+
+        public Builder() {
+            this(0, VectorSimilarity.COSINE, false);
+        }
+
+        /**
+         * @param knn whether to build graphs of the vectors of each segment for approximate knn search
+         */
+        public Builder(int dims, VectorSimilarity similarity, boolean knn) {
+            this.dims = dims;
+            this.similarity = similarity;
+            this.knn = knn;
+        }
+
         @Override
         public IndexFieldData<?> build(IndexSettings indexSettings, MappedFieldType fieldType, IndexFieldDataCache cache,
                                        CircuitBreakerService breakerService, MapperService mapperService) {
             final String fieldName = fieldType.name();
-            return new VectorDVIndexFieldData(indexSettings.getIndex(), fieldName);
+            final HnswGraphIndexFieldData graphs = knn
+                ? new HnswGraphIndexFieldData(indexSettings.getIndex(), fieldName, cache,
+                    breakerService.getBreaker(CircuitBreaker.FIELDDATA), indexSettings.getIndexVersionCreated(), dims, similarity)
+                : null;
+            return new VectorDVIndexFieldData(indexSettings.getIndex(), fieldName, indexSettings.getIndexVersionCreated(), dims,
+                similarity, graphs);
         }
 
     }
@@ -0,0 +1,91 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License;
+ * you may not use this file except in compliance with the Elastic License.
+ */
+
+package org.elasticsearch.xpack.vectors.query;
+
+import java.util.Locale;
+
+/**
+ * The similarity functions that can be used to find the nearest neighbors of a vector. Similarities are higher for
+ * vectors that are closer to each other and are converted to non-negative scores with {@link #score(float)}.
+ */
+public enum VectorSimilarity {
+    COSINE {
+        @Override
+        public float similarity(float[] a, float aMagnitude, float[] b, float bMagnitude) {
+            if (aMagnitude == 0 || bMagnitude == 0) {
+                return 0;
+            }
+            return dotProduct(a, b) / (aMagnitude * bMagnitude);
+        }
+
+        @Override
+        public float score(float similarity) {
+            return (1 + similarity) / 2;
+        }
+    },
+    /**
+     * The dot product of the vectors, which is equivalent to the cosine similarity but cheaper to compute for unit
+     * vectors. Scores are clamped to 0 for vectors that are not unit vectors and whose dot product is lower than -1.
+     */
+    DOT_PRODUCT {
+        @Override
+        public float similarity(float[] a, float aMagnitude, float[] b, float bMagnitude) {
+            return dotProduct(a, b);
+        }
+
+        @Override
+        public float score(float similarity) {
+            return Math.max(0, (1 + similarity) / 2);
+        }
+    },
+    /**
+     * The negated squared euclidean distance between the vectors.
+     */
+    L2_NORM {
+        @Override
+        public float similarity(float[] a, float aMagnitude, float[] b, float bMagnitude) {
+            float squaredDistance = 0;
+            for (int i = 0; i < a.length; i++) {
+                float diff = a[i] - b[i];
+                squaredDistance += diff * diff;
+            }
+            return -squaredDistance;
+        }
+
+        @Override
+        public float score(float similarity) {
+            return 1 / (1 - similarity);
+        }
+    };
+
+    /**
+     * Returns the similarity of two vectors of the same length given their magnitudes.
+     */
+    public abstract float similarity(float[] a, float aMagnitude, float[] b, float bMagnitude);
+
+    /**
+     * Converts a similarity returned by {@link #similarity} to a score.
+     */
+    public abstract float score(float similarity);
+
+    private static float dotProduct(float[] a, float[] b) {
+        float dotProduct = 0;
+        for (int i = 0; i < a.length; i++) {
+            dotProduct += a[i] * b[i];
+        }
+        return dotProduct;
+    }
+
+    public static VectorSimilarity fromString(String name) {
+        return valueOf(name.toUpperCase(Locale.ROOT));
+    }
+
+    @Override
+    public String toString() {
+        return name().toLowerCase(Locale.ROOT);
+    }
+}
@@ -28,6 +28,7 @@ import org.elasticsearch.plugins.Plugin;
 import org.elasticsearch.test.ESSingleNodeTestCase;
 import org.elasticsearch.xpack.core.LocalStateCompositeXPackPlugin;
 import org.elasticsearch.xpack.vectors.Vectors;
+import org.elasticsearch.xpack.vectors.query.VectorSimilarity;
 
 import java.io.IOException;
 import java.nio.ByteBuffer;
@@ -187,4 +188,41 @@ public class DenseVectorFieldMapperTests extends ESSingleNodeTestCase {
             new SourceToParse("test-index", "2", invalidDoc2, XContentType.JSON)));
         assertThat(e2.getCause().getMessage(), containsString("has number of dimensions [2] less than defined in the mapping [3]"));
     }
+
+    public void testKnnParameters() throws Exception {
+        IndexService indexService = createIndex("test-index");
+        DocumentMapperParser parser = indexService.mapperService().documentMapperParser();
+        String mapping = Strings.toString(XContentFactory.jsonBuilder()
+            .startObject()
+            .startObject("_doc")
+            .startObject("properties")
+            .startObject("my-dense-vector").field("type", "dense_vector").field("dims", 3)
+            .field("knn", true).field("knn_similarity", "l2_norm")
+            .endObject()
+            .endObject()
+            .endObject()
+            .endObject());
+        DocumentMapper mapper = parser.parse("_doc", new CompressedXContent(mapping));
+        DenseVectorFieldMapper fieldMapper = (DenseVectorFieldMapper) mapper.mappers().getMapper("my-dense-vector");
+        assertTrue(fieldMapper.fieldType().knn());
+        assertEquals(VectorSimilarity.L2_NORM, fieldMapper.fieldType().knnSimilarity());
+        assertEquals(mapping, mapper.mappingSource().toString());
+    }
+
+    public void testInvalidKnnSimilarity() throws Exception {
+        IndexService indexService = createIndex("test-index");
+        DocumentMapperParser parser = indexService.mapperService().documentMapperParser();
+        String mapping = Strings.toString(XContentFactory.jsonBuilder()
+            .startObject()
+            .startObject("_doc")
+            .startObject("properties")
+            .startObject("my-dense-vector").field("type", "dense_vector").field("dims", 3)
+            .field("knn", true).field("knn_similarity", "manhattan")
+            .endObject()
+            .endObject()
+            .endObject()
+            .endObject());
+        MapperParsingException e = expectThrows(MapperParsingException.class, () -> parser.parse("_doc", new CompressedXContent(mapping)));
+        assertThat(e.getMessage(), containsString("Unknown [knn_similarity] [manhattan] for field [my-dense-vector]"));
+    }
 }
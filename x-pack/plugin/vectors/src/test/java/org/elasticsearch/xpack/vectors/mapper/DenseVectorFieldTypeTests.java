@@ -9,6 +9,8 @@ package org.elasticsearch.xpack.vectors.mapper;
 
 import org.elasticsearch.index.mapper.FieldTypeTestCase;
 import org.elasticsearch.index.mapper.MappedFieldType;
+import org.elasticsearch.xpack.vectors.query.VectorSimilarity;
+import org.junit.Before;
 
 public class DenseVectorFieldTypeTests extends FieldTypeTestCase {
 
@@ -16,4 +18,29 @@ public class DenseVectorFieldTypeTests extends FieldTypeTestCase {
     protected MappedFieldType createDefaultFieldType() {
         return new DenseVectorFieldMapper.DenseVectorFieldType();
     }
+
+    @Before
+    public void setupProperties() {
+        addModifier(new Modifier("knn", false) {
+            @Override
+            public void modify(MappedFieldType ft) {
+                ((DenseVectorFieldMapper.DenseVectorFieldType) ft).setKnn(true);
+            }
+        });
+        addModifier(new Modifier("knn_similarity", false) {
+            @Override
+            public void modify(MappedFieldType ft) {
+                ((DenseVectorFieldMapper.DenseVectorFieldType) ft).setKnnSimilarity(VectorSimilarity.L2_NORM);
+            }
+        });
+    }
+
+    public void testGraphsAreBuiltEagerly() {
+        DenseVectorFieldMapper.DenseVectorFieldType ft = new DenseVectorFieldMapper.DenseVectorFieldType();
+        assertFalse(ft.eagerGlobalFieldData());
+        ft.setKnn(true);
+        assertTrue(ft.eagerGlobalFieldData());
+        // the graphs are warmed without enabling global ordinals, which dense_vector fields don't support
+        assertFalse(ft.eagerGlobalOrdinals());
+    }
 }
@@ -0,0 +1,135 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License;
+ * you may not use this file except in compliance with the Elastic License.
+ */
+
+package org.elasticsearch.xpack.vectors.query;
+
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.util.FixedBitSet;
+import org.elasticsearch.test.ESTestCase;
+
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.Set;
+
+public class HnswGraphTests extends ESTestCase {
+
+    public void testRecall() throws IOException {
+        final VectorSimilarity similarity = randomFrom(VectorSimilarity.values());
+        final int numVectors = randomIntBetween(500, 2000);
+        final int dims = randomIntBetween(2, 32);
+        final float[][] vectors = randomVectors(numVectors, dims, similarity);
+        final int[] docs = new int[numVectors];
+        for (int i = 0; i < numVectors; i++) {
+            docs[i] = i * 2;
+        }
+        final KnnVectorValues values = new KnnVectorValues.InMemory(vectors);
+        final HnswGraph graph = HnswGraph.build(similarity, docs, values, HnswGraph.DEFAULT_MAX_CONNECTIONS,
+            HnswGraph.DEFAULT_BEAM_WIDTH, randomLong());
+        assertEquals(numVectors, graph.size());
+
+        final int k = 10;
+        final int numQueries = 50;
+        int matches = 0;
+        for (int i = 0; i < numQueries; i++) {
+            final float[] query = randomVectors(1, dims, similarity)[0];
+            final ScoreDoc[] hits = graph.search(query, k, 100, values, null);
+            assertEquals(k, hits.length);
+            for (int j = 1; j < hits.length; j++) {
+                assertTrue(hits[j - 1].score >= hits[j].score);
+            }
+            final Set<Integer> expected = exactTopDocs(similarity, query, vectors, docs, k);
+            for (ScoreDoc hit : hits) {
+                if (expected.contains(hit.doc)) {
+                    matches++;
+                }
+            }
+        }
+        final double recall = (double) matches / (numQueries * k);
+        assertTrue("recall was [" + recall + "]", recall >= 0.9);
+    }
+
+    public void testMaxConnections() throws IOException {
+        final int numVectors = randomIntBetween(100, 500);
+        final int maxConnections = randomIntBetween(2, 8);
+        final float[][] vectors = randomVectors(numVectors, 8, VectorSimilarity.L2_NORM);
+        final int[] docs = new int[numVectors];
+        for (int i = 0; i < numVectors; i++) {
+            docs[i] = i;
+        }
+        final HnswGraph graph = HnswGraph.build(VectorSimilarity.L2_NORM, docs, new KnnVectorValues.InMemory(vectors), maxConnections,
+            randomIntBetween(10, 50), randomLong());
+        for (int ord = 0; ord < numVectors; ord++) {
+            final int[] neighbors = graph.neighbors(ord, 0);
+            assertTrue(neighbors.length <= 2 * maxConnections);
+            if (numVectors > 1) {
+                assertTrue("node [" + ord + "] has no neighbors", neighbors.length > 0);
+            }
+            for (int neighbor : neighbors) {
+                assertNotEquals(ord, neighbor);
+            }
+        }
+        assertTrue(graph.ramBytesUsed() > 0);
+    }
+
+    public void testAcceptDocs() throws IOException {
+        final int numVectors = randomIntBetween(100, 500);
+        final float[][] vectors = randomVectors(numVectors, 4, VectorSimilarity.COSINE);
+        final int[] docs = new int[numVectors];
+        final FixedBitSet acceptDocs = new FixedBitSet(numVectors);
+        for (int i = 0; i < numVectors; i++) {
+            docs[i] = i;
+            if (randomBoolean()) {
+                acceptDocs.set(i);
+            }
+        }
+        final KnnVectorValues values = new KnnVectorValues.InMemory(vectors);
+        final HnswGraph graph = HnswGraph.build(VectorSimilarity.COSINE, docs, values, HnswGraph.DEFAULT_MAX_CONNECTIONS,
+            HnswGraph.DEFAULT_BEAM_WIDTH, randomLong());
+        for (ScoreDoc hit : graph.search(randomVectors(1, 4, VectorSimilarity.COSINE)[0], 10, 100, values, acceptDocs)) {
+            assertTrue(acceptDocs.get(hit.doc));
+        }
+    }
+
+    public void testEmptyGraph() throws IOException {
+        final KnnVectorValues values = new KnnVectorValues.InMemory(new float[0][]);
+        final HnswGraph graph = HnswGraph.build(VectorSimilarity.COSINE, new int[0], values, HnswGraph.DEFAULT_MAX_CONNECTIONS,
+            HnswGraph.DEFAULT_BEAM_WIDTH, randomLong());
+        assertEquals(0, graph.search(new float[] { 1, 2 }, 10, 100, values, null).length);
+    }
+
+    static float[][] randomVectors(int numVectors, int dims, VectorSimilarity similarity) {
+        final float[][] vectors = new float[numVectors][dims];
+        for (float[] vector : vectors) {
+            for (int dim = 0; dim < dims; dim++) {
+                vector[dim] = randomFloat() * 2 - 1;
+            }
+            if (similarity == VectorSimilarity.DOT_PRODUCT) {
+                // the dot product is only meaningful for unit vectors
+                final float magnitude = KnnVectorValues.magnitude(vector);
+                for (int dim = 0; dim < dims; dim++) {
+                    vector[dim] /= magnitude;
+                }
+            }
+        }
+        return vectors;
+    }
+
+    static Set<Integer> exactTopDocs(VectorSimilarity similarity, float[] query, float[][] vectors, int[] docs, int k) {
+        final NeighborQueue queue = new NeighborQueue(k, false);
+        final float queryMagnitude = KnnVectorValues.magnitude(query);
+        for (int ord = 0; ord < vectors.length; ord++) {
+            queue.add(docs[ord], similarity.similarity(query, queryMagnitude, vectors[ord], KnnVectorValues.magnitude(vectors[ord])));
+            if (queue.size() > k) {
+                queue.pop();
+            }
+        }
+        final Set<Integer> topDocs = new HashSet<>();
+        while (queue.size() > 0) {
+            topDocs.add(queue.pop());
+        }
+        return topDocs;
+    }
+}
@@ -0,0 +1,116 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License;
+ * you may not use this file except in compliance with the Elastic License.
+ */
+
+package org.elasticsearch.xpack.vectors.query;
+
+import org.apache.lucene.search.MatchNoDocsQuery;
+import org.apache.lucene.search.Query;
+import org.elasticsearch.action.admin.indices.mapping.put.PutMappingRequest;
+import org.elasticsearch.common.ParsingException;
+import org.elasticsearch.common.Strings;
+import org.elasticsearch.common.compress.CompressedXContent;
+import org.elasticsearch.index.mapper.MapperService;
+import org.elasticsearch.index.query.QueryShardContext;
+import org.elasticsearch.plugins.Plugin;
+import org.elasticsearch.test.AbstractQueryTestCase;
+import org.elasticsearch.xpack.vectors.Vectors;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.Collections;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.instanceOf;
+
+public class KnnVectorQueryBuilderTests extends AbstractQueryTestCase<KnnVectorQueryBuilder> {
+
+    private static final String VECTOR_FIELD_NAME = "vector";
+    private static final int VECTOR_DIMS = 4;
+
+    @Override
+    protected Collection<Class<? extends Plugin>> getPlugins() {
+        return Collections.singleton(Vectors.class);
+    }
+
+    @Override
+    protected void initializeAdditionalMappings(MapperService mapperService) throws IOException {
+        mapperService.merge("_doc", new CompressedXContent(Strings.toString(PutMappingRequest.simpleMapping(
+            VECTOR_FIELD_NAME, "type=dense_vector", "dims=" + VECTOR_DIMS, "knn=true"))), MapperService.MergeReason.MAPPING_UPDATE);
+    }
+
+    @Override
+    protected KnnVectorQueryBuilder doCreateTestQueryBuilder() {
+        float[] queryVector = new float[VECTOR_DIMS];
+        for (int i = 0; i < queryVector.length; i++) {
+            queryVector[i] = randomFloat();
+        }
+        int k = randomIntBetween(1, 100);
+        return new KnnVectorQueryBuilder(VECTOR_FIELD_NAME, queryVector, k, randomIntBetween(k, 1000));
+    }
+
+    @Override
+    protected void doAssertLuceneQuery(KnnVectorQueryBuilder queryBuilder, Query query, QueryShardContext context) {
+        assertThat(query, instanceOf(KnnVectorQuery.class));
+    }
+
+    public void testIllegalArguments() {
+        float[] queryVector = new float[] { 1, 2, 3, 4 };
+        expectThrows(IllegalArgumentException.class, () -> new KnnVectorQueryBuilder(null, queryVector));
+        expectThrows(IllegalArgumentException.class, () -> new KnnVectorQueryBuilder(VECTOR_FIELD_NAME, null));
+        expectThrows(IllegalArgumentException.class, () -> new KnnVectorQueryBuilder(VECTOR_FIELD_NAME, queryVector, 0, 10));
+        IllegalArgumentException e = expectThrows(IllegalArgumentException.class,
+            () -> new KnnVectorQueryBuilder(VECTOR_FIELD_NAME, queryVector, 10, 5));
+        assertThat(e.getMessage(), containsString("[num_candidates] must be greater than or equal to [k]"));
+        expectThrows(IllegalArgumentException.class,
+            () -> new KnnVectorQueryBuilder(VECTOR_FIELD_NAME, queryVector, 10, KnnVectorQueryBuilder.MAX_NUM_CANDIDATES + 1));
+    }
+
+    public void testWrongDimensions() throws IOException {
+        KnnVectorQueryBuilder queryBuilder = new KnnVectorQueryBuilder(VECTOR_FIELD_NAME, new float[] { 1, 2 });
+        IllegalArgumentException e = expectThrows(IllegalArgumentException.class, () -> queryBuilder.toQuery(createShardContext()));
+        assertThat(e.getMessage(), containsString("query vector has [2] dimensions, but field [vector] has [4]"));
+    }
+
+    public void testWrongFieldType() throws IOException {
+        KnnVectorQueryBuilder queryBuilder = new KnnVectorQueryBuilder(STRING_FIELD_NAME, new float[] { 1, 2, 3, 4 });
+        IllegalArgumentException e = expectThrows(IllegalArgumentException.class, () -> queryBuilder.toQuery(createShardContext()));
+        assertThat(e.getMessage(), containsString("are only supported on [dense_vector] fields"));
+    }
+
+    public void testUnmappedField() throws IOException {
+        KnnVectorQueryBuilder queryBuilder = new KnnVectorQueryBuilder("unmapped", new float[] { 1, 2, 3, 4 });
+        assertThat(queryBuilder.toQuery(createShardContext()), instanceOf(MatchNoDocsQuery.class));
+    }
+
+    public void testFromJson() throws IOException {
+        String json =
+            "{\n" +
+            "  \"knn\" : {\n" +
+            "    \"field\" : \"vector\",\n" +
+            "    \"query_vector\" : [ 1.0, 2.0, 3.0, 4.0 ],\n" +
+            "    \"k\" : 5,\n" +
+            "    \"num_candidates\" : 50,\n" +
+            "    \"boost\" : 1.0\n" +
+            "  }\n" +
+            "}";
+        KnnVectorQueryBuilder queryBuilder = (KnnVectorQueryBuilder) parseQuery(json);
+        checkGeneratedJson(json, queryBuilder);
+        assertEquals(5, queryBuilder.k());
+        assertEquals(50, queryBuilder.numCandidates());
+    }
+
+    public void testDefaultNumCandidates() throws IOException {
+        String json = "{ \"knn\" : { \"field\" : \"vector\", \"query_vector\" : [ 1.0, 2.0, 3.0, 4.0 ], \"k\" : 200 } }";
+        KnnVectorQueryBuilder queryBuilder = (KnnVectorQueryBuilder) parseQuery(json);
+        assertEquals(200, queryBuilder.k());
+        assertEquals(200, queryBuilder.numCandidates());
+    }
+
+    public void testMissingQueryVector() {
+        String json = "{ \"knn\" : { \"field\" : \"vector\" } }";
+        expectThrows(ParsingException.class, () -> parseQuery(json));
+    }
+}
@@ -0,0 +1,191 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License;
+ * you may not use this file except in compliance with the Elastic License.
+ */
+
+package org.elasticsearch.xpack.vectors.query;
+
+import org.apache.lucene.document.BinaryDocValuesField;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.MatchNoDocsQuery;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.util.BytesRef;
+import org.elasticsearch.Version;
+import org.elasticsearch.common.breaker.NoopCircuitBreaker;
+import org.elasticsearch.index.Index;
+import org.elasticsearch.index.fielddata.IndexFieldDataCache;
+import org.elasticsearch.test.ESTestCase;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.hamcrest.Matchers.instanceOf;
+
+public class KnnVectorQueryTests extends ESTestCase {
+
+    private static final String FIELD = "vector";
+
+    public void testApproximateMatchesExact() throws IOException {
+        final VectorSimilarity similarity = randomFrom(VectorSimilarity.values());
+        final int dims = randomIntBetween(2, 16);
+        final int numDocs = randomIntBetween(200, 1000);
+        final float[][] vectors = HnswGraphTests.randomVectors(numDocs, dims, similarity);
+        try (Directory dir = newDirectory()) {
+            indexVectors(dir, vectors);
+            try (IndexReader reader = DirectoryReader.open(dir)) {
+                final IndexSearcher searcher = newSearcher(reader, false, false);
+                final Index index = new Index("test", "_na_");
+                final VectorDVIndexFieldData exact = new VectorDVIndexFieldData(index, FIELD, Version.CURRENT, dims, similarity, null);
+                final VectorDVIndexFieldData approximate = new VectorDVIndexFieldData(index, FIELD, Version.CURRENT, dims, similarity,
+                    new HnswGraphIndexFieldData(index, FIELD, new IndexFieldDataCache.None(), new NoopCircuitBreaker("fielddata"),
+                        Version.CURRENT, dims, similarity));
+
+                final int k = 10;
+                int matches = 0;
+                final int numQueries = 20;
+                for (int i = 0; i < numQueries; i++) {
+                    final float[] queryVector = HnswGraphTests.randomVectors(1, dims, similarity)[0];
+                    final TopDocs exactHits = searcher.search(new KnnVectorQuery(exact, queryVector, k, 100), k);
+                    final TopDocs approximateHits = searcher.search(new KnnVectorQuery(approximate, queryVector, k, 100), k);
+                    assertEquals(k, exactHits.scoreDocs.length);
+                    assertEquals(k, approximateHits.scoreDocs.length);
+                    final Set<Integer> expected = new HashSet<>();
+                    for (ScoreDoc hit : exactHits.scoreDocs) {
+                        expected.add(hit.doc);
+                    }
+                    for (ScoreDoc hit : approximateHits.scoreDocs) {
+                        if (expected.contains(hit.doc)) {
+                            matches++;
+                        }
+                    }
+                }
+                final double recall = (double) matches / (numQueries * k);
+                assertTrue("recall was [" + recall + "]", recall >= 0.9);
+            }
+        }
+    }
+
+    public void testExactScores() throws IOException {
+        final float[][] vectors = new float[][] { { 1, 0 }, { 0, 1 }, { -1, 0 }, { 1, 1 } };
+        try (Directory dir = newDirectory()) {
+            indexVectors(dir, vectors);
+            try (IndexReader reader = DirectoryReader.open(dir)) {
+                final IndexSearcher searcher = newSearcher(reader, false, false);
+                final VectorDVIndexFieldData fieldData = new VectorDVIndexFieldData(new Index("test", "_na_"), FIELD, Version.CURRENT, 2,
+                    VectorSimilarity.COSINE, null);
+                final TopDocs hits = searcher.search(new KnnVectorQuery(fieldData, new float[] { 1, 0 }, 2, 10), 10);
+                assertEquals(2, hits.scoreDocs.length);
+                assertEquals(0, hits.scoreDocs[0].doc);
+                assertEquals(1f, hits.scoreDocs[0].score, 1e-6);
+                assertEquals(3, hits.scoreDocs[1].doc);
+                assertEquals((1 + (float) Math.sqrt(0.5)) / 2, hits.scoreDocs[1].score, 1e-6);
+            }
+        }
+    }
+
+    public void testDeletedDocs() throws IOException {
+        final int dims = 4;
+        final float[][] vectors = HnswGraphTests.randomVectors(randomIntBetween(100, 300), dims, VectorSimilarity.L2_NORM);
+        try (Directory dir = newDirectory()) {
+            indexVectors(dir, vectors);
+            try (IndexWriter writer = new IndexWriter(dir, newIndexWriterConfig())) {
+                for (int i = 0; i < vectors.length; i += 2) {
+                    writer.deleteDocuments(new Term("id", Integer.toString(i)));
+                }
+            }
+            try (IndexReader reader = DirectoryReader.open(dir)) {
+                final IndexSearcher searcher = newSearcher(reader, false, false);
+                final Index index = new Index("test", "_na_");
+                final VectorDVIndexFieldData fieldData = new VectorDVIndexFieldData(index, FIELD, Version.CURRENT, dims,
+                    VectorSimilarity.L2_NORM, randomBoolean() ? null : new HnswGraphIndexFieldData(index, FIELD,
+                    new IndexFieldDataCache.None(), new NoopCircuitBreaker("fielddata"), Version.CURRENT, dims, VectorSimilarity.L2_NORM));
+                final TopDocs hits = searcher.search(new KnnVectorQuery(fieldData, vectors[0], 10, 100), 10);
+                assertTrue(hits.scoreDocs.length > 0);
+                for (ScoreDoc hit : hits.scoreDocs) {
+                    assertEquals(1, Integer.parseInt(searcher.doc(hit.doc).get("id")) % 2);
+                }
+            }
+        }
+    }
+
+    public void testRewrittenAgainstOtherReader() throws IOException {
+        final int dims = 4;
+        final float[][] vectors = HnswGraphTests.randomVectors(randomIntBetween(100, 300), dims, VectorSimilarity.L2_NORM);
+        try (Directory dir = newDirectory()) {
+            indexVectors(dir, vectors);
+            final VectorDVIndexFieldData fieldData = new VectorDVIndexFieldData(new Index("test", "_na_"), FIELD, Version.CURRENT,
+                dims, VectorSimilarity.L2_NORM, null);
+            final Query query = new KnnVectorQuery(fieldData, vectors[0], 10, 100);
+            final Query rewritten;
+            try (IndexReader reader = DirectoryReader.open(dir)) {
+                rewritten = query.rewrite(reader);
+                assertThat(rewritten, instanceOf(KnnScoreDocQuery.class));
+            }
+            try (IndexWriter writer = new IndexWriter(dir, newIndexWriterConfig())) {
+                writer.deleteDocuments(new Term("id", "0"));
+            }
+            try (IndexReader reader = DirectoryReader.open(dir)) {
+                // the doc ids of the rewritten query don't apply to this reader, the query must be run again
+                final IndexSearcher searcher = newSearcher(reader, false, false);
+                final TopDocs expected = searcher.search(query, 10);
+                final TopDocs hits = searcher.search(rewritten, 10);
+                assertEquals(expected.scoreDocs.length, hits.scoreDocs.length);
+                for (int i = 0; i < hits.scoreDocs.length; i++) {
+                    assertEquals(expected.scoreDocs[i].doc, hits.scoreDocs[i].doc);
+                    assertNotEquals("0", searcher.doc(hits.scoreDocs[i].doc).get("id"));
+                }
+            }
+        }
+    }
+
+    public void testNoVectors() throws IOException {
+        try (Directory dir = newDirectory()) {
+            try (IndexWriter writer = new IndexWriter(dir, newIndexWriterConfig())) {
+                writer.addDocument(new Document());
+            }
+            try (IndexReader reader = DirectoryReader.open(dir)) {
+                final VectorDVIndexFieldData fieldData = new VectorDVIndexFieldData(new Index("test", "_na_"), FIELD, Version.CURRENT, 2,
+                    VectorSimilarity.COSINE, null);
+                final Query rewritten = new KnnVectorQuery(fieldData, new float[] { 1, 0 }, 2, 10).rewrite(reader);
+                assertThat(rewritten, instanceOf(MatchNoDocsQuery.class));
+            }
+        }
+    }
+
+    private static void indexVectors(Directory dir, float[][] vectors) throws IOException {
+        final IndexWriterConfig config = newIndexWriterConfig();
+        // several segments to exercise merging the hits of different segments
+        config.setMaxBufferedDocs(randomIntBetween(50, 500));
+        try (IndexWriter writer = new IndexWriter(dir, config)) {
+            for (int i = 0; i < vectors.length; i++) {
+                final Document doc = new Document();
+                doc.add(new StringField("id", Integer.toString(i), Field.Store.YES));
+                doc.add(new BinaryDocValuesField(FIELD, encode(vectors[i])));
+                writer.addDocument(doc);
+            }
+        }
+    }
+
+    private static BytesRef encode(float[] vector) {
+        final ByteBuffer byteBuffer = ByteBuffer.allocate((vector.length + 1) * Float.BYTES);
+        for (float value : vector) {
+            byteBuffer.putFloat(value);
+        }
+        byteBuffer.putFloat(KnnVectorValues.magnitude(vector));
+        return new BytesRef(byteBuffer.array());
+    }
+}
@@ -171,6 +171,7 @@ import org.elasticsearch.xpack.watcher.trigger.schedule.ScheduleRegistry;
 import org.elasticsearch.xpack.watcher.trigger.schedule.WeeklySchedule;
 import org.elasticsearch.xpack.watcher.trigger.schedule.YearlySchedule;
 import org.elasticsearch.xpack.watcher.trigger.schedule.engine.TickerScheduleTriggerEngine;
+import org.elasticsearch.xpack.watcher.trigger.schedule.engine.TimingWheelScheduleTriggerEngine;
 import org.elasticsearch.xpack.watcher.watch.WatchParser;
 
 import java.io.IOException;
@@ -217,6 +218,16 @@ public class Watcher extends Plugin implements SystemIndexPlugin, ScriptPlugin,
     private static final Setting<ByteSizeValue> SETTING_BULK_SIZE =
         Setting.byteSizeSetting("xpack.watcher.bulk.size", new ByteSizeValue(1, ByteSizeUnit.MB),
             new ByteSizeValue(1, ByteSizeUnit.MB), new ByteSizeValue(10, ByteSizeUnit.MB), NodeScope);
+    public static final Setting<String> SCHEDULE_ENGINE_SETTING =
+        new Setting<>("xpack.watcher.trigger.schedule.engine", "ticker", value -> {
+            switch (value) {
+                case "ticker":
+                case "timing_wheel":
+                    return value;
+                default:
+                    throw new IllegalArgumentException("unknown schedule engine [" + value + "], expected [ticker] or [timing_wheel]");
+            }
+        }, NodeScope);
 
     public static final ScriptContext<TemplateScript.Factory> SCRIPT_TEMPLATE_CONTEXT
         = new ScriptContext<>("xpack_template", TemplateScript.Factory.class);
@@ -427,6 +438,9 @@ public class Watcher extends Plugin implements SystemIndexPlugin, ScriptPlugin,
     }
 
     protected TriggerEngine getTriggerEngine(Clock clock, ScheduleRegistry scheduleRegistry) {
+        if ("timing_wheel".equals(SCHEDULE_ENGINE_SETTING.get(settings))) {
+            return new TimingWheelScheduleTriggerEngine(settings, scheduleRegistry, clock);
+        }
         return new TickerScheduleTriggerEngine(settings, scheduleRegistry, clock);
     }
 
@@ -445,6 +459,9 @@ public class Watcher extends Plugin implements SystemIndexPlugin, ScriptPlugin,
         settings.add(MAX_STOP_TIMEOUT_SETTING);
         settings.add(ExecutionService.DEFAULT_THROTTLE_PERIOD_SETTING);
         settings.add(TickerScheduleTriggerEngine.TICKER_INTERVAL_SETTING);
+        settings.add(SCHEDULE_ENGINE_SETTING);
+        settings.add(TriggeredWatchStore.BULK_MAX_ACTIONS_SETTING);
+        settings.add(TriggeredWatchStore.BULK_CONCURRENT_REQUESTS_SETTING);
         settings.add(Setting.intSetting("xpack.watcher.execution.scroll.size", 0, Setting.Property.NodeScope));
         settings.add(Setting.intSetting("xpack.watcher.watch.scroll.size", 0, Setting.Property.NodeScope));
         settings.add(ENCRYPT_SENSITIVE_DATA_SETTING);
@@ -31,6 +31,7 @@ import org.elasticsearch.xpack.core.watcher.transport.actions.stats.WatcherStats
 
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.stream.Collectors;
 
@@ -68,8 +69,13 @@ public class WatcherUsageTransportAction extends XPackUsageFeatureTransportActio
                         .filter(Objects::nonNull)
                         .collect(Collectors.toList());
                     Counters mergedCounters = Counters.merge(countersPerNode);
-                    WatcherFeatureSetUsage usage =
-                        new WatcherFeatureSetUsage(licenseState.isWatcherAllowed(), true, mergedCounters.toNestedMap());
+                    long maxTriggerLag = r.getNodes()
+                        .stream()
+                        .mapToLong(WatcherStatsResponse.Node::getMaxTriggerLag)
+                        .max()
+                        .orElse(0);
+                    Map<String, Object> stats = WatcherStatsResponse.Node.withMaxTriggerLag(mergedCounters, maxTriggerLag).toNestedMap();
+                    WatcherFeatureSetUsage usage = new WatcherFeatureSetUsage(licenseState.isWatcherAllowed(), true, stats);
                     listener.onResponse(new XPackUsageFeatureResponse(usage));
                 }, listener::onFailure));
             }
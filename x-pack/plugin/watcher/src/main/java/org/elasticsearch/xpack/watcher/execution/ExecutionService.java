@@ -67,6 +67,7 @@ import java.time.Clock;
 import java.time.ZoneOffset;
 import java.time.ZonedDateTime;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
@@ -589,7 +590,7 @@ public class ExecutionService {
             counters.inc("execution.actions." + entry.getKey() + ".total_time_in_ms", entry.getValue().sum());
         }
 
-        return counters;
+        return Counters.merge(Arrays.asList(counters, triggeredWatchStore.stats()));
     }
 
     /**
@@ -7,6 +7,7 @@ package org.elasticsearch.xpack.watcher.execution;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.apache.logging.log4j.message.ParameterizedMessage;
 import org.elasticsearch.action.ActionListener;
 import org.elasticsearch.action.admin.indices.refresh.RefreshRequest;
 import org.elasticsearch.action.bulk.BulkItemResponse;
@@ -24,6 +25,9 @@ import org.elasticsearch.client.Client;
 import org.elasticsearch.cluster.ClusterState;
 import org.elasticsearch.cluster.metadata.IndexMetaData;
 import org.elasticsearch.cluster.routing.Preference;
+import org.elasticsearch.common.metrics.CounterMetric;
+import org.elasticsearch.common.metrics.MeanMetric;
+import org.elasticsearch.common.settings.Setting;
 import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.common.unit.TimeValue;
 import org.elasticsearch.common.xcontent.ToXContent;
@@ -34,23 +38,42 @@ import org.elasticsearch.search.SearchHit;
 import org.elasticsearch.search.builder.SearchSourceBuilder;
 import org.elasticsearch.search.sort.SortBuilders;
 import org.elasticsearch.xpack.core.ClientHelper;
+import org.elasticsearch.xpack.core.watcher.common.stats.Counters;
 import org.elasticsearch.xpack.core.watcher.execution.TriggeredWatchStoreField;
 import org.elasticsearch.xpack.core.watcher.execution.Wid;
 import org.elasticsearch.xpack.core.watcher.watch.Watch;
 import org.elasticsearch.xpack.watcher.watch.WatchStoreUtils;
 
 import java.io.IOException;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Deque;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.stream.Collectors;
 
+import static org.elasticsearch.common.settings.Setting.Property.NodeScope;
 import static org.elasticsearch.xpack.core.ClientHelper.WATCHER_ORIGIN;
 
 public class TriggeredWatchStore {
 
+    /**
+     * The maximum number of triggered watches that are written in a single bulk request. Triggered watches that are stored
+     * concurrently are batched together up to this size, a single {@link #putAll} call is never split across bulk requests.
+     */
+    public static final Setting<Integer> BULK_MAX_ACTIONS_SETTING =
+        Setting.intSetting("xpack.watcher.triggered_watches.bulk.max_actions", 1000, 1, NodeScope);
+    /**
+     * The maximum number of bulk requests that store triggered watches concurrently. Triggered watches that are stored while
+     * this many requests are in flight are queued and sent as a single bulk request once one of them completes.
+     */
+    public static final Setting<Integer> BULK_CONCURRENT_REQUESTS_SETTING =
+        Setting.intSetting("xpack.watcher.triggered_watches.bulk.concurrent_requests", 1, 1, 100, NodeScope);
+
     private static final Logger logger = LogManager.getLogger(TriggeredWatchStore.class);
 
     private final int scrollSize;
@@ -61,6 +84,18 @@ public class TriggeredWatchStore {
     private final TimeValue defaultBulkTimeout;
     private final TimeValue defaultSearchTimeout;
     private final BulkProcessor bulkProcessor;
+    private final int bulkMaxActions;
+    private final int bulkConcurrentRequests;
+
+    private final Object mutex = new Object();
+    // guarded by mutex
+    private final Deque<PendingPut> pendingPuts = new ArrayDeque<>();
+    // guarded by mutex
+    private int inFlightBulks;
+
+    private final CounterMetric putRequests = new CounterMetric();
+    private final MeanMetric bulkRequestTime = new MeanMetric();
+    private final CounterMetric bulkDocuments = new CounterMetric();
 
     public TriggeredWatchStore(Settings settings, Client client, TriggeredWatch.Parser triggeredWatchParser, BulkProcessor bulkProcessor) {
         this.scrollSize = settings.getAsInt("xpack.watcher.execution.scroll.size", 1000);
@@ -70,15 +105,147 @@ public class TriggeredWatchStore {
         this.defaultSearchTimeout = settings.getAsTime("xpack.watcher.internal.ops.search.default_timeout", TimeValue.timeValueSeconds(30));
         this.triggeredWatchParser = triggeredWatchParser;
         this.bulkProcessor = bulkProcessor;
+        this.bulkMaxActions = BULK_MAX_ACTIONS_SETTING.get(settings);
+        this.bulkConcurrentRequests = BULK_CONCURRENT_REQUESTS_SETTING.get(settings);
     }
 
+    /**
+     * Stores the given triggered watches, the listener is notified with a response that contains an item for every triggered watch
+     * in the same order. Triggered watches that are stored concurrently may be written with the same bulk request, in which case
+     * every caller only receives the items for its own triggered watches. A triggered watch must only be executed once its
+     * item succeeded, so that it can be picked up again if the node fails during the execution.
+     */
     public void putAll(final List<TriggeredWatch> triggeredWatches, final ActionListener<BulkResponse> listener) throws IOException {
         if (triggeredWatches.isEmpty()) {
             listener.onResponse(new BulkResponse(new BulkItemResponse[]{}, 0));
             return;
         }
 
-        client.bulk(createBulkRequest(triggeredWatches), listener);
+        PendingPut pendingPut = new PendingPut(createBulkRequest(triggeredWatches), listener);
+        putRequests.inc();
+        final List<PendingPut> batch;
+        synchronized (mutex) {
+            pendingPuts.add(pendingPut);
+            batch = nextBatch();
+        }
+        if (batch != null) {
+            executeBatch(batch);
+        }
+    }
+
+    /**
+     * Takes the next batch of pending puts if another bulk request may be sent, returns {@code null} otherwise
+     */
+    private List<PendingPut> nextBatch() {
+        assert Thread.holdsLock(mutex);
+        if (pendingPuts.isEmpty() || inFlightBulks >= bulkConcurrentRequests) {
+            return null;
+        }
+        List<PendingPut> batch = new ArrayList<>();
+        int numberOfActions = 0;
+        do {
+            batch.add(pendingPuts.poll());
+            numberOfActions += batch.get(batch.size() - 1).request.numberOfActions();
+        } while (pendingPuts.isEmpty() == false && numberOfActions + pendingPuts.peek().request.numberOfActions() <= bulkMaxActions);
+        inFlightBulks++;
+        return batch;
+    }
+
+    private void executeBatch(List<PendingPut> batch) {
+        final BulkRequest bulkRequest;
+        if (batch.size() == 1) {
+            bulkRequest = batch.get(0).request;
+        } else {
+            bulkRequest = new BulkRequest();
+            for (PendingPut pendingPut : batch) {
+                bulkRequest.add(pendingPut.request.requests());
+            }
+        }
+        final long startTime = System.nanoTime();
+        final AtomicBoolean completed = new AtomicBoolean();
+        client.bulk(bulkRequest, new ActionListener<BulkResponse>() {
+            @Override
+            public void onResponse(BulkResponse response) {
+                try {
+                    int offset = 0;
+                    for (PendingPut pendingPut : batch) {
+                        final int numberOfActions = pendingPut.request.numberOfActions();
+                        final BulkResponse pendingResponse;
+                        if (batch.size() == 1) {
+                            pendingResponse = response;
+                        } else {
+                            BulkItemResponse[] items = new BulkItemResponse[numberOfActions];
+                            for (int i = 0; i < numberOfActions; i++) {
+                                BulkItemResponse item = response.getItems()[offset + i];
+                                items[i] = item.isFailed() ? new BulkItemResponse(i, item.getOpType(), item.getFailure())
+                                    : new BulkItemResponse(i, item.getOpType(), item.getResponse());
+                            }
+                            pendingResponse = new BulkResponse(items, response.getTook().millis());
+                        }
+                        offset += numberOfActions;
+                        notifyListener(pendingPut, () -> pendingPut.listener.onResponse(pendingResponse));
+                    }
+                } finally {
+                    onBatchCompleted(completed, bulkRequest, startTime);
+                }
+            }
+
+            @Override
+            public void onFailure(Exception e) {
+                try {
+                    for (PendingPut pendingPut : batch) {
+                        notifyListener(pendingPut, () -> pendingPut.listener.onFailure(e));
+                    }
+                } finally {
+                    onBatchCompleted(completed, bulkRequest, startTime);
+                }
+            }
+        });
+    }
+
+    /**
+     * Notifies the listener of a put that was part of a batch, the callers of the other puts of the batch must still be notified
+     * if it throws
+     */
+    private static void notifyListener(PendingPut pendingPut, Runnable notification) {
+        try {
+            notification.run();
+        } catch (Exception e) {
+            logger.warn(new ParameterizedMessage("failed to notify the listener of [{}] stored triggered watches",
+                pendingPut.request.numberOfActions()), e);
+        }
+    }
+
+    private void onBatchCompleted(AtomicBoolean completed, BulkRequest bulkRequest, long startTime) {
+        if (completed.compareAndSet(false, true) == false) {
+            return;
+        }
+        bulkRequestTime.inc(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime));
+        bulkDocuments.inc(bulkRequest.numberOfActions());
+        final List<PendingPut> batch;
+        synchronized (mutex) {
+            inFlightBulks--;
+            batch = nextBatch();
+        }
+        if (batch != null) {
+            executeBatch(batch);
+        }
+    }
+
+    /**
+     * Returns statistics about how triggered watches are stored, including how many {@link #putAll} calls were batched together
+     */
+    public Counters stats() {
+        Counters counters = new Counters();
+        counters.inc("triggered_watches.put.total", putRequests.count());
+        counters.inc("triggered_watches.bulk.total", bulkRequestTime.count());
+        counters.inc("triggered_watches.bulk.total_time_in_ms", bulkRequestTime.sum());
+        counters.inc("triggered_watches.bulk.documents", bulkDocuments.count());
+        synchronized (mutex) {
+            counters.inc("triggered_watches.bulk.current", inFlightBulks);
+            counters.inc("triggered_watches.put.queued", pendingPuts.size());
+        }
+        return counters;
     }
 
     public BulkResponse putAll(final List<TriggeredWatch> triggeredWatches) throws IOException {
@@ -183,6 +350,17 @@ public class TriggeredWatchStore {
         return triggeredWatches;
     }
 
+    private static class PendingPut {
+
+        private final BulkRequest request;
+        private final ActionListener<BulkResponse> listener;
+
+        private PendingPut(BulkRequest request, ActionListener<BulkResponse> listener) {
+            this.request = request;
+            this.listener = listener;
+        }
+    }
+
     public static boolean validate(ClusterState state) {
         IndexMetaData indexMetaData = WatchStoreUtils.getConcreteIndex(TriggeredWatchStoreField.INDEX_NAME, state.metaData());
         return indexMetaData == null || (indexMetaData.getState() == IndexMetaData.State.OPEN &&
@@ -79,6 +79,7 @@ public class TransportWatcherStatsAction extends TransportNodesAction<WatcherSta
         if (request.includeStats()) {
             Counters stats = Counters.merge(Arrays.asList(triggerService.stats(), executionService.executionTimes()));
             statsResponse.setStats(stats);
+            statsResponse.setMaxTriggerLag(triggerService.maxTriggerLag());
         }
         statsResponse.setWatchesCount(triggerService.count());
         return statsResponse;
@@ -7,6 +7,7 @@ package org.elasticsearch.xpack.watcher.trigger;
 
 import org.elasticsearch.common.Nullable;
 import org.elasticsearch.common.xcontent.XContentParser;
+import org.elasticsearch.xpack.core.watcher.common.stats.Counters;
 import org.elasticsearch.xpack.core.watcher.trigger.Trigger;
 import org.elasticsearch.xpack.core.watcher.trigger.TriggerEvent;
 import org.elasticsearch.xpack.core.watcher.watch.Watch;
@@ -51,4 +52,19 @@ public interface TriggerEngine<T extends Trigger, E extends TriggerEvent> {
 
     E parseTriggerEvent(TriggerService service, String watchId, String context, XContentParser parser) throws IOException;
 
+    /**
+     * Returns statistics about how this engine triggers watches, these are included in the watcher stats.
+     */
+    default Counters stats() {
+        return new Counters();
+    }
+
+    /**
+     * Returns the maximum delay in milliseconds between the time a watch was scheduled to be triggered and the time it was
+     * triggered. This is reported separately from {@link #stats()}, because maxima can't be merged like counters.
+     */
+    default long maxTriggerLag() {
+        return 0;
+    }
+
 }
@@ -14,6 +14,7 @@ import org.elasticsearch.xpack.core.watcher.trigger.TriggerEvent;
 import org.elasticsearch.xpack.core.watcher.watch.Watch;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
@@ -134,7 +135,12 @@ public class TriggerService {
                 }
             }
         });
-        return counters;
+        List<Counters> engineStats = new ArrayList<>(engines.size() + 1);
+        engineStats.add(counters);
+        for (TriggerEngine engine : engines.values()) {
+            engineStats.add(engine.stats());
+        }
+        return Counters.merge(engineStats);
     }
 
     /**
@@ -242,6 +248,17 @@ public class TriggerService {
         return perWatchStats.size();
     }
 
+    /**
+     * @return the maximum trigger lag in milliseconds across all engines, see {@link TriggerEngine#maxTriggerLag()}
+     */
+    public long maxTriggerLag() {
+        long max = 0;
+        for (TriggerEngine engine : engines.values()) {
+            max = Math.max(max, engine.maxTriggerLag());
+        }
+        return max;
+    }
+
     static class GroupedConsumer implements java.util.function.Consumer<Iterable<TriggerEvent>> {
 
         private List<Consumer<Iterable<TriggerEvent>>> consumers = new CopyOnWriteArrayList<>();
@@ -6,7 +6,9 @@
 package org.elasticsearch.xpack.watcher.trigger.schedule;
 
 import org.elasticsearch.common.Nullable;
+import org.elasticsearch.common.metrics.CounterMetric;
 import org.elasticsearch.common.xcontent.XContentParser;
+import org.elasticsearch.xpack.core.watcher.common.stats.Counters;
 import org.elasticsearch.xpack.core.watcher.support.WatcherDateTimeUtils;
 import org.elasticsearch.xpack.core.watcher.trigger.TriggerEvent;
 import org.elasticsearch.xpack.watcher.trigger.TriggerEngine;
@@ -19,6 +21,7 @@ import java.time.ZonedDateTime;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Consumer;
 
 import static org.elasticsearch.xpack.core.watcher.support.Exceptions.illegalArgument;
@@ -31,6 +34,10 @@ public abstract class ScheduleTriggerEngine implements TriggerEngine<ScheduleTri
     protected final ScheduleRegistry scheduleRegistry;
     protected final Clock clock;
 
+    private final CounterMetric triggeredEvents = new CounterMetric();
+    private final CounterMetric totalTriggerLag = new CounterMetric();
+    private final AtomicLong maxTriggerLag = new AtomicLong();
+
     public ScheduleTriggerEngine(ScheduleRegistry scheduleRegistry, Clock clock) {
         this.scheduleRegistry = scheduleRegistry;
         this.clock = clock;
@@ -46,6 +53,28 @@ public abstract class ScheduleTriggerEngine implements TriggerEngine<ScheduleTri
         consumers.add(consumer);
     }
 
+    /**
+     * Records that a schedule was triggered, in order to keep track of how late schedules are triggered.
+     */
+    protected void onTriggered(long scheduledTime, long triggeredTime) {
+        long lag = Math.max(0, triggeredTime - scheduledTime);
+        triggeredEvents.inc();
+        totalTriggerLag.inc(lag);
+        maxTriggerLag.accumulateAndGet(lag, Math::max);
+    }
+
+    @Override
+    public Counters stats() {
+        Counters counters = new Counters();
+        counters.inc("trigger.schedule.lag.count", triggeredEvents.count());
+        counters.inc("trigger.schedule.lag.total_in_millis", totalTriggerLag.count());
+        return counters;
+    }
+
+    @Override
+    public long maxTriggerLag() {
+        return maxTriggerLag.get();
+    }
 
     @Override
     public ScheduleTriggerEvent simulateEvent(String jobId, @Nullable Map<String, Object> data, TriggerService service) {
@@ -115,6 +115,7 @@ public class TickerScheduleTriggerEngine extends ScheduleTriggerEngine {
                 logger.debug("triggered job [{}] at [{}] (scheduled time was [{}])", schedule.name,
                     triggeredDateTime, scheduledDateTime);
                 events.add(new ScheduleTriggerEvent(schedule.name, triggeredDateTime, scheduledDateTime));
+                onTriggered(scheduledTime, triggeredTime);
                 if (events.size() >= 1000) {
                     notifyListeners(events);
                     events.clear();
@@ -0,0 +1,241 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License;
+ * you may not use this file except in compliance with the Elastic License.
+ */
+package org.elasticsearch.xpack.watcher.trigger.schedule.engine;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * A hierarchical timing wheel, see "Hashed and Hierarchical Timing Wheels" by Varghese and Lauck. Time is divided in ticks,
+ * and timers are kept in buckets by the tick they expire at: the first level has one bucket per tick, and each next level
+ * has one bucket per full rotation of the level below it. Whenever the first level completes a rotation, the timers of the
+ * next bucket of the second level are redistributed over the first level, and so on. This makes scheduling and cancelling
+ * a timer constant time operations, and advancing the wheel only costs time for the timers that expire and for the
+ * (amortized) redistribution, rather than time proportional to all timers.
+ * <p>
+ * Timers never expire before the time they were scheduled for, but may expire up to one tick after it.
+ * <p>
+ * This class is not thread-safe.
+ */
+final class TimingWheel<T> {
+
+    private static final int BITS_PER_LEVEL = 8;
+    private static final int BUCKETS_PER_LEVEL = 1 << BITS_PER_LEVEL;
+    private static final int BUCKET_MASK = BUCKETS_PER_LEVEL - 1;
+    private static final int LEVELS = 4;
+    // timers that expire further in the future are kept in the last level until they come into range
+    private static final long MAX_TICKS = (1L << (BITS_PER_LEVEL * LEVELS)) - 1;
+    // if the clock jumps by more than this many ticks, the timers are redistributed rather than advancing tick by tick
+    private static final long MAX_TICKS_TO_ADVANCE = 1L << (BITS_PER_LEVEL * 2);
+
+    private final long tickMillis;
+    private final Timer<T>[][] buckets;
+    // the next tick to process, all timers that expire before this tick have been expired already
+    private long currentTick;
+    private int size;
+
+    @SuppressWarnings("unchecked")
+    TimingWheel(long tickMillis, long nowMillis) {
+        if (tickMillis <= 0) {
+            throw new IllegalArgumentException("tick must be greater than 0 but was [" + tickMillis + "]");
+        }
+        this.tickMillis = tickMillis;
+        this.buckets = new Timer[LEVELS][BUCKETS_PER_LEVEL];
+        this.currentTick = Math.floorDiv(nowMillis, tickMillis);
+    }
+
+    /**
+     * Schedules a timer that expires at the given time, which may be in the past in which case the timer expires the next time
+     * the wheel is advanced.
+     */
+    Timer<T> schedule(T value, long expirationMillis) {
+        Timer<T> timer = new Timer<>(value);
+        reschedule(timer, expirationMillis);
+        return timer;
+    }
+
+    /**
+     * Schedules an existing timer to expire at the given time, cancelling it first if it is currently scheduled.
+     */
+    void reschedule(Timer<T> timer, long expirationMillis) {
+        cancel(timer);
+        timer.expirationMillis = expirationMillis;
+        // round up so that a timer never expires before its expiration time
+        timer.expirationTick = -Math.floorDiv(-expirationMillis, tickMillis);
+        add(timer);
+        size++;
+    }
+
+    /**
+     * Cancels the given timer, returns whether the timer was scheduled.
+     */
+    boolean cancel(Timer<T> timer) {
+        if (timer.level < 0) {
+            return false;
+        }
+        unlink(timer);
+        size--;
+        return true;
+    }
+
+    /**
+     * Advances the wheel to the given time and passes all timers that expire at or before it to the given consumer. The timers
+     * are no longer scheduled when they are passed to the consumer, which may reschedule them.
+     */
+    void advance(long nowMillis, Consumer<Timer<T>> expired) {
+        final long nowTick = Math.floorDiv(nowMillis, tickMillis);
+        if (nowTick < currentTick - 1 || nowTick - currentTick > MAX_TICKS_TO_ADVANCE) {
+            // the clock jumped backwards or far ahead
+            redistribute(nowTick);
+        }
+        while (currentTick <= nowTick) {
+            int index = (int) (currentTick & BUCKET_MASK);
+            if (index == 0) {
+                for (int level = 1; level < LEVELS; level++) {
+                    int levelIndex = (int) ((currentTick >>> (BITS_PER_LEVEL * level)) & BUCKET_MASK);
+                    cascade(level, levelIndex);
+                    if (levelIndex != 0) {
+                        break;
+                    }
+                }
+            }
+            currentTick++;
+            Timer<T> timer = buckets[0][index];
+            buckets[0][index] = null;
+            while (timer != null) {
+                Timer<T> next = timer.next;
+                timer.level = -1;
+                timer.prev = timer.next = null;
+                size--;
+                expired.accept(timer);
+                timer = next;
+            }
+        }
+    }
+
+    /**
+     * Returns the number of scheduled timers.
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Cancels all timers.
+     */
+    void clear() {
+        for (Timer<T>[] level : buckets) {
+            for (int i = 0; i < level.length; i++) {
+                Timer<T> timer = level[i];
+                while (timer != null) {
+                    Timer<T> next = timer.next;
+                    timer.level = -1;
+                    timer.prev = timer.next = null;
+                    timer = next;
+                }
+                level[i] = null;
+            }
+        }
+        size = 0;
+    }
+
+    private void cascade(int level, int index) {
+        Timer<T> timer = buckets[level][index];
+        buckets[level][index] = null;
+        while (timer != null) {
+            Timer<T> next = timer.next;
+            add(timer);
+            timer = next;
+        }
+    }
+
+    private void redistribute(long tick) {
+        List<Timer<T>> timers = new ArrayList<>(size);
+        for (Timer<T>[] level : buckets) {
+            for (int i = 0; i < level.length; i++) {
+                for (Timer<T> timer = level[i]; timer != null; timer = timer.next) {
+                    timers.add(timer);
+                }
+                level[i] = null;
+            }
+        }
+        currentTick = tick;
+        for (Timer<T> timer : timers) {
+            add(timer);
+        }
+    }
+
+    private void add(Timer<T> timer) {
+        long expirationTick = timer.expirationTick;
+        long ticks = expirationTick - currentTick;
+        int level;
+        if (ticks < 0) {
+            // expired already, add it to the bucket that is processed next
+            level = 0;
+            expirationTick = currentTick;
+        } else {
+            if (ticks > MAX_TICKS) {
+                expirationTick = currentTick + MAX_TICKS;
+                ticks = MAX_TICKS;
+            }
+            level = (63 - Long.numberOfLeadingZeros(ticks | 1)) / BITS_PER_LEVEL;
+        }
+        int index = (int) ((expirationTick >>> (BITS_PER_LEVEL * level)) & BUCKET_MASK);
+        Timer<T> head = buckets[level][index];
+        timer.level = level;
+        timer.index = index;
+        timer.prev = null;
+        timer.next = head;
+        if (head != null) {
+            head.prev = timer;
+        }
+        buckets[level][index] = timer;
+    }
+
+    private void unlink(Timer<T> timer) {
+        if (timer.prev != null) {
+            timer.prev.next = timer.next;
+        } else {
+            buckets[timer.level][timer.index] = timer.next;
+        }
+        if (timer.next != null) {
+            timer.next.prev = timer.prev;
+        }
+        timer.level = -1;
+        timer.prev = timer.next = null;
+    }
+
+    static final class Timer<T> {
+
+        private final T value;
+        private long expirationMillis;
+        private long expirationTick;
+        private int level = -1;
+        private int index;
+        private Timer<T> prev;
+        private Timer<T> next;
+
+        private Timer(T value) {
+            this.value = value;
+        }
+
+        T value() {
+            return value;
+        }
+
+        /**
+         * The time this timer was scheduled to expire at.
+         */
+        long expirationMillis() {
+            return expirationMillis;
+        }
+
+        boolean isScheduled() {
+            return level >= 0;
+        }
+    }
+}
@@ -0,0 +1,233 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License;
+ * you may not use this file except in compliance with the Elastic License.
+ */
+package org.elasticsearch.xpack.watcher.trigger.schedule.engine;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.unit.TimeValue;
+import org.elasticsearch.node.Node;
+import org.elasticsearch.xpack.core.watcher.trigger.TriggerEvent;
+import org.elasticsearch.xpack.core.watcher.watch.Watch;
+import org.elasticsearch.xpack.watcher.trigger.schedule.Schedule;
+import org.elasticsearch.xpack.watcher.trigger.schedule.ScheduleRegistry;
+import org.elasticsearch.xpack.watcher.trigger.schedule.ScheduleTrigger;
+import org.elasticsearch.xpack.watcher.trigger.schedule.ScheduleTriggerEngine;
+import org.elasticsearch.xpack.watcher.trigger.schedule.ScheduleTriggerEvent;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+
+import static org.elasticsearch.xpack.watcher.trigger.schedule.engine.TickerScheduleTriggerEngine.TICKER_INTERVAL_SETTING;
+
+/**
+ * A schedule trigger engine that keeps the next scheduled time of every watch in a {@link TimingWheel}. Unlike the
+ * {@link TickerScheduleTriggerEngine}, which checks every watch on every tick, each tick only costs time for the watches
+ * that are due, which keeps the trigger lag low when a node holds a large number of watches.
+ */
+public class TimingWheelScheduleTriggerEngine extends ScheduleTriggerEngine {
+
+    private static final Logger logger = LogManager.getLogger(TimingWheelScheduleTriggerEngine.class);
+
+    private static final int BATCH_SIZE = 1000;
+
+    private final TimeValue tickInterval;
+    // guarded by this
+    private final Map<String, TimingWheel.Timer<ActiveSchedule>> schedules = new HashMap<>();
+    // guarded by this
+    private final TimingWheel<ActiveSchedule> wheel;
+    private final Ticker ticker;
+
+    public TimingWheelScheduleTriggerEngine(Settings settings, ScheduleRegistry scheduleRegistry, Clock clock) {
+        super(scheduleRegistry, clock);
+        this.tickInterval = TICKER_INTERVAL_SETTING.get(settings);
+        this.wheel = new TimingWheel<>(tickInterval.millis(), clock.millis());
+        this.ticker = new Ticker(Node.NODE_DATA_SETTING.get(settings));
+    }
+
+    @Override
+    public synchronized void start(Collection<Watch> jobs) {
+        long startTime = clock.millis();
+        // existing schedules are not cleared here, see TickerScheduleTriggerEngine#start for why
+        for (Watch job : jobs) {
+            if (job.trigger() instanceof ScheduleTrigger) {
+                ScheduleTrigger trigger = (ScheduleTrigger) job.trigger();
+                schedule(new ActiveSchedule(job.id(), trigger.getSchedule(), startTime));
+            }
+        }
+    }
+
+    @Override
+    public void stop() {
+        synchronized (this) {
+            clear();
+        }
+        // closing waits for the ticker thread, which needs the lock to check the jobs
+        ticker.close();
+    }
+
+    @Override
+    public synchronized void pauseExecution() {
+        clear();
+    }
+
+    @Override
+    public synchronized void add(Watch watch) {
+        assert watch.trigger() instanceof ScheduleTrigger;
+        ScheduleTrigger trigger = (ScheduleTrigger) watch.trigger();
+        TimingWheel.Timer<ActiveSchedule> current = schedules.get(watch.id());
+        // only reschedule if the schedule has really changed, see TickerScheduleTriggerEngine#add
+        if (current == null || current.value().schedule.equals(trigger.getSchedule()) == false) {
+            schedule(new ActiveSchedule(watch.id(), trigger.getSchedule(), clock.millis()));
+        }
+    }
+
+    @Override
+    public synchronized boolean remove(String jobId) {
+        TimingWheel.Timer<ActiveSchedule> timer = schedules.remove(jobId);
+        if (timer == null) {
+            return false;
+        }
+        wheel.cancel(timer);
+        return true;
+    }
+
+    private void schedule(ActiveSchedule schedule) {
+        assert Thread.holdsLock(this);
+        TimingWheel.Timer<ActiveSchedule> previous = schedules.remove(schedule.name);
+        if (previous != null) {
+            wheel.cancel(previous);
+        }
+        long scheduledTime = schedule.schedule.nextScheduledTimeAfter(schedule.startTime, schedule.startTime);
+        TimingWheel.Timer<ActiveSchedule> timer = wheel.schedule(schedule, scheduledTime);
+        if (scheduledTime < 0) {
+            // the schedule never triggers, it is kept so that it can be removed or replaced later
+            wheel.cancel(timer);
+        }
+        schedules.put(schedule.name, timer);
+    }
+
+    private void clear() {
+        assert Thread.holdsLock(this);
+        schedules.clear();
+        wheel.clear();
+    }
+
+    void checkJobs() {
+        long triggeredTime = clock.millis();
+        List<TriggerEvent> events = new ArrayList<>();
+        synchronized (this) {
+            wheel.advance(triggeredTime, timer -> {
+                ActiveSchedule schedule = timer.value();
+                long scheduledTime = timer.expirationMillis();
+                if (triggeredTime < scheduledTime) {
+                    // can only happen if the clock was moved backwards, trigger at the scheduled time as the ticker engine does
+                    wheel.reschedule(timer, scheduledTime);
+                    return;
+                }
+                if (scheduledTime == 0) {
+                    scheduledTime = triggeredTime;
+                }
+                long nextScheduledTime = schedule.schedule.nextScheduledTimeAfter(schedule.startTime, triggeredTime);
+                if (nextScheduledTime >= 0) {
+                    wheel.reschedule(timer, nextScheduledTime);
+                }
+                ZonedDateTime triggeredDateTime = utcDateTimeAtEpochMillis(triggeredTime);
+                ZonedDateTime scheduledDateTime = utcDateTimeAtEpochMillis(scheduledTime);
+                logger.debug("triggered job [{}] at [{}] (scheduled time was [{}])", schedule.name,
+                    triggeredDateTime, scheduledDateTime);
+                events.add(new ScheduleTriggerEvent(schedule.name, triggeredDateTime, scheduledDateTime));
+                onTriggered(scheduledTime, triggeredTime);
+            });
+        }
+        // the listeners are notified outside of the lock, so that watches can be added or removed in the meantime
+        for (int from = 0; from < events.size(); from += BATCH_SIZE) {
+            notifyListeners(events.subList(from, Math.min(from + BATCH_SIZE, events.size())));
+        }
+    }
+
+    private ZonedDateTime utcDateTimeAtEpochMillis(long triggeredTime) {
+        return Instant.ofEpochMilli(triggeredTime).atZone(ZoneOffset.UTC);
+    }
+
+    // visible for testing
+    synchronized Map<String, ActiveSchedule> getSchedules() {
+        Map<String, ActiveSchedule> activeSchedules = new HashMap<>(schedules.size());
+        for (Map.Entry<String, TimingWheel.Timer<ActiveSchedule>> entry : schedules.entrySet()) {
+            activeSchedules.put(entry.getKey(), entry.getValue().value());
+        }
+        return activeSchedules;
+    }
+
+    protected void notifyListeners(List<TriggerEvent> events) {
+        consumers.forEach(consumer -> consumer.accept(events));
+    }
+
+    static class ActiveSchedule {
+
+        private final String name;
+        private final Schedule schedule;
+        private final long startTime;
+
+        ActiveSchedule(String name, Schedule schedule, long startTime) {
+            this.name = name;
+            this.schedule = schedule;
+            this.startTime = startTime;
+        }
+    }
+
+    class Ticker extends Thread {
+
+        private volatile boolean active = true;
+        private final CountDownLatch closeLatch = new CountDownLatch(1);
+        private boolean isDataNode;
+
+        Ticker(boolean isDataNode) {
+            super("timing-wheel-schedule-trigger-engine");
+            this.isDataNode = isDataNode;
+            setDaemon(true);
+            if (isDataNode) {
+                start();
+            }
+        }
+
+        @Override
+        public void run() {
+            while (active) {
+                logger.trace("checking jobs [{}]", clock.instant().atZone(ZoneOffset.UTC));
+                checkJobs();
+                try {
+                    sleep(tickInterval.millis());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            closeLatch.countDown();
+        }
+
+        public void close() {
+            if (isDataNode) {
+                logger.trace("stopping ticker thread");
+                active = false;
+                try {
+                    closeLatch.await();
+                } catch (InterruptedException e) {
+                    logger.warn("caught an interrupted exception when waiting while closing ticker thread", e);
+                    Thread.currentThread().interrupt();
+                }
+                logger.trace("ticker thread stopped");
+            }
+        }
+    }
+}
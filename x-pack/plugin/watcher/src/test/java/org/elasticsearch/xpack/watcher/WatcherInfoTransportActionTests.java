@@ -148,4 +148,44 @@ public class WatcherInfoTransportActionTests extends ESTestCase {
             assertThat(featureSetUsage.stats().keySet(), containsInAnyOrder("foo", "spam"));
         }
     }
+
+    public void testUsageStatsReportMaxTriggerLagAcrossNodes() throws Exception {
+        doAnswer(mock -> {
+            ActionListener<WatcherStatsResponse> listener =
+                    (ActionListener<WatcherStatsResponse>) mock.getArguments()[2];
+
+            List<WatcherStatsResponse.Node> nodes = new ArrayList<>();
+            long[] maxLags = new long[] { 30, 70, 50 };
+            for (int i = 0; i < maxLags.length; i++) {
+                DiscoveryNode node = new DiscoveryNode("node" + i, buildNewFakeTransportAddress(), Version.CURRENT);
+                WatcherStatsResponse.Node nodeResponse = new WatcherStatsResponse.Node(node);
+                Counters counters = new Counters();
+                counters.inc("trigger.schedule.lag.count", 2);
+                counters.inc("trigger.schedule.lag.total_in_millis", maxLags[i]);
+                nodeResponse.setStats(counters);
+                nodeResponse.setMaxTriggerLag(maxLags[i]);
+                nodes.add(nodeResponse);
+            }
+
+            listener.onResponse(new WatcherStatsResponse(new ClusterName("whatever"), new WatcherMetaData(false),
+                    nodes, Collections.emptyList()));
+            return null;
+        }).when(client).execute(eq(WatcherStatsAction.INSTANCE), any(), any());
+        ClusterService clusterService = mock(ClusterService.class);
+        final DiscoveryNode mockNode = mock(DiscoveryNode.class);
+        when(mockNode.getId()).thenReturn("mocknode");
+        when(clusterService.localNode()).thenReturn(mockNode);
+
+        var usageAction = new WatcherUsageTransportAction(mock(TransportService.class), clusterService, null,
+            mock(ActionFilters.class), null, Settings.EMPTY, licenseState, client);
+        PlainActionFuture<XPackUsageFeatureResponse> future = new PlainActionFuture<>();
+        usageAction.masterOperation(mock(Task.class), null, null, future);
+        WatcherFeatureSetUsage watcherUsage = (WatcherFeatureSetUsage) future.get().getUsage();
+        long count = ObjectPath.eval("trigger.schedule.lag.count", watcherUsage.stats());
+        assertThat(count, is(6L));
+        long total = ObjectPath.eval("trigger.schedule.lag.total_in_millis", watcherUsage.stats());
+        assertThat(total, is(150L));
+        long max = ObjectPath.eval("trigger.schedule.lag.max_in_millis", watcherUsage.stats());
+        assertThat(max, is(70L));
+    }
 }
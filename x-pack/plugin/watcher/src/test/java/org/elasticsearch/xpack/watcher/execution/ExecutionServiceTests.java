@@ -143,6 +143,7 @@ public class ExecutionServiceTests extends ESTestCase {
         when(input.execute(any(WatchExecutionContext.class), any(Payload.class))).thenReturn(inputResult);
 
         triggeredWatchStore = mock(TriggeredWatchStore.class);
+        when(triggeredWatchStore.stats()).thenReturn(new Counters());
         historyStore = mock(HistoryStore.class);
 
         executor = mock(WatchExecutor.class);
@@ -39,6 +39,7 @@ import org.elasticsearch.cluster.routing.TestShardRouting;
 import org.elasticsearch.cluster.routing.UnassignedInfo;
 import org.elasticsearch.common.bytes.BytesArray;
 import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.collect.Tuple;
 import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.common.util.concurrent.ThreadContext;
 import org.elasticsearch.common.xcontent.ToXContent;
@@ -53,6 +54,7 @@ import org.elasticsearch.search.SearchShardTarget;
 import org.elasticsearch.search.internal.InternalSearchResponse;
 import org.elasticsearch.test.ESTestCase;
 import org.elasticsearch.threadpool.ThreadPool;
+import org.elasticsearch.xpack.core.watcher.common.stats.Counters;
 import org.elasticsearch.xpack.core.watcher.execution.TriggeredWatchStoreField;
 import org.elasticsearch.xpack.core.watcher.execution.Wid;
 import org.elasticsearch.xpack.core.watcher.watch.ClockMock;
@@ -79,10 +81,12 @@ import java.util.List;
 import java.util.Map;
 
 import static java.util.Collections.singleton;
+import static org.hamcrest.Matchers.empty;
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.startsWith;
 import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.anyLong;
 import static org.mockito.Matchers.eq;
@@ -444,6 +448,112 @@ public class TriggeredWatchStoreTests extends ESTestCase {
         assertThat(response.getItems().length, is(numberOfTriggeredWatches));
     }
 
+    @SuppressWarnings("unchecked")
+    public void testPutTriggeredWatchesBatchesConcurrentPuts() throws Exception {
+        ZonedDateTime now = ZonedDateTime.now(ZoneOffset.UTC);
+        List<Tuple<BulkRequest, ActionListener<BulkResponse>>> bulkRequests = new ArrayList<>();
+        doAnswer(invocation -> {
+            BulkRequest bulkRequest = (BulkRequest) invocation.getArguments()[1];
+            ActionListener<BulkResponse> listener = (ActionListener<BulkResponse>) invocation.getArguments()[2];
+            bulkRequests.add(Tuple.tuple(bulkRequest, listener));
+            return null;
+        }).when(client).execute(eq(BulkAction.INSTANCE), any(), any());
+
+        int numberOfPuts = randomIntBetween(2, 10);
+        List<BulkResponse> responses = new ArrayList<>();
+        for (int i = 0; i < numberOfPuts; i++) {
+            List<TriggeredWatch> triggeredWatches = new ArrayList<>();
+            for (int j = 0; j <= i; j++) {
+                triggeredWatches.add(new TriggeredWatch(new Wid("watch_id_" + i, now),
+                    new ScheduleTriggerEvent("watch_id_" + i, now, now)));
+            }
+            triggeredWatchStore.putAll(triggeredWatches, ActionListener.wrap(responses::add, e -> fail(e.getMessage())));
+        }
+
+        // only one bulk request is in flight at a time, all puts that come in meanwhile are sent together
+        assertThat(bulkRequests, hasSize(1));
+        assertThat(bulkRequests.get(0).v1().numberOfActions(), is(1));
+        respond(bulkRequests.get(0));
+        assertThat(bulkRequests, hasSize(2));
+        assertThat(bulkRequests.get(1).v1().numberOfActions(), is(numberOfPuts * (numberOfPuts + 1) / 2 - 1));
+        respond(bulkRequests.get(1));
+
+        assertThat(responses, hasSize(numberOfPuts));
+        for (int i = 0; i < numberOfPuts; i++) {
+            BulkResponse response = responses.get(i);
+            assertThat(response.getItems().length, is(i + 1));
+            for (BulkItemResponse item : response.getItems()) {
+                assertThat(item.getId(), startsWith("watch_id_" + i + "_"));
+            }
+        }
+
+        Counters stats = triggeredWatchStore.stats();
+        assertThat(stats.get("triggered_watches.put.total"), is((long) numberOfPuts));
+        assertThat(stats.get("triggered_watches.bulk.total"), is(2L));
+        assertThat(stats.get("triggered_watches.bulk.documents"), is((long) numberOfPuts * (numberOfPuts + 1) / 2));
+        assertThat(stats.get("triggered_watches.bulk.current"), is(0L));
+    }
+
+    @SuppressWarnings("unchecked")
+    public void testFailingListenerDoesNotAffectOtherPutsOfBatch() throws Exception {
+        ZonedDateTime now = ZonedDateTime.now(ZoneOffset.UTC);
+        List<Tuple<BulkRequest, ActionListener<BulkResponse>>> bulkRequests = new ArrayList<>();
+        doAnswer(invocation -> {
+            BulkRequest bulkRequest = (BulkRequest) invocation.getArguments()[1];
+            ActionListener<BulkResponse> listener = (ActionListener<BulkResponse>) invocation.getArguments()[2];
+            bulkRequests.add(Tuple.tuple(bulkRequest, listener));
+            return null;
+        }).when(client).execute(eq(BulkAction.INSTANCE), any(), any());
+
+        int numberOfPuts = randomIntBetween(3, 10);
+        int failingPut = randomIntBetween(1, numberOfPuts - 1);
+        List<BulkResponse> responses = new ArrayList<>();
+        List<Exception> failures = new ArrayList<>();
+        for (int i = 0; i < numberOfPuts; i++) {
+            List<TriggeredWatch> triggeredWatches = Collections.singletonList(new TriggeredWatch(new Wid("watch_id_" + i, now),
+                new ScheduleTriggerEvent("watch_id_" + i, now, now)));
+            final boolean fails = i == failingPut;
+            triggeredWatchStore.putAll(triggeredWatches, new ActionListener<BulkResponse>() {
+                @Override
+                public void onResponse(BulkResponse response) {
+                    if (fails) {
+                        throw new IllegalStateException("simulated");
+                    }
+                    responses.add(response);
+                }
+
+                @Override
+                public void onFailure(Exception e) {
+                    failures.add(e);
+                }
+            });
+        }
+        assertThat(bulkRequests, hasSize(1));
+        respond(bulkRequests.get(0));
+        assertThat(bulkRequests, hasSize(2));
+        respond(bulkRequests.get(1));
+
+        // the other puts of the batch are still notified, and the batch only completes once
+        assertThat(responses, hasSize(numberOfPuts - 1));
+        assertThat(failures, empty());
+        Counters stats = triggeredWatchStore.stats();
+        assertThat(stats.get("triggered_watches.bulk.total"), is(2L));
+        assertThat(stats.get("triggered_watches.bulk.documents"), is((long) numberOfPuts));
+        assertThat(stats.get("triggered_watches.bulk.current"), is(0L));
+    }
+
+    private static void respond(Tuple<BulkRequest, ActionListener<BulkResponse>> bulkRequest) {
+        List<DocWriteRequest<?>> requests = bulkRequest.v1().requests();
+        BulkItemResponse[] bulkItemResponse = new BulkItemResponse[requests.size()];
+        for (int i = 0; i < requests.size(); i++) {
+            DocWriteRequest<?> writeRequest = requests.get(i);
+            ShardId shardId = new ShardId(TriggeredWatchStoreField.INDEX_NAME, "uuid", 0);
+            IndexResponse indexResponse = new IndexResponse(shardId, writeRequest.id(), 1, 1, 1, true);
+            bulkItemResponse[i] = new BulkItemResponse(i, writeRequest.opType(), indexResponse);
+        }
+        bulkRequest.v2().onResponse(new BulkResponse(bulkItemResponse, 123));
+    }
+
     public void testDeleteTriggeredWatches() throws Exception {
         ZonedDateTime now = ZonedDateTime.now(ZoneOffset.UTC);
 
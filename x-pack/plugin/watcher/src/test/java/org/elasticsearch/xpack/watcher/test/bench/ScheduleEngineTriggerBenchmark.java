@@ -17,14 +17,18 @@ import org.elasticsearch.xpack.watcher.trigger.schedule.ScheduleTrigger;
 import org.elasticsearch.xpack.watcher.trigger.schedule.ScheduleTriggerEngine;
 import org.elasticsearch.xpack.watcher.trigger.schedule.ScheduleTriggerEvent;
 import org.elasticsearch.xpack.watcher.trigger.schedule.engine.TickerScheduleTriggerEngine;
+import org.elasticsearch.xpack.watcher.trigger.schedule.engine.TimingWheelScheduleTriggerEngine;
 
 import java.time.Clock;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Locale;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
 
 import static java.util.Collections.emptySet;
 import static org.elasticsearch.xpack.watcher.trigger.schedule.Schedules.interval;
@@ -32,7 +36,8 @@ import static org.elasticsearch.xpack.watcher.trigger.schedule.Schedules.interva
 @SuppressForbidden(reason = "benchmark")
 public class ScheduleEngineTriggerBenchmark {
     public static void main(String[] args) throws Exception {
-        int numWatches = 1000;
+        int[] numWatchesList = new int[] { 1000 };
+        String[] engines = new String[] { "ticker", "timing_wheel" };
         int interval = 2;
         int benchTime = 60000;
 
@@ -42,65 +47,95 @@ public class ScheduleEngineTriggerBenchmark {
         for (int i = 0; i < args.length; i += 2) {
             String value = args[i + 1];
             if ("--num_watches".equals(args[i])) {
-                numWatches = Integer.valueOf(value);
+                numWatchesList = Arrays.stream(value.split(",")).mapToInt(Integer::parseInt).toArray();
             } else if ("--bench_time".equals(args[i])) {
                 benchTime = Integer.valueOf(value);
             } else if ("--interval".equals(args[i])) {
                 interval = Integer.valueOf(value);
+            } else if ("--engines".equals(args[i])) {
+                engines = value.split(",");
             }
         }
-        System.out.println("Running benchmark with numWatches=" + numWatches + " benchTime=" + benchTime + " interval=" + interval);
+        System.out.println("Running benchmark with numWatches=" + Arrays.toString(numWatchesList) + " benchTime=" + benchTime +
+                " interval=" + interval + " engines=" + Arrays.toString(engines));
 
         Settings settings = Settings.builder()
                 .put("name", "test")
                 .build();
-        List<Watch> watches = new ArrayList<>(numWatches);
-        for (int i = 0; i < numWatches; i++) {
-            watches.add(new Watch("job_" + i, new ScheduleTrigger(interval(interval + "s")), new ExecutableNoneInput(),
-                    InternalAlwaysCondition.INSTANCE, null, null, Collections.emptyList(), null, null, 1L, 1L));
-        }
         ScheduleRegistry scheduleRegistry = new ScheduleRegistry(emptySet());
 
         List<Stats> results = new ArrayList<>();
-        System.gc();
-        System.out.println("=====================================");
-        System.out.println("===> Testing scheduler");
-        System.out.println("=====================================");
-        final AtomicBoolean running = new AtomicBoolean(false);
-        final AtomicInteger total = new AtomicInteger();
-        final MeanMetric triggerMetric = new MeanMetric();
-        final MeanMetric tooEarlyMetric = new MeanMetric();
-
-        final ScheduleTriggerEngine scheduler = new TickerScheduleTriggerEngine(settings, scheduleRegistry, Clock.systemUTC()) {
-            @Override
-            protected void notifyListeners(List<TriggerEvent> events) {
-                if (running.get()) {
-                    for (TriggerEvent event : events) {
-                        ScheduleTriggerEvent scheduleTriggerEvent = (ScheduleTriggerEvent) event;
-                        measure(total, triggerMetric, tooEarlyMetric, event.triggeredTime().toInstant().toEpochMilli(),
-                                scheduleTriggerEvent.scheduledTime().toInstant().toEpochMilli());
+        for (int numWatches : numWatchesList) {
+            List<Watch> watches = new ArrayList<>(numWatches);
+            for (int i = 0; i < numWatches; i++) {
+                watches.add(new Watch("job_" + i, new ScheduleTrigger(interval(interval + "s")), new ExecutableNoneInput(),
+                        InternalAlwaysCondition.INSTANCE, null, null, Collections.emptyList(), null, null, 1L, 1L));
+            }
+            for (String engine : engines) {
+                System.gc();
+                System.out.println("=====================================");
+                System.out.println("===> Testing [" + engine + "] scheduler with [" + numWatches + "] watches");
+                System.out.println("=====================================");
+                final AtomicBoolean running = new AtomicBoolean(false);
+                final AtomicInteger total = new AtomicInteger();
+                final MeanMetric triggerMetric = new MeanMetric();
+                final MeanMetric tooEarlyMetric = new MeanMetric();
+                final Consumer<List<TriggerEvent>> listener = events -> {
+                    if (running.get()) {
+                        for (TriggerEvent event : events) {
+                            ScheduleTriggerEvent scheduleTriggerEvent = (ScheduleTriggerEvent) event;
+                            measure(total, triggerMetric, tooEarlyMetric, event.triggeredTime().toInstant().toEpochMilli(),
+                                    scheduleTriggerEvent.scheduledTime().toInstant().toEpochMilli());
+                        }
                     }
+                };
+
+                final ScheduleTriggerEngine scheduler;
+                switch (engine) {
+                    case "ticker":
+                        scheduler = new TickerScheduleTriggerEngine(settings, scheduleRegistry, Clock.systemUTC()) {
+                            @Override
+                            protected void notifyListeners(List<TriggerEvent> events) {
+                                listener.accept(events);
+                            }
+                        };
+                        break;
+                    case "timing_wheel":
+                        scheduler = new TimingWheelScheduleTriggerEngine(settings, scheduleRegistry, Clock.systemUTC()) {
+                            @Override
+                            protected void notifyListeners(List<TriggerEvent> events) {
+                                listener.accept(events);
+                            }
+                        };
+                        break;
+                    default:
+                        throw new IllegalArgumentException("unknown engine [" + engine + "]");
                 }
+                long startTime = System.nanoTime();
+                scheduler.start(watches);
+                long startTimeMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime);
+                System.out.println("Added [" + numWatches + "] jobs in [" + startTimeMillis + "] ms");
+                running.set(true);
+                Thread.sleep(benchTime);
+                running.set(false);
+                scheduler.stop();
+                System.out.println("done, triggered [" + total.get() + "] times, delayed triggered [" + triggerMetric.count() +
+                        "] times, avg [" + triggerMetric.mean() + "] ms");
+                results.add(new Stats(engine, numWatches, startTimeMillis, total.get(), triggerMetric.count(), triggerMetric.mean(),
+                        tooEarlyMetric.count(), tooEarlyMetric.mean()));
             }
-        };
-        scheduler.start(watches);
-        System.out.println("Added [" + numWatches + "] jobs");
-        running.set(true);
-        Thread.sleep(benchTime);
-        running.set(false);
-        scheduler.stop();
-        System.out.println("done, triggered [" + total.get() + "] times, delayed triggered [" + triggerMetric.count() +
-                "] times, avg [" + triggerMetric.mean() + "] ms");
-        results.add(new Stats(total.get(), triggerMetric.count(), triggerMetric.mean(), tooEarlyMetric.count(), tooEarlyMetric.mean()));
+        }
 
-        System.out.println("       Name     | # triggered | # delayed | avg delay | # too early triggered | avg too early delay");
-        System.out.println("--------------- | ----------- | --------- | --------- | --------------------- | ------------------ ");
+        System.out.println("       Name     | # watches | start ms | # triggered | # delayed | avg delay | # too early triggered | " +
+                "avg too early delay");
+        System.out.println("--------------- | --------- | -------- | ----------- | --------- | --------- | --------------------- | " +
+                "------------------ ");
         for (Stats stats : results) {
             System.out.printf(
                     Locale.ENGLISH,
-                    "%11d | %9d | %9d | %21d | %18d\n",
-                    stats.numberOfTimesTriggered, stats.numberOfTimesDelayed, stats.avgDelayTime,
-                    stats.numberOfEarlyTriggered, stats.avgEarlyDelayTime
+                    "%15s | %9d | %8d | %11d | %9d | %9d | %21d | %18d\n",
+                    stats.name, stats.numWatches, stats.startTimeMillis, stats.numberOfTimesTriggered, stats.numberOfTimesDelayed,
+                    stats.avgDelayTime, stats.numberOfEarlyTriggered, stats.avgEarlyDelayTime
             );
         }
     }
@@ -119,14 +154,20 @@ public class ScheduleEngineTriggerBenchmark {
 
     static class Stats {
 
+        final String name;
+        final int numWatches;
+        final long startTimeMillis;
         final int numberOfTimesTriggered;
         final long numberOfTimesDelayed;
         final long avgDelayTime;
         final long numberOfEarlyTriggered;
         final long avgEarlyDelayTime;
 
-        Stats(int numberOfTimesTriggered, long numberOfTimesDelayed, double avgDelayTime,
-              long numberOfEarlyTriggered, double avgEarlyDelayTime) {
+        Stats(String name, int numWatches, long startTimeMillis, int numberOfTimesTriggered, long numberOfTimesDelayed,
+              double avgDelayTime, long numberOfEarlyTriggered, double avgEarlyDelayTime) {
+            this.name = name;
+            this.numWatches = numWatches;
+            this.startTimeMillis = startTimeMillis;
             this.numberOfTimesTriggered = numberOfTimesTriggered;
             this.numberOfTimesDelayed = numberOfTimesDelayed;
             this.avgDelayTime = Math.round(avgDelayTime);
@@ -69,7 +69,7 @@ public class WatcherScheduleEngineBenchmark {
     public static void main(String[] args) throws Exception {
         System.setProperty("es.logger.prefix", "");
 
-        String[] engines = new String[]{"ticker", "scheduler"};
+        String[] engines = new String[]{"ticker", "timing_wheel"};
         int numWatches = 2000;
         int benchTime = 60000;
         int interval = 1;
@@ -38,6 +38,7 @@ public class TriggerServiceTests extends ESTestCase {
     public void setupTriggerService() {
         TriggerEngine triggerEngine = mock(TriggerEngine.class);
         when(triggerEngine.type()).thenReturn(ENGINE_TYPE);
+        when(triggerEngine.stats()).thenReturn(new Counters());
         service = new TriggerService(Collections.singleton(triggerEngine));
 
         // simple watch, input and simple action
@@ -0,0 +1,206 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License;
+ * you may not use this file except in compliance with the Elastic License.
+ */
+package org.elasticsearch.xpack.watcher.trigger.schedule.engine;
+
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.unit.TimeValue;
+import org.elasticsearch.index.seqno.SequenceNumbers;
+import org.elasticsearch.test.ESTestCase;
+import org.elasticsearch.xpack.core.watcher.common.stats.Counters;
+import org.elasticsearch.xpack.core.watcher.trigger.TriggerEvent;
+import org.elasticsearch.xpack.core.watcher.watch.ClockMock;
+import org.elasticsearch.xpack.core.watcher.watch.Watch;
+import org.elasticsearch.xpack.watcher.condition.InternalAlwaysCondition;
+import org.elasticsearch.xpack.watcher.input.none.ExecutableNoneInput;
+import org.elasticsearch.xpack.watcher.trigger.schedule.Schedule;
+import org.elasticsearch.xpack.watcher.trigger.schedule.ScheduleRegistry;
+import org.elasticsearch.xpack.watcher.trigger.schedule.ScheduleTrigger;
+import org.elasticsearch.xpack.watcher.trigger.schedule.ScheduleTriggerEvent;
+import org.junit.After;
+import org.junit.Before;
+
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.temporal.ChronoField;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.elasticsearch.xpack.watcher.trigger.schedule.Schedules.daily;
+import static org.elasticsearch.xpack.watcher.trigger.schedule.Schedules.interval;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.mockito.Mockito.mock;
+
+public class TimingWheelScheduleEngineTests extends ESTestCase {
+
+    private TimingWheelScheduleTriggerEngine engine;
+    protected ClockMock clock = ClockMock.frozen();
+
+    @Before
+    public void init() throws Exception {
+        Settings settings = Settings.EMPTY;
+        // having a low value here speeds up the tests tremendously, we still want to run with the defaults every now and then
+        if (usually()) {
+            settings = Settings.builder().put(TickerScheduleTriggerEngine.TICKER_INTERVAL_SETTING.getKey(), "10ms").build();
+        }
+        engine = new TimingWheelScheduleTriggerEngine(settings, mock(ScheduleRegistry.class), clock);
+    }
+
+    @After
+    public void cleanup() throws Exception {
+        engine.stop();
+    }
+
+    public void testStart() throws Exception {
+        int count = randomIntBetween(2, 5);
+        final CountDownLatch firstLatch = new CountDownLatch(count);
+        final CountDownLatch secondLatch = new CountDownLatch(count);
+        List<Watch> watches = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            watches.add(createWatch(String.valueOf(i), interval("1s")));
+        }
+        final BitSet bits = new BitSet(count);
+
+        engine.register(events -> {
+            for (TriggerEvent event : events) {
+                int index = Integer.parseInt(event.jobName());
+                if (bits.get(index) == false) {
+                    bits.set(index);
+                    firstLatch.countDown();
+                } else {
+                    secondLatch.countDown();
+                }
+            }
+        });
+
+        engine.start(watches);
+        clock.fastForward(TimeValue.timeValueMillis(1100));
+        if (firstLatch.await(3 * count, TimeUnit.SECONDS) == false) {
+            fail("waiting too long for all watches to be triggered");
+        }
+
+        clock.fastForward(TimeValue.timeValueMillis(1100));
+        if (secondLatch.await(3 * count, TimeUnit.SECONDS) == false) {
+            fail("waiting too long for all watches to be triggered");
+        }
+        engine.stop();
+        assertThat(bits.cardinality(), is(count));
+    }
+
+    public void testAddDaily() throws Exception {
+        final String name = "job_name";
+        final CountDownLatch latch = new CountDownLatch(1);
+        engine.start(Collections.emptySet());
+        List<ScheduleTriggerEvent> triggered = new CopyOnWriteArrayList<>();
+        engine.register(events -> {
+            for (TriggerEvent event : events) {
+                triggered.add((ScheduleTriggerEvent) event);
+                latch.countDown();
+            }
+        });
+
+        // the time may also move backwards here, which the engine has to cope with
+        ZonedDateTime testNowTime = clock.instant().atZone(ZoneOffset.UTC)
+            .with(ChronoField.HOUR_OF_DAY, randomIntBetween(0, 23)).with(ChronoField.MINUTE_OF_HOUR, randomIntBetween(0, 59))
+            .with(ChronoField.SECOND_OF_MINUTE, 59);
+        ZonedDateTime scheduledTime = testNowTime.plusSeconds(2);
+
+        clock.setTime(testNowTime);
+        engine.add(createWatch(name, daily().at(scheduledTime.getHour(), scheduledTime.getMinute()).build()));
+        clock.setTime(scheduledTime);
+
+        if (latch.await(5, TimeUnit.SECONDS) == false) {
+            fail("waiting too long for all watches to be triggered");
+        }
+        assertThat(triggered.get(0).jobName(), is(name));
+        ZonedDateTime expectedScheduledTime = scheduledTime.truncatedTo(ChronoUnit.MINUTES);
+        assertThat(triggered.get(0).scheduledTime().toInstant(), equalTo(expectedScheduledTime.toInstant()));
+        assertThat(triggered.get(0).triggeredTime().toInstant().toEpochMilli(), equalTo(clock.millis()));
+    }
+
+    public void testAddSameJobSeveralTimesAndExecutedOnce() throws InterruptedException {
+        engine.start(Collections.emptySet());
+
+        final CountDownLatch firstLatch = new CountDownLatch(1);
+        final CountDownLatch secondLatch = new CountDownLatch(1);
+        AtomicInteger counter = new AtomicInteger(0);
+        engine.register(events -> events.forEach(event -> {
+            if (counter.getAndIncrement() == 0) {
+                firstLatch.countDown();
+            } else {
+                secondLatch.countDown();
+            }
+        }));
+
+        int times = scaledRandomIntBetween(3, 30);
+        for (int i = 0; i < times; i++) {
+            engine.add(createWatch("_id", interval("1s")));
+        }
+
+        clock.fastForward(TimeValue.timeValueMillis(1100));
+        if (firstLatch.await(3, TimeUnit.SECONDS) == false) {
+            fail("waiting too long for all watches to be triggered");
+        }
+
+        clock.fastForward(TimeValue.timeValueMillis(1100));
+        if (secondLatch.await(3, TimeUnit.SECONDS) == false) {
+            fail("waiting too long for all watches to be triggered");
+        }
+
+        // ensure job was only called twice independent from its name
+        assertThat(counter.get(), is(2));
+        Counters stats = engine.stats();
+        assertThat(stats.get("trigger.schedule.lag.count"), is(2L));
+        assertThat(stats.get("trigger.schedule.lag.max_in_millis"), is(0L));
+        assertThat(engine.maxTriggerLag(), greaterThanOrEqualTo(0L));
+    }
+
+    public void testAddOnlyWithNewSchedule() {
+        engine.start(Collections.emptySet());
+
+        // add watch with schedule
+        Watch oncePerSecondWatch = createWatch("_id", interval("1s"));
+        engine.add(oncePerSecondWatch);
+        TimingWheelScheduleTriggerEngine.ActiveSchedule activeSchedule = engine.getSchedules().get("_id");
+        engine.add(oncePerSecondWatch);
+        assertThat(engine.getSchedules().get("_id"), is(activeSchedule));
+
+        // add watch with same id but different watch
+        Watch oncePerMinuteWatch = createWatch("_id", interval("1m"));
+        engine.add(oncePerMinuteWatch);
+        assertThat(engine.getSchedules().get("_id"), not(is(activeSchedule)));
+    }
+
+    public void testRemove() throws Exception {
+        engine.start(Collections.emptySet());
+        AtomicInteger counter = new AtomicInteger(0);
+        engine.register(events -> events.forEach(event -> counter.incrementAndGet()));
+
+        engine.add(createWatch("_id", interval("1s")));
+        assertThat(engine.remove("_id"), is(true));
+        assertThat(engine.remove("_id"), is(false));
+        assertThat(engine.getSchedules().isEmpty(), is(true));
+
+        clock.fastForward(TimeValue.timeValueMillis(1100));
+        engine.checkJobs();
+        assertThat(counter.get(), is(0));
+    }
+
+    private Watch createWatch(String name, Schedule schedule) {
+        return new Watch(name, new ScheduleTrigger(schedule), new ExecutableNoneInput(),
+                InternalAlwaysCondition.INSTANCE, null, null,
+                Collections.emptyList(), null, null, SequenceNumbers.UNASSIGNED_SEQ_NO, SequenceNumbers.UNASSIGNED_PRIMARY_TERM);
+    }
+}
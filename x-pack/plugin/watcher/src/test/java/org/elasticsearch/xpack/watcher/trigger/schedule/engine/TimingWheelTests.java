@@ -0,0 +1,163 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License;
+ * you may not use this file except in compliance with the Elastic License.
+ */
+package org.elasticsearch.xpack.watcher.trigger.schedule.engine;
+
+import org.elasticsearch.test.ESTestCase;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.startsWith;
+
+public class TimingWheelTests extends ESTestCase {
+
+    public void testTimersExpireInOrderWithinOneTick() {
+        long tick = randomIntBetween(1, 1000);
+        long now = randomLongBetween(0, Long.MAX_VALUE / 4);
+        TimingWheel<Integer> wheel = new TimingWheel<>(tick, now);
+        int numTimers = scaledRandomIntBetween(10, 10000);
+        // spread the timers over all levels of the wheel
+        long maxDelay = tick * randomFrom(100L, 1L << 16, 1L << 24, 1L << 34);
+        Map<Integer, Long> expirations = new HashMap<>();
+        for (int i = 0; i < numTimers; i++) {
+            long expiration = now + randomLongBetween(0, maxDelay);
+            expirations.put(i, expiration);
+            wheel.schedule(i, expiration);
+        }
+        assertThat(wheel.size(), equalTo(numTimers));
+
+        int numExpired = 0;
+        while (wheel.size() > 0) {
+            now += randomLongBetween(1, maxDelay / 64 + 1);
+            final long time = now;
+            wheel.advance(time, timer -> {
+                assertThat(timer.isScheduled(), is(false));
+                Long expiration = expirations.get(timer.value());
+                assertNotNull("timer expired twice", expiration);
+                assertThat(timer.expirationMillis(), equalTo(expiration));
+                assertThat("timer expired before its expiration time", time, greaterThanOrEqualTo(expiration));
+                expirations.remove(timer.value());
+            });
+            numExpired = numTimers - expirations.size();
+            for (long expiration : expirations.values()) {
+                // the wheel only works in ticks, so timers that expire later within the current tick may remain
+                assertThat("timer should have expired", expiration, greaterThan(now - now % tick));
+            }
+        }
+        assertThat(numExpired, equalTo(numTimers));
+    }
+
+    public void testAdvanceTickByTick() {
+        TimingWheel<String> wheel = new TimingWheel<>(10, 0);
+        wheel.schedule("a", 15);
+        wheel.schedule("b", 2570);
+        wheel.schedule("c", 655360);
+        List<String> expired = new ArrayList<>();
+        List<Long> expiredAt = new ArrayList<>();
+        for (long now = 0; now <= 700000; now += 10) {
+            final long time = now;
+            wheel.advance(now, timer -> {
+                expired.add(timer.value());
+                expiredAt.add(time);
+            });
+        }
+        assertThat(expired, contains("a", "b", "c"));
+        assertThat(expiredAt, contains(20L, 2570L, 655360L));
+        assertThat(wheel.size(), equalTo(0));
+    }
+
+    public void testCancel() {
+        TimingWheel<String> wheel = new TimingWheel<>(10, 0);
+        TimingWheel.Timer<String> first = wheel.schedule("first", 100);
+        TimingWheel.Timer<String> second = wheel.schedule("second", 100);
+        TimingWheel.Timer<String> third = wheel.schedule("third", 100_000);
+        assertThat(wheel.size(), equalTo(3));
+
+        assertThat(wheel.cancel(first), is(true));
+        assertThat(wheel.cancel(first), is(false));
+        assertThat(wheel.cancel(third), is(true));
+        assertThat(wheel.size(), equalTo(1));
+
+        List<String> expired = new ArrayList<>();
+        wheel.advance(200_000, timer -> expired.add(timer.value()));
+        assertThat(expired, contains("second"));
+        assertThat(second.isScheduled(), is(false));
+    }
+
+    public void testRescheduleFromConsumer() {
+        TimingWheel<String> wheel = new TimingWheel<>(10, 0);
+        wheel.schedule("periodic", 100);
+        List<Long> expiredAt = new ArrayList<>();
+        for (long now = 0; now <= 1000; now += 10) {
+            final long time = now;
+            wheel.advance(now, timer -> {
+                expiredAt.add(time);
+                wheel.reschedule(timer, timer.expirationMillis() + 100);
+            });
+        }
+        assertThat(expiredAt, contains(100L, 200L, 300L, 400L, 500L, 600L, 700L, 800L, 900L, 1000L));
+        assertThat(wheel.size(), equalTo(1));
+    }
+
+    public void testPastExpirationExpiresOnNextAdvance() {
+        TimingWheel<String> wheel = new TimingWheel<>(10, 1000);
+        wheel.schedule("past", randomLongBetween(0, 999));
+        List<String> expired = new ArrayList<>();
+        wheel.advance(1000, timer -> expired.add(timer.value()));
+        assertThat(expired, contains("past"));
+    }
+
+    public void testClockJumps() {
+        TimingWheel<String> wheel = new TimingWheel<>(10, 1_000_000);
+        wheel.schedule("a", 1_000_500);
+        wheel.schedule("b", 500_000_000);
+
+        // the clock moves backwards, nothing may expire early
+        List<String> expired = new ArrayList<>();
+        wheel.advance(10_000, timer -> expired.add(timer.value()));
+        assertThat(expired, empty());
+        wheel.advance(1_000_499, timer -> expired.add(timer.value()));
+        assertThat(expired, empty());
+        wheel.advance(1_000_500, timer -> expired.add(timer.value()));
+        assertThat(expired, contains("a"));
+
+        // the clock jumps far ahead, everything that is due expires at once
+        wheel.schedule("c", 2_000_000);
+        expired.clear();
+        wheel.advance(600_000_000, timer -> expired.add(timer.value()));
+        assertThat(expired.size(), equalTo(2));
+        assertThat(wheel.size(), equalTo(0));
+    }
+
+    public void testClear() {
+        TimingWheel<String> wheel = new TimingWheel<>(10, 0);
+        List<TimingWheel.Timer<String>> timers = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            timers.add(wheel.schedule("timer_" + i, randomLongBetween(0, 1L << 30)));
+        }
+        wheel.clear();
+        assertThat(wheel.size(), equalTo(0));
+        for (TimingWheel.Timer<String> timer : timers) {
+            assertThat(timer.isScheduled(), is(false));
+        }
+        List<String> expired = new ArrayList<>();
+        wheel.advance(1L << 31, timer -> expired.add(timer.value()));
+        assertThat(expired, empty());
+    }
+
+    public void testInvalidTick() {
+        IllegalArgumentException e = expectThrows(IllegalArgumentException.class, () -> new TimingWheel<>(randomIntBetween(-10, 0), 0));
+        assertThat(e.getMessage(), startsWith("tick must be greater than 0"));
+    }
+}